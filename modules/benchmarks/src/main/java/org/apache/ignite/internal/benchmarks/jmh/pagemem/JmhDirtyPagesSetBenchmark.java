@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.benchmarks.jmh.pagemem;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.internal.benchmarks.jmh.JmhAbstractBenchmark;
+import org.apache.ignite.internal.benchmarks.jmh.runner.JmhIdeBenchmarkRunner;
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.PageIdAllocator;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.FullPageIdSet;
+import org.apache.ignite.internal.util.GridConcurrentHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+
+/**
+ * Compares the set of dirty pages of a page memory segment based on {@link GridConcurrentHashSet} with
+ * {@link FullPageIdSet}: marking pages dirty and taking the checkpoint snapshot of them. Allocation rate reported
+ * by the GC profiler shows the heap footprint of dirty pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JmhDirtyPagesSetBenchmark extends JmhAbstractBenchmark {
+    /** Number of dirty pages. */
+    private static final int PAGES = 1_000_000;
+
+    /** Number of cache groups. */
+    private static final int GROUPS = 8;
+
+    /** Number of partitions. */
+    private static final int PARTS = 64;
+
+    /**
+     * @return Checkpoint snapshot of dirty pages.
+     */
+    @Benchmark
+    public FullPageId[] concurrentHashSet() {
+        Collection<FullPageId> dirtyPages = new GridConcurrentHashSet<>();
+
+        for (int i = 0; i < PAGES; i++)
+            dirtyPages.add(new FullPageId(pageId(i), groupId(i)));
+
+        return dirtyPages.toArray(new FullPageId[0]);
+    }
+
+    /**
+     * @return Checkpoint snapshot of dirty pages.
+     */
+    @Benchmark
+    public long[] fullPageIdSet() {
+        FullPageIdSet dirtyPages = new FullPageIdSet();
+
+        for (int i = 0; i < PAGES; i++)
+            dirtyPages.add(groupId(i), pageId(i));
+
+        int[] grpIds = new int[dirtyPages.size()];
+        long[] pageIds = new long[dirtyPages.size()];
+
+        dirtyPages.copyTo(grpIds, pageIds, 0);
+
+        return pageIds;
+    }
+
+    /**
+     * @param i Page number.
+     * @return Cache group ID.
+     */
+    private static int groupId(int i) {
+        return i % GROUPS + 1;
+    }
+
+    /**
+     * @param i Page number.
+     * @return Page ID.
+     */
+    private static long pageId(int i) {
+        return PageIdUtils.pageId(i / GROUPS % PARTS, PageIdAllocator.FLAG_DATA, i / GROUPS / PARTS);
+    }
+
+    /**
+     * Run benchmarks.
+     *
+     * @param args Arguments.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        JmhIdeBenchmarkRunner.create()
+            .forks(1)
+            .threads(1)
+            .benchmarkModes(Mode.AverageTime)
+            .outputTimeUnit(TimeUnit.MILLISECONDS)
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .benchmarks(JmhDirtyPagesSetBenchmark.class.getSimpleName())
+            .profilers(GCProfiler.class)
+            .jvmArguments("-Xms4g", "-Xmx4g")
+            .run();
+    }
+}
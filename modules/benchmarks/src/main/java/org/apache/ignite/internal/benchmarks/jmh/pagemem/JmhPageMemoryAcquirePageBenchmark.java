@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.internal.benchmarks.jmh.pagemem;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.configuration.WALMode;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.benchmarks.jmh.JmhAbstractBenchmark;
+import org.apache.ignite.internal.benchmarks.jmh.runner.JmhIdeBenchmarkRunner;
+import org.apache.ignite.internal.pagemem.PageIdAllocator;
+import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
+import org.apache.ignite.internal.util.typedef.internal.CU;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP;
+
+/**
+ * Measures throughput of {@link PageMemoryEx#acquirePage(int, long)} for pages which are already loaded
+ * to the persistent data region, with and without optimistic (lock-free) lookup of the loaded pages table.
+ */
+@State(Scope.Benchmark)
+public class JmhPageMemoryAcquirePageBenchmark extends JmhAbstractBenchmark {
+    /** */
+    private static final String CACHE_NAME = "cache";
+
+    /** Number of pages to allocate and acquire. */
+    private static final int PAGES = 100_000;
+
+    /** */
+    private static final long MB = 1024L * 1024;
+
+    /** Use optimistic lookup of the loaded pages. */
+    @Param({"true", "false"})
+    private boolean optimistic;
+
+    /** */
+    private IgniteEx ignite;
+
+    /** */
+    private PageMemoryEx pageMem;
+
+    /** */
+    private int grpId;
+
+    /** */
+    private final long[] pageIds = new long[PAGES];
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty(IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP, String.valueOf(optimistic));
+
+        U.delete(U.resolveWorkDirectory(U.defaultWorkDirectory(), "db", false));
+
+        ignite = (IgniteEx)Ignition.start(configuration());
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        ignite.getOrCreateCache(CACHE_NAME);
+
+        GridCacheSharedContext<?, ?> cctx = ignite.context().cache().context();
+
+        pageMem = (PageMemoryEx)cctx.database().dataRegion(null).pageMemory();
+
+        grpId = CU.cacheId(CACHE_NAME);
+
+        cctx.database().checkpointReadLock();
+
+        try {
+            for (int i = 0; i < PAGES; i++)
+                pageIds[i] = pageMem.allocatePage(grpId, PageIdAllocator.INDEX_PARTITION, PageIdAllocator.FLAG_IDX);
+        }
+        finally {
+            cctx.database().checkpointReadUnlock();
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        Ignition.stopAll(true);
+
+        System.clearProperty(IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP);
+
+        U.delete(U.resolveWorkDirectory(U.defaultWorkDirectory(), "db", false));
+    }
+
+    /**
+     * @return Node configuration.
+     */
+    private IgniteConfiguration configuration() {
+        return new IgniteConfiguration()
+            .setIgniteInstanceName("node")
+            .setLocalHost("127.0.0.1")
+            .setDiscoverySpi(new TcpDiscoverySpi()
+                .setIpFinder(new TcpDiscoveryVmIpFinder()
+                    .setAddresses(Collections.singleton("127.0.0.1:47500..47502"))))
+            .setCacheConfiguration(new CacheConfiguration<>(CACHE_NAME))
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setWalMode(WALMode.LOG_ONLY)
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration()
+                    .setPersistenceEnabled(true)
+                    .setMaxSize(1024 * MB)));
+    }
+
+    /**
+     * @return Page absolute pointer.
+     * @throws Exception If failed.
+     */
+    @Benchmark
+    public long acquirePage() throws Exception {
+        long pageId = pageIds[ThreadLocalRandom.current().nextInt(PAGES)];
+
+        long page = pageMem.acquirePage(grpId, pageId);
+
+        pageMem.releasePage(grpId, pageId, page);
+
+        return page;
+    }
+
+    /**
+     * Run benchmarks.
+     *
+     * @param args Arguments.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[] {1, 8, 32, 64})
+            run(threads);
+    }
+
+    /**
+     * Run benchmark.
+     *
+     * @param threads Amount of threads.
+     * @throws Exception If failed.
+     */
+    private static void run(int threads) throws Exception {
+        JmhIdeBenchmarkRunner.create()
+            .forks(1)
+            .threads(threads)
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .benchmarks(JmhPageMemoryAcquirePageBenchmark.class.getSimpleName())
+            .jvmArguments("-Xms4g", "-Xmx4g")
+            .run();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.benchmarks.jmh.sql;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.benchmarks.jmh.JmhAbstractBenchmark;
+import org.apache.ignite.internal.benchmarks.jmh.runner.JmhIdeBenchmarkRunner;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapVectorizedQuery.IGNITE_SQL_MAP_VECTORIZED_EXECUTION;
+
+/**
+ * Compares latency of aggregating queries over a large table executed by H2 and by the vectorized execution
+ * of map queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JmhSqlVectorizedAggregateBenchmark extends JmhAbstractBenchmark {
+    /** Number of groups. */
+    private static final int GROUPS = 100;
+
+    /** Number of rows. */
+    @Param({"10000000"})
+    private int rows;
+
+    /** Vectorized execution of map queries. */
+    @Param({"false", "true"})
+    private boolean vectorized;
+
+    /** */
+    private IgniteEx ignite;
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty(IGNITE_SQL_MAP_VECTORIZED_EXECUTION, String.valueOf(vectorized));
+
+        ignite = (IgniteEx)Ignition.start(configuration());
+
+        sql("CREATE TABLE T (ID INT PRIMARY KEY, GRP INT, VAL BIGINT, PRICE DOUBLE) " +
+            "WITH \"CACHE_NAME=T,VALUE_TYPE=T_VAL\"");
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        try (IgniteDataStreamer<Object, Object> streamer = ignite.dataStreamer("T")) {
+            for (int i = 0; i < rows; i++) {
+                streamer.addData(i, ignite.binary().builder("T_VAL")
+                    .setField("GRP", i % GROUPS)
+                    .setField("VAL", (long)rnd.nextInt(1_000_000))
+                    .setField("PRICE", rnd.nextDouble() * 1000)
+                    .build());
+            }
+        }
+    }
+
+    /**
+     * Stop node.
+     */
+    @TearDown
+    public void tearDown() {
+        Ignition.stopAll(true);
+
+        System.clearProperty(IGNITE_SQL_MAP_VECTORIZED_EXECUTION);
+    }
+
+    /**
+     * @return Node configuration.
+     */
+    private static IgniteConfiguration configuration() {
+        return new IgniteConfiguration()
+            .setIgniteInstanceName("node")
+            .setLocalHost("127.0.0.1")
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration()
+                    .setMaxSize(4L * 1024 * 1024 * 1024)))
+            .setDiscoverySpi(new TcpDiscoverySpi()
+                .setIpFinder(new TcpDiscoveryVmIpFinder()
+                    .setAddresses(Collections.singleton("127.0.0.1:47500..47502"))));
+    }
+
+    /**
+     * @return Result.
+     */
+    @Benchmark
+    public List<List<?>> sum() {
+        return sql("SELECT SUM(VAL), AVG(PRICE) FROM T");
+    }
+
+    /**
+     * @return Result.
+     */
+    @Benchmark
+    public List<List<?>> count() {
+        return sql("SELECT COUNT(*) FROM T WHERE VAL > ? AND PRICE < ?", 500_000, 500.0);
+    }
+
+    /**
+     * @return Result.
+     */
+    @Benchmark
+    public List<List<?>> groupBy() {
+        return sql("SELECT GRP, COUNT(*), SUM(VAL), MAX(PRICE) FROM T WHERE VAL > ? GROUP BY GRP", 100_000);
+    }
+
+    /**
+     * @param sql Query.
+     * @param args Arguments.
+     * @return Result.
+     */
+    private List<List<?>> sql(String sql, Object... args) {
+        return ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+
+    /**
+     * Run benchmarks.
+     *
+     * @param args Arguments.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        JmhIdeBenchmarkRunner.create()
+            .forks(1)
+            .threads(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .benchmarks(JmhSqlVectorizedAggregateBenchmark.class.getSimpleName())
+            .jvmArguments("-Xms4g", "-Xmx4g")
+            .run();
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.ignite.internal.benchmarks.jmh.tree;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.configuration.DataRegionConfiguration;
 import org.apache.ignite.internal.benchmarks.jmh.JmhAbstractBenchmark;
@@ -75,6 +76,9 @@ public class BPlusTreeBenchmark extends JmhAbstractBenchmark {
     /** */
     private static final int KEYS = 1_000_000;
 
+    /** Number of consecutive keys in a sorted batch. */
+    private static final int BATCH = 100;
+
     /** */
     private TestTree tree;
 
@@ -167,6 +171,31 @@ public class BPlusTreeBenchmark extends JmhAbstractBenchmark {
         return tree.put(key);
     }
 
+    /**
+     * Puts a sorted batch of consecutive keys with a single call.
+     *
+     * @throws Exception If failed.
+     */
+    @Benchmark
+    public void putSortedBatch() throws Exception {
+        long from = ThreadLocalRandom.current().nextLong(KEYS - BATCH);
+
+        tree.putAll(LongStream.range(from, from + BATCH).boxed().iterator(), null);
+    }
+
+    /**
+     * Puts the same batch as {@link #putSortedBatch()} key by key for comparison.
+     *
+     * @throws Exception If failed.
+     */
+    @Benchmark
+    public void putSortedBatchByKey() throws Exception {
+        long from = ThreadLocalRandom.current().nextLong(KEYS - BATCH);
+
+        for (long key = from; key < from + BATCH; key++)
+            tree.put(key);
+    }
+
     /**
      * Test tree.
      */
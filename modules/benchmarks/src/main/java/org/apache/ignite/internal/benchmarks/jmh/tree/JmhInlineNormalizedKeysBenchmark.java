@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.benchmarks.jmh.tree;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.benchmarks.jmh.JmhAbstractBenchmark;
+import org.apache.ignite.internal.benchmarks.jmh.runner.JmhIdeBenchmarkRunner;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static org.apache.ignite.internal.metric.IoStatisticsHolderCache.LOGICAL_READS;
+import static org.apache.ignite.internal.metric.IoStatisticsType.CACHE_GROUP;
+import static org.apache.ignite.internal.processors.metric.impl.MetricUtils.metricName;
+import static org.apache.ignite.internal.processors.query.h2.database.H2Tree.IGNITE_INDEX_INLINE_NORMALIZED_KEYS;
+
+/**
+ * Compares lookups and range scans of a secondary index over a variable length and an integer column with and
+ * without inlined normalized keys. Reads of data pages, which are made to compare rows not comparable by the inlined
+ * values, are reported per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JmhInlineNormalizedKeysBenchmark extends JmhAbstractBenchmark {
+    /** Number of rows. */
+    private static final int ROWS = 1_000_000;
+
+    /** Number of distinct names. */
+    private static final int NAMES = ROWS / 10;
+
+    /** Number of rows returned by a range scan. */
+    private static final int RANGE = 100;
+
+    /** Inline normalized keys. */
+    @Param({"false", "true"})
+    private boolean normalized;
+
+    /** */
+    private IgniteEx ignite;
+
+    /** Logical reads of the data pages of the table. */
+    private LongMetric dataPageReads;
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty(IGNITE_INDEX_INLINE_NORMALIZED_KEYS, String.valueOf(normalized));
+
+        ignite = (IgniteEx)Ignition.start(configuration());
+
+        sql("CREATE TABLE T (ID INT PRIMARY KEY, NAME VARCHAR, VAL INT) WITH \"CACHE_NAME=T,VALUE_TYPE=T_VAL\"");
+        sql("CREATE INDEX T_NAME_VAL_IDX ON T (NAME, VAL) INLINE_SIZE 32");
+
+        try (IgniteDataStreamer<Object, Object> streamer = ignite.dataStreamer("T")) {
+            for (int i = 0; i < ROWS; i++) {
+                streamer.addData(i, ignite.binary().builder("T_VAL")
+                    .setField("NAME", name(i % NAMES))
+                    .setField("VAL", i / NAMES)
+                    .build());
+            }
+        }
+
+        dataPageReads = ignite.context().metric().registry(metricName(CACHE_GROUP.metricGroupName(), "T"))
+            .findMetric(LOGICAL_READS);
+    }
+
+    /**
+     * Stop node.
+     */
+    @TearDown
+    public void tearDown() {
+        Ignition.stopAll(true);
+
+        System.clearProperty(IGNITE_INDEX_INLINE_NORMALIZED_KEYS);
+    }
+
+    /**
+     * @return Node configuration.
+     */
+    private static IgniteConfiguration configuration() {
+        return new IgniteConfiguration()
+            .setIgniteInstanceName("node")
+            .setLocalHost("127.0.0.1")
+            .setDiscoverySpi(new TcpDiscoverySpi()
+                .setIpFinder(new TcpDiscoveryVmIpFinder()
+                    .setAddresses(Collections.singleton("127.0.0.1:47500..47502"))));
+    }
+
+    /**
+     * @param cntrs Counters.
+     * @return Found rows.
+     */
+    @Benchmark
+    public List<List<?>> lookup(PageReads cntrs) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        long reads = dataPageReads.value();
+
+        List<List<?>> res = sql("SELECT ID FROM T USE INDEX (T_NAME_VAL_IDX) WHERE NAME = ? AND VAL = ?",
+            name(rnd.nextInt(NAMES)), rnd.nextInt(ROWS / NAMES));
+
+        cntrs.dataPageReads += dataPageReads.value() - reads - res.size();
+
+        return res;
+    }
+
+    /**
+     * @param cntrs Counters.
+     * @return Found rows.
+     */
+    @Benchmark
+    public List<List<?>> range(PageReads cntrs) {
+        long reads = dataPageReads.value();
+
+        List<List<?>> res = sql("SELECT ID FROM T USE INDEX (T_NAME_VAL_IDX) WHERE NAME >= ? LIMIT " + RANGE,
+            name(ThreadLocalRandom.current().nextInt(NAMES - RANGE)));
+
+        cntrs.dataPageReads += dataPageReads.value() - reads - res.size();
+
+        return res;
+    }
+
+    /**
+     * @param sql Query.
+     * @param args Arguments.
+     * @return Result.
+     */
+    private List<List<?>> sql(String sql, Object... args) {
+        return ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+
+    /**
+     * @param i Name ID.
+     * @return Name of a variable length.
+     */
+    private static String name(int i) {
+        return "customer-account-" + i;
+    }
+
+    /**
+     * Reads of data pages made by the index besides the reads of the found rows, averaged per operation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PageReads {
+        /** */
+        public long dataPageReads;
+
+        /**
+         * Resets counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            dataPageReads = 0;
+        }
+    }
+
+    /**
+     * Run benchmarks.
+     *
+     * @param args Arguments.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        JmhIdeBenchmarkRunner.create()
+            .forks(1)
+            .threads(1)
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .benchmarks(JmhInlineNormalizedKeysBenchmark.class.getSimpleName())
+            .jvmArguments("-Xms4g", "-Xmx4g")
+            .run();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.benchmarks.jmh.tree;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.benchmarks.jmh.JmhAbstractBenchmark;
+import org.apache.ignite.internal.benchmarks.jmh.runner.JmhIdeBenchmarkRunner;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static org.apache.ignite.internal.processors.query.h2.database.H2Tree.IGNITE_INDEX_INLINE_PREFIX_COMPRESSION;
+
+/**
+ * Compares lookups and range scans of a secondary index over keys with a long common prefix with and without
+ * compression of inlined values with a common prefix of a page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JmhInlinePrefixCompressionBenchmark extends JmhAbstractBenchmark {
+    /** Number of rows. */
+    private static final int ROWS = 1_000_000;
+
+    /** Number of rows returned by a range scan. */
+    private static final int RANGE = 100;
+
+    /** Compress inlined values with a common prefix of a page. */
+    @Param({"false", "true"})
+    private boolean compression;
+
+    /** */
+    private IgniteEx ignite;
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty(IGNITE_INDEX_INLINE_PREFIX_COMPRESSION, String.valueOf(compression));
+
+        ignite = (IgniteEx)Ignition.start(configuration());
+
+        sql("CREATE TABLE T (ID INT PRIMARY KEY, NAME VARCHAR) WITH \"CACHE_NAME=T,VALUE_TYPE=T_VAL\"");
+        sql("CREATE INDEX T_NAME_IDX ON T (NAME) INLINE_SIZE 64");
+
+        try (IgniteDataStreamer<Object, Object> streamer = ignite.dataStreamer("T")) {
+            for (int i = 0; i < ROWS; i++)
+                streamer.addData(i, ignite.binary().builder("T_VAL").setField("NAME", name(i)).build());
+        }
+    }
+
+    /**
+     * Stop node.
+     */
+    @TearDown
+    public void tearDown() {
+        Ignition.stopAll(true);
+
+        System.clearProperty(IGNITE_INDEX_INLINE_PREFIX_COMPRESSION);
+    }
+
+    /**
+     * @return Node configuration.
+     */
+    private static IgniteConfiguration configuration() {
+        return new IgniteConfiguration()
+            .setIgniteInstanceName("node")
+            .setLocalHost("127.0.0.1")
+            .setDiscoverySpi(new TcpDiscoverySpi()
+                .setIpFinder(new TcpDiscoveryVmIpFinder()
+                    .setAddresses(Collections.singleton("127.0.0.1:47500..47502"))));
+    }
+
+    /**
+     * @return Found rows.
+     */
+    @Benchmark
+    public List<List<?>> lookup() {
+        return sql("SELECT ID FROM T USE INDEX (T_NAME_IDX) WHERE NAME = ?",
+            name(ThreadLocalRandom.current().nextInt(ROWS)));
+    }
+
+    /**
+     * @return Found rows.
+     */
+    @Benchmark
+    public List<List<?>> range() {
+        return sql("SELECT ID FROM T USE INDEX (T_NAME_IDX) WHERE NAME >= ? LIMIT " + RANGE,
+            name(ThreadLocalRandom.current().nextInt(ROWS - RANGE)));
+    }
+
+    /**
+     * @param sql Query.
+     * @param args Arguments.
+     * @return Result.
+     */
+    private List<List<?>> sql(String sql, Object... args) {
+        return ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+
+    /**
+     * @param i Row ID.
+     * @return Name with a long common prefix.
+     */
+    private static String name(int i) {
+        return String.format("organization-department-account-%08d", i);
+    }
+
+    /**
+     * Run benchmarks.
+     *
+     * @param args Arguments.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        JmhIdeBenchmarkRunner.create()
+            .forks(1)
+            .threads(1)
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .benchmarks(JmhInlinePrefixCompressionBenchmark.class.getSimpleName())
+            .jvmArguments("-Xms4g", "-Xmx4g")
+            .run();
+    }
+}
@@ -50,6 +50,8 @@ import org.apache.ignite.spi.systemview.view.PagesListView;
 import org.apache.ignite.spi.systemview.view.PartitionStateView;
 import org.apache.ignite.spi.systemview.view.ScanQueryView;
 import org.apache.ignite.spi.systemview.view.ServiceView;
+import org.apache.ignite.spi.systemview.view.SnapshotRestoreView;
+import org.apache.ignite.spi.systemview.view.SqlIndexInlineSizeView;
 import org.apache.ignite.spi.systemview.view.SqlIndexView;
 import org.apache.ignite.spi.systemview.view.SqlQueryHistoryView;
 import org.apache.ignite.spi.systemview.view.SqlQueryView;
@@ -108,11 +110,13 @@ public class SystemViewRowAttributeWalkerGenerator {
         gen.generateAndWrite(PartitionStateView.class, DFLT_SRC_DIR);
         gen.generateAndWrite(BinaryMetadataView.class, DFLT_SRC_DIR);
         gen.generateAndWrite(MetastorageView.class, DFLT_SRC_DIR);
+        gen.generateAndWrite(SnapshotRestoreView.class, DFLT_SRC_DIR);
 
         gen.generateAndWrite(SqlSchemaView.class, INDEXING_SRC_DIR);
         gen.generateAndWrite(SqlTableView.class, INDEXING_SRC_DIR);
         gen.generateAndWrite(SqlViewView.class, INDEXING_SRC_DIR);
         gen.generateAndWrite(SqlIndexView.class, INDEXING_SRC_DIR);
+        gen.generateAndWrite(SqlIndexInlineSizeView.class, INDEXING_SRC_DIR);
         gen.generateAndWrite(SqlTableColumnView.class, INDEXING_SRC_DIR);
         gen.generateAndWrite(SqlViewColumnView.class, INDEXING_SRC_DIR);
     }
@@ -35,4 +35,26 @@ public interface DataRegionMetricsProvider {
      * @return empty data pages count.
      */
     public long emptyDataPages();
+
+    /**
+     * Calculates count of partially filled data pages of the size class for this data region. A size class covers
+     * an equal range of page free space, the greater class the more free space pages have.
+     *
+     * @param sizeCls Size class.
+     * @return partially filled data pages count.
+     */
+    public default long partiallyFilledPages(int sizeCls) {
+        return 0L;
+    }
+
+    /**
+     * Calculates free space of partially filled pages of the size class for this data region.
+     *
+     * @param sizeCls Size class.
+     * @return free space in bytes.
+     * @see #partiallyFilledPages(int)
+     */
+    public default long partiallyFilledPagesFreeSpace(int sizeCls) {
+        return 0L;
+    }
 }
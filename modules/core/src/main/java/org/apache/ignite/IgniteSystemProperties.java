@@ -86,21 +86,33 @@ import static org.apache.ignite.internal.processors.cache.mvcc.MvccCachingManage
 import static org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabaseSharedManager.DFLT_DEFRAGMENTATION_REGION_SIZE_PERCENTAGE;
 import static org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabaseSharedManager.DFLT_PDS_WAL_REBALANCE_THRESHOLD;
 import static org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointHistory.DFLT_PDS_MAX_CHECKPOINT_MEMORY_HISTORY_SIZE;
+import static org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointPagesWriterFactory.DFLT_CHECKPOINT_COALESCED_WRITE_PAGES;
 import static org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointWorkflow.DFLT_CHECKPOINT_PARALLEL_SORT_THRESHOLD;
 import static org.apache.ignite.internal.processors.cache.persistence.diagnostic.pagelocktracker.LockTrackerFactory.DFLT_PAGE_LOCK_TRACKER_CAPACITY;
 import static org.apache.ignite.internal.processors.cache.persistence.diagnostic.pagelocktracker.LockTrackerFactory.HEAP_LOG;
 import static org.apache.ignite.internal.processors.cache.persistence.diagnostic.pagelocktracker.SharedPageLockTracker.DFLT_PAGE_LOCK_TRACKER_CHECK_INTERVAL;
 import static org.apache.ignite.internal.processors.cache.persistence.pagemem.FullPageIdTable.DFLT_LONG_LONG_HASH_MAP_LOAD_FACTOR;
 import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.DFLT_DELAYED_REPLACED_PAGE_WRITE;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.DFLT_INCREMENTAL_CHECKPOINT;
 import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.DFLT_LOADED_PAGES_BACKWARD_SHIFT_MAP;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.DFLT_OPTIMISTIC_LOADED_PAGES_LOOKUP;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteAdaptiveThrottle.DFLT_ADAPTIVE_THROTTLE_KD;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteAdaptiveThrottle.DFLT_ADAPTIVE_THROTTLE_KI;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteAdaptiveThrottle.DFLT_ADAPTIVE_THROTTLE_KP;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteAdaptiveThrottle.DFLT_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteAdaptiveThrottle.DFLT_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO;
 import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteThrottlePolicy.DFLT_THROTTLE_LOG_THRESHOLD;
 import static org.apache.ignite.internal.processors.cache.persistence.tree.BPlusTree.IGNITE_BPLUS_TREE_LOCK_RETRIES_DEFAULT;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager.DFLT_CHECKPOINT_TRIGGER_ARCHIVE_SIZE_PERCENTAGE;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager.DFLT_THRESHOLD_WAIT_TIME_NEXT_WAL_SEGMENT;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager.DFLT_THRESHOLD_WAL_ARCHIVE_SIZE_PERCENTAGE;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager.DFLT_WAL_COMPRESSOR_WORKER_THREAD_CNT;
+import static org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager.DFLT_WAL_ARCHIVE_MMAP_READ;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager.DFLT_WAL_MMAP;
+import static org.apache.ignite.internal.processors.cache.persistence.wal.filehandle.FileHandleManagerImpl.DFLT_WAL_GROUP_COMMIT_MAX_BATCH;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.filehandle.FileHandleManagerImpl.DFLT_WAL_SEGMENT_SYNC_TIMEOUT;
+import static org.apache.ignite.internal.processors.cache.persistence.wal.serializer.DataRecordCompressor.DFLT_WAL_DATA_RECORD_COMPRESSION;
+import static org.apache.ignite.internal.processors.cache.persistence.wal.serializer.DataRecordCompressor.DFLT_WAL_DATA_RECORD_COMPRESSION_LEVEL;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializerFactory.LATEST_SERIALIZER_VERSION;
 import static org.apache.ignite.internal.processors.cache.transactions.IgniteTxManager.DFLT_DEFERRED_ONE_PHASE_COMMIT_ACK_REQUEST_BUFFER_SIZE;
 import static org.apache.ignite.internal.processors.cache.transactions.IgniteTxManager.DFLT_DEFERRED_ONE_PHASE_COMMIT_ACK_REQUEST_TIMEOUT;
@@ -1226,6 +1238,40 @@ public final class IgniteSystemProperties {
     @SystemProperty(value = "Checkpoint throttling policy", type = String.class)
     public static final String IGNITE_OVERRIDE_WRITE_THROTTLING_ENABLED = "IGNITE_OVERRIDE_WRITE_THROTTLING_ENABLED";
 
+    /**
+     * Target ratio of dirty pages in a data region for the {@code ADAPTIVE} checkpoint throttling policy.
+     */
+    @SystemProperty(value = "Target ratio of dirty pages in a data region for the ADAPTIVE checkpoint throttling " +
+        "policy", type = Double.class, defaults = "" + DFLT_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO)
+    public static final String IGNITE_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO =
+        "IGNITE_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO";
+
+    /**
+     * Target checkpoint duration in milliseconds for the {@code ADAPTIVE} checkpoint throttling policy. Page
+     * modifications are throttled so that the next checkpoint can write its pages in this time at the measured
+     * checkpoint write speed. Zero value disables the target.
+     */
+    @SystemProperty(value = "Target checkpoint duration in milliseconds for the ADAPTIVE checkpoint throttling " +
+        "policy. Zero value disables the target", type = Long.class,
+        defaults = "" + DFLT_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION)
+    public static final String IGNITE_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION =
+        "IGNITE_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION";
+
+    /** Proportional gain of the controller of the {@code ADAPTIVE} checkpoint throttling policy. */
+    @SystemProperty(value = "Proportional gain of the controller of the ADAPTIVE checkpoint throttling policy",
+        type = Double.class, defaults = "" + DFLT_ADAPTIVE_THROTTLE_KP)
+    public static final String IGNITE_ADAPTIVE_THROTTLE_KP = "IGNITE_ADAPTIVE_THROTTLE_KP";
+
+    /** Integral gain (per second) of the controller of the {@code ADAPTIVE} checkpoint throttling policy. */
+    @SystemProperty(value = "Integral gain (per second) of the controller of the ADAPTIVE checkpoint throttling " +
+        "policy", type = Double.class, defaults = "" + DFLT_ADAPTIVE_THROTTLE_KI)
+    public static final String IGNITE_ADAPTIVE_THROTTLE_KI = "IGNITE_ADAPTIVE_THROTTLE_KI";
+
+    /** Derivative gain (in seconds) of the controller of the {@code ADAPTIVE} checkpoint throttling policy. */
+    @SystemProperty(value = "Derivative gain (in seconds) of the controller of the ADAPTIVE checkpoint throttling " +
+        "policy", type = Double.class, defaults = "" + DFLT_ADAPTIVE_THROTTLE_KD)
+    public static final String IGNITE_ADAPTIVE_THROTTLE_KD = "IGNITE_ADAPTIVE_THROTTLE_KD";
+
     /**
      * Property for setup WAL serializer version.
      */
@@ -1238,6 +1284,31 @@ public final class IgniteSystemProperties {
         defaults = "" + DFLT_WAL_SEGMENT_SYNC_TIMEOUT)
     public static final String IGNITE_WAL_SEGMENT_SYNC_TIMEOUT = "IGNITE_WAL_SEGMENT_SYNC_TIMEOUT";
 
+    /**
+     * Maximum number of WAL fsync requests coalesced into a single group commit. Committers park until a batch
+     * leader writes the WAL buffer and forces the segment on behalf of the whole batch; the leader waits for more
+     * committers for at most {@link DataStorageConfiguration#getWalFsyncDelayNanos()} or until the batch is full.
+     * Group commit is used in {@code FSYNC} WAL mode and for explicit fsyncs in {@code LOG_ONLY} WAL mode.
+     * {@code 0} disables group commit.
+     */
+    @SystemProperty(value = "Maximum number of WAL fsync requests coalesced into a single group commit, " +
+        "0 disables group commit", type = Integer.class, defaults = "" + DFLT_WAL_GROUP_COMMIT_MAX_BATCH)
+    public static final String IGNITE_WAL_GROUP_COMMIT_MAX_BATCH = "IGNITE_WAL_GROUP_COMMIT_MAX_BATCH";
+
+    /**
+     * Enables compression of WAL data records. Entries of a data record are deflated with a dictionary trained from
+     * sampled entries of the record's cache group, dictionaries are kept in the metastorage. Requires WAL serializer
+     * version 2, compressed records are readable regardless of this property.
+     */
+    @SystemProperty(value = "Enables compression of WAL data records with a per cache group dictionary",
+        defaults = "" + DFLT_WAL_DATA_RECORD_COMPRESSION)
+    public static final String IGNITE_WAL_DATA_RECORD_COMPRESSION = "IGNITE_WAL_DATA_RECORD_COMPRESSION";
+
+    /** Deflate compression level of WAL data records, see {@link #IGNITE_WAL_DATA_RECORD_COMPRESSION}. */
+    @SystemProperty(value = "Deflate compression level of WAL data records", type = Integer.class,
+        defaults = "" + DFLT_WAL_DATA_RECORD_COMPRESSION_LEVEL)
+    public static final String IGNITE_WAL_DATA_RECORD_COMPRESSION_LEVEL = "IGNITE_WAL_DATA_RECORD_COMPRESSION_LEVEL";
+
     /**
      * If the property is set Ignite will use legacy node comparator (based on node order) inste
      *
@@ -1253,6 +1324,14 @@ public final class IgniteSystemProperties {
     @SystemProperty(value = "Enables usage of the mapped byte buffer", defaults = "" + DFLT_WAL_MMAP)
     public static final String IGNITE_WAL_MMAP = "IGNITE_WAL_MMAP";
 
+    /**
+     * When set to {@code true}, WAL iterators of the node read segments from the WAL archive through a read-only
+     * memory mapping instead of copying them into the iterator buffer. Compressed segments are always read as before.
+     */
+    @SystemProperty(value = "Enables reading of archived WAL segments through a read-only memory mapping",
+        defaults = "" + DFLT_WAL_ARCHIVE_MMAP_READ)
+    public static final String IGNITE_WAL_ARCHIVE_MMAP_READ = "IGNITE_WAL_ARCHIVE_MMAP_READ";
+
     /**
      * When set to {@code true}, Data store folders are generated only by consistent id, and no consistent ID will be
      * set based on existing data store folders. This option also enables compatible folder generation mode as it was
@@ -1357,6 +1436,35 @@ public final class IgniteSystemProperties {
         "deletion'", defaults = "" + DFLT_LOADED_PAGES_BACKWARD_SHIFT_MAP)
     public static final String IGNITE_LOADED_PAGES_BACKWARD_SHIFT_MAP = "IGNITE_LOADED_PAGES_BACKWARD_SHIFT_MAP";
 
+    /**
+     * When set to {@code true}, lookup of an already loaded page in the persistent page memory is performed
+     * optimistically without acquiring the segment lock. The segment lock is taken only if the page is not loaded
+     * or the segment was concurrently modified. Default is {@code true}.
+     */
+    @SystemProperty(value = "When set to true, lookup of an already loaded page in the persistent page memory is " +
+        "performed optimistically without acquiring the segment lock",
+        defaults = "" + DFLT_OPTIMISTIC_LOADED_PAGES_LOOKUP)
+    public static final String IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP = "IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP";
+
+    /**
+     * When set to {@code true}, changed chunks of pages are tracked in the persistent page memory and checkpoint
+     * appends only changed chunks of a page to the delta log of the page store if a small part of the page was
+     * changed. Delta logs are merged to page store files in the background. Default is {@code false}.
+     */
+    @SystemProperty(value = "When set to true, checkpoint writes only changed chunks of pages to delta logs of " +
+        "page stores which are merged to page store files in the background",
+        defaults = "" + DFLT_INCREMENTAL_CHECKPOINT)
+    public static final String IGNITE_INCREMENTAL_CHECKPOINT = "IGNITE_INCREMENTAL_CHECKPOINT";
+
+    /**
+     * Maximum number of consecutive pages of a page store file which a checkpoint thread writes with a single
+     * gathering I/O operation. Value {@code 1} disables coalescing of page writes. Default is {@code 32}.
+     */
+    @SystemProperty(value = "Maximum number of consecutive pages of a page store file which a checkpoint thread " +
+        "writes with a single gathering I/O operation. Value 1 disables coalescing of page writes",
+        type = Integer.class, defaults = "" + DFLT_CHECKPOINT_COALESCED_WRITE_PAGES)
+    public static final String IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES = "IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES";
+
     /**
      * Property for setup percentage of archive size for checkpoint trigger. Default value is 0.25
      */
@@ -80,6 +80,9 @@ public final class DataRegionConfiguration implements Serializable {
     /** Default length of interval over which {@link DataRegionMetrics#getAllocationRate()} metric is calculated. */
     public static final int DFLT_RATE_TIME_INTERVAL_MILLIS = 60_000;
 
+    /** Default page replacement mode. */
+    public static final PageReplacementMode DFLT_PAGE_REPLACEMENT_MODE = PageReplacementMode.RANDOM_LRU;
+
     /** Data region name. */
     private String name = DFLT_DATA_REG_DEFAULT_NAME;
 
@@ -146,6 +149,9 @@ public final class DataRegionConfiguration implements Serializable {
     /** Warm-up configuration. */
     @Nullable private WarmUpConfiguration warmUpCfg;
 
+    /** Page replacement mode. */
+    private PageReplacementMode pageReplacementMode = DFLT_PAGE_REPLACEMENT_MODE;
+
     /**
      * Gets data region name.
      *
@@ -499,6 +505,28 @@ public final class DataRegionConfiguration implements Serializable {
         return warmUpCfg;
     }
 
+    /**
+     * Gets page replacement mode. Page replacement is used to choose a page to be written to the disk (if needed) and
+     * reused when a persistent data region is full and a new page has to be loaded to memory.
+     *
+     * @return Page replacement mode. {@link PageReplacementMode#RANDOM_LRU} used by default.
+     */
+    public PageReplacementMode getPageReplacementMode() {
+        return pageReplacementMode;
+    }
+
+    /**
+     * Sets page replacement mode. Applicable only for data regions with enabled persistence.
+     *
+     * @param replacementMode Page replacement mode.
+     * @return {@code this} for chaining.
+     */
+    public DataRegionConfiguration setPageReplacementMode(PageReplacementMode replacementMode) {
+        pageReplacementMode = replacementMode;
+
+        return this;
+    }
+
     /** {@inheritDoc} */
     @Override public String toString() {
         return S.toString(DataRegionConfiguration.class, this);
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.configuration;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Defines the algorithm of choosing a page for replacement (rotation with disk) when a persistent data region is
+ * full and a page that is not loaded to memory is requested. A mode is set for a specific
+ * {@link DataRegionConfiguration}. Unlike {@link DataPageEvictionMode}, page replacement does not remove data,
+ * it only writes the chosen page to the disk (if needed) and reuses its memory.
+ */
+public enum PageReplacementMode {
+    /**
+     * Random-LRU algorithm.
+     * <p>
+     * Every time a page is loaded to memory its timestamp is updated. When a page has to be replaced, the algorithm
+     * randomly chooses 5 loaded pages and replaces the one with the oldest timestamp. This algorithm has no notion
+     * of access frequency, so a single scan over a large data set may evict the whole hot working set.
+     */
+    RANDOM_LRU,
+
+    /**
+     * CLOCK-Pro algorithm: scan-resistant replacement based on the reuse distance of pages.
+     * <p>
+     * Loaded pages are split into hot and cold ones, an off-heap array holds the status of every page and
+     * a reference flag set on each access. A new page starts as cold and gets a test period; it is promoted to hot
+     * only if it is accessed again during this period. Pages are replaced only from the cold set, so pages which are
+     * accessed once (e.g. by a full scan) are replaced first and do not push the hot working set out of memory.
+     * The target size of the cold set adapts to the workload: it grows when cold pages are re-accessed during the
+     * test period and shrinks when test periods expire without re-access.
+     * <p>
+     * Unlike the original algorithm, metadata of non-resident pages is not kept, so a test period ends when
+     * the page is replaced.
+     */
+    CLOCK_PRO;
+
+    /** Enumerated values. */
+    private static final PageReplacementMode[] VALS = values();
+
+    /**
+     * Efficiently gets enumerated value from its ordinal.
+     *
+     * @param ord Ordinal value.
+     * @return Enumerated value or {@code null} if ordinal out of range.
+     */
+    @Nullable public static PageReplacementMode fromOrdinal(int ord) {
+        return ord >= 0 && ord < VALS.length ? VALS[ord] : null;
+    }
+}
@@ -106,7 +106,7 @@ public enum GridTopic {
     /** */
     TOPIC_TX,
 
-    /** */
+    /** Topic to request snapshots of partitions from remote nodes and to receive partition files. */
     TOPIC_SNAPSHOT,
 
     /** */
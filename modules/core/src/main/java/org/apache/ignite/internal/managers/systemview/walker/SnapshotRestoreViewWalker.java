@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.managers.systemview.walker;
+
+import org.apache.ignite.spi.systemview.view.SnapshotRestoreView;
+import org.apache.ignite.spi.systemview.view.SystemViewRowAttributeWalker;
+
+/**
+ * Generated by {@code org.apache.ignite.codegen.SystemViewRowAttributeWalkerGenerator}.
+ * {@link SnapshotRestoreView} attributes walker.
+ * 
+ * @see SnapshotRestoreView
+ */
+public class SnapshotRestoreViewWalker implements SystemViewRowAttributeWalker<SnapshotRestoreView> {
+    /** {@inheritDoc} */
+    @Override public void visitAll(AttributeVisitor v) {
+        v.accept(0, "snapshotName", String.class);
+        v.accept(1, "destination", String.class);
+        v.accept(2, "startTime", long.class);
+        v.accept(3, "endTime", long.class);
+        v.accept(4, "totalPartitions", int.class);
+        v.accept(5, "processedPartitions", int.class);
+        v.accept(6, "totalSize", long.class);
+        v.accept(7, "processedSize", long.class);
+        v.accept(8, "estimatedTimeLeft", long.class);
+        v.accept(9, "error", String.class);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void visitAll(SnapshotRestoreView row, AttributeWithValueVisitor v) {
+        v.accept(0, "snapshotName", String.class, row.snapshotName());
+        v.accept(1, "destination", String.class, row.destination());
+        v.acceptLong(2, "startTime", row.startTime());
+        v.acceptLong(3, "endTime", row.endTime());
+        v.acceptInt(4, "totalPartitions", row.totalPartitions());
+        v.acceptInt(5, "processedPartitions", row.processedPartitions());
+        v.acceptLong(6, "totalSize", row.totalSize());
+        v.acceptLong(7, "processedSize", row.processedSize());
+        v.acceptLong(8, "estimatedTimeLeft", row.estimatedTimeLeft());
+        v.accept(9, "error", String.class, row.error());
+    }
+
+    /** {@inheritDoc} */
+    @Override public int count() {
+        return 10;
+    }
+}
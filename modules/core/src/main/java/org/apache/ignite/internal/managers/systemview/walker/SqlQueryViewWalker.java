@@ -37,7 +37,8 @@ public class SqlQueryViewWalker implements SystemViewRowAttributeWalker<SqlQuery
         v.accept(3, "startTime", Date.class);
         v.accept(4, "duration", long.class);
         v.accept(5, "local", boolean.class);
-        v.accept(6, "schemaName", String.class);
+        v.accept(6, "reducerMemory", long.class);
+        v.accept(7, "schemaName", String.class);
     }
 
     /** {@inheritDoc} */
@@ -48,11 +49,12 @@ public class SqlQueryViewWalker implements SystemViewRowAttributeWalker<SqlQuery
         v.accept(3, "startTime", Date.class, row.startTime());
         v.acceptLong(4, "duration", row.duration());
         v.acceptBoolean(5, "local", row.local());
-        v.accept(6, "schemaName", String.class, row.schemaName());
+        v.acceptLong(6, "reducerMemory", row.reducerMemory());
+        v.accept(7, "schemaName", String.class, row.schemaName());
     }
 
     /** {@inheritDoc} */
     @Override public int count() {
-        return 7;
+        return 8;
     }
 }
@@ -21,6 +21,7 @@ import java.io.Closeable;
 import java.nio.ByteBuffer;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.processors.cache.persistence.StorageException;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
 
 /**
  * Persistent store of pages.
@@ -95,6 +96,58 @@ public interface PageStore extends Closeable {
      */
     public void write(long pageId, ByteBuffer pageBuf, int tag, boolean calculateCrc) throws IgniteCheckedException;
 
+    /**
+     * Writes a page which parts changed since the previous write of the page are known. Implementations may write
+     * only the changed parts.
+     *
+     * @param pageId Page ID.
+     * @param pageBuf Page buffer to write.
+     * @param tag Partition file version, 1-based incrementing counter. For outdated pages {@code tag} has lower value,
+     * and write does nothing.
+     * @param calculateCrc if {@code False} crc calculation will be forcibly skipped.
+     * @param dirtyChunks Mask of changed chunks of the page, see {@link PageDirtyChunks}.
+     * @return Number of bytes written to the storage.
+     * @throws IgniteCheckedException If page writing failed (IO error occurred).
+     */
+    public default int write(
+        long pageId,
+        ByteBuffer pageBuf,
+        int tag,
+        boolean calculateCrc,
+        long dirtyChunks
+    ) throws IgniteCheckedException {
+        write(pageId, pageBuf, tag, calculateCrc);
+
+        return getPageSize();
+    }
+
+    /**
+     * Writes pages with consecutive indexes. Implementations may write all pages with a single I/O operation.
+     *
+     * @param pageIds Page IDs, indexes of pages are consecutive.
+     * @param pageBufs Page buffers to write.
+     * @param cnt Number of pages to write.
+     * @param tag Partition file version, 1-based incrementing counter. For outdated pages {@code tag} has lower value,
+     * and write does nothing.
+     * @param calculateCrc if {@code False} crc calculation will be forcibly skipped.
+     * @return Number of bytes written to the storage.
+     * @throws IgniteCheckedException If page writing failed (IO error occurred).
+     */
+    public default int write(
+        long[] pageIds,
+        ByteBuffer[] pageBufs,
+        int cnt,
+        int tag,
+        boolean calculateCrc
+    ) throws IgniteCheckedException {
+        int written = 0;
+
+        for (int i = 0; i < cnt; i++)
+            written += write(pageIds[i], pageBufs[i], tag, calculateCrc, PageDirtyChunks.ALL);
+
+        return written;
+    }
+
     /**
      * Gets page offset within the store file.
      *
@@ -19,9 +19,11 @@ package org.apache.ignite.internal.pagemem.wal.record;
 
 import java.util.Collections;
 import java.util.List;
+import org.apache.ignite.internal.util.tostring.GridToStringExclude;
 import org.apache.ignite.internal.util.tostring.GridToStringInclude;
 import org.apache.ignite.internal.util.typedef.internal.S;
 import org.apache.ignite.internal.util.typedef.internal.U;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Logical data record with cache operation description.
@@ -33,6 +35,17 @@ public class DataRecord extends TimeStampRecord {
     @GridToStringInclude
     private List<DataEntry> writeEntries;
 
+    /**
+     * Compressed entries computed by WAL serializer when the record size is calculated,
+     * see {@link RecordType#COMPRESSED_DATA_RECORD}.
+     */
+    @GridToStringExclude
+    private byte[] compressedEntries;
+
+    /** Whether WAL serializer has found that the entries are not worth compressing. */
+    @GridToStringExclude
+    private boolean compressionSkipped;
+
     /** {@inheritDoc} */
     @Override public RecordType type() {
         return RecordType.DATA_RECORD;
@@ -83,6 +96,9 @@ public class DataRecord extends TimeStampRecord {
     public DataRecord setWriteEntries(List<DataEntry> writeEntries) {
         this.writeEntries = writeEntries;
 
+        compressedEntries = null;
+        compressionSkipped = false;
+
         return this;
     }
 
@@ -93,6 +109,34 @@ public class DataRecord extends TimeStampRecord {
         return writeEntries == null ? Collections.<DataEntry>emptyList() : writeEntries;
     }
 
+    /**
+     * @return Compressed entries or {@code null} if the record is not compressed.
+     */
+    @Nullable public byte[] compressedEntries() {
+        return compressedEntries;
+    }
+
+    /**
+     * @param compressedEntries Compressed entries.
+     */
+    public void compressedEntries(@Nullable byte[] compressedEntries) {
+        this.compressedEntries = compressedEntries;
+    }
+
+    /**
+     * @return {@code True} if WAL serializer has found that the entries are not worth compressing.
+     */
+    public boolean compressionSkipped() {
+        return compressionSkipped;
+    }
+
+    /**
+     * @param compressionSkipped {@code True} if the entries are not worth compressing.
+     */
+    public void compressionSkipped(boolean compressionSkipped) {
+        this.compressionSkipped = compressionSkipped;
+    }
+
     /** {@inheritDoc} */
     @Override public String toString() {
         return S.toString(DataRecord.class, this, "super", super.toString());
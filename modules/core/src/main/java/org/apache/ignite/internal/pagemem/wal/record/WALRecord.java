@@ -252,7 +252,10 @@ public abstract class WALRecord {
         PARTITION_META_PAGE_DELTA_RECORD_V3(67, PHYSICAL),
 
         /** Index meta page delta record includes encryption status data. */
-        INDEX_META_PAGE_DELTA_RECORD(68, PHYSICAL);
+        INDEX_META_PAGE_DELTA_RECORD(68, PHYSICAL),
+
+        /** Data record with entries compressed with a dictionary of the cache group. */
+        COMPRESSED_DATA_RECORD(69, LOGICAL);
 
         /** Index for serialization. Should be consistent throughout all versions. */
         private final int idx;
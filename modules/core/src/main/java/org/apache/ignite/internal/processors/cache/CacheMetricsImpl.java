@@ -58,6 +58,9 @@ public class CacheMetricsImpl implements CacheMetrics {
     private static final int REBALANCE_RATE_INTERVAL = IgniteSystemProperties.getInteger(
         IgniteSystemProperties.IGNITE_REBALANCE_STATISTICS_TIME_INTERVAL, 60000);
 
+    /** Index rebuilding rate interval, so the rate is measured in keys per second. */
+    private static final long IDX_REBUILD_RATE_INTERVAL = 1000L;
+
     /** Onheap peek modes. */
     private static final CachePeekMode[] ONHEAP_PEEK_MODES = new CachePeekMode[] {
         CachePeekMode.ONHEAP, CachePeekMode.PRIMARY, CachePeekMode.BACKUP, CachePeekMode.NEAR};
@@ -235,6 +238,12 @@ public class CacheMetricsImpl implements CacheMetrics {
     /** Number of keys processed during index rebuilding. */
     private final LongAdderMetric idxRebuildKeyProcessed;
 
+    /** Index rebuilding rate in keys per second. */
+    private final HitRateMetric idxRebuildKeyRate;
+
+    /** Number of index leaf pages written during index rebuilding. */
+    private final LongAdderMetric idxRebuildPagesWritten;
+
     /**
      * Creates cache metrics.
      *
@@ -409,6 +418,14 @@ public class CacheMetricsImpl implements CacheMetrics {
 
         idxRebuildKeyProcessed = mreg.longAdderMetric("IndexRebuildKeyProcessed",
             "Number of keys processed during the index rebuilding.");
+
+        idxRebuildKeyRate = mreg.hitRateMetric("IndexRebuildKeyRate",
+            "Number of keys processed during the index rebuilding in the last second.",
+            IDX_REBUILD_RATE_INTERVAL,
+            HitRateMetric.DFLT_SIZE);
+
+        idxRebuildPagesWritten = mreg.longAdderMetric("IndexRebuildPagesWritten",
+            "Number of index leaf pages written by sorted batches of rows during the index rebuilding.");
     }
 
     /**
@@ -726,6 +743,8 @@ public class CacheMetricsImpl implements CacheMetrics {
         txKeyCollisionInfo = null;
 
         idxRebuildKeyProcessed.reset();
+        idxRebuildKeyRate.reset();
+        idxRebuildPagesWritten.reset();
     }
 
     /** {@inheritDoc} */
@@ -1588,6 +1607,8 @@ public class CacheMetricsImpl implements CacheMetrics {
     /** Reset metric - number of keys processed during index rebuilding. */
     public void resetIndexRebuildKeyProcessed() {
         idxRebuildKeyProcessed.reset();
+        idxRebuildKeyRate.reset();
+        idxRebuildPagesWritten.reset();
     }
 
     /**
@@ -1597,6 +1618,23 @@ public class CacheMetricsImpl implements CacheMetrics {
      */
     public void addIndexRebuildKeyProcessed(long val) {
         idxRebuildKeyProcessed.add(val);
+        idxRebuildKeyRate.add(val);
+    }
+
+    /**
+     * @return Number of index leaf pages written during index rebuilding.
+     */
+    public long getIndexRebuildPagesWritten() {
+        return idxRebuildPagesWritten.value();
+    }
+
+    /**
+     * Increase number of index leaf pages written during index rebuilding.
+     *
+     * @param val Number of written pages.
+     */
+    public void addIndexRebuildPagesWritten(long val) {
+        idxRebuildPagesWritten.add(val);
     }
 
     /** {@inheritDoc} */
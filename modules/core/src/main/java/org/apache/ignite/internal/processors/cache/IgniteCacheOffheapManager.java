@@ -556,9 +556,24 @@ public interface IgniteCacheOffheapManager {
     /**
      * @param cacheId Cache ID.
      * @param idxName Index name.
+     * @param segment Segment.
+     * @return Dropped root page or {@code null} if the index tree has no root page.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Nullable public RootPage dropRootPageForIndex(int cacheId, String idxName, int segment)
+        throws IgniteCheckedException;
+
+    /**
+     * Moves the root page of an index tree to another index name, which root page is replaced.
+     *
+     * @param cacheId Cache ID.
+     * @param oldIdxName Index name.
+     * @param newIdxName New index name.
+     * @param segment Segment.
      * @throws IgniteCheckedException If failed.
      */
-    public void dropRootPageForIndex(int cacheId, String idxName, int segment) throws IgniteCheckedException;
+    public void renameRootPageForIndex(int cacheId, String oldIdxName, String newIdxName, int segment)
+        throws IgniteCheckedException;
 
     /**
      * @param idxName Index name.
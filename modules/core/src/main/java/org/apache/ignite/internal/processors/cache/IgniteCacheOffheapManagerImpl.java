@@ -1116,7 +1116,14 @@ public class IgniteCacheOffheapManagerImpl implements IgniteCacheOffheapManager
     }
 
     /** {@inheritDoc} */
-    @Override public void dropRootPageForIndex(int cacheId, String idxName, int segment) throws IgniteCheckedException {
+    @Override @Nullable public RootPage dropRootPageForIndex(int cacheId, String idxName, int segment)
+        throws IgniteCheckedException {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void renameRootPageForIndex(int cacheId, String oldIdxName, String newIdxName, int segment)
+        throws IgniteCheckedException {
         // No-op.
     }
 
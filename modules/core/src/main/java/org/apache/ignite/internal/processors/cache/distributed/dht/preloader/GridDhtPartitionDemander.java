@@ -80,6 +80,7 @@ import org.apache.ignite.internal.util.tostring.GridToStringExclude;
 import org.apache.ignite.internal.util.tostring.GridToStringInclude;
 import org.apache.ignite.internal.util.typedef.CI1;
 import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.internal.util.typedef.T2;
 import org.apache.ignite.internal.util.typedef.internal.CU;
 import org.apache.ignite.internal.util.typedef.internal.LT;
 import org.apache.ignite.internal.util.typedef.internal.S;
@@ -1388,6 +1389,82 @@ public class GridDhtPartitionDemander {
             if (isDone())
                 return;
 
+            PartitionFilesLoader loader = new PartitionFilesLoader(grp, log);
+
+            if (parts.hasFull() && loader.applicable(exchFut, supplierNode)) {
+                loader.load(supplierNode, new HashSet<>(parts.fullSet()), this::isDone).listen(f -> {
+                    try {
+                        onPartitionFilesLoaded(supplierNode.id(), parts, f.get());
+                    }
+                    catch (IgniteCheckedException e) {
+                        U.warn(log, "Failed to load partitions by files, they will be rebalanced by entries [grp=" +
+                            grp.cacheOrGroupName() + ", supplier=" + supplierNode.id() +
+                            ", err=" + e.getMessage() + ']');
+                    }
+
+                    synchronized (this) {
+                        if (isDone() || parts.isEmpty())
+                            return;
+                    }
+
+                    demandPartitions(supplierNode, parts, msg);
+                });
+
+                return;
+            }
+
+            demandPartitions(supplierNode, parts, msg);
+        }
+
+        /**
+         * Switches partitions loaded by files to the historical rebalance of updates made after the snapshot
+         * of the partitions has been taken on the supplier, or completes them if there are no such updates.
+         *
+         * @param nodeId Supplier node id.
+         * @param parts Partitions demanded from the supplier.
+         * @param loaded Loaded partitions mapped to the pair of the update counter of the loaded partition and
+         * the highest update counter of the partition known locally before it was replaced.
+         */
+        private synchronized void onPartitionFilesLoaded(
+            UUID nodeId,
+            IgniteDhtDemandedPartitionsMap parts,
+            Map<Integer, T2<Long, Long>> loaded
+        ) {
+            if (isDone())
+                return;
+
+            if (log.isInfoEnabled()) {
+                log.info("Partitions have been loaded by files [grp=" + grp.cacheOrGroupName() +
+                    ", supplier=" + nodeId + ", parts=" + S.compact(loaded.keySet()) + ']');
+            }
+
+            for (Map.Entry<Integer, T2<Long, Long>> e : loaded.entrySet()) {
+                int p = e.getKey();
+
+                long from = e.getValue().get1();
+                long to = Math.max(grp.topology().fullUpdateCounters().updateCounter(p), e.getValue().get2());
+
+                if (to > from) {
+                    parts.remove(p);
+                    parts.addHistorical(p, from, to, grp.topology().partitions());
+
+                    historical.add(p);
+                }
+                else
+                    partitionDone(nodeId, p, true);
+            }
+        }
+
+        /**
+         * @param supplierNode Supplier node.
+         * @param parts Map.
+         * @param msg Demand message.
+         */
+        private void demandPartitions(
+            ClusterNode supplierNode,
+            IgniteDhtDemandedPartitionsMap parts,
+            GridDhtPartitionDemandMessage msg
+        ) {
             try {
                 if (log.isInfoEnabled())
                     log.info("Starting rebalance routine [" + grp.cacheOrGroupName() +
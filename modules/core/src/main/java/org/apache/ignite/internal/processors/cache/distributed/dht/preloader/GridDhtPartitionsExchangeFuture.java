@@ -594,6 +594,14 @@ public class GridDhtPartitionsExchangeFuture extends GridDhtTopologyFutureAdapte
         exclusionsFromHistoricalRebalance.add(nodeId);
     }
 
+    /**
+     * @param nodeId Node id.
+     * @return {@code true} if the given node is not marked as inapplicable for historical rebalancing.
+     */
+    public boolean isNodeApplicableForHistoricalRebalance(UUID nodeId) {
+        return !exclusionsFromHistoricalRebalance.contains(nodeId);
+    }
+
     /**
      * Marks the given node as not applicable for full rebalancing
      * for the given group and partition.
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.cache.distributed.dht.preloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.pagemem.store.PageStore;
+import org.apache.ignite.internal.processors.cache.CacheGroupContext;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
+import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.IgniteCacheOffheapManager.CacheDataStore;
+import org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtLocalPartition;
+import org.apache.ignite.internal.processors.cache.persistence.CheckpointState;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabaseSharedManager;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheOffheapManager.GridCacheDataStore;
+import org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointListener;
+import org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointProgress;
+import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStore;
+import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
+import org.apache.ignite.internal.processors.query.schema.SchemaIndexCachePartitionWorker;
+import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheStat;
+import org.apache.ignite.internal.util.future.GridCompoundFuture;
+import org.apache.ignite.internal.util.future.GridFinishedFuture;
+import org.apache.ignite.internal.util.future.GridFutureAdapter;
+import org.apache.ignite.internal.util.typedef.T2;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.internal.util.worker.GridWorker;
+import org.apache.ignite.internal.util.worker.GridWorkerFuture;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtPartitionState.MOVING;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.TMP_SUFFIX;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFileName;
+
+/**
+ * Loads partitions of a persistent cache group by files instead of entries. A supplier creates a snapshot of
+ * partitions by a checkpoint and sends the partition files over the zero-copy file transmission. The received files
+ * replace the local partition files under the checkpoint write lock and the indexes of the loaded partitions are
+ * rebuilt. Updates made on the supplier after the snapshot checkpoint are rebalanced from the WAL history
+ * afterwards, so a loaded partition continues with the historical rebalance from its update counter.
+ * <p>
+ * Partitions are loaded by files only when the group WAL is disabled for the rebalance, so a node failure
+ * in the middle of loading clears the group, and only to empty partitions which have no index rows to be lost.
+ */
+class PartitionFilesLoader {
+    /** @see #IGNITE_REBALANCE_BY_FILES */
+    public static final boolean DFLT_REBALANCE_BY_FILES = false;
+
+    /** */
+    @SystemProperty(value = "Enables rebalancing of persistent cache partitions by partition files instead of " +
+        "entries when a cache group is rebalanced with the disabled WAL", defaults = "" + DFLT_REBALANCE_BY_FILES)
+    public static final String IGNITE_REBALANCE_BY_FILES = "IGNITE_REBALANCE_BY_FILES";
+
+    /** Text reason for checkpoint to install partition files. */
+    private static final String CP_INSTALL_REASON = "Checkpoint started to install partition files [grp=%s]";
+
+    /** Shared context. */
+    private final GridCacheSharedContext<?, ?> ctx;
+
+    /** Cache group. */
+    private final CacheGroupContext grp;
+
+    /** Logger. */
+    private final IgniteLogger log;
+
+    /**
+     * @param grp Cache group.
+     * @param log Logger.
+     */
+    PartitionFilesLoader(CacheGroupContext grp, IgniteLogger log) {
+        this.grp = grp;
+        this.log = log;
+
+        ctx = grp.shared();
+    }
+
+    /**
+     * @param exchFut Exchange future.
+     * @param supplier Supplier node.
+     * @return {@code True} if full partitions of the group can be loaded by files from the given supplier.
+     */
+    boolean applicable(GridDhtPartitionsExchangeFuture exchFut, ClusterNode supplier) {
+        if (!IgniteSystemProperties.getBoolean(IGNITE_REBALANCE_BY_FILES, DFLT_REBALANCE_BY_FILES))
+            return false;
+
+        if (!grp.persistenceEnabled() || grp.mvccEnabled() || grp.localWalEnabled() ||
+            grp.config().isEncryptionEnabled())
+            return false;
+
+        for (GridCacheContext<?, ?> cctx : grp.caches()) {
+            if (cctx.config().isOnheapCacheEnabled())
+                return false;
+        }
+
+        // Loaded partitions are caught up by the historical rebalance from the same supplier.
+        return exchFut.isNodeApplicableForHistoricalRebalance(supplier.id()) &&
+            ctx.gridIO().fileTransmissionSupported(supplier);
+    }
+
+    /**
+     * Loads partitions by files from the supplier.
+     *
+     * @param supplier Supplier node.
+     * @param parts Partitions to load.
+     * @param cancelled Checks whether the rebalance has been cancelled.
+     * @return Future with the loaded partitions mapped to the pair of the update counter of the loaded partition and
+     * the highest update counter of the partition known locally before it was replaced.
+     */
+    IgniteInternalFuture<Map<Integer, T2<Long, Long>>> load(
+        ClusterNode supplier,
+        Set<Integer> parts,
+        BooleanSupplier cancelled
+    ) {
+        File grpDir = ((FilePageStoreManager)ctx.pageStore()).cacheWorkDir(grp.sharedGroup(), grp.cacheOrGroupName());
+
+        Map<Integer, File> received = new ConcurrentHashMap<>();
+
+        GridFutureAdapter<Map<Integer, T2<Long, Long>>> res = new GridFutureAdapter<>();
+
+        if (log.isInfoEnabled()) {
+            log.info("Loading partitions by files [grp=" + grp.cacheOrGroupName() + ", supplier=" + supplier.id() +
+                ", parts=" + parts + ']');
+        }
+
+        ctx.snapshotMgr().createRemoteSnapshot(supplier.id(),
+            Collections.singletonMap(grp.groupId(), parts),
+            (file, pair) -> {
+                File dst = new File(grpDir, getPartitionFileName(pair.getPartitionId()) + TMP_SUFFIX);
+
+                try {
+                    Files.move(file.toPath(), dst.toPath(), REPLACE_EXISTING);
+                }
+                catch (IOException e) {
+                    throw new IgniteException("Failed to move the received partition file: " + file, e);
+                }
+
+                received.put(pair.getPartitionId(), dst);
+            })
+            .listen(f -> {
+                if (f.error() != null || cancelled.getAsBoolean()) {
+                    received.values().forEach(U::delete);
+
+                    res.onDone(f.error() != null ? f.error() :
+                        new IgniteCheckedException("Rebalance has been cancelled"));
+
+                    return;
+                }
+
+                install(received, cancelled, res);
+            });
+
+        return res;
+    }
+
+    /**
+     * Replaces local partition files with the received ones on the next checkpoint.
+     *
+     * @param received Received partition files.
+     * @param cancelled Checks whether the rebalance has been cancelled.
+     * @param res Future to complete when the partitions are installed and indexed.
+     */
+    private void install(
+        Map<Integer, File> received,
+        BooleanSupplier cancelled,
+        GridFutureAdapter<Map<Integer, T2<Long, Long>>> res
+    ) {
+        GridCacheDatabaseSharedManager db = (GridCacheDatabaseSharedManager)ctx.database();
+
+        Map<Integer, T2<Long, Long>> installed = new HashMap<>();
+
+        AtomicBoolean done = new AtomicBoolean();
+
+        CheckpointListener lsnr = new CheckpointListener() {
+            /** {@inheritDoc} */
+            @Override public void onMarkCheckpointBegin(Context cpCtx) {
+                if (!done.compareAndSet(false, true))
+                    return;
+
+                if (cancelled.getAsBoolean()) {
+                    received.values().forEach(U::delete);
+
+                    return;
+                }
+
+                for (Map.Entry<Integer, File> e : received.entrySet()) {
+                    try {
+                        T2<Long, Long> cntrs = installPartition(e.getKey(), e.getValue());
+
+                        if (cntrs != null)
+                            installed.put(e.getKey(), cntrs);
+                    }
+                    catch (IgniteCheckedException ex) {
+                        U.error(log, "Failed to install the partition file [grp=" + grp.cacheOrGroupName() +
+                            ", part=" + e.getKey() + ']', ex);
+                    }
+                    finally {
+                        U.delete(e.getValue());
+                    }
+                }
+            }
+
+            /** {@inheritDoc} */
+            @Override public void onCheckpointBegin(Context cpCtx) {
+                // No-op.
+            }
+
+            /** {@inheritDoc} */
+            @Override public void beforeCheckpointBegin(Context cpCtx) {
+                // No-op.
+            }
+        };
+
+        db.addCheckpointListener(lsnr, grp.dataRegion());
+
+        CheckpointProgress cp = db.forceCheckpoint(String.format(CP_INSTALL_REASON, grp.cacheOrGroupName()));
+
+        IgniteInternalFuture<?> cpFut = cp.futureFor(CheckpointState.FINISHED);
+
+        cpFut.listen(f -> {
+            db.removeCheckpointListener(lsnr);
+
+            if (f.error() != null) {
+                res.onDone(f.error());
+
+                return;
+            }
+
+            assert done.get();
+
+            rebuildIndexes(installed.keySet()).listen(f0 -> {
+                if (f0.error() != null)
+                    res.onDone(f0.error());
+                else
+                    res.onDone(installed);
+            });
+        });
+    }
+
+    /**
+     * Replaces the local partition file under the checkpoint write lock.
+     *
+     * @param p Partition id.
+     * @param file Received partition file.
+     * @return Update counter of the installed partition and the highest update counter of the partition known
+     * locally before it was replaced or {@code null} if the partition has been skipped.
+     * @throws IgniteCheckedException If failed.
+     */
+    private T2<Long, Long> installPartition(int p, File file) throws IgniteCheckedException {
+        GridDhtLocalPartition part = grp.topology().localPartition(p);
+
+        if (part == null || part.state() != MOVING || part.isClearing())
+            return null;
+
+        CacheDataStore store = part.dataStore();
+
+        // Rows updated concurrently with the loading have index rows which would be lost by the replacement.
+        if (store.fullSize() != 0)
+            return null;
+
+        long highest = Math.max(store.updateCounter(), store.reservedCounter());
+
+        int tag = ((PageMemoryEx)grp.dataRegion().pageMemory()).invalidate(grp.groupId(), p);
+
+        PageStore pageStore = ((FilePageStoreManager)ctx.pageStore()).getStore(grp.groupId(), p);
+
+        ((FilePageStore)pageStore).replace(file, tag);
+
+        ((GridCacheDataStore)store).reinit();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Partition file installed [grp=" + grp.cacheOrGroupName() + ", part=" + p +
+                ", cntr=" + store.updateCounter() + ", size=" + store.fullSize() + ']');
+        }
+
+        return new T2<>(store.updateCounter(), highest);
+    }
+
+    /**
+     * @param parts Installed partitions.
+     * @return Future which is completed when indexes of the partitions are rebuilt.
+     */
+    private IgniteInternalFuture<?> rebuildIndexes(Set<Integer> parts) {
+        if (parts.isEmpty() || !ctx.kernalContext().query().moduleEnabled())
+            return new GridFinishedFuture<>();
+
+        GridCompoundFuture<SchemaIndexCacheStat, SchemaIndexCacheStat> fut = new GridCompoundFuture<>();
+
+        AtomicBoolean stop = new AtomicBoolean();
+
+        for (GridCacheContext<?, ?> cctx : grp.caches()) {
+            if (!cctx.queries().enabled())
+                continue;
+
+            for (int p : parts) {
+                GridWorkerFuture<SchemaIndexCacheStat> workerFut = new GridWorkerFuture<>();
+
+                // Zero partitions count keeps the index rebuild metrics of the group untouched.
+                GridWorker worker = new SchemaIndexCachePartitionWorker(cctx, grp.topology().localPartition(p), stop,
+                    null, row -> cctx.queries().store(row, null, false), workerFut, new AtomicInteger());
+
+                workerFut.setWorker(worker);
+                fut.add(workerFut);
+
+                ctx.kernalContext().buildIndexExecutorService().execute(worker);
+            }
+        }
+
+        fut.markInitialized();
+
+        return fut;
+    }
+}
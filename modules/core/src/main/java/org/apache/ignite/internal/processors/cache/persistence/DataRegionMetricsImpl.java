@@ -18,10 +18,14 @@ package org.apache.ignite.internal.processors.cache.persistence;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import org.apache.ignite.DataRegionMetrics;
 import org.apache.ignite.DataRegionMetricsProvider;
 import org.apache.ignite.configuration.DataRegionConfiguration;
 import org.apache.ignite.internal.pagemem.PageMemory;
+import org.apache.ignite.internal.processors.cache.persistence.freelist.AbstractFreeList;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PagesWriteAdaptiveThrottle;
 import org.apache.ignite.internal.processors.metric.GridMetricManager;
 import org.apache.ignite.internal.processors.metric.MetricRegistry;
 import org.apache.ignite.internal.processors.metric.impl.AtomicLongMetric;
@@ -71,6 +75,27 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
     /** */
     private final LongAdderMetric replacedPages;
 
+    /** Number of acquisitions of pages which are already loaded to memory. */
+    private final LongAdderMetric pageHits;
+
+    /** Number of acquisitions of pages which are not loaded to memory. */
+    private final LongAdderMetric pageMisses;
+
+    /** Number of failed attempts to lock a page of a free list bucket without waiting. */
+    private final LongAdderMetric freeListLockContention;
+
+    /** Number of rows moved by online compaction of data pages. */
+    private final LongAdderMetric compactionMovedRows;
+
+    /** Size of rows moved by online compaction of data pages. */
+    private final LongAdderMetric compactionMovedSize;
+
+    /** Number of data pages emptied by online compaction. */
+    private final LongAdderMetric compactionReclaimedPages;
+
+    /** Size of data pages emptied by online compaction. */
+    private final LongAdderMetric compactionReclaimedSize;
+
     /** */
     private final AtomicLongMetric offHeapSize;
 
@@ -110,6 +135,9 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
     /** */
     private final GridMetricManager mmgr;
 
+    /** Adaptive write throttle of the data region, {@code null} if another throttling policy is used. */
+    private volatile PagesWriteAdaptiveThrottle adaptiveThrottle;
+
     /** Time interval (in milliseconds) when allocations/evictions are counted to calculate rate. */
     private volatile long rateTimeInterval;
 
@@ -174,6 +202,36 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
         replacedPages = mreg.longAdderMetric("PagesReplaced",
             "Number of pages replaced from last restart.");
 
+        pageHits = mreg.longAdderMetric("PageHits",
+            "Number of page acquisitions served by pages already loaded to memory.");
+
+        pageMisses = mreg.longAdderMetric("PageMisses",
+            "Number of page acquisitions which required loading the page to memory.");
+
+        freeListLockContention = mreg.longAdderMetric("FreeListBucketLockContention",
+            "Number of failed attempts to lock a page of a free list bucket without waiting.");
+
+        compactionMovedRows = mreg.longAdderMetric("CompactionMovedRows",
+            "Number of rows moved out of sparse data pages by online compaction.");
+
+        compactionMovedSize = mreg.longAdderMetric("CompactionMovedSize",
+            "Size in bytes of rows moved out of sparse data pages by online compaction.");
+
+        compactionReclaimedPages = mreg.longAdderMetric("CompactionReclaimedPages",
+            "Number of data pages emptied by online compaction.");
+
+        compactionReclaimedSize = mreg.longAdderMetric("CompactionReclaimedSize",
+            "Size in bytes of data pages emptied by online compaction.");
+
+        mreg.register("PageHitRatio",
+            this::getPageHitRatio,
+            "Ratio of page acquisitions served by pages already loaded to memory.");
+
+        mreg.register("PageReplacementMode",
+            () -> memPlcCfg.getPageReplacementMode().name(),
+            String.class,
+            "Page replacement mode of the data region.");
+
         offHeapSize = mreg.longMetric("OffHeapSize",
             "Offheap size in bytes.");
 
@@ -252,6 +310,21 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
         return totalAllocated != 0 ? (float)(totalAllocated - freeSpace) / totalAllocated : 0f;
     }
 
+    /**
+     * @param sizeCls Size class of free list pages.
+     * @return The percentage of the used space of partially filled pages of the size class.
+     */
+    public float getSizeClassPagesFillFactor(int sizeCls) {
+        if (!metricsEnabled)
+            return 0;
+
+        long freeSpace = dataRegionMetricsProvider.partiallyFilledPagesFreeSpace(sizeCls);
+
+        long total = getPageSize() * dataRegionMetricsProvider.partiallyFilledPages(sizeCls);
+
+        return total != 0 ? (float)(total - freeSpace) / total : 0f;
+    }
+
     /** {@inheritDoc} */
     @Override public long getDirtyPages() {
         if (!metricsEnabled || !persistenceEnabled)
@@ -387,6 +460,33 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
         }
     }
 
+    /**
+     * @return Ratio of page acquisitions served by pages already loaded to memory.
+     */
+    public double getPageHitRatio() {
+        long hits = pageHits.value();
+
+        long total = hits + pageMisses.value();
+
+        return total == 0 ? 0 : (double)hits / total;
+    }
+
+    /**
+     * Updates page hits.
+     */
+    public void onPageHit() {
+        if (metricsEnabled)
+            pageHits.increment();
+    }
+
+    /**
+     * Updates page misses.
+     */
+    public void onPageMiss() {
+        if (metricsEnabled)
+            pageMisses.increment();
+    }
+
     /**
      * Updates page read.
      */
@@ -403,6 +503,14 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
             writtenPages.increment();
     }
 
+    /**
+     * Updates free list bucket lock contention.
+     */
+    public void incrementFreeListLockContention() {
+        if (metricsEnabled)
+            freeListLockContention.increment();
+    }
+
     /**
      * Increments dirtyPages counter.
      */
@@ -522,6 +630,88 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
         mreg.register("UsedCheckpointBufferSize",
             this::getUsedCheckpointBufferSize,
             "Gets used checkpoint buffer size in bytes");
+
+        for (int cls = 0; cls < AbstractFreeList.SIZE_CLASSES; cls++) {
+            int sizeCls = cls;
+
+            mreg.register("PartiallyFilledPagesSizeClass" + sizeCls,
+                () -> dataRegionMetricsProvider.partiallyFilledPages(sizeCls),
+                "Number of partially filled data pages of the free list size class " + sizeCls + '.');
+
+            mreg.register("PagesFillFactorSizeClass" + sizeCls,
+                () -> getSizeClassPagesFillFactor(sizeCls),
+                "The percentage of the used space of partially filled data pages of the free list size class " +
+                    sizeCls + '.');
+        }
+    }
+
+    /**
+     * @param throttle Adaptive write throttle of the data region.
+     */
+    public void adaptiveThrottle(PagesWriteAdaptiveThrottle throttle) {
+        adaptiveThrottle = throttle;
+
+        MetricRegistry mreg = mmgr.registry(metricName(DATAREGION_METRICS_PREFIX, memPlcCfg.getName()));
+
+        mreg.register("ThrottleTargetDirtyRatio",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getTargetDirtyRatio),
+            "Target dirty pages ratio of the adaptive write throttle.");
+
+        mreg.register("ThrottleProjectedDirtyRatio",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getProjectedDirtyRatio),
+            "Dirty pages ratio projected to the end of the current checkpoint by the adaptive write throttle.");
+
+        mreg.register("ThrottleError",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getError),
+            "Relative error of the adaptive write throttle controller.");
+
+        mreg.register("ThrottleIntegral",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getIntegral),
+            "Integral of the error of the adaptive write throttle controller.");
+
+        mreg.register("ThrottleDerivative",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getDerivative),
+            "Derivative of the error of the adaptive write throttle controller.");
+
+        mreg.register("ThrottleOutput",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getOutput),
+            "Output of the adaptive write throttle controller.");
+
+        mreg.register("ThrottleParkTime",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getParkTime),
+            "Current park time of a page modification by the adaptive write throttle, in nanoseconds.");
+
+        mreg.register("ThrottleAverageParkTime",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getAverageParkTime),
+            "Average park time of page modifications by the adaptive write throttle, in nanoseconds.");
+
+        mreg.register("ThrottleMarkDirtySpeed",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getMarkDirtySpeed),
+            "Speed of marking pages dirty measured by the adaptive write throttle, in pages per second.");
+
+        mreg.register("ThrottleCheckpointWriteSpeed",
+            () -> adaptiveThrottleMetric(PagesWriteAdaptiveThrottle::getCpWriteSpeed),
+            "Checkpoint write speed measured by the adaptive write throttle, in pages per second.");
+    }
+
+    /**
+     * @param metric Metric of the adaptive write throttle.
+     * @return Metric value or {@code 0} if the adaptive write throttle is not used.
+     */
+    private double adaptiveThrottleMetric(ToDoubleFunction<PagesWriteAdaptiveThrottle> metric) {
+        PagesWriteAdaptiveThrottle throttle = adaptiveThrottle;
+
+        return throttle == null ? 0 : metric.applyAsDouble(throttle);
+    }
+
+    /**
+     * @param metric Metric of the adaptive write throttle.
+     * @return Metric value or {@code 0} if the adaptive write throttle is not used.
+     */
+    private long adaptiveThrottleMetric(ToLongFunction<PagesWriteAdaptiveThrottle> metric) {
+        PagesWriteAdaptiveThrottle throttle = adaptiveThrottle;
+
+        return throttle == null ? 0 : metric.applyAsLong(throttle);
     }
 
     /**
@@ -573,12 +763,34 @@ public class DataRegionMetricsImpl implements DataRegionMetrics {
         replacedPages.reset();
         offHeapSize.reset();
         checkpointBufferSize.reset();
+        freeListLockContention.reset();
+        compactionMovedRows.reset();
+        compactionMovedSize.reset();
+        compactionReclaimedPages.reset();
+        compactionReclaimedSize.reset();
         allocRate.reset();
         evictRate.reset();
         pageReplaceRate.reset();
         pageReplaceAge.reset();
     }
 
+    /**
+     * Updates metrics of online compaction of data pages.
+     *
+     * @param movedRows Number of moved rows.
+     * @param movedSize Size of moved rows in bytes.
+     * @param reclaimedPages Number of emptied data pages.
+     * @param reclaimedSize Size of emptied data pages in bytes.
+     */
+    public void onDataPagesCompacted(long movedRows, long movedSize, long reclaimedPages, long reclaimedSize) {
+        if (metricsEnabled) {
+            compactionMovedRows.add(movedRows);
+            compactionMovedSize.add(movedSize);
+            compactionReclaimedPages.add(reclaimedPages);
+            compactionReclaimedSize.add(reclaimedSize);
+        }
+    }
+
     /** @param time Time to add to {@code totalThrottlingTime} metric in milliseconds. */
     public void addThrottlingTime(long time) {
         if (metricsEnabled)
@@ -52,6 +52,9 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
     /** */
     private final HitRateMetric walBuffPollSpinsNum;
 
+    /** */
+    private final HitRateMetric walGroupCommitReqNum;
+
     /** */
     private final AtomicLongMetric lastCpBeforeLockDuration;
 
@@ -97,6 +100,12 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
     /** */
     private final AtomicLongMetric lastCpCowPages;
 
+    /** */
+    private final AtomicLongMetric lastCpWrittenBytes;
+
+    /** */
+    private final AtomicLongMetric lastCpChangedBytes;
+
     /** */
     private volatile long rateTimeInterval;
 
@@ -160,6 +169,24 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
     /** */
     private final HistogramMetricImpl cpHistogram;
 
+    /** */
+    private final AtomicLongMetric binaryRecoveryRecords;
+
+    /** */
+    private final AtomicLongMetric binaryRecoveryBytes;
+
+    /** */
+    private final AtomicLongMetric binaryRecoveryDuration;
+
+    /** */
+    private final AtomicLongMetric logicalRecoveryRecords;
+
+    /** */
+    private final AtomicLongMetric logicalRecoveryBytes;
+
+    /** */
+    private final AtomicLongMetric logicalRecoveryDuration;
+
     /**
      * @param mmgr Metrics manager.
      * @param metricsEnabled Metrics enabled flag.
@@ -207,6 +234,21 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
             rateTimeInterval,
             subInts);
 
+        walGroupCommitReqNum = mreg.hitRateMetric(
+            "WalGroupCommitRequestsNum",
+            "Number of fsync requests served by WAL group commits during the last time interval.",
+            rateTimeInterval,
+            subInts);
+
+        mreg.register("WalFsyncRate",
+            this::getWalFsyncRate,
+            "Average number of WAL fsyncs per second during the last time interval.");
+
+        mreg.register("WalGroupCommitAverageBatchSize",
+            this::getWalGroupCommitAverageBatchSize,
+            "Average number of fsync requests coalesced into a single WAL group commit " +
+                "during the last time interval.");
+
         lastCpBeforeLockDuration = mreg.longMetric("LastCheckpointBeforeLockDuration",
             "Duration of the checkpoint action before taken write lock in milliseconds.");
 
@@ -253,6 +295,13 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
         lastCpCowPages = mreg.longMetric("LastCheckpointCopiedOnWritePagesNumber",
             "Number of pages copied to a temporary checkpoint buffer during the last checkpoint.");
 
+        lastCpWrittenBytes = mreg.longMetric("LastCheckpointWrittenBytes",
+            "Number of bytes written to page stores during the last checkpoint.");
+
+        lastCpChangedBytes = mreg.longMetric("LastCheckpointChangedBytes",
+            "Number of bytes of pages changed since the previous write of the pages, which were written during " +
+                "the last checkpoint.");
+
         lastWalSegmentRollOverTime = mreg.longMetric("WalLastRollOverTime",
             "Time of the last WAL segment rollover.");
 
@@ -308,6 +357,40 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
 
         cpHistogram = mreg.histogram("CheckpointHistogram", cpBounds,
                 "Histogram of checkpoint duration in milliseconds.");
+
+        binaryRecoveryRecords = mreg.longMetric("WalBinaryRecoveryRecords",
+            "Number of WAL records read during the physical (binary) recovery phase on node start.");
+
+        binaryRecoveryBytes = mreg.longMetric("WalBinaryRecoveryBytes",
+            "Size of WAL records read during the physical (binary) recovery phase on node start, in bytes.");
+
+        binaryRecoveryDuration = mreg.longMetric("WalBinaryRecoveryDuration",
+            "Duration of the physical (binary) recovery phase on node start in milliseconds.");
+
+        mreg.register("WalBinaryRecoveryRecordsRate",
+            () -> rate(binaryRecoveryRecords, binaryRecoveryDuration),
+            "Average number of WAL records per second replayed during the physical (binary) recovery phase.");
+
+        mreg.register("WalBinaryRecoveryBytesRate",
+            () -> rate(binaryRecoveryBytes, binaryRecoveryDuration),
+            "Average number of WAL bytes per second replayed during the physical (binary) recovery phase.");
+
+        logicalRecoveryRecords = mreg.longMetric("WalLogicalRecoveryRecords",
+            "Number of WAL records read during the logical recovery phase on node start.");
+
+        logicalRecoveryBytes = mreg.longMetric("WalLogicalRecoveryBytes",
+            "Size of WAL records read during the logical recovery phase on node start, in bytes.");
+
+        logicalRecoveryDuration = mreg.longMetric("WalLogicalRecoveryDuration",
+            "Duration of the logical recovery phase on node start in milliseconds.");
+
+        mreg.register("WalLogicalRecoveryRecordsRate",
+            () -> rate(logicalRecoveryRecords, logicalRecoveryDuration),
+            "Average number of WAL records per second replayed during the logical recovery phase.");
+
+        mreg.register("WalLogicalRecoveryBytesRate",
+            () -> rate(logicalRecoveryBytes, logicalRecoveryDuration),
+            "Average number of WAL bytes per second replayed during the logical recovery phase.");
     }
 
     /** {@inheritDoc} */
@@ -318,6 +401,29 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
         return ((float)walLoggingRate.value() * 1000) / rateTimeInterval;
     }
 
+    /**
+     * @return Average number of WAL fsyncs per second during the last time interval.
+     */
+    public float getWalFsyncRate() {
+        if (!metricsEnabled)
+            return 0;
+
+        return ((float)walFsyncTimeNum.value() * 1000) / rateTimeInterval;
+    }
+
+    /**
+     * @return Average number of fsync requests coalesced into a single WAL group commit during the last time
+     *      interval.
+     */
+    public float getWalGroupCommitAverageBatchSize() {
+        if (!metricsEnabled)
+            return 0;
+
+        long fsyncs = walFsyncTimeNum.value();
+
+        return fsyncs == 0 ? 0 : (float)walGroupCommitReqNum.value() / fsyncs;
+    }
+
     /** {@inheritDoc} */
     @Override public float getWalWritingRate() {
         if (!metricsEnabled)
@@ -719,6 +825,8 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
      * @param totalPages Total number of all pages in checkpoint.
      * @param dataPages Total number of data pages in checkpoint.
      * @param cowPages Total number of COW-ed pages in checkpoint.
+     * @param writtenBytes Number of bytes written to page stores.
+     * @param changedBytes Number of bytes of written pages changed since the previous write of the pages.
      */
     public void onCheckpoint(
         long beforeLockDuration,
@@ -735,7 +843,9 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
         long start,
         long totalPages,
         long dataPages,
-        long cowPages
+        long cowPages,
+        long writtenBytes,
+        long changedBytes
     ) {
         if (metricsEnabled) {
             lastCpBeforeLockDuration.value(beforeLockDuration);
@@ -753,6 +863,8 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
             lastCpTotalPages.value(totalPages);
             lastCpDataPages.value(dataPages);
             lastCpCowPages.value(cowPages);
+            lastCpWrittenBytes.value(writtenBytes);
+            lastCpChangedBytes.value(changedBytes);
 
             totalCheckpointTime.add(duration);
 
@@ -791,6 +903,39 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
         walLoggingRate.increment();
     }
 
+    /**
+     * @param records Number of WAL records read during the physical recovery phase.
+     * @param bytes Size of WAL records read during the physical recovery phase.
+     * @param duration Duration of the physical recovery phase in milliseconds.
+     */
+    public void onBinaryRecovery(long records, long bytes, long duration) {
+        binaryRecoveryRecords.value(records);
+        binaryRecoveryBytes.value(bytes);
+        binaryRecoveryDuration.value(duration);
+    }
+
+    /**
+     * @param records Number of WAL records read during the logical recovery phase.
+     * @param bytes Size of WAL records read during the logical recovery phase.
+     * @param duration Duration of the logical recovery phase in milliseconds.
+     */
+    public void onLogicalRecovery(long records, long bytes, long duration) {
+        logicalRecoveryRecords.value(records);
+        logicalRecoveryBytes.value(bytes);
+        logicalRecoveryDuration.value(duration);
+    }
+
+    /**
+     * @param cnt Counter.
+     * @param duration Duration in milliseconds.
+     * @return Average counter increment per second.
+     */
+    private static double rate(AtomicLongMetric cnt, AtomicLongMetric duration) {
+        long d = duration.value();
+
+        return d == 0 ? 0 : cnt.value() * 1000d / d;
+    }
+
     /**
      * @param size Size written.
      */
@@ -815,6 +960,13 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
         walBuffPollSpinsNum.add(num);
     }
 
+    /**
+     * @param batch Number of fsync requests served by the group commit.
+     */
+    public void onGroupCommit(int batch) {
+        walGroupCommitReqNum.add(batch);
+    }
+
     /**
      *
      */
@@ -822,6 +974,7 @@ public class DataStorageMetricsImpl implements DataStorageMetricsMXBean {
         walLoggingRate.reset(rateTimeInterval, subInts);
         walWritingRate.reset(rateTimeInterval, subInts);
         walBuffPollSpinsNum.reset(rateTimeInterval, subInts);
+        walGroupCommitReqNum.reset(rateTimeInterval, subInts);
 
         walFsyncTimeDuration.reset(rateTimeInterval, subInts);
         walFsyncTimeNum.reset(rateTimeInterval, subInts);
@@ -76,6 +76,7 @@ import org.apache.ignite.internal.mem.DirectMemoryRegion;
 import org.apache.ignite.internal.metric.IoStatisticsHolderNoOp;
 import org.apache.ignite.internal.pagemem.FullPageId;
 import org.apache.ignite.internal.pagemem.PageIdAllocator;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
 import org.apache.ignite.internal.pagemem.PageMemory;
 import org.apache.ignite.internal.pagemem.PageUtils;
 import org.apache.ignite.internal.pagemem.store.IgnitePageStoreManager;
@@ -121,6 +122,7 @@ import org.apache.ignite.internal.processors.cache.persistence.checkpoint.Lightw
 import org.apache.ignite.internal.processors.cache.persistence.checkpoint.ReservationReason;
 import org.apache.ignite.internal.processors.cache.persistence.defragmentation.CachePartitionDefragmentationManager;
 import org.apache.ignite.internal.processors.cache.persistence.defragmentation.DefragmentationPageReadWriteManager;
+import org.apache.ignite.internal.processors.cache.persistence.defragmentation.OnlineDataPagesCompactor;
 import org.apache.ignite.internal.processors.cache.persistence.defragmentation.maintenance.DefragmentationWorkflowCallback;
 import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
 import org.apache.ignite.internal.processors.cache.persistence.file.FileIOFactory;
@@ -135,8 +137,10 @@ import org.apache.ignite.internal.processors.cache.persistence.partstate.GroupPa
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteCacheSnapshotManager;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PagePartitionMetaIO;
+import org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager;
 import org.apache.ignite.internal.processors.cache.persistence.wal.WALPointer;
 import org.apache.ignite.internal.processors.cache.persistence.wal.crc.IgniteDataIntegrityViolationException;
+import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.DataRecordCompressor;
 import org.apache.ignite.internal.processors.compress.CompressionProcessor;
 import org.apache.ignite.internal.processors.port.GridPortRecord;
 import org.apache.ignite.internal.processors.query.GridQueryProcessor;
@@ -343,6 +347,9 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
     /** */
     private CachePartitionDefragmentationManager defrgMgr;
 
+    /** Online compactor of data pages, {@code null} if disabled. */
+    private volatile OnlineDataPagesCompactor compactor;
+
     /** Data regions which should be checkpointed. */
     protected final Set<DataRegion> checkpointedDataRegions = new GridConcurrentHashSet<>();
 
@@ -969,6 +976,36 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
 
                 return emptyDataPages;
             }
+
+            @Override public long partiallyFilledPages(int sizeCls) {
+                long pages = 0L;
+
+                for (CacheGroupContext grpCtx : cctx.cache().cacheGroups()) {
+                    if (!grpCtx.dataRegion().config().getName().equals(dataRegName))
+                        continue;
+
+                    assert grpCtx.offheap() instanceof GridCacheOffheapManager;
+
+                    pages += ((GridCacheOffheapManager)grpCtx.offheap()).dataPages(sizeCls);
+                }
+
+                return pages;
+            }
+
+            @Override public long partiallyFilledPagesFreeSpace(int sizeCls) {
+                long freeSpace = 0L;
+
+                for (CacheGroupContext grpCtx : cctx.cache().cacheGroups()) {
+                    if (!grpCtx.dataRegion().config().getName().equals(dataRegName))
+                        continue;
+
+                    assert grpCtx.offheap() instanceof GridCacheOffheapManager;
+
+                    freeSpace += ((GridCacheOffheapManager)grpCtx.offheap()).freeSpace(sizeCls);
+                }
+
+                return freeSpace;
+            }
         };
     }
 
@@ -1110,6 +1147,14 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
         if (defrgMgr != null)
             defrgMgr.cancel();
 
+        OnlineDataPagesCompactor compactor0 = compactor;
+
+        if (compactor0 != null) {
+            compactor0.stop();
+
+            compactor = null;
+        }
+
         checkpointManager.stop(cancel);
 
         super.onKernalStop0(cancel);
@@ -1186,8 +1231,11 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
                     FullPageId fullId,
                     PageMemoryEx pageMem
                 ) throws IgniteCheckedException {
-                    if (trackable)
+                    if (trackable) {
                         snapshotMgr.onChangeTrackerPage(page, fullId, pageMem);
+
+                        cctx.snapshotMgr().onChangeTrackerPage(page, fullId, pageMem);
+                    }
                 }
             };
         else
@@ -1222,7 +1270,8 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
                 @Override public CheckpointProgress apply() {
                     return getCheckpointer().currentProgress();
                 }
-            }
+            },
+            plcCfg.getPageReplacementMode()
         );
 
         memMetrics.pageMemory(pageMem);
@@ -1502,6 +1551,13 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
 
             if (tup.get2())
                 cctx.kernalContext().encryption().onCacheGroupDestroyed(gctx.groupId());
+
+            if (cctx.wal() instanceof FileWriteAheadLogManager) {
+                DataRecordCompressor compressor = ((FileWriteAheadLogManager)cctx.wal()).dataRecordCompressor();
+
+                if (compressor != null)
+                    compressor.onCacheGroupStop(gctx.groupId(), tup.get2());
+            }
         }
 
         Collection<IgniteInternalFuture<Void>> clearFuts = new ArrayList<>(destroyed.size());
@@ -1997,6 +2053,15 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
 
         if (chp != null)
             chp.futureFor(LOCK_RELEASED).get();
+
+        if (OnlineDataPagesCompactor.enabled() && !cctx.kernalContext().clientNode()
+            && !cctx.kernalContext().maintenanceRegistry().isMaintenanceMode()) {
+            OnlineDataPagesCompactor compactor0 = new OnlineDataPagesCompactor(cctx);
+
+            compactor0.start();
+
+            compactor = compactor0;
+        }
     }
 
     /**
@@ -2124,7 +2189,11 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
                                                 (IgniteCheckedException)t :
                                                 new IgniteCheckedException("Failed to apply page snapshot", t));
                                     }
-                                }, groupId, partId, exec, semaphore
+                                },
+                                groupId,
+                                physicalStripeKey(partId, pageSnapshot.fullPageId().pageId()),
+                                exec,
+                                semaphore
                             );
                         }
 
@@ -2202,7 +2271,7 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
                                             (IgniteCheckedException)t :
                                             new IgniteCheckedException("Failed to apply page delta", t));
                                 }
-                            }, groupId, partId, exec, semaphore);
+                            }, groupId, physicalStripeKey(partId, pageDelta.pageId()), exec, semaphore);
                         }
                 }
             }
@@ -2213,6 +2282,10 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
             awaitApplyComplete(exec, applyError);
         }
 
+        long duration = U.currentTimeMillis() - start;
+
+        persStoreMetrics.onBinaryRecovery(restoreBinaryState.recordsRead(), restoreBinaryState.bytesRead(), duration);
+
         if (!finalizeState)
             return null;
 
@@ -2226,7 +2299,7 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
 
             if (log.isInfoEnabled())
                 log.info("Finished applying memory changes [changesApplied=" + applied +
-                    ", time=" + (U.currentTimeMillis() - start) + " ms]");
+                    ", time=" + duration + " ms, " + restoreBinaryState.throughput(duration) + ']');
 
             finalizeCheckpointOnRecovery(status.cpStartTs, status.cpStartId, status.startPtr, exec);
         }
@@ -2234,6 +2307,19 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
         return restoreBinaryState;
     }
 
+    /**
+     * Physical records are applied to a single page each, so the records of the index partition, which usually
+     * gets most of the physical updates of a cache group, are spread over the stripes by page index. Per-page order
+     * of the records is kept since all the records of a page go to the same stripe.
+     *
+     * @param partId Partition ID.
+     * @param pageId Page ID.
+     * @return Key to choose the stripe to apply a physical record of the page.
+     */
+    private static int physicalStripeKey(int partId, long pageId) {
+        return partId == PageIdAllocator.INDEX_PARTITION ? PageIdUtils.pageIndex(pageId) & 0xFFFF : partId;
+    }
+
     /**
      * Calculate the maximum number of concurrent tasks for apply through the striped executor.
      *
@@ -2723,9 +2809,17 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
 
         awaitApplyComplete(exec, applyError);
 
+        long duration = U.currentTimeMillis() - start;
+
+        persStoreMetrics.onLogicalRecovery(
+            restoreLogicalState.recordsRead(),
+            restoreLogicalState.bytesRead(),
+            duration
+        );
+
         if (log.isInfoEnabled())
             log.info("Finished applying WAL changes [updatesApplied=" + applied +
-                ", time=" + (U.currentTimeMillis() - start) + " ms]");
+                ", time=" + duration + " ms, " + restoreLogicalState.throughput(duration) + ']');
 
         for (DatabaseLifecycleListener lsnr : getDatabaseListeners(cctx.kernalContext()))
             lsnr.afterLogicalUpdatesApplied(this, restoreLogicalState);
@@ -3441,6 +3535,12 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
         /** Only {@link WalRecordCacheGroupAware} records satisfied this predicate will be applied. */
         private final IgnitePredicate<Integer> cacheGroupPredicate;
 
+        /** Number of records read from WAL. */
+        private long recordsRead;
+
+        /** Size of records read from WAL, in bytes. */
+        private long bytesRead;
+
         /**
          * @param status Checkpoint status.
          * @param iterator WAL iterator.
@@ -3482,6 +3582,9 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
 
                     rec.position(ptr);
 
+                    recordsRead++;
+                    bytesRead += rec.size();
+
                     // Filter out records by group id.
                     if (rec instanceof WalRecordCacheGroupAware) {
                         WalRecordCacheGroupAware grpAwareRecord = (WalRecordCacheGroupAware) rec;
@@ -3531,6 +3634,32 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
             return record.setWriteEntries(filteredEntries);
         }
 
+        /**
+         * @return Number of records read from WAL.
+         */
+        public long recordsRead() {
+            return recordsRead;
+        }
+
+        /**
+         * @return Size of records read from WAL, in bytes.
+         */
+        public long bytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * @param duration Duration of the recovery phase in milliseconds.
+         * @return Recovery throughput for logging.
+         */
+        public String throughput(long duration) {
+            long d = Math.max(duration, 1);
+
+            return "recordsRead=" + recordsRead + ", bytesRead=" + U.readableSize(bytesRead, false) +
+                ", recordsPerSec=" + recordsRead * 1000 / d +
+                ", bytesPerSec=" + U.readableSize(bytesRead * 1000 / d, false);
+        }
+
         /**
          *
          * @return Last read WAL record pointer.
@@ -3614,6 +3743,14 @@ public class GridCacheDatabaseSharedManager extends IgniteCacheDatabaseSharedMan
             return needApplyBinaryUpdates;
         }
 
+        /**
+         * @return {@code true} if pages have been restored from physical WAL records because the node crashed
+         * during a checkpoint.
+         */
+        public boolean memoryRestored() {
+            return status.needRestoreMemory();
+        }
+
         /**
          *
          * @return Flag indicates need throws CRC exception or not.
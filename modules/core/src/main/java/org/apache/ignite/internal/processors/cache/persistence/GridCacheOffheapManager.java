@@ -1048,8 +1048,15 @@ public class GridCacheOffheapManager extends IgniteCacheOffheapManagerImpl imple
     }
 
     /** {@inheritDoc} */
-    @Override public void dropRootPageForIndex(int cacheId, String idxName, int segment) throws IgniteCheckedException {
-        indexStorage.dropCacheIndex(cacheId, idxName, segment);
+    @Override @Nullable public RootPage dropRootPageForIndex(int cacheId, String idxName, int segment)
+        throws IgniteCheckedException {
+        return indexStorage.dropCacheIndex(cacheId, idxName, segment);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void renameRootPageForIndex(int cacheId, String oldIdxName, String newIdxName, int segment)
+        throws IgniteCheckedException {
+        indexStorage.renameCacheIndex(cacheId, oldIdxName, newIdxName, segment);
     }
 
     /** {@inheritDoc} */
@@ -1309,6 +1316,52 @@ public class GridCacheOffheapManager extends IgniteCacheOffheapManagerImpl imple
         return emptyDataPages;
     }
 
+    /**
+     * Calculates free space of partially filled pages of the size class of all partition data stores.
+     *
+     * @param sizeCls Size class.
+     * @return free space size in bytes.
+     */
+    long freeSpace(int sizeCls) {
+        long freeSpace = 0;
+
+        for (CacheDataStore store : partDataStores.values()) {
+            assert store instanceof GridCacheDataStore;
+
+            AbstractFreeList freeList = ((GridCacheDataStore)store).getCacheStoreFreeList();
+
+            if (freeList == null)
+                continue;
+
+            freeSpace += freeList.freeSpace(sizeCls);
+        }
+
+        return freeSpace;
+    }
+
+    /**
+     * Calculates partially filled data pages of the size class of all partition data stores.
+     *
+     * @param sizeCls Size class.
+     * @return partially filled data pages count.
+     */
+    long dataPages(int sizeCls) {
+        long dataPages = 0;
+
+        for (CacheDataStore store : partDataStores.values()) {
+            assert store instanceof GridCacheDataStore;
+
+            AbstractFreeList freeList = ((GridCacheDataStore)store).getCacheStoreFreeList();
+
+            if (freeList == null)
+                continue;
+
+            dataPages += freeList.dataPages(sizeCls);
+        }
+
+        return dataPages;
+    }
+
     /**
      * @param cacheId Which was stopped, but its data still presented.
      * @throws IgniteCheckedException If failed.
@@ -1977,238 +2030,274 @@ public class GridCacheOffheapManager extends IgniteCacheOffheapManagerImpl imple
 
             final GridCacheSharedContext ctx = grp.shared();
 
-            AtomicLong pageListCacheLimit = ((GridCacheDatabaseSharedManager) ctx.database()).pageListCacheLimitHolder(grp.dataRegion());
-
             if (init.compareAndSet(false, true)) {
                 IgniteCacheDatabaseSharedManager dbMgr = ctx.database();
 
                 dbMgr.checkpointReadLock();
 
                 try {
-                    Metas metas = getOrAllocatePartitionMetas();
-
-                    if (PageIdUtils.partId(metas.reuseListRoot.pageId().pageId()) != partId ||
-                        PageIdUtils.partId(metas.treeRoot.pageId().pageId()) != partId ||
-                        PageIdUtils.partId(metas.pendingTreeRoot.pageId().pageId()) != partId ||
-                        PageIdUtils.partId(metas.partMetastoreReuseListRoot.pageId().pageId()) != partId
-                    ) {
-                        throw new IgniteCheckedException("Invalid meta root allocated [" +
-                            "cacheOrGroupName=" + grp.cacheOrGroupName() +
-                            ", partId=" + partId +
-                            ", metas=" + metas + ']');
-                    }
+                    delegate0 = createDelegate();
 
-                    String freeListName = freeListName();
+                    synchronized (delegatePublicationMux) {
+                        delegate0.setRowCacheCleaner(rowCacheCleaner);
 
-                    RootPage reuseRoot = metas.reuseListRoot;
+                        delegate = delegate0;
+                    }
+                }
+                catch (Throwable ex) {
+                    U.error(log, "Unhandled exception during page store initialization. All further operations will " +
+                        "be failed and local node will be stopped.", ex);
 
-                    freeList = new CacheFreeList(
-                        grp.groupId(),
-                        freeListName,
-                        grp.dataRegion().memoryMetrics(),
-                        grp.dataRegion(),
-                        ctx.wal(),
-                        reuseRoot.pageId().pageId(),
-                        reuseRoot.isAllocated(),
-                        ctx.diagnostic().pageLockTracker().createPageLockTracker(freeListName),
-                        ctx.kernalContext(),
-                        pageListCacheLimit,
-                        PageIdAllocator.FLAG_AUX
-                    ) {
-                        /** {@inheritDoc} */
-                        @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
-                            assert ctx.database().checkpointLockIsHeldByThread();
-
-                            return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
-                        }
-                    };
+                    ctx.kernalContext().failure().process(new FailureContext(FailureType.CRITICAL_ERROR, ex));
 
-                    RootPage partMetastoreReuseListRoot = metas.partMetastoreReuseListRoot;
+                    throw ex;
+                }
+                finally {
+                    latch.countDown();
 
-                    String partMetastoreName = partitionMetaStoreName();
+                    dbMgr.checkpointReadUnlock();
+                }
+            }
+            else {
+                U.await(latch);
 
-                    partStorage = new PartitionMetaStorageImpl<SimpleDataRow>(
-                        grp.groupId(),
-                        partMetastoreName,
-                        grp.dataRegion().memoryMetrics(),
-                        grp.dataRegion(),
-                        freeList,
-                        ctx.wal(),
-                        partMetastoreReuseListRoot.pageId().pageId(),
-                        partMetastoreReuseListRoot.isAllocated(),
-                        ctx.diagnostic().pageLockTracker().createPageLockTracker(partMetastoreName),
-                        ctx.kernalContext(),
-                        pageListCacheLimit,
-                        PageIdAllocator.FLAG_AUX
-                    ) {
-                        /** {@inheritDoc} */
-                        @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
-                            assert ctx.database().checkpointLockIsHeldByThread();
-
-                            return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
-                        }
-                    };
+                delegate0 = delegate;
 
-                    String dataTreeName = dataTreeName();
+                if (delegate0 == null)
+                    throw new IgniteCheckedException("Cache store initialization failed.");
+            }
 
-                    CacheDataRowStore rowStore = new CacheDataRowStore(grp, freeList, partId);
+            return delegate0;
+        }
 
-                    RootPage treeRoot = metas.treeRoot;
+        /**
+         * Re-creates the store delegate on top of the partition file which has been replaced while the partition is
+         * rebalanced by files. Should be invoked under the checkpoint write lock after the page memory of the partition
+         * has been invalidated.
+         *
+         * @throws IgniteCheckedException If failed.
+         */
+        public void reinit() throws IgniteCheckedException {
+            CacheDataStoreImpl delegate0 = createDelegate();
 
-                    dataTree = new CacheDataTree(
-                        grp,
-                        dataTreeName,
-                        freeList,
-                        rowStore,
-                        treeRoot.pageId().pageId(),
-                        treeRoot.isAllocated(),
-                        ctx.diagnostic().pageLockTracker().createPageLockTracker(dataTreeName),
-                        PageIdAllocator.FLAG_AUX
-                    ) {
-                        /** {@inheritDoc} */
-                        @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
-                            assert ctx.database().checkpointLockIsHeldByThread();
+            synchronized (delegatePublicationMux) {
+                delegate0.setRowCacheCleaner(rowCacheCleaner);
 
-                            return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
-                        }
-                    };
-
-                    String pendingEntriesTreeName = pendingEntriesTreeName();
-
-                    RootPage pendingTreeRoot = metas.pendingTreeRoot;
-
-                    final PendingEntriesTree pendingTree0 = new PendingEntriesTree(
-                        grp,
-                        pendingEntriesTreeName,
-                        grp.dataRegion().pageMemory(),
-                        pendingTreeRoot.pageId().pageId(),
-                        freeList,
-                        pendingTreeRoot.isAllocated(),
-                        ctx.diagnostic().pageLockTracker().createPageLockTracker(pendingEntriesTreeName),
-                        PageIdAllocator.FLAG_AUX
-                    ) {
-                        /** {@inheritDoc} */
-                        @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
-                            assert ctx.database().checkpointLockIsHeldByThread();
-
-                            return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
-                        }
-                    };
-
-                    PageMemoryEx pageMem = (PageMemoryEx) grp.dataRegion().pageMemory();
-
-                    int grpId = grp.groupId();
-
-                    delegate0 = new CacheDataStoreImpl(partId,
-                        rowStore,
-                        dataTree,
-                        () -> pendingTree0,
-                        grp,
-                        busyLock,
-                        log
-                    ) {
-                        /** {@inheritDoc} */
-                        @Override public PendingEntriesTree pendingTree() {
-                            return pendingTree0;
-                        }
+                delegate = delegate0;
+            }
 
-                        /** {@inheritDoc} */
-                        @Override public void preload() throws IgniteCheckedException {
-                            IgnitePageStoreManager pageStoreMgr = ctx.pageStore();
+            // The delegate is published, so the lazy initialization must not start anymore.
+            init.set(true);
 
-                            if (pageStoreMgr == null)
-                                return;
+            latch.countDown();
+        }
 
-                            final int pages = pageStoreMgr.pages(grpId, partId);
+        /**
+         * Creates the store delegate from the partition metas.
+         *
+         * @return Store delegate.
+         * @throws IgniteCheckedException If failed.
+         */
+        private CacheDataStoreImpl createDelegate() throws IgniteCheckedException {
+            final GridCacheSharedContext ctx = grp.shared();
 
-                            long pageId = pageMem.partitionMetaPageId(grpId, partId);
+            AtomicLong pageListCacheLimit = ((GridCacheDatabaseSharedManager) ctx.database()).pageListCacheLimitHolder(grp.dataRegion());
 
-                            // For each page sequentially pin/unpin.
-                            for (int pageNo = 0; pageNo < pages; pageId++, pageNo++) {
-                                long pagePointer = -1;
+            Metas metas = getOrAllocatePartitionMetas();
+
+            if (PageIdUtils.partId(metas.reuseListRoot.pageId().pageId()) != partId ||
+                PageIdUtils.partId(metas.treeRoot.pageId().pageId()) != partId ||
+                PageIdUtils.partId(metas.pendingTreeRoot.pageId().pageId()) != partId ||
+                PageIdUtils.partId(metas.partMetastoreReuseListRoot.pageId().pageId()) != partId
+            ) {
+                throw new IgniteCheckedException("Invalid meta root allocated [" +
+                    "cacheOrGroupName=" + grp.cacheOrGroupName() +
+                    ", partId=" + partId +
+                    ", metas=" + metas + ']');
+            }
+
+            String freeListName = freeListName();
+
+            RootPage reuseRoot = metas.reuseListRoot;
+
+            freeList = new CacheFreeList(
+                grp.groupId(),
+                freeListName,
+                grp.dataRegion().memoryMetrics(),
+                grp.dataRegion(),
+                ctx.wal(),
+                reuseRoot.pageId().pageId(),
+                reuseRoot.isAllocated(),
+                ctx.diagnostic().pageLockTracker().createPageLockTracker(freeListName),
+                ctx.kernalContext(),
+                pageListCacheLimit,
+                PageIdAllocator.FLAG_AUX
+            ) {
+                /** {@inheritDoc} */
+                @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
+                    assert ctx.database().checkpointLockIsHeldByThread();
+
+                    return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
+                }
+            };
+
+            RootPage partMetastoreReuseListRoot = metas.partMetastoreReuseListRoot;
+
+            String partMetastoreName = partitionMetaStoreName();
+
+            partStorage = new PartitionMetaStorageImpl<SimpleDataRow>(
+                grp.groupId(),
+                partMetastoreName,
+                grp.dataRegion().memoryMetrics(),
+                grp.dataRegion(),
+                freeList,
+                ctx.wal(),
+                partMetastoreReuseListRoot.pageId().pageId(),
+                partMetastoreReuseListRoot.isAllocated(),
+                ctx.diagnostic().pageLockTracker().createPageLockTracker(partMetastoreName),
+                ctx.kernalContext(),
+                pageListCacheLimit,
+                PageIdAllocator.FLAG_AUX
+            ) {
+                /** {@inheritDoc} */
+                @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
+                    assert ctx.database().checkpointLockIsHeldByThread();
+
+                    return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
+                }
+            };
 
-                                try {
-                                    pagePointer = pageMem.acquirePage(grpId, pageId);
-                                }
-                                finally {
-                                    if (pagePointer != -1)
-                                        pageMem.releasePage(grpId, pageId, pagePointer);
-                                }
-                            }
-                        }
-                    };
+            String dataTreeName = dataTreeName();
 
-                    pendingTree = pendingTree0;
+            CacheDataRowStore rowStore = new CacheDataRowStore(grp, freeList, partId);
 
-                    if (!pendingTree0.isEmpty())
-                        grp.caches().forEach(cctx -> cctx.ttl().hasPendingEntries(true));
+            RootPage treeRoot = metas.treeRoot;
 
-                    long partMetaId = pageMem.partitionMetaPageId(grpId, partId);
-                    long partMetaPage = pageMem.acquirePage(grpId, partMetaId);
+            dataTree = new CacheDataTree(
+                grp,
+                dataTreeName,
+                freeList,
+                rowStore,
+                treeRoot.pageId().pageId(),
+                treeRoot.isAllocated(),
+                ctx.diagnostic().pageLockTracker().createPageLockTracker(dataTreeName),
+                PageIdAllocator.FLAG_AUX
+            ) {
+                /** {@inheritDoc} */
+                @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
+                    assert ctx.database().checkpointLockIsHeldByThread();
 
-                    try {
-                        long pageAddr = pageMem.readLock(grpId, partMetaId, partMetaPage);
+                    return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
+                }
+            };
+
+            String pendingEntriesTreeName = pendingEntriesTreeName();
+
+            RootPage pendingTreeRoot = metas.pendingTreeRoot;
+
+            final PendingEntriesTree pendingTree0 = new PendingEntriesTree(
+                grp,
+                pendingEntriesTreeName,
+                grp.dataRegion().pageMemory(),
+                pendingTreeRoot.pageId().pageId(),
+                freeList,
+                pendingTreeRoot.isAllocated(),
+                ctx.diagnostic().pageLockTracker().createPageLockTracker(pendingEntriesTreeName),
+                PageIdAllocator.FLAG_AUX
+            ) {
+                /** {@inheritDoc} */
+                @Override protected long allocatePageNoReuse() throws IgniteCheckedException {
+                    assert ctx.database().checkpointLockIsHeldByThread();
+
+                    return pageMem.allocatePage(grpId, partId, PageIdAllocator.FLAG_AUX);
+                }
+            };
 
-                        try {
-                            if (PageIO.getType(pageAddr) != 0) {
-                                PagePartitionMetaIOV3 io = (PagePartitionMetaIOV3)PagePartitionMetaIO.VERSIONS.latest();
+            PageMemoryEx pageMem = (PageMemoryEx) grp.dataRegion().pageMemory();
 
-                                Map<Integer, Long> cacheSizes = null;
+            int grpId = grp.groupId();
 
-                                if (grp.sharedGroup())
-                                    cacheSizes = readSharedGroupCacheSizes(pageMem, grpId, io.getCountersPageId(pageAddr));
+            CacheDataStoreImpl delegate0 = new CacheDataStoreImpl(partId,
+                rowStore,
+                dataTree,
+                () -> pendingTree0,
+                grp,
+                busyLock,
+                log
+            ) {
+                /** {@inheritDoc} */
+                @Override public PendingEntriesTree pendingTree() {
+                    return pendingTree0;
+                }
 
-                                long link = io.getGapsLink(pageAddr);
+                /** {@inheritDoc} */
+                @Override public void preload() throws IgniteCheckedException {
+                    IgnitePageStoreManager pageStoreMgr = ctx.pageStore();
 
-                                byte[] data = link == 0 ? null : partStorage.readRow(link);
+                    if (pageStoreMgr == null)
+                        return;
 
-                                delegate0.restoreState(io.getSize(pageAddr), io.getUpdateCounter(pageAddr), cacheSizes, data);
+                    final int pages = pageStoreMgr.pages(grpId, partId);
 
-                                int encrPageCnt = io.getEncryptedPageCount(pageAddr);
+                    long pageId = pageMem.partitionMetaPageId(grpId, partId);
 
-                                if (encrPageCnt > 0) {
-                                    ctx.kernalContext().encryption().setEncryptionState(
-                                        grp, partId, io.getEncryptedPageIndex(pageAddr), encrPageCnt);
-                                }
+                    // For each page sequentially pin/unpin.
+                    for (int pageNo = 0; pageNo < pages; pageId++, pageNo++) {
+                        long pagePointer = -1;
 
-                                grp.offheap().globalRemoveId().setIfGreater(io.getGlobalRemoveId(pageAddr));
-                            }
+                        try {
+                            pagePointer = pageMem.acquirePage(grpId, pageId);
                         }
                         finally {
-                            pageMem.readUnlock(grpId, partMetaId, partMetaPage);
+                            if (pagePointer != -1)
+                                pageMem.releasePage(grpId, pageId, pagePointer);
                         }
                     }
-                    finally {
-                        pageMem.releasePage(grpId, partMetaId, partMetaPage);
-                    }
+                }
+            };
 
-                    synchronized (delegatePublicationMux) {
-                        delegate0.setRowCacheCleaner(rowCacheCleaner);
+            pendingTree = pendingTree0;
 
-                        delegate = delegate0;
-                    }
-                }
-                catch (Throwable ex) {
-                    U.error(log, "Unhandled exception during page store initialization. All further operations will " +
-                        "be failed and local node will be stopped.", ex);
+            if (!pendingTree0.isEmpty())
+                grp.caches().forEach(cctx -> cctx.ttl().hasPendingEntries(true));
 
-                    ctx.kernalContext().failure().process(new FailureContext(FailureType.CRITICAL_ERROR, ex));
+            long partMetaId = pageMem.partitionMetaPageId(grpId, partId);
+            long partMetaPage = pageMem.acquirePage(grpId, partMetaId);
 
-                    throw ex;
+            try {
+                long pageAddr = pageMem.readLock(grpId, partMetaId, partMetaPage);
+
+                try {
+                    if (PageIO.getType(pageAddr) != 0) {
+                        PagePartitionMetaIOV3 io = (PagePartitionMetaIOV3)PagePartitionMetaIO.VERSIONS.latest();
+
+                        Map<Integer, Long> cacheSizes = null;
+
+                        if (grp.sharedGroup())
+                            cacheSizes = readSharedGroupCacheSizes(pageMem, grpId, io.getCountersPageId(pageAddr));
+
+                        long link = io.getGapsLink(pageAddr);
+
+                        byte[] data = link == 0 ? null : partStorage.readRow(link);
+
+                        delegate0.restoreState(io.getSize(pageAddr), io.getUpdateCounter(pageAddr), cacheSizes, data);
+
+                        int encrPageCnt = io.getEncryptedPageCount(pageAddr);
+
+                        if (encrPageCnt > 0) {
+                            ctx.kernalContext().encryption().setEncryptionState(
+                                grp, partId, io.getEncryptedPageIndex(pageAddr), encrPageCnt);
+                        }
+
+                        grp.offheap().globalRemoveId().setIfGreater(io.getGlobalRemoveId(pageAddr));
+                    }
                 }
                 finally {
-                    latch.countDown();
-
-                    dbMgr.checkpointReadUnlock();
+                    pageMem.readUnlock(grpId, partMetaId, partMetaPage);
                 }
             }
-            else {
-                U.await(latch);
-
-                delegate0 = delegate;
-
-                if (delegate0 == null)
-                    throw new IgniteCheckedException("Cache store initialization failed.");
+            finally {
+                pageMem.releasePage(grpId, partMetaId, partMetaPage);
             }
 
             return delegate0;
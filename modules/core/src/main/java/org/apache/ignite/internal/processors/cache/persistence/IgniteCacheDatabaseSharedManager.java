@@ -526,6 +526,18 @@ public class IgniteCacheDatabaseSharedManager extends GridCacheSharedManagerAdap
 
                 return freeList0 == null ? 0L : freeList0.emptyDataPages();
             }
+
+            @Override public long partiallyFilledPages(int sizeCls) {
+                CacheFreeList freeList0 = getFreeList();
+
+                return freeList0 == null ? 0L : freeList0.dataPages(sizeCls);
+            }
+
+            @Override public long partiallyFilledPagesFreeSpace(int sizeCls) {
+                CacheFreeList freeList0 = getFreeList();
+
+                return freeList0 == null ? 0L : freeList0.freeSpace(sizeCls);
+            }
         };
     }
 
@@ -669,6 +681,8 @@ public class IgniteCacheDatabaseSharedManager extends GridCacheSharedManagerAdap
 
         checkRegionMemoryStorageType(regCfg);
 
+        checkRegionPageReplacementMode(regCfg);
+
         checkRegionWarmUpConfiguration(regCfg, warmUpStrategies);
     }
 
@@ -786,6 +800,17 @@ public class IgniteCacheDatabaseSharedManager extends GridCacheSharedManagerAdap
             );
     }
 
+    /**
+     * @param regCfg DataRegionConfiguration to validate.
+     * @throws IgniteCheckedException If config is invalid.
+     */
+    private static void checkRegionPageReplacementMode(DataRegionConfiguration regCfg) throws IgniteCheckedException {
+        if (regCfg.getPageReplacementMode() == null) {
+            throw new IgniteCheckedException("Page replacement mode must not be null " +
+                "(use DataRegionConfiguration.setPageReplacementMode(...)) [name=" + regCfg.getName() + ']');
+        }
+    }
+
     /**
      * @param regCfg DataRegionConfiguration to validate.
      * @param dbCfg Memory configuration.
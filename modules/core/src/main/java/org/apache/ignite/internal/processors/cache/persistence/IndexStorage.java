@@ -65,6 +65,19 @@ public interface IndexStorage {
      */
     public RootPage dropIndex(String idxName) throws IgniteCheckedException;
 
+    /**
+     * Moves the root page of a cache index to another name. Index names will be masked if needed.
+     *
+     * @param cacheId Cache ID.
+     * @param oldIdxName Index name.
+     * @param newIdxName New index name.
+     * @param segment Segment.
+     * @return Root page which was previously associated with the new name or {@code null} if there was none.
+     * @throws IgniteCheckedException If failed.
+     */
+    public RootPage renameCacheIndex(Integer cacheId, String oldIdxName, String newIdxName, int segment)
+        throws IgniteCheckedException;
+
     /**
      * Destroy this meta store.
      *
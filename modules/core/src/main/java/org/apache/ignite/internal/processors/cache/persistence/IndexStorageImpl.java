@@ -185,6 +185,33 @@ public class IndexStorageImpl implements IndexStorage {
         return row != null ? new RootPage(new FullPageId(row.pageId, grpId), false) : null;
     }
 
+    /** {@inheritDoc} */
+    @Override public RootPage renameCacheIndex(Integer cacheId, String oldIdxName, String newIdxName, int segment)
+        throws IgniteCheckedException {
+        byte[] oldNameBytes = maskCacheIndexName(cacheId, oldIdxName, segment).getBytes(StandardCharsets.UTF_8);
+        byte[] newNameBytes = maskCacheIndexName(cacheId, newIdxName, segment).getBytes(StandardCharsets.UTF_8);
+
+        if (newNameBytes.length > MAX_IDX_NAME_LEN)
+            throw new IllegalArgumentException("Too long encoded indexName [maxAllowed=" + MAX_IDX_NAME_LEN +
+                ", currentLength=" + newNameBytes.length + ", name=" + newIdxName + "]");
+
+        synchronized (this) {
+            IndexItem row = metaTree.findOne(new IndexItem(oldNameBytes, 0));
+
+            if (row == null) {
+                throw new IgniteCheckedException("Index root page is not found [cacheId=" + cacheId +
+                    ", idxName=" + oldIdxName + ", segment=" + segment + ']');
+            }
+
+            // The new name is replaced first, so the root page is kept by one of the names at any moment.
+            IndexItem prev = metaTree.put(new IndexItem(newNameBytes, row.pageId));
+
+            metaTree.removex(new IndexItem(oldNameBytes, 0));
+
+            return prev != null ? new RootPage(new FullPageId(prev.pageId, grpId), false) : null;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override public void destroy() throws IgniteCheckedException {
         metaTree.destroy();
@@ -22,6 +22,7 @@ import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.pagemem.FullPageId;
 import org.apache.ignite.internal.pagemem.store.PageStore;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
 
 /**
@@ -38,4 +39,18 @@ public interface PageStoreWriter {
      * @throws IgniteCheckedException If write page failed.
      */
     void writePage(FullPageId fullPageId, ByteBuffer buf, int tag) throws IgniteCheckedException;
+
+    /**
+     * Callback for write page which parts changed since the previous write of the page are known.
+     *
+     * @param fullPageId Page ID to get byte buffer for.
+     * @param buf Temporary buffer to write changes into.
+     * @param tag {@code Partition generation} if data was read, {@code null} otherwise (data already saved to storage).
+     * @param dirtyChunks Mask of changed chunks of the page, see {@link PageDirtyChunks}.
+     * @throws IgniteCheckedException If write page failed.
+     */
+    default void writePage(FullPageId fullPageId, ByteBuffer buf, int tag, long dirtyChunks)
+        throws IgniteCheckedException {
+        writePage(fullPageId, buf, tag);
+    }
 }
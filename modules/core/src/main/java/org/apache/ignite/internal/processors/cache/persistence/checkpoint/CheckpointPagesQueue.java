@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.checkpoint;
+
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
+import org.apache.ignite.internal.util.GridConcurrentMultiPairQueue;
+
+/**
+ * Queue of checkpoint pages which keeps cache group IDs and page IDs of every data region in primitive arrays.
+ * {@link FullPageId} instances are created when checkpoint threads take pages, so they die young.
+ */
+class CheckpointPagesQueue extends GridConcurrentMultiPairQueue<PageMemoryEx, FullPageId> {
+    /** Cache group IDs per data region. */
+    private final int[][] grpIds;
+
+    /** Page IDs per data region. */
+    private final long[][] pageIds;
+
+    /**
+     * @param regions Page memories of data regions.
+     * @param grpIds Cache group IDs per data region.
+     * @param pageIds Page IDs per data region, arrays must not be empty.
+     */
+    CheckpointPagesQueue(PageMemoryEx[] regions, int[][] grpIds, long[][] pageIds) {
+        super(regions, sizes(pageIds));
+
+        this.grpIds = grpIds;
+        this.pageIds = pageIds;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected FullPageId value(int keyIdx, int idx) {
+        return new FullPageId(pageIds[keyIdx][idx], grpIds[keyIdx][idx]);
+    }
+
+    /**
+     * @param pageIds Page IDs per data region.
+     * @return Number of pages per data region.
+     */
+    private static int[] sizes(long[][] pageIds) {
+        int[] sizes = new int[pageIds.length];
+
+        for (int i = 0; i < pageIds.length; i++)
+            sizes[i] = pageIds[i].length;
+
+        return sizes;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.ignite.internal.pagemem.store.PageStore;
 import org.apache.ignite.internal.processors.cache.persistence.DataStorageMetricsImpl;
 import org.apache.ignite.internal.processors.cache.persistence.PageStoreWriter;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.CheckpointMetricsTracker;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl;
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteCacheSnapshotManager;
@@ -39,6 +40,7 @@ import org.apache.ignite.internal.util.GridConcurrentMultiPairQueue;
 import org.apache.ignite.internal.util.future.CountDownFuture;
 import org.apache.ignite.internal.util.lang.IgniteThrowableFunction;
 import org.apache.ignite.internal.util.typedef.internal.LT;
+import org.jetbrains.annotations.Nullable;
 import org.jsr166.ConcurrentLinkedHashMap;
 
 import static org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO.getType;
@@ -76,6 +78,9 @@ public class CheckpointPagesWriter implements Runnable {
     /** Thread local with buffers for the checkpoint threads. Each buffer represent one page for durable memory. */
     private final ThreadLocal<ByteBuffer> threadBuf;
 
+    /** Thread local with batches of consecutive pages, {@code null} if pages are written one by one. */
+    @Nullable private final ThreadLocal<CheckpointWriteBatch> threadBatch;
+
     /** Throttling policy according to the settings. */
     private final PageMemoryImpl.ThrottlingPolicy throttlingPolicy;
 
@@ -103,6 +108,7 @@ public class CheckpointPagesWriter implements Runnable {
      * @param log Logger.
      * @param dsMetrics Data storage metrics.
      * @param buf Thread local byte buffer.
+     * @param batch Thread local batch of consecutive pages, {@code null} if pages are written one by one.
      * @param throttlingPolicy Throttling policy.
      * @param pageMemoryGroupResolver Resolver of page memory by group id.
      * @param progress Checkpoint progress.
@@ -119,6 +125,7 @@ public class CheckpointPagesWriter implements Runnable {
         IgniteLogger log,
         DataStorageMetricsImpl dsMetrics,
         ThreadLocal<ByteBuffer> buf,
+        @Nullable ThreadLocal<CheckpointWriteBatch> batch,
         PageMemoryImpl.ThrottlingPolicy throttlingPolicy,
         IgniteThrowableFunction<Integer, PageMemoryEx> pageMemoryGroupResolver,
         CheckpointProgressImpl progress,
@@ -134,6 +141,7 @@ public class CheckpointPagesWriter implements Runnable {
         this.log = log;
         this.persStoreMetrics = dsMetrics;
         this.threadBuf = buf;
+        this.threadBatch = batch;
         this.throttlingPolicy = throttlingPolicy;
         this.pageMemoryGroupResolver = pageMemoryGroupResolver;
         this.curCpProgress = progress;
@@ -182,43 +190,56 @@ public class CheckpointPagesWriter implements Runnable {
 
         ByteBuffer tmpWriteBuf = threadBuf.get();
 
+        CheckpointWriteBatch batch = threadBatch != null ? threadBatch.get() : null;
+
+        // Consecutive pages are taken at once to be written with a single I/O operation.
+        int pagesToTake = batch != null ? batch.capacity() : 1;
+
         boolean throttlingEnabled = throttlingPolicy != PageMemoryImpl.ThrottlingPolicy.DISABLED;
 
         GridConcurrentMultiPairQueue.Result<PageMemoryEx, FullPageId> res =
             new GridConcurrentMultiPairQueue.Result<>();
 
-        while (writePageIds.next(res)) {
-            if (shutdownNow.getAsBoolean())
-                break;
-
-            beforePageWrite.run();
-
-            FullPageId fullId = res.getValue();
+        try {
+            while (writePageIds.next(res, pagesToTake)) {
+                if (shutdownNow.getAsBoolean())
+                    break;
 
-            PageMemoryEx pageMem = res.getKey();
+                beforePageWrite.run();
 
-            snapshotMgr.beforePageWrite(fullId);
+                FullPageId fullId = res.getValue();
 
-            tmpWriteBuf.rewind();
+                PageMemoryEx pageMem = res.getKey();
 
-            PageStoreWriter pageStoreWriter = pageStoreWriters.computeIfAbsent(pageMem, pageMemEx -> createPageStoreWriter(pageMemEx, pagesToRetry));
+                snapshotMgr.beforePageWrite(fullId);
 
-            pageMem.checkpointWritePage(fullId, tmpWriteBuf, pageStoreWriter, tracker);
+                PageStoreWriter pageStoreWriter = pageStoreWriters.computeIfAbsent(pageMem,
+                    pageMemEx -> createPageStoreWriter(pageMemEx, pagesToRetry, batch, tracker));
 
-            if (throttlingEnabled) {
-                while (pageMem.shouldThrottle()) {
-                    FullPageId cpPageId = pageMem.pullPageFromCpBuffer();
+                pageMem.checkpointWritePage(fullId, writeBuffer(tmpWriteBuf, batch), pageStoreWriter, tracker);
 
-                    if (cpPageId.equals(FullPageId.NULL_PAGE))
-                        break;
+                if (throttlingEnabled) {
+                    while (pageMem.shouldThrottle()) {
+                        FullPageId cpPageId = pageMem.pullPageFromCpBuffer();
 
-                    snapshotMgr.beforePageWrite(cpPageId);
+                        if (cpPageId.equals(FullPageId.NULL_PAGE))
+                            break;
 
-                    tmpWriteBuf.rewind();
+                        snapshotMgr.beforePageWrite(cpPageId);
 
-                    pageMem.checkpointWritePage(cpPageId, tmpWriteBuf, pageStoreWriter, tracker);
+                        pageMem.checkpointWritePage(cpPageId, writeBuffer(tmpWriteBuf, batch), pageStoreWriter,
+                            tracker);
+                    }
                 }
             }
+
+            if (batch != null && batch.size() > 0)
+                writeBatch(batch, tracker);
+        }
+        finally {
+            // Pages are released without writing if checkpoint failed.
+            if (batch != null)
+                batch.release();
         }
 
         return pagesToRetry.isEmpty() ?
@@ -226,21 +247,65 @@ public class CheckpointPagesWriter implements Runnable {
             new GridConcurrentMultiPairQueue<>(pagesToRetry);
     }
 
+    /**
+     * @param tmpWriteBuf Thread local byte buffer.
+     * @param batch Batch of consecutive pages, {@code null} if pages are written one by one.
+     * @return Buffer to copy the next page to.
+     */
+    private static ByteBuffer writeBuffer(ByteBuffer tmpWriteBuf, @Nullable CheckpointWriteBatch batch) {
+        if (batch != null)
+            return batch.nextBuffer();
+
+        tmpWriteBuf.rewind();
+
+        return tmpWriteBuf;
+    }
+
+    /**
+     * Writes pages of the batch to the page store.
+     *
+     * @param batch Batch of consecutive pages.
+     * @param tracker Checkpoint metrics tracker, {@code null} if metrics are disabled.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void writeBatch(
+        CheckpointWriteBatch batch,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        int cnt = batch.size();
+
+        PageStore store = batch.write(pageWriter, tracker);
+
+        curCpProgress.updateWrittenPages(cnt);
+
+        updStores.computeIfAbsent(store, k -> new LongAdder()).add(cnt);
+    }
+
     /**
      * Factory method for create {@link PageStoreWriter}.
      *
      * @param pageMemEx
      * @param pagesToRetry List pages for retry.
+     * @param batch Batch of consecutive pages, {@code null} if pages are written one by one.
+     * @param tracker Checkpoint metrics tracker, {@code null} if metrics are disabled.
      * @return Checkpoint page write context.
      */
     private PageStoreWriter createPageStoreWriter(
         PageMemoryEx pageMemEx,
-        Map<PageMemoryEx, List<FullPageId>> pagesToRetry
+        Map<PageMemoryEx, List<FullPageId>> pagesToRetry,
+        @Nullable CheckpointWriteBatch batch,
+        @Nullable CheckpointMetricsTracker tracker
     ) {
         return new PageStoreWriter() {
             /** {@inheritDoc} */
             @Override public void writePage(FullPageId fullPageId, ByteBuffer buf,
                 int tag) throws IgniteCheckedException {
+                writePage(fullPageId, buf, tag, PageDirtyChunks.ALL);
+            }
+
+            /** {@inheritDoc} */
+            @Override public void writePage(FullPageId fullPageId, ByteBuffer buf, int tag,
+                long dirtyChunks) throws IgniteCheckedException {
                 if (tag == PageMemoryImpl.TRY_AGAIN_TAG) {
                     pagesToRetry.computeIfAbsent(pageMemEx, k -> new ArrayList<>()).add(fullPageId);
 
@@ -253,16 +318,31 @@ public class CheckpointPagesWriter implements Runnable {
                 assert getType(buf) != 0 : "Invalid state. Type is 0! pageId = " + hexLong(pageId);
                 assert getVersion(buf) != 0 : "Invalid state. Version is 0! pageId = " + hexLong(pageId);
 
-                if (persStoreMetrics.metricsEnabled()) {
+                if (tracker != null) {
                     int pageType = getType(buf);
 
                     if (PageIO.isDataPageType(pageType))
                         tracker.onDataPageWritten();
                 }
 
+                // Pages which may be written partially are not batched.
+                if (batch != null && dirtyChunks == PageDirtyChunks.ALL) {
+                    if (!batch.canAdd(pageMemEx, fullPageId, tag))
+                        writeBatch(batch, tracker);
+
+                    long pagePtr = pageMemEx.acquireCheckpointPage(fullPageId);
+
+                    if (pagePtr != 0) {
+                        if (batch.add(pageMemEx, fullPageId, tag, pagePtr))
+                            writeBatch(batch, tracker);
+
+                        return;
+                    }
+                }
+
                 curCpProgress.updateWrittenPages(1);
 
-                PageStore store = pageWriter.write(pageMemEx, fullPageId, buf, tag);
+                PageStore store = pageWriter.write(pageMemEx, fullPageId, buf, tag, dirtyChunks, tracker);
 
                 updStores.computeIfAbsent(store, k -> new LongAdder()).increment();
             }
@@ -277,10 +357,48 @@ public class CheckpointPagesWriter implements Runnable {
          * @param fullPageId Full page id.
          * @param buf Byte buffer.
          * @param tag Page tag.
+         * @param dirtyChunks Mask of changed chunks of the page, see {@link PageDirtyChunks}.
+         * @param tracker Checkpoint metrics tracker, {@code null} if metrics are disabled.
          * @return {@link PageStore} which was used to write.
          * @throws IgniteCheckedException if fail.
          */
-        PageStore write(PageMemoryEx pageMemEx, FullPageId fullPageId, ByteBuffer buf, int tag)
-            throws IgniteCheckedException;
+        PageStore write(
+            PageMemoryEx pageMemEx,
+            FullPageId fullPageId,
+            ByteBuffer buf,
+            int tag,
+            long dirtyChunks,
+            @Nullable CheckpointMetricsTracker tracker
+        ) throws IgniteCheckedException;
+
+        /**
+         * Writes pages of the same partition with consecutive indexes.
+         *
+         * @param pageMemEx Page memory from which pages should be written.
+         * @param grpId Cache group ID.
+         * @param pageIds Page IDs.
+         * @param bufs Page buffers.
+         * @param cnt Number of pages to write.
+         * @param tag Partition generation.
+         * @param tracker Checkpoint metrics tracker, {@code null} if metrics are disabled.
+         * @return {@link PageStore} which was used to write.
+         * @throws IgniteCheckedException if fail.
+         */
+        default PageStore write(
+            PageMemoryEx pageMemEx,
+            int grpId,
+            long[] pageIds,
+            ByteBuffer[] bufs,
+            int cnt,
+            int tag,
+            @Nullable CheckpointMetricsTracker tracker
+        ) throws IgniteCheckedException {
+            PageStore store = null;
+
+            for (int i = 0; i < cnt; i++)
+                store = write(pageMemEx, new FullPageId(pageIds[i], grpId), bufs[i], tag, PageDirtyChunks.ALL, tracker);
+
+            return store;
+        }
     }
 }
@@ -27,11 +27,13 @@ import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
 import org.apache.ignite.internal.pagemem.FullPageId;
 import org.apache.ignite.internal.pagemem.store.PageStore;
 import org.apache.ignite.internal.processors.cache.persistence.DataStorageMetricsImpl;
 import org.apache.ignite.internal.processors.cache.persistence.PageStoreWriter;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.CheckpointMetricsTracker;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl;
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteCacheSnapshotManager;
@@ -39,14 +41,20 @@ import org.apache.ignite.internal.util.GridConcurrentMultiPairQueue;
 import org.apache.ignite.internal.util.future.CountDownFuture;
 import org.apache.ignite.internal.util.lang.IgniteThrowableFunction;
 import org.apache.ignite.internal.util.typedef.internal.U;
+import org.jetbrains.annotations.Nullable;
 import org.jsr166.ConcurrentLinkedHashMap;
 
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES;
+
 /**
  * Factory class for checkpoint pages writer.
  *
  * It holds all dependency which is needed for creation of checkpoint writer and recovery checkpoint writer.
  */
 public class CheckpointPagesWriterFactory {
+    /** @see IgniteSystemProperties#IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES */
+    public static final int DFLT_CHECKPOINT_COALESCED_WRITE_PAGES = 32;
+
     /** Logger. */
     private final IgniteLogger log;
 
@@ -59,6 +67,13 @@ public class CheckpointPagesWriterFactory {
     /** Thread local with buffers for the checkpoint threads. Each buffer represent one page for durable memory. */
     private volatile ThreadLocal<ByteBuffer> threadBuf;
 
+    /** Maximum number of consecutive pages written by a checkpoint thread with a single I/O operation. */
+    private final int coalescedWritePages = IgniteSystemProperties.getInteger(
+        IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES, DFLT_CHECKPOINT_COALESCED_WRITE_PAGES);
+
+    /** Thread local with batches of consecutive pages, {@code null} if pages are written one by one. */
+    @Nullable private volatile ThreadLocal<CheckpointWriteBatch> threadBatch;
+
     /** Throttling policy according to the settings. */
     private final PageMemoryImpl.ThrottlingPolicy throttlingPolicy;
 
@@ -93,6 +108,7 @@ public class CheckpointPagesWriterFactory {
         this.throttlingPolicy = throttlingPolicy;
         this.pageMemoryGroupResolver = pageMemoryGroupResolver;
         this.checkpointPageWriter = checkpointPageWriter;
+        this.threadBatch = createThreadBatch();
     }
 
     /**
@@ -124,6 +140,7 @@ public class CheckpointPagesWriterFactory {
             log,
             persStoreMetrics,
             threadBuf,
+            threadBatch,
             throttlingPolicy,
             pageMemoryGroupResolver,
             curCpProgress,
@@ -167,7 +184,8 @@ public class CheckpointPagesWriterFactory {
                             assert tag != PageMemoryImpl.TRY_AGAIN_TAG : "Lock is held by other thread for page " + fullPageId;
 
                             // Write buf to page store.
-                            PageStore store = checkpointPageWriter.write(pageMemEx, fullPageId, buf, tag);
+                            PageStore store = checkpointPageWriter.write(pageMemEx, fullPageId, buf, tag,
+                                PageDirtyChunks.ALL, null);
 
                             // Save store for future fsync.
                             updStores.add(store);
@@ -200,5 +218,18 @@ public class CheckpointPagesWriterFactory {
      */
     public void threadBuf(ThreadLocal<ByteBuffer> threadBuf) {
         this.threadBuf = threadBuf;
+
+        // Page size of batches must match the new buffers.
+        threadBatch = createThreadBatch();
+    }
+
+    /**
+     * @return Thread local with batches of consecutive pages, {@code null} if pages are written one by one.
+     */
+    @Nullable private ThreadLocal<CheckpointWriteBatch> createThreadBatch() {
+        if (coalescedWritePages <= 1)
+            return null;
+
+        return ThreadLocal.withInitial(() -> new CheckpointWriteBatch(coalescedWritePages, threadBuf.get().capacity()));
     }
 }
@@ -20,11 +20,8 @@ package org.apache.ignite.internal.processors.cache.persistence.checkpoint;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
@@ -58,6 +55,7 @@ import org.apache.ignite.internal.processors.cache.distributed.dht.topology.Grid
 import org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtPartitionState;
 import org.apache.ignite.internal.processors.cache.persistence.DataRegion;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.CheckpointMetricsTracker;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.FullPageIdSet;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
 import org.apache.ignite.internal.processors.cache.persistence.partstate.PartitionAllocationMap;
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteCacheSnapshotManager;
@@ -66,6 +64,7 @@ import org.apache.ignite.internal.util.GridConcurrentHashSet;
 import org.apache.ignite.internal.util.GridConcurrentMultiPairQueue;
 import org.apache.ignite.internal.util.GridMultiCollectionWrapper;
 import org.apache.ignite.internal.util.StripedExecutor;
+import org.apache.ignite.internal.util.collection.IntHashMap;
 import org.apache.ignite.internal.util.future.GridCompoundFuture;
 import org.apache.ignite.internal.util.future.GridFinishedFuture;
 import org.apache.ignite.internal.util.future.GridFutureAdapter;
@@ -112,8 +111,8 @@ public class CheckpointWorkflow {
     private static final DataRegion NO_REGION = new DataRegion(null, null, null, null);
 
     /**
-     * Starting from this number of dirty pages in checkpoint, array will be sorted with {@link
-     * Arrays#parallelSort(Comparable[])} in case of {@link CheckpointWriteOrder#SEQUENTIAL}.
+     * Starting from this number of dirty pages of a cache group in checkpoint, page IDs will be sorted with {@link
+     * Arrays#parallelSort(long[], int, int)} in case of {@link CheckpointWriteOrder#SEQUENTIAL}.
      */
     private final int parallelSortThreshold = IgniteSystemProperties.getInteger(
         IgniteSystemProperties.CHECKPOINT_PARALLEL_SORT_THRESHOLD, DFLT_CHECKPOINT_PARALLEL_SORT_THRESHOLD);
@@ -470,63 +469,163 @@ public class CheckpointWorkflow {
     private GridConcurrentMultiPairQueue<PageMemoryEx, FullPageId> splitAndSortCpPagesIfNeeded(
         CheckpointPagesInfoHolder cpPages
     ) throws IgniteCheckedException {
-        Set<T2<PageMemoryEx, FullPageId[]>> cpPagesPerRegion = new HashSet<>();
+        List<PageMemoryEx> regions = new ArrayList<>();
+        List<int[]> grpIdsPerRegion = new ArrayList<>();
+        List<long[]> pageIdsPerRegion = new ArrayList<>();
 
         int realPagesArrSize = 0;
 
         int totalPagesCnt = cpPages.pagesNum();
 
+        ForkJoinPool pool = null;
+
         for (Map.Entry<PageMemoryEx, GridMultiCollectionWrapper<FullPageId>> regPages : cpPages.cpPages()) {
-            FullPageId[] pages = new FullPageId[regPages.getValue().size()];
+            GridMultiCollectionWrapper<FullPageId> pages = regPages.getValue();
+
+            int[] grpIds = new int[pages.size()];
+            long[] pageIds = new long[pages.size()];
 
             int pagePos = 0;
 
-            for (int i = 0; i < regPages.getValue().collectionsSize(); i++) {
-                for (FullPageId page : regPages.getValue().innerCollection(i)) {
-                    if (realPagesArrSize++ == totalPagesCnt)
-                        throw new AssertionError("Incorrect estimated dirty pages number: " + totalPagesCnt);
+            for (int i = 0; i < pages.collectionsSize(); i++) {
+                Collection<FullPageId> segPages = pages.innerCollection(i);
+
+                if (segPages instanceof FullPageIdSet)
+                    pagePos = ((FullPageIdSet)segPages).copyTo(grpIds, pageIds, pagePos);
+                else {
+                    for (FullPageId page : segPages) {
+                        if (pagePos == pageIds.length)
+                            break;
 
-                    pages[pagePos++] = page;
+                        grpIds[pagePos] = page.groupId();
+                        pageIds[pagePos++] = page.pageId();
+                    }
                 }
             }
 
+            realPagesArrSize += pagePos;
+
+            if (realPagesArrSize > totalPagesCnt)
+                throw new AssertionError("Incorrect estimated dirty pages number: " + totalPagesCnt);
+
             // Some pages may have been already replaced.
-            if (pagePos != pages.length)
-                cpPagesPerRegion.add(new T2<>(regPages.getKey(), Arrays.copyOf(pages, pagePos)));
-            else
-                cpPagesPerRegion.add(new T2<>(regPages.getKey(), pages));
+            if (pagePos == 0)
+                continue;
+
+            if (pagePos != pageIds.length) {
+                grpIds = Arrays.copyOf(grpIds, pagePos);
+                pageIds = Arrays.copyOf(pageIds, pagePos);
+            }
+
+            if (checkpointWriteOrder == CheckpointWriteOrder.SEQUENTIAL)
+                pool = sortPages(grpIds, pageIds, pool);
+
+            regions.add(regPages.getKey());
+            grpIdsPerRegion.add(grpIds);
+            pageIdsPerRegion.add(pageIds);
         }
 
-        if (checkpointWriteOrder == CheckpointWriteOrder.SEQUENTIAL) {
-            Comparator<FullPageId> cmp = Comparator.comparingInt(FullPageId::groupId)
-                .thenComparingLong(FullPageId::effectivePageId);
+        if (pool != null)
+            pool.shutdown();
 
-            ForkJoinPool pool = null;
+        if (regions.isEmpty())
+            return GridConcurrentMultiPairQueue.EMPTY;
 
-            for (T2<PageMemoryEx, FullPageId[]> pagesPerReg : cpPagesPerRegion) {
-                if (pagesPerReg.getValue().length >= parallelSortThreshold)
-                    pool = parallelSortInIsolatedPool(pagesPerReg.get2(), cmp, pool);
-                else
-                    Arrays.sort(pagesPerReg.get2(), cmp);
-            }
+        return new CheckpointPagesQueue(
+            regions.toArray(new PageMemoryEx[0]),
+            grpIdsPerRegion.toArray(new int[0][]),
+            pageIdsPerRegion.toArray(new long[0][])
+        );
+    }
+
+    /**
+     * Sorts pages by cache group ID and effective page ID. Pages are grouped by cache group ID with a counting sort,
+     * then page IDs of every group are sorted as primitives.
+     *
+     * @param grpIds Cache group IDs.
+     * @param pageIds Page IDs.
+     * @param pool Pool for parallel sort or {@code null} if it is not created yet.
+     * @return Pool for parallel sort or {@code null} if it is not created yet.
+     * @throws IgniteCheckedException If failed.
+     */
+    private ForkJoinPool sortPages(int[] grpIds, long[] pageIds, ForkJoinPool pool) throws IgniteCheckedException {
+        IntHashMap<int[]> grpPos = new IntHashMap<>();
+
+        for (int grpId : grpIds) {
+            int[] cnt = grpPos.get(grpId);
+
+            if (cnt == null)
+                grpPos.put(grpId, cnt = new int[1]);
+
+            cnt[0]++;
+        }
+
+        int[] sortedGrpIds = grpPos.keys();
+
+        Arrays.sort(sortedGrpIds);
+
+        int[] grpStart = new int[sortedGrpIds.length + 1];
+
+        for (int i = 0; i < sortedGrpIds.length; i++) {
+            int[] pos = grpPos.get(sortedGrpIds[i]);
+
+            grpStart[i + 1] = grpStart[i] + pos[0];
+
+            pos[0] = grpStart[i];
+        }
+
+        long[] keys = new long[pageIds.length];
+
+        for (int i = 0; i < pageIds.length; i++)
+            keys[grpPos.get(grpIds[i])[0]++] = sortKey(pageIds[i]);
+
+        for (int i = 0; i < sortedGrpIds.length; i++) {
+            int from = grpStart[i];
+            int to = grpStart[i + 1];
 
-            if (pool != null)
-                pool.shutdown();
+            if (to - from >= parallelSortThreshold)
+                pool = parallelSortInIsolatedPool(keys, from, to, pool);
+            else
+                Arrays.sort(keys, from, to);
+
+            Arrays.fill(grpIds, from, to, sortedGrpIds[i]);
+
+            for (int j = from; j < to; j++)
+                pageIds[j] = pageId(keys[j]);
         }
 
-        return new GridConcurrentMultiPairQueue<>(cpPagesPerRegion);
+        return pool;
+    }
+
+    /**
+     * @param pageId Page ID.
+     * @return Key which order of signed longs is the unsigned order of effective page IDs.
+     */
+    private static long sortKey(long pageId) {
+        return Long.rotateLeft(pageId, 16) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * @param sortKey Key returned by {@link #sortKey(long)}.
+     * @return Page ID.
+     */
+    private static long pageId(long sortKey) {
+        return Long.rotateRight(sortKey ^ Long.MIN_VALUE, 16);
     }
 
     /**
      * Performs parallel sort in isolated fork join pool.
      *
-     * @param pagesArr Pages array.
-     * @param cmp Cmp.
+     * @param arr Array.
+     * @param from Index of the first element to sort, inclusive.
+     * @param to Index of the last element to sort, exclusive.
+     * @param pool Pool or {@code null} if it is not created yet.
      * @return ForkJoinPool instance, check {@link ForkJoinTask#fork()} realization.
      */
     private static ForkJoinPool parallelSortInIsolatedPool(
-        FullPageId[] pagesArr,
-        Comparator<FullPageId> cmp,
+        long[] arr,
+        int from,
+        int to,
         ForkJoinPool pool
     ) throws IgniteCheckedException {
         ForkJoinPool.ForkJoinWorkerThreadFactory factory = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
@@ -542,7 +641,7 @@ public class CheckpointWorkflow {
         ForkJoinPool execPool = pool == null ?
             new ForkJoinPool(PARALLEL_SORT_THREADS + 1, factory, null, false) : pool;
 
-        Future<?> sortTask = execPool.submit(() -> Arrays.parallelSort(pagesArr, cmp));
+        Future<?> sortTask = execPool.submit(() -> Arrays.parallelSort(arr, from, to));
 
         try {
             sortTask.get();
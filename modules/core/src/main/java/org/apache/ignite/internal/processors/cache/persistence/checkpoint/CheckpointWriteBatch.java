@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.checkpoint;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
+import org.apache.ignite.internal.pagemem.store.PageStore;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.CheckpointMetricsTracker;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Copies of consecutive pages of a partition which are written by a checkpoint thread to the page store with
+ * a single I/O operation. Pages of the batch stay acquired until the batch is written, so they can not be replaced
+ * and loaded from the page store before their copies are written. The batch is not thread safe.
+ */
+class CheckpointWriteBatch {
+    /** Page buffers, the buffer after the last page of the batch is used to copy the next page. */
+    private final ByteBuffer[] bufs;
+
+    /** Page IDs. */
+    private final long[] pageIds;
+
+    /** Pointers of acquired pages. */
+    private final long[] pagePtrs;
+
+    /** Page memory of pages. */
+    private PageMemoryEx pageMem;
+
+    /** Cache group ID of pages. */
+    private int grpId;
+
+    /** Partition generation of pages. */
+    private int tag;
+
+    /** Number of pages in the batch. */
+    private int cnt;
+
+    /**
+     * @param maxPages Maximum number of pages in the batch.
+     * @param pageSize Page size.
+     */
+    CheckpointWriteBatch(int maxPages, int pageSize) {
+        assert maxPages > 1 : maxPages;
+
+        bufs = new ByteBuffer[maxPages];
+        pageIds = new long[maxPages];
+        pagePtrs = new long[maxPages];
+
+        for (int i = 0; i < maxPages; i++)
+            bufs[i] = ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return Maximum number of pages in the batch.
+     */
+    int capacity() {
+        return bufs.length;
+    }
+
+    /**
+     * @return Number of pages in the batch.
+     */
+    int size() {
+        return cnt;
+    }
+
+    /**
+     * @return Buffer to copy the next page to.
+     */
+    ByteBuffer nextBuffer() {
+        ByteBuffer buf = bufs[cnt];
+
+        buf.clear();
+
+        return buf;
+    }
+
+    /**
+     * @param pageMem Page memory.
+     * @param fullId Full page ID.
+     * @param tag Partition generation.
+     * @return {@code True} if the page follows the last page of the batch in the page store.
+     */
+    boolean canAdd(PageMemoryEx pageMem, FullPageId fullId, int tag) {
+        if (cnt == 0)
+            return true;
+
+        long lastPageId = pageIds[cnt - 1];
+
+        return this.pageMem == pageMem && grpId == fullId.groupId() && this.tag == tag &&
+            PageIdUtils.partId(lastPageId) == PageIdUtils.partId(fullId.pageId()) &&
+            PageIdUtils.pageIndex(lastPageId) + 1 == PageIdUtils.pageIndex(fullId.pageId());
+    }
+
+    /**
+     * Adds the page copied to {@link #nextBuffer()} to the batch.
+     *
+     * @param pageMem Page memory.
+     * @param fullId Full page ID.
+     * @param tag Partition generation.
+     * @param pagePtr Pointer of the acquired page.
+     * @return {@code True} if the batch is full.
+     */
+    boolean add(PageMemoryEx pageMem, FullPageId fullId, int tag, long pagePtr) {
+        assert canAdd(pageMem, fullId, tag) : fullId;
+
+        if (cnt == 0) {
+            this.pageMem = pageMem;
+            grpId = fullId.groupId();
+            this.tag = tag;
+        }
+
+        pageIds[cnt] = fullId.pageId();
+        pagePtrs[cnt] = pagePtr;
+
+        return ++cnt == bufs.length;
+    }
+
+    /**
+     * Writes pages of the batch and releases them.
+     *
+     * @param writer Checkpoint page writer.
+     * @param tracker Checkpoint metrics tracker, {@code null} if metrics are disabled.
+     * @return Page store the pages were written to.
+     * @throws IgniteCheckedException If failed.
+     */
+    PageStore write(
+        CheckpointPagesWriter.CheckpointPageWriter writer,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        assert cnt > 0;
+
+        try {
+            for (int i = 0; i < cnt; i++)
+                bufs[i].rewind();
+
+            if (cnt == 1)
+                return writer.write(pageMem, new FullPageId(pageIds[0], grpId), bufs[0], tag, PageDirtyChunks.ALL,
+                    tracker);
+
+            return writer.write(pageMem, grpId, pageIds, bufs, cnt, tag, tracker);
+        }
+        finally {
+            release();
+        }
+    }
+
+    /**
+     * Releases pages of the batch and removes them from the batch without writing.
+     */
+    void release() {
+        for (int i = 0; i < cnt; i++)
+            pageMem.releasePage(grpId, pageIds[i], pagePtrs[i]);
+
+        // Keep the copy of the next page which may be added to the batch.
+        if (cnt > 0 && cnt < bufs.length) {
+            ByteBuffer next = bufs[cnt];
+
+            bufs[cnt] = bufs[0];
+            bufs[0] = next;
+        }
+
+        cnt = 0;
+        pageMem = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(CheckpointWriteBatch.class, this);
+    }
+}
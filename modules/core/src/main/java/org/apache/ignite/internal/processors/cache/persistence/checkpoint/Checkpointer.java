@@ -587,7 +587,9 @@ public class Checkpointer extends GridWorker {
                 tracker.checkpointStartTime(),
                 chp.pagesSize,
                 tracker.dataPagesWritten(),
-                tracker.cowPagesWritten()
+                tracker.cowPagesWritten(),
+                tracker.bytesWritten(),
+                tracker.bytesChanged()
             );
         }
     }
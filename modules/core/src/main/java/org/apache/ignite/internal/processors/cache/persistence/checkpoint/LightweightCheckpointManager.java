@@ -30,10 +30,13 @@ import org.apache.ignite.IgniteSystemProperties;
 import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.LongJVMPauseDetector;
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.store.PageStore;
 import org.apache.ignite.internal.processors.cache.CacheGroupContext;
 import org.apache.ignite.internal.processors.cache.GridCacheProcessor;
 import org.apache.ignite.internal.processors.cache.persistence.DataRegion;
 import org.apache.ignite.internal.processors.cache.persistence.DataStorageMetricsImpl;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.CheckpointMetricsTracker;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl;
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteCacheSnapshotManager;
@@ -136,8 +139,33 @@ public class LightweightCheckpointManager {
         checkpointPagesWriterFactory = new CheckpointPagesWriterFactory(
             logger,
             snapshotMgr,
-            (pageMemEx, fullPage, buf, tag) ->
-                pageMemEx.pageManager().write(fullPage.groupId(), fullPage.pageId(), buf, tag, true),
+            new CheckpointPagesWriter.CheckpointPageWriter() {
+                /** {@inheritDoc} */
+                @Override public PageStore write(
+                    PageMemoryEx pageMemEx,
+                    FullPageId fullPage,
+                    ByteBuffer buf,
+                    int tag,
+                    long dirtyChunks,
+                    @Nullable CheckpointMetricsTracker tracker
+                ) throws IgniteCheckedException {
+                    return pageMemEx.pageManager()
+                        .write(fullPage.groupId(), fullPage.pageId(), buf, tag, true, dirtyChunks, tracker);
+                }
+
+                /** {@inheritDoc} */
+                @Override public PageStore write(
+                    PageMemoryEx pageMemEx,
+                    int grpId,
+                    long[] pageIds,
+                    ByteBuffer[] bufs,
+                    int cnt,
+                    int tag,
+                    @Nullable CheckpointMetricsTracker tracker
+                ) throws IgniteCheckedException {
+                    return pageMemEx.pageManager().write(grpId, pageIds, bufs, cnt, tag, true, tracker);
+                }
+            },
             persStoreMetrics,
             throttlingPolicy,
             threadBuf,
@@ -19,6 +19,7 @@ package org.apache.ignite.internal.processors.cache.persistence.defragmentation;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -115,6 +116,9 @@ public class CachePartitionDefragmentationManager {
     /** */
     public static final String DEFRAGMENTATION_MNTC_TASK_NAME = "defragmentationMaintenanceTask";
 
+    /** Maximum number of sorted rows put to a new partition tree at once. */
+    private static final int PUT_BATCH_SIZE = 1024;
+
     /** */
     private final Set<String> cachesForDefragmentation;
 
@@ -676,6 +680,20 @@ public class CachePartitionDefragmentationManager {
         return status;
     }
 
+    /**
+     * @param tree Tree.
+     * @param batch Rows sorted in the tree order, the list is cleared.
+     * @throws IgniteCheckedException If failed.
+     */
+    private static void putAll(CacheDataTree tree, List<CacheDataRow> batch) throws IgniteCheckedException {
+        if (batch.isEmpty())
+            return;
+
+        tree.putAll(batch.iterator(), null);
+
+        batch.clear();
+    }
+
     /**
      * Defragmentate partition.
      *
@@ -704,10 +722,15 @@ public class CachePartitionDefragmentationManager {
             AtomicLong lastCpLockTs = new AtomicLong(System.currentTimeMillis());
             AtomicInteger entriesProcessed = new AtomicInteger();
 
+            // Rows are read from the old tree in the tree order, so they are put to the new tree in sorted batches.
+            List<CacheDataRow> batch = new ArrayList<>(PUT_BATCH_SIZE);
+
             treeIter.iterate(tree, partCtx.cachePageMemory, (tree0, io, pageAddr, idx) -> {
                 checkCancellation();
 
                 if (System.currentTimeMillis() - lastCpLockTs.get() >= cpLockThreshold) {
+                    putAll(newTree, batch);
+
                     defragmentationCheckpoint.checkpointTimeoutLock().checkpointReadUnlock();
 
                     defragmentationCheckpoint.checkpointTimeoutLock().checkpointReadLock();
@@ -733,7 +756,10 @@ public class CachePartitionDefragmentationManager {
                 if (row instanceof DataRow)
                     ((DataRow)row).cacheId(cacheId);
 
-                newTree.putx(row);
+                batch.add(row);
+
+                if (batch.size() == PUT_BATCH_SIZE)
+                    putAll(newTree, batch);
 
                 long newLink = row.link();
 
@@ -747,6 +773,8 @@ public class CachePartitionDefragmentationManager {
                 return true;
             });
 
+            putAll(newTree, batch);
+
             checkCancellation();
 
             defragmentationCheckpoint.checkpointTimeoutLock().checkpointReadUnlock();
@@ -0,0 +1,645 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.defragmentation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.failure.FailureContext;
+import org.apache.ignite.internal.IgniteInterruptedCheckedException;
+import org.apache.ignite.internal.NodeStoppingException;
+import org.apache.ignite.internal.pagemem.PageIdAllocator;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
+import org.apache.ignite.internal.pagemem.PageMemory;
+import org.apache.ignite.internal.processors.affinity.AffinityTopologyVersion;
+import org.apache.ignite.internal.processors.cache.CacheGroupContext;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
+import org.apache.ignite.internal.processors.cache.GridCacheEntryEx;
+import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.IgniteCacheOffheapManager.CacheDataStore;
+import org.apache.ignite.internal.processors.cache.IgniteCacheOffheapManager.OffheapInvokeClosure;
+import org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtInvalidPartitionException;
+import org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtLocalPartition;
+import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
+import org.apache.ignite.internal.processors.cache.persistence.CacheDataRowAdapter;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheOffheapManager.GridCacheDataStore;
+import org.apache.ignite.internal.processors.cache.persistence.freelist.AbstractFreeList;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.DataPageIO;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.util.BasicRateLimiter;
+import org.apache.ignite.internal.util.IgniteTree;
+import org.apache.ignite.internal.util.lang.GridCursor;
+import org.apache.ignite.internal.util.typedef.X;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.internal.util.worker.GridWorker;
+import org.apache.ignite.thread.IgniteThread;
+import org.jetbrains.annotations.Nullable;
+
+import static org.apache.ignite.failure.FailureType.CRITICAL_ERROR;
+import static org.apache.ignite.failure.FailureType.SYSTEM_WORKER_TERMINATION;
+import static org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtPartitionState.OWNING;
+import static org.apache.ignite.internal.processors.cache.persistence.freelist.AbstractFreeList.SIZE_CLASSES;
+import static org.apache.ignite.internal.util.IgniteUtils.MB;
+
+/**
+ * Online compaction of data pages of persistent cache groups. Unlike {@link CachePartitionDefragmentationManager}
+ * it does not require maintenance mode: rows are moved out of sparse data pages partition by partition while the
+ * node serves traffic, so emptied pages return to the reuse list.
+ * <p>
+ * A partition is compacted when its free list holds enough pages filled less than the configured fill factor. The
+ * partition is scanned twice: first its pages are read to find the sparse data pages, then rows of the data tree
+ * which are stored on these pages are re-inserted through the free list. The free list puts a row on the densest page
+ * which fits it. Every row is moved under the lock of the cache entry and the checkpoint read lock, so the data tree,
+ * pending entries and indexes are updated with the new link atomically with respect to concurrent updates of the key.
+ * Both scans are throttled by the rate limit.
+ */
+public class OnlineDataPagesCompactor {
+    /** @see #IGNITE_DATA_PAGES_COMPACTION_FILL_FACTOR */
+    public static final double DFLT_DATA_PAGES_COMPACTION_FILL_FACTOR = 0.5;
+
+    /** @see #IGNITE_DATA_PAGES_COMPACTION_RATE_LIMIT */
+    public static final double DFLT_DATA_PAGES_COMPACTION_RATE_LIMIT = 4;
+
+    /** @see #IGNITE_DATA_PAGES_COMPACTION_INTERVAL */
+    public static final long DFLT_DATA_PAGES_COMPACTION_INTERVAL = 60_000;
+
+    /** */
+    @SystemProperty("Enables online compaction of sparse data pages of persistent cache groups")
+    public static final String IGNITE_DATA_PAGES_COMPACTION_ENABLED = "IGNITE_DATA_PAGES_COMPACTION_ENABLED";
+
+    /** */
+    @SystemProperty(value = "Data pages which are filled less than the given ratio are compacted online",
+        type = Double.class, defaults = "" + DFLT_DATA_PAGES_COMPACTION_FILL_FACTOR)
+    public static final String IGNITE_DATA_PAGES_COMPACTION_FILL_FACTOR = "IGNITE_DATA_PAGES_COMPACTION_FILL_FACTOR";
+
+    /** */
+    @SystemProperty(value = "Rate limit of online compaction of data pages in megabytes of scanned pages and moved " +
+        "rows per second, 0 means unlimited", type = Double.class,
+        defaults = "" + DFLT_DATA_PAGES_COMPACTION_RATE_LIMIT)
+    public static final String IGNITE_DATA_PAGES_COMPACTION_RATE_LIMIT = "IGNITE_DATA_PAGES_COMPACTION_RATE_LIMIT";
+
+    /** */
+    @SystemProperty(value = "Interval between checks of partitions for online compaction of data pages, " +
+        "in milliseconds", type = Long.class, defaults = "" + DFLT_DATA_PAGES_COMPACTION_INTERVAL)
+    public static final String IGNITE_DATA_PAGES_COMPACTION_INTERVAL = "IGNITE_DATA_PAGES_COMPACTION_INTERVAL";
+
+    /** Minimal number of sparse pages in a partition to compact it. */
+    private static final int MIN_SPARSE_PAGES = 16;
+
+    /** Number of pages scanned or rows moved under the checkpoint read lock. */
+    private static final int BATCH_SIZE = 100;
+
+    /** Cache shared context. */
+    private final GridCacheSharedContext<?, ?> cctx;
+
+    /** Logger. */
+    private final IgniteLogger log;
+
+    /** Data pages filled less than this ratio are compacted. */
+    private final double fillFactor;
+
+    /** Interval between checks of partitions. */
+    private final long interval;
+
+    /** Rate limiter, permits are bytes of scanned pages and moved rows. */
+    private final BasicRateLimiter limiter;
+
+    /** Free space of sparse pages of partitions after their last compaction. */
+    private final Map<Long, Long> compactedFreeSpace = new HashMap<>();
+
+    /** */
+    private volatile CompactionWorker worker;
+
+    /**
+     * @param cctx Cache shared context.
+     */
+    public OnlineDataPagesCompactor(GridCacheSharedContext<?, ?> cctx) {
+        this.cctx = cctx;
+
+        log = cctx.logger(getClass());
+
+        fillFactor = IgniteSystemProperties.getDouble(IGNITE_DATA_PAGES_COMPACTION_FILL_FACTOR,
+            DFLT_DATA_PAGES_COMPACTION_FILL_FACTOR);
+
+        interval = IgniteSystemProperties.getLong(IGNITE_DATA_PAGES_COMPACTION_INTERVAL,
+            DFLT_DATA_PAGES_COMPACTION_INTERVAL);
+
+        limiter = new BasicRateLimiter(IgniteSystemProperties.getDouble(IGNITE_DATA_PAGES_COMPACTION_RATE_LIMIT,
+            DFLT_DATA_PAGES_COMPACTION_RATE_LIMIT) * MB);
+    }
+
+    /**
+     * @return {@code True} if online compaction of data pages is enabled.
+     */
+    public static boolean enabled() {
+        return IgniteSystemProperties.getBoolean(IGNITE_DATA_PAGES_COMPACTION_ENABLED, false);
+    }
+
+    /**
+     * Starts the compaction worker.
+     */
+    public void start() {
+        CompactionWorker worker0 = new CompactionWorker();
+
+        worker = worker0;
+
+        new IgniteThread(worker0).start();
+    }
+
+    /**
+     * Stops the compaction worker and waits for it.
+     */
+    public void stop() {
+        CompactionWorker worker0 = worker;
+
+        if (worker0 != null) {
+            U.cancel(worker0);
+            U.join(worker0, log);
+
+            worker = null;
+        }
+    }
+
+    /**
+     * @param rate Rate limit in megabytes per second, {@code 0} - unlimited.
+     */
+    public void rate(double rate) {
+        limiter.setRate(rate * MB);
+    }
+
+    /**
+     * Checks partitions of all persistent cache groups and compacts sparse ones.
+     *
+     * @throws IgniteCheckedException If failed.
+     */
+    private void compactPartitions() throws IgniteCheckedException {
+        for (CacheGroupContext grp : cctx.cache().cacheGroups()) {
+            if (!grp.persistenceEnabled() || !grp.affinityNode() || grp.isLocal() || grp.mvccEnabled())
+                continue;
+
+            for (GridDhtLocalPartition part : grp.topology().currentLocalPartitions()) {
+                if (worker.isCancelled())
+                    return;
+
+                worker.updateHeartbeat();
+
+                if (part.state() != OWNING || !part.reserve())
+                    continue;
+
+                try {
+                    if (part.state() == OWNING)
+                        compactPartition(grp, part);
+                }
+                catch (GridDhtInvalidPartitionException ignore) {
+                    // Partition is evicted concurrently.
+                }
+                finally {
+                    part.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param grp Cache group.
+     * @param part Reserved partition.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void compactPartition(CacheGroupContext grp, GridDhtLocalPartition part) throws IgniteCheckedException {
+        CacheDataStore store = part.dataStore();
+
+        AbstractFreeList<CacheDataRow> freeList = ((GridCacheDataStore)store).getCacheStoreFreeList();
+
+        if (freeList == null)
+            return;
+
+        int minSizeCls = Math.min((int)Math.ceil(SIZE_CLASSES * (1 - fillFactor)), SIZE_CLASSES - 1);
+
+        long sparsePages = 0;
+        long freeSpace = 0;
+
+        for (int cls = minSizeCls; cls < SIZE_CLASSES; cls++) {
+            sparsePages += freeList.dataPages(cls);
+            freeSpace += freeList.freeSpace(cls);
+        }
+
+        long key = ((long)grp.groupId() << 32) | part.id();
+
+        Long prevFreeSpace = compactedFreeSpace.get(key);
+
+        // Nothing was freed since the last compaction, rows of the sparse pages can't be packed any denser.
+        if (sparsePages < MIN_SPARSE_PAGES || (prevFreeSpace != null && freeSpace <= prevFreeSpace))
+            return;
+
+        PageMemory pageMem = grp.dataRegion().pageMemory();
+
+        int minFreeSpace = (int)(pageMem.pageSize() * (1 - fillFactor));
+
+        BitSet sparse = findSparsePages(grp, part.id(), minFreeSpace);
+
+        long[] moved = moveRows(grp, store, sparse);
+
+        int reclaimedPages = sparse.cardinality() - findSparsePages(grp, part.id(), sparse).cardinality();
+
+        long freeSpaceAfter = 0;
+
+        for (int cls = minSizeCls; cls < SIZE_CLASSES; cls++)
+            freeSpaceAfter += freeList.freeSpace(cls);
+
+        compactedFreeSpace.put(key, freeSpaceAfter);
+
+        reclaimedPages = Math.max(reclaimedPages, 0);
+
+        grp.dataRegion().memoryMetrics().onDataPagesCompacted(moved[0], moved[1], reclaimedPages,
+            (long)reclaimedPages * pageMem.pageSize());
+
+        if (log.isInfoEnabled()) {
+            log.info("Partition data pages compacted [grp=" + grp.cacheOrGroupName() + ", p=" + part.id() +
+                ", sparsePages=" + sparse.cardinality() + ", movedRows=" + moved[0] + ", movedBytes=" + moved[1] +
+                ", reclaimedPages=" + reclaimedPages + ']');
+        }
+    }
+
+    /**
+     * @param grp Cache group.
+     * @param partId Partition ID.
+     * @param minFreeSpace Minimal free space of a sparse data page.
+     * @return Indexes of sparse data pages of the partition.
+     * @throws IgniteCheckedException If failed.
+     */
+    private BitSet findSparsePages(CacheGroupContext grp, int partId, int minFreeSpace) throws IgniteCheckedException {
+        int pages = cctx.pageStore().pages(grp.groupId(), partId);
+
+        BitSet sparse = new BitSet(pages);
+
+        for (int off = 0; off < pages && !worker.isCancelled(); off += BATCH_SIZE) {
+            int cnt = Math.min(BATCH_SIZE, pages - off);
+
+            acquire(cnt * grp.dataRegion().pageMemory().pageSize());
+
+            cctx.database().checkpointReadLock();
+
+            try {
+                for (int pageIdx = off; pageIdx < off + cnt; pageIdx++) {
+                    if (dataPageFreeSpace(grp, partId, pageIdx) >= minFreeSpace)
+                        sparse.set(pageIdx);
+                }
+            }
+            finally {
+                cctx.database().checkpointReadUnlock();
+            }
+        }
+
+        return sparse;
+    }
+
+    /**
+     * @param grp Cache group.
+     * @param partId Partition ID.
+     * @param pages Indexes of data pages to check.
+     * @return Indexes of the given pages which still hold rows.
+     * @throws IgniteCheckedException If failed.
+     */
+    private BitSet findSparsePages(CacheGroupContext grp, int partId, BitSet pages) throws IgniteCheckedException {
+        BitSet res = new BitSet();
+
+        cctx.database().checkpointReadLock();
+
+        try {
+            for (int pageIdx = pages.nextSetBit(0); pageIdx >= 0; pageIdx = pages.nextSetBit(pageIdx + 1)) {
+                if (dataPageFreeSpace(grp, partId, pageIdx) >= 0)
+                    res.set(pageIdx);
+            }
+        }
+        finally {
+            cctx.database().checkpointReadUnlock();
+        }
+
+        return res;
+    }
+
+    /**
+     * @param grp Cache group.
+     * @param partId Partition ID.
+     * @param pageIdx Page index.
+     * @return Free space of the page or {@code -1} if it is not a data page holding rows.
+     * @throws IgniteCheckedException If failed.
+     */
+    private int dataPageFreeSpace(CacheGroupContext grp, int partId, int pageIdx) throws IgniteCheckedException {
+        PageMemory pageMem = grp.dataRegion().pageMemory();
+
+        int grpId = grp.groupId();
+        long pageId = PageIdUtils.pageId(partId, PageIdAllocator.FLAG_DATA, pageIdx);
+        long page = pageMem.acquirePage(grpId, pageId);
+
+        try {
+            long pageAddr = pageMem.readLockForce(grpId, pageId, page);
+
+            if (pageAddr == 0L)
+                return -1;
+
+            try {
+                if (PageIO.getType(pageAddr) != PageIO.T_DATA)
+                    return -1;
+
+                DataPageIO io = DataPageIO.VERSIONS.forPage(pageAddr);
+
+                return io.isEmpty(pageAddr) ? -1 : io.getFreeSpace(pageAddr);
+            }
+            finally {
+                pageMem.readUnlock(grpId, pageId, page);
+            }
+        }
+        finally {
+            pageMem.releasePage(grpId, pageId, page);
+        }
+    }
+
+    /**
+     * @param grp Cache group.
+     * @param store Partition data store.
+     * @param sparse Indexes of sparse data pages.
+     * @return Number of moved rows and their size in bytes.
+     * @throws IgniteCheckedException If failed.
+     */
+    private long[] moveRows(CacheGroupContext grp, CacheDataStore store, BitSet sparse) throws IgniteCheckedException {
+        long[] moved = new long[2];
+
+        if (sparse.isEmpty())
+            return moved;
+
+        GridCursor<? extends CacheDataRow> cur = store.cursor(CacheDataRowAdapter.RowData.KEY_ONLY);
+
+        List<CacheDataRow> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (cur.next() && !worker.isCancelled()) {
+            CacheDataRow row = cur.get();
+
+            if (!sparse.get(PageIdUtils.pageIndex(PageIdUtils.pageId(row.link()))))
+                continue;
+
+            batch.add(row);
+
+            if (batch.size() == BATCH_SIZE) {
+                moveRows(grp, store, batch, moved);
+
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty() && !worker.isCancelled())
+            moveRows(grp, store, batch, moved);
+
+        return moved;
+    }
+
+    /**
+     * @param grp Cache group.
+     * @param store Partition data store.
+     * @param rows Rows to move.
+     * @param moved Number of moved rows and their size in bytes.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void moveRows(CacheGroupContext grp, CacheDataStore store, List<CacheDataRow> rows, long[] moved)
+        throws IgniteCheckedException {
+        long movedBytes = 0;
+
+        cctx.database().checkpointReadLock();
+
+        try {
+            for (CacheDataRow row : rows) {
+                GridCacheContext<?, ?> cctx0 = grp.sharedGroup() ? cctx.cacheContext(row.cacheId()) :
+                    grp.singleCacheContext();
+
+                if (cctx0 == null)
+                    continue;
+
+                int size = moveRow(cctx0, store, row);
+
+                if (size > 0) {
+                    moved[0]++;
+
+                    movedBytes += size;
+                }
+            }
+        }
+        finally {
+            cctx.database().checkpointReadUnlock();
+        }
+
+        moved[1] += movedBytes;
+
+        if (movedBytes > 0)
+            acquire((int)Math.min(movedBytes, Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param cctx0 Cache context.
+     * @param store Partition data store.
+     * @param row Row to move.
+     * @return Size of the moved row or {@code 0} if the row was changed concurrently.
+     * @throws IgniteCheckedException If failed.
+     */
+    private int moveRow(GridCacheContext<?, ?> cctx0, CacheDataStore store, CacheDataRow row)
+        throws IgniteCheckedException {
+        GridCacheEntryEx entry;
+
+        try {
+            entry = cctx0.dhtCache().entryEx(row.key());
+        }
+        catch (GridDhtInvalidPartitionException ignore) {
+            return 0;
+        }
+
+        entry.lockEntry();
+
+        try {
+            if (entry.obsolete())
+                return 0;
+
+            MoveRowClosure clo = new MoveRowClosure(cctx0, store, row);
+
+            store.invoke(cctx0, row.key(), clo);
+
+            return clo.newRow == null ? 0 : clo.newRow.size();
+        }
+        finally {
+            entry.unlockEntry();
+
+            entry.touch();
+        }
+    }
+
+    /**
+     * @param bytes Bytes to process.
+     * @throws IgniteInterruptedCheckedException If interrupted.
+     */
+    private void acquire(int bytes) throws IgniteInterruptedCheckedException {
+        worker.blockingSectionBegin();
+
+        try {
+            limiter.acquire(bytes);
+        }
+        finally {
+            worker.blockingSectionEnd();
+        }
+    }
+
+    /**
+     * Writes the row to a new location if the row is not changed since it was found.
+     */
+    private static class MoveRowClosure implements OffheapInvokeClosure {
+        /** */
+        private final GridCacheContext<?, ?> cctx;
+
+        /** */
+        private final CacheDataStore store;
+
+        /** Row found by the data tree scan. */
+        private final CacheDataRow row;
+
+        /** */
+        private CacheDataRow oldRow;
+
+        /** */
+        private CacheDataRow newRow;
+
+        /**
+         * @param cctx Cache context.
+         * @param store Partition data store.
+         * @param row Row found by the data tree scan.
+         */
+        MoveRowClosure(GridCacheContext<?, ?> cctx, CacheDataStore store, CacheDataRow row) {
+            this.cctx = cctx;
+            this.store = store;
+            this.row = row;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void call(@Nullable CacheDataRow oldRow) throws IgniteCheckedException {
+            if (oldRow == null || oldRow.link() != row.link())
+                return;
+
+            oldRow.key(row.key());
+
+            this.oldRow = oldRow;
+
+            // Old row is not passed to never update it in place.
+            newRow = store.createRow(cctx, row.key(), oldRow.value(), oldRow.version(), oldRow.expireTime(), null);
+        }
+
+        /** {@inheritDoc} */
+        @Override public CacheDataRow newRow() {
+            return newRow;
+        }
+
+        /** {@inheritDoc} */
+        @Override public IgniteTree.OperationType operationType() {
+            return newRow == null ? IgniteTree.OperationType.NOOP : IgniteTree.OperationType.PUT;
+        }
+
+        /** {@inheritDoc} */
+        @Override public CacheDataRow oldRow() {
+            return oldRow;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean oldRowExpiredFlag() {
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override public String toString() {
+            return S.toString(MoveRowClosure.class, this);
+        }
+    }
+
+    /**
+     * Periodically checks partitions and compacts sparse ones.
+     */
+    private class CompactionWorker extends GridWorker {
+        /** */
+        CompactionWorker() {
+            super(cctx.igniteInstanceName(), "data-pages-compaction-worker", OnlineDataPagesCompactor.this.log,
+                cctx.kernalContext().workersRegistry());
+        }
+
+        /** {@inheritDoc} */
+        @Override protected void body() throws InterruptedException, IgniteInterruptedCheckedException {
+            Throwable err = null;
+
+            try {
+                blockingSectionBegin();
+
+                try {
+                    cctx.exchange().affinityReadyFuture(AffinityTopologyVersion.ZERO).get();
+                }
+                finally {
+                    blockingSectionEnd();
+                }
+
+                while (!isCancelled()) {
+                    compactPartitions();
+
+                    blockingSectionBegin();
+
+                    try {
+                        U.sleep(interval);
+                    }
+                    finally {
+                        blockingSectionEnd();
+                    }
+
+                    onIdle();
+                }
+            }
+            catch (Throwable t) {
+                if (X.hasCause(t, NodeStoppingException.class)) {
+                    isCancelled = true; // Treat node stopping as valid worker cancellation.
+
+                    return;
+                }
+
+                if (!(t instanceof IgniteInterruptedCheckedException || t instanceof InterruptedException)) {
+                    if (isCancelled)
+                        return;
+
+                    err = t;
+                }
+
+                throw t;
+            }
+            finally {
+                if (err == null && !isCancelled)
+                    err = new IllegalStateException("Thread " + name() + " is terminated unexpectedly");
+
+                if (err instanceof OutOfMemoryError)
+                    cctx.kernalContext().failure().process(new FailureContext(CRITICAL_ERROR, err));
+                else if (err != null)
+                    cctx.kernalContext().failure().process(new FailureContext(SYSTEM_WORKER_TERMINATION, err));
+            }
+        }
+    }
+}
@@ -204,6 +204,29 @@ public interface FileIO extends AutoCloseable {
      */
     public int writeFully(byte[] buf, int off, int len) throws IOException;
 
+    /**
+     * Writes a sequence of bytes to this file from {@code len} buffers starting from {@code srcBufs[off]}
+     * as if the buffers were concatenated, starting from specified file {@code position}. Implementations
+     * may write all buffers with a single gathering I/O operation.
+     *
+     * @param srcBufs Source buffers.
+     * @param off Index of the first buffer to write.
+     * @param len Number of buffers to write.
+     * @param position Starting file position.
+     *
+     * @return Number of written bytes.
+     *
+     * @throws IOException If some I/O error occurs.
+     */
+    public default long writeFully(ByteBuffer[] srcBufs, int off, int len, long position) throws IOException {
+        long written = 0;
+
+        for (int i = off; i < off + len; i++)
+            written += writeFully(srcBufs[i], position + written);
+
+        return written;
+    }
+
     /**
      * Allocates memory mapped buffer for this file with given size.
      *
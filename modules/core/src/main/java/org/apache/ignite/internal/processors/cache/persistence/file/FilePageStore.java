@@ -25,11 +25,14 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.LongConsumer;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.IgniteException;
@@ -38,6 +41,7 @@ import org.apache.ignite.internal.pagemem.PageIdUtils;
 import org.apache.ignite.internal.pagemem.store.PageStore;
 import org.apache.ignite.internal.pagemem.store.PageWriteListener;
 import org.apache.ignite.internal.processors.cache.persistence.StorageException;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
 import org.apache.ignite.internal.processors.cache.persistence.wal.crc.FastCrc;
@@ -75,6 +79,12 @@ public class FilePageStore implements PageStore {
     /** Allocated field offset. */
     public static final int HEADER_SIZE = 8/*SIGNATURE*/ + 4/*VERSION*/ + 1/*type*/ + 4/*page size*/;
 
+    /** Size of the delta log which is merged to the store file in the background. */
+    public static final long DELTA_LOG_MERGE_THRESHOLD = 4L * 1024 * 1024;
+
+    /** Size of the delta log above which only pages already having logged changes are written to it. */
+    public static final long DELTA_LOG_MAX_SIZE = 4 * DELTA_LOG_MERGE_THRESHOLD;
+
     /** */
     private final IgniteOutClosure<Path> pathProvider;
 
@@ -123,6 +133,24 @@ public class FilePageStore implements PageStore {
     /** */
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
+    /**
+     * Guards consistency of page reads with merging of {@link #deltaLog}. Must be acquired before {@link #lock}
+     * if both are needed.
+     */
+    private final ReadWriteLock deltaLock = new ReentrantReadWriteLock();
+
+    /** Delta log of changed page chunks, {@code null} until the store is initialized. */
+    private volatile PageDeltaLog deltaLog;
+
+    /** Schedules merging of {@link #deltaLog}, {@code null} if pages are not written to the delta log. */
+    private volatile Consumer<FilePageStore> deltaMergeScheduler;
+
+    /** Merge of {@link #deltaLog} is scheduled. */
+    private final AtomicBoolean deltaMergeScheduled = new AtomicBoolean();
+
+    /** Size of the store file, pages beyond it are never written to {@link #deltaLog}. */
+    private final AtomicLong fileSize = new AtomicLong();
+
     /**
      * @param type Type of stored pages.
      * @param pathProvider Store path.
@@ -157,6 +185,16 @@ public class FilePageStore implements PageStore {
         lsnrs.remove(lsnr);
     }
 
+    /**
+     * Enables writing of changed page chunks to the delta log next to the store file instead of rewriting whole
+     * pages, see {@link PageDirtyChunks}.
+     *
+     * @param mergeScheduler Schedules merging of the delta log to the store file.
+     */
+    public void enableDeltaWrites(Consumer<FilePageStore> mergeScheduler) {
+        deltaMergeScheduler = mergeScheduler;
+    }
+
     /** {@inheritDoc} */
     @Override public int getPageSize() {
         return pageSize;
@@ -347,6 +385,9 @@ public class FilePageStore implements PageStore {
                 if (delete && exists())
                     Files.delete(pathProvider.apply().toAbsolutePath());
 
+                if (delete)
+                    Files.deleteIfExists(deltaLogFile());
+
                 return;
             }
 
@@ -356,6 +397,10 @@ public class FilePageStore implements PageStore {
 
             fileIO = null;
 
+            deltaLog.force();
+
+            deltaLog.close(delete);
+
             if (delete) {
                 Files.delete(pathProvider.apply());
 
@@ -407,6 +452,10 @@ public class FilePageStore implements PageStore {
             Files.delete(filePath);
 
             fileExists = false;
+
+            deltaLog.close(true);
+
+            fileSize.set(0);
         }
         catch (IOException e) {
             throw new StorageException("Failed to truncate partition file [file=" + filePath.toAbsolutePath() + "]", e);
@@ -420,6 +469,52 @@ public class FilePageStore implements PageStore {
         }
     }
 
+    /**
+     * Replaces the store file with the given one, e.g. with a partition file received from another node. Pages written
+     * with tags less than the given one are ignored as it happens after {@link #truncate(int)}. The store is
+     * initialized from the new file on the next access.
+     *
+     * @param src File to move in place of the store file.
+     * @param tag New partition tag.
+     * @throws StorageException If failed.
+     */
+    public void replace(File src, int tag) throws StorageException {
+        init();
+
+        Path filePath = pathProvider.apply();
+
+        deltaLock.writeLock().lock();
+        lock.writeLock().lock();
+
+        try {
+            this.tag = tag;
+
+            fileIO.close();
+
+            fileIO = null;
+
+            deltaLog.close(true);
+
+            Files.move(src.toPath(), filePath, StandardCopyOption.REPLACE_EXISTING);
+
+            fileExists = true;
+
+            fileSize.set(0);
+        }
+        catch (IOException e) {
+            throw new StorageException("Failed to replace partition file [file=" + filePath.toAbsolutePath() +
+                ", src=" + src.getAbsolutePath() + ']', e);
+        }
+        finally {
+            allocatedTracker.accept(-1L * allocated.getAndSet(0) / pageSize);
+
+            inited = false;
+
+            lock.writeLock().unlock();
+            deltaLock.writeLock().unlock();
+        }
+    }
+
     /** {@inheritDoc} */
     @Override public void beginRecover() {
         lock.writeLock().lock();
@@ -486,6 +581,12 @@ public class FilePageStore implements PageStore {
     @Override public boolean read(long pageId, ByteBuffer pageBuf, boolean keepCrc) throws IgniteCheckedException {
         init();
 
+        boolean deltaWrites = deltaMergeScheduler != null;
+
+        // Page and its logged changes must be read before the log is merged.
+        if (deltaWrites)
+            deltaLock.readLock().lock();
+
         try {
             long off = pageOffset(pageId);
 
@@ -506,6 +607,8 @@ public class FilePageStore implements PageStore {
                 return false;
             }
 
+            deltaLog.apply(PageIdUtils.pageIndex(pageId), pageBuf);
+
             int savedCrc32 = PageIO.getCrc(pageBuf);
 
             PageIO.setCrc(pageBuf, 0);
@@ -534,6 +637,10 @@ public class FilePageStore implements PageStore {
         catch (IOException e) {
             throw new StorageException("Failed to read page [file=" + getFileAbsolutePath() + ", pageId=" + pageId + "]", e);
         }
+        finally {
+            if (deltaWrites)
+                deltaLock.readLock().unlock();
+        }
     }
 
     /** {@inheritDoc} */
@@ -590,6 +697,17 @@ public class FilePageStore implements PageStore {
                             }
                         }
 
+                        PageDeltaLog deltaLog = new PageDeltaLog(deltaLogFile().toFile(), ioFactory, pageSize);
+
+                        // Changes logged before the store was stopped are moved to the store file.
+                        deltaLog.load();
+
+                        mergeDeltaLog0(deltaLog);
+
+                        this.deltaLog = deltaLog;
+
+                        fileSize.set(fileIO.size());
+
                         assert allocated.get() == 0;
 
                         allocated.set(newSize);
@@ -689,6 +807,17 @@ public class FilePageStore implements PageStore {
 
     /** {@inheritDoc} */
     @Override public void write(long pageId, ByteBuffer pageBuf, int tag, boolean calculateCrc) throws IgniteCheckedException {
+        write(pageId, pageBuf, tag, calculateCrc, PageDirtyChunks.ALL);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int write(
+        long pageId,
+        ByteBuffer pageBuf,
+        int tag,
+        boolean calculateCrc,
+        long dirtyChunks
+    ) throws IgniteCheckedException {
         init();
 
         boolean interrupted = false;
@@ -701,46 +830,33 @@ public class FilePageStore implements PageStore {
 
                 try {
                     if (tag < this.tag)
-                        return;
+                        return 0;
 
                     long off = pageOffset(pageId);
 
-                    assert (off >= 0 && off <= allocated.get()) || recover :
-                        "off=" + U.hexLong(off) + ", allocated=" + U.hexLong(allocated.get()) +
-                            ", pageId=" + U.hexLong(pageId) + ", file=" + getFileAbsolutePath();
+                    prepareWrite(pageId, pageBuf, off, calculateCrc);
 
-                    assert pageBuf.position() == 0;
-                    assert pageBuf.order() == ByteOrder.nativeOrder() : "Page buffer order " + pageBuf.order()
-                        + " should be same with " + ByteOrder.nativeOrder();
-                    assert PageIO.getType(pageBuf) != 0 : "Invalid state. Type is 0! pageId = " + U.hexLong(pageId);
-                    assert PageIO.getVersion(pageBuf) != 0 : "Invalid state. Version is 0! pageId = " + U.hexLong(pageId);
-
-                    if (calculateCrc && !skipCrc) {
-                        assert PageIO.getCrc(pageBuf) == 0 : U.hexLong(pageId);
-
-                        PageIO.setCrc(pageBuf, calcCrc32(pageBuf, getCrcSize(pageId, pageBuf)));
-                    }
+                    int written;
 
-                    // Check whether crc was calculated somewhere above the stack if it is forcibly skipped.
-                    assert skipCrc || PageIO.getCrc(pageBuf) != 0 || calcCrc32(pageBuf, pageSize) == 0 :
-                        "CRC hasn't been calculated, crc=0";
+                    int pageIdx = PageIdUtils.pageIndex(pageId);
 
-                    assert pageBuf.position() == 0 : pageBuf.position();
+                    if (writeToDeltaLog(pageIdx, off, dirtyChunks))
+                        written = deltaLog.append(pageIdx, pageBuf, dirtyChunks);
+                    else {
+                        fileIO.writeFully(pageBuf, off);
 
-                    for (PageWriteListener lsnr : lsnrs) {
-                        lsnr.accept(pageId, pageBuf);
+                        written = pageSize;
 
-                        pageBuf.rewind();
+                        if (deltaMergeScheduler != null)
+                            fileSize.accumulateAndGet(off + pageSize, Math::max);
                     }
 
-                    fileIO.writeFully(pageBuf, off);
-
                     PageIO.setCrc(pageBuf, 0);
 
                     if (interrupted)
                         Thread.currentThread().interrupt();
 
-                    return;
+                    return written;
                 }
                 finally {
                     lock.readLock().unlock();
@@ -776,6 +892,224 @@ public class FilePageStore implements PageStore {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override public int write(
+        long[] pageIds,
+        ByteBuffer[] pageBufs,
+        int cnt,
+        int tag,
+        boolean calculateCrc
+    ) throws IgniteCheckedException {
+        init();
+
+        // Pages with logged changes are written to the delta log one by one.
+        for (int i = 0; i < cnt; i++) {
+            if (deltaLog.logged(PageIdUtils.pageIndex(pageIds[i])))
+                return PageStore.super.write(pageIds, pageBufs, cnt, tag, calculateCrc);
+        }
+
+        boolean interrupted = false;
+
+        while (true) {
+            FileIO fileIO = this.fileIO;
+
+            try {
+                lock.readLock().lock();
+
+                try {
+                    if (tag < this.tag)
+                        return 0;
+
+                    long off = pageOffset(pageIds[0]);
+
+                    for (int i = 0; i < cnt; i++) {
+                        assert pageOffset(pageIds[i]) == off + (long)i * pageSize :
+                            "Pages are not consecutive [first=" + U.hexLong(pageIds[0]) +
+                                ", pageId=" + U.hexLong(pageIds[i]) + ", pos=" + i + ']';
+
+                        prepareWrite(pageIds[i], pageBufs[i], off + (long)i * pageSize, calculateCrc);
+                    }
+
+                    fileIO.writeFully(pageBufs, 0, cnt, off);
+
+                    for (int i = 0; i < cnt; i++)
+                        PageIO.setCrc(pageBufs[i], 0);
+
+                    if (deltaMergeScheduler != null)
+                        fileSize.accumulateAndGet(off + (long)cnt * pageSize, Math::max);
+
+                    if (interrupted)
+                        Thread.currentThread().interrupt();
+
+                    return cnt * pageSize;
+                }
+                finally {
+                    lock.readLock().unlock();
+                }
+            }
+            catch (IOException e) {
+                if (e instanceof ClosedChannelException) {
+                    try {
+                        if (e instanceof ClosedByInterruptException) {
+                            interrupted = true;
+
+                            Thread.interrupted();
+                        }
+
+                        reinit(fileIO);
+
+                        for (int i = 0; i < cnt; i++) {
+                            pageBufs[i].position(0);
+
+                            PageIO.setCrc(pageBufs[i], 0);
+                        }
+
+                        continue;
+                    }
+                    catch (IOException e0) {
+                        e0.addSuppressed(e);
+
+                        e = e0;
+                    }
+                }
+
+                throw new StorageException("Failed to write pages [file=" + getFileAbsolutePath()
+                    + ", firstPageId=" + pageIds[0] + ", cnt=" + cnt + ", tag=" + tag + "]", e);
+            }
+        }
+    }
+
+    /**
+     * Calculates CRC of the page and notifies write listeners before the page is written to the store file.
+     * Must be called under the read lock.
+     *
+     * @param pageId Page ID.
+     * @param pageBuf Page buffer.
+     * @param off Page offset in the store file.
+     * @param calculateCrc If {@code false} crc calculation will be forcibly skipped.
+     * @throws IOException If failed.
+     */
+    private void prepareWrite(long pageId, ByteBuffer pageBuf, long off, boolean calculateCrc) throws IOException {
+        assert (off >= 0 && off <= allocated.get()) || recover :
+            "off=" + U.hexLong(off) + ", allocated=" + U.hexLong(allocated.get()) +
+                ", pageId=" + U.hexLong(pageId) + ", file=" + getFileAbsolutePath();
+
+        assert pageBuf.position() == 0;
+        assert pageBuf.order() == ByteOrder.nativeOrder() : "Page buffer order " + pageBuf.order()
+            + " should be same with " + ByteOrder.nativeOrder();
+        assert PageIO.getType(pageBuf) != 0 : "Invalid state. Type is 0! pageId = " + U.hexLong(pageId);
+        assert PageIO.getVersion(pageBuf) != 0 : "Invalid state. Version is 0! pageId = " + U.hexLong(pageId);
+
+        if (calculateCrc && !skipCrc) {
+            assert PageIO.getCrc(pageBuf) == 0 : U.hexLong(pageId);
+
+            PageIO.setCrc(pageBuf, calcCrc32(pageBuf, getCrcSize(pageId, pageBuf)));
+        }
+
+        // Check whether crc was calculated somewhere above the stack if it is forcibly skipped.
+        assert skipCrc || PageIO.getCrc(pageBuf) != 0 || calcCrc32(pageBuf, pageSize) == 0 :
+            "CRC hasn't been calculated, crc=0";
+
+        assert pageBuf.position() == 0 : pageBuf.position();
+
+        for (PageWriteListener lsnr : lsnrs) {
+            lsnr.accept(pageId, pageBuf);
+
+            pageBuf.rewind();
+        }
+    }
+
+    /**
+     * @param pageIdx Page index.
+     * @param off Page offset in the store file.
+     * @param dirtyChunks Mask of changed chunks of the page.
+     * @return {@code True} if the page must be written to the delta log.
+     */
+    private boolean writeToDeltaLog(int pageIdx, long off, long dirtyChunks) {
+        PageDeltaLog deltaLog = this.deltaLog;
+
+        // Changes logged earlier would override the page written to the store file.
+        if (deltaLog.logged(pageIdx))
+            return true;
+
+        if (deltaMergeScheduler == null || dirtyChunks == PageDirtyChunks.ALL)
+            return false;
+
+        return off + pageSize <= fileSize.get() &&
+            deltaLog.recordSize(dirtyChunks) <= pageSize / 2 &&
+            deltaLog.size() < DELTA_LOG_MAX_SIZE;
+    }
+
+    /**
+     * Moves logged changes of pages to the store file. The delta log is merged in the background when it grows,
+     * this method allows to merge it before reading the store file directly.
+     *
+     * @throws StorageException If failed.
+     */
+    public void mergeDeltaLog() throws StorageException {
+        deltaMergeScheduled.set(false);
+
+        PageDeltaLog deltaLog = this.deltaLog;
+
+        if (deltaLog == null || deltaLog.isEmpty())
+            return;
+
+        deltaLock.writeLock().lock();
+        lock.writeLock().lock();
+
+        try {
+            if (inited)
+                mergeDeltaLog0(this.deltaLog);
+        }
+        catch (IOException e) {
+            throw new StorageException("Failed to merge page delta log [file=" + getFileAbsolutePath() + ']', e);
+        }
+        finally {
+            lock.writeLock().unlock();
+            deltaLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies logged changes to pages of the store file and clears the log. Must be called under the write lock.
+     *
+     * @param deltaLog Delta log.
+     * @throws IOException If failed.
+     */
+    private void mergeDeltaLog0(PageDeltaLog deltaLog) throws IOException {
+        if (!deltaLog.isEmpty()) {
+            ByteBuffer buf = ByteBuffer.allocate(pageSize).order(ByteOrder.nativeOrder());
+
+            for (int pageIdx : deltaLog.pages()) {
+                long off = (long)pageIdx * pageSize + headerSize();
+
+                buf.clear();
+
+                if (readWithFailover(buf, off) < pageSize)
+                    buf.put(new byte[buf.remaining()]);
+
+                deltaLog.apply(pageIdx, buf);
+
+                buf.clear();
+
+                fileIO.writeFully(buf, off);
+            }
+
+            fileIO.force();
+        }
+
+        deltaLog.clear();
+    }
+
+    /**
+     * @return Path of the delta log file.
+     */
+    private Path deltaLogFile() {
+        Path path = pathProvider.apply();
+
+        return path.resolveSibling(path.getFileName() + PageDeltaLog.DELTA_SUFFIX);
+    }
+
     /**
      * @param pageBuf Page buffer.
      * @param pageSize Page size.
@@ -807,6 +1141,8 @@ public class FilePageStore implements PageStore {
 
             if (fileIO != null)
                 fileIO.force();
+
+            deltaLog.force();
         }
         catch (IOException e) {
             throw new StorageException("Failed to fsync partition file [file=" + getFileAbsolutePath() + ']', e);
@@ -814,6 +1150,12 @@ public class FilePageStore implements PageStore {
         finally {
             lock.writeLock().unlock();
         }
+
+        Consumer<FilePageStore> mergeScheduler = deltaMergeScheduler;
+
+        if (mergeScheduler != null && deltaLog.size() >= DELTA_LOG_MERGE_THRESHOLD &&
+            deltaMergeScheduled.compareAndSet(false, true))
+            mergeScheduler.accept(this);
     }
 
     /** {@inheritDoc} */
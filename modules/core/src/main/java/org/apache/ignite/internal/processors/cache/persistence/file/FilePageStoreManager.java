@@ -43,6 +43,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -57,6 +60,7 @@ import org.apache.ignite.IgniteException;
 import org.apache.ignite.IgniteLogger;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.DiskPageCompression;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.failure.FailureContext;
 import org.apache.ignite.failure.FailureType;
@@ -69,6 +73,7 @@ import org.apache.ignite.internal.pagemem.store.PageStore;
 import org.apache.ignite.internal.pagemem.store.PageStoreCollection;
 import org.apache.ignite.internal.processors.cache.CacheGroupContext;
 import org.apache.ignite.internal.processors.cache.CacheGroupDescriptor;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
 import org.apache.ignite.internal.processors.cache.GridCacheSharedManagerAdapter;
 import org.apache.ignite.internal.processors.cache.StoredCacheData;
 import org.apache.ignite.internal.processors.cache.persistence.DataRegion;
@@ -78,6 +83,7 @@ import org.apache.ignite.internal.processors.cache.persistence.StorageException;
 import org.apache.ignite.internal.processors.cache.persistence.defragmentation.DefragmentationFileUtils;
 import org.apache.ignite.internal.processors.cache.persistence.filename.PdsFolderSettings;
 import org.apache.ignite.internal.processors.cache.persistence.metastorage.MetaStorage;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.CheckpointMetricsTracker;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageReadWriteManager;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageReadWriteManagerImpl;
 import org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteCacheSnapshotManager;
@@ -93,6 +99,7 @@ import org.apache.ignite.maintenance.MaintenanceTask;
 import org.apache.ignite.marshaller.Marshaller;
 import org.apache.ignite.marshaller.MarshallerUtils;
 import org.apache.ignite.thread.IgniteThread;
+import org.apache.ignite.thread.IgniteThreadPoolExecutor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -100,8 +107,11 @@ import static java.lang.String.format;
 import static java.nio.file.Files.delete;
 import static java.nio.file.Files.newDirectoryStream;
 import static java.util.Objects.requireNonNull;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_INCREMENTAL_CHECKPOINT;
+import static org.apache.ignite.IgniteSystemProperties.getBoolean;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.INDEX_PARTITION;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.MAX_PARTITION_ID;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.DFLT_INCREMENTAL_CHECKPOINT;
 
 /**
  * File page store manager.
@@ -203,6 +213,9 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
     private final GridStripedReadWriteLock initDirLock =
         new GridStripedReadWriteLock(Math.max(Runtime.getRuntime().availableProcessors(), 8));
 
+    /** Merges delta logs of page stores in the background, {@code null} if incremental checkpoint is disabled. */
+    @Nullable private final ExecutorService deltaMergeExecutor;
+
     /**
      * @param ctx Kernal context.
      */
@@ -225,6 +238,11 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
         marshaller = MarshallerUtils.jdkMarshaller(ctx.igniteInstanceName());
 
         pmPageMgr = new PageReadWriteManagerImpl(ctx, this, FilePageStoreManager.class.getSimpleName());
+
+        deltaMergeExecutor = getBoolean(IGNITE_INCREMENTAL_CHECKPOINT, DFLT_INCREMENTAL_CHECKPOINT)
+            ? new IgniteThreadPoolExecutor("page-delta-merger", ctx.igniteInstanceName(), 1, 1, 0,
+                new LinkedBlockingQueue<>())
+            : null;
     }
 
     /** {@inheritDoc} */
@@ -349,6 +367,10 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
     /** {@inheritDoc} */
     @Override public void onKernalStop0(boolean cancel) {
         cleanupAsyncExecutor.awaitAsyncTaskCompletion(cancel);
+
+        // Logs which are not merged yet are merged when page stores are initialized on the next start.
+        if (deltaMergeExecutor != null)
+            deltaMergeExecutor.shutdown();
     }
 
     /** {@inheritDoc} */
@@ -459,12 +481,17 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
         assert storeWorkDir != null;
 
         if (!idxCacheStores.containsKey(cacheId)) {
+            GridCacheContext<?, ?> cctx0 = cctx.cacheContext(cacheId);
+
+            CacheConfiguration<?, ?> ccfg = cctx0 != null ? cctx0.config() : null;
+
             CacheStoreHolder holder = initDir(
                 new File(storeWorkDir, workingDir),
                 cacheId,
                 partitions,
                 tracker,
-                cctx.cacheContext(cacheId) != null && cctx.cacheContext(cacheId).config().isEncryptionEnabled()
+                ccfg != null && ccfg.isEncryptionEnabled(),
+                deltaWrites(ccfg)
             );
 
             CacheStoreHolder old = idxCacheStores.put(cacheId, holder);
@@ -502,7 +529,8 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
                 grpId,
                 PageIdAllocator.METASTORE_PARTITION + 1,
                 dataRegion.memoryMetrics().totalAllocatedPages()::add,
-                false);
+                false,
+                deltaMergeExecutor != null);
 
             CacheStoreHolder old = idxCacheStores.put(grpId, holder);
 
@@ -634,6 +662,32 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
         return pmPageMgr.write(grpId, pageId, pageBuf, tag, calculateCrc);
     }
 
+    /** {@inheritDoc} */
+    @Override public PageStore write(
+        int grpId,
+        long pageId,
+        ByteBuffer pageBuf,
+        int tag,
+        boolean calculateCrc,
+        long dirtyChunks,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        return pmPageMgr.write(grpId, pageId, pageBuf, tag, calculateCrc, dirtyChunks, tracker);
+    }
+
+    /** {@inheritDoc} */
+    @Override public PageStore write(
+        int grpId,
+        long[] pageIds,
+        ByteBuffer[] pageBufs,
+        int cnt,
+        int tag,
+        boolean calculateCrc,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        return pmPageMgr.write(grpId, pageIds, pageBufs, cnt, tag, calculateCrc, tracker);
+    }
+
     /** {@inheritDoc} */
     @Override public long pageOffset(int grpId, long pageId) throws IgniteCheckedException {
         PageStore store = getStore(grpId, PageIdUtils.partId(pageId));
@@ -671,10 +725,44 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
             grpDesc.groupId(),
             grpDesc.config().getAffinity().partitions(),
             allocatedTracker::add,
-            ccfg.isEncryptionEnabled()
+            ccfg.isEncryptionEnabled(),
+            deltaWrites(ccfg)
         );
     }
 
+    /**
+     * @param ccfg Cache configuration, {@code null} if unknown.
+     * @return {@code True} if changed page chunks may be written to delta logs of the cache group page stores.
+     */
+    private boolean deltaWrites(@Nullable CacheConfiguration<?, ?> ccfg) {
+        // Encrypted and compressed pages are always written as a whole.
+        return deltaMergeExecutor != null && ccfg != null && !ccfg.isEncryptionEnabled() &&
+            ccfg.getDiskPageCompression() == DiskPageCompression.DISABLED;
+    }
+
+    /**
+     * Schedules merging of the page store delta log to the store file.
+     *
+     * @param store Page store.
+     */
+    private void scheduleDeltaMerge(FilePageStore store) {
+        assert deltaMergeExecutor != null;
+
+        try {
+            deltaMergeExecutor.execute(() -> {
+                try {
+                    store.mergeDeltaLog();
+                }
+                catch (StorageException e) {
+                    cctx.kernalContext().failure().process(new FailureContext(FailureType.CRITICAL_ERROR, e));
+                }
+            });
+        }
+        catch (RejectedExecutionException ignore) {
+            // Node is stopping, the log will be merged on the next start.
+        }
+    }
+
     /**
      * @param grpId Cache group id.
      * @param encrypted {@code true} if cache group encryption enabled.
@@ -722,6 +810,7 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
      * @param partitions Number of partitions.
      * @param allocatedTracker Metrics updater.
      * @param encrypted {@code True} if this cache encrypted.
+     * @param deltaWrites {@code True} to write changed page chunks to delta logs of page stores.
      * @return Cache store holder.
      * @throws IgniteCheckedException If failed.
      */
@@ -729,7 +818,8 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
         int grpId,
         int partitions,
         LongConsumer allocatedTracker,
-        boolean encrypted) throws IgniteCheckedException {
+        boolean encrypted,
+        boolean deltaWrites) throws IgniteCheckedException {
         try {
             boolean dirExisted = checkAndInitCacheWorkDir(cacheWorkDir);
 
@@ -753,6 +843,9 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
                     idxFile,
                     allocatedTracker);
 
+            if (deltaWrites)
+                ((FilePageStore)idxStore).enableDeltaWrites(this::scheduleDeltaMerge);
+
             PageStore[] partStores = new PageStore[partitions];
 
             for (int partId = 0; partId < partStores.length; partId++) {
@@ -764,6 +857,9 @@ public class FilePageStoreManager extends GridCacheSharedManagerAdapter implemen
                         () -> getPartitionFilePath(cacheWorkDir, p),
                         allocatedTracker);
 
+                if (deltaWrites)
+                    ((FilePageStore)partStore).enableDeltaWrites(this::scheduleDeltaMerge);
+
                     partStores[partId] = partStore;
             }
 
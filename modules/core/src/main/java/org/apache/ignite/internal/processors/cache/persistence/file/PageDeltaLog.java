@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageDirtyChunks;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.processors.cache.persistence.wal.crc.FastCrc;
+import org.apache.ignite.internal.util.typedef.internal.S;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of changed page chunks of a {@link FilePageStore}. Each record holds a page index, a mask of
+ * changed chunks (see {@link PageDirtyChunks}), the chunks and a CRC of the record. Logical content of a page is its
+ * version in the page store file with all logged records of the page applied in order.
+ * <p>
+ * Concurrent appends are allowed, other methods must be called under exclusive lock of the page store.
+ */
+class PageDeltaLog {
+    /** Delta log file suffix. */
+    public static final String DELTA_SUFFIX = ".delta";
+
+    /** Record header size: page index and mask of chunks. */
+    private static final int REC_HDR_SIZE = 4 + 8;
+
+    /** Record CRC size. */
+    private static final int CRC_SIZE = 4;
+
+    /** File. */
+    private final File file;
+
+    /** Factory to provide I/O interface of the file. */
+    private final FileIOFactory ioFactory;
+
+    /** Page size. */
+    private final int pageSize;
+
+    /** Chunk size. */
+    private final int chunkSize;
+
+    /** Mask of the chunk holding page CRC, it is written with each record. */
+    private final long crcChunk;
+
+    /** I/O interface of the file, {@code null} if the file is not opened yet. */
+    private volatile FileIO io;
+
+    /** Log size. */
+    private final AtomicLong size = new AtomicLong();
+
+    /** Offsets of records of logged pages. */
+    private final ConcurrentMap<Integer, long[]> recs = new ConcurrentHashMap<>();
+
+    /**
+     * @param file File.
+     * @param ioFactory Factory to provide I/O interface of the file.
+     * @param pageSize Page size.
+     */
+    PageDeltaLog(File file, FileIOFactory ioFactory, int pageSize) {
+        this.file = file;
+        this.ioFactory = ioFactory;
+        this.pageSize = pageSize;
+
+        chunkSize = PageDirtyChunks.chunkSize(pageSize);
+        crcChunk = 1L << (PageIO.CRC_OFF / chunkSize);
+    }
+
+    /**
+     * @return Log size in bytes.
+     */
+    long size() {
+        return size.get();
+    }
+
+    /**
+     * @return {@code True} if there are no logged pages.
+     */
+    boolean isEmpty() {
+        return recs.isEmpty();
+    }
+
+    /**
+     * @param pageIdx Page index.
+     * @return {@code True} if the page has logged records.
+     */
+    boolean logged(int pageIdx) {
+        return recs.containsKey(pageIdx);
+    }
+
+    /**
+     * @return Sorted indexes of logged pages.
+     */
+    int[] pages() {
+        return recs.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * @param dirtyChunks Mask of changed chunks.
+     * @return Size of a record for the given mask.
+     */
+    int recordSize(long dirtyChunks) {
+        return REC_HDR_SIZE + Long.bitCount(dirtyChunks | crcChunk) * chunkSize + CRC_SIZE;
+    }
+
+    /**
+     * Appends changed chunks of the page to the log.
+     *
+     * @param pageIdx Page index.
+     * @param pageBuf Page buffer, its position is not changed.
+     * @param dirtyChunks Mask of changed chunks.
+     * @return Number of written bytes.
+     * @throws IOException If failed.
+     */
+    int append(int pageIdx, ByteBuffer pageBuf, long dirtyChunks) throws IOException {
+        long mask = dirtyChunks | crcChunk;
+
+        int len = recordSize(mask);
+
+        ByteBuffer rec = ByteBuffer.allocate(len).order(ByteOrder.nativeOrder());
+
+        rec.putInt(pageIdx);
+        rec.putLong(mask);
+
+        ByteBuffer src = pageBuf.duplicate();
+
+        for (int chunk = 0; chunk < PageDirtyChunks.CHUNKS; chunk++) {
+            if ((mask & (1L << chunk)) == 0)
+                continue;
+
+            src.limit(chunk * chunkSize + chunkSize).position(chunk * chunkSize);
+
+            rec.put(src);
+        }
+
+        rec.position(0);
+
+        int crc = FastCrc.calcCrc(rec, len - CRC_SIZE);
+
+        rec.putInt(crc);
+
+        rec.rewind();
+
+        long off = size.getAndAdd(len);
+
+        writeFully(rec, off);
+
+        recs.merge(pageIdx, new long[] {off}, PageDeltaLog::concat);
+
+        return len;
+    }
+
+    /**
+     * Applies logged records of the page to the buffer.
+     *
+     * @param pageIdx Page index.
+     * @param pageBuf Page buffer, its position is not changed.
+     * @return {@code True} if the page has logged records.
+     * @throws IOException If failed.
+     */
+    boolean apply(int pageIdx, ByteBuffer pageBuf) throws IOException {
+        long[] offs = recs.get(pageIdx);
+
+        if (offs == null)
+            return false;
+
+        ByteBuffer hdr = ByteBuffer.allocate(REC_HDR_SIZE).order(ByteOrder.nativeOrder());
+
+        ByteBuffer dst = pageBuf.duplicate();
+
+        for (long off : offs) {
+            hdr.clear();
+
+            io.readFully(hdr, off);
+
+            long mask = hdr.getLong(4);
+
+            long chunkOff = off + REC_HDR_SIZE;
+
+            for (int chunk = 0; chunk < PageDirtyChunks.CHUNKS; chunk++) {
+                if ((mask & (1L << chunk)) == 0)
+                    continue;
+
+                dst.limit(chunk * chunkSize + chunkSize).position(chunk * chunkSize);
+
+                io.readFully(dst, chunkOff);
+
+                chunkOff += chunkSize;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Loads valid records of the existing log file. The file is cut at the first torn or corrupted record.
+     *
+     * @throws IOException If failed.
+     */
+    void load() throws IOException {
+        recs.clear();
+        size.set(0);
+
+        if (!file.exists())
+            return;
+
+        FileIO io = io();
+
+        long fileSize = io.size();
+
+        long off = 0;
+
+        ByteBuffer hdr = ByteBuffer.allocate(REC_HDR_SIZE).order(ByteOrder.nativeOrder());
+
+        while (off + REC_HDR_SIZE <= fileSize) {
+            hdr.clear();
+
+            io.readFully(hdr, off);
+
+            int pageIdx = hdr.getInt(0);
+            long mask = hdr.getLong(4);
+
+            int len = recordSize(mask);
+
+            if ((mask & crcChunk) == 0 || off + len > fileSize)
+                break;
+
+            ByteBuffer rec = ByteBuffer.allocate(len).order(ByteOrder.nativeOrder());
+
+            io.readFully(rec, off);
+
+            rec.position(0);
+
+            if (FastCrc.calcCrc(rec, len - CRC_SIZE) != rec.getInt(len - CRC_SIZE))
+                break;
+
+            recs.merge(pageIdx, new long[] {off}, PageDeltaLog::concat);
+
+            off += len;
+        }
+
+        size.set(off);
+    }
+
+    /**
+     * @throws IOException If failed.
+     */
+    void force() throws IOException {
+        FileIO io = this.io;
+
+        if (io != null)
+            io.force();
+    }
+
+    /**
+     * Removes all records from the log.
+     *
+     * @throws IOException If failed.
+     */
+    void clear() throws IOException {
+        FileIO io = this.io;
+
+        if (io != null) {
+            io.clear();
+
+            io.force();
+        }
+
+        recs.clear();
+        size.set(0);
+    }
+
+    /**
+     * Closes the log file.
+     *
+     * @param delete {@code True} to delete the file.
+     * @throws IOException If failed.
+     */
+    void close(boolean delete) throws IOException {
+        FileIO io = this.io;
+
+        this.io = null;
+
+        if (io != null)
+            io.close();
+
+        recs.clear();
+        size.set(0);
+
+        if (delete)
+            Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * @param buf Buffer to write.
+     * @param off Offset in the file.
+     * @throws IOException If failed.
+     */
+    private void writeFully(ByteBuffer buf, long off) throws IOException {
+        boolean interrupted = false;
+
+        while (true) {
+            FileIO io = io();
+
+            try {
+                io.writeFully(buf, off);
+
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+
+                return;
+            }
+            catch (ClosedChannelException e) {
+                if (e instanceof ClosedByInterruptException) {
+                    interrupted = true;
+
+                    Thread.interrupted();
+                }
+
+                buf.rewind();
+
+                reopen(io);
+            }
+        }
+    }
+
+    /**
+     * @return I/O interface of the log file.
+     * @throws IOException If failed to open the file.
+     */
+    private FileIO io() throws IOException {
+        FileIO io = this.io;
+
+        if (io != null)
+            return io;
+
+        synchronized (this) {
+            if (this.io == null)
+                this.io = ioFactory.create(file, CREATE, READ, WRITE);
+
+            return this.io;
+        }
+    }
+
+    /**
+     * Reopens the log file closed by thread interruption.
+     *
+     * @param old Closed I/O interface.
+     */
+    private synchronized void reopen(FileIO old) {
+        if (io == old)
+            io = null;
+    }
+
+    /**
+     * @param a First array.
+     * @param b Second array.
+     * @return Sorted concatenation of arrays.
+     */
+    private static long[] concat(long[] a, long[] b) {
+        long[] res = Arrays.copyOf(a, a.length + b.length);
+
+        System.arraycopy(b, 0, res, a.length, b.length);
+
+        Arrays.sort(res);
+
+        return res;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(PageDeltaLog.class, this, "file", file.getName(), "size", size.get());
+    }
+}
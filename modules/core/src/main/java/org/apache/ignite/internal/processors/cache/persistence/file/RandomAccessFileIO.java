@@ -120,6 +120,28 @@ public class RandomAccessFileIO extends AbstractFileIO {
         return ch.write(ByteBuffer.wrap(buf, off, len));
     }
 
+    /** {@inheritDoc} */
+    @Override public long writeFully(ByteBuffer[] srcBufs, int off, int len, long position) throws IOException {
+        int end = off + len;
+
+        long written = 0;
+
+        // File channel has no positional gathering write, so gathering writes move the channel position one by one.
+        // Positional reads and writes do not depend on the channel position.
+        synchronized (ch) {
+            ch.position(position);
+
+            for (int i = off; i < end; ) {
+                written += ch.write(srcBufs, i, end - i);
+
+                while (i < end && !srcBufs[i].hasRemaining())
+                    i++;
+            }
+        }
+
+        return written;
+    }
+
     /** {@inheritDoc} */
     @Override public void force(boolean withMetadata) throws IOException {
         ch.force(withMetadata);
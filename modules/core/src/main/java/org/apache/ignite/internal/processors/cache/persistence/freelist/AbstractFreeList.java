@@ -20,9 +20,13 @@ package org.apache.ignite.internal.processors.cache.persistence.freelist;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
 import org.apache.ignite.internal.GridKernalContext;
 import org.apache.ignite.internal.metric.IoStatisticsHolder;
 import org.apache.ignite.internal.metric.IoStatisticsHolderNoOp;
@@ -49,12 +53,30 @@ import org.apache.ignite.internal.processors.cache.persistence.tree.util.PageLoc
 import org.apache.ignite.internal.util.GridCursorIteratorWrapper;
 import org.apache.ignite.internal.util.lang.GridCursor;
 import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.thread.IgniteThread;
 
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.FLAG_DATA;
 
 /**
  */
 public abstract class AbstractFreeList<T extends Storable> extends PagesList implements FreeList<T>, ReuseList {
+    /** */
+    @SystemProperty("Disables caching of partially filled data pages by stripes of threads which insert rows. " +
+        "Such pages are returned to the shared free list buckets when they can not fit a row or on checkpoint")
+    public static final String IGNITE_FREE_LIST_DISABLE_LOCAL_PAGES = "IGNITE_FREE_LIST_DISABLE_LOCAL_PAGES";
+
+    /** Number of size classes of partially filled data pages, each one covers an equal range of page free space. */
+    public static final int SIZE_CLASSES = 4;
+
+    /** Number of stripes of threads which cache partially filled data pages. */
+    private static final int LOCAL_PAGES_STRIPES = Math.min(U.ceilPow2(Runtime.getRuntime().availableProcessors()), 16);
+
+    /** */
+    private static final AtomicReferenceFieldUpdater<AbstractFreeList, AtomicLongArray> locPagesUpdater =
+        AtomicReferenceFieldUpdater.newUpdater(AbstractFreeList.class, AtomicLongArray.class, "locPages");
+
     /** */
     private static final int BUCKETS = 256; // Must be power of 2.
 
@@ -100,6 +122,16 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
     /** Page list cache limit. */
     private final AtomicLong pageListCacheLimit;
 
+    /** */
+    private final boolean locPagesEnabled =
+        !IgniteSystemProperties.getBoolean(IGNITE_FREE_LIST_DISABLE_LOCAL_PAGES, false);
+
+    /**
+     * Partially filled data pages cached by stripes of threads, a slot per size class. Created on the first release
+     * of a page, so free lists which are never written do not waste memory.
+     */
+    private volatile AtomicLongArray locPages;
+
     /**
      *
      */
@@ -150,6 +182,12 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
     /** Write multiple rows on a single page. */
     private final WriteRowsHandler writeRowsHnd = new WriteRowsHandler();
 
+    /** Write a single row on a page cached by the stripe of the current thread. */
+    private final PageHandler<T, Integer> writeLocRowHnd = new WriteLocalRowHandler();
+
+    /** Return a page cached by a stripe of threads to the shared bucket. */
+    private final PageHandler<Void, Boolean> flushLocPageHnd = new FlushLocalPageHandler();
+
     /**  */
     private class WriteRowHandler extends PageHandler<T, Integer> {
         /** {@inheritDoc} */
@@ -298,11 +336,55 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
          */
         protected void putPage(int freeSpace, long pageId, long page, long pageAddr, IoStatisticsHolder statHolder)
             throws IgniteCheckedException {
-            if (freeSpace > MIN_PAGE_FREE_SPACE) {
-                int bucket = bucket(freeSpace, false);
+            if (freeSpace > MIN_PAGE_FREE_SPACE && !putLocalPage(freeSpace, pageId))
+                putBucketPage(freeSpace, pageId, page, pageAddr, statHolder);
+        }
+    }
 
-                put(null, pageId, page, pageAddr, bucket, statHolder);
+    /** */
+    private final class WriteLocalRowHandler extends PageHandler<T, Integer> {
+        /** {@inheritDoc} */
+        @Override public Integer run(
+            int cacheId,
+            long pageId,
+            long page,
+            long pageAddr,
+            PageIO iox,
+            Boolean walPlc,
+            T row,
+            int written,
+            IoStatisticsHolder statHolder)
+            throws IgniteCheckedException {
+            int freeSpace = ((AbstractDataPageIO)iox).getFreeSpace(pageAddr);
+
+            if (freeSpace < row.size()) {
+                // The page is returned to the shared bucket only now, when it can not fit a row.
+                putBucketPage(freeSpace, pageId, page, pageAddr, statHolder);
+
+                return FAIL_I;
             }
+
+            return writeRowHnd.run(cacheId, pageId, page, pageAddr, iox, walPlc, row, written, statHolder);
+        }
+    }
+
+    /** */
+    private final class FlushLocalPageHandler extends PageHandler<Void, Boolean> {
+        /** {@inheritDoc} */
+        @Override public Boolean run(
+            int cacheId,
+            long pageId,
+            long page,
+            long pageAddr,
+            PageIO iox,
+            Boolean walPlc,
+            Void arg,
+            int intArg,
+            IoStatisticsHolder statHolder)
+            throws IgniteCheckedException {
+            putBucketPage(((AbstractDataPageIO)iox).getFreeSpace(pageAddr), pageId, page, pageAddr, statHolder);
+
+            return TRUE;
         }
     }
 
@@ -495,6 +577,38 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
         return freeSpace;
     }
 
+    /**
+     * Calculates free space of partially filled pages of the size class tracked by this FreeListImpl instance.
+     *
+     * @param sizeCls Size class.
+     * @return Free space available for use, in bytes.
+     */
+    public long freeSpace(int sizeCls) {
+        long freeSpace = 0;
+
+        for (int b = BUCKETS - 2; b > 0; b--) {
+            if (bucketSizeClass(b) == sizeCls)
+                freeSpace += bucketsSize.get(b) * (b << shift);
+        }
+
+        return freeSpace;
+    }
+
+    /**
+     * @param sizeCls Size class.
+     * @return Number of partially filled data pages of the size class in free list.
+     */
+    public long dataPages(int sizeCls) {
+        long pages = 0;
+
+        for (int b = BUCKETS - 2; b > 0; b--) {
+            if (bucketSizeClass(b) == sizeCls)
+                pages += bucketsSize.get(b);
+        }
+
+        return pages;
+    }
+
     /** {@inheritDoc} */
     @Override public void dumpStatistics(IgniteLogger log) {
         long dataPages = 0;
@@ -557,6 +671,22 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
         return bucket;
     }
 
+    /**
+     * @param freeSpace Page free space.
+     * @return Size class of the page.
+     */
+    private int sizeClass(int freeSpace) {
+        return Math.min(freeSpace * SIZE_CLASSES / pageSize(), SIZE_CLASSES - 1);
+    }
+
+    /**
+     * @param bucket Bucket.
+     * @return Size class of pages in the bucket.
+     */
+    private static int bucketSizeClass(int bucket) {
+        return bucket * SIZE_CLASSES / BUCKETS;
+    }
+
     /** {@inheritDoc} */
     @Override protected int getBucketIndex(int freeSpace) {
         return freeSpace > MIN_PAGE_FREE_SPACE ? bucket(freeSpace, false) : -1;
@@ -683,6 +813,13 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
      * @throws IgniteCheckedException If failed.
      */
     private int writeSinglePage(T row, int written, IoStatisticsHolder statHolder) throws IgniteCheckedException {
+        if (written == 0) {
+            int res = writeLocalPage(row, statHolder);
+
+            if (res != FAIL_I)
+                return res;
+        }
+
         AbstractDataPageIO initIo = null;
 
         long pageId = takePage(row.size() - written, row, statHolder);
@@ -700,6 +837,125 @@ public abstract class AbstractFreeList<T extends Storable> extends PagesList imp
         return written;
     }
 
+    /**
+     * Write the row on a page cached by the stripe of the current thread. Slots of the size class of the row and
+     * of the greater ones are checked.
+     *
+     * @param row Row to write.
+     * @param statHolder Statistics holder to track IO operations.
+     * @return {@link #COMPLETE} if the row was written, {@link #FAIL_I} if there is no suitable page.
+     * @throws IgniteCheckedException If failed.
+     */
+    private int writeLocalPage(T row, IoStatisticsHolder statHolder) throws IgniteCheckedException {
+        AtomicLongArray pages = locPages;
+
+        int rowSize = row.size();
+
+        if (pages == null || rowSize >= MIN_SIZE_FOR_DATA_PAGE)
+            return FAIL_I;
+
+        int stripe = localPagesStripe();
+
+        for (int cls = sizeClass(rowSize); cls < SIZE_CLASSES; cls++) {
+            long pageId = pages.getAndSet(stripe + cls, 0L);
+
+            if (pageId == 0L)
+                continue;
+
+            pageId = PageIdUtils.changePartitionId(pageId, row.partition());
+
+            int written = write(pageId, writeLocRowHnd, row, 0, FAIL_I, statHolder);
+
+            if (written != FAIL_I)
+                return written;
+        }
+
+        return FAIL_I;
+    }
+
+    /**
+     * Caches the page by the stripe of the current thread instead of putting it to the shared bucket.
+     *
+     * @param freeSpace Page free space.
+     * @param pageId Page ID.
+     * @return {@code True} if the page was cached, {@code false} if the slot of its size class is occupied.
+     */
+    private boolean putLocalPage(int freeSpace, long pageId) {
+        if (!locPagesEnabled)
+            return false;
+
+        AtomicLongArray pages = locPages;
+
+        if (pages == null && !locPagesUpdater.compareAndSet(this, null,
+            pages = new AtomicLongArray(LOCAL_PAGES_STRIPES * SIZE_CLASSES)))
+            pages = locPages;
+
+        return pages.compareAndSet(localPagesStripe() + sizeClass(freeSpace), 0L, pageId);
+    }
+
+    /**
+     * @return Index of the first slot of the stripe of the current thread.
+     */
+    private static int localPagesStripe() {
+        IgniteThread igniteThread = IgniteThread.current();
+
+        long idx = igniteThread != null && igniteThread.stripe() >= 0 ?
+            igniteThread.stripe() : Thread.currentThread().getId();
+
+        return (int)(idx & (LOCAL_PAGES_STRIPES - 1)) * SIZE_CLASSES;
+    }
+
+    /**
+     * Put page into the shared bucket of the free list if needed.
+     *
+     * @param freeSpace Page free space.
+     * @param pageId Page ID.
+     * @param page Page pointer.
+     * @param pageAddr Page address.
+     * @param statHolder Statistics holder to track IO operations.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void putBucketPage(int freeSpace, long pageId, long page, long pageAddr, IoStatisticsHolder statHolder)
+        throws IgniteCheckedException {
+        if (freeSpace > MIN_PAGE_FREE_SPACE) {
+            int bucket = bucket(freeSpace, false);
+
+            put(null, pageId, page, pageAddr, bucket, statHolder);
+        }
+    }
+
+    /**
+     * Returns pages cached by stripes of threads to the shared buckets, so they are saved with the list metadata.
+     *
+     * @param statHolder Statistics holder to track IO operations.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void flushLocalPages(IoStatisticsHolder statHolder) throws IgniteCheckedException {
+        AtomicLongArray pages = locPages;
+
+        if (pages == null)
+            return;
+
+        for (int i = 0; i < pages.length(); i++) {
+            long pageId = pages.getAndSet(i, 0L);
+
+            if (pageId != 0L)
+                write(pageId, flushLocPageHnd, 0, FALSE, statHolder);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public void saveMetadata(IoStatisticsHolder statHolder) throws IgniteCheckedException {
+        flushLocalPages(statHolder);
+
+        super.saveMetadata(statHolder);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void onBucketLockContention() {
+        memMetrics.incrementFreeListLockContention();
+    }
+
     /**
      * Take page from free list.
      *
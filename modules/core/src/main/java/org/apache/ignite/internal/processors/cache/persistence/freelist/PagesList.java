@@ -1302,6 +1302,8 @@ public abstract class PagesList extends DataStructure {
         if (pageAddr != 0L)
             return pageAddr;
 
+        onBucketLockContention();
+
         if (lockAttempt == TRY_LOCK_ATTEMPTS) {
             Stripe[] stripes = getBucket(bucket);
 
@@ -1315,6 +1317,13 @@ public abstract class PagesList extends DataStructure {
         return lockAttempt < TRY_LOCK_ATTEMPTS ? 0L : writeLock(pageId, page); // Must be explicitly checked further.
     }
 
+    /**
+     * Called when a page of a bucket stripe can not be locked without waiting.
+     */
+    protected void onBucketLockContention() {
+        // No-op.
+    }
+
     /**
      * @param bucket Bucket index.
      * @param initIoVers Optional IO to initialize page.
@@ -1621,9 +1630,7 @@ public abstract class PagesList extends DataStructure {
         throws IgniteCheckedException {
         final long pageId = dataIO.getFreeListPageId(dataAddr);
 
-        if (pageId == 0L) { // Page cached in onheap list.
-            assert isCachingApplicable() : "pageId==0L, but caching is not applicable for this pages list: " + name;
-
+        if (pageId == 0L) { // Page cached in onheap list or by a stripe of threads which insert rows.
             PagesCache pagesCache = getBucketCache(bucket, false);
 
             // Pages cache can be null here if page was taken for put from free list concurrently.
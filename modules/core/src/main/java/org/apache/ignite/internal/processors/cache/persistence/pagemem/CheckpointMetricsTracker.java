@@ -19,6 +19,7 @@ package org.apache.ignite.internal.processors.cache.persistence.pagemem;
 
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import org.apache.ignite.internal.pagemem.wal.record.CheckpointRecord;
 import org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointEntryType;
 import org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointMarkersStorage;
@@ -47,9 +48,23 @@ public class CheckpointMetricsTracker {
     private static final AtomicIntegerFieldUpdater<CheckpointMetricsTracker> COW_PAGES_UPDATER =
         AtomicIntegerFieldUpdater.newUpdater(CheckpointMetricsTracker.class, "cowPages");
 
+    /** */
+    private static final AtomicLongFieldUpdater<CheckpointMetricsTracker> BYTES_WRITTEN_UPDATER =
+        AtomicLongFieldUpdater.newUpdater(CheckpointMetricsTracker.class, "bytesWritten");
+
+    /** */
+    private static final AtomicLongFieldUpdater<CheckpointMetricsTracker> BYTES_CHANGED_UPDATER =
+        AtomicLongFieldUpdater.newUpdater(CheckpointMetricsTracker.class, "bytesChanged");
+
     /** */
     private volatile int dataPages;
 
+    /** Bytes written to page stores. */
+    private volatile long bytesWritten;
+
+    /** Bytes of pages changed since the previous write of the pages. */
+    private volatile long bytesChanged;
+
     /** */
     private volatile int cowPages;
 
@@ -101,6 +116,15 @@ public class CheckpointMetricsTracker {
         DATA_PAGES_UPDATER.incrementAndGet(this);
     }
 
+    /**
+     * @param written Bytes written to the page store.
+     * @param changed Bytes of the page changed since the previous write of the page.
+     */
+    public void onPageBytesWritten(int written, int changed) {
+        BYTES_WRITTEN_UPDATER.addAndGet(this, written);
+        BYTES_CHANGED_UPDATER.addAndGet(this, changed);
+    }
+
     /**
      * @return COW pages.
      */
@@ -115,6 +139,20 @@ public class CheckpointMetricsTracker {
         return dataPages;
     }
 
+    /**
+     * @return Bytes written to page stores.
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return Bytes of written pages changed since the previous write of the pages.
+     */
+    public long bytesChanged() {
+        return bytesChanged;
+    }
+
     /** */
     public void onLockWaitStart() {
         cpLockWaitStart = System.currentTimeMillis();
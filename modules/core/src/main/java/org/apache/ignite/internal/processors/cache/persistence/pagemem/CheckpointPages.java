@@ -17,7 +17,6 @@
 
 package org.apache.ignite.internal.processors.cache.persistence.pagemem;
 
-import java.util.Collection;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.pagemem.FullPageId;
@@ -27,7 +26,7 @@ import org.apache.ignite.internal.pagemem.FullPageId;
  */
 class CheckpointPages {
     /** */
-    private final Collection<FullPageId> segCheckpointPages;
+    private final FullPageIdSet segCheckpointPages;
 
     /** The sign which allows to replace pages from a checkpoint by page replacer. */
     private final IgniteInternalFuture allowToReplace;
@@ -36,7 +35,7 @@ class CheckpointPages {
      * @param pages Pages which would be stored to disk in current checkpoint.
      * @param replaceFuture The sign which allows to replace pages from a checkpoint by page replacer.
      */
-    CheckpointPages(Collection<FullPageId> pages, IgniteInternalFuture replaceFuture) {
+    CheckpointPages(FullPageIdSet pages, IgniteInternalFuture replaceFuture) {
         segCheckpointPages = pages;
         allowToReplace = replaceFuture;
     }
@@ -46,7 +45,7 @@ class CheckpointPages {
      * @return {@code true} If fullPageId is allowable to store to disk.
      */
     public boolean allowToSave(FullPageId fullPageId) throws IgniteCheckedException {
-        Collection<FullPageId> checkpointPages = segCheckpointPages;
+        FullPageIdSet checkpointPages = segCheckpointPages;
 
         if (checkpointPages == null || allowToReplace == null)
             return false;
@@ -54,7 +53,7 @@ class CheckpointPages {
         //Uninterruptibly is important because otherwise in case of interrupt of client thread node would be stopped.
         allowToReplace.getUninterruptibly();
 
-        return checkpointPages.contains(fullPageId);
+        return checkpointPages.contains(fullPageId.groupId(), fullPageId.pageId());
     }
 
     /**
@@ -62,9 +61,9 @@ class CheckpointPages {
      * @return {@code true} If fullPageId is candidate to stored to disk by current checkpoint.
      */
     public boolean contains(FullPageId fullPageId) {
-        Collection<FullPageId> checkpointPages = segCheckpointPages;
+        FullPageIdSet checkpointPages = segCheckpointPages;
 
-        return checkpointPages != null && checkpointPages.contains(fullPageId);
+        return checkpointPages != null && checkpointPages.contains(fullPageId.groupId(), fullPageId.pageId());
     }
 
     /**
@@ -72,16 +71,16 @@ class CheckpointPages {
      * @return {@code true} if is marking was successful.
      */
     public boolean markAsSaved(FullPageId fullPageId) {
-        Collection<FullPageId> checkpointPages = segCheckpointPages;
+        FullPageIdSet checkpointPages = segCheckpointPages;
 
-        return checkpointPages != null && checkpointPages.remove(fullPageId);
+        return checkpointPages != null && checkpointPages.remove(fullPageId.groupId(), fullPageId.pageId());
     }
 
     /**
      * @return Size of all pages in current checkpoint.
      */
     public int size() {
-        Collection<FullPageId> checkpointPages = segCheckpointPages;
+        FullPageIdSet checkpointPages = segCheckpointPages;
 
         return checkpointPages == null ? 0 : checkpointPages.size();
     }
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.internal.processors.cache.persistence.pagemem;
+
+import org.apache.ignite.configuration.PageReplacementMode;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.apache.ignite.internal.util.typedef.internal.S;
+
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.INVALID_REL_PTR;
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagePool.SEGMENT_INDEX_MASK;
+
+/**
+ * CLOCK-Pro page replacement policy for a page memory segment, see {@link PageReplacementMode#CLOCK_PRO}.
+ * <p>
+ * The policy keeps two off-heap byte arrays indexed by the page index in the segment pool: page status
+ * (resident, hot, in test period) and reference flag. The status is changed only under the segment write lock,
+ * the reference flag is set on every page access without any locking, so a concurrent access may be lost
+ * when the flag is cleared by a clock hand, which is acceptable for the algorithm.
+ * <p>
+ * Cold hand looks for a cold page without reference flag to replace. Cold page referenced during its test period
+ * is promoted to hot; hot hand demotes hot pages without reference flag to keep the hot set within
+ * {@code pages - coldTarget} and terminates test periods of cold pages it passes.
+ */
+public class ClockProPageReplacementPolicy {
+    /** Page is loaded to the slot. */
+    private static final byte RESIDENT = 1;
+
+    /** Page is hot. */
+    private static final byte HOT = 2;
+
+    /** Cold page is in its test period. */
+    private static final byte TEST = 4;
+
+    /** Minimal target size of the cold set as a fraction of all pages. */
+    private static final double MIN_COLD_RATIO = 0.01;
+
+    /** Initial target size of the cold set as a fraction of all pages. */
+    private static final double INIT_COLD_RATIO = 0.25;
+
+    /** Pointer to page status array. */
+    private final long statusPtr;
+
+    /** Pointer to page reference flags array. */
+    private final long refPtr;
+
+    /** Segment index of the pool, used to build relative pointers. */
+    private final int segIdx;
+
+    /** Number of page slots. */
+    private final int pages;
+
+    /** Minimal target size of the cold set. */
+    private final int minColdTarget;
+
+    /** Maximal target size of the cold set. */
+    private final int maxColdTarget;
+
+    /** Target size of the cold set. */
+    private int coldTarget;
+
+    /** Number of hot pages. */
+    private int hotCnt;
+
+    /** Cold hand position. */
+    private int coldHand;
+
+    /** Hot hand position. */
+    private int hotHand;
+
+    /**
+     * @param segIdx Segment index.
+     * @param pages Number of page slots in the segment pool.
+     * @param ptr Pointer to the memory of {@link #requiredMemory(int)} size.
+     */
+    public ClockProPageReplacementPolicy(int segIdx, int pages, long ptr) {
+        assert pages > 0 : pages;
+
+        this.segIdx = segIdx;
+        this.pages = pages;
+
+        statusPtr = ptr;
+        refPtr = ptr + pages;
+
+        GridUnsafe.setMemory(ptr, requiredMemory(pages), (byte)0);
+
+        minColdTarget = Math.max(1, (int)(pages * MIN_COLD_RATIO));
+        maxColdTarget = Math.max(minColdTarget, pages - minColdTarget);
+        coldTarget = Math.max(minColdTarget, (int)(pages * INIT_COLD_RATIO));
+    }
+
+    /**
+     * @param pages Number of page slots.
+     * @return Memory required for policy metadata, in bytes.
+     */
+    public static long requiredMemory(int pages) {
+        return 2L * pages;
+    }
+
+    /**
+     * Marks the page as accessed. May be called without any lock.
+     *
+     * @param relPtr Relative pointer of the page.
+     */
+    public void onHit(long relPtr) {
+        long ref = refPtr + index(relPtr);
+
+        if (GridUnsafe.getByte(ref) == 0)
+            GridUnsafe.putByte(ref, (byte)1);
+    }
+
+    /**
+     * Registers a page newly loaded to the given slot. Must be called under the segment write lock.
+     *
+     * @param relPtr Relative pointer of the page.
+     */
+    public void onMiss(long relPtr) {
+        int idx = index(relPtr);
+
+        if ((status(idx) & HOT) != 0)
+            hotCnt--;
+
+        status(idx, (byte)(RESIDENT | TEST));
+
+        GridUnsafe.putByte(refPtr + idx, (byte)0);
+    }
+
+    /**
+     * Unregisters a page removed from the given slot. Must be called under the segment write lock.
+     *
+     * @param relPtr Relative pointer of the page.
+     */
+    public void onRemove(long relPtr) {
+        int idx = index(relPtr);
+
+        if ((status(idx) & HOT) != 0)
+            hotCnt--;
+
+        status(idx, (byte)0);
+
+        GridUnsafe.putByte(refPtr + idx, (byte)0);
+    }
+
+    /**
+     * Moves cold hand to the next page which is a candidate for replacement. The caller is responsible for checking
+     * whether the candidate may actually be replaced and for calling {@link #onRemove(long)} if it is replaced.
+     * Must be called under the segment write lock.
+     *
+     * @return Relative pointer of the candidate or {@link PageMemoryImpl#INVALID_REL_PTR} if there is no cold page
+     *      without reference flag after two full turns of the hand.
+     */
+    public long nextCandidate() {
+        for (int i = 0; i < 2 * pages; i++) {
+            int idx = coldHand;
+
+            coldHand = next(coldHand);
+
+            byte status = status(idx);
+
+            if ((status & RESIDENT) == 0 || (status & HOT) != 0)
+                continue;
+
+            if (GridUnsafe.getByte(refPtr + idx) != 0) {
+                GridUnsafe.putByte(refPtr + idx, (byte)0);
+
+                if ((status & TEST) != 0) {
+                    // Reuse distance is shorter than the test period: promote and give more room to cold pages.
+                    status(idx, (byte)(RESIDENT | HOT));
+
+                    hotCnt++;
+
+                    if (coldTarget < maxColdTarget)
+                        coldTarget++;
+
+                    runHotHand();
+                }
+                else
+                    status(idx, (byte)(RESIDENT | TEST));
+
+                continue;
+            }
+
+            return (long)idx | ((long)segIdx << 40);
+        }
+
+        return INVALID_REL_PTR;
+    }
+
+    /**
+     * Demotes hot pages until the hot set fits its target size.
+     */
+    private void runHotHand() {
+        for (int i = 0; i < 2 * pages && hotCnt > pages - coldTarget; i++) {
+            int idx = hotHand;
+
+            hotHand = next(hotHand);
+
+            byte status = status(idx);
+
+            if ((status & RESIDENT) == 0)
+                continue;
+
+            if ((status & HOT) != 0) {
+                if (GridUnsafe.getByte(refPtr + idx) != 0)
+                    GridUnsafe.putByte(refPtr + idx, (byte)0);
+                else {
+                    status(idx, RESIDENT);
+
+                    hotCnt--;
+                }
+            }
+            else if ((status & TEST) != 0) {
+                // Test period is over without re-access: shrink the cold set.
+                status(idx, RESIDENT);
+
+                if (coldTarget > minColdTarget)
+                    coldTarget--;
+            }
+        }
+    }
+
+    /**
+     * @return Number of hot pages.
+     */
+    public int hotPages() {
+        return hotCnt;
+    }
+
+    /**
+     * @return Current target size of the cold set.
+     */
+    public int coldTarget() {
+        return coldTarget;
+    }
+
+    /**
+     * @param relPtr Relative pointer.
+     * @return Page slot index.
+     */
+    private int index(long relPtr) {
+        long idx = relPtr & ~SEGMENT_INDEX_MASK;
+
+        assert idx < pages : "idx=" + idx + ", pages=" + pages;
+
+        return (int)idx;
+    }
+
+    /**
+     * @param idx Page slot index.
+     * @return Next slot index of a clock hand.
+     */
+    private int next(int idx) {
+        return idx + 1 == pages ? 0 : idx + 1;
+    }
+
+    /**
+     * @param idx Page slot index.
+     * @return Page status.
+     */
+    private byte status(int idx) {
+        return GridUnsafe.getByte(statusPtr + idx);
+    }
+
+    /**
+     * @param idx Page slot index.
+     * @param status Page status.
+     */
+    private void status(int idx, byte status) {
+        GridUnsafe.putByte(statusPtr + idx, status);
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(ClockProPageReplacementPolicy.class, this);
+    }
+}
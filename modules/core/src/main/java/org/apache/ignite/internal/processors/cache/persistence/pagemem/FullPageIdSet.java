@@ -0,0 +1,408 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.pagemem;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
+
+/**
+ * Concurrent set of page IDs which keeps cache group IDs and page IDs in primitive arrays, so millions of dirty pages
+ * do not produce millions of heap objects. Pages are compared by cache group ID and effective page ID, like
+ * {@link FullPageId#equals(Object)} does.
+ * <p>
+ * The set is split into stripes with separate locks. Every stripe is an open addressing hash table with linear
+ * probing and backward shift deletion. {@link FullPageId} instances are created only by the iterator, which is not
+ * used on hot paths.
+ */
+public class FullPageIdSet extends AbstractCollection<FullPageId> {
+    /** Default number of stripes. */
+    private static final int DFLT_STRIPES = 16;
+
+    /** Initial capacity of a stripe. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Marker of an empty slot, not a valid page ID. */
+    private static final long EMPTY = -1L;
+
+    /** Stripes. */
+    private final Stripe[] stripes;
+
+    /** Shift of a hash code to get a stripe index. */
+    private final int stripeShift;
+
+    /**
+     * Creates a set with the default number of stripes.
+     */
+    public FullPageIdSet() {
+        this(DFLT_STRIPES);
+    }
+
+    /**
+     * @param stripesCnt Number of stripes, a power of 2.
+     */
+    public FullPageIdSet(int stripesCnt) {
+        assert stripesCnt > 0 && Integer.bitCount(stripesCnt) == 1 : stripesCnt;
+
+        stripes = new Stripe[stripesCnt];
+
+        for (int i = 0; i < stripesCnt; i++)
+            stripes[i] = new Stripe();
+
+        stripeShift = 32 - Integer.numberOfTrailingZeros(stripesCnt);
+    }
+
+    /**
+     * @param grpId Cache group ID.
+     * @param pageId Page ID.
+     * @return {@code True} if the page was added, {@code false} if the set already contains it.
+     */
+    public boolean add(int grpId, long pageId) {
+        assert pageId != EMPTY;
+
+        int h = FullPageId.hashCode(grpId, pageId);
+
+        Stripe stripe = stripe(h);
+
+        synchronized (stripe) {
+            return stripe.add(grpId, pageId, h);
+        }
+    }
+
+    /**
+     * @param grpId Cache group ID.
+     * @param pageId Page ID.
+     * @return {@code True} if the page was removed, {@code false} if the set does not contain it.
+     */
+    public boolean remove(int grpId, long pageId) {
+        int h = FullPageId.hashCode(grpId, pageId);
+
+        Stripe stripe = stripe(h);
+
+        synchronized (stripe) {
+            return stripe.remove(grpId, pageId, h);
+        }
+    }
+
+    /**
+     * @param grpId Cache group ID.
+     * @param pageId Page ID.
+     * @return {@code True} if the set contains the page.
+     */
+    public boolean contains(int grpId, long pageId) {
+        int h = FullPageId.hashCode(grpId, pageId);
+
+        Stripe stripe = stripe(h);
+
+        synchronized (stripe) {
+            return stripe.indexOf(grpId, PageIdUtils.effectivePageId(pageId), h) >= 0;
+        }
+    }
+
+    /**
+     * Copies pages of the set to the arrays. Pages added or removed concurrently may be copied or not.
+     *
+     * @param grpIds Destination cache group IDs.
+     * @param pageIds Destination page IDs.
+     * @param off Position of the first copied page in the arrays.
+     * @return Position after the last copied page in the arrays.
+     */
+    public int copyTo(int[] grpIds, long[] pageIds, int off) {
+        assert grpIds.length == pageIds.length;
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                off = stripe.copyTo(grpIds, pageIds, off);
+            }
+        }
+
+        return off;
+    }
+
+    /** {@inheritDoc} */
+    @Override public int size() {
+        int size = 0;
+
+        for (Stripe stripe : stripes)
+            size += stripe.size;
+
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean add(FullPageId fullId) {
+        return add(fullId.groupId(), fullId.pageId());
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean remove(Object o) {
+        if (!(o instanceof FullPageId))
+            return false;
+
+        FullPageId fullId = (FullPageId)o;
+
+        return remove(fullId.groupId(), fullId.pageId());
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean contains(Object o) {
+        if (!(o instanceof FullPageId))
+            return false;
+
+        FullPageId fullId = (FullPageId)o;
+
+        return contains(fullId.groupId(), fullId.pageId());
+    }
+
+    /**
+     * Returns an iterator over a copy of the set, so the iterator does not reflect concurrent modifications.
+     *
+     * @return Iterator.
+     */
+    @Override public Iterator<FullPageId> iterator() {
+        int size = size();
+
+        int[] grpIds = new int[size];
+        long[] pageIds = new long[size];
+
+        int cnt = 0;
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (cnt + stripe.size > grpIds.length) {
+                    int newLen = Math.max(cnt + stripe.size, grpIds.length * 2);
+
+                    grpIds = Arrays.copyOf(grpIds, newLen);
+                    pageIds = Arrays.copyOf(pageIds, newLen);
+                }
+
+                cnt = stripe.copyTo(grpIds, pageIds, cnt);
+            }
+        }
+
+        int size0 = cnt;
+        int[] grpIds0 = grpIds;
+        long[] pageIds0 = pageIds;
+
+        return new Iterator<FullPageId>() {
+            /** */
+            private int idx;
+
+            /** */
+            private FullPageId last;
+
+            /** {@inheritDoc} */
+            @Override public boolean hasNext() {
+                return idx < size0;
+            }
+
+            /** {@inheritDoc} */
+            @Override public FullPageId next() {
+                if (idx >= size0)
+                    throw new NoSuchElementException();
+
+                last = new FullPageId(pageIds0[idx], grpIds0[idx]);
+
+                idx++;
+
+                return last;
+            }
+
+            /** {@inheritDoc} */
+            @Override public void remove() {
+                if (last == null)
+                    throw new IllegalStateException();
+
+                FullPageIdSet.this.remove(last.groupId(), last.pageId());
+
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * @param h Hash code of a page.
+     * @return Stripe of the page.
+     */
+    private Stripe stripe(int h) {
+        return stripeShift == 32 ? stripes[0] : stripes[h >>> stripeShift];
+    }
+
+    /**
+     * Open addressing hash table of a stripe. Guarded by the stripe monitor.
+     */
+    private static class Stripe {
+        /** Cache group IDs. */
+        private int[] grpIds;
+
+        /** Page IDs, {@link #EMPTY} for empty slots. */
+        private long[] pageIds;
+
+        /** Number of pages. Written under the stripe monitor. */
+        private volatile int size;
+
+        /** */
+        private Stripe() {
+            init(INITIAL_CAPACITY);
+        }
+
+        /**
+         * @param cap Capacity, a power of 2.
+         */
+        private void init(int cap) {
+            grpIds = new int[cap];
+            pageIds = new long[cap];
+
+            Arrays.fill(pageIds, EMPTY);
+        }
+
+        /**
+         * @param grpId Cache group ID.
+         * @param effectivePageId Effective page ID.
+         * @param h Hash code of the page.
+         * @return Slot of the page or {@code -1} if the stripe does not contain it.
+         */
+        private int indexOf(int grpId, long effectivePageId, int h) {
+            int mask = pageIds.length - 1;
+
+            for (int idx = h & mask; ; idx = (idx + 1) & mask) {
+                long slotPageId = pageIds[idx];
+
+                if (slotPageId == EMPTY)
+                    return -1;
+
+                if (grpIds[idx] == grpId && PageIdUtils.effectivePageId(slotPageId) == effectivePageId)
+                    return idx;
+            }
+        }
+
+        /**
+         * @param grpId Cache group ID.
+         * @param pageId Page ID.
+         * @param h Hash code of the page.
+         * @return {@code True} if the page was added.
+         */
+        private boolean add(int grpId, long pageId, int h) {
+            long effectivePageId = PageIdUtils.effectivePageId(pageId);
+
+            int mask = pageIds.length - 1;
+
+            int idx = h & mask;
+
+            for (; pageIds[idx] != EMPTY; idx = (idx + 1) & mask) {
+                if (grpIds[idx] == grpId && PageIdUtils.effectivePageId(pageIds[idx]) == effectivePageId)
+                    return false;
+            }
+
+            grpIds[idx] = grpId;
+            pageIds[idx] = pageId;
+
+            int newSize = size + 1;
+
+            size = newSize;
+
+            // Keep load factor below 2/3 for short probe sequences.
+            if (newSize * 3 > pageIds.length * 2)
+                resize(pageIds.length * 2);
+
+            return true;
+        }
+
+        /**
+         * @param grpId Cache group ID.
+         * @param pageId Page ID.
+         * @param h Hash code of the page.
+         * @return {@code True} if the page was removed.
+         */
+        private boolean remove(int grpId, long pageId, int h) {
+            int hole = indexOf(grpId, PageIdUtils.effectivePageId(pageId), h);
+
+            if (hole < 0)
+                return false;
+
+            int mask = pageIds.length - 1;
+
+            // Shift back pages of the probe sequence, which follows the removed page, to keep them reachable.
+            for (int idx = (hole + 1) & mask; pageIds[idx] != EMPTY; idx = (idx + 1) & mask) {
+                int home = FullPageId.hashCode(grpIds[idx], pageIds[idx]) & mask;
+
+                boolean reachable = hole <= idx ? (home > hole && home <= idx) : (home > hole || home <= idx);
+
+                if (!reachable) {
+                    grpIds[hole] = grpIds[idx];
+                    pageIds[hole] = pageIds[idx];
+
+                    hole = idx;
+                }
+            }
+
+            pageIds[hole] = EMPTY;
+
+            size = size - 1;
+
+            return true;
+        }
+
+        /**
+         * @param dstGrpIds Destination cache group IDs.
+         * @param dstPageIds Destination page IDs.
+         * @param off Position of the first copied page.
+         * @return Position after the last copied page.
+         */
+        private int copyTo(int[] dstGrpIds, long[] dstPageIds, int off) {
+            for (int i = 0; i < pageIds.length && off < dstPageIds.length; i++) {
+                if (pageIds[i] != EMPTY) {
+                    dstGrpIds[off] = grpIds[i];
+                    dstPageIds[off++] = pageIds[i];
+                }
+            }
+
+            return off;
+        }
+
+        /**
+         * @param cap New capacity, a power of 2.
+         */
+        private void resize(int cap) {
+            int[] oldGrpIds = grpIds;
+            long[] oldPageIds = pageIds;
+
+            init(cap);
+
+            int mask = cap - 1;
+
+            for (int i = 0; i < oldPageIds.length; i++) {
+                long pageId = oldPageIds[i];
+
+                if (pageId == EMPTY)
+                    continue;
+
+                int idx = FullPageId.hashCode(oldGrpIds[i], pageId) & mask;
+
+                while (pageIds[idx] != EMPTY)
+                    idx = (idx + 1) & mask;
+
+                grpIds[idx] = oldGrpIds[i];
+                pageIds[idx] = pageId;
+            }
+        }
+    }
+}
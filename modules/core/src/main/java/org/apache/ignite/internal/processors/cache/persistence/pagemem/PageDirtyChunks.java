@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.internal.processors.cache.persistence.pagemem;
+
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.apache.ignite.internal.util.typedef.internal.S;
+
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagePool.SEGMENT_INDEX_MASK;
+import static org.apache.ignite.internal.util.GridUnsafe.BYTE_ARR_OFF;
+
+/**
+ * Tracks parts of loaded pages changed since the page was written to the page store last time, see
+ * {@link IgniteSystemProperties#IGNITE_INCREMENTAL_CHECKPOINT}.
+ * <p>
+ * A page is split into {@link #CHUNKS} chunks of equal size, changed chunks of a page are kept as a bit mask in
+ * an off-heap array of the segment indexed by the page slot. The mask is updated when the page write lock is
+ * released by comparing the page with its image taken when the lock was acquired, so every change made under the
+ * page write lock is tracked. Pages which content is not known to match the page store (new pages, pages restored
+ * from WAL) are marked as fully changed.
+ * <p>
+ * The mask of a page is changed only under the page write lock or under the segment write lock for a page which
+ * is being loaded, so no additional synchronization is needed.
+ */
+public class PageDirtyChunks {
+    /** Number of chunks in a page. */
+    public static final int CHUNKS = Long.SIZE;
+
+    /** Mask of a fully changed page. */
+    public static final long ALL = -1L;
+
+    /** Maximum number of page images a thread can hold, pages locked above the limit are marked as fully changed. */
+    private static final int MAX_IMAGES = 8;
+
+    /** Page size. */
+    private final int pageSize;
+
+    /** Chunk size. */
+    private final int chunkSize;
+
+    /** Pointers to mask arrays of segments. */
+    private final long[] segPtrs;
+
+    /** Images of pages write locked by the current thread. */
+    private final ThreadLocal<PageImages> images;
+
+    /**
+     * @param pageSize Page size.
+     * @param segments Number of segments.
+     */
+    public PageDirtyChunks(int pageSize, int segments) {
+        assert pageSize % (CHUNKS * 8) == 0 : pageSize;
+
+        this.pageSize = pageSize;
+
+        chunkSize = chunkSize(pageSize);
+        segPtrs = new long[segments];
+        images = ThreadLocal.withInitial(() -> new PageImages(pageSize));
+    }
+
+    /**
+     * @param pageSize Page size.
+     * @return Size of a chunk in bytes.
+     */
+    public static int chunkSize(int pageSize) {
+        return pageSize / CHUNKS;
+    }
+
+    /**
+     * @param dirtyChunks Mask of changed chunks.
+     * @param pageSize Page size.
+     * @return Number of changed bytes.
+     */
+    public static int changedBytes(long dirtyChunks, int pageSize) {
+        return Long.bitCount(dirtyChunks) * chunkSize(pageSize);
+    }
+
+    /**
+     * @param pages Number of page slots in a segment.
+     * @return Memory required for masks of a segment, in bytes.
+     */
+    public static long requiredMemory(int pages) {
+        return 8L * pages;
+    }
+
+    /**
+     * Registers masks array of a segment.
+     *
+     * @param segIdx Segment index.
+     * @param ptr Pointer to the memory of {@link #requiredMemory(int)} size.
+     * @param pages Number of page slots in the segment.
+     */
+    public void register(int segIdx, long ptr, int pages) {
+        GridUnsafe.setMemory(ptr, requiredMemory(pages), (byte)0);
+
+        segPtrs[segIdx] = ptr;
+    }
+
+    /**
+     * Marks a page just put to the slot as fully changed.
+     *
+     * @param relPtr Relative pointer of the page.
+     */
+    public void onLoaded(long relPtr) {
+        GridUnsafe.putLong(address(relPtr), ALL);
+    }
+
+    /**
+     * Marks a page as equal to its version in the page store.
+     *
+     * @param absPtr Absolute pointer of the page read from the page store.
+     */
+    public void onRead(long absPtr) {
+        GridUnsafe.putLong(address(PageHeader.readRelative(absPtr)), 0L);
+    }
+
+    /**
+     * Takes an image of the page if it is not fully changed yet. Must be called under the page write lock.
+     *
+     * @param absPtr Absolute pointer of the page.
+     * @param pageAddr Page address.
+     */
+    public void onWriteLock(long absPtr, long pageAddr) {
+        long addr = address(PageHeader.readRelative(absPtr));
+
+        if (GridUnsafe.getLong(addr) == ALL)
+            return;
+
+        if (!images.get().take(absPtr, pageAddr))
+            GridUnsafe.putLong(addr, ALL);
+    }
+
+    /**
+     * Updates the mask of the page if the page was changed. Must be called under the page write lock.
+     *
+     * @param absPtr Absolute pointer of the page.
+     * @param pageAddr Page address.
+     * @param changed Whether the page was changed under the lock.
+     */
+    public void onWriteUnlock(long absPtr, long pageAddr, boolean changed) {
+        PageImages imgs = images.get();
+
+        int idx = imgs.indexOf(absPtr);
+
+        if (idx < 0) {
+            // Image was not taken because the page was fully changed already or the lock was taken by another thread.
+            if (changed)
+                GridUnsafe.putLong(address(PageHeader.readRelative(absPtr)), ALL);
+
+            return;
+        }
+
+        if (changed) {
+            long addr = address(PageHeader.readRelative(absPtr));
+
+            GridUnsafe.putLong(addr, GridUnsafe.getLong(addr) | diff(imgs.bufs[idx], pageAddr));
+        }
+
+        imgs.ptrs[idx] = 0L;
+    }
+
+    /**
+     * Returns changed chunks of the page copied to be written by checkpoint and resets them. Must be called under
+     * the page write lock.
+     *
+     * @param absPtr Absolute pointer of the page.
+     * @return Mask of changed chunks.
+     */
+    public long onCheckpointCopy(long absPtr) {
+        long addr = address(PageHeader.readRelative(absPtr));
+
+        long dirtyChunks = GridUnsafe.getLong(addr);
+
+        GridUnsafe.putLong(addr, 0L);
+
+        return dirtyChunks;
+    }
+
+    /**
+     * Resets changed chunks of the page copied to the checkpoint buffer, the copy is written by checkpoint as a whole
+     * page. Must be called under the page write lock.
+     *
+     * @param absPtr Absolute pointer of the page.
+     */
+    public void onCopiedOnWrite(long absPtr) {
+        GridUnsafe.putLong(address(PageHeader.readRelative(absPtr)), 0L);
+    }
+
+    /**
+     * @param img Page image.
+     * @param pageAddr Page address.
+     * @return Mask of chunks which differ from the image.
+     */
+    private long diff(byte[] img, long pageAddr) {
+        long res = 0;
+
+        for (int chunk = 0, off = 0; chunk < CHUNKS; chunk++, off += chunkSize) {
+            for (int i = off; i < off + chunkSize; i += 8) {
+                if (GridUnsafe.getLong(pageAddr + i) != GridUnsafe.getLong(img, BYTE_ARR_OFF + i)) {
+                    res |= 1L << chunk;
+
+                    break;
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * @param relPtr Relative pointer of the page.
+     * @return Address of the page mask.
+     */
+    private long address(long relPtr) {
+        int segIdx = (int)((relPtr & SEGMENT_INDEX_MASK) >>> 40);
+
+        return segPtrs[segIdx] + 8L * (relPtr & ~SEGMENT_INDEX_MASK);
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(PageDirtyChunks.class, this);
+    }
+
+    /**
+     * Images of pages write locked by a thread.
+     */
+    private static class PageImages {
+        /** Absolute pointers of pages, {@code 0} for a free slot. */
+        private final long[] ptrs = new long[MAX_IMAGES];
+
+        /** Page images. */
+        private final byte[][] bufs = new byte[MAX_IMAGES][];
+
+        /** Page size. */
+        private final int pageSize;
+
+        /**
+         * @param pageSize Page size.
+         */
+        private PageImages(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * @param absPtr Absolute pointer of the page.
+         * @param pageAddr Page address.
+         * @return {@code False} if there is no free slot for the image.
+         */
+        private boolean take(long absPtr, long pageAddr) {
+            for (int i = 0; i < MAX_IMAGES; i++) {
+                if (ptrs[i] == 0L) {
+                    if (bufs[i] == null)
+                        bufs[i] = new byte[pageSize];
+
+                    GridUnsafe.copyOffheapHeap(pageAddr, bufs[i], BYTE_ARR_OFF, pageSize);
+
+                    ptrs[i] = absPtr;
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * @param absPtr Absolute pointer of the page.
+         * @return Index of the image or {@code -1} if the image was not taken.
+         */
+        private int indexOf(long absPtr) {
+            for (int i = 0; i < MAX_IMAGES; i++) {
+                if (ptrs[i] == absPtr)
+                    return i;
+            }
+
+            return -1;
+        }
+    }
+}
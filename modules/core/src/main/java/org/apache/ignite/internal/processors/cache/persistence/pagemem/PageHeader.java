@@ -18,6 +18,7 @@
 package org.apache.ignite.internal.processors.cache.persistence.pagemem;
 
 import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
 import org.apache.ignite.internal.util.GridUnsafe;
 
 /**
@@ -45,6 +46,12 @@ class PageHeader {
     /** Page temp copy buffer relative pointer offset. */
     private static final int PAGE_TMP_BUF_OFFSET = 40;
 
+    /**
+     * Pin counter increment of an optimistic lookup which has not validated the page yet. Such pins are kept apart
+     * from the low bits counting the regular pins.
+     */
+    private static final int OPTIMISTIC_PIN = 1 << 20;
+
     /**
      * @param absPtr Absolute pointer to initialize.
      * @param relative Relative pointer to write.
@@ -137,6 +144,45 @@ class PageHeader {
         return GridUnsafe.decrementAndGetInt(absPtr + PAGE_PIN_CNT_OFFSET);
     }
 
+    /**
+     * Pins the page for an optimistic lookup, which must either {@link #confirmOptimisticPin(long) confirm} or
+     * {@link #releaseOptimisticPin(long) release} the pin. The page is not evicted while it is pinned.
+     *
+     * @param absPtr Absolute pointer.
+     */
+    public static void acquireOptimisticPin(long absPtr) {
+        GridUnsafe.addAndGetInt(absPtr + PAGE_PIN_CNT_OFFSET, OPTIMISTIC_PIN);
+    }
+
+    /**
+     * Converts the pin of a validated optimistic lookup to a regular one.
+     *
+     * @param absPtr Absolute pointer.
+     */
+    public static void confirmOptimisticPin(long absPtr) {
+        GridUnsafe.addAndGetInt(absPtr + PAGE_PIN_CNT_OFFSET, 1 - OPTIMISTIC_PIN);
+    }
+
+    /**
+     * Releases the pin of an optimistic lookup which failed validation.
+     *
+     * @param absPtr Absolute pointer.
+     */
+    public static void releaseOptimisticPin(long absPtr) {
+        GridUnsafe.addAndGetInt(absPtr + PAGE_PIN_CNT_OFFSET, -OPTIMISTIC_PIN);
+    }
+
+    /**
+     * Checks regular pins only. A page may be taken for another page ID under the segment write lock while an
+     * optimistic lookup, which has read the loaded pages table before, holds an unvalidated pin on it.
+     *
+     * @param absPtr Absolute pointer.
+     * @return If the page is pinned by a regular or a validated optimistic acquire.
+     */
+    public static boolean isAcquiredRegular(long absPtr) {
+        return (GridUnsafe.getInt(absPtr + PAGE_PIN_CNT_OFFSET) & (OPTIMISTIC_PIN - 1)) != 0;
+    }
+
     /**
      * @param absPtr Absolute pointer.
      * @return Number of acquires for the page.
@@ -260,6 +306,17 @@ class PageHeader {
         return new FullPageId(readPageId(absPtr), readPageGroupId(absPtr));
     }
 
+    /**
+     * @param absPtr Absolute memory pointer to the page header.
+     * @param grpId Cache group ID.
+     * @param pageId Page ID.
+     * @return {@code True} if the page is written for the given cache group and effective page ID.
+     */
+    public static boolean holds(final long absPtr, int grpId, long pageId) {
+        return readPageGroupId(absPtr) == grpId &&
+            PageIdUtils.effectivePageId(readPageId(absPtr)) == PageIdUtils.effectivePageId(pageId);
+    }
+
     /**
      * Writes page ID and cache group ID from the page at the given absolute pointer.
      *
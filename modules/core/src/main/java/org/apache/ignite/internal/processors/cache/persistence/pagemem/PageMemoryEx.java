@@ -144,6 +144,17 @@ public interface PageMemoryEx extends PageMemory {
          CheckpointMetricsTracker tracker
      ) throws IgniteCheckedException;
 
+    /**
+     * Acquires the page passed to {@link PageStoreWriter} by {@link #checkpointWritePage}, so that the page is not
+     * replaced and loaded from the page store again until it is released by {@link #releasePage(int, long, long)}.
+     * It allows to write the copy of the page after the writer returns. Must be called by the writer.
+     *
+     * @param fullId Full page ID.
+     * @return Page pointer, or {@code 0} if the page can not be acquired and must be written before the writer
+     *      returns.
+     */
+    public long acquireCheckpointPage(FullPageId fullId);
+
      /** */
      public PageReadWriteManager pageManager();
 
@@ -21,12 +21,12 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
@@ -42,6 +42,7 @@ import org.apache.ignite.IgniteLogger;
 import org.apache.ignite.IgniteSystemProperties;
 import org.apache.ignite.configuration.DataRegionConfiguration;
 import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.PageReplacementMode;
 import org.apache.ignite.events.EventType;
 import org.apache.ignite.events.PageReplacementStartedEvent;
 import org.apache.ignite.failure.FailureContext;
@@ -81,7 +82,6 @@ import org.apache.ignite.internal.processors.cache.persistence.wal.WALPointer;
 import org.apache.ignite.internal.processors.cache.persistence.wal.crc.IgniteDataIntegrityViolationException;
 import org.apache.ignite.internal.processors.compress.CompressionProcessor;
 import org.apache.ignite.internal.processors.query.GridQueryRowCacheCleaner;
-import org.apache.ignite.internal.util.GridConcurrentHashSet;
 import org.apache.ignite.internal.util.GridLongList;
 import org.apache.ignite.internal.util.GridMultiCollectionWrapper;
 import org.apache.ignite.internal.util.GridUnsafe;
@@ -102,7 +102,9 @@ import org.jetbrains.annotations.TestOnly;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_DELAYED_REPLACED_PAGE_WRITE;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_INCREMENTAL_CHECKPOINT;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_LOADED_PAGES_BACKWARD_SHIFT_MAP;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP;
 import static org.apache.ignite.IgniteSystemProperties.getBoolean;
 import static org.apache.ignite.internal.pagemem.FullPageId.NULL_PAGE;
 import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PagePool.SEGMENT_INDEX_MASK;
@@ -169,6 +171,12 @@ public class PageMemoryImpl implements PageMemoryEx {
     /** @see IgniteSystemProperties#IGNITE_LOADED_PAGES_BACKWARD_SHIFT_MAP */
     public static final boolean DFLT_LOADED_PAGES_BACKWARD_SHIFT_MAP = true;
 
+    /** @see IgniteSystemProperties#IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP */
+    public static final boolean DFLT_OPTIMISTIC_LOADED_PAGES_LOOKUP = true;
+
+    /** @see IgniteSystemProperties#IGNITE_INCREMENTAL_CHECKPOINT */
+    public static final boolean DFLT_INCREMENTAL_CHECKPOINT = false;
+
     /** Tracking io. */
     private static final TrackingPageIO trackingIO = TrackingPageIO.VERSIONS.latest();
 
@@ -192,6 +200,13 @@ public class PageMemoryImpl implements PageMemoryEx {
     private final boolean useBackwardShiftMap =
         IgniteSystemProperties.getBoolean(IGNITE_LOADED_PAGES_BACKWARD_SHIFT_MAP, DFLT_LOADED_PAGES_BACKWARD_SHIFT_MAP);
 
+    /** Resolve already loaded pages without taking the segment lock. */
+    private final boolean optimisticLookup =
+        IgniteSystemProperties.getBoolean(IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP, DFLT_OPTIMISTIC_LOADED_PAGES_LOOKUP);
+
+    /** Changed chunks of loaded pages, {@code null} if incremental checkpoint is disabled. */
+    @Nullable private final PageDirtyChunks dirtyChunks;
+
     /** */
     private final ExecutorService asyncRunner;
 
@@ -253,6 +268,9 @@ public class PageMemoryImpl implements PageMemoryEx {
     /** Checkpoint progress provider. Null disables throttling. */
     @Nullable private final IgniteOutClosure<CheckpointProgress> cpProgressProvider;
 
+    /** Page replacement mode. */
+    private final PageReplacementMode pageReplacementMode;
+
     /** Field updater. */
     private static final AtomicIntegerFieldUpdater<PageMemoryImpl> pageReplacementWarnedFieldUpdater =
         AtomicIntegerFieldUpdater.newUpdater(PageMemoryImpl.class, "pageReplacementWarned");
@@ -296,6 +314,38 @@ public class PageMemoryImpl implements PageMemoryEx {
         DataRegionMetricsImpl memMetrics,
         @Nullable ThrottlingPolicy throttlingPlc,
         IgniteOutClosure<CheckpointProgress> cpProgressProvider
+    ) {
+        this(directMemoryProvider, sizes, ctx, pmPageMgr, pageSize, flushDirtyPage, changeTracker, stateChecker,
+            memMetrics, throttlingPlc, cpProgressProvider, DataRegionConfiguration.DFLT_PAGE_REPLACEMENT_MODE);
+    }
+
+    /**
+     * @param directMemoryProvider Memory allocator to use.
+     * @param sizes segments sizes, last is checkpoint pool size.
+     * @param ctx Cache shared context.
+     * @param pmPageMgr Page store manager.
+     * @param pageSize Page size.
+     * @param flushDirtyPage write callback invoked when a dirty page is removed for replacement.
+     * @param changeTracker Callback invoked to track changes in pages.
+     * @param stateChecker Checkpoint lock state provider. Used to ensure lock is held by thread, which modify pages.
+     * @param memMetrics Memory metrics to track dirty pages count and page replace rate.
+     * @param throttlingPlc Write throttle enabled and its type. Null equal to none.
+     * @param cpProgressProvider checkpoint progress, base for throttling. Null disables throttling.
+     * @param pageReplacementMode Page replacement mode.
+     */
+    public PageMemoryImpl(
+        DirectMemoryProvider directMemoryProvider,
+        long[] sizes,
+        GridCacheSharedContext<?, ?> ctx,
+        PageReadWriteManager pmPageMgr,
+        int pageSize,
+        PageStoreWriter flushDirtyPage,
+        @Nullable GridInClosure3X<Long, FullPageId, PageMemoryEx> changeTracker,
+        CheckpointLockStateChecker stateChecker,
+        DataRegionMetricsImpl memMetrics,
+        @Nullable ThrottlingPolicy throttlingPlc,
+        IgniteOutClosure<CheckpointProgress> cpProgressProvider,
+        PageReplacementMode pageReplacementMode
     ) {
         assert ctx != null;
         assert pageSize > 0;
@@ -311,10 +361,14 @@ public class PageMemoryImpl implements PageMemoryEx {
             getBoolean(IGNITE_DELAYED_REPLACED_PAGE_WRITE, DFLT_DELAYED_REPLACED_PAGE_WRITE)
                 ? new DelayedPageReplacementTracker(pageSize, flushDirtyPage, log, sizes.length - 1) :
                 null;
+        dirtyChunks = getBoolean(IGNITE_INCREMENTAL_CHECKPOINT, DFLT_INCREMENTAL_CHECKPOINT)
+            ? new PageDirtyChunks(pageSize, sizes.length - 1)
+            : null;
         this.changeTracker = changeTracker;
         this.stateChecker = stateChecker;
         this.throttlingPlc = throttlingPlc != null ? throttlingPlc : ThrottlingPolicy.CHECKPOINT_BUFFER_ONLY;
         this.cpProgressProvider = cpProgressProvider;
+        this.pageReplacementMode = pageReplacementMode;
 
         this.pmPageMgr = pmPageMgr;
         walMgr = ctx.wal();
@@ -414,6 +468,14 @@ public class PageMemoryImpl implements PageMemoryEx {
             writeThrottle = new PagesWriteThrottle(this, cpProgressProvider, stateChecker, false, log);
         else if (throttlingPlc == ThrottlingPolicy.CHECKPOINT_BUFFER_ONLY)
             writeThrottle = new PagesWriteThrottle(this, null, stateChecker, true, log);
+        else if (throttlingPlc == ThrottlingPolicy.ADAPTIVE) {
+            PagesWriteAdaptiveThrottle adaptiveThrottle =
+                new PagesWriteAdaptiveThrottle(this, cpProgressProvider, stateChecker, log);
+
+            memMetrics.adaptiveThrottle(adaptiveThrottle);
+
+            writeThrottle = adaptiveThrottle;
+        }
     }
 
     /** {@inheritDoc} */
@@ -574,7 +636,7 @@ public class PageMemoryImpl implements PageMemoryEx {
 
             assert PageIO.getCrc(absPtr + PAGE_OVERHEAD) == 0; //TODO GG-11480
 
-            assert !PageHeader.isAcquired(absPtr) :
+            assert !PageHeader.isAcquiredRegular(absPtr) :
                 "Pin counter must be 0 for a new page [relPtr=" + U.hexLong(relPtr) +
                     ", absPtr=" + U.hexLong(absPtr) + ", pinCntr=" + PageHeader.pinCount(absPtr) + ']';
 
@@ -607,6 +669,8 @@ public class PageMemoryImpl implements PageMemoryEx {
             }
 
             seg.loadedPages.put(grpId, PageIdUtils.effectivePageId(pageId), relPtr, seg.partGeneration(grpId, partId));
+
+            seg.onPageLoaded(relPtr);
         }
         catch (IgniteOutOfMemoryException oom) {
             DataRegionConfiguration dataRegionCfg = getDataRegionConfiguration();
@@ -722,6 +786,16 @@ public class PageMemoryImpl implements PageMemoryEx {
 
         Segment seg = segment(grpId, pageId);
 
+        if (optimisticLookup) {
+            long absPtr = seg.acquireLoadedPageOptimistic(grpId, pageId, partId);
+
+            if (absPtr != 0L) {
+                statHolder.trackLogicalRead(absPtr + PAGE_OVERHEAD);
+
+                return absPtr;
+            }
+        }
+
         seg.readLock().lock();
 
         try {
@@ -739,6 +813,8 @@ public class PageMemoryImpl implements PageMemoryEx {
 
                 seg.acquirePage(absPtr);
 
+                seg.onPageHit(relPtr);
+
                 statHolder.trackLogicalRead(absPtr + PAGE_OVERHEAD);
 
                 return absPtr;
@@ -784,7 +860,7 @@ public class PageMemoryImpl implements PageMemoryEx {
                 PageHeader.fullPageId(absPtr, fullId);
                 PageHeader.writeTimestamp(absPtr, U.currentTimeMillis());
 
-                assert !PageHeader.isAcquired(absPtr) :
+                assert !PageHeader.isAcquiredRegular(absPtr) :
                     "Pin counter must be 0 for a new page [relPtr=" + U.hexLong(relPtr) +
                         ", absPtr=" + U.hexLong(absPtr) + ']';
 
@@ -798,6 +874,10 @@ public class PageMemoryImpl implements PageMemoryEx {
                     seg.partGeneration(grpId, partId)
                 );
 
+                seg.onPageLoaded(relPtr);
+
+                memMetrics.onPageMiss();
+
                 long pageAddr = absPtr + PAGE_OVERHEAD;
 
                 if (!restore) {
@@ -838,15 +918,22 @@ public class PageMemoryImpl implements PageMemoryEx {
                 PageHeader.writeTimestamp(absPtr, U.currentTimeMillis());
                 PageIO.setPageId(pageAddr, pageId);
 
-                assert !PageHeader.isAcquired(absPtr) :
+                assert !PageHeader.isAcquiredRegular(absPtr) :
                     "Pin counter must be 0 for a new page [relPtr=" + U.hexLong(relPtr) +
                         ", absPtr=" + U.hexLong(absPtr) + ']';
 
                 rwLock.init(absPtr + PAGE_LOCK_OFFSET, PageIdUtils.tag(pageId));
+
+                seg.onPageLoaded(relPtr);
+
+                memMetrics.onPageMiss();
             }
-            else
+            else {
                 absPtr = seg.absolute(relPtr);
 
+                seg.onPageHit(relPtr);
+            }
+
             seg.acquirePage(absPtr);
 
             if (!readPageFromStore)
@@ -885,6 +972,9 @@ public class PageMemoryImpl implements PageMemoryEx {
                     actualPageId = PageIO.getPageId(buf);
 
                     memMetrics.onPageRead();
+
+                    if (dirtyChunks != null)
+                        dirtyChunks.onRead(lockedPageAbsPtr);
                 }
                 catch (IgniteDataIntegrityViolationException e) {
                     U.warn(log, "Failed to read page (data integrity violation encountered, will try to " +
@@ -939,18 +1029,21 @@ public class PageMemoryImpl implements PageMemoryEx {
             releaseCheckpointBufferPage(tmpBufPtr);
         }
 
-        if (rmv)
+        if (rmv) {
             seg.loadedPages.remove(grpId, PageIdUtils.effectivePageId(pageId));
 
+            seg.onPageRemoved(relPtr);
+        }
+
         CheckpointPages cpPages = seg.checkpointPages;
 
         if (cpPages != null)
             cpPages.markAsSaved(new FullPageId(pageId, grpId));
 
-        Collection<FullPageId> dirtyPages = seg.dirtyPages;
+        FullPageIdSet dirtyPages = seg.dirtyPages;
 
         if (dirtyPages != null) {
-            if (dirtyPages.remove(new FullPageId(pageId, grpId)))
+            if (dirtyPages.remove(grpId, pageId))
                 seg.dirtyPagesCntr.decrementAndGet();
         }
 
@@ -1145,7 +1238,7 @@ public class PageMemoryImpl implements PageMemoryEx {
             if (seg.checkpointPages != null)
                 throw new IgniteException("Failed to begin checkpoint (it is already in progress).");
 
-            Collection<FullPageId> dirtyPages = seg.dirtyPages;
+            FullPageIdSet dirtyPages = seg.dirtyPages;
             collections[i] = dirtyPages;
 
             seg.checkpointPages = new CheckpointPages(dirtyPages, allowToReplace);
@@ -1314,6 +1407,9 @@ public class PageMemoryImpl implements PageMemoryEx {
             return;
         }
 
+        // Pages copied on write are written as a whole.
+        long pageDirtyChunks = PageDirtyChunks.ALL;
+
         try {
             long tmpRelPtr = PageHeader.tempBufferPointer(absPtr);
 
@@ -1342,6 +1438,9 @@ public class PageMemoryImpl implements PageMemoryEx {
                 copyInBuffer(absPtr, buf);
 
                 PageHeader.dirty(absPtr, false);
+
+                if (dirtyChunks != null)
+                    pageDirtyChunks = dirtyChunks.onCheckpointCopy(absPtr);
             }
 
             assert PageIO.getType(buf) != 0 : "Invalid state. Type is 0! pageId = " + U.hexLong(fullId.pageId());
@@ -1355,7 +1454,7 @@ public class PageMemoryImpl implements PageMemoryEx {
             if (canWrite) {
                 buf.rewind();
 
-                pageStoreWriter.writePage(fullId, buf, tag);
+                pageStoreWriter.writePage(fullId, buf, tag, pageDirtyChunks);
 
                 memMetrics.onPageWritten();
 
@@ -1368,6 +1467,32 @@ public class PageMemoryImpl implements PageMemoryEx {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override public long acquireCheckpointPage(FullPageId fullId) {
+        Segment seg = segment(fullId.groupId(), fullId.pageId());
+
+        seg.readLock().lock();
+
+        try {
+            long relPtr = resolveRelativePointer(seg, fullId, generationTag(seg, fullId));
+
+            if (relPtr == INVALID_REL_PTR || relPtr == OUTDATED_REL_PTR)
+                return 0;
+
+            long absPtr = seg.absolute(relPtr);
+
+            // The page is pinned by checkpoint while the writer is called, so it can not be replaced yet.
+            assert PageHeader.isAcquired(absPtr) : fullId;
+
+            seg.acquirePage(absPtr);
+
+            return absPtr;
+        }
+        finally {
+            seg.readLock().unlock();
+        }
+    }
+
     /**
      * @param absPtr Absolute ptr.
      * @param buf Tmp buffer.
@@ -1682,8 +1807,15 @@ public class PageMemoryImpl implements PageMemoryEx {
 
             assert PageIO.getCrc(absPtr + PAGE_OVERHEAD) == 0; //TODO GG-11480
             assert PageIO.getCrc(tmpAbsPtr + PAGE_OVERHEAD) == 0; //TODO GG-11480
+
+            // The copy will be written as a whole page.
+            if (dirtyChunks != null)
+                dirtyChunks.onCopiedOnWrite(absPtr);
         }
 
+        if (dirtyChunks != null)
+            dirtyChunks.onWriteLock(absPtr, absPtr + PAGE_OVERHEAD);
+
         assert PageIO.getCrc(absPtr + PAGE_OVERHEAD) == 0; //TODO GG-11480
 
         return absPtr + PAGE_OVERHEAD;
@@ -1724,6 +1856,9 @@ public class PageMemoryImpl implements PageMemoryEx {
         }
         // Always release the lock.
         finally {
+            if (dirtyChunks != null)
+                dirtyChunks.onWriteUnlock(page, page + PAGE_OVERHEAD, markDirty);
+
             long pageId = PageIO.getPageId(page + PAGE_OVERHEAD);
 
             try {
@@ -1857,7 +1992,7 @@ public class PageMemoryImpl implements PageMemoryEx {
             if (!wasDirty || forceAdd) {
                 Segment seg = segment(pageId.groupId(), pageId.pageId());
 
-                if (seg.dirtyPages.add(pageId)) {
+                if (seg.dirtyPages.add(pageId.groupId(), pageId.pageId())) {
                     long dirtyPagesCnt = seg.dirtyPagesCntr.incrementAndGet();
 
                     if (dirtyPagesCnt >= seg.maxDirtyPages)
@@ -1870,7 +2005,7 @@ public class PageMemoryImpl implements PageMemoryEx {
         else {
             Segment seg = segment(pageId.groupId(), pageId.pageId());
 
-            if (seg.dirtyPages.remove(pageId)) {
+            if (seg.dirtyPages.remove(pageId.groupId(), pageId.pageId())) {
                 seg.dirtyPagesCntr.decrementAndGet();
 
                 memMetrics.decrementDirtyPages();
@@ -1970,6 +2105,77 @@ public class PageMemoryImpl implements PageMemoryEx {
         return res;
     }
 
+    /**
+     * Segment write lock which makes the segment modification stamp odd for the time the lock is held.
+     */
+    private static class SegmentWriteLock extends ReentrantReadWriteLock.WriteLock {
+        /** */
+        private static final long serialVersionUID = 0L;
+
+        /** Modification stamp. */
+        private final AtomicLong modStamp;
+
+        /**
+         * @param lock Segment lock.
+         * @param modStamp Modification stamp.
+         */
+        private SegmentWriteLock(ReentrantReadWriteLock lock, AtomicLong modStamp) {
+            super(lock);
+
+            this.modStamp = modStamp;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void lock() {
+            super.lock();
+
+            onLocked();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void lockInterruptibly() throws InterruptedException {
+            super.lockInterruptibly();
+
+            onLocked();
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean tryLock() {
+            if (!super.tryLock())
+                return false;
+
+            onLocked();
+
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!super.tryLock(timeout, unit))
+                return false;
+
+            onLocked();
+
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void unlock() {
+            if (getHoldCount() == 1)
+                modStamp.incrementAndGet();
+
+            super.unlock();
+        }
+
+        /**
+         * Marks the segment as being modified on the first (non-reentrant) acquisition.
+         */
+        private void onLocked() {
+            if (getHoldCount() == 1)
+                modStamp.incrementAndGet();
+        }
+    }
+
     /**
      *
      */
@@ -1989,6 +2195,18 @@ public class PageMemoryImpl implements PageMemoryEx {
         /** Page ID to relative pointer map. */
         private final LoadedPagesMap loadedPages;
 
+        /**
+         * Modification stamp of the segment. It is odd while the write lock is held, so {@link #loadedPages} and
+         * {@link #partGenerationMap} may be read optimistically if the stamp is even and is not changed after the read.
+         */
+        private final AtomicLong modStamp = new AtomicLong();
+
+        /** Write lock that maintains {@link #modStamp}. */
+        private final SegmentWriteLock writeLock = new SegmentWriteLock(this, modStamp);
+
+        /** CLOCK-Pro replacement policy, {@code null} if Random-LRU is used. */
+        @Nullable private final ClockProPageReplacementPolicy replacementPlc;
+
         /** Pointer to acquired pages integer counter. */
         private long acquiredPagesPtr;
 
@@ -1999,7 +2217,7 @@ public class PageMemoryImpl implements PageMemoryEx {
         private long memPerTbl;
 
         /** Pages marked as dirty since the last checkpoint. */
-        private volatile Collection<FullPageId> dirtyPages = new GridConcurrentHashSet<>();
+        private volatile FullPageIdSet dirtyPages = new FullPageIdSet();
 
         /** Atomic size counter for {@link #dirtyPages}. Used for {@link PageMemoryImpl#safeToUpdate()} calculation. */
         private final AtomicLong dirtyPagesCntr = new AtomicLong();
@@ -2014,7 +2232,7 @@ public class PageMemoryImpl implements PageMemoryEx {
         private static final int INIT_PART_GENERATION = 1;
 
         /** Maps partition (grpId, partId) to its generation. Generation is 1-based incrementing partition counter. */
-        private final Map<GroupPartitionId, Integer> partGenerationMap = new HashMap<>();
+        private final Map<GroupPartitionId, Integer> partGenerationMap = new ConcurrentHashMap<>();
 
         /** */
         private boolean closed;
@@ -2044,7 +2262,26 @@ public class PageMemoryImpl implements PageMemoryEx {
                 ? new RobinHoodBackwardShiftHashMap(ldPagesAddr, memPerTbl)
                 : new FullPageIdTable(ldPagesAddr, memPerTbl, true);
 
-            DirectMemoryRegion poolRegion = region.slice(memPerTbl + ldPagesMapOffInRegion);
+            long replPlcMem = 0;
+
+            if (pageReplacementMode == PageReplacementMode.CLOCK_PRO) {
+                replPlcMem = ClockProPageReplacementPolicy.requiredMemory(pages);
+
+                replacementPlc = new ClockProPageReplacementPolicy(idx, pages, ldPagesAddr + memPerTbl);
+            }
+            else
+                replacementPlc = null;
+
+            long dirtyChunksMem = 0;
+
+            if (dirtyChunks != null) {
+                dirtyChunksMem = PageDirtyChunks.requiredMemory(pages);
+
+                dirtyChunks.register(idx, ldPagesAddr + memPerTbl + replPlcMem, pages);
+            }
+
+            DirectMemoryRegion poolRegion =
+                region.slice(memPerTbl + ldPagesMapOffInRegion + replPlcMem + dirtyChunksMem);
 
             pool = new PagePool(idx, poolRegion, sysPageSize, rwLock);
 
@@ -2053,6 +2290,71 @@ public class PageMemoryImpl implements PageMemoryEx {
                 : Math.min(pool.pages() * 2L / 3, cpPoolPages);
         }
 
+        /** {@inheritDoc} */
+        @Override public WriteLock writeLock() {
+            return writeLock;
+        }
+
+        /**
+         * Tries to resolve and pin an already loaded page without taking the segment lock.
+         *
+         * @param grpId Cache group ID.
+         * @param pageId Page ID.
+         * @param partId Partition ID.
+         * @return Absolute pointer of the acquired page or {@code 0} if the page should be resolved under the lock.
+         */
+        private long acquireLoadedPageOptimistic(int grpId, long pageId, int partId) {
+            long stamp = modStamp.get();
+
+            if ((stamp & 1L) != 0)
+                return 0L;
+
+            Integer gen = partGenerationMap.get(new GroupPartitionId(grpId, partId));
+
+            long relPtr = loadedPages.get(
+                grpId,
+                PageIdUtils.effectivePageId(pageId),
+                gen == null ? INIT_PART_GENERATION : gen,
+                INVALID_REL_PTR,
+                INVALID_REL_PTR
+            );
+
+            // Relative pointer is trusted only if the table was not modified during the lookup.
+            if (relPtr == INVALID_REL_PTR || !validate(stamp))
+                return 0L;
+
+            long absPtr = absolute(relPtr);
+
+            // The pin is kept apart from the regular ones until the page is validated, so the slot may be taken
+            // for another page under the write lock meanwhile.
+            PageHeader.acquireOptimisticPin(absPtr);
+
+            // The page may have been replaced between the lookup and the pin.
+            if (validate(stamp) && PageHeader.holds(absPtr, grpId, pageId)) {
+                PageHeader.confirmOptimisticPin(absPtr);
+
+                updateAtomicInt(acquiredPagesPtr, 1);
+
+                onPageHit(relPtr);
+
+                return absPtr;
+            }
+
+            PageHeader.releaseOptimisticPin(absPtr);
+
+            return 0L;
+        }
+
+        /**
+         * @param stamp Modification stamp obtained before optimistic read.
+         * @return {@code True} if the segment was not modified since the stamp was obtained.
+         */
+        private boolean validate(long stamp) {
+            GridUnsafe.loadFence();
+
+            return modStamp.get() == stamp;
+        }
+
         /**
          * Closes the segment.
          */
@@ -2104,6 +2406,42 @@ public class PageMemoryImpl implements PageMemoryEx {
             updateAtomicInt(acquiredPagesPtr, 1);
         }
 
+        /**
+         * Callback invoked when an already loaded page is acquired.
+         *
+         * @param relPtr Page relative pointer.
+         */
+        private void onPageHit(long relPtr) {
+            if (replacementPlc != null)
+                replacementPlc.onHit(relPtr);
+
+            memMetrics.onPageHit();
+        }
+
+        /**
+         * Callback invoked under the write lock when a page is put to {@link #loadedPages}.
+         *
+         * @param relPtr Page relative pointer.
+         */
+        private void onPageLoaded(long relPtr) {
+            if (replacementPlc != null)
+                replacementPlc.onMiss(relPtr);
+
+            // Content of the page is unknown until it is read from the page store.
+            if (dirtyChunks != null)
+                dirtyChunks.onLoaded(relPtr);
+        }
+
+        /**
+         * Callback invoked under the write lock when a page is removed from {@link #loadedPages}.
+         *
+         * @param relPtr Page relative pointer.
+         */
+        private void onPageRemoved(long relPtr) {
+            if (replacementPlc != null)
+                replacementPlc.onRemove(relPtr);
+        }
+
         /**
          * @param absPtr Page absolute address to release.
          */
@@ -2132,7 +2470,7 @@ public class PageMemoryImpl implements PageMemoryEx {
          * Clear dirty pages collection and reset counter.
          */
         private void resetDirtyPages() {
-            dirtyPages = new GridConcurrentHashSet<>();
+            dirtyPages = new FullPageIdSet();
 
             dirtyPagesCntr.set(0);
         }
@@ -2232,7 +2570,8 @@ public class PageMemoryImpl implements PageMemoryEx {
         }
 
         /**
-         * Removes random oldest page for page replacement from memory to storage.
+         * Removes page for page replacement from memory to storage. The page is chosen according to
+         * {@link #pageReplacementMode}: random oldest page for {@link PageReplacementMode#RANDOM_LRU}.
          *
          * @return Relative address for removed page, now it can be replaced by allocated or reloaded page.
          * @throws IgniteCheckedException If failed to evict page.
@@ -2281,6 +2620,9 @@ public class PageMemoryImpl implements PageMemoryEx {
                 );
             }
 
+            if (replacementPlc != null)
+                return removePageForReplacementClockPro(cap, saveDirtyPage);
+
             // With big number of random picked pages we may fall into infinite loop, because
             // every time the same page may be found.
             Set<Long> ignored = null;
@@ -2398,10 +2740,65 @@ public class PageMemoryImpl implements PageMemoryEx {
                     fullPageId.effectivePageId()
                 );
 
+                onPageRemoved(relRmvAddr);
+
                 return relRmvAddr;
             }
         }
 
+        /**
+         * Removes page chosen by the CLOCK-Pro policy for page replacement from memory to storage.
+         *
+         * @param cap Capacity of the loaded pages table.
+         * @param saveDirtyPage Replaced page writer, implementation to save dirty page to persistent storage.
+         * @return Relative address for removed page, now it can be replaced by allocated or reloaded page.
+         * @throws IgniteCheckedException If failed to evict page.
+         */
+        private long removePageForReplacementClockPro(int cap, PageStoreWriter saveDirtyPage)
+            throws IgniteCheckedException {
+            int maxCandidates = (int)(pool.pages() * FULL_SCAN_THRESHOLD);
+
+            for (int i = 0; i < maxCandidates; i++) {
+                long relPtr = replacementPlc.nextCandidate();
+
+                if (relPtr == INVALID_REL_PTR)
+                    break;
+
+                long absPtr = absolute(relPtr);
+
+                FullPageId fullId = PageHeader.fullPageId(absPtr);
+
+                long mappedPtr = loadedPages.get(
+                    fullId.groupId(),
+                    fullId.effectivePageId(),
+                    partGeneration(fullId.groupId(), PageIdUtils.partId(fullId.pageId())),
+                    INVALID_REL_PTR,
+                    OUTDATED_REL_PTR
+                );
+
+                if (mappedPtr == OUTDATED_REL_PTR)
+                    return refreshOutdatedPage(this, fullId.groupId(), fullId.pageId(), true);
+
+                // Policy metadata is stale, the slot does not hold the page anymore.
+                if (mappedPtr != relPtr) {
+                    replacementPlc.onRemove(relPtr);
+
+                    continue;
+                }
+
+                if (isStoreMetadataPage(absPtr) || !preparePageRemoval(fullId, absPtr, saveDirtyPage))
+                    continue;
+
+                loadedPages.remove(fullId.groupId(), fullId.effectivePageId());
+
+                onPageRemoved(relPtr);
+
+                return relPtr;
+            }
+
+            return tryToFindSequentially(cap, saveDirtyPage);
+        }
+
         /**
          * @param absPageAddr Absolute page address
          * @return {@code True} if page is related to partition metadata, which is loaded in saveStoreMetadata().
@@ -2471,6 +2868,8 @@ public class PageMemoryImpl implements PageMemoryEx {
                         fullPageId.effectivePageId()
                     );
 
+                    onPageRemoved(addr);
+
                     return addr;
                 }
                 else
@@ -2665,6 +3064,9 @@ public class PageMemoryImpl implements PageMemoryEx {
                     try {
                         GridLongList list = seg.loadedPages.removeIf(base, boundary, clearPred);
 
+                        for (int i = 0; i < list.size(); i++)
+                            seg.onPageRemoved(list.get(i));
+
                         ptrs.addAll(list);
 
                         base = boundary;
@@ -2712,6 +3114,8 @@ public class PageMemoryImpl implements PageMemoryEx {
         /** Target ratio based: CP progress is used as border. */
         TARGET_RATIO_BASED,
         /** Speed based. CP writting speed and estimated ideal speed are used as border */
-        SPEED_BASED
+        SPEED_BASED,
+        /** Adaptive. Feedback controller targets dirty pages ratio and checkpoint duration. */
+        ADAPTIVE
     }
 }
@@ -184,7 +184,7 @@ public class PagePool {
     public int releaseFreePage(long relPtr) {
         long absPtr = absolute(relPtr);
 
-        assert !PageHeader.isAcquired(absPtr) : "Release pinned page: " + PageHeader.fullPageId(absPtr);
+        assert !PageHeader.isAcquiredRegular(absPtr) : "Release pinned page: " + PageHeader.fullPageId(absPtr);
 
         int resCntr = 0;
 
@@ -21,6 +21,7 @@ import java.nio.ByteBuffer;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.pagemem.PageMemory;
 import org.apache.ignite.internal.pagemem.store.PageStore;
+import org.jetbrains.annotations.Nullable;
 
 /** */
 public interface PageReadWriteManager {
@@ -45,6 +46,60 @@ public interface PageReadWriteManager {
      */
     public PageStore write(int grpId, long pageId, ByteBuffer pageBuf, int tag, boolean calculateCrc) throws IgniteCheckedException;
 
+    /**
+     * Writes the page which parts changed since the previous write of the page are known.
+     *
+     * @param grpId Cache group ID.
+     * @param pageId Page ID.
+     * @param pageBuf Page buffer to write.
+     * @param tag Partition generation.
+     * @param calculateCrc If {@code false} CRC calculation will be forcibly skipped.
+     * @param dirtyChunks Mask of changed chunks of the page, see {@link PageDirtyChunks}.
+     * @param tracker Checkpoint metrics tracker to account written bytes, {@code null} if not needed.
+     * @throws IgniteCheckedException If failed to write page.
+     */
+    public default PageStore write(
+        int grpId,
+        long pageId,
+        ByteBuffer pageBuf,
+        int tag,
+        boolean calculateCrc,
+        long dirtyChunks,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        return write(grpId, pageId, pageBuf, tag, calculateCrc);
+    }
+
+    /**
+     * Writes pages of the same partition with consecutive indexes.
+     *
+     * @param grpId Cache group ID.
+     * @param pageIds Page IDs, indexes of pages are consecutive.
+     * @param pageBufs Page buffers to write.
+     * @param cnt Number of pages to write.
+     * @param tag Partition generation.
+     * @param calculateCrc If {@code false} CRC calculation will be forcibly skipped.
+     * @param tracker Checkpoint metrics tracker to account written bytes, {@code null} if not needed.
+     * @return Page store the pages were written to.
+     * @throws IgniteCheckedException If failed to write pages.
+     */
+    public default PageStore write(
+        int grpId,
+        long[] pageIds,
+        ByteBuffer[] pageBufs,
+        int cnt,
+        int tag,
+        boolean calculateCrc,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        PageStore store = null;
+
+        for (int i = 0; i < cnt; i++)
+            store = write(grpId, pageIds[i], pageBufs[i], tag, calculateCrc, PageDirtyChunks.ALL, tracker);
+
+        return store;
+    }
+
     /**
      * Allocates a page for the given page space.
      *
@@ -19,6 +19,7 @@ package org.apache.ignite.internal.processors.cache.persistence.pagemem;
 
 import java.nio.ByteBuffer;
 import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.configuration.DiskPageCompression;
 import org.apache.ignite.failure.FailureContext;
 import org.apache.ignite.failure.FailureType;
 import org.apache.ignite.internal.GridKernalContext;
@@ -30,6 +31,7 @@ import org.apache.ignite.internal.processors.cache.persistence.StorageException;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
 import org.apache.ignite.internal.util.tostring.GridToStringExclude;
 import org.apache.ignite.internal.util.typedef.internal.S;
+import org.jetbrains.annotations.Nullable;
 
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.INDEX_PARTITION;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.MAX_PARTITION_ID;
@@ -79,6 +81,19 @@ public class PageReadWriteManagerImpl implements PageReadWriteManager {
 
     /** {@inheritDoc} */
     @Override public PageStore write(int grpId, long pageId, ByteBuffer pageBuf, int tag, boolean calculateCrc) throws IgniteCheckedException {
+        return write(grpId, pageId, pageBuf, tag, calculateCrc, PageDirtyChunks.ALL, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override public PageStore write(
+        int grpId,
+        long pageId,
+        ByteBuffer pageBuf,
+        int tag,
+        boolean calculateCrc,
+        long dirtyChunks,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
         int partId = PageIdUtils.partId(pageId);
 
         PageStore store = pageStores.getStore(grpId, partId);
@@ -104,10 +119,16 @@ public class PageReadWriteManagerImpl implements PageReadWriteManager {
 
                     PageIO.setCrc(pageBuf, 0); // It is expected to be reset to 0 after each write.
                     pageBuf = compressedPageBuf;
+
+                    // Compressed page replaces the whole page in the store.
+                    dirtyChunks = PageDirtyChunks.ALL;
                 }
             }
 
-            store.write(pageId, pageBuf, tag, calculateCrc);
+            int written = store.write(pageId, pageBuf, tag, calculateCrc, dirtyChunks);
+
+            if (tracker != null)
+                tracker.onPageBytesWritten(written, PageDirtyChunks.changedBytes(dirtyChunks, pageSize));
 
             if (pageSize > compressedPageSize)
                 store.punchHole(pageId, compressedPageSize); // TODO maybe add async punch mode?
@@ -121,6 +142,39 @@ public class PageReadWriteManagerImpl implements PageReadWriteManager {
         return store;
     }
 
+    /** {@inheritDoc} */
+    @Override public PageStore write(
+        int grpId,
+        long[] pageIds,
+        ByteBuffer[] pageBufs,
+        int cnt,
+        int tag,
+        boolean calculateCrc,
+        @Nullable CheckpointMetricsTracker tracker
+    ) throws IgniteCheckedException {
+        GridCacheContext<?, ?> cctx0 = ctx.cache().context().cacheContext(grpId);
+
+        // Compressed pages have different sizes, so they are written one by one.
+        if (cctx0 != null && cctx0.config().getDiskPageCompression() != DiskPageCompression.DISABLED)
+            return PageReadWriteManager.super.write(grpId, pageIds, pageBufs, cnt, tag, calculateCrc, tracker);
+
+        PageStore store = pageStores.getStore(grpId, PageIdUtils.partId(pageIds[0]));
+
+        try {
+            int written = store.write(pageIds, pageBufs, cnt, tag, calculateCrc);
+
+            if (tracker != null)
+                tracker.onPageBytesWritten(written, cnt * store.getPageSize());
+        }
+        catch (StorageException e) {
+            ctx.failure().process(new FailureContext(FailureType.CRITICAL_ERROR, e));
+
+            throw e;
+        }
+
+        return store;
+    }
+
     /** {@inheritDoc} */
     @Override public long allocatePage(int grpId, int partId, byte flags) throws IgniteCheckedException {
         assert partId <= MAX_PARTITION_ID || partId == INDEX_PARTITION;
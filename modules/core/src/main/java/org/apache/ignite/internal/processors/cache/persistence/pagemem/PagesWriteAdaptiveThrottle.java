@@ -0,0 +1,441 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.pagemem;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.internal.processors.cache.persistence.CheckpointLockStateChecker;
+import org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointProgress;
+import org.apache.ignite.internal.util.GridConcurrentHashSet;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.lang.IgniteOutClosure;
+
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_ADAPTIVE_THROTTLE_KD;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_ADAPTIVE_THROTTLE_KI;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_ADAPTIVE_THROTTLE_KP;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO;
+
+/**
+ * Throttles threads that generate dirty pages during ongoing checkpoint using a PID controller.
+ * <p>
+ * The controlled value is the dirty pages ratio projected to the end of the current checkpoint: the current ratio
+ * plus pages which will be marked dirty at the measured mark speed during the time the checkpoint needs to write its
+ * remaining pages at the measured write speed. The set point is the target dirty pages ratio. If a target checkpoint
+ * duration is set, the set point is also limited by the number of pages the next checkpoint can write during that
+ * time at the measured write speed, because pages marked dirty now are written by the next checkpoint.
+ * <p>
+ * The output of the controller is the park time of a page modification, measured in times a checkpoint thread needs
+ * to write one page per modifying thread. The controller is updated once per {@link #UPDATE_INTERVAL_NANOS} by one
+ * of the modifying threads. Checkpoint buffer overflow protection is the same as in
+ * {@link PagesWriteSpeedBasedThrottle}.
+ */
+public class PagesWriteAdaptiveThrottle implements PagesWriteThrottlePolicy {
+    /** @see IgniteSystemProperties#IGNITE_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO */
+    public static final double DFLT_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO = 0.5;
+
+    /** @see IgniteSystemProperties#IGNITE_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION */
+    public static final long DFLT_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION = 0;
+
+    /** @see IgniteSystemProperties#IGNITE_ADAPTIVE_THROTTLE_KP */
+    public static final double DFLT_ADAPTIVE_THROTTLE_KP = 2.0;
+
+    /** @see IgniteSystemProperties#IGNITE_ADAPTIVE_THROTTLE_KI */
+    public static final double DFLT_ADAPTIVE_THROTTLE_KI = 1.0;
+
+    /** @see IgniteSystemProperties#IGNITE_ADAPTIVE_THROTTLE_KD */
+    public static final double DFLT_ADAPTIVE_THROTTLE_KD = 0.1;
+
+    /** Maximum dirty pages in region, throttling is not applied above it, writers wait for the next checkpoint. */
+    private static final double MAX_DIRTY_PAGES = 0.75;
+
+    /** Minimal set point of dirty pages ratio. */
+    private static final double MIN_TARGET_DIRTY_RATIO = 0.03;
+
+    /** Maximum output of the controller. */
+    private static final double MAX_OUTPUT = 50;
+
+    /** Interval of the controller update. */
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Starting throttle time. Limits write speed to 1000 MB/s. */
+    private static final long STARTING_THROTTLE_NANOS = 4000;
+
+    /** Backoff ratio. Each next park will be this times longer. */
+    private static final double BACKOFF_RATIO = 1.05;
+
+    /** Page memory. */
+    private final PageMemoryImpl pageMemory;
+
+    /** Checkpoint progress provider. */
+    private final IgniteOutClosure<CheckpointProgress> cpProgress;
+
+    /** Checkpoint lock state provider. */
+    private final CheckpointLockStateChecker cpLockStateChecker;
+
+    /** Logger. */
+    private final IgniteLogger log;
+
+    /** Total pages which is possible to store in page memory. */
+    private final long totalPages;
+
+    /** Target dirty pages ratio. */
+    private final double targetDirtyRatio;
+
+    /** Target checkpoint duration in seconds, {@code 0} if not set. */
+    private final double targetCpDurationSec;
+
+    /** Proportional gain. */
+    private final double kp;
+
+    /** Integral gain, 1/second. */
+    private final double ki;
+
+    /** Derivative gain, seconds. */
+    private final double kd;
+
+    /** Exponential backoff counter of checkpoint buffer protection. */
+    private final AtomicInteger exponentialBackoffCntr = new AtomicInteger();
+
+    /** Average checkpoint write speed. Current and 3 past checkpoints used. Pages/second. */
+    private final IntervalBasedMeasurement speedCpWrite = new IntervalBasedMeasurement();
+
+    /**
+     * Speed of marking pages dirty and average park time.
+     * {@link IntervalBasedMeasurement#getSpeedOpsPerSec(long)} returns pages marked/second.
+     * {@link IntervalBasedMeasurement#getAverage()} returns average park time.
+     */
+    private final IntervalBasedMeasurement speedMarkAndAvgParkTime = new IntervalBasedMeasurement(250, 3);
+
+    /** Threads set. Contains identifiers of all threads which were marking pages for current checkpoint. */
+    private final GridConcurrentHashSet<Long> threadIds = new GridConcurrentHashSet<>();
+
+    /** Time of the last controller update, nanoseconds. */
+    private final AtomicLong lastUpdateNanos = new AtomicLong();
+
+    /** Set point of the last update. */
+    private volatile double setPoint;
+
+    /** Projected dirty pages ratio of the last update. */
+    private volatile double projectedDirtyRatio;
+
+    /** Error of the last update, negative if the projected dirty pages ratio is below the set point. */
+    private volatile double err = Double.NaN;
+
+    /** Integral of the error, seconds. */
+    private volatile double integral;
+
+    /** Derivative of the error, 1/second. */
+    private volatile double derivative;
+
+    /** Output of the last update. */
+    private volatile double output;
+
+    /** Park time of a page modification, nanoseconds. */
+    private volatile long parkNanos;
+
+    /**
+     * @param pageMemory Page memory.
+     * @param cpProgress Checkpoint progress provider.
+     * @param stateChecker Checkpoint lock state provider.
+     * @param log Logger.
+     */
+    public PagesWriteAdaptiveThrottle(
+        PageMemoryImpl pageMemory,
+        IgniteOutClosure<CheckpointProgress> cpProgress,
+        CheckpointLockStateChecker stateChecker,
+        IgniteLogger log
+    ) {
+        this.pageMemory = pageMemory;
+        this.cpProgress = cpProgress;
+        cpLockStateChecker = stateChecker;
+        this.log = log;
+
+        totalPages = pageMemory.totalPages();
+
+        targetDirtyRatio = Math.max(MIN_TARGET_DIRTY_RATIO, Math.min(MAX_DIRTY_PAGES, IgniteSystemProperties.getDouble(
+            IGNITE_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO, DFLT_ADAPTIVE_THROTTLE_TARGET_DIRTY_RATIO)));
+
+        targetCpDurationSec = Math.max(0, IgniteSystemProperties.getLong(
+            IGNITE_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION, DFLT_ADAPTIVE_THROTTLE_TARGET_CHECKPOINT_DURATION))
+            / 1000.0;
+
+        kp = IgniteSystemProperties.getDouble(IGNITE_ADAPTIVE_THROTTLE_KP, DFLT_ADAPTIVE_THROTTLE_KP);
+        ki = IgniteSystemProperties.getDouble(IGNITE_ADAPTIVE_THROTTLE_KI, DFLT_ADAPTIVE_THROTTLE_KI);
+        kd = IgniteSystemProperties.getDouble(IGNITE_ADAPTIVE_THROTTLE_KD, DFLT_ADAPTIVE_THROTTLE_KD);
+
+        setPoint = targetDirtyRatio;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onMarkDirty(boolean isPageInCheckpoint) {
+        assert cpLockStateChecker.checkpointLockIsHeldByThread();
+
+        CheckpointProgress progress = cpProgress.apply();
+
+        AtomicInteger writtenPagesCntr = progress == null ? null : progress.writtenPagesCounter();
+
+        if (writtenPagesCntr == null)
+            return; // Don't throttle if checkpoint is not running.
+
+        long curNanoTime = System.nanoTime();
+
+        threadIds.add(Thread.currentThread().getId());
+
+        long throttleParkTimeNs;
+
+        if (isPageInCheckpoint &&
+            pageMemory.checkpointBufferPagesCount() > pageMemory.checkpointBufferPagesSize() * 2 / 3) {
+            int exponent = exponentialBackoffCntr.getAndIncrement();
+
+            throttleParkTimeNs = (long)(STARTING_THROTTLE_NANOS * Math.pow(BACKOFF_RATIO, exponent));
+        }
+        else {
+            if (isPageInCheckpoint)
+                exponentialBackoffCntr.set(0);
+
+            updateIfNeeded(progress, writtenPagesCntr.get(), curNanoTime);
+
+            throttleParkTimeNs = parkNanos;
+        }
+
+        if (throttleParkTimeNs > 0) {
+            doPark(throttleParkTimeNs);
+
+            pageMemory.metrics().addThrottlingTime(U.nanosToMillis(System.nanoTime() - curNanoTime));
+        }
+
+        speedMarkAndAvgParkTime.addMeasurementForAverageCalculation(throttleParkTimeNs);
+    }
+
+    /**
+     * Updates the controller if the update interval has passed since the last update.
+     *
+     * @param progress Checkpoint progress.
+     * @param cpWrittenPages Number of pages written by the checkpoint.
+     * @param curNanoTime Current time, nanoseconds.
+     */
+    private void updateIfNeeded(CheckpointProgress progress, int cpWrittenPages, long curNanoTime) {
+        long prevNanos = lastUpdateNanos.get();
+
+        if (curNanoTime - prevNanos < UPDATE_INTERVAL_NANOS || !lastUpdateNanos.compareAndSet(prevNanos, curNanoTime))
+            return;
+
+        AtomicInteger syncedPagesCntr = progress.syncedPagesCounter();
+
+        long fullyCompletedPages = (cpWrittenPages + (syncedPagesCntr == null ? 0 : syncedPagesCntr.get())) / 2;
+
+        speedCpWrite.setCounter(fullyCompletedPages, curNanoTime);
+
+        long cpWriteSpeed = speedCpWrite.getSpeedOpsPerSec(curNanoTime);
+        long markDirtySpeed = speedMarkAndAvgParkTime.getSpeedOpsPerSec(curNanoTime);
+
+        int cpTotalPages = progress.currentCheckpointPagesCount();
+
+        update(pageMemory.getDirtyPagesRatio(),
+            Math.max(0, cpTotalPages - fullyCompletedPages),
+            markDirtySpeed,
+            cpWriteSpeed,
+            threadIds.size(),
+            (curNanoTime - prevNanos) / (double)TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Updates the controller.
+     *
+     * @param dirtyRatio Current dirty pages ratio.
+     * @param cpRemainingPages Number of pages the checkpoint has not written yet.
+     * @param markDirtySpeed Speed of marking pages dirty, pages/second.
+     * @param cpWriteSpeed Checkpoint write speed, pages/second.
+     * @param nThreads Number of threads marking pages dirty.
+     * @param dtSec Time since the previous update, seconds.
+     * @return Park time of a page modification, nanoseconds.
+     */
+    long update(
+        double dirtyRatio,
+        long cpRemainingPages,
+        long markDirtySpeed,
+        long cpWriteSpeed,
+        int nThreads,
+        double dtSec
+    ) {
+        if (dirtyRatio >= MAX_DIRTY_PAGES || cpWriteSpeed <= 0) {
+            // Too late to throttle or nothing measured yet.
+            output = 0;
+            parkNanos = 0;
+
+            return 0;
+        }
+
+        double target = targetDirtyRatio;
+
+        if (targetCpDurationSec > 0) {
+            double cpDurationRatio = cpWriteSpeed * targetCpDurationSec / totalPages;
+
+            target = Math.max(MIN_TARGET_DIRTY_RATIO, Math.min(target, cpDurationRatio));
+        }
+
+        double remainingSec = (double)cpRemainingPages / cpWriteSpeed;
+
+        double projected = dirtyRatio + markDirtySpeed * remainingSec / totalPages;
+
+        double curErr = (projected - target) / target;
+
+        double prevErr = err;
+
+        // Integral is not negative, otherwise a long period of low load delays reaction to a burst.
+        double curIntegral = integral + curErr * dtSec;
+
+        curIntegral = ki > 0 ? Math.max(0, Math.min(MAX_OUTPUT / ki, curIntegral)) : 0;
+
+        double curDerivative = Double.isNaN(prevErr) || dtSec <= 0 ? 0 : (curErr - prevErr) / dtSec;
+
+        double curOutput = Math.max(0, Math.min(MAX_OUTPUT, kp * curErr + ki * curIntegral + kd * curDerivative));
+
+        setPoint = target;
+        projectedDirtyRatio = projected;
+        err = curErr;
+        integral = curIntegral;
+        derivative = curDerivative;
+        output = curOutput;
+
+        // Time a checkpoint thread needs to write one page, per modifying thread.
+        long curParkNanos = (long)(curOutput * TimeUnit.SECONDS.toNanos(1) * nThreads / cpWriteSpeed);
+
+        parkNanos = curParkNanos;
+
+        return curParkNanos;
+    }
+
+    /**
+     * Disables the current thread for thread scheduling purposes. May be overriden by subclasses for tests
+     *
+     * @param throttleParkTimeNs the maximum number of nanoseconds to wait
+     */
+    protected void doPark(long throttleParkTimeNs) {
+        if (throttleParkTimeNs > LOGGING_THRESHOLD) {
+            U.warn(log, "Parking thread=" + Thread.currentThread().getName()
+                + " for timeout(ms)=" + (throttleParkTimeNs / 1_000_000));
+        }
+
+        LockSupport.parkNanos(throttleParkTimeNs);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onBeginCheckpoint() {
+        long curNanoTime = System.nanoTime();
+
+        speedCpWrite.setCounter(0L, curNanoTime);
+
+        lastUpdateNanos.set(curNanoTime);
+
+        err = Double.NaN;
+        integral = 0;
+        derivative = 0;
+        output = 0;
+        parkNanos = 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onFinishCheckpoint() {
+        exponentialBackoffCntr.set(0);
+
+        speedCpWrite.finishInterval();
+        speedMarkAndAvgParkTime.finishInterval();
+        threadIds.clear();
+
+        output = 0;
+        parkNanos = 0;
+    }
+
+    /**
+     * @return Set point of the controller, target dirty pages ratio.
+     */
+    public double getTargetDirtyRatio() {
+        return setPoint;
+    }
+
+    /**
+     * @return Dirty pages ratio projected to the end of the current checkpoint.
+     */
+    public double getProjectedDirtyRatio() {
+        return projectedDirtyRatio;
+    }
+
+    /**
+     * @return Relative error of the controller.
+     */
+    public double getError() {
+        double err0 = err;
+
+        return Double.isNaN(err0) ? 0 : err0;
+    }
+
+    /**
+     * @return Integral of the error.
+     */
+    public double getIntegral() {
+        return integral;
+    }
+
+    /**
+     * @return Derivative of the error.
+     */
+    public double getDerivative() {
+        return derivative;
+    }
+
+    /**
+     * @return Output of the controller.
+     */
+    public double getOutput() {
+        return output;
+    }
+
+    /**
+     * @return Current park time of a page modification, nanoseconds.
+     */
+    public long getParkTime() {
+        return parkNanos;
+    }
+
+    /**
+     * @return Average park time of page modifications, nanoseconds.
+     */
+    public long getAverageParkTime() {
+        return speedMarkAndAvgParkTime.getAverage();
+    }
+
+    /**
+     * @return Speed of marking pages dirty, pages/second.
+     */
+    public long getMarkDirtySpeed() {
+        return speedMarkAndAvgParkTime.getSpeedOpsPerSec(System.nanoTime());
+    }
+
+    /**
+     * @return Average checkpoint write speed, pages/second.
+     */
+    public long getCpWriteSpeed() {
+        return speedCpWrite.getSpeedOpsPerSecReadOnly();
+    }
+}
@@ -17,9 +17,14 @@
 
 package org.apache.ignite.internal.processors.cache.persistence.snapshot;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -30,6 +35,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -44,12 +50,16 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.IgniteException;
 import org.apache.ignite.IgniteSnapshot;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
 import org.apache.ignite.binary.BinaryType;
 import org.apache.ignite.cluster.ClusterNode;
 import org.apache.ignite.configuration.IgniteConfiguration;
@@ -64,7 +74,15 @@ import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.NodeStoppingException;
 import org.apache.ignite.internal.cluster.ClusterTopologyCheckedException;
 import org.apache.ignite.internal.events.DiscoveryCustomEvent;
+import org.apache.ignite.internal.managers.communication.GridIoManager;
+import org.apache.ignite.internal.managers.communication.GridMessageListener;
+import org.apache.ignite.internal.managers.communication.TransmissionCancelledException;
+import org.apache.ignite.internal.managers.communication.TransmissionHandler;
+import org.apache.ignite.internal.managers.communication.TransmissionMeta;
+import org.apache.ignite.internal.managers.communication.TransmissionPolicy;
 import org.apache.ignite.internal.managers.eventstorage.DiscoveryEventListener;
+import org.apache.ignite.internal.managers.systemview.walker.SnapshotRestoreViewWalker;
+import org.apache.ignite.internal.pagemem.FullPageId;
 import org.apache.ignite.internal.processors.affinity.AffinityTopologyVersion;
 import org.apache.ignite.internal.processors.cache.CacheGroupDescriptor;
 import org.apache.ignite.internal.processors.cache.CacheType;
@@ -81,6 +99,7 @@ import org.apache.ignite.internal.processors.cache.persistence.filename.PdsFolde
 import org.apache.ignite.internal.processors.cache.persistence.metastorage.MetastorageLifecycleListener;
 import org.apache.ignite.internal.processors.cache.persistence.metastorage.ReadOnlyMetastorage;
 import org.apache.ignite.internal.processors.cache.persistence.metastorage.ReadWriteMetastorage;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
 import org.apache.ignite.internal.processors.cache.persistence.partstate.GroupPartitionId;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
 import org.apache.ignite.internal.processors.cache.persistence.wal.crc.FastCrc;
@@ -106,6 +125,7 @@ import org.apache.ignite.internal.util.typedef.internal.U;
 import org.apache.ignite.lang.IgniteCallable;
 import org.apache.ignite.lang.IgniteFuture;
 import org.apache.ignite.resources.IgniteInstanceResource;
+import org.apache.ignite.spi.systemview.view.SnapshotRestoreView;
 import org.apache.ignite.thread.IgniteThreadPoolExecutor;
 import org.apache.ignite.thread.OomExceptionHandler;
 import org.jetbrains.annotations.Nullable;
@@ -120,6 +140,7 @@ import static org.apache.ignite.events.EventType.EVT_NODE_FAILED;
 import static org.apache.ignite.events.EventType.EVT_NODE_LEFT;
 import static org.apache.ignite.internal.GridClosureCallMode.BALANCE;
 import static org.apache.ignite.internal.GridClosureCallMode.BROADCAST;
+import static org.apache.ignite.internal.GridTopic.TOPIC_SNAPSHOT;
 import static org.apache.ignite.internal.IgniteFeatures.PERSISTENCE_CACHE_SNAPSHOT;
 import static org.apache.ignite.internal.MarshallerContextImpl.mappingFileStoreWorkDir;
 import static org.apache.ignite.internal.MarshallerContextImpl.saveMappings;
@@ -131,6 +152,7 @@ import static org.apache.ignite.internal.processors.cache.binary.CacheObjectBina
 import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.INDEX_FILE_NAME;
 import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.PART_FILE_TEMPLATE;
 import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFile;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFileName;
 import static org.apache.ignite.internal.processors.cache.persistence.filename.PdsConsistentIdProcessor.DB_DEFAULT_FOLDER;
 import static org.apache.ignite.internal.processors.cache.persistence.partstate.GroupPartitionId.getTypeByPartId;
 import static org.apache.ignite.internal.util.IgniteUtils.isLocalNodeCoordinator;
@@ -144,6 +166,7 @@ import static org.apache.ignite.plugin.security.SecurityPermission.ADMIN_SNAPSHO
  * These major actions available:
  * <ul>
  *     <li>Create snapshot of the whole cluster cache groups by triggering PME to achieve consistency.</li>
+ *     <li>Create snapshot of cache group partitions on a remote node and receive partition files from it.</li>
  * </ul>
  */
 public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
@@ -157,6 +180,22 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
     /** File name template for index delta pages. */
     public static final String INDEX_DELTA_NAME = INDEX_FILE_NAME + DELTA_SUFFIX;
 
+    /** File with partition pages changed since the previous snapshot suffix. */
+    public static final String INCREMENT_SUFFIX = ".inc";
+
+    /** File name template consists of partition pages changed since the previous snapshot. */
+    public static final String PART_INCREMENT_TEMPLATE = PART_FILE_TEMPLATE + INCREMENT_SUFFIX;
+
+    /** File name of index pages changed since the previous snapshot. */
+    public static final String INDEX_INCREMENT_NAME = INDEX_FILE_NAME + INCREMENT_SUFFIX;
+
+    /** File name of metadata of the local node part of snapshot taken while changed pages are tracked. */
+    public static final String INCREMENTAL_META_FILE_NAME = "incremental.meta";
+
+    /** */
+    @SystemProperty("Enables tracking of pages changed between snapshots which is required by incremental snapshots")
+    public static final String IGNITE_SNAPSHOT_PAGES_TRACKING = "IGNITE_SNAPSHOT_PAGES_TRACKING";
+
     /** Text Reason for checkpoint to start snapshot operation. */
     public static final String CP_SNAPSHOT_REASON = "Checkpoint started to enforce snapshot operation: %s";
 
@@ -176,6 +215,27 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
     /** Snapshot metrics prefix. */
     public static final String SNAPSHOT_METRICS = "snapshot";
 
+    /** Snapshot restore view name. */
+    public static final String SNAPSHOT_RESTORE_VIEW = "snapshotRestores";
+
+    /** Snapshot restore view description. */
+    public static final String SNAPSHOT_RESTORE_VIEW_DESC = "Restores of snapshots to local directories in progress";
+
+    /** File transmission parameter of the snapshot name. */
+    private static final String SNP_NAME_PARAM = "snpName";
+
+    /** File transmission parameter of the cache group id. */
+    private static final String SNP_GRP_ID_PARAM = "grpId";
+
+    /** File transmission parameter of the partition id. */
+    private static final String SNP_PART_ID_PARAM = "partId";
+
+    /** File transmission parameter of the cache group directory name. */
+    private static final String SNP_CACHE_DIR_NAME_PARAM = "cacheDirName";
+
+    /** File transmission parameter which is {@code true} if the file contains delta pages of a partition. */
+    private static final String SNP_DELTA_PARAM = "delta";
+
     /** Prefix for snapshot threads. */
     private static final String SNAPSHOT_RUNNER_THREAD_PREFIX = "snapshot-runner";
 
@@ -199,6 +259,12 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
     /** Map of registered cache snapshot processes and their corresponding contexts. */
     private final ConcurrentMap<String, SnapshotFutureTask> locSnpTasks = new ConcurrentHashMap<>();
 
+    /** Restores of snapshots to local directories in progress by snapshot name. */
+    private final ConcurrentMap<String, SnapshotRestoreTask> restoreTasks = new ConcurrentHashMap<>();
+
+    /** Snapshots of partitions requested from remote nodes by snapshot name. */
+    private final ConcurrentMap<String, RemoteSnapshotFuture> rmtSnpReqs = new ConcurrentHashMap<>();
+
     /** Lock to protect the resources is used. */
     private final GridBusyLock busyLock = new GridBusyLock();
 
@@ -238,6 +304,9 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
     /** Snapshot thread pool to perform local partition snapshots. */
     private ExecutorService snpRunner;
 
+    /** Listener of remote snapshot requests and failures. */
+    private GridMessageListener snpLsnr;
+
     /** System discovery message listener. */
     private DiscoveryEventListener discoLsnr;
 
@@ -253,6 +322,15 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
     /** Last seen cluster snapshot operation. */
     private volatile ClusterSnapshotFuture lastSeenSnpFut = new ClusterSnapshotFuture();
 
+    /** Tracker of pages changed between snapshots. */
+    private SnapshotPageTracker pageTracker;
+
+    /** Number of bytes of partition pages copied by the last snapshot on the local node. */
+    private volatile long lastSnpCopiedSize;
+
+    /** Total size of partitions included into the last snapshot on the local node. */
+    private volatile long lastSnpTotalSize;
+
     /**
      * @param ctx Kernal context.
      */
@@ -287,6 +365,25 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         return partId == INDEX_PARTITION ? INDEX_DELTA_NAME : String.format(PART_DELTA_TEMPLATE, partId);
     }
 
+    /**
+     * @param snapshotCacheDir Snapshot directory to store files.
+     * @param partId Cache partition identifier.
+     * @return A file representation of partition pages changed since the previous snapshot.
+     */
+    public static File partIncrementFile(File snapshotCacheDir, int partId) {
+        return new File(snapshotCacheDir, partIncrementFileName(partId));
+    }
+
+    /**
+     * @param partId Partition id.
+     * @return File name of partition pages changed since the previous snapshot.
+     */
+    public static String partIncrementFileName(int partId) {
+        assert partId <= MAX_PARTITION_ID || partId == INDEX_PARTITION;
+
+        return partId == INDEX_PARTITION ? INDEX_INCREMENT_NAME : String.format(PART_INCREMENT_TEMPLATE, partId);
+    }
+
     /** {@inheritDoc} */
     @Override protected void start0() throws IgniteCheckedException {
         super.start0();
@@ -336,11 +433,25 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         mreg.register("LocalSnapshotNames", this::localSnapshotNames, List.class,
             "The list of names of all snapshots currently saved on the local node with respect to " +
                 "the configured via IgniteConfiguration snapshot working path.");
+        mreg.register("LastSnapshotCopiedSize", () -> lastSnpCopiedSize,
+            "The number of bytes of partition pages copied by the last snapshot on this node. It is less than " +
+                "the total size of partitions if only the pages changed since the previous snapshot are copied.");
+        mreg.register("LastSnapshotTotalSize", () -> lastSnpTotalSize,
+            "The total size of partitions included into the last snapshot on this node.");
+
+        ctx.systemView().registerView(SNAPSHOT_RESTORE_VIEW, SNAPSHOT_RESTORE_VIEW_DESC,
+            new SnapshotRestoreViewWalker(),
+            restoreTasks.values(),
+            SnapshotRestoreView::new);
 
         storeFactory = storeMgr::getPageStoreFactory;
 
+        pageTracker = new SnapshotPageTracker(cctx, IgniteSystemProperties.getBoolean(IGNITE_SNAPSHOT_PAGES_TRACKING));
+
         cctx.exchange().registerExchangeAwareComponent(this);
         ctx.internalSubscriptionProcessor().registerMetastorageListener(this);
+        ctx.internalSubscriptionProcessor().registerMetastorageListener(pageTracker);
+        ctx.internalSubscriptionProcessor().registerDatabaseListener(pageTracker);
 
         cctx.gridEvents().addDiscoveryEventListener(discoLsnr = (evt, discoCache) -> {
             if (!busyLock.enterBusy())
@@ -361,12 +472,44 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
                                 "One of baseline nodes left the cluster: " + leftNodeId));
                         }
                     }
+
+                    for (RemoteSnapshotFuture fut : rmtSnpReqs.values()) {
+                        if (fut.rmtNodeId.equals(leftNodeId)) {
+                            fut.onDone(new ClusterTopologyCheckedException("The node from which a snapshot has been " +
+                                "requested left the grid: " + leftNodeId));
+                        }
+                    }
                 }
             }
             finally {
                 busyLock.leaveBusy();
             }
         }, EVT_NODE_LEFT, EVT_NODE_FAILED);
+
+        cctx.gridIO().addMessageListener(TOPIC_SNAPSHOT, snpLsnr = (nodeId, msg, plc) -> {
+            if (!busyLock.enterBusy())
+                return;
+
+            try {
+                if (msg instanceof SnapshotFilesRequestMessage)
+                    startRemoteSnapshotTask(nodeId, (SnapshotFilesRequestMessage)msg);
+                else if (msg instanceof SnapshotFilesFailureMessage) {
+                    SnapshotFilesFailureMessage failMsg = (SnapshotFilesFailureMessage)msg;
+
+                    RemoteSnapshotFuture fut = rmtSnpReqs.get(failMsg.snapshotName());
+
+                    if (fut != null) {
+                        fut.onDone(new IgniteCheckedException("Snapshot of partitions has failed on the remote node " +
+                            "[nodeId=" + nodeId + ", err=" + failMsg.errorMessage() + ']'));
+                    }
+                }
+            }
+            finally {
+                busyLock.leaveBusy();
+            }
+        });
+
+        cctx.gridIO().addTransmissionHandler(TOPIC_SNAPSHOT, new RemoteSnapshotFilesHandler());
     }
 
     /** {@inheritDoc} */
@@ -388,12 +531,23 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
                 }
             }
 
+            for (RemoteSnapshotFuture fut : rmtSnpReqs.values())
+                fut.onDone(new NodeStoppingException(SNP_NODE_STOPPING_ERR_MSG));
+
+            rmtSnpReqs.clear();
+
             if (snpRunner != null)
                 snpRunner.shutdownNow();
 
             if (discoLsnr != null)
                 cctx.kernalContext().event().removeDiscoveryEventListener(discoLsnr);
 
+            if (snpLsnr != null) {
+                cctx.gridIO().removeMessageListener(TOPIC_SNAPSHOT, snpLsnr);
+
+                cctx.gridIO().removeTransmissionHandler(TOPIC_SNAPSHOT);
+            }
+
             cctx.exchange().unregisterExchangeAwareComponent(this);
         }
         finally {
@@ -529,10 +683,25 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         if (parts.isEmpty())
             return new GridFinishedFuture<>();
 
+        File baseSnpDir = null;
+
+        if (req.incremental) {
+            String baseSnpName = pageTracker.baseSnapshot();
+
+            if (baseSnpName != null && snapshotLocalDir(baseSnpName).exists())
+                baseSnpDir = snapshotLocalDir(baseSnpName);
+            else if (log.isInfoEnabled()) {
+                log.info("There is no previous snapshot with tracked page changes on the local node, partition " +
+                    "files will be copied completely [snpName=" + req.snpName + ", baseSnpName=" + baseSnpName + ']');
+            }
+        }
+
         SnapshotFutureTask task0 = registerSnapshotTask(req.snpName,
             req.srcNodeId,
             parts,
-            locSndrFactory.apply(req.snpName));
+            locSndrFactory.apply(req.snpName),
+            pageTracker,
+            baseSnpDir);
 
         clusterSnpReq = req;
 
@@ -606,6 +775,8 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
             if (req.err != null)
                 deleteSnapshot(snapshotLocalDir(req.snpName), pdsSettings.folderName());
 
+            pageTracker.onSnapshotFinished(req.snpName, req.err == null);
+
             removeLastMetaStorageKey();
         }
         catch (Exception e) {
@@ -740,6 +911,28 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
 
     /** {@inheritDoc} */
     @Override public IgniteFuture<Void> createSnapshot(String name) {
+        return createSnapshot(name, false);
+    }
+
+    /**
+     * Creates a cluster-wide snapshot which contains only the pages changed since the previous snapshot. Changed
+     * pages must be tracked, see {@link #IGNITE_SNAPSHOT_PAGES_TRACKING}. Partition files are copied completely
+     * on nodes which have no previous snapshot taken while changed pages are tracked.
+     *
+     * @param name Snapshot name.
+     * @return Future which will be completed when a process ends.
+     * @see #restoreLocalSnapshot(String, File)
+     */
+    public IgniteFuture<Void> createIncrementalSnapshot(String name) {
+        return createSnapshot(name, true);
+    }
+
+    /**
+     * @param name Snapshot name.
+     * @param incremental {@code true} to copy only the pages changed since the previous snapshot.
+     * @return Future which will be completed when a process ends.
+     */
+    public IgniteFuture<Void> createSnapshot(String name, boolean incremental) {
         A.notNullOrEmpty(name, "Snapshot name cannot be null or empty.");
         A.ensure(U.alphanumericUnderscore(name), "Snapshot name must satisfy the following name pattern: a-zA-Z0-9_");
 
@@ -762,6 +955,11 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
             if (!clusterState.hasBaselineTopology())
                 throw new IgniteException("Snapshot operation has been rejected. The baseline topology is not configured for cluster.");
 
+            if (incremental && !IgniteSystemProperties.getBoolean(IGNITE_SNAPSHOT_PAGES_TRACKING)) {
+                throw new IgniteException("Incremental snapshot operation has been rejected. Changed pages are not " +
+                    "tracked [" + IGNITE_SNAPSHOT_PAGES_TRACKING + "=false]");
+            }
+
             if (cctx.kernalContext().clientNode()) {
                 ClusterNode crd = U.oldest(cctx.kernalContext().discovery().aliveServerNodes(), null);
 
@@ -770,7 +968,7 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
 
                 return new IgniteSnapshotFutureImpl(cctx.kernalContext().closure()
                     .callAsyncNoFailover(BALANCE,
-                        new CreateSnapshotCallable(name),
+                        new CreateSnapshotCallable(name, incremental),
                         Collections.singletonList(crd),
                         false,
                         0,
@@ -816,9 +1014,11 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
                 grps,
                 new HashSet<>(F.viewReadOnly(srvNodes,
                     F.node2id(),
-                    (node) -> CU.baselineNode(node, clusterState)))));
+                    (node) -> CU.baselineNode(node, clusterState))),
+                incremental));
 
-            String msg = "Cluster-wide snapshot operation started [snpName=" + name + ", grps=" + grps + ']';
+            String msg = "Cluster-wide snapshot operation started [snpName=" + name + ", grps=" + grps +
+                ", incremental=" + incremental + ']';
 
             recordSnapshotEvent(name, msg, EVT_CLUSTER_SNAPSHOT_STARTED);
 
@@ -921,6 +1121,154 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         }
     }
 
+    /**
+     * Marks a page as changed since the last successful snapshot. Invoked when a page of a persistent data
+     * region becomes dirty.
+     *
+     * @param page Page pointer.
+     * @param fullId Full page id.
+     * @param pageMem Page memory.
+     * @throws IgniteCheckedException If failed.
+     */
+    public void onChangeTrackerPage(Long page, FullPageId fullId, PageMemoryEx pageMem) throws IgniteCheckedException {
+        SnapshotPageTracker pageTracker0 = pageTracker;
+
+        if (pageTracker0 != null)
+            pageTracker0.onPageChanged(fullId, pageMem);
+    }
+
+    /**
+     * Restores the local node part of a snapshot to the given directory. Partitions saved by incremental snapshots
+     * are restored by applying pages of all the snapshots of the chain to the partition file of the nearest
+     * snapshot which contains it completely. The result has the layout of a full snapshot, so snapshots of
+     * several nodes can be restored to the same directory.
+     * <p>
+     * Partition files are copied in parallel with CRC of pages validated, see {@link SnapshotRestoreTask}.
+     * The progress is shown by the {@link #SNAPSHOT_RESTORE_VIEW} system view.
+     *
+     * @param snpName Snapshot name.
+     * @param dstDir Directory to restore the snapshot to.
+     * @throws IgniteCheckedException If failed.
+     */
+    public void restoreLocalSnapshot(String snpName, File dstDir) throws IgniteCheckedException {
+        String folderName = pdsSettings.folderName();
+        File dstDbDir = new File(dstDir, databaseRelativePath(folderName));
+
+        if (dstDbDir.exists())
+            throw new IgniteCheckedException("Snapshot of the local node has already been restored: " + dstDbDir);
+
+        // Node directories of the snapshots of the chain from the given one to the full snapshot.
+        List<File> chain = new ArrayList<>();
+
+        IncrementalSnapshotMetadata meta = null;
+
+        for (String name = snpName; name != null; ) {
+            File dbDir = new File(snapshotLocalDir(name), databaseRelativePath(folderName));
+
+            if (!dbDir.exists()) {
+                throw new IgniteCheckedException("Snapshot of the incremental snapshot chain not found on " +
+                    "the local node [snpName=" + snpName + ", missed=" + name + ']');
+            }
+
+            IncrementalSnapshotMetadata meta0 = readIncrementalMeta(dbDir);
+
+            if (meta == null)
+                meta = meta0;
+
+            chain.add(dbDir);
+
+            name = meta0 == null ? null : meta0.baseSnapshotName();
+        }
+
+        SnapshotRestoreTask task = new SnapshotRestoreTask(cctx, snpName, snapshotLocalDir(snpName), dstDir,
+            folderName, chain, meta, ioFactory);
+
+        restoreTasks.put(snpName, task);
+
+        try {
+            task.run();
+        }
+        finally {
+            restoreTasks.remove(snpName, task);
+        }
+    }
+
+    /**
+     * @param dbDir Local node directory of a snapshot.
+     * @return Metadata of the snapshot or {@code null} if the snapshot has been taken while changed pages
+     * are not tracked.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Nullable private IncrementalSnapshotMetadata readIncrementalMeta(File dbDir) throws IgniteCheckedException {
+        File metaFile = new File(dbDir, INCREMENTAL_META_FILE_NAME);
+
+        if (!metaFile.exists())
+            return null;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(metaFile))) {
+            return U.unmarshal(cctx.kernalContext().marshallerContext().jdkMarshaller(), in,
+                U.resolveClassLoader(cctx.gridConfig()));
+        }
+        catch (IOException e) {
+            throw new IgniteCheckedException("Failed to read snapshot metadata: " + metaFile, e);
+        }
+    }
+
+    /**
+     * Writes pages of the given file to a partition file. Pages are written in order, so the latest copy of
+     * a page wins.
+     *
+     * @param pages File of pages to write.
+     * @param part Partition file.
+     * @param pair Group id with partition id pair.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void applyPages(File pages, File part, GroupPartitionId pair) throws IgniteCheckedException {
+        int pageSize = cctx.kernalContext().config().getDataStorageConfiguration().getPageSize();
+
+        try (FileIO fileIo = ioFactory.create(pages, READ);
+             FilePageStore pageStore = (FilePageStore)storeFactory
+                 .apply(pair.getGroupId(), false)
+                 .createPageStore(getTypeByPartId(pair.getPartitionId()),
+                     part::toPath,
+                     val -> {})
+        ) {
+            ByteBuffer pageBuf = ByteBuffer.allocate(pageSize)
+                .order(ByteOrder.nativeOrder());
+
+            long totalBytes = fileIo.size();
+
+            assert totalBytes % pageSize == 0 : "Given file with delta pages has incorrect size: " + fileIo.size();
+
+            pageStore.beginRecover();
+
+            for (long pos = 0; pos < totalBytes; pos += pageSize) {
+                long read = fileIo.readFully(pageBuf, pos);
+
+                assert read == pageBuf.capacity();
+
+                pageBuf.flip();
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Read page given delta file [path=" + pages.getName() +
+                        ", pageId=" + PageIO.getPageId(pageBuf) + ", pos=" + pos + ", pages=" + (totalBytes / pageSize) +
+                        ", crcBuff=" + FastCrc.calcCrc(pageBuf, pageBuf.limit()) + ", crcPage=" + PageIO.getCrc(pageBuf) + ']');
+
+                    pageBuf.rewind();
+                }
+
+                pageStore.write(PageIO.getPageId(pageBuf), pageBuf, 0, false);
+
+                pageBuf.flip();
+            }
+
+            pageStore.finishRecover();
+        }
+        catch (IOException e) {
+            throw new IgniteCheckedException(e);
+        }
+    }
+
     /**
      * @param snpName Unique snapshot name.
      * @param srcNodeId Node id which cause snapshot operation.
@@ -933,6 +1281,27 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         UUID srcNodeId,
         Map<Integer, Set<Integer>> parts,
         SnapshotSender snpSndr
+    ) {
+        return registerSnapshotTask(snpName, srcNodeId, parts, snpSndr, null, null);
+    }
+
+    /**
+     * @param snpName Unique snapshot name.
+     * @param srcNodeId Node id which cause snapshot operation.
+     * @param parts Collection of pairs group and appropriate cache partition to be snapshot.
+     * @param snpSndr Factory which produces snapshot receiver instance.
+     * @param pageTracker Tracker of changed pages, {@code null} if changes are not tracked.
+     * @param baseSnpDir Directory of the previous snapshot to copy only the pages changed since it,
+     * {@code null} to copy partition files completely.
+     * @return Snapshot operation task which should be registered on checkpoint to run.
+     */
+    SnapshotFutureTask registerSnapshotTask(
+        String snpName,
+        UUID srcNodeId,
+        Map<Integer, Set<Integer>> parts,
+        SnapshotSender snpSndr,
+        @Nullable SnapshotPageTracker pageTracker,
+        @Nullable File baseSnpDir
     ) {
         if (!busyLock.enterBusy())
             return new SnapshotFutureTask(new IgniteCheckedException("Snapshot manager is stopping [locNodeId=" + cctx.localNodeId() + ']'));
@@ -951,7 +1320,9 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
                     ioFactory,
                     snpSndr,
                     parts,
-                    locBuff));
+                    locBuff,
+                    pageTracker,
+                    baseSnpDir));
 
             if (prev != null)
                 return new SnapshotFutureTask(new IgniteCheckedException("Snapshot with requested name is already scheduled: " + snpName));
@@ -961,7 +1332,14 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
                     ", topVer=" + cctx.discovery().topologyVersionEx() + ']');
             }
 
-            snpFutTask.listen(f -> locSnpTasks.remove(snpName));
+            snpFutTask.listen(f -> {
+                locSnpTasks.remove(snpName);
+
+                if (f.error() == null) {
+                    lastSnpCopiedSize = snpFutTask.copiedSize();
+                    lastSnpTotalSize = snpFutTask.totalSize();
+                }
+            });
 
             return snpFutTask;
         }
@@ -970,6 +1348,124 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         }
     }
 
+    /**
+     * Requests a snapshot of cache group partitions from a remote node. The remote node creates a consistent copy
+     * of partitions by a checkpoint and sends the partition files with the pages changed during the copy over the
+     * zero-copy file transmission. The changed pages are applied to the received partition files locally.
+     *
+     * @param rmtNodeId Remote node id.
+     * @param parts Partitions of cache groups to request.
+     * @param partConsumer Consumer of received partition files. A file is deleted when the returned future
+     * completes, so the consumer should move it to keep.
+     * @return Future which is completed when all partitions have been received.
+     */
+    public IgniteInternalFuture<Void> createRemoteSnapshot(
+        UUID rmtNodeId,
+        Map<Integer, Set<Integer>> parts,
+        BiConsumer<File, GroupPartitionId> partConsumer
+    ) {
+        ClusterNode rmtNode = cctx.discovery().node(rmtNodeId);
+
+        if (rmtNode == null)
+            return new GridFinishedFuture<>(new ClusterTopologyCheckedException("Snapshot remote node left: " +
+                rmtNodeId));
+
+        if (!cctx.gridIO().fileTransmissionSupported(rmtNode)) {
+            return new GridFinishedFuture<>(new IgniteCheckedException("Snapshot remote node doesn't support " +
+                "transmission of files [nodeId=" + rmtNodeId + ']'));
+        }
+
+        if (!busyLock.enterBusy())
+            return new GridFinishedFuture<>(new NodeStoppingException(SNP_NODE_STOPPING_ERR_MSG));
+
+        try {
+            String snpName = "snapshot_" + UUID.randomUUID().getMostSignificantBits();
+
+            RemoteSnapshotFuture fut = new RemoteSnapshotFuture(rmtNodeId, snpName, parts, partConsumer);
+
+            rmtSnpReqs.put(snpName, fut);
+
+            fut.listen(f -> {
+                rmtSnpReqs.remove(snpName);
+
+                U.delete(new File(tmpWorkDir, snpName));
+            });
+
+            cctx.gridIO().sendToGridTopic(rmtNode, TOPIC_SNAPSHOT, new SnapshotFilesRequestMessage(snpName, parts),
+                SYSTEM_POOL);
+
+            if (log.isInfoEnabled()) {
+                log.info("Snapshot of partitions has been requested from the remote node [snpName=" + snpName +
+                    ", rmtNodeId=" + rmtNodeId + ", parts=" + parts + ']');
+            }
+
+            return fut;
+        }
+        catch (IgniteCheckedException e) {
+            return new GridFinishedFuture<>(e);
+        }
+        finally {
+            busyLock.leaveBusy();
+        }
+    }
+
+    /**
+     * @param rmtNodeId Node id which has requested the snapshot.
+     * @param req Request of a snapshot of partitions.
+     */
+    private void startRemoteSnapshotTask(UUID rmtNodeId, SnapshotFilesRequestMessage req) {
+        String snpName = req.snapshotName();
+
+        SnapshotFutureTask task = registerSnapshotTask(snpName,
+            rmtNodeId,
+            req.parts(),
+            new RemoteSnapshotSender(rmtNodeId, snpName));
+
+        task.listen(f -> {
+            if (f.error() == null)
+                return;
+
+            U.warn(log, "Snapshot of partitions requested by the remote node has failed [snpName=" + snpName +
+                ", rmtNodeId=" + rmtNodeId + ", err=" + f.error().getMessage() + ']');
+
+            try {
+                cctx.gridIO().sendToGridTopic(rmtNodeId, TOPIC_SNAPSHOT,
+                    new SnapshotFilesFailureMessage(snpName, f.error().getMessage()), SYSTEM_POOL);
+            }
+            catch (IgniteCheckedException e) {
+                U.warn(log, "Failed to notify the remote node about the failed snapshot [snpName=" + snpName +
+                    ", rmtNodeId=" + rmtNodeId + ", err=" + e.getMessage() + ']');
+            }
+        });
+
+        if (task.start())
+            cctx.database().forceCheckpoint(String.format(CP_SNAPSHOT_REASON, snpName));
+    }
+
+    /**
+     * @param snpName Snapshot name.
+     * @param cacheDirName Cache group directory name.
+     * @param pair Group id with partition id pair.
+     * @param delta {@code true} if the file contains delta pages of the partition.
+     * @return Parameters of a partition file transmission.
+     */
+    private static Map<String, Serializable> transmissionParams(
+        String snpName,
+        String cacheDirName,
+        GroupPartitionId pair,
+        boolean delta
+    ) {
+        Map<String, Serializable> params = new HashMap<>();
+
+        params.put(SNP_NAME_PARAM, snpName);
+        params.put(SNP_GRP_ID_PARAM, pair.getGroupId());
+        params.put(SNP_PART_ID_PARAM, pair.getPartitionId());
+        params.put(SNP_CACHE_DIR_NAME_PARAM, cacheDirName);
+        params.put(SNP_DELTA_PARAM, delta);
+
+        return params;
+    }
+
     /**
      * @param factory Factory which produces {@link LocalSnapshotSender} implementation.
      */
@@ -1092,9 +1588,6 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         /** Local node snapshot directory calculated on snapshot directory. */
         private File dbDir;
 
-        /** Size of page. */
-        private final int pageSize;
-
         /**
          * @param snpName Snapshot name.
          */
@@ -1103,7 +1596,6 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
 
             this.snpName = snpName;
             snpLocDir = snapshotLocalDir(snpName);
-            pageSize = cctx.kernalContext().config().getDataStorageConfiguration().getPageSize();
         }
 
         /** {@inheritDoc} */
@@ -1203,46 +1695,43 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
                     ", delta=" + delta + ']');
             }
 
-            try (FileIO fileIo = ioFactory.create(delta, READ);
-                 FilePageStore pageStore = (FilePageStore)storeFactory
-                     .apply(pair.getGroupId(), false)
-                     .createPageStore(getTypeByPartId(pair.getPartitionId()),
-                         snpPart::toPath,
-                         val -> {})
-            ) {
-                ByteBuffer pageBuf = ByteBuffer.allocate(pageSize)
-                    .order(ByteOrder.nativeOrder());
-
-                long totalBytes = fileIo.size();
-
-                assert totalBytes % pageSize == 0 : "Given file with delta pages has incorrect size: " + fileIo.size();
-
-                pageStore.beginRecover();
-
-                for (long pos = 0; pos < totalBytes; pos += pageSize) {
-                    long read = fileIo.readFully(pageBuf, pos);
-
-                    assert read == pageBuf.capacity();
-
-                    pageBuf.flip();
+            try {
+                applyPages(delta, snpPart, pair);
+            }
+            catch (IgniteCheckedException e) {
+                throw new IgniteException(e);
+            }
+        }
 
-                    if (log.isDebugEnabled()) {
-                        log.debug("Read page given delta file [path=" + delta.getName() +
-                            ", pageId=" + PageIO.getPageId(pageBuf) + ", pos=" + pos + ", pages=" + (totalBytes / pageSize) +
-                            ", crcBuff=" + FastCrc.calcCrc(pageBuf, pageBuf.limit()) + ", crcPage=" + PageIO.getCrc(pageBuf) + ']');
+        /** {@inheritDoc} */
+        @Override protected void sendIncrementalPart0(File incPart, String cacheDirName, GroupPartitionId pair) {
+            try {
+                File cacheDir = U.resolveWorkDirectory(dbDir.getAbsolutePath(), cacheDirName, false);
 
-                        pageBuf.rewind();
-                    }
+                File snpIncPart = partIncrementFile(cacheDir, pair.getPartitionId());
 
-                    pageStore.write(PageIO.getPageId(pageBuf), pageBuf, 0, false);
+                copy(ioFactory, incPart, snpIncPart, incPart.length());
 
-                    pageBuf.flip();
+                if (log.isInfoEnabled()) {
+                    log.info("Partition changed pages have been snapshot [snapshotDir=" + dbDir.getAbsolutePath() +
+                        ", cacheDirName=" + cacheDirName + ", part=" + pair.getPartitionId() +
+                        ", length=" + incPart.length() + ", snapshot=" + snpIncPart.getName() + ']');
                 }
+            }
+            catch (IgniteCheckedException ex) {
+                throw new IgniteException(ex);
+            }
+        }
 
-                pageStore.finishRecover();
+        /** {@inheritDoc} */
+        @Override protected void sendIncrementalMeta0(IncrementalSnapshotMetadata meta) {
+            try (OutputStream out = new BufferedOutputStream(
+                new FileOutputStream(new File(dbDir, INCREMENTAL_META_FILE_NAME)))
+            ) {
+                U.marshal(cctx.kernalContext().marshallerContext().jdkMarshaller(), meta, out);
             }
-            catch (IOException | IgniteCheckedException e) {
-                throw new IgniteException(e);
+            catch (IOException | IgniteCheckedException ex) {
+                throw new IgniteException(ex);
             }
         }
 
@@ -1261,6 +1750,239 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         }
     }
 
+    /**
+     * Snapshot sender which sends partition files and their delta pages to a remote node.
+     */
+    private class RemoteSnapshotSender extends SnapshotSender {
+        /** Remote node id to send files to. */
+        private final UUID rmtNodeId;
+
+        /** Snapshot name. */
+        private final String snpName;
+
+        /** Sender of files, opened on the first file sent. */
+        private GridIoManager.TransmissionSender sndr;
+
+        /**
+         * @param rmtNodeId Remote node id to send files to.
+         * @param snpName Snapshot name.
+         */
+        public RemoteSnapshotSender(UUID rmtNodeId, String snpName) {
+            super(IgniteSnapshotManager.this.log, snpRunner);
+
+            this.rmtNodeId = rmtNodeId;
+            this.snpName = snpName;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected void init(int partsCnt) {
+            // No-op.
+        }
+
+        /** {@inheritDoc} */
+        @Override protected void sendPart0(File part, String cacheDirName, GroupPartitionId pair, Long len) {
+            if (len == 0)
+                return;
+
+            send(part, len, transmissionParams(snpName, cacheDirName, pair, false));
+        }
+
+        /** {@inheritDoc} */
+        @Override protected void sendDelta0(File delta, String cacheDirName, GroupPartitionId pair) {
+            send(delta, delta.length(), transmissionParams(snpName, cacheDirName, pair, true));
+        }
+
+        /**
+         * Sends a file by the zero-copy file transmission. Files of different partitions are sent in parallel
+         * threads, but over the same connection.
+         *
+         * @param file File to send.
+         * @param len Number of bytes to send.
+         * @param params Transmission parameters.
+         */
+        private synchronized void send(File file, long len, Map<String, Serializable> params) {
+            try {
+                if (sndr == null)
+                    sndr = cctx.gridIO().openTransmissionSender(rmtNodeId, TOPIC_SNAPSHOT);
+
+                sndr.send(file, 0, len, params, TransmissionPolicy.FILE);
+
+                if (log.isDebugEnabled()) {
+                    log.debug("File has been sent to the remote node [snpName=" + snpName + ", file=" + file.getName() +
+                        ", len=" + len + ", rmtNodeId=" + rmtNodeId + ']');
+                }
+            }
+            catch (IgniteCheckedException | IOException e) {
+                throw new IgniteException(e);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new IgniteException(e);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override protected synchronized void close0(@Nullable Throwable th) {
+            U.closeQuiet(sndr);
+
+            if (log.isInfoEnabled()) {
+                log.info("Remote snapshot sender closed [snpName=" + snpName + ", rmtNodeId=" + rmtNodeId +
+                    ", err=" + (th == null ? null : th.getMessage()) + ']');
+            }
+        }
+    }
+
+    /**
+     * Future of a snapshot of partitions requested from a remote node.
+     */
+    private class RemoteSnapshotFuture extends GridFutureAdapter<Void> {
+        /** Remote node id. */
+        private final UUID rmtNodeId;
+
+        /** Snapshot name. */
+        private final String snpName;
+
+        /** Partitions which are not received yet. */
+        private final Set<GroupPartitionId> left = ConcurrentHashMap.newKeySet();
+
+        /** Consumer of received partition files. */
+        private final BiConsumer<File, GroupPartitionId> partConsumer;
+
+        /**
+         * @param rmtNodeId Remote node id.
+         * @param snpName Snapshot name.
+         * @param parts Requested partitions of cache groups.
+         * @param partConsumer Consumer of received partition files.
+         */
+        public RemoteSnapshotFuture(
+            UUID rmtNodeId,
+            String snpName,
+            Map<Integer, Set<Integer>> parts,
+            BiConsumer<File, GroupPartitionId> partConsumer
+        ) {
+            this.rmtNodeId = rmtNodeId;
+            this.snpName = snpName;
+            this.partConsumer = partConsumer;
+
+            for (Map.Entry<Integer, Set<Integer>> e : parts.entrySet()) {
+                for (int partId : e.getValue())
+                    left.add(new GroupPartitionId(e.getKey(), partId));
+            }
+        }
+
+        /**
+         * @param part Partition file with applied delta pages.
+         * @param pair Group id with partition id pair.
+         */
+        public void onPartitionReceived(File part, GroupPartitionId pair) {
+            if (isDone())
+                return;
+
+            // Empty partition files are not sent.
+            if (part.exists())
+                partConsumer.accept(part, pair);
+
+            if (left.remove(pair) && left.isEmpty())
+                onDone();
+        }
+
+        /** {@inheritDoc} */
+        @Override public String toString() {
+            return S.toString(RemoteSnapshotFuture.class, this);
+        }
+    }
+
+    /**
+     * Handler of partition files of snapshots requested from remote nodes.
+     */
+    private class RemoteSnapshotFilesHandler implements TransmissionHandler {
+        /** {@inheritDoc} */
+        @Override public void onEnd(UUID rmtNodeId) {
+            // No-op. Requests are completed when all partitions are received.
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onException(UUID rmtNodeId, Throwable err) {
+            for (RemoteSnapshotFuture fut : rmtSnpReqs.values()) {
+                if (fut.rmtNodeId.equals(rmtNodeId))
+                    fut.onDone(err);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override public String filePath(UUID rmtNodeId, TransmissionMeta fileMeta) {
+            RemoteSnapshotFuture fut = future(rmtNodeId, fileMeta);
+
+            File cacheDir = new File(new File(tmpWorkDir, fut.snpName),
+                (String)fileMeta.params().get(SNP_CACHE_DIR_NAME_PARAM));
+
+            try {
+                U.ensureDirectory(cacheDir, "directory for partition files received from remote node", log);
+            }
+            catch (IgniteCheckedException e) {
+                throw new IgniteException(e);
+            }
+
+            return new File(cacheDir, fileMeta.name()).getAbsolutePath();
+        }
+
+        /** {@inheritDoc} */
+        @Override public Consumer<File> fileHandler(UUID rmtNodeId, TransmissionMeta initMeta) {
+            RemoteSnapshotFuture fut = future(rmtNodeId, initMeta);
+
+            Map<String, Serializable> params = initMeta.params();
+
+            GroupPartitionId pair = new GroupPartitionId((Integer)params.get(SNP_GRP_ID_PARAM),
+                (Integer)params.get(SNP_PART_ID_PARAM));
+
+            // A partition file is processed when its delta pages are received.
+            if (!(Boolean)params.get(SNP_DELTA_PARAM))
+                return file -> {};
+
+            return delta -> {
+                File part = new File(delta.getParentFile(), getPartitionFileName(pair.getPartitionId()));
+
+                try {
+                    if (part.exists())
+                        applyPages(delta, part, pair);
+
+                    U.delete(delta);
+
+                    fut.onPartitionReceived(part, pair);
+                }
+                catch (IgniteCheckedException | RuntimeException e) {
+                    fut.onDone(e);
+
+                    throw new TransmissionCancelledException(e.getMessage());
+                }
+            };
+        }
+
+        /** {@inheritDoc} */
+        @Override public Consumer<ByteBuffer> chunkHandler(UUID rmtNodeId, TransmissionMeta initMeta) {
+            throw new UnsupportedOperationException("Loading snapshot files by chunks is not supported: " + initMeta);
+        }
+
+        /**
+         * @param rmtNodeId Remote node id.
+         * @param meta Transmission meta.
+         * @return Future of the snapshot which the file belongs to.
+         */
+        private RemoteSnapshotFuture future(UUID rmtNodeId, TransmissionMeta meta) {
+            String snpName = (String)meta.params().get(SNP_NAME_PARAM);
+
+            RemoteSnapshotFuture fut = snpName == null ? null : rmtSnpReqs.get(snpName);
+
+            if (fut == null || fut.isDone() || !fut.rmtNodeId.equals(rmtNodeId)) {
+                throw new TransmissionCancelledException("Snapshot request is not found or cancelled " +
+                    "[snpName=" + snpName + ", rmtNodeId=" + rmtNodeId + ']');
+            }
+
+            return fut;
+        }
+    }
+
     /** Snapshot start request for {@link DistributedProcess} initiate message. */
     private static class SnapshotOperationRequest implements Serializable {
         /** Serial version uid. */
@@ -1283,19 +2005,31 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         @GridToStringInclude
         private final Set<UUID> bltNodes;
 
+        /** {@code true} to copy only the pages changed since the previous snapshot. */
+        private final boolean incremental;
+
         /** Exception occurred during snapshot operation processing. */
         private volatile IgniteCheckedException err;
 
         /**
          * @param snpName Snapshot name.
          * @param grpIds Cache groups to include into snapshot.
+         * @param incremental {@code true} to copy only the pages changed since the previous snapshot.
          */
-        public SnapshotOperationRequest(UUID rqId, UUID srcNodeId, String snpName, List<Integer> grpIds, Set<UUID> bltNodes) {
+        public SnapshotOperationRequest(
+            UUID rqId,
+            UUID srcNodeId,
+            String snpName,
+            List<Integer> grpIds,
+            Set<UUID> bltNodes,
+            boolean incremental
+        ) {
             this.rqId = rqId;
             this.srcNodeId = srcNodeId;
             this.snpName = snpName;
             this.grpIds = grpIds;
             this.bltNodes = bltNodes;
+            this.incremental = incremental;
         }
 
         /** {@inheritDoc} */
@@ -1408,20 +2142,25 @@ public class IgniteSnapshotManager extends GridCacheSharedManagerAdapter
         /** Snapshot name. */
         private final String snpName;
 
+        /** {@code true} to copy only the pages changed since the previous snapshot. */
+        private final boolean incremental;
+
         /** Auto-injected grid instance. */
         @IgniteInstanceResource
         private transient IgniteEx ignite;
 
         /**
          * @param snpName Snapshot name.
+         * @param incremental {@code true} to copy only the pages changed since the previous snapshot.
          */
-        public CreateSnapshotCallable(String snpName) {
+        public CreateSnapshotCallable(String snpName, boolean incremental) {
             this.snpName = snpName;
+            this.incremental = incremental;
         }
 
         /** {@inheritDoc} */
         @Override public Void call() throws Exception {
-            ignite.snapshot().createSnapshot(snpName).get();
+            ignite.context().cache().context().snapshotMgr().createSnapshot(snpName, incremental).get();
 
             return null;
         }
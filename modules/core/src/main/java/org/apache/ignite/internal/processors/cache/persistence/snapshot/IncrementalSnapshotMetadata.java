@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.snapshot;
+
+import java.io.Serializable;
+import java.util.List;
+import org.apache.ignite.internal.util.tostring.GridToStringInclude;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Metadata of the local node part of a snapshot taken while changed pages are tracked. It links an incremental
+ * snapshot to its base and keeps the partitions saved as changed pages only.
+ */
+class IncrementalSnapshotMetadata implements Serializable {
+    /** Serial version uid. */
+    private static final long serialVersionUID = 0L;
+
+    /** Snapshot name. */
+    private final String snpName;
+
+    /** Name of the previous snapshot this one is based on, {@code null} for a full snapshot. */
+    @Nullable private final String baseSnpName;
+
+    /** Tag of the pages changed since the previous snapshot. */
+    private final long tag;
+
+    /** Partitions saved as pages changed since the previous snapshot. */
+    @GridToStringInclude
+    private final List<PartitionIncrement> incParts;
+
+    /** Number of bytes of partition pages copied to the snapshot. */
+    private final long copiedSize;
+
+    /** Total size of partitions included into the snapshot. */
+    private final long totalSize;
+
+    /**
+     * @param snpName Snapshot name.
+     * @param baseSnpName Name of the previous snapshot this one is based on, {@code null} for a full snapshot.
+     * @param tag Tag of the pages changed since the previous snapshot.
+     * @param incParts Partitions saved as pages changed since the previous snapshot.
+     * @param copiedSize Number of bytes of partition pages copied to the snapshot.
+     * @param totalSize Total size of partitions included into the snapshot.
+     */
+    public IncrementalSnapshotMetadata(
+        String snpName,
+        @Nullable String baseSnpName,
+        long tag,
+        List<PartitionIncrement> incParts,
+        long copiedSize,
+        long totalSize
+    ) {
+        this.snpName = snpName;
+        this.baseSnpName = baseSnpName;
+        this.tag = tag;
+        this.incParts = incParts;
+        this.copiedSize = copiedSize;
+        this.totalSize = totalSize;
+    }
+
+    /**
+     * @return Snapshot name.
+     */
+    public String snapshotName() {
+        return snpName;
+    }
+
+    /**
+     * @return Name of the previous snapshot this one is based on, {@code null} for a full snapshot.
+     */
+    @Nullable public String baseSnapshotName() {
+        return baseSnpName;
+    }
+
+    /**
+     * @return Tag of the pages changed since the previous snapshot.
+     */
+    public long tag() {
+        return tag;
+    }
+
+    /**
+     * @return Partitions saved as pages changed since the previous snapshot.
+     */
+    public List<PartitionIncrement> partitionIncrements() {
+        return incParts;
+    }
+
+    /**
+     * @return Number of bytes of partition pages copied to the snapshot.
+     */
+    public long copiedSize() {
+        return copiedSize;
+    }
+
+    /**
+     * @return Total size of partitions included into the snapshot.
+     */
+    public long totalSize() {
+        return totalSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(IncrementalSnapshotMetadata.class, this);
+    }
+
+    /** Partition saved as pages changed since the previous snapshot. */
+    static class PartitionIncrement implements Serializable {
+        /** Serial version uid. */
+        private static final long serialVersionUID = 0L;
+
+        /** Cache group directory name. */
+        private final String cacheDirName;
+
+        /** Cache group id. */
+        private final int grpId;
+
+        /** Partition id. */
+        private final int partId;
+
+        /** Partition file length. */
+        private final long len;
+
+        /**
+         * @param cacheDirName Cache group directory name.
+         * @param grpId Cache group id.
+         * @param partId Partition id.
+         * @param len Partition file length.
+         */
+        public PartitionIncrement(String cacheDirName, int grpId, int partId, long len) {
+            this.cacheDirName = cacheDirName;
+            this.grpId = grpId;
+            this.partId = partId;
+            this.len = len;
+        }
+
+        /**
+         * @return Cache group directory name.
+         */
+        public String cacheDirName() {
+            return cacheDirName;
+        }
+
+        /**
+         * @return Cache group id.
+         */
+        public int groupId() {
+            return grpId;
+        }
+
+        /**
+         * @return Partition id.
+         */
+        public int partitionId() {
+            return partId;
+        }
+
+        /**
+         * @return Partition file length.
+         */
+        public long length() {
+            return len;
+        }
+
+        /** {@inheritDoc} */
+        @Override public String toString() {
+            return S.toString(PartitionIncrement.class, this);
+        }
+    }
+}
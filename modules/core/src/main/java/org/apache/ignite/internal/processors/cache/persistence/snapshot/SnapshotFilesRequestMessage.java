@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.ignite.internal.GridDirectMap;
+import org.apache.ignite.internal.util.GridIntList;
+import org.apache.ignite.internal.util.tostring.GridToStringInclude;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.apache.ignite.plugin.extensions.communication.Message;
+import org.apache.ignite.plugin.extensions.communication.MessageCollectionItemType;
+import org.apache.ignite.plugin.extensions.communication.MessageReader;
+import org.apache.ignite.plugin.extensions.communication.MessageWriter;
+
+/**
+ * Request to create a snapshot of cache group partitions on a remote node and to send partition files
+ * back to the requesting node.
+ */
+public class SnapshotFilesRequestMessage implements Message {
+    /** Serial version uid. */
+    private static final long serialVersionUID = 0L;
+
+    /** Snapshot request message type (value is {@code 178}). */
+    public static final short TYPE_CODE = 178;
+
+    /** Unique snapshot name. */
+    private String snpName;
+
+    /** Partitions of cache groups to snapshot. */
+    @GridToStringInclude
+    @GridDirectMap(keyType = Integer.class, valueType = GridIntList.class)
+    private Map<Integer, GridIntList> parts;
+
+    /** Empty constructor for marshalling purposes. */
+    public SnapshotFilesRequestMessage() {
+    }
+
+    /**
+     * @param snpName Unique snapshot name.
+     * @param parts Partitions of cache groups to snapshot.
+     */
+    public SnapshotFilesRequestMessage(String snpName, Map<Integer, Set<Integer>> parts) {
+        assert parts != null && !parts.isEmpty();
+
+        this.snpName = snpName;
+        this.parts = new HashMap<>();
+
+        for (Map.Entry<Integer, Set<Integer>> e : parts.entrySet()) {
+            GridIntList grpParts = new GridIntList(e.getValue().size());
+
+            for (int partId : e.getValue())
+                grpParts.add(partId);
+
+            this.parts.put(e.getKey(), grpParts);
+        }
+    }
+
+    /**
+     * @return Unique snapshot name.
+     */
+    public String snapshotName() {
+        return snpName;
+    }
+
+    /**
+     * @return Partitions of cache groups to snapshot.
+     */
+    public Map<Integer, Set<Integer>> parts() {
+        Map<Integer, Set<Integer>> res = new HashMap<>();
+
+        for (Map.Entry<Integer, GridIntList> e : parts.entrySet()) {
+            Set<Integer> grpParts = new HashSet<>();
+
+            for (int i = 0; i < e.getValue().size(); i++)
+                grpParts.add(e.getValue().get(i));
+
+            res.put(e.getKey(), grpParts);
+        }
+
+        return res;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean writeTo(ByteBuffer buf, MessageWriter writer) {
+        writer.setBuffer(buf);
+
+        if (!writer.isHeaderWritten()) {
+            if (!writer.writeHeader(directType(), fieldsCount()))
+                return false;
+
+            writer.onHeaderWritten();
+        }
+
+        switch (writer.state()) {
+            case 0:
+                if (!writer.writeMap("parts", parts, MessageCollectionItemType.INT, MessageCollectionItemType.MSG))
+                    return false;
+
+                writer.incrementState();
+
+            case 1:
+                if (!writer.writeString("snpName", snpName))
+                    return false;
+
+                writer.incrementState();
+
+        }
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean readFrom(ByteBuffer buf, MessageReader reader) {
+        reader.setBuffer(buf);
+
+        if (!reader.beforeMessageRead())
+            return false;
+
+        switch (reader.state()) {
+            case 0:
+                parts = reader.readMap("parts", MessageCollectionItemType.INT, MessageCollectionItemType.MSG, false);
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 1:
+                snpName = reader.readString("snpName");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+        }
+
+        return reader.afterMessageRead(SnapshotFilesRequestMessage.class);
+    }
+
+    /** {@inheritDoc} */
+    @Override public short directType() {
+        return TYPE_CODE;
+    }
+
+    /** {@inheritDoc} */
+    @Override public byte fieldsCount() {
+        return 2;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onAckReceived() {
+        // No-op.
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(SnapshotFilesRequestMessage.class, this);
+    }
+}
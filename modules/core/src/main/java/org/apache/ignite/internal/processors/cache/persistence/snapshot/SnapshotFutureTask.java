@@ -19,9 +19,11 @@ package org.apache.ignite.internal.processors.cache.persistence.snapshot;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -39,6 +41,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -62,9 +65,12 @@ import org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabase
 import org.apache.ignite.internal.processors.cache.persistence.checkpoint.CheckpointListener;
 import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
 import org.apache.ignite.internal.processors.cache.persistence.file.FileIOFactory;
+import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStore;
 import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager;
 import org.apache.ignite.internal.processors.cache.persistence.partstate.GroupPartitionId;
+import org.apache.ignite.internal.processors.cache.persistence.snapshot.IncrementalSnapshotMetadata.PartitionIncrement;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.TrackingPageIO;
 import org.apache.ignite.internal.processors.cache.persistence.wal.crc.FastCrc;
 import org.apache.ignite.internal.processors.marshaller.MappedName;
 import org.apache.ignite.internal.util.future.GridFutureAdapter;
@@ -76,18 +82,26 @@ import org.apache.ignite.internal.util.typedef.internal.S;
 import org.apache.ignite.internal.util.typedef.internal.U;
 import org.jetbrains.annotations.Nullable;
 
+import static java.nio.file.StandardOpenOption.READ;
+import static org.apache.ignite.internal.pagemem.PageIdAllocator.FLAG_DATA;
+import static org.apache.ignite.internal.pagemem.PageIdAllocator.FLAG_IDX;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.INDEX_PARTITION;
 import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheDirName;
 import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheWorkDir;
 import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFile;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFileName;
 import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.copy;
 import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.databaseRelativePath;
 import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.partDeltaFile;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.partIncrementFile;
 
 /**
  *
  */
 class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements CheckpointListener {
+    /** Tracking pages IO. */
+    private static final TrackingPageIO trackingIO = TrackingPageIO.VERSIONS.latest();
+
     /** Shared context. */
     private final GridCacheSharedContext<?, ?> cctx;
 
@@ -168,6 +182,27 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
     /** Flag indicates that task already scheduled on checkpoint. */
     private final AtomicBoolean started = new AtomicBoolean();
 
+    /** Tracker of changed pages, {@code null} if changes are not tracked. */
+    @Nullable private final SnapshotPageTracker pageTracker;
+
+    /** Directory of the previous snapshot if the snapshot is incremental, {@code null} for a full snapshot. */
+    @Nullable private final File baseSnpDir;
+
+    /** Tag of the pages changed since the previous snapshot. Set under the checkpoint write lock. */
+    private long tag;
+
+    /** Tag of the previous snapshot. Set under the checkpoint write lock. */
+    private long baseTag;
+
+    /** Partitions saved as pages changed since the previous snapshot. */
+    private final List<PartitionIncrement> incParts = new CopyOnWriteArrayList<>();
+
+    /** Number of bytes of partition pages copied to the snapshot. */
+    private final LongAdder copiedSize = new LongAdder();
+
+    /** Total size of partitions included into the snapshot. */
+    private final LongAdder totalSize = new LongAdder();
+
     /**
      * @param e Finished snapshot task future with particular exception.
      */
@@ -188,6 +223,8 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
         parts = null;
         ioFactory = null;
         locBuff = null;
+        pageTracker = null;
+        baseSnpDir = null;
     }
 
     /**
@@ -195,6 +232,9 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
      * @param ioFactory Factory to working with delta as file storage.
      * @param parts Map of cache groups and its partitions to include into snapshot, if set of partitions
      * is {@code null} than all OWNING partitions for given cache groups will be included into snapshot.
+     * @param pageTracker Tracker of changed pages, {@code null} if changes are not tracked.
+     * @param baseSnpDir Directory of the previous snapshot to copy only the pages changed since it,
+     * {@code null} to copy partition files completely.
      */
     public SnapshotFutureTask(
         GridCacheSharedContext<?, ?> cctx,
@@ -204,7 +244,9 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
         FileIOFactory ioFactory,
         SnapshotSender snpSndr,
         Map<Integer, Set<Integer>> parts,
-        ThreadLocal<ByteBuffer> locBuff
+        ThreadLocal<ByteBuffer> locBuff,
+        @Nullable SnapshotPageTracker pageTracker,
+        @Nullable File baseSnpDir
     ) {
         assert snpName != null : "Snapshot name cannot be empty or null.";
         assert snpSndr != null : "Snapshot sender which handles execution tasks must be not null.";
@@ -221,6 +263,8 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
         this.snpSndr = snpSndr;
         this.ioFactory = ioFactory;
         this.locBuff = locBuff;
+        this.pageTracker = pageTracker;
+        this.baseSnpDir = pageTracker == null ? null : baseSnpDir;
     }
 
     /**
@@ -244,6 +288,20 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
         return snpSndr.getClass();
     }
 
+    /**
+     * @return Number of bytes of partition pages copied to the snapshot.
+     */
+    public long copiedSize() {
+        return copiedSize.sum();
+    }
+
+    /**
+     * @return Total size of partitions included into the snapshot.
+     */
+    public long totalSize() {
+        return totalSize.sum();
+    }
+
     /**
      * @return Set of cache groups included into snapshot operation.
      */
@@ -344,6 +402,9 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
                     log);
             }
 
+            if (pageTracker != null)
+                pageTracker.beforeSnapshotStart();
+
             startedFut.listen(f ->
                 ((GridCacheDatabaseSharedManager)cctx.database()).removeCheckpointListener(this)
             );
@@ -473,6 +534,12 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
 
             pageStore.readConfigurationFiles(ccfgs,
                 (ccfg, ccfgFile) -> ccfgSndrs.add(new CacheConfigurationSender(ccfg.getName(), cacheDirName(ccfg), ccfgFile)));
+
+            // Pages changed since this checkpoint are tracked for the next snapshot.
+            if (pageTracker != null) {
+                tag = pageTracker.onSnapshotCheckpoint(snpName);
+                baseTag = pageTracker.lastTag();
+            }
         }
         catch (IgniteCheckedException e) {
             acceptException(e);
@@ -546,8 +613,26 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
                 String cacheDirName = cacheDirName(ccfg);
                 Long partLen = partFileLengths.get(pair);
 
+                totalSize.add(partLen);
+
+                if (incremental(cacheDirName, partId, partLen)) {
+                    futs.add(cpEndFut.thenRunAsync(
+                        wrapExceptionIfStarted(() -> sendChangedPages(cacheDirName, pair, partLen)),
+                        snpSndr.executor()));
+
+                    continue;
+                }
+
+                copiedSize.add(partLen);
+
                 CompletableFuture<Void> fut0 = CompletableFuture.runAsync(
                     wrapExceptionIfStarted(() -> {
+                        PageStore store = pageStore.getStore(grpId, partId);
+
+                        // Partition file is copied as is, so changes logged by incremental checkpoint are moved to it.
+                        if (store instanceof FilePageStore)
+                            ((FilePageStore)store).mergeDeltaLog();
+
                         snpSndr.sendPart(
                             getPartitionFile(pageStore.workDir(), cacheDirName, partId),
                             cacheDirName,
@@ -591,10 +676,202 @@ class SnapshotFutureTask extends GridFutureAdapter<Boolean> implements Checkpoin
                 assert t == null : "Exception must never be thrown since a wrapper is used " +
                     "for each snapshot task: " + t;
 
+                if (pageTracker != null) {
+                    wrapExceptionIfStarted(() -> {
+                        IncrementalSnapshotMetadata meta = new IncrementalSnapshotMetadata(snpName,
+                            baseSnpDir == null ? null : baseSnpDir.getName(),
+                            tag,
+                            new ArrayList<>(incParts),
+                            copiedSize.sum(),
+                            totalSize.sum());
+
+                        snpSndr.sendIncrementalMeta(meta);
+                    }).run();
+                }
+
+                if (log.isInfoEnabled() && !stopping()) {
+                    log.info("Snapshot partitions have been copied [snpName=" + snpName +
+                        ", baseSnpName=" + (baseSnpDir == null ? null : baseSnpDir.getName()) +
+                        ", incrementalParts=" + incParts.size() + ", copiedSize=" + copiedSize.sum() +
+                        ", totalSize=" + totalSize.sum() + ']');
+                }
+
                 closeAsync();
             });
     }
 
+    /**
+     * @param cacheDirName Cache group directory name.
+     * @param partId Partition id.
+     * @param partLen Partition file length.
+     * @return {@code true} if only the pages changed since the previous snapshot should be copied.
+     */
+    private boolean incremental(String cacheDirName, int partId, long partLen) {
+        if (baseSnpDir == null || partLen == 0)
+            return false;
+
+        File baseCacheDir = cacheWorkDir(new File(baseSnpDir, databaseRelativePath(
+            cctx.kernalContext().pdsFolderResolver().resolveFolders().folderName())), cacheDirName);
+
+        // The partition must be restorable from the previous snapshot, otherwise it is copied completely.
+        return new File(baseCacheDir, getPartitionFileName(partId)).exists() ||
+            partIncrementFile(baseCacheDir, partId).exists();
+    }
+
+    /**
+     * Copies the partition pages changed since the previous snapshot followed by the delta pages.
+     * Must be called when the checkpoint which starts the snapshot has finished.
+     *
+     * @param cacheDirName Cache group directory name.
+     * @param pair Group id with partition id pair.
+     * @param partLen Partition file length.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void sendChangedPages(String cacheDirName, GroupPartitionId pair, long partLen)
+        throws IgniteCheckedException {
+        int partId = pair.getPartitionId();
+
+        PageStore store = pageStore.getStore(pair.getGroupId(), partId);
+
+        // Partition file is read as is, so changes logged by incremental checkpoint are moved to it.
+        if (store instanceof FilePageStore)
+            ((FilePageStore)store).mergeDeltaLog();
+
+        PageStoreSerialWriter writer = partDeltaWriters.get(pair);
+
+        File incPart = partIncrementFile(writer.deltaFile.getParentFile(), partId);
+
+        int pageSize = store.getPageSize();
+        byte flag = partId == INDEX_PARTITION ? FLAG_IDX : FLAG_DATA;
+        int pages = (int)((partLen - store.pageOffset(PageIdUtils.pageId(partId, flag, 0)) + pageSize - 1) / pageSize);
+        int trackCnt = trackingIO.countOfPageToTrack(pageSize);
+
+        ByteBuffer trackBuf = ByteBuffer.allocate(pageSize).order(ByteOrder.nativeOrder());
+        ByteBuffer pageBuf = ByteBuffer.allocate(pageSize).order(ByteOrder.nativeOrder());
+
+        long copied = 0;
+
+        try (FileIO src = ioFactory.create(getPartitionFile(pageStore.workDir(), cacheDirName, partId), READ);
+             FileIO dst = ioFactory.create(incPart)
+        ) {
+            // Meta page is always copied.
+            copied += copyPage(src, dst, store.pageOffset(PageIdUtils.pageId(partId, flag, 0)), pageBuf);
+
+            for (int trackIdx = 1; trackIdx < pages; trackIdx += trackCnt) {
+                long trackId = PageIdUtils.pageId(partId, flag, trackIdx);
+                int end = Math.min(trackIdx + trackCnt, pages);
+
+                long trackCopied = copyPage(src, dst, store.pageOffset(trackId), trackBuf);
+
+                copied += trackCopied;
+
+                boolean all = trackCopied == 0 || PageIO.getType(trackBuf) != PageIO.T_PAGE_UPDATE_TRACKING;
+
+                int idx = trackIdx + 1;
+
+                if (!all) {
+                    try {
+                        while (idx < end) {
+                            Long next = trackingIO.findNextChangedPage(trackBuf, PageIdUtils.pageId(partId, flag, idx),
+                                tag, baseTag, pageSize);
+
+                            if (next == null || PageIdUtils.pageIndex(next) >= end)
+                                break;
+
+                            copied += copyPage(src, dst, store.pageOffset(next), pageBuf);
+
+                            idx = PageIdUtils.pageIndex(next) + 1;
+                        }
+                    }
+                    catch (TrackingPageIsCorruptedException e) {
+                        all = true;
+                    }
+                }
+
+                // Changes of the pages tracked by a corrupted tracking page are unknown.
+                for (; all && idx < end; idx++)
+                    copied += copyPage(src, dst, store.pageOffset(PageIdUtils.pageId(partId, flag, idx)), pageBuf);
+            }
+        }
+        catch (IOException e) {
+            throw new IgniteCheckedException("Failed to copy changed pages of partition [pair=" + pair +
+                ", snpName=" + snpName + ']', e);
+        }
+
+        // Stop partition writer, the checkpoint which starts the snapshot has already finished.
+        writer.markPartitionProcessed();
+
+        File delta = writer.deltaFile;
+
+        // Delta pages are applied after the changed pages, so the partition has the state of the checkpoint.
+        if (delta.exists()) {
+            try (FileIO src = ioFactory.create(delta, READ);
+                 FileChannel dst = new FileOutputStream(incPart, true).getChannel()
+            ) {
+                long len = src.size();
+
+                for (long written = 0; written < len; )
+                    written += src.transferTo(written, len - written, dst);
+
+                copied += len;
+            }
+            catch (IOException e) {
+                throw new IgniteCheckedException("Failed to append delta pages of partition [pair=" + pair +
+                    ", snpName=" + snpName + ']', e);
+            }
+
+            boolean deleted = delta.delete();
+
+            assert deleted;
+        }
+
+        snpSndr.sendIncrementalPart(incPart, cacheDirName, pair);
+
+        incParts.add(new PartitionIncrement(cacheDirName, pair.getGroupId(), partId, partLen));
+        copiedSize.add(copied);
+
+        U.delete(incPart);
+    }
+
+    /**
+     * Appends a page of the partition file to the end of the given file unless the page has never been written.
+     *
+     * @param src Partition file.
+     * @param dst File to write page to.
+     * @param off Page offset in the partition file.
+     * @param buf Page buffer.
+     * @return Number of bytes copied.
+     * @throws IOException If failed.
+     */
+    private static long copyPage(FileIO src, FileIO dst, long off, ByteBuffer buf) throws IOException {
+        buf.clear();
+
+        while (buf.hasRemaining()) {
+            int n = src.read(buf, off + buf.position());
+
+            if (n < 0)
+                break;
+        }
+
+        if (buf.position() == 0)
+            return 0;
+
+        // Tail of a partially written page is empty.
+        while (buf.hasRemaining())
+            buf.put((byte)0);
+
+        if (PageIO.getPageId(buf) == 0)
+            return 0;
+
+        buf.flip();
+
+        dst.writeFully(buf);
+
+        buf.rewind();
+
+        return buf.capacity();
+    }
+
     /**
      * @param exec Runnable task to execute.
      * @return Wrapped task.
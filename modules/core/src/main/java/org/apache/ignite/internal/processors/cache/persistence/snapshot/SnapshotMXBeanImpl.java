@@ -43,6 +43,14 @@ public class SnapshotMXBeanImpl implements SnapshotMXBean {
             fut.get();
     }
 
+    /** {@inheritDoc} */
+    @Override public void createIncrementalSnapshot(String snpName) {
+        IgniteFuture<Void> fut = mgr.createIncrementalSnapshot(snpName);
+
+        if (fut.isDone())
+            fut.get();
+    }
+
     /** {@inheritDoc} */
     @Override public void cancelSnapshot(String snpName) {
         mgr.cancelSnapshot(snpName).get();
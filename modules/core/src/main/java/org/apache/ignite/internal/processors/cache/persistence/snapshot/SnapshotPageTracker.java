@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.snapshot;
+
+import java.io.Serializable;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
+import org.apache.ignite.internal.pagemem.wal.IgniteWriteAheadLogManager;
+import org.apache.ignite.internal.pagemem.wal.record.delta.TrackingPageDeltaRecord;
+import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.persistence.DatabaseLifecycleListener;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabaseSharedManager;
+import org.apache.ignite.internal.processors.cache.persistence.IgniteCacheDatabaseSharedManager;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.MetaStorage;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.MetastorageLifecycleListener;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.ReadOnlyMetastorage;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.ReadWriteMetastorage;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryEx;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.TrackingPageIO;
+import org.apache.ignite.internal.util.typedef.T2;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.jetbrains.annotations.Nullable;
+
+import static org.apache.ignite.internal.processors.cache.persistence.tree.util.PageHandler.isWalDeltaRecordNeeded;
+
+/**
+ * Tracks pages of persistent cache groups changed between snapshots. Each changed page is marked in the tracking
+ * page of its partition file (see {@link TrackingPageIO}) with the tag of the next snapshot, so an incremental
+ * snapshot copies only the pages changed since the last successful one.
+ * <p>
+ * Tags are local to the node and kept in the metastorage together with the name of the last successful snapshot,
+ * which is the base of the next incremental snapshot. The base is dropped if some changes might have been missed:
+ * the tracking has been disabled or pages have been restored from physical WAL records after a crash.
+ */
+class SnapshotPageTracker implements MetastorageLifecycleListener, DatabaseLifecycleListener {
+    /** Metastorage key to save the tracking state. */
+    static final String SNP_TRACKING_KEY = "snapshot-pages-tracking";
+
+    /** Tracking pages IO. */
+    private static final TrackingPageIO trackingIO = TrackingPageIO.VERSIONS.latest();
+
+    /** Shared context. */
+    private final GridCacheSharedContext<?, ?> cctx;
+
+    /** Ignite logger. */
+    private final IgniteLogger log;
+
+    /** {@code true} if changed pages are tracked. */
+    private final boolean enabled;
+
+    /** Tag changed pages are marked with. It is increased by the checkpoint which starts a snapshot. */
+    private volatile long nextTag = 1;
+
+    /** Tag of the last successful snapshot. */
+    private volatile long lastTag;
+
+    /** Name of the last successful snapshot, {@code null} if there is no base for an incremental snapshot. */
+    private volatile String lastSnpName;
+
+    /** {@code true} if the state has been read from the metastorage. */
+    private volatile boolean loaded;
+
+    /** {@code true} if some changes might have been not tracked since the last successful snapshot. */
+    private volatile boolean lost;
+
+    /** Snapshot started by a checkpoint and not finished yet with its tag. */
+    private volatile T2<String, Long> pending;
+
+    /** Metastorage to save the state. */
+    private volatile ReadWriteMetastorage metaStorage;
+
+    /**
+     * @param cctx Shared context.
+     * @param enabled {@code true} if changed pages are tracked.
+     */
+    SnapshotPageTracker(GridCacheSharedContext<?, ?> cctx, boolean enabled) {
+        this.cctx = cctx;
+        this.enabled = enabled;
+
+        log = cctx.logger(SnapshotPageTracker.class);
+    }
+
+    /**
+     * @return {@code true} if changed pages are tracked.
+     */
+    boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Name of the last successful snapshot which is the base of the next incremental snapshot,
+     * {@code null} if there is no such a snapshot.
+     */
+    @Nullable String baseSnapshot() {
+        return enabled && !lost ? lastSnpName : null;
+    }
+
+    /**
+     * @return Tag of the last successful snapshot.
+     */
+    long lastTag() {
+        return lastTag;
+    }
+
+    /**
+     * Marks a page as changed since the last successful snapshot. Invoked when a page becomes dirty,
+     * under the checkpoint read lock and the write lock of the page.
+     *
+     * @param fullId Full page id.
+     * @param pageMem Page memory.
+     * @throws IgniteCheckedException If failed.
+     */
+    void onPageChanged(FullPageId fullId, PageMemoryEx pageMem) throws IgniteCheckedException {
+        int grpId = fullId.groupId();
+
+        if (!enabled || grpId == MetaStorage.METASTORAGE_CACHE_ID)
+            return;
+
+        if (!loaded) {
+            lost = true;
+
+            return;
+        }
+
+        long pageId = fullId.pageId();
+
+        // The meta page and the tracking pages are always copied to an incremental snapshot.
+        if (PageIdUtils.pageIndex(pageId) == 0)
+            return;
+
+        int pageSize = pageMem.realPageSize(grpId);
+
+        long trackingPageId = trackingIO.trackingPageFor(pageId, pageSize);
+
+        if (PageIdUtils.pageIndex(trackingPageId) == PageIdUtils.pageIndex(pageId))
+            return;
+
+        long nextTag0 = nextTag;
+        long lastTag0 = lastTag;
+
+        IgniteWriteAheadLogManager wal = cctx.wal();
+
+        long trackingPage = pageMem.acquirePage(grpId, trackingPageId);
+
+        try {
+            long pageAddr = pageMem.writeLock(grpId, trackingPageId, trackingPage);
+
+            assert pageAddr != 0 : "Tracking page cannot be reused: " + fullId;
+
+            try {
+                trackingIO.markChanged(pageMem.pageBuffer(pageAddr), pageId, nextTag0, lastTag0, pageSize);
+
+                if (isWalDeltaRecordNeeded(pageMem, grpId, trackingPageId, trackingPage, wal, null))
+                    wal.log(new TrackingPageDeltaRecord(grpId, trackingPageId, pageId, nextTag0, lastTag0));
+            }
+            finally {
+                pageMem.writeUnlock(grpId, trackingPageId, trackingPage, null, true);
+            }
+        }
+        finally {
+            pageMem.releasePage(grpId, trackingPageId, trackingPage);
+        }
+    }
+
+    /**
+     * Reserves the tag of the snapshot which is going to start, so the tags marked after a node crash are never
+     * less than the ones already used.
+     *
+     * @throws IgniteCheckedException If failed.
+     */
+    void beforeSnapshotStart() throws IgniteCheckedException {
+        if (enabled)
+            writeState(nextTag + 1);
+    }
+
+    /**
+     * Starts tracking changes for the next snapshot. Invoked under the checkpoint write lock by the checkpoint
+     * which starts the snapshot.
+     *
+     * @param snpName Snapshot name.
+     * @return Tag of the pages changed since the last successful snapshot and before this checkpoint.
+     */
+    long onSnapshotCheckpoint(String snpName) {
+        long tag = nextTag;
+
+        nextTag = tag + 1;
+
+        pending = new T2<>(snpName, tag);
+
+        return tag;
+    }
+
+    /**
+     * @param snpName Snapshot name.
+     * @param success {@code true} if the snapshot has been completed on all nodes.
+     * @throws IgniteCheckedException If failed.
+     */
+    void onSnapshotFinished(String snpName, boolean success) throws IgniteCheckedException {
+        T2<String, Long> pending0 = pending;
+
+        if (pending0 == null || !pending0.get1().equals(snpName))
+            return;
+
+        pending = null;
+
+        if (!enabled || !success)
+            return;
+
+        lastTag = pending0.get2();
+        lastSnpName = snpName;
+        lost = false;
+
+        writeState(nextTag);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onReadyForRead(ReadOnlyMetastorage metaStorage) throws IgniteCheckedException {
+        TrackingState state = (TrackingState)metaStorage.read(SNP_TRACKING_KEY);
+
+        if (state != null) {
+            nextTag = state.nextTag;
+            lastTag = state.lastTag;
+            lastSnpName = state.lastSnpName;
+        }
+
+        loaded = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onReadyForReadWrite(ReadWriteMetastorage metaStorage) throws IgniteCheckedException {
+        this.metaStorage = metaStorage;
+
+        if (lastSnpName != null && (!enabled || lost))
+            dropBase();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void afterBinaryMemoryRestore(
+        IgniteCacheDatabaseSharedManager mgr,
+        GridCacheDatabaseSharedManager.RestoreBinaryState restoreState
+    ) throws IgniteCheckedException {
+        // Marks of tracking pages might have not been logged for pages restored from physical records.
+        if (restoreState.memoryRestored()) {
+            lost = true;
+
+            if (lastSnpName != null && metaStorage != null)
+                dropBase();
+        }
+    }
+
+    /**
+     * Drops the base of the next incremental snapshot, so the next snapshot copies all partitions.
+     *
+     * @throws IgniteCheckedException If failed.
+     */
+    private void dropBase() throws IgniteCheckedException {
+        if (log.isInfoEnabled()) {
+            log.info("Changed pages may have been not tracked since the last snapshot, the next snapshot will " +
+                "copy partition files completely [lastSnpName=" + lastSnpName + ", enabled=" + enabled + ']');
+        }
+
+        lastSnpName = null;
+
+        writeState(nextTag);
+    }
+
+    /**
+     * @param nextTag0 Next tag to save.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void writeState(long nextTag0) throws IgniteCheckedException {
+        ReadWriteMetastorage metaStorage0 = metaStorage;
+
+        assert metaStorage0 != null;
+
+        cctx.database().checkpointReadLock();
+
+        try {
+            metaStorage0.write(SNP_TRACKING_KEY, new TrackingState(nextTag0, lastTag, lastSnpName));
+        }
+        finally {
+            cctx.database().checkpointReadUnlock();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(SnapshotPageTracker.class, this);
+    }
+
+    /** Tracking state saved to the metastorage. */
+    private static class TrackingState implements Serializable {
+        /** Serial version uid. */
+        private static final long serialVersionUID = 0L;
+
+        /** Tag changed pages are marked with. */
+        private final long nextTag;
+
+        /** Tag of the last successful snapshot. */
+        private final long lastTag;
+
+        /** Name of the last successful snapshot. */
+        @Nullable private final String lastSnpName;
+
+        /**
+         * @param nextTag Tag changed pages are marked with.
+         * @param lastTag Tag of the last successful snapshot.
+         * @param lastSnpName Name of the last successful snapshot.
+         */
+        public TrackingState(long nextTag, long lastTag, @Nullable String lastSnpName) {
+            this.nextTag = nextTag;
+            this.lastTag = lastTag;
+            this.lastSnpName = lastSnpName;
+        }
+    }
+}
@@ -0,0 +1,687 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIOFactory;
+import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStore;
+import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreV2;
+import org.apache.ignite.internal.processors.cache.persistence.snapshot.IncrementalSnapshotMetadata.PartitionIncrement;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.processors.cache.persistence.wal.crc.FastCrc;
+import org.apache.ignite.internal.util.BasicRateLimiter;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.thread.IgniteThreadPoolExecutor;
+import org.apache.ignite.thread.OomExceptionHandler;
+import org.jetbrains.annotations.Nullable;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_PDS_SKIP_CRC;
+import static org.apache.ignite.internal.managers.communication.GridIoPolicy.SYSTEM_POOL;
+import static org.apache.ignite.internal.pagemem.PageIdUtils.pageIndex;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.FILE_SUFFIX;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.INDEX_FILE_NAME;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.PART_FILE_PREFIX;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheWorkDir;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFileName;
+import static org.apache.ignite.internal.processors.cache.persistence.filename.PdsConsistentIdProcessor.DB_DEFAULT_FOLDER;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.INCREMENTAL_META_FILE_NAME;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.INCREMENT_SUFFIX;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.databaseRelativePath;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.partIncrementFile;
+import static org.apache.ignite.internal.util.IgniteUtils.MB;
+
+/**
+ * Restores the local node part of a snapshot to a directory. Files are placed directly to their final location
+ * in the layout of a full snapshot, so the directory may be used as a work directory of a node.
+ * <p>
+ * Partition files, including {@code index.bin}, are copied by a pool of workers with the total I/O rate limited.
+ * CRC of each page is validated while it is copied, so a damaged snapshot is detected before a node is started
+ * on it and indexes are never rebuilt. Partitions saved by incremental snapshots are restored by applying pages
+ * of all the snapshots of the chain to the partition file of the nearest snapshot which contains it completely.
+ */
+public class SnapshotRestoreTask {
+    /** @see #IGNITE_SNAPSHOT_RESTORE_THREADS */
+    public static final int DFLT_SNAPSHOT_RESTORE_THREADS = 4;
+
+    /** @see #IGNITE_SNAPSHOT_RESTORE_RATE_LIMIT */
+    public static final double DFLT_SNAPSHOT_RESTORE_RATE_LIMIT = 0;
+
+    /** */
+    @SystemProperty(value = "Number of threads which copy partition files of a snapshot being restored",
+        type = Integer.class, defaults = "" + DFLT_SNAPSHOT_RESTORE_THREADS)
+    public static final String IGNITE_SNAPSHOT_RESTORE_THREADS = "IGNITE_SNAPSHOT_RESTORE_THREADS";
+
+    /** */
+    @SystemProperty(value = "Rate limit of snapshot restore in megabytes of copied partition files per second, " +
+        "0 means unlimited", type = Double.class, defaults = "" + DFLT_SNAPSHOT_RESTORE_RATE_LIMIT)
+    public static final String IGNITE_SNAPSHOT_RESTORE_RATE_LIMIT = "IGNITE_SNAPSHOT_RESTORE_RATE_LIMIT";
+
+    /** Prefix for snapshot restore threads. */
+    private static final String SNAPSHOT_RESTORE_THREAD_PREFIX = "snapshot-restore";
+
+    /** Number of pages copied at once. */
+    private static final int CHUNK_PAGES = 64;
+
+    /** Offset of the page store version in the header of a partition file. */
+    private static final int HDR_VERSION_OFF = 8;
+
+    /** Offset of the page size in the header of a partition file. */
+    private static final int HDR_PAGE_SIZE_OFF = 13;
+
+    /** Cache shared context. */
+    private final GridCacheSharedContext<?, ?> cctx;
+
+    /** Logger. */
+    private final IgniteLogger log;
+
+    /** Snapshot name. */
+    private final String snpName;
+
+    /** Snapshot directory. */
+    private final File snpDir;
+
+    /** Directory to restore the snapshot to. */
+    private final File dstDir;
+
+    /** Local node folder name. */
+    private final String folderName;
+
+    /** Node directories of the snapshots of the chain from the restored one to the full snapshot. */
+    private final List<File> chain;
+
+    /** Metadata of the restored snapshot, {@code null} if it has been taken while changed pages are not tracked. */
+    @Nullable private final IncrementalSnapshotMetadata meta;
+
+    /** Factory to access files. */
+    private final FileIOFactory ioFactory;
+
+    /** Number of threads which copy partition files. */
+    private final int threads;
+
+    /** Rate limiter, permits are bytes of copied partition files. */
+    private final BasicRateLimiter limiter;
+
+    /** {@code true} if CRC of pages is not validated. */
+    private final boolean skipCrc = IgniteSystemProperties.getBoolean(IGNITE_PDS_SKIP_CRC);
+
+    /** Restore start time. */
+    private final long startTime = U.currentTimeMillis();
+
+    /** Restore end time, {@code 0} if the restore is in progress. */
+    private volatile long endTime;
+
+    /** Number of partition files to restore. */
+    private volatile int totalParts;
+
+    /** Number of restored partition files. */
+    private final AtomicInteger processedParts = new AtomicInteger();
+
+    /** Total size of the partition files to restore. */
+    private volatile long totalSize;
+
+    /** Number of bytes of the partition files restored. */
+    private final LongAdder processedSize = new LongAdder();
+
+    /** Error occurred during the restore. */
+    private volatile Throwable err;
+
+    /**
+     * @param cctx Cache shared context.
+     * @param snpName Snapshot name.
+     * @param snpDir Snapshot directory.
+     * @param dstDir Directory to restore the snapshot to.
+     * @param folderName Local node folder name.
+     * @param chain Node directories of the snapshots of the chain from the restored one to the full snapshot.
+     * @param meta Metadata of the restored snapshot, {@code null} if it has been taken while changed pages
+     * are not tracked.
+     * @param ioFactory Factory to access files.
+     */
+    SnapshotRestoreTask(
+        GridCacheSharedContext<?, ?> cctx,
+        String snpName,
+        File snpDir,
+        File dstDir,
+        String folderName,
+        List<File> chain,
+        @Nullable IncrementalSnapshotMetadata meta,
+        FileIOFactory ioFactory
+    ) {
+        this.cctx = cctx;
+        this.snpName = snpName;
+        this.snpDir = snpDir;
+        this.dstDir = dstDir;
+        this.folderName = folderName;
+        this.chain = chain;
+        this.meta = meta;
+        this.ioFactory = ioFactory;
+
+        log = cctx.logger(SnapshotRestoreTask.class);
+
+        threads = Math.max(1, IgniteSystemProperties.getInteger(IGNITE_SNAPSHOT_RESTORE_THREADS,
+            DFLT_SNAPSHOT_RESTORE_THREADS));
+
+        limiter = new BasicRateLimiter(IgniteSystemProperties.getDouble(IGNITE_SNAPSHOT_RESTORE_RATE_LIMIT,
+            DFLT_SNAPSHOT_RESTORE_RATE_LIMIT) * MB);
+    }
+
+    /**
+     * @return Snapshot name.
+     */
+    public String snapshotName() {
+        return snpName;
+    }
+
+    /**
+     * @return Directory to restore the snapshot to.
+     */
+    public File destination() {
+        return dstDir;
+    }
+
+    /**
+     * @return Restore start time.
+     */
+    public long startTime() {
+        return startTime;
+    }
+
+    /**
+     * @return Restore end time, {@code 0} if the restore is in progress.
+     */
+    public long endTime() {
+        return endTime;
+    }
+
+    /**
+     * @return Number of partition files to restore.
+     */
+    public int totalPartitions() {
+        return totalParts;
+    }
+
+    /**
+     * @return Number of restored partition files.
+     */
+    public int processedPartitions() {
+        return processedParts.get();
+    }
+
+    /**
+     * @return Total size of the partition files to restore.
+     */
+    public long totalSize() {
+        return totalSize;
+    }
+
+    /**
+     * @return Number of bytes of the partition files restored.
+     */
+    public long processedSize() {
+        return processedSize.sum();
+    }
+
+    /**
+     * @return Estimated time in milliseconds to finish the restore, {@code -1} if it is not known yet.
+     */
+    public long estimatedTimeLeft() {
+        if (endTime != 0)
+            return 0;
+
+        long done = processedSize();
+
+        if (done == 0)
+            return -1;
+
+        long elapsed = U.currentTimeMillis() - startTime;
+
+        return (long)((double)elapsed * Math.max(0, totalSize - done) / done);
+    }
+
+    /**
+     * @return Error occurred during the restore, {@code null} if there is no error.
+     */
+    @Nullable public Throwable error() {
+        return err;
+    }
+
+    /**
+     * Restores the snapshot.
+     *
+     * @throws IgniteCheckedException If failed.
+     */
+    void run() throws IgniteCheckedException {
+        ExecutorService pool = null;
+
+        try {
+            List<PartitionRestore> parts = copySnapshotFiles();
+
+            if (meta != null) {
+                for (PartitionIncrement inc : meta.partitionIncrements())
+                    parts.add(incrementalPartition(inc));
+            }
+
+            long size = 0;
+
+            for (PartitionRestore part : parts)
+                size += part.size;
+
+            totalSize = size;
+            totalParts = parts.size();
+
+            // Large partition files are copied first, so workers finish at about the same time.
+            parts.sort((p1, p2) -> Long.compare(p2.size, p1.size));
+
+            pool = new IgniteThreadPoolExecutor(SNAPSHOT_RESTORE_THREAD_PREFIX,
+                cctx.igniteInstanceName(),
+                threads,
+                threads,
+                IgniteConfiguration.DFLT_THREAD_KEEP_ALIVE_TIME,
+                new LinkedBlockingQueue<>(),
+                SYSTEM_POOL,
+                new OomExceptionHandler(cctx.kernalContext()));
+
+            U.doInParallel(pool, parts, part -> {
+                if (part.inc == null)
+                    copyPartition(part.src, part.dst);
+                else
+                    restoreIncrementalPartition(part);
+
+                processedParts.incrementAndGet();
+
+                return null;
+            });
+        }
+        catch (IOException e) {
+            err = e;
+
+            throw new IgniteCheckedException("Failed to restore snapshot [snpName=" + snpName +
+                ", dstDir=" + dstDir + ']', e);
+        }
+        catch (IgniteCheckedException | RuntimeException | Error e) {
+            err = e;
+
+            throw e;
+        }
+        finally {
+            if (pool != null)
+                pool.shutdownNow();
+
+            endTime = U.currentTimeMillis();
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("Snapshot has been restored [snpName=" + snpName + ", dstDir=" + dstDir +
+                ", parts=" + totalParts + ", size=" + totalSize + ", threads=" + threads +
+                ", time=" + (endTime - startTime) + "ms, chain=" + chain + ']');
+        }
+    }
+
+    /**
+     * Copies files of the snapshot except the partition files and the files of other nodes. Files shared
+     * by nodes are replaced.
+     *
+     * @return Partition files to copy.
+     * @throws IOException If failed.
+     */
+    private List<PartitionRestore> copySnapshotFiles() throws IOException {
+        Path src = snpDir.toPath();
+        Path dst = dstDir.toPath();
+        Path dbDir = src.resolve(DB_DEFAULT_FOLDER);
+        Path nodeDbDir = src.resolve(databaseRelativePath(folderName));
+
+        List<PartitionRestore> parts = new ArrayList<>();
+
+        Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+            @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dbDir.equals(dir.getParent()) && !nodeDbDir.equals(dir))
+                    return FileVisitResult.SKIP_SUBTREE;
+
+                Files.createDirectories(dst.resolve(src.relativize(dir)));
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String name = file.getFileName().toString();
+
+                if (name.endsWith(INCREMENT_SUFFIX) || name.equals(INCREMENTAL_META_FILE_NAME))
+                    return FileVisitResult.CONTINUE;
+
+                Path to = dst.resolve(src.relativize(file));
+
+                if (file.startsWith(nodeDbDir) && partitionFile(name))
+                    parts.add(new PartitionRestore(file.toFile(), to.toFile(), attrs.size()));
+                else
+                    Files.copy(file, to, REPLACE_EXISTING);
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return parts;
+    }
+
+    /**
+     * @param inc Partition saved as pages changed since the previous snapshot.
+     * @return Partition to restore.
+     * @throws IgniteCheckedException If the chain of snapshots has no files of the partition.
+     */
+    private PartitionRestore incrementalPartition(PartitionIncrement inc) throws IgniteCheckedException {
+        String partName = getPartitionFileName(inc.partitionId());
+
+        int base = 1;
+
+        // Find the nearest snapshot which contains the partition file completely.
+        for (; base < chain.size(); base++) {
+            if (new File(cacheWorkDir(chain.get(base), inc.cacheDirName()), partName).exists())
+                break;
+        }
+
+        if (base == chain.size())
+            throw new IgniteCheckedException("Partition file not found in the incremental snapshot chain: " + inc);
+
+        File basePart = new File(cacheWorkDir(chain.get(base), inc.cacheDirName()), partName);
+        File dstPart = new File(cacheWorkDir(new File(dstDir, databaseRelativePath(folderName)), inc.cacheDirName()),
+            partName);
+
+        PartitionRestore part = new PartitionRestore(basePart, dstPart, basePart.length());
+
+        part.inc = inc;
+
+        for (int i = base - 1; i >= 0; i--) {
+            File incPart = partIncrementFile(cacheWorkDir(chain.get(i), inc.cacheDirName()), inc.partitionId());
+
+            if (!incPart.exists()) {
+                throw new IgniteCheckedException("Partition changed pages not found in the incremental " +
+                    "snapshot chain [snpDir=" + chain.get(i) + ", part=" + inc + ']');
+            }
+
+            part.incFiles.add(incPart);
+            part.size += incPart.length();
+        }
+
+        return part;
+    }
+
+    /**
+     * Copies a partition file validating CRC of its pages.
+     *
+     * @param from Partition file of the snapshot.
+     * @param to Partition file to restore.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void copyPartition(File from, File to) throws IgniteCheckedException {
+        try (FileIO src = ioFactory.create(from, READ);
+             FileIO dst = ioFactory.create(to, CREATE, TRUNCATE_EXISTING, WRITE)
+        ) {
+            long size = src.size();
+
+            ByteBuffer hdr = ByteBuffer.allocate(FilePageStore.HEADER_SIZE).order(ByteOrder.nativeOrder());
+
+            src.readFully(hdr, 0);
+
+            int pageSize = hdr.getInt(HDR_PAGE_SIZE_OFF);
+            int hdrSize = headerSize(hdr.getInt(HDR_VERSION_OFF), pageSize);
+
+            ByteBuffer buf = ByteBuffer.allocate(CHUNK_PAGES * pageSize).order(ByteOrder.nativeOrder());
+
+            // The header is copied as is, so the file has the same page store version.
+            for (long pos = 0; pos < size; ) {
+                int len = (int)Math.min(pos == 0 ? hdrSize : buf.capacity(), size - pos);
+
+                buf.clear();
+                buf.limit(len);
+
+                src.readFully(buf, pos);
+
+                for (int off = 0; pos > 0 && off + pageSize <= len; off += pageSize)
+                    checkPage(buf, off, pageSize, from, pos + off);
+
+                buf.flip();
+
+                dst.writeFully(buf, pos);
+
+                limiter.acquire(len);
+
+                processedSize.add(len);
+
+                pos += len;
+            }
+        }
+        catch (IOException e) {
+            throw new IgniteCheckedException("Failed to copy partition file [from=" + from + ", to=" + to + ']', e);
+        }
+    }
+
+    /**
+     * Restores a partition saved by incremental snapshots. The partition file of the base snapshot is copied
+     * validating CRC of its pages, then the changed pages are written and validated.
+     *
+     * @param part Partition to restore.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void restoreIncrementalPartition(PartitionRestore part) throws IgniteCheckedException {
+        copyPartition(part.src, part.dst);
+
+        long len = part.inc.length();
+
+        try {
+            int pageSize;
+            int hdrSize;
+
+            // Indexes of the written pages. A page may be written several times, the last copy wins.
+            BitSet changed = new BitSet();
+
+            try (FileIO dst = ioFactory.create(part.dst, READ, WRITE)) {
+                ByteBuffer hdr = ByteBuffer.allocate(FilePageStore.HEADER_SIZE).order(ByteOrder.nativeOrder());
+
+                dst.readFully(hdr, 0);
+
+                pageSize = hdr.getInt(HDR_PAGE_SIZE_OFF);
+                hdrSize = headerSize(hdr.getInt(HDR_VERSION_OFF), pageSize);
+
+                ByteBuffer buf = ByteBuffer.allocate(pageSize).order(ByteOrder.nativeOrder());
+
+                for (File incPart : part.incFiles) {
+                    try (FileIO src = ioFactory.create(incPart, READ)) {
+                        long size = src.size();
+
+                        if (size % pageSize != 0) {
+                            throw new IgniteCheckedException("File with changed pages has incorrect size " +
+                                "[file=" + incPart + ", size=" + size + ", pageSize=" + pageSize + ']');
+                        }
+
+                        for (long pos = 0; pos < size; pos += pageSize) {
+                            buf.clear();
+
+                            src.readFully(buf, pos);
+
+                            buf.flip();
+
+                            int pageIdx = pageIndex(PageIO.getPageId(buf));
+
+                            dst.writeFully(buf, hdrSize + (long)pageIdx * pageSize);
+
+                            changed.set(pageIdx);
+
+                            limiter.acquire(pageSize);
+
+                            processedSize.add(pageSize);
+                        }
+                    }
+                }
+            }
+
+            // Pages of a partition file which has been recreated since the base snapshot are cut off.
+            try (FileChannel ch = FileChannel.open(part.dst.toPath(), WRITE)) {
+                ch.truncate(len);
+            }
+
+            try (FileIO dst = ioFactory.create(part.dst, READ)) {
+                ByteBuffer buf = ByteBuffer.allocate(pageSize).order(ByteOrder.nativeOrder());
+
+                for (int idx = changed.nextSetBit(0); idx >= 0; idx = changed.nextSetBit(idx + 1)) {
+                    long off = hdrSize + (long)idx * pageSize;
+
+                    if (off + pageSize > len)
+                        break;
+
+                    buf.clear();
+
+                    dst.readFully(buf, off);
+
+                    checkPage(buf, 0, pageSize, part.dst, off);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new IgniteCheckedException("Failed to restore partition [snpName=" + snpName +
+                ", part=" + part.inc + ']', e);
+        }
+    }
+
+    /**
+     * Validates CRC of a page the same way as it is done when the page is read from a page store.
+     *
+     * @param buf Buffer with pages.
+     * @param off Offset of the page in the buffer.
+     * @param pageSize Page size.
+     * @param file File the page belongs to.
+     * @param pos Position of the page in the file.
+     * @throws IgniteCheckedException If the page is corrupted.
+     */
+    private void checkPage(ByteBuffer buf, int off, int pageSize, File file, long pos) throws IgniteCheckedException {
+        if (skipCrc)
+            return;
+
+        ByteBuffer dup = buf.duplicate();
+
+        dup.position(off);
+        dup.limit(off + pageSize);
+
+        ByteBuffer page = dup.slice().order(ByteOrder.nativeOrder());
+
+        long pageId = PageIO.getPageId(page);
+        int savedCrc = PageIO.getCrc(page);
+
+        // The page has been allocated, but never written.
+        if (pageId == 0 && savedCrc == 0)
+            return;
+
+        int crcSize = PageIO.getCompressedSize(page);
+
+        if (crcSize == 0)
+            crcSize = pageSize;
+
+        int curCrc = 0;
+
+        if (crcSize > 0 && crcSize <= pageSize) {
+            PageIO.setCrc(page, 0);
+
+            curCrc = FastCrc.calcCrc(page, crcSize);
+
+            PageIO.setCrc(page, savedCrc);
+        }
+
+        if (crcSize <= 0 || crcSize > pageSize || curCrc != savedCrc) {
+            throw new IgniteCheckedException("Snapshot partition file is corrupted (CRC validation failed) " +
+                "[file=" + file + ", pos=" + pos + ", pageId=" + U.hexLong(pageId) +
+                ", savedCrc=" + U.hexInt(savedCrc) + ", curCrc=" + U.hexInt(curCrc) + ']');
+        }
+    }
+
+    /**
+     * @param ver Page store version.
+     * @param pageSize Page size.
+     * @return Size of the header of a partition file.
+     */
+    private static int headerSize(int ver, int pageSize) {
+        return ver == FilePageStoreV2.VERSION ? pageSize : FilePageStore.HEADER_SIZE;
+    }
+
+    /**
+     * @param name File name.
+     * @return {@code true} if the file is a partition file or an index file.
+     */
+    private static boolean partitionFile(String name) {
+        return name.equals(INDEX_FILE_NAME) || (name.startsWith(PART_FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(SnapshotRestoreTask.class, this);
+    }
+
+    /** Partition file to restore. */
+    private static class PartitionRestore {
+        /** Partition file of the snapshot or the base snapshot for an incremental partition. */
+        private final File src;
+
+        /** Partition file to restore. */
+        private final File dst;
+
+        /** Number of bytes to copy. */
+        private long size;
+
+        /** Partition saved as changed pages, {@code null} if the partition file is copied completely. */
+        @Nullable private PartitionIncrement inc;
+
+        /** Files of changed pages to apply in order. */
+        private final List<File> incFiles = new ArrayList<>();
+
+        /**
+         * @param src Partition file of the snapshot.
+         * @param dst Partition file to restore.
+         * @param size Number of bytes to copy.
+         */
+        private PartitionRestore(File src, File dst, long size) {
+            this.src = src;
+            this.dst = dst;
+            this.size = size;
+        }
+    }
+}
@@ -163,6 +163,44 @@ abstract class SnapshotSender {
         }
     }
 
+    /**
+     * @param incPart File with partition pages changed since the previous snapshot followed by delta pages.
+     * @param cacheDirName Cache group directory name.
+     * @param pair Group id with partition id pair.
+     */
+    public final void sendIncrementalPart(File incPart, String cacheDirName, GroupPartitionId pair) {
+        if (!lock.readLock().tryLock())
+            return;
+
+        try {
+            if (closed)
+                return;
+
+            sendIncrementalPart0(incPart, cacheDirName, pair);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param meta Metadata of the local node part of snapshot taken while changed pages are tracked.
+     */
+    public final void sendIncrementalMeta(IncrementalSnapshotMetadata meta) {
+        if (!lock.readLock().tryLock())
+            return;
+
+        try {
+            if (closed)
+                return;
+
+            sendIncrementalMeta0(meta);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
     /**
      * Closes this snapshot sender and releases any resources associated with it.
      * If the sender is already closed then invoking this method has no effect.
@@ -224,6 +262,22 @@ abstract class SnapshotSender {
         // No-op by default.
     }
 
+    /**
+     * @param incPart File with partition pages changed since the previous snapshot followed by delta pages.
+     * @param cacheDirName Cache group directory name.
+     * @param pair Group id with partition id pair.
+     */
+    protected void sendIncrementalPart0(File incPart, String cacheDirName, GroupPartitionId pair) {
+        throw new UnsupportedOperationException("Incremental snapshots are not supported by the sender: " + this);
+    }
+
+    /**
+     * @param meta Metadata of the local node part of snapshot taken while changed pages are tracked.
+     */
+    protected void sendIncrementalMeta0(IncrementalSnapshotMetadata meta) {
+        // No-op by default.
+    }
+
     /**
      * Closes this snapshot sender and releases any resources associated with it.
      * If the sender is already closed then invoking this method has no effect.
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -77,6 +78,7 @@ import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.internal.util.typedef.internal.S;
 import org.apache.ignite.internal.util.typedef.internal.SB;
 import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.lang.IgniteBiInClosure;
 import org.apache.ignite.lang.IgniteInClosure;
 import org.jetbrains.annotations.Nullable;
 
@@ -417,6 +419,8 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
                 // Get old row in leaf page to reduce contention at upper level.
                 p.oldRow = p.needOld ? getRow(io, pageAddr, idx) : (T)Boolean.TRUE;
 
+                p.leafId = pageId;
+
                 p.finish();
             }
 
@@ -476,6 +480,69 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
             else
                 p.finish();
 
+            if (lvl == 0)
+                p.leafId = idx < io.getCount(pageAddr) ? pageId : io.getForward(pageAddr);
+
+            return FOUND;
+        }
+    }
+
+    /** */
+    private final PageHandler<Put, Result> putToLeaf;
+
+    /**
+     * Puts a row to the leaf page found by a previous put of a sorted batch without going down from the root. The row
+     * is put only if it certainly belongs to the leaf: it is greater than the first row of the leaf and either less
+     * than the last row or the leaf is the rightmost one. Returns {@link Result#NOT_FOUND} when the leaf can not take
+     * the row, including the case of a full leaf, so the row must be put from the root.
+     */
+    private class PutToLeaf extends GetPageHandler<Put> {
+        /** {@inheritDoc} */
+        @Override public Result run0(long pageId, long page, long pageAddr, BPlusIO<L> io, Put p, int lvl)
+            throws IgniteCheckedException {
+            assert lvl == 0 : lvl;
+
+            if (!io.isLeaf())
+                return NOT_FOUND;
+
+            int cnt = io.getCount(pageAddr);
+
+            if (cnt == 0 || compare(lvl, io, pageAddr, 0, p.row) >= 0)
+                return NOT_FOUND;
+
+            long fwdId = io.getForward(pageAddr);
+
+            // Rows are only appended to the rightmost leaf in the sequential write mode.
+            if (sequentialWriteOptsEnabled && fwdId != 0L)
+                return NOT_FOUND;
+
+            int idx = findInsertionPoint(lvl, io, pageAddr, 0, cnt, p.row, 0);
+
+            if (idx >= 0) {
+                // The inner page may keep a copy of the rightmost row, it must be replaced from the root.
+                if (canGetRowFromInner && idx + 1 == cnt && fwdId != 0L)
+                    return NOT_FOUND;
+
+                p.oldRow = p.needOld ? getRow(io, pageAddr, idx) : (T)Boolean.TRUE;
+
+                boolean needWal = needWalDeltaRecord(pageId, page, null);
+
+                byte[] newRowBytes = io.store(pageAddr, idx, p.row, null, needWal);
+
+                if (needWal)
+                    wal.log(new ReplaceRecord<>(grpId, pageId, io, newRowBytes, idx));
+            }
+            else {
+                idx = fix(idx);
+
+                if ((idx == cnt && fwdId != 0L) || cnt == io.getMaxCount(pageAddr, pageSize()))
+                    return NOT_FOUND;
+
+                p.insertSimple(pageId, page, pageAddr, io, idx, null);
+            }
+
+            p.finish();
+
             return FOUND;
         }
     }
@@ -734,10 +801,14 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
 
             io.initRoot(pageAddr, rootId, pageSize());
             io.setInlineSize(pageAddr, inlineSize);
-            io.initFlagsAndVersion(pageAddr, BPlusMetaIO.DEFAULT_FLAGS, IgniteVersionUtils.VER);
+            long flags = initialMetaFlags();
 
-            if (needWalDeltaRecord(metaId, metaPage, walPlc))
-                wal.log(new MetaPageInitRootInlineFlagsCreatedVersionRecord(cacheId, metaId, rootId, inlineSize));
+            io.initFlagsAndVersion(pageAddr, flags, IgniteVersionUtils.VER);
+
+            if (needWalDeltaRecord(metaId, metaPage, walPlc)) {
+                wal.log(new MetaPageInitRootInlineFlagsCreatedVersionRecord(cacheId, metaId, rootId, inlineSize,
+                    flags, IgniteVersionUtils.VER));
+            }
 
             assert io.getRootLevel(pageAddr) == 0;
             assert io.getFirstPageId(pageAddr, 0) == rootId;
@@ -849,6 +920,7 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
         rmvFromLeaf = (PageHandler<Remove, Result>) wrap(this, new RemoveFromLeaf());
         insert = (PageHandler<Put, Result>) wrap(this, new Insert());
         replace = (PageHandler<Put, Result>) wrap(this, new Replace());
+        putToLeaf = (PageHandler<Put, Result>) wrap(this, new PutToLeaf());
     }
 
     /**
@@ -925,6 +997,13 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
         }
     }
 
+    /**
+     * @return Flags of the meta page of a new tree.
+     */
+    protected long initialMetaFlags() {
+        return BPlusMetaIO.DEFAULT_FLAGS;
+    }
+
     /**
      * @return Tree meta data.
      * @throws IgniteCheckedException If failed.
@@ -2422,7 +2501,88 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
     private T doPut(T row, boolean needOld) throws IgniteCheckedException {
         checkDestroyed();
 
-        Put p = new Put(row, needOld);
+        try {
+            return doPut(new Put(row, needOld));
+        }
+        finally {
+            checkDestroyed();
+        }
+    }
+
+    /**
+     * Puts rows sorted in ascending order. Consecutive rows which belong to the same leaf page are put to the leaf
+     * found by the previous row without going down from the root, so a sorted batch takes a single descent per leaf
+     * in the best case. A row which does not certainly belong to the leaf, for example because the leaf is full and
+     * must be split, is put as by {@link #put(Object)}. Concurrent modifications of the tree are allowed.
+     *
+     * @param rows Rows sorted in ascending order without duplicates.
+     * @param c Closure which is called after every put with the put row and the replaced row or {@code null}
+     *      if the row was inserted. If the closure is {@code null}, replaced rows are not read.
+     * @return Number of descents from the root, which is the number of written leaf pages for a sorted batch.
+     * @throws IgniteCheckedException If failed.
+     */
+    public long putAll(Iterator<? extends T> rows, @Nullable IgniteBiInClosure<T, T> c) throws IgniteCheckedException {
+        checkDestroyed();
+
+        long leafId = 0L;
+        long leafPage = 0L;
+
+        long descents = 0L;
+
+        try {
+            while (rows.hasNext()) {
+                T row = rows.next();
+
+                Put p = new Put(row, c != null);
+
+                Result res = NOT_FOUND;
+
+                if (leafPage != 0L) {
+                    p.restartFromRoot(0L, 0, globalRmvId.get());
+
+                    try {
+                        res = write(leafId, leafPage, putToLeaf, p, 0, NOT_FOUND, statisticsHolder());
+                    }
+                    catch (RuntimeException | AssertionError e) {
+                        throw corruptedTreeException("Runtime failure on row: " + row, e, grpId, leafId);
+                    }
+                }
+
+                if (res != FOUND) {
+                    doPut(p);
+
+                    descents++;
+
+                    if (p.leafId != leafId) {
+                        if (leafPage != 0L)
+                            releasePage(leafId, leafPage);
+
+                        leafId = p.leafId;
+                        leafPage = leafId != 0L ? acquirePage(leafId) : 0L;
+                    }
+                }
+
+                if (c != null)
+                    c.apply(row, p.oldRow);
+            }
+
+            return descents;
+        }
+        finally {
+            if (leafPage != 0L)
+                releasePage(leafId, leafPage);
+
+            checkDestroyed();
+        }
+    }
+
+    /**
+     * @param p Put operation.
+     * @return Old row.
+     * @throws IgniteCheckedException If failed.
+     */
+    private T doPut(Put p) throws IgniteCheckedException {
+        T row = (T)p.row;
 
         try {
             for (;;) { // Go down with retries.
@@ -2463,9 +2623,6 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
         catch (RuntimeException | AssertionError e) {
             throw corruptedTreeException("Runtime failure on row: " + row, e, grpId, p.pageId);
         }
-        finally {
-            checkDestroyed();
-        }
     }
 
     /**
@@ -3599,6 +3756,9 @@ public abstract class BPlusTree<L, T extends L> extends DataStructure implements
         /** */
         final boolean needOld;
 
+        /** Leaf page the row was put to, or {@code 0} if it is unknown. */
+        long leafId;
+
         /**
          * @param row Row.
          * @param needOld {@code True} If need return old value.
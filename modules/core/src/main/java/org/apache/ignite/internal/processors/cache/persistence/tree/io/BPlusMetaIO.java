@@ -64,6 +64,12 @@ public class BPlusMetaIO extends PageIO {
     /** */
     private static final long FLAG_INLINE_OBJECT_HASH = 4L;
 
+    /** Inlined keys of the tree pages are compressed with a common prefix of a page. */
+    public static final long FLAG_INLINE_PREFIX_COMPRESSION = 8L;
+
+    /** All columns of the tree are inlined as a single normalized key. */
+    public static final long FLAG_INLINE_NORMALIZED_KEYS = 16L;
+
     /** */
     public static final long DEFAULT_FLAGS = FLAG_UNWRAPPED_PK | FLAG_INLINE_OBJECT_SUPPORTED | FLAG_INLINE_OBJECT_HASH;
 
@@ -247,6 +253,22 @@ public class BPlusMetaIO extends PageIO {
         return (flags(pageAddr) & FLAG_INLINE_OBJECT_HASH) != 0L;
     }
 
+    /**
+     * @param pageAddr Page address.
+     * @return {@code true} If inlined keys of the tree pages are compressed with a common prefix of a page.
+     */
+    public boolean inlinePrefixCompression(long pageAddr) {
+        return supportFlags() && (flags(pageAddr) & FLAG_INLINE_PREFIX_COMPRESSION) != 0L;
+    }
+
+    /**
+     * @param pageAddr Page address.
+     * @return {@code true} If all columns of the tree are inlined as a single normalized key.
+     */
+    public boolean inlineNormalizedKeys(long pageAddr) {
+        return supportFlags() && (flags(pageAddr) & FLAG_INLINE_NORMALIZED_KEYS) != 0L;
+    }
+
     /**
      * @return {@code true} If flags are supported.
      */
@@ -381,7 +403,16 @@ public class BPlusMetaIO extends PageIO {
     ) {
         BPlusMetaIO ioNew = VERSIONS.latest();
 
+        // Page format of the tree is not a property of the indexed columns, keep it.
+        BPlusMetaIO ioPrev = VERSIONS.forPage(pageAddr);
+
+        long fmtFlags = (ioPrev.inlinePrefixCompression(pageAddr) ? FLAG_INLINE_PREFIX_COMPRESSION : 0L) |
+            (ioPrev.inlineNormalizedKeys(pageAddr) ? FLAG_INLINE_NORMALIZED_KEYS : 0L);
+
         ioNew.setInlineSize(pageAddr, inlineSize);
         ioNew.setFlags(pageAddr, unwrappedPk, inlineObjSupported, inlineObjHash);
+
+        if (fmtFlags != 0L)
+            PageUtils.putLong(pageAddr, FLAGS_OFFSET, ioNew.flags(pageAddr) | fmtFlags);
     }
 }
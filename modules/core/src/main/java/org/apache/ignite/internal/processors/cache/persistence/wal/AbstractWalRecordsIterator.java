@@ -342,7 +342,7 @@ public abstract class AbstractWalRecordsIterator
             if (isCompacted)
                 serializerFactory.skipPositionCheck(true);
 
-            FileInput in = segmentFileInputFactory.createFileInput(fileIO, buf);
+            FileInput in = createFileInput(desc, fileIO);
 
             if (start != null && desc.idx() == start.index()) {
                 if (isCompacted) {
@@ -384,6 +384,18 @@ public abstract class AbstractWalRecordsIterator
         }
     }
 
+    /**
+     * Creates an input to read records of the segment, the segment header is already read from {@code fileIO}.
+     *
+     * @param desc File descriptor.
+     * @param fileIO I/O of the segment.
+     * @return File input.
+     * @throws IOException If failed.
+     */
+    protected FileInput createFileInput(AbstractFileDescriptor desc, SegmentIO fileIO) throws IOException {
+        return segmentFileInputFactory.createFileInput(fileIO, buf);
+    }
+
     /**
      * Assumes file descriptor will be opened in this method. The caller of this method must be responsible for closing
      * opened file descriptor File descriptor will be closed ONLY in case of error occurred.
@@ -96,10 +96,12 @@ import org.apache.ignite.internal.processors.cache.persistence.wal.filehandle.Fi
 import org.apache.ignite.internal.processors.cache.persistence.wal.filehandle.FileWriteHandle;
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.FileInput;
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.LockedSegmentFileInputFactory;
+import org.apache.ignite.internal.processors.cache.persistence.wal.io.MappedFileInput;
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.SegmentFileInputFactory;
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.SegmentIO;
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.SimpleSegmentFileInputFactory;
 import org.apache.ignite.internal.processors.cache.persistence.wal.record.HeaderRecord;
+import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.DataRecordCompressor;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializer;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializerFactory;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializerFactoryImpl;
@@ -135,7 +137,10 @@ import static java.util.stream.Collectors.toList;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_CHECKPOINT_TRIGGER_ARCHIVE_SIZE_PERCENTAGE;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_THRESHOLD_WAIT_TIME_NEXT_WAL_SEGMENT;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_THRESHOLD_WAL_ARCHIVE_SIZE_PERCENTAGE;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_ARCHIVE_MMAP_READ;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_COMPRESSOR_WORKER_THREAD_CNT;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_DATA_RECORD_COMPRESSION;
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_DATA_RECORD_COMPRESSION_LEVEL;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_MMAP;
 import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_SERIALIZER_VERSION;
 import static org.apache.ignite.events.EventType.EVT_WAL_SEGMENT_ARCHIVED;
@@ -202,6 +207,9 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
     /** @see IgniteSystemProperties#IGNITE_WAL_MMAP */
     public static final boolean DFLT_WAL_MMAP = true;
 
+    /** @see IgniteSystemProperties#IGNITE_WAL_ARCHIVE_MMAP_READ */
+    public static final boolean DFLT_WAL_ARCHIVE_MMAP_READ = true;
+
     /** @see IgniteSystemProperties#IGNITE_WAL_COMPRESSOR_WORKER_THREAD_CNT */
     public static final int DFLT_WAL_COMPRESSOR_WORKER_THREAD_CNT = 4;
 
@@ -217,6 +225,10 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
     /** Use mapped byte buffer. */
     private final boolean mmap = IgniteSystemProperties.getBoolean(IGNITE_WAL_MMAP, DFLT_WAL_MMAP);
 
+    /** Read archived segments through memory mapping. */
+    private final boolean mmapArchiveRead =
+        IgniteSystemProperties.getBoolean(IGNITE_WAL_ARCHIVE_MMAP_READ, DFLT_WAL_ARCHIVE_MMAP_READ);
+
     /**
      * Number of WAL compressor worker threads.
      */
@@ -370,6 +382,9 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
     /** Page snapshot records compression level. */
     private int pageCompressionLevel;
 
+    /** Compressor of data records, {@code null} on client node. */
+    @Nullable private DataRecordCompressor dataRecordCompressor;
+
     /**
      * Local segment sizes: absolute segment index -> size in bytes.
      * For segments from {@link #walWorkDir} and {@link #walArchiveDir}.
@@ -454,6 +469,16 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
                 "write ahead log archive directory"
             );
 
+            dataRecordCompressor = new DataRecordCompressor(
+                cctx,
+                IgniteSystemProperties.getBoolean(IGNITE_WAL_DATA_RECORD_COMPRESSION,
+                    DataRecordCompressor.DFLT_WAL_DATA_RECORD_COMPRESSION),
+                IgniteSystemProperties.getInteger(IGNITE_WAL_DATA_RECORD_COMPRESSION_LEVEL,
+                    DataRecordCompressor.DFLT_WAL_DATA_RECORD_COMPRESSION_LEVEL)
+            );
+
+            cctx.kernalContext().internalSubscriptionProcessor().registerMetastorageListener(dataRecordCompressor);
+
             serializer = new RecordSerializerFactoryImpl(cctx).createSerializer(serializerVer);
 
             GridCacheDatabaseSharedManager dbMgr = (GridCacheDatabaseSharedManager)cctx.database();
@@ -792,6 +817,13 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
         return serializerVer;
     }
 
+    /**
+     * @return Compressor of data records, {@code null} on client node.
+     */
+    @Nullable public DataRecordCompressor dataRecordCompressor() {
+        return dataRecordCompressor;
+    }
+
     /**
      * Checks if there was elapsed significant period of inactivity. If WAL auto-archive is enabled using
      * {@link #walAutoArchiveAfterInactivity} > 0 this method will activate roll over by timeout.<br>
@@ -981,7 +1013,8 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
             log,
             segmentAware,
             segmentRouter,
-            lockedSegmentFileInputFactory
+            lockedSegmentFileInputFactory,
+            mmapArchiveRead
         );
 
         try {
@@ -2710,6 +2743,9 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
         /** Holder of actual information of latest manipulation on WAL segments. */
         private final SegmentAware segmentAware;
 
+        /** Read archived segments through memory mapping. */
+        private final boolean mmapArchiveRead;
+
         /**
          * @param cctx Shared context.
          * @param walArchiveDir WAL archive dir.
@@ -2724,6 +2760,7 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
          * @param segmentAware Segment aware.
          * @param segmentRouter Segment router.
          * @param segmentFileInputFactory Factory to provide I/O interfaces for read primitives with files.
+         * @param mmapArchiveRead Read archived segments through memory mapping.
          */
         private RecordsIterator(
             GridCacheSharedContext<?, ?> cctx,
@@ -2739,7 +2776,8 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
             IgniteLogger log,
             SegmentAware segmentAware,
             SegmentRouter segmentRouter,
-            SegmentFileInputFactory segmentFileInputFactory
+            SegmentFileInputFactory segmentFileInputFactory,
+            boolean mmapArchiveRead
         ) throws IgniteCheckedException {
             super(
                 log,
@@ -2760,6 +2798,28 @@ public class FileWriteAheadLogManager extends GridCacheSharedManagerAdapter impl
             this.decompressor = decompressor;
             this.segmentRouter = segmentRouter;
             this.segmentAware = segmentAware;
+            this.mmapArchiveRead = mmapArchiveRead;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected FileInput createFileInput(
+            AbstractFileDescriptor desc,
+            SegmentIO fileIO
+        ) throws IOException {
+            // Segments in the archive are immutable and are protected from deletion by the reservation.
+            if (mmapArchiveRead && archiver != null && !desc.isCompressed() &&
+                walArchiveDir.getAbsoluteFile().equals(desc.file().getAbsoluteFile().getParentFile())) {
+                try {
+                    return new MappedFileInput(fileIO, desc.file());
+                }
+                catch (IOException e) {
+                    if (log.isDebugEnabled())
+                        log.debug("Failed to map archived WAL segment, will read it without mapping [file=" +
+                            desc.file().getAbsolutePath() + ", err=" + e.getMessage() + ']');
+                }
+            }
+
+            return super.createFileInput(desc, fileIO);
         }
 
         /** {@inheritDoc} */
@@ -33,6 +33,12 @@ public class FileHandleManagerFactory {
     private final boolean walFsyncWithDedicatedWorker =
         IgniteSystemProperties.getBoolean(IgniteSystemProperties.IGNITE_WAL_FSYNC_WITH_DEDICATED_WORKER, false);
 
+    /** Maximum number of fsync requests coalesced into a single group commit. */
+    private final int walGroupCommitMaxBatch = IgniteSystemProperties.getInteger(
+        IgniteSystemProperties.IGNITE_WAL_GROUP_COMMIT_MAX_BATCH,
+        FileHandleManagerImpl.DFLT_WAL_GROUP_COMMIT_MAX_BATCH
+    );
+
     /** Data storage configuration. */
     private final DataStorageConfiguration dsConf;
 
@@ -58,7 +64,7 @@ public class FileHandleManagerFactory {
         RecordSerializer serializer,
         Supplier<FileWriteHandle> currHandleSupplier
     ) {
-        if (dsConf.getWalMode() == WALMode.FSYNC && !walFsyncWithDedicatedWorker)
+        if (dsConf.getWalMode() == WALMode.FSYNC && !walFsyncWithDedicatedWorker && walGroupCommitMaxBatch <= 0)
             return new FsyncFileHandleManagerImpl(
                 cctx,
                 metrics,
@@ -79,7 +85,8 @@ public class FileHandleManagerFactory {
                 dsConf.getWalMode(),
                 dsConf.getWalBufferSize(),
                 dsConf.getWalSegmentSize(),
-                dsConf.getWalFsyncDelayNanos()
+                dsConf.getWalFsyncDelayNanos(),
+                walGroupCommitMaxBatch
             );
     }
 }
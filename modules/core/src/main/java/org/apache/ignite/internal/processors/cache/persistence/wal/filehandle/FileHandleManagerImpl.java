@@ -58,6 +58,9 @@ public class FileHandleManagerImpl implements FileHandleManager {
     /** Default wal segment sync timeout. */
     public static final long DFLT_WAL_SEGMENT_SYNC_TIMEOUT = 500L;
 
+    /** Default maximum number of fsync requests coalesced into a single group commit, group commit is disabled. */
+    public static final int DFLT_WAL_GROUP_COMMIT_MAX_BATCH = 0;
+
     /** WAL writer worker. */
     private final WALWriter walWriter;
 
@@ -94,6 +97,9 @@ public class FileHandleManagerImpl implements FileHandleManager {
     /** Fsync delay. */
     private final long fsyncDelay;
 
+    /** Maximum number of fsync requests coalesced into a single group commit, {@code 0} if disabled. */
+    private final int groupCommitMaxBatch;
+
     /**
      * @param cctx Context.
      * @param metrics Data storage metrics.
@@ -104,6 +110,8 @@ public class FileHandleManagerImpl implements FileHandleManager {
      * @param walBufferSize WAL buffer size.
      * @param maxWalSegmentSize Max WAL segment size.
      * @param fsyncDelay Fsync delay.
+     * @param groupCommitMaxBatch Maximum number of fsync requests coalesced into a single group commit,
+     *      {@code 0} disables group commit.
      */
     public FileHandleManagerImpl(
         GridCacheSharedContext cctx,
@@ -114,7 +122,8 @@ public class FileHandleManagerImpl implements FileHandleManager {
         WALMode mode,
         int walBufferSize,
         long maxWalSegmentSize,
-        long fsyncDelay
+        long fsyncDelay,
+        int groupCommitMaxBatch
     ) {
         this.cctx = cctx;
         log = cctx.logger(FileHandleManagerImpl.class);
@@ -126,6 +135,7 @@ public class FileHandleManagerImpl implements FileHandleManager {
         this.walBufferSize = walBufferSize;
         this.maxWalSegmentSize = maxWalSegmentSize;
         this.fsyncDelay = fsyncDelay;
+        this.groupCommitMaxBatch = Math.max(groupCommitMaxBatch, 0);
         walWriter = new WALWriter(log);
 
         if (mode != WALMode.NONE && mode != WALMode.FSYNC) {
@@ -135,7 +145,8 @@ public class FileHandleManagerImpl implements FileHandleManager {
             );
 
             if (log.isInfoEnabled())
-                log.info("Initialized write-ahead log manager [mode=" + mode + ']');
+                log.info("Initialized write-ahead log manager [mode=" + mode +
+                    (this.groupCommitMaxBatch > 0 ? ", groupCommitMaxBatch=" + this.groupCommitMaxBatch : "") + ']');
         }
         else {
             U.quietAndWarn(log, "Initialized write-ahead log manager in NONE mode, persisted data may be lost in " +
@@ -165,7 +176,7 @@ public class FileHandleManagerImpl implements FileHandleManager {
 
         return new FileWriteHandleImpl(
             cctx, fileIO, rbuf, serializer, metrics, walWriter, position,
-            mode, mmap, true, fsyncDelay, maxWalSegmentSize
+            mode, mmap, true, fsyncDelay, groupCommitMaxBatch, maxWalSegmentSize
         );
     }
 
@@ -184,7 +195,7 @@ public class FileHandleManagerImpl implements FileHandleManager {
         try {
             return new FileWriteHandleImpl(
                 cctx, fileIO, rbuf, serializer, metrics, walWriter, 0,
-                mode, mmap, false, fsyncDelay, maxWalSegmentSize
+                mode, mmap, false, fsyncDelay, groupCommitMaxBatch, maxWalSegmentSize
             );
         }
         catch (ClosedByInterruptException e) {
@@ -35,6 +35,7 @@ import org.apache.ignite.IgniteLogger;
 import org.apache.ignite.IgniteSystemProperties;
 import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.configuration.WALMode;
+import org.apache.ignite.internal.IgniteInterruptedCheckedException;
 import org.apache.ignite.internal.pagemem.wal.record.CheckpointRecord;
 import org.apache.ignite.internal.pagemem.wal.record.SwitchSegmentRecord;
 import org.apache.ignite.internal.pagemem.wal.record.WALRecord;
@@ -115,6 +116,21 @@ class FileWriteHandleImpl extends AbstractFileHandle implements FileWriteHandle
     /** Condition for timed wait of several threads, see {@link DataStorageConfiguration#getWalFsyncDelayNanos()}. */
     private final Condition fsync = lock.newCondition();
 
+    /** Condition signalled when the pending group commit batch is full. */
+    private final Condition fsyncBatchFull = lock.newCondition();
+
+    /** Whether a group commit leader collects or forces a batch now. Guarded by {@link #lock}. */
+    private boolean fsyncLeader;
+
+    /** Whether the group commit leader has closed its batch and forces the segment. Guarded by {@link #lock}. */
+    private boolean fsyncForcing;
+
+    /** Number of fsync requests joined the open group commit batch. Guarded by {@link #lock}. */
+    private int fsyncReqs;
+
+    /** Number of completed group commit batches. Guarded by {@link #lock}. */
+    private long fsyncGen;
+
     /**
      * Next segment available condition. Protection from "spurious wakeup" is provided by predicate {@link
      * #fileIO}=<code>null</code>.
@@ -130,6 +146,9 @@ class FileWriteHandleImpl extends AbstractFileHandle implements FileWriteHandle
     /** Fsync delay. */
     private final long fsyncDelay;
 
+    /** Maximum number of fsync requests coalesced into a single group commit, {@code 0} if disabled. */
+    private final int groupCommitMaxBatch;
+
     /** Persistence metrics tracker. */
     private final DataStorageMetricsImpl metrics;
 
@@ -162,19 +181,22 @@ class FileWriteHandleImpl extends AbstractFileHandle implements FileWriteHandle
      * @param mmap Mmap.
      * @param resume Created on resume logging flag.
      * @param fsyncDelay Fsync delay.
+     * @param groupCommitMaxBatch Maximum number of fsync requests coalesced into a single group commit,
+     *      {@code 0} disables group commit.
      * @param maxWalSegmentSize Max WAL segment size.
      * @throws IOException If failed.
      */
     FileWriteHandleImpl(
         GridCacheSharedContext cctx, SegmentIO fileIO, SegmentedRingByteBuffer rbuf, RecordSerializer serializer,
         DataStorageMetricsImpl metrics, FileHandleManagerImpl.WALWriter writer, long pos, WALMode mode, boolean mmap,
-        boolean resume, long fsyncDelay, long maxWalSegmentSize) throws IOException {
+        boolean resume, long fsyncDelay, int groupCommitMaxBatch, long maxWalSegmentSize) throws IOException {
         super(fileIO);
         assert serializer != null;
 
         this.mmap = mmap;
         this.mode = mode;
         this.fsyncDelay = fsyncDelay;
+        this.groupCommitMaxBatch = groupCommitMaxBatch;
         this.metrics = metrics;
         this.maxWalSegmentSize = maxWalSegmentSize;
         this.log = cctx.logger(FileWriteHandleImpl.class);
@@ -370,6 +392,12 @@ class FileWriteHandleImpl extends AbstractFileHandle implements FileWriteHandle
      * @throws StorageException If failed.
      */
     @Override public void fsync(WALPointer ptr) throws StorageException, IgniteCheckedException {
+        if (groupCommitMaxBatch > 0) {
+            groupCommitFsync(ptr);
+
+            return;
+        }
+
         lock.lock();
 
         try {
@@ -439,6 +467,166 @@ class FileWriteHandleImpl extends AbstractFileHandle implements FileWriteHandle
         }
     }
 
+    /**
+     * Group commit: the first committer which finds no batch in progress becomes the batch leader. The leader waits
+     * up to {@link #fsyncDelay} for other committers to join until {@link #groupCommitMaxBatch} requests are pending,
+     * then closes the batch, writes the whole WAL buffer and forces the segment once without holding {@link #lock}.
+     * Committers of the batch park on {@link #fsync} until its generation is completed. Committers arriving while
+     * the segment is forced are not counted until the force completes: those covered by it return at once, the
+     * others join the next batch.
+     *
+     * @param ptr Pointer to sync, {@code null} to sync everything written.
+     * @throws StorageException If failed.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void groupCommitFsync(@Nullable WALPointer ptr) throws StorageException, IgniteCheckedException {
+        lock.lock();
+
+        try {
+            while (true) {
+                if (ptr != null && !needFsync(ptr))
+                    return;
+
+                if (fsyncForcing) {
+                    U.await(fsync);
+
+                    continue;
+                }
+
+                if (stop.get()) {
+                    // Segment is being closed, the final fsync is done on close.
+                    flushOrWait(ptr);
+
+                    return;
+                }
+
+                if (++fsyncReqs >= groupCommitMaxBatch)
+                    fsyncBatchFull.signal();
+
+                if (!fsyncLeader) {
+                    leadGroupCommit();
+
+                    return;
+                }
+
+                long gen = fsyncGen;
+
+                while (fsyncGen == gen && fsyncLeader)
+                    U.await(fsync);
+
+                // The completed batch covers everything written before it was closed, otherwise the leader failed or
+                // the buffer was not written up to the record, so the request is retried.
+                if (fsyncGen != gen && ptr == null)
+                    return;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Collects and forces a group commit batch. Must be called under {@link #lock} by the committer which has become
+     * the batch leader.
+     *
+     * @throws StorageException If failed.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void leadGroupCommit() throws StorageException, IgniteCheckedException {
+        fsyncLeader = true;
+
+        boolean forced = false;
+
+        try {
+            long nanos = fsyncDelay;
+
+            while (nanos > 0 && fsyncReqs < groupCommitMaxBatch && !stop.get())
+                nanos = fsyncBatchFull.awaitNanos(nanos);
+
+            int batch = fsyncReqs;
+
+            fsyncReqs = 0;
+            fsyncForcing = true;
+
+            boolean metricsEnabled = metrics.metricsEnabled();
+
+            long start = metricsEnabled ? System.nanoTime() : 0;
+
+            long fsyncPos;
+
+            lock.unlock();
+
+            try {
+                fsyncPos = flushAndForce();
+            }
+            finally {
+                lock.lock();
+            }
+
+            forced = true;
+
+            if (fsyncPos > lastFsyncPos)
+                lastFsyncPos = fsyncPos;
+
+            if (metricsEnabled) {
+                metrics.onFsync(System.nanoTime() - start);
+                metrics.onGroupCommit(batch);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IgniteInterruptedCheckedException(e);
+        }
+        finally {
+            if (forced)
+                fsyncGen++;
+
+            fsyncLeader = false;
+            fsyncForcing = false;
+
+            fsync.signalAll();
+        }
+    }
+
+    /**
+     * Writes all records available in the buffer and forces them to the segment file. Must be called by the group
+     * commit leader only.
+     *
+     * @return Position in the segment up to which the records are forced.
+     * @throws IgniteCheckedException If failed.
+     */
+    private long flushAndForce() throws IgniteCheckedException {
+        if (mmap) {
+            long written0 = written;
+
+            List<SegmentedRingByteBuffer.ReadSegment> segs = buf.poll();
+
+            if (segs != null) {
+                assert segs.size() == 1;
+
+                SegmentedRingByteBuffer.ReadSegment seg = segs.get(0);
+
+                int off = seg.buffer().position();
+                int len = seg.buffer().limit() - off;
+
+                fsync((MappedByteBuffer)buf.buf, off, len);
+
+                seg.release();
+            }
+
+            return written0;
+        }
+
+        walWriter.flushAll();
+
+        long written0 = written;
+
+        walWriter.force();
+
+        return written0;
+    }
+
     /**
      * @param buf Mapped byte buffer.
      * @param off Offset.
@@ -478,6 +666,10 @@ class FileWriteHandleImpl extends AbstractFileHandle implements FileWriteHandle
             lock.lock();
 
             try {
+                // Group commit leader writes and forces the segment without holding the lock.
+                while (fsyncLeader)
+                    U.await(fsync);
+
                 flushOrWait(null);
 
                 try {
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.wal.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIODecorator;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.jetbrains.annotations.NotNull;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * File input backed by a read-only memory mapping of the whole file. Records are read directly from the mapped
+ * buffer without copying file blocks into a heap buffer, so it must be used only for immutable files, such as
+ * segments in the WAL archive. The mapping is released when {@link #io()} is closed.
+ */
+public class MappedFileInput implements FileInput {
+    /** Mapped buffer. */
+    private final MappedByteBuffer buf;
+
+    /** I/O interface of the file, unmaps the buffer on close. */
+    private final FileIO io;
+
+    /**
+     * @param io FileIO of the file, its position is used as the initial position of the input.
+     * @param file File to map.
+     * @throws IOException If failed to map the file.
+     */
+    public MappedFileInput(FileIO io, File file) throws IOException {
+        assert io != null;
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), READ)) {
+            long size = ch.size();
+
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("File is too large to be mapped [file=" + file + ", size=" + size + ']');
+
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        buf.order(ByteOrder.nativeOrder());
+
+        if (io.position() > buf.limit()) {
+            GridUnsafe.cleanDirectBuffer(buf);
+
+            throw new EOFException();
+        }
+
+        buf.position((int)io.position());
+
+        this.io = new UnmappingFileIO(io);
+    }
+
+    /** {@inheritDoc} */
+    @Override public FileIO io() {
+        return io;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void seek(long pos) throws IOException {
+        if (pos > buf.limit())
+            throw new EOFException();
+
+        buf.position((int)pos);
+    }
+
+    /** {@inheritDoc} */
+    @Override public ByteBuffer buffer() {
+        return buf;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void ensure(int requested) throws IOException {
+        if (buf.remaining() < requested)
+            throw new EOFException(
+                "EOF at position [" + buf.position() + "] expected to read [" + requested + "] bytes");
+    }
+
+    /** {@inheritDoc} */
+    @Override public long position() {
+        return buf.position();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void readFully(@NotNull byte[] b) throws IOException {
+        ensure(b.length);
+
+        buf.get(b);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void readFully(@NotNull byte[] b, int off, int len) throws IOException {
+        ensure(len);
+
+        buf.get(b, off, len);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int skipBytes(int n) {
+        int skipped = Math.min(buf.remaining(), n);
+
+        buf.position(buf.position() + skipped);
+
+        return skipped;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean readBoolean() throws IOException {
+        return readByte() == 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override public byte readByte() throws IOException {
+        ensure(1);
+
+        return buf.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    /** {@inheritDoc} */
+    @Override public short readShort() throws IOException {
+        ensure(2);
+
+        return buf.getShort();
+    }
+
+    /** {@inheritDoc} */
+    @Override public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    /** {@inheritDoc} */
+    @Override public char readChar() throws IOException {
+        ensure(2);
+
+        return buf.getChar();
+    }
+
+    /** {@inheritDoc} */
+    @Override public int readInt() throws IOException {
+        ensure(4);
+
+        return buf.getInt();
+    }
+
+    /** {@inheritDoc} */
+    @Override public long readLong() throws IOException {
+        ensure(8);
+
+        return buf.getLong();
+    }
+
+    /** {@inheritDoc} */
+    @Override public float readFloat() throws IOException {
+        ensure(4);
+
+        return buf.getFloat();
+    }
+
+    /** {@inheritDoc} */
+    @Override public double readDouble() throws IOException {
+        ensure(8);
+
+        return buf.getDouble();
+    }
+
+    /** {@inheritDoc} */
+    @Override public String readLine() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /** {@inheritDoc} */
+    @Override public String readUTF() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /** {@inheritDoc} */
+    @Override public Crc32CheckingFileInput startRead(boolean skipCheck) {
+        return new Crc32CheckingFileInput(this, skipCheck);
+    }
+
+    /**
+     * File I/O which releases the mapping on close.
+     */
+    private class UnmappingFileIO extends FileIODecorator {
+        /** Mapping is released. */
+        private boolean unmapped;
+
+        /**
+         * @param delegate File I/O delegate.
+         */
+        private UnmappingFileIO(FileIO delegate) {
+            super(delegate);
+        }
+
+        /** {@inheritDoc} */
+        @Override public synchronized void close() throws IOException {
+            if (!unmapped) {
+                unmapped = true;
+
+                GridUnsafe.cleanDirectBuffer(buf);
+            }
+
+            super.close();
+        }
+    }
+}
@@ -51,6 +51,7 @@ import org.apache.ignite.internal.processors.cache.persistence.wal.io.SegmentFil
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.SegmentIO;
 import org.apache.ignite.internal.processors.cache.persistence.wal.io.SimpleSegmentFileInputFactory;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordDataV1Serializer.EncryptedDataEntry;
+import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordDataV2Serializer.CompressedDataEntry;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializer;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializerFactoryImpl;
 import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.SegmentHeader;
@@ -432,7 +433,7 @@ class StandaloneWalRecordsIterator extends AbstractWalRecordsIterator {
         final IgniteCacheObjectProcessor processor,
         final CacheObjectContext fakeCacheObjCtx,
         final DataEntry dataEntry) throws IgniteCheckedException {
-        if (dataEntry instanceof EncryptedDataEntry)
+        if (dataEntry instanceof EncryptedDataEntry || dataEntry instanceof CompressedDataEntry)
             return dataEntry;
 
         final KeyCacheObject key;
@@ -0,0 +1,462 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.wal.serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.internal.pagemem.wal.record.MetastoreDataRecord;
+import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.MetastorageLifecycleListener;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.ReadOnlyMetastorage;
+import org.apache.ignite.internal.processors.cache.persistence.metastorage.ReadWriteMetastorage;
+import org.apache.ignite.internal.util.lang.GridPlainRunnable;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compressor of {@link org.apache.ignite.internal.pagemem.wal.record.DataRecord} entries written to WAL as
+ * {@link org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType#COMPRESSED_DATA_RECORD}.
+ * <p>
+ * Serialized entries are deflated with a preset dictionary of the cache group of the first entry. A dictionary is
+ * trained from the entries sampled while the group has no dictionary yet, until then entries are deflated without
+ * a dictionary. Trained dictionary is written to the metastorage and used for compression only after the write,
+ * so a record never references a dictionary which can't be restored. Offline WAL reader learns dictionaries from
+ * metastorage data records it reads.
+ * <p>
+ * Compressed payload format: group ID, dictionary ID ({@code 0} if there is no dictionary), size of serialized
+ * entries and raw deflate stream.
+ */
+public class DataRecordCompressor implements MetastorageLifecycleListener {
+    /** @see org.apache.ignite.IgniteSystemProperties#IGNITE_WAL_DATA_RECORD_COMPRESSION */
+    public static final boolean DFLT_WAL_DATA_RECORD_COMPRESSION = false;
+
+    /** @see org.apache.ignite.IgniteSystemProperties#IGNITE_WAL_DATA_RECORD_COMPRESSION_LEVEL */
+    public static final int DFLT_WAL_DATA_RECORD_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+    /** Metastorage key prefix of dictionaries, followed by group ID and dictionary ID separated by a dot. */
+    public static final String DICT_KEY_PREFIX = "wal.data.compression.dict.";
+
+    /** Dictionary size, deflate can't reference data beyond its 32KB window. */
+    static final int DICT_SIZE = 32 * 1024;
+
+    /** Maximum number of bytes of a single sampled record added to a dictionary. */
+    private static final int MAX_SAMPLE_SIZE = 1024;
+
+    /** Minimal size of serialized entries worth compressing. */
+    static final int MIN_COMPRESS_SIZE = 64;
+
+    /** Size of compressed payload header. */
+    private static final int HEADER_SIZE = /*group ID*/4 + /*dictionary ID*/4 + /*raw size*/4;
+
+    /** Cache shared context, {@code null} for offline WAL reading. */
+    @Nullable private final GridCacheSharedContext<?, ?> cctx;
+
+    /** Compress written data records. */
+    private final boolean enabled;
+
+    /** Logger. */
+    @Nullable private final IgniteLogger log;
+
+    /** Known dictionaries by group ID and dictionary ID. */
+    private final ConcurrentMap<Long, byte[]> dicts = new ConcurrentHashMap<>();
+
+    /** Dictionaries used for compression, by group ID. */
+    private final ConcurrentMap<Integer, Dictionary> activeDicts = new ConcurrentHashMap<>();
+
+    /** Dictionary trainers by group ID. */
+    private final ConcurrentMap<Integer, Trainer> trainers = new ConcurrentHashMap<>();
+
+    /** Deflater of the current thread. */
+    private final ThreadLocal<Deflater> deflater;
+
+    /** Inflater of the current thread. */
+    private final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    /** Metastorage, available when the node is ready to persist dictionaries. */
+    private volatile ReadWriteMetastorage metastorage;
+
+    /** Mutex of dictionary writes and removals. */
+    private final Object metaStorageMux = new Object();
+
+    /**
+     * Creates compressor of a node.
+     *
+     * @param cctx Cache shared context.
+     * @param enabled Compress written data records.
+     * @param level Deflate compression level.
+     */
+    public DataRecordCompressor(GridCacheSharedContext<?, ?> cctx, boolean enabled, int level) {
+        this.cctx = cctx;
+        this.enabled = enabled;
+
+        log = cctx.logger(DataRecordCompressor.class);
+        deflater = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    /**
+     * Creates compressor for offline WAL reading. Records are never compressed, entries of records compressed with
+     * unknown dictionary are read as {@link RecordDataV2Serializer.CompressedDataEntry}.
+     */
+    public DataRecordCompressor() {
+        cctx = null;
+        enabled = false;
+        log = null;
+        deflater = null;
+    }
+
+    /**
+     * @return {@code True} if written data records are compressed.
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @param grpId Cache group ID.
+     * @param raw Serialized data entries.
+     * @return Compressed payload or {@code null} if compression doesn't reduce the size.
+     */
+    @Nullable public byte[] compress(int grpId, byte[] raw) {
+        assert enabled;
+
+        Dictionary dict = activeDicts.get(grpId);
+
+        if (dict == null)
+            sample(grpId, raw);
+
+        // Compressed payload is prefixed with its length in a record.
+        int maxLen = raw.length - HEADER_SIZE - 4;
+
+        if (maxLen <= 0)
+            return null;
+
+        byte[] res = new byte[HEADER_SIZE + maxLen];
+
+        ByteBuffer.wrap(res)
+            .putInt(grpId)
+            .putInt(dict == null ? 0 : dict.id)
+            .putInt(raw.length);
+
+        Deflater def = deflater.get();
+
+        try {
+            if (dict != null)
+                def.setDictionary(dict.bytes);
+
+            def.setInput(raw);
+            def.finish();
+
+            int len = def.deflate(res, HEADER_SIZE, maxLen);
+
+            if (!def.finished())
+                return null;
+
+            return Arrays.copyOf(res, HEADER_SIZE + len);
+        }
+        finally {
+            def.reset();
+        }
+    }
+
+    /**
+     * @param payload Compressed payload.
+     * @return Serialized data entries or {@code null} if the dictionary is unknown to the offline WAL reader.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Nullable public ByteBuffer decompress(byte[] payload) throws IgniteCheckedException {
+        ByteBuffer hdr = ByteBuffer.wrap(payload);
+
+        int grpId = hdr.getInt();
+        int dictId = hdr.getInt();
+        int rawLen = hdr.getInt();
+
+        byte[] dict = null;
+
+        if (dictId != 0) {
+            dict = dicts.get(dictKey(grpId, dictId));
+
+            if (dict == null) {
+                // Dictionary of a destroyed group is removed, its records are skipped by recovery.
+                if (cctx == null || cctx.cache().cacheGroupDescriptor(grpId) == null)
+                    return null;
+
+                throw new IgniteCheckedException("Failed to decompress WAL data record, dictionary is not found " +
+                    "[grpId=" + grpId + ", dictId=" + dictId + ']');
+            }
+        }
+
+        byte[] raw = new byte[rawLen];
+
+        Inflater inf = inflater.get();
+
+        try {
+            if (dict != null)
+                inf.setDictionary(dict);
+
+            inf.setInput(payload, HEADER_SIZE, payload.length - HEADER_SIZE);
+
+            int off = 0;
+
+            while (off < rawLen) {
+                int len = inf.inflate(raw, off, rawLen - off);
+
+                if (len == 0 && (inf.finished() || inf.needsInput() || inf.needsDictionary()))
+                    throw new IgniteCheckedException("Failed to decompress WAL data record, payload is truncated " +
+                        "[grpId=" + grpId + ", dictId=" + dictId + ", size=" + rawLen + ", read=" + off + ']');
+
+                off += len;
+            }
+        }
+        catch (DataFormatException e) {
+            throw new IgniteCheckedException("Failed to decompress WAL data record [grpId=" + grpId +
+                ", dictId=" + dictId + ']', e);
+        }
+        finally {
+            inf.reset();
+        }
+
+        return ByteBuffer.wrap(raw);
+    }
+
+    /**
+     * Registers a dictionary if the record is a dictionary write.
+     *
+     * @param rec Metastorage data record read from WAL.
+     */
+    public void onMetastoreRecord(MetastoreDataRecord rec) {
+        if (rec.value() != null && rec.key().startsWith(DICT_KEY_PREFIX))
+            register(rec.key(), rec.value());
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onReadyForRead(ReadOnlyMetastorage metastorage) throws IgniteCheckedException {
+        metastorage.iterate(DICT_KEY_PREFIX, (key, val) -> register(key, (byte[])val), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onReadyForReadWrite(ReadWriteMetastorage metastorage) {
+        this.metastorage = metastorage;
+    }
+
+    /**
+     * Releases the dictionary sample of a stopped cache group. Dictionaries of a destroyed group are removed from
+     * the metastorage.
+     *
+     * @param grpId Cache group ID.
+     * @param destroy Cache group is destroyed.
+     */
+    public void onCacheGroupStop(int grpId, boolean destroy) {
+        if (!destroy) {
+            trainers.remove(grpId);
+
+            return;
+        }
+
+        synchronized (metaStorageMux) {
+            trainers.remove(grpId);
+            activeDicts.remove(grpId);
+
+            ReadWriteMetastorage metastorage = this.metastorage;
+
+            if (metastorage != null)
+                cctx.database().checkpointReadLock();
+
+            try {
+                for (Long key : dicts.keySet()) {
+                    if ((int)(key >>> 32) != grpId)
+                        continue;
+
+                    if (metastorage != null)
+                        metastorage.remove(DICT_KEY_PREFIX + grpId + '.' + key.intValue());
+
+                    dicts.remove(key);
+                }
+            }
+            catch (IgniteCheckedException e) {
+                U.error(log, "Failed to remove WAL data record compression dictionaries [grpId=" + grpId + ']', e);
+            }
+            finally {
+                if (metastorage != null)
+                    cctx.database().checkpointReadUnlock();
+            }
+        }
+    }
+
+    /**
+     * @param key Metastorage key.
+     * @param dict Dictionary.
+     */
+    private void register(String key, byte[] dict) {
+        String[] ids = key.substring(DICT_KEY_PREFIX.length()).split("\\.");
+
+        register(Integer.parseInt(ids[0]), Integer.parseInt(ids[1]), dict);
+    }
+
+    /**
+     * Registers dictionary and uses it for compression if it is the latest dictionary of the group.
+     *
+     * @param grpId Cache group ID.
+     * @param dictId Dictionary ID.
+     * @param dict Dictionary.
+     */
+    private void register(int grpId, int dictId, byte[] dict) {
+        dicts.put(dictKey(grpId, dictId), dict);
+
+        activeDicts.merge(grpId, new Dictionary(dictId, dict), (prev, cur) -> prev.id >= cur.id ? prev : cur);
+    }
+
+    /**
+     * Adds serialized entries to the dictionary sample of the group, stores the dictionary when the sample is full.
+     *
+     * @param grpId Cache group ID.
+     * @param raw Serialized data entries.
+     */
+    private void sample(int grpId, byte[] raw) {
+        if (metastorage == null)
+            return;
+
+        Trainer trainer = trainers.computeIfAbsent(grpId, id -> new Trainer());
+
+        byte[] dict = trainer.add(raw);
+
+        if (dict == null)
+            return;
+
+        int dictId = 1;
+
+        for (Long key : dicts.keySet()) {
+            if ((int)(key >>> 32) == grpId)
+                dictId = Math.max(dictId, key.intValue() + 1);
+        }
+
+        int dictId0 = dictId;
+
+        // Dictionary is written to metastorage asynchronously, metastorage logs to WAL itself.
+        cctx.kernalContext().closure().runLocalSafe(new GridPlainRunnable() {
+            @Override public void run() {
+                store(grpId, trainer, dictId0, dict);
+            }
+        });
+    }
+
+    /**
+     * @param grpId Cache group ID.
+     * @param trainer Trainer of the dictionary.
+     * @param dictId Dictionary ID.
+     * @param dict Dictionary.
+     */
+    private void store(int grpId, Trainer trainer, int dictId, byte[] dict) {
+        ReadWriteMetastorage metastorage = this.metastorage;
+
+        synchronized (metaStorageMux) {
+            // Group was destroyed while the dictionary was trained.
+            if (trainers.get(grpId) != trainer)
+                return;
+
+            cctx.database().checkpointReadLock();
+
+            try {
+                metastorage.writeRaw(DICT_KEY_PREFIX + grpId + '.' + dictId, dict);
+            }
+            catch (IgniteCheckedException e) {
+                U.warn(log, "Failed to store WAL data record compression dictionary, data records of the group " +
+                    "will be compressed without dictionary [grpId=" + grpId + ", err=" + e.getMessage() + ']');
+
+                return;
+            }
+            finally {
+                cctx.database().checkpointReadUnlock();
+            }
+
+            register(grpId, dictId, dict);
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("WAL data record compression dictionary trained [grpId=" + grpId + ", dictId=" + dictId +
+                ", size=" + dict.length + ']');
+        }
+    }
+
+    /**
+     * @param grpId Cache group ID.
+     * @param dictId Dictionary ID.
+     * @return Key of the dictionary in {@link #dicts}.
+     */
+    private static long dictKey(int grpId, int dictId) {
+        return ((long)grpId << 32) | (dictId & 0xFFFFFFFFL);
+    }
+
+    /** Dictionary of a cache group. */
+    private static class Dictionary {
+        /** Dictionary ID. */
+        private final int id;
+
+        /** Dictionary bytes. */
+        private final byte[] bytes;
+
+        /**
+         * @param id Dictionary ID.
+         * @param bytes Dictionary bytes.
+         */
+        private Dictionary(int id, byte[] bytes) {
+            this.id = id;
+            this.bytes = bytes;
+        }
+    }
+
+    /** Collects sampled records of a cache group into a dictionary. */
+    private static class Trainer {
+        /** Sampled bytes, the most recent samples are at the end as deflate prefers closer matches. */
+        private final byte[] buf = new byte[DICT_SIZE];
+
+        /** Number of sampled bytes. */
+        private int len;
+
+        /** Dictionary is built. */
+        private boolean done;
+
+        /**
+         * @param raw Serialized data entries.
+         * @return Dictionary if the sample is full, {@code null} otherwise or if the dictionary was already built.
+         */
+        private synchronized byte[] add(byte[] raw) {
+            if (done)
+                return null;
+
+            int sz = Math.min(Math.min(raw.length, MAX_SAMPLE_SIZE), DICT_SIZE - len);
+
+            System.arraycopy(raw, 0, buf, len, sz);
+
+            len += sz;
+
+            if (len < DICT_SIZE)
+                return null;
+
+            done = true;
+
+            return buf;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.ignite.internal.pagemem.wal.record.DataEntry;
 import org.apache.ignite.internal.pagemem.wal.record.DataRecord;
 import org.apache.ignite.internal.pagemem.wal.record.ExchangeRecord;
 import org.apache.ignite.internal.pagemem.wal.record.LazyMvccDataEntry;
+import org.apache.ignite.internal.pagemem.wal.record.MetastoreDataRecord;
 import org.apache.ignite.internal.pagemem.wal.record.MvccDataEntry;
 import org.apache.ignite.internal.pagemem.wal.record.MvccDataRecord;
 import org.apache.ignite.internal.pagemem.wal.record.MvccTxRecord;
@@ -52,11 +53,16 @@ import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
 import org.apache.ignite.internal.processors.cache.KeyCacheObject;
 import org.apache.ignite.internal.processors.cache.mvcc.MvccVersion;
 import org.apache.ignite.internal.processors.cache.persistence.wal.ByteBufferBackedDataInput;
+import org.apache.ignite.internal.processors.cache.persistence.wal.ByteBufferBackedDataInputImpl;
 import org.apache.ignite.internal.processors.cache.persistence.wal.WALPointer;
 import org.apache.ignite.internal.processors.cache.persistence.wal.record.HeaderRecord;
 import org.apache.ignite.internal.processors.cache.version.GridCacheVersion;
+import org.jetbrains.annotations.Nullable;
 
+import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.COMPRESSED_DATA_RECORD;
+import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.DATA_RECORD;
 import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.ENCRYPTED_DATA_RECORD_V2;
+import static org.apache.ignite.internal.processors.cache.GridCacheOperation.READ;
 
 /**
  * Record data V2 serializer.
@@ -68,15 +74,29 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
     /** Serializer of {@link TxRecord} records. */
     private final TxRecordSerializer txRecordSerializer;
 
+    /** Compressor of {@link DataRecord} entries. */
+    private final DataRecordCompressor compressor;
+
     /**
      * Create an instance of V2 data serializer.
      *
      * @param cctx Cache shared context.
      */
     public RecordDataV2Serializer(GridCacheSharedContext cctx) {
+        this(cctx, new DataRecordCompressor());
+    }
+
+    /**
+     * Create an instance of V2 data serializer.
+     *
+     * @param cctx Cache shared context.
+     * @param compressor Compressor of {@link DataRecord} entries.
+     */
+    public RecordDataV2Serializer(GridCacheSharedContext cctx, DataRecordCompressor compressor) {
         super(cctx);
 
         this.txRecordSerializer = new TxRecordSerializer();
+        this.compressor = compressor;
     }
 
     /** {@inheritDoc} */
@@ -96,6 +116,11 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
                 return 4/*entry count*/ + 8/*timestamp*/ + dataSize((DataRecord)rec);
 
             case DATA_RECORD:
+                byte[] compressed = compressEntries((DataRecord)rec);
+
+                if (compressed != null)
+                    return 4/*entry count*/ + 8/*timestamp*/ + 4/*compressed size*/ + compressed.length;
+
                 return super.plainSize(rec) + 8/*timestamp*/;
 
             case SNAPSHOT:
@@ -181,6 +206,31 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
 
                 return new MvccDataRecord(entries, timeStamp);
 
+            case COMPRESSED_DATA_RECORD:
+                entryCnt = in.readInt();
+                timeStamp = in.readLong();
+
+                byte[] compressed = new byte[in.readInt()];
+
+                in.readFully(compressed);
+
+                ByteBuffer raw = compressor.decompress(compressed);
+
+                entries = new ArrayList<>(entryCnt);
+
+                if (raw == null) {
+                    for (int i = 0; i < entryCnt; i++)
+                        entries.add(new CompressedDataEntry());
+                }
+                else {
+                    ByteBufferBackedDataInput rawIn = new ByteBufferBackedDataInputImpl().buffer(raw);
+
+                    for (int i = 0; i < entryCnt; i++)
+                        entries.add(readPlainDataEntry(rawIn));
+                }
+
+                return new DataRecord(entries, timeStamp);
+
             case ENCRYPTED_DATA_RECORD:
             case ENCRYPTED_DATA_RECORD_V2:
                 entryCnt = in.readInt();
@@ -226,6 +276,13 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
 
                 return new TrackingPageRepairDeltaRecord(cacheId, pageId);
 
+            case METASTORE_DATA_RECORD:
+                WALRecord rec = super.readPlainRecord(type, in, encrypted, recordSize);
+
+                compressor.onMetastoreRecord((MetastoreDataRecord)rec);
+
+                return rec;
+
             default:
                 return super.readPlainRecord(type, in, encrypted, recordSize);
         }
@@ -266,6 +323,15 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
                 buf.putInt(dataRec.writeEntries().size());
                 buf.putLong(dataRec.timestamp());
 
+                byte[] compressed = dataRec.compressedEntries();
+
+                if (compressed != null) {
+                    buf.putInt(compressed.length);
+                    buf.put(compressed);
+
+                    break;
+                }
+
                 boolean encrypted = isDataRecordEncrypted(dataRec);
 
                 for (DataEntry dataEntry : dataRec.writeEntries()) {
@@ -327,6 +393,57 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override RecordType recordType(WALRecord rec) {
+        if (rec.type() == DATA_RECORD && ((DataRecord)rec).compressedEntries() != null)
+            return COMPRESSED_DATA_RECORD;
+
+        return super.recordType(rec);
+    }
+
+    /**
+     * Compresses entries of the record if compression is enabled and reduces the record size. The outcome is kept
+     * in the record, so the record is compressed at most once and its size, type and content written to WAL are
+     * consistent.
+     *
+     * @param rec Data record.
+     * @return Compressed entries or {@code null} if the record is written uncompressed.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Nullable private byte[] compressEntries(DataRecord rec) throws IgniteCheckedException {
+        if (rec.compressedEntries() != null)
+            return rec.compressedEntries();
+
+        if (rec.compressionSkipped() || !compressor.enabled() || rec.writeEntries().isEmpty() ||
+            isDataRecordEncrypted(rec))
+            return null;
+
+        GridCacheContext<?, ?> cacheCtx = cctx.cacheContext(rec.writeEntries().get(0).cacheId());
+
+        // Entries of a stopped cache are written as is.
+        int size = cacheCtx == null ? 0 : dataSize(rec);
+
+        if (size < DataRecordCompressor.MIN_COMPRESS_SIZE) {
+            rec.compressionSkipped(true);
+
+            return null;
+        }
+
+        ByteBuffer raw = ByteBuffer.allocate(size);
+
+        for (DataEntry entry : rec.writeEntries())
+            putPlainDataEntry(raw, entry);
+
+        byte[] compressed = compressor.compress(cacheCtx.groupId(), raw.array());
+
+        if (compressed != null)
+            rec.compressedEntries(compressed);
+        else
+            rec.compressionSkipped(true);
+
+        return compressed;
+    }
+
     /** {@inheritDoc} */
     @Override void putPlainDataEntry(ByteBuffer buf, DataEntry entry) throws IgniteCheckedException {
         if (entry instanceof MvccDataEntry)
@@ -512,4 +629,14 @@ public class RecordDataV2Serializer extends RecordDataV1Serializer {
 
         return size;
     }
+
+    /**
+     * Represents Data Entry of a compressed record which can't be decompressed as the dictionary is unknown.
+     */
+    public static class CompressedDataEntry extends DataEntry {
+        /** Constructor. */
+        CompressedDataEntry() {
+            super(0, null, null, READ, null, null, 0, 0, 0);
+        }
+    }
 }
@@ -20,6 +20,7 @@ import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.pagemem.wal.record.MarshalledRecord;
 import org.apache.ignite.internal.pagemem.wal.record.WALRecord;
 import org.apache.ignite.internal.processors.cache.GridCacheSharedContext;
+import org.apache.ignite.internal.processors.cache.persistence.wal.FileWriteAheadLogManager;
 import org.apache.ignite.internal.processors.cache.persistence.wal.WALPointer;
 import org.apache.ignite.lang.IgniteBiPredicate;
 import org.jetbrains.annotations.Nullable;
@@ -46,6 +47,12 @@ public class RecordSerializerFactoryImpl implements RecordSerializerFactory {
     /** Skip position check flag. Should be set for reading compacted wal file with skipped physical records. */
     private boolean skipPositionCheck;
 
+    /**
+     * Compressor of data records shared by created serializers. Node WAL manager compressor is used if available,
+     * otherwise dictionaries are learned from the records read by serializers of this factory.
+     */
+    private final DataRecordCompressor compressor;
+
     /**
      * @param cctx Cctx.
      */
@@ -62,6 +69,11 @@ public class RecordSerializerFactoryImpl implements RecordSerializerFactory {
     ) {
         this.cctx = cctx;
         this.recordDeserializeFilter = readTypeFilter;
+
+        DataRecordCompressor walCompressor = cctx.wal() instanceof FileWriteAheadLogManager ?
+            ((FileWriteAheadLogManager)cctx.wal()).dataRecordCompressor() : null;
+
+        compressor = walCompressor != null ? walCompressor : new DataRecordCompressor();
     }
 
     /** {@inheritDoc} */
@@ -80,7 +92,7 @@ public class RecordSerializerFactoryImpl implements RecordSerializerFactory {
 
             case 2:
                 return new RecordV2Serializer(
-                    new RecordDataV2Serializer(cctx),
+                    new RecordDataV2Serializer(cctx, compressor),
                     needWritePointer,
                     marshalledMode,
                     skipPositionCheck,
@@ -37,6 +37,9 @@ import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.lang.IgniteBiPredicate;
 
 import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType;
+import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.COMPRESSED_DATA_RECORD;
+import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.DATA_RECORD;
+import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.METASTORE_DATA_RECORD;
 import static org.apache.ignite.internal.pagemem.wal.record.WALRecord.RecordType.SWITCH_SEGMENT_RECORD;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordV1Serializer.CRC_SIZE;
 import static org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordV1Serializer.REC_TYPE_SIZE;
@@ -119,12 +122,22 @@ public class RecordV2Serializer implements RecordSerializer {
                     ", expected pointer [idx=" + expPtr.index() + ", offset=" + expPtr.fileOffset() + "]");
             }
 
+            // Compressed data record is read as a data record, so it is filtered as a data record.
+            RecordType filterType = recType == COMPRESSED_DATA_RECORD ? DATA_RECORD : recType;
+
             if (recType.purpose() != WALRecord.RecordPurpose.INTERNAL
-                && recordFilter != null && !recordFilter.apply(recType, ptr)) {
+                && recordFilter != null && !recordFilter.apply(filterType, ptr)) {
                 int toSkip = ptr.length() - REC_TYPE_SIZE - FILE_WAL_POINTER_SIZE - CRC_SIZE;
 
                 assert toSkip >= 0 : "Too small saved record length: ptr=" + ptr + ", type=" + recType;
 
+                // Metastorage record may carry a dictionary required to read subsequent compressed data records.
+                if (recType == METASTORE_DATA_RECORD && !marshalledMode && recordFilter.apply(DATA_RECORD, ptr)) {
+                    dataSerializer.readRecord(recType, in, toSkip);
+
+                    return FilteredRecord.INSTANCE;
+                }
+
                 if (in.skipBytes(toSkip) < toSkip)
                     throw new EOFException("Reached end of file while reading record: " + ptr);
 
@@ -84,6 +84,14 @@ public class GridCacheSqlQuery implements Message {
     @GridDirectTransient
     private transient boolean hasOuterJoinReplicatedPartitioned;
 
+    /** Flag indicating that map nodes repartition the join inputs by the join key and join them locally. */
+    @GridToStringInclude
+    private boolean shuffleJoin;
+
+    /** Flag indicating that map nodes repartition the partial groups by the group key and merge them locally. */
+    @GridToStringInclude
+    private boolean shuffleAggregate;
+
     /**
      * For {@link Message}.
      */
@@ -197,6 +205,18 @@ public class GridCacheSqlQuery implements Message {
 
                 writer.incrementState();
 
+            case 4:
+                if (!writer.writeBoolean("shuffleAggregate", shuffleAggregate))
+                    return false;
+
+                writer.incrementState();
+
+            case 5:
+                if (!writer.writeBoolean("shuffleJoin", shuffleJoin))
+                    return false;
+
+                writer.incrementState();
+
         }
 
         return true;
@@ -242,6 +262,22 @@ public class GridCacheSqlQuery implements Message {
 
                 reader.incrementState();
 
+            case 4:
+                shuffleAggregate = reader.readBoolean("shuffleAggregate");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 5:
+                shuffleJoin = reader.readBoolean("shuffleJoin");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
         }
 
         return reader.afterMessageRead(GridCacheSqlQuery.class);
@@ -254,7 +290,7 @@ public class GridCacheSqlQuery implements Message {
 
     /** {@inheritDoc} */
     @Override public byte fieldsCount() {
-        return 4;
+        return 6;
     }
 
     /**
@@ -270,6 +306,8 @@ public class GridCacheSqlQuery implements Message {
         cp.partitioned = partitioned;
         cp.derivedPartitions = derivedPartitions;
         cp.hasSubQries = hasSubQries;
+        cp.shuffleJoin = shuffleJoin;
+        cp.shuffleAggregate = shuffleAggregate;
 
         return cp;
     }
@@ -391,4 +429,41 @@ public class GridCacheSqlQuery implements Message {
 
         return this;
     }
+
+    /**
+     * @return {@code true} if map nodes execute the query as a shuffle hash join.
+     */
+    public boolean isShuffleJoin() {
+        return shuffleJoin;
+    }
+
+    /**
+     * @param shuffleJoin Flag indicating that map nodes execute the query as a shuffle hash join.
+     *
+     * @return {@code this}.
+     */
+    public GridCacheSqlQuery shuffleJoin(boolean shuffleJoin) {
+        this.shuffleJoin = shuffleJoin;
+
+        return this;
+    }
+
+    /**
+     * @return {@code true} if map nodes merge the partial groups of the query repartitioned by the group key.
+     */
+    public boolean isShuffleAggregate() {
+        return shuffleAggregate;
+    }
+
+    /**
+     * @param shuffleAggregate Flag indicating that map nodes merge the partial groups of the query repartitioned by
+     *      the group key.
+     *
+     * @return {@code this}.
+     */
+    public GridCacheSqlQuery shuffleAggregate(boolean shuffleAggregate) {
+        this.shuffleAggregate = shuffleAggregate;
+
+        return this;
+    }
 }
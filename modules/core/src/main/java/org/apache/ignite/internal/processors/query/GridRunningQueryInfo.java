@@ -18,6 +18,7 @@
 package org.apache.ignite.internal.processors.query;
 
 import java.util.UUID;
+import java.util.function.LongSupplier;
 import org.apache.ignite.internal.processors.cache.query.GridCacheQueryType;
 import org.apache.ignite.internal.processors.tracing.MTC;
 import org.apache.ignite.internal.processors.tracing.Span;
@@ -62,6 +63,9 @@ public class GridRunningQueryInfo {
     /** Request ID. */
     private long reqId;
 
+    /** Memory used by the reducer of the query, {@code null} if the query is not reduced on this node. */
+    private volatile LongSupplier rdcMem;
+
     /**
      * Constructor.
      *
@@ -208,4 +212,16 @@ public class GridRunningQueryInfo {
     public void requestId(long reqId) {
         this.reqId = reqId;
     }
+
+    /** @return Estimated memory in bytes used by the reducer of the query, {@code 0} if it is not reduced. */
+    public long reducerMemory() {
+        LongSupplier rdcMem0 = rdcMem;
+
+        return rdcMem0 == null ? 0 : rdcMem0.getAsLong();
+    }
+
+    /** @param rdcMem Memory used by the reducer of the query. */
+    public void reducerMemory(LongSupplier rdcMem) {
+        this.rdcMem = rdcMem;
+    }
 }
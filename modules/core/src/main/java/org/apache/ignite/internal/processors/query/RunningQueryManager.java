@@ -26,6 +26,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import org.apache.ignite.configuration.SqlConfiguration;
 import org.apache.ignite.internal.GridKernalContext;
 import org.apache.ignite.internal.managers.systemview.walker.SqlQueryHistoryViewWalker;
@@ -161,8 +162,7 @@ public class RunningQueryManager {
 
         GridRunningQueryInfo preRun = runs.putIfAbsent(qryId, run);
 
-        if (ctx.performanceStatistics().enabled())
-            currQryInfo.set(run);
+        currQryInfo.set(run);
 
         assert preRun == null : "Running query already registered [prev_qry=" + preRun + ", newQry=" + run + ']';
 
@@ -187,6 +187,10 @@ public class RunningQueryManager {
         if (qry == null)
             return;
 
+        // Do not keep the finished query referenced by the thread.
+        if (currQryInfo.get() == qry)
+            currQryInfo.remove();
+
         Span qrySpan = qry.span();
 
         try {
@@ -237,6 +241,14 @@ public class RunningQueryManager {
         }
     }
 
+    /** @param rdcMem Memory used by the reducer of the query to track. */
+    public void trackReducerMemory(LongSupplier rdcMem) {
+        GridRunningQueryInfo info = currQryInfo.get();
+
+        if (info != null)
+            info.reducerMemory(rdcMem);
+    }
+
     /**
      * Return SQL queries which executing right now.
      *
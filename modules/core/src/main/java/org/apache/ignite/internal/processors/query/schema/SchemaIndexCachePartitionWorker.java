@@ -17,6 +17,8 @@
 
 package org.apache.ignite.internal.processors.query.schema;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.ignite.IgniteCheckedException;
@@ -55,6 +57,9 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
     /** Count of rows, being processed within a single checkpoint lock. */
     private static final int BATCH_SIZE = 1000;
 
+    /** Maximum count of rows, which are put to indexes at once while their entries are locked. */
+    private static final int ROWS_BATCH_SIZE = 100;
+
     /** Cache context. */
     private final GridCacheContext cctx;
 
@@ -76,6 +81,12 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
     /** Count of partitions to be processed. */
     private final AtomicInteger partsCnt;
 
+    /** Locked entries of the rows batch. */
+    private final List<GridCacheEntryEx> batchEntries = new ArrayList<>(ROWS_BATCH_SIZE);
+
+    /** Rows batch. */
+    private final List<CacheDataRow> batchRows = new ArrayList<>(ROWS_BATCH_SIZE);
+
     /**
      * Constructor.
      *
@@ -186,6 +197,8 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
                     processKey(key);
 
                     if (++cntr % BATCH_SIZE == 0) {
+                        applyBatch();
+
                         cctx.shared().database().checkpointReadUnlock();
 
                         locked = false;
@@ -197,9 +210,13 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
                         break;
                 }
 
+                applyBatch();
+
                 wrappedClo.addNumberProcessedKeys(cntr);
             }
             finally {
+                unlockBatch();
+
                 if (locked)
                     cctx.shared().database().checkpointReadUnlock();
             }
@@ -213,7 +230,10 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
     }
 
     /**
-     * Process single key.
+     * Process single key: locks its entry and adds its row to the rows batch. The entry stays locked until the batch
+     * is put to indexes, so concurrent updates of the entry do not race with the index rebuild, as with
+     * {@link GridCacheEntryEx#updateIndex}. Only the first entry lock of a batch is awaited, otherwise the batch is
+     * applied before waiting, so a worker never waits for a lock while holding other entry locks.
      *
      * @param key Key.
      * @throws IgniteCheckedException If failed.
@@ -227,13 +247,38 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
 
                 GridCacheEntryEx entry = cctx.cache().entryEx(key);
 
+                if (batchEntries.isEmpty() || !entry.tryLockEntry(0)) {
+                    applyBatch();
+
+                    entry.lockEntry();
+                }
+
+                boolean added = false;
+
                 try {
-                    entry.updateIndex(wrappedClo);
+                    if (entry.obsolete())
+                        throw new GridCacheEntryRemovedException();
+
+                    CacheDataRow row = entry.isInternal() ? null : locPart.dataStore().find(cctx, key);
+
+                    if (row != null) {
+                        batchEntries.add(entry);
+                        batchRows.add(row);
+
+                        added = true;
+                    }
                 }
                 finally {
-                    entry.touch();
+                    if (!added) {
+                        entry.unlockEntry();
+
+                        entry.touch();
+                    }
                 }
 
+                if (batchRows.size() >= ROWS_BATCH_SIZE)
+                    applyBatch();
+
                 break;
             }
             catch (GridDhtInvalidPartitionException ignore) {
@@ -245,6 +290,37 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
         }
     }
 
+    /**
+     * Puts the rows batch to indexes and unlocks its entries.
+     *
+     * @throws IgniteCheckedException If failed.
+     */
+    private void applyBatch() throws IgniteCheckedException {
+        if (batchRows.isEmpty())
+            return;
+
+        try {
+            wrappedClo.applyAll(batchRows);
+        }
+        finally {
+            unlockBatch();
+        }
+    }
+
+    /**
+     * Unlocks entries of the rows batch and clears the batch.
+     */
+    private void unlockBatch() {
+        for (GridCacheEntryEx entry : batchEntries) {
+            entry.unlockEntry();
+
+            entry.touch();
+        }
+
+        batchEntries.clear();
+        batchRows.clear();
+    }
+
     /**
      * Check if visit process is not cancelled.
      *
@@ -292,18 +368,35 @@ public class SchemaIndexCachePartitionWorker extends GridWorker {
             if (row != null) {
                 clo.apply(row);
 
-                if (indexCacheStat != null) {
-                    QueryTypeDescriptorImpl type = cctx.kernalContext().query().typeByValue(
-                        cctx.cache().name(),
-                        cctx.cacheObjectContext(),
-                        row.key(),
-                        row.value(),
-                        true
-                    );
-
-                    if (type != null)
-                        indexCacheStat.addType(type);
-                }
+                addType(row);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override public void applyAll(List<CacheDataRow> rows) throws IgniteCheckedException {
+            clo.applyAll(rows);
+
+            for (CacheDataRow row : rows)
+                addType(row);
+        }
+
+        /**
+         * Collects statistics about the type of the row.
+         *
+         * @param row Row.
+         */
+        private void addType(CacheDataRow row) {
+            if (indexCacheStat != null) {
+                QueryTypeDescriptorImpl type = cctx.kernalContext().query().typeByValue(
+                    cctx.cache().name(),
+                    cctx.cacheObjectContext(),
+                    row.key(),
+                    row.value(),
+                    true
+                );
+
+                if (type != null)
+                    indexCacheStat.addType(type);
             }
         }
 
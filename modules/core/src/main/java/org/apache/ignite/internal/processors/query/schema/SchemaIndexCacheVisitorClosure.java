@@ -17,6 +17,7 @@
 
 package org.apache.ignite.internal.processors.query.schema;
 
+import java.util.List;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
 
@@ -31,4 +32,16 @@ public interface SchemaIndexCacheVisitorClosure {
      * @throws IgniteCheckedException If failed.
      */
     public void apply(CacheDataRow row) throws IgniteCheckedException;
+
+    /**
+     * Apply closure to a batch of rows. Entries of the rows are locked by the caller, so the rows may be put to
+     * indexes in any order.
+     *
+     * @param rows Rows.
+     * @throws IgniteCheckedException If failed.
+     */
+    public default void applyAll(List<CacheDataRow> rows) throws IgniteCheckedException {
+        for (CacheDataRow row : rows)
+            apply(row);
+    }
 }
@@ -314,6 +314,9 @@ public class SqlKeyword {
     /** Keyword: REVOKE. */
     public static final String REVOKE = "REVOKE";
 
+    /** Keyword: ANALYZE. */
+    public static final String ANALYZE = "ANALYZE";
+
     /** All keywords. */
     private static final HashSet<String> KEYWORDS;
 
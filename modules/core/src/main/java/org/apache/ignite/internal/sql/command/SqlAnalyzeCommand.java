@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.sql.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.ignite.internal.sql.SqlLexer;
+import org.apache.ignite.internal.sql.SqlLexerTokenType;
+import org.apache.ignite.internal.util.typedef.internal.S;
+
+import static org.apache.ignite.internal.sql.SqlParserUtils.parseQualifiedIdentifier;
+
+/**
+ * ANALYZE command collecting column statistics of the given tables:
+ * <pre>
+ * ANALYZE [schema.]table [, [schema.]table ...]
+ * </pre>
+ */
+public class SqlAnalyzeCommand implements SqlCommand {
+    /** Schema name. */
+    private String schemaName;
+
+    /** Tables to analyze, the schema of a table is {@code null} if it is not specified explicitly. */
+    private final List<SqlQualifiedName> tbls = new ArrayList<>();
+
+    /** {@inheritDoc} */
+    @Override public String schemaName() {
+        return schemaName;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void schemaName(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    /**
+     * @return Tables to analyze.
+     */
+    public List<SqlQualifiedName> tables() {
+        return Collections.unmodifiableList(tbls);
+    }
+
+    /** {@inheritDoc} */
+    @Override public SqlCommand parse(SqlLexer lex) {
+        while (true) {
+            tbls.add(parseQualifiedIdentifier(lex));
+
+            if (lex.lookAhead().tokenType() != SqlLexerTokenType.COMMA)
+                return this;
+
+            lex.shift();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(SqlAnalyzeCommand.class, this);
+    }
+}
@@ -114,6 +114,32 @@ public class GridConcurrentMultiPairQueue<K, V> {
         maxPos = size + 1;
     }
 
+    /**
+     * Creates a queue which values are provided by {@link #value(int, int)} of the subclass.
+     *
+     * @param keys Keys.
+     * @param sizes Number of values per key, every number must be positive.
+     */
+    protected GridConcurrentMultiPairQueue(K[] keys, int[] sizes) {
+        assert keys.length == sizes.length;
+
+        vals = null;
+
+        keysArr = keys;
+
+        lenSeq = new int[keys.length];
+
+        int size = -1;
+
+        for (int i = 0; i < keys.length; i++) {
+            assert sizes[i] > 0 : sizes[i];
+
+            lenSeq[i] = size += sizes[i];
+        }
+
+        maxPos = size + 1;
+    }
+
     /**
      * Retrieves and removes the head of this queue,
      * or returns {@code false} if this queue is empty.
@@ -121,7 +147,31 @@ public class GridConcurrentMultiPairQueue<K, V> {
      * @return {@code true} if {@link #next} return non empty result, or {@code false} if this queue is empty
      */
     public boolean next(Result<K, V> res) {
-        int absPos = pos.getAndIncrement();
+        return next(res, 1);
+    }
+
+    /**
+     * Retrieves and removes the head of this queue like {@link #next(Result)}, but takes up to {@code batch} head
+     * elements at once. Taken elements are returned by subsequent calls with the same result holder, so a consumer
+     * gets consecutive elements even if the queue is shared by concurrent consumers.
+     *
+     * @param res Result holder.
+     * @param batch Maximum number of elements to take at once.
+     * @return {@code true} if {@link #next} return non empty result, or {@code false} if this queue is empty
+     */
+    public boolean next(Result<K, V> res, int batch) {
+        assert batch > 0 : batch;
+
+        int absPos;
+
+        if (res.batchPos < res.batchEnd)
+            absPos = res.batchPos++;
+        else {
+            absPos = pos.getAndAdd(batch);
+
+            res.batchPos = absPos + 1;
+            res.batchEnd = absPos + batch;
+        }
 
         if (absPos >= maxPos) {
             res.set(null, null, 0);
@@ -141,11 +191,20 @@ public class GridConcurrentMultiPairQueue<K, V> {
 
         K key = keysArr[segment];
 
-        res.set(key, vals[segment][relPos], segment);
+        res.set(key, value(segment, relPos), segment);
 
         return true;
     }
 
+    /**
+     * @param keyIdx Index of a key.
+     * @param idx Index of a value of the key.
+     * @return Value.
+     */
+    protected V value(int keyIdx, int idx) {
+        return vals[keyIdx][idx];
+    }
+
     /**
      * @return {@code true} if empty.
      */
@@ -171,6 +230,12 @@ public class GridConcurrentMultiPairQueue<K, V> {
         /** Value holeder. */
         private V val;
 
+        /** Absolute position of the next taken element. */
+        private int batchPos;
+
+        /** Absolute position after the last taken element. */
+        private int batchEnd;
+
         /** Current state setter. */
         public void set(K k, V v, int seg) {
             key = k;
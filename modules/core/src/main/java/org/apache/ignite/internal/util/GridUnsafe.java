@@ -1384,6 +1384,17 @@ public abstract class GridUnsafe {
         return UNSAFE.getAndAddInt(null, ptr, -1) - 1;
     }
 
+    /**
+     * Atomically adds the given value to an integer pointed by {@code ptr}.
+     *
+     * @param ptr Pointer to an integer.
+     * @param delta Value to add.
+     * @return Updated value.
+     */
+    public static int addAndGetInt(long ptr, int delta) {
+        return UNSAFE.getAndAddInt(null, ptr, delta) + delta;
+    }
+
     /**
      * Gets byte value with volatile semantic.
      *
@@ -1461,6 +1472,13 @@ public abstract class GridUnsafe {
         UNSAFE.putObjectVolatile(obj, off, val);
     }
 
+    /**
+     * Ensures that loads before the fence will not be reordered with loads and stores after the fence.
+     */
+    public static void loadFence() {
+        UNSAFE.loadFence();
+    }
+
     /**
      * Returns page size.
      *
@@ -33,6 +33,16 @@ public interface SnapshotMXBean {
     @MXBeanDescription("Create cluster-wide snapshot.")
     public void createSnapshot(@MXBeanParameter(name = "snpName", description = "Snapshot name.") String snpName);
 
+    /**
+     * Create the cluster-wide snapshot with given name asynchronously, which contains only the pages changed
+     * since the previous snapshot.
+     *
+     * @param snpName Snapshot name to be created.
+     */
+    @MXBeanDescription("Create cluster-wide incremental snapshot.")
+    public void createIncrementalSnapshot(
+        @MXBeanParameter(name = "snpName", description = "Snapshot name.") String snpName);
+
     /**
      * Cancel previously started snapshot operation on the node initiator.
      *
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.spi.systemview.view;
+
+import org.apache.ignite.internal.managers.systemview.walker.Order;
+import org.apache.ignite.internal.processors.cache.persistence.snapshot.SnapshotRestoreTask;
+
+/**
+ * Restore of a snapshot to a local directory representation for a {@link SystemView}.
+ */
+public class SnapshotRestoreView {
+    /** Restore task. */
+    private final SnapshotRestoreTask task;
+
+    /**
+     * @param task Restore task.
+     */
+    public SnapshotRestoreView(SnapshotRestoreTask task) {
+        this.task = task;
+    }
+
+    /**
+     * @return Snapshot name.
+     */
+    @Order
+    public String snapshotName() {
+        return task.snapshotName();
+    }
+
+    /**
+     * @return Directory the snapshot is restored to.
+     */
+    @Order(1)
+    public String destination() {
+        return task.destination().getAbsolutePath();
+    }
+
+    /**
+     * @return Restore start time.
+     */
+    @Order(2)
+    public long startTime() {
+        return task.startTime();
+    }
+
+    /**
+     * @return Restore end time, {@code 0} if the restore is in progress.
+     */
+    @Order(3)
+    public long endTime() {
+        return task.endTime();
+    }
+
+    /**
+     * @return Number of partition files to restore.
+     */
+    @Order(4)
+    public int totalPartitions() {
+        return task.totalPartitions();
+    }
+
+    /**
+     * @return Number of restored partition files.
+     */
+    @Order(5)
+    public int processedPartitions() {
+        return task.processedPartitions();
+    }
+
+    /**
+     * @return Total size of the partition files to restore in bytes.
+     */
+    @Order(6)
+    public long totalSize() {
+        return task.totalSize();
+    }
+
+    /**
+     * @return Number of bytes of the partition files restored.
+     */
+    @Order(7)
+    public long processedSize() {
+        return task.processedSize();
+    }
+
+    /**
+     * @return Estimated time in milliseconds to finish the restore, {@code -1} if it is not known yet.
+     */
+    @Order(8)
+    public long estimatedTimeLeft() {
+        return task.estimatedTimeLeft();
+    }
+
+    /**
+     * @return Error message, {@code null} if the restore is in progress or has finished successfully.
+     */
+    @Order(9)
+    public String error() {
+        Throwable err = task.error();
+
+        return err == null ? null : err.toString();
+    }
+}
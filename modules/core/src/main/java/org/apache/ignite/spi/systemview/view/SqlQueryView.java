@@ -76,4 +76,9 @@ public class SqlQueryView {
     public boolean local() {
         return qry.local();
     }
+
+    /** @return Estimated memory in bytes used by the reducer of the query on this node. */
+    public long reducerMemory() {
+        return qry.reducerMemory();
+    }
 }
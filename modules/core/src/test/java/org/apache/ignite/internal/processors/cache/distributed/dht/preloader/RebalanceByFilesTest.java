@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.cache.distributed.dht.preloader;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.cache.affinity.rendezvous.RendezvousAffinityFunction;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.TestRecordingCommunicationSpi;
+import org.apache.ignite.internal.util.typedef.internal.CU;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.cache.distributed.dht.preloader.PartitionFilesLoader.IGNITE_REBALANCE_BY_FILES;
+
+/**
+ * Checks rebalancing of partitions by files to a node joining the baseline.
+ */
+@WithSystemProperty(key = IGNITE_REBALANCE_BY_FILES, value = "true")
+public class RebalanceByFilesTest extends GridCommonAbstractTest {
+    /** Initial keys. */
+    private static final int INITIAL_KEYS = 10_000;
+
+    /** Full rebalancing happened flag. */
+    private final AtomicBoolean fullRebalancingHappened = new AtomicBoolean(false);
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String name) throws Exception {
+        IgniteConfiguration cfg = super.getConfiguration(name);
+
+        cfg.setConsistentId(name);
+
+        cfg.setDataStorageConfiguration(
+            new DataStorageConfiguration()
+                .setDefaultDataRegionConfiguration(
+                    new DataRegionConfiguration()
+                        .setMaxSize(DataStorageConfiguration.DFLT_DATA_REGION_INITIAL_SIZE)
+                        .setPersistenceEnabled(true)
+                )
+        );
+
+        cfg.setCacheConfiguration(new CacheConfiguration<Integer, Integer>()
+            .setAffinity(new RendezvousAffinityFunction(false, 16))
+            .setBackups(1)
+            .setName(DEFAULT_CACHE_NAME));
+
+        TestRecordingCommunicationSpi spi = new TestRecordingCommunicationSpi();
+
+        spi.blockMessages((node, msg) -> {
+            if (msg instanceof GridDhtPartitionDemandMessage) {
+                GridDhtPartitionDemandMessage demandMsg = (GridDhtPartitionDemandMessage)msg;
+
+                if (demandMsg.groupId() == CU.cacheId(DEFAULT_CACHE_NAME) && demandMsg.partitions().hasFull())
+                    fullRebalancingHappened.set(true);
+            }
+
+            return false;
+        });
+
+        cfg.setCommunicationSpi(spi);
+
+        return cfg;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        fullRebalancingHappened.set(false);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        super.afterTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testJoinedNodeLoadsPartitionsByFiles() throws Exception {
+        IgniteEx ignite = startGrids(2);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < INITIAL_KEYS; i++)
+            cache.put(i, i);
+
+        IgniteEx joined = startGrid(2);
+
+        ignite.cluster().setBaselineTopology(ignite.cluster().topologyVersion());
+
+        awaitPartitionMapExchange(true, true, null);
+
+        assertFalse(fullRebalancingHappened.get());
+
+        checkLocalData(joined);
+
+        assertPartitionsSame(idleVerify(joined, DEFAULT_CACHE_NAME));
+
+        // Loaded partitions must survive the restart of the node.
+        stopGrid(2);
+
+        joined = startGrid(2);
+
+        awaitPartitionMapExchange();
+
+        checkLocalData(joined);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testJoinedNodeUnderLoad() throws Exception {
+        IgniteEx ignite = startGrids(2);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < INITIAL_KEYS; i++)
+            cache.put(i, i);
+
+        AtomicBoolean stop = new AtomicBoolean();
+
+        IgniteInternalFuture<?> loadFut = GridTestUtils.runAsync(() -> {
+            while (!stop.get()) {
+                int key = ThreadLocalRandom.current().nextInt(INITIAL_KEYS);
+
+                cache.put(key, key);
+            }
+        });
+
+        try {
+            startGrid(2);
+
+            ignite.cluster().setBaselineTopology(ignite.cluster().topologyVersion());
+
+            awaitPartitionMapExchange(true, true, null);
+        }
+        finally {
+            stop.set(true);
+        }
+
+        loadFut.get();
+
+        assertPartitionsSame(idleVerify(ignite, DEFAULT_CACHE_NAME));
+    }
+
+    /**
+     * @param ignite Ignite instance.
+     */
+    private void checkLocalData(IgniteEx ignite) {
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        Affinity<Integer> aff = ignite.affinity(DEFAULT_CACHE_NAME);
+
+        int expSize = 0;
+
+        for (int i = 0; i < INITIAL_KEYS; i++) {
+            if (!aff.isPrimaryOrBackup(ignite.localNode(), i))
+                continue;
+
+            expSize++;
+
+            assertEquals((Integer)i, cache.localPeek(i, CachePeekMode.PRIMARY, CachePeekMode.BACKUP));
+        }
+
+        assertTrue(expSize > 0);
+        assertEquals(expSize, cache.localSize(CachePeekMode.PRIMARY, CachePeekMode.BACKUP));
+    }
+}
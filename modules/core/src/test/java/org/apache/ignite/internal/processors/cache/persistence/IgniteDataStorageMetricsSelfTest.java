@@ -304,6 +304,43 @@ public class IgniteDataStorageMetricsSelfTest extends GridCommonAbstractTest {
         }
     }
 
+    /** @throws Exception if failed. */
+    @Test
+    public void testWalRecoveryMetrics() throws Exception {
+        IgniteEx node = startGrid(0);
+
+        node.cluster().state(ACTIVE);
+
+        GridCacheDatabaseSharedManager db = (GridCacheDatabaseSharedManager)node.context().cache().context().database();
+
+        db.enableCheckpoints(false).get(getTestTimeout());
+
+        IgniteCache<Object, Object> cache = node.cache("cache");
+
+        for (int i = 0; i < 100; i++)
+            cache.put(i, new Person("first-" + i, "last-" + i));
+
+        stopGrid(0, true);
+
+        node = startGrid(0);
+
+        node.cluster().state(ACTIVE);
+
+        MetricRegistry mreg = node.context().metric().registry(DATASTORAGE_METRIC_PREFIX);
+
+        AtomicLongMetric records = mreg.findMetric("WalLogicalRecoveryRecords");
+        AtomicLongMetric bytes = mreg.findMetric("WalLogicalRecoveryBytes");
+        AtomicLongMetric duration = mreg.findMetric("WalLogicalRecoveryDuration");
+
+        assertTrue(records.value() >= 100);
+        assertTrue(bytes.value() > records.value());
+        assertTrue(duration.value() >= 0);
+
+        assertNotNull(mreg.findMetric("WalLogicalRecoveryRecordsRate"));
+        assertNotNull(mreg.findMetric("WalBinaryRecoveryRecords"));
+        assertNotNull(mreg.findMetric("WalBinaryRecoveryBytesRate"));
+    }
+
     /**
      *
      */
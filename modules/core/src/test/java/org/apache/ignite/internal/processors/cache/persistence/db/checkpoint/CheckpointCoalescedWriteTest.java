@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.db.checkpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.affinity.rendezvous.RendezvousAffinityFunction;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIODecorator;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIOFactory;
+import org.apache.ignite.internal.processors.cache.persistence.file.RandomAccessFileIOFactory;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES;
+
+/**
+ * Checks that checkpoint writes consecutive pages of a partition with gathering writes.
+ */
+public class CheckpointCoalescedWriteTest extends GridCommonAbstractTest {
+    /** Keys count. */
+    private static final int KEYS_CNT = 10_000;
+
+    /** Number of gathering writes. */
+    private static final AtomicLong gatheringWrites = new AtomicLong();
+
+    /** Number of pages written with gathering writes. */
+    private static final AtomicLong gatheredPages = new AtomicLong();
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setFileIOFactory(new CountingFileIOFactory())
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration()
+                    .setMaxSize(100L * 1024 * 1024)
+                    .setPersistenceEnabled(true)))
+            .setCacheConfiguration(new CacheConfiguration<>(DEFAULT_CACHE_NAME)
+                .setAffinity(new RendezvousAffinityFunction(false, 4)));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        gatheringWrites.set(0);
+        gatheredPages.set(0);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        super.afterTest();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testConsecutivePagesCoalesced() throws Exception {
+        loadAndCheck();
+
+        assertTrue(gatheringWrites.get() > 0);
+        assertTrue("writes=" + gatheringWrites.get() + ", pages=" + gatheredPages.get(),
+            gatheredPages.get() > gatheringWrites.get());
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_CHECKPOINT_COALESCED_WRITE_PAGES, value = "1")
+    public void testCoalescingDisabled() throws Exception {
+        loadAndCheck();
+
+        assertEquals(0, gatheringWrites.get());
+    }
+
+    /**
+     * Loads data, checkpoints it and checks the data after restart.
+     *
+     * @throws Exception If failed.
+     */
+    private void loadAndCheck() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        IgniteCache<Integer, String> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT; i++)
+            cache.put(i, "value-" + i);
+
+        forceCheckpoint();
+
+        stopGrid(0);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT; i++)
+            assertEquals("value-" + i, cache.get(i));
+    }
+
+    /**
+     * Factory of file I/O which counts gathering writes.
+     */
+    private static class CountingFileIOFactory implements FileIOFactory {
+        /** */
+        private static final long serialVersionUID = 0L;
+
+        /** Delegate factory. */
+        private final FileIOFactory delegate = new RandomAccessFileIOFactory();
+
+        /** {@inheritDoc} */
+        @Override public FileIO create(File file, OpenOption... modes) throws IOException {
+            return new FileIODecorator(delegate.create(file, modes)) {
+                /** {@inheritDoc} */
+                @Override public long writeFully(ByteBuffer[] srcBufs, int off, int len, long position)
+                    throws IOException {
+                    gatheringWrites.incrementAndGet();
+                    gatheredPages.addAndGet(len);
+
+                    return delegate.writeFully(srcBufs, off, len, position);
+                }
+            };
+        }
+    }
+}
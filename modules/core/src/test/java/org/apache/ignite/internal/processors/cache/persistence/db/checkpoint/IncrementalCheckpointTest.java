@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.db.checkpoint;
+
+import java.io.File;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.affinity.rendezvous.RendezvousAffinityFunction;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager;
+import org.apache.ignite.internal.processors.metric.MetricRegistry;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_INCREMENTAL_CHECKPOINT;
+import static org.apache.ignite.internal.processors.cache.persistence.DataStorageMetricsImpl.DATASTORAGE_METRIC_PREFIX;
+
+/**
+ * Checks that checkpoint writes small page changes to delta logs and that logged changes survive restart.
+ */
+@WithSystemProperty(key = IGNITE_INCREMENTAL_CHECKPOINT, value = "true")
+public class IncrementalCheckpointTest extends GridCommonAbstractTest {
+    /** Keys count. */
+    private static final int KEYS_CNT = 5_000;
+
+    /** Every key with this step is updated after the initial load. */
+    private static final int UPDATE_STEP = 50;
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setMetricsEnabled(true)
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration()
+                    .setMaxSize(100L * 1024 * 1024)
+                    .setPersistenceEnabled(true)))
+            .setCacheConfiguration(new CacheConfiguration<>(DEFAULT_CACHE_NAME)
+                .setAffinity(new RendezvousAffinityFunction(false, 4)));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        super.afterTest();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testSmallChangesWrittenToDeltaLogs() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT; i++)
+            cache.put(i, i);
+
+        forceCheckpoint();
+
+        for (int i = 0; i < KEYS_CNT; i += UPDATE_STEP)
+            cache.put(i, -i);
+
+        forceCheckpoint();
+
+        MetricRegistry mreg = ignite.context().metric().registry(DATASTORAGE_METRIC_PREFIX);
+
+        long pages = mreg.<LongMetric>findMetric("LastCheckpointTotalPagesNumber").value();
+        long writtenBytes = mreg.<LongMetric>findMetric("LastCheckpointWrittenBytes").value();
+        long changedBytes = mreg.<LongMetric>findMetric("LastCheckpointChangedBytes").value();
+
+        int pageSize = ignite.configuration().getDataStorageConfiguration().getPageSize();
+
+        assertTrue("pages=" + pages + ", written=" + writtenBytes, writtenBytes > 0);
+        assertTrue("pages=" + pages + ", written=" + writtenBytes, writtenBytes < pages * pageSize);
+        assertTrue("changed=" + changedBytes, changedBytes > 0);
+
+        File cacheDir = ((FilePageStoreManager)ignite.context().cache().context().pageStore())
+            .cacheWorkDir(cache.getConfiguration(CacheConfiguration.class));
+
+        assertTrue(deltaLogsSize(cacheDir) > 0);
+
+        stopGrid(0);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT; i++)
+            assertEquals((Integer)(i % UPDATE_STEP == 0 ? -i : i), cache.get(i));
+
+        // Logs are merged to partition files when page stores are initialized.
+        assertEquals(0, deltaLogsSize(cacheDir));
+    }
+
+    /**
+     * @param cacheDir Cache directory.
+     * @return Total size of delta logs in the directory.
+     */
+    private static long deltaLogsSize(File cacheDir) {
+        File[] files = cacheDir.listFiles((dir, name) -> name.endsWith(".delta"));
+
+        assertNotNull(files);
+
+        long size = 0;
+
+        for (File file : files)
+            size += file.length();
+
+        return size;
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.db.wal;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.configuration.WALMode;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.pagemem.wal.WALIterator;
+import org.apache.ignite.internal.pagemem.wal.record.DataEntry;
+import org.apache.ignite.internal.pagemem.wal.record.DataRecord;
+import org.apache.ignite.internal.pagemem.wal.record.WALRecord;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
+import org.apache.ignite.internal.processors.cache.GridCacheOperation;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabaseSharedManager;
+import org.apache.ignite.internal.processors.cache.persistence.wal.WALPointer;
+import org.apache.ignite.internal.processors.cache.persistence.wal.reader.IgniteWalIteratorFactory;
+import org.apache.ignite.internal.processors.cache.persistence.wal.reader.IgniteWalIteratorFactory.IteratorParametersBuilder;
+import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordDataV2Serializer.CompressedDataEntry;
+import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializer;
+import org.apache.ignite.internal.processors.cache.persistence.wal.serializer.RecordSerializerFactoryImpl;
+import org.apache.ignite.internal.processors.cache.version.GridCacheVersion;
+import org.apache.ignite.internal.util.typedef.internal.CU;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.lang.IgniteBiTuple;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_WAL_DATA_RECORD_COMPRESSION;
+import static org.apache.ignite.internal.processors.cache.persistence.wal.serializer.DataRecordCompressor.DICT_KEY_PREFIX;
+import static org.apache.ignite.testframework.GridTestUtils.waitForCondition;
+
+/**
+ * Checks recovery and offline reading of compressed WAL data records.
+ */
+@WithSystemProperty(key = IGNITE_WAL_DATA_RECORD_COMPRESSION, value = "true")
+public class WalDataRecordCompressionTest extends GridCommonAbstractTest {
+    /** Keys count. */
+    private static final int KEYS_CNT = 2_000;
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setWalMode(WALMode.LOG_ONLY)
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration()
+                    .setMaxSize(100L * 1024 * 1024)
+                    .setPersistenceEnabled(true)))
+            .setCacheConfiguration(new CacheConfiguration<>(DEFAULT_CACHE_NAME));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        super.afterTest();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testRecoveryAndOfflineReading() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        GridCacheDatabaseSharedManager dbMgr = (GridCacheDatabaseSharedManager)ignite.context().cache().context()
+            .database();
+
+        // Data records will be replayed on restart.
+        dbMgr.enableCheckpoints(false).get();
+
+        int grpId = CU.cacheId(DEFAULT_CACHE_NAME);
+
+        IgniteCache<Integer, String> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT / 2; i++)
+            cache.put(i, value(i));
+
+        assertTrue(waitForCondition(() -> dictionary(dbMgr, grpId) != null, getTestTimeout()));
+
+        for (int i = KEYS_CNT / 2; i < KEYS_CNT; i++)
+            cache.put(i, value(i));
+
+        String folderName = ignite.context().pdsFolderResolver().resolveFolders().folderName();
+
+        stopGrid(0, true);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT; i++)
+            assertEquals(value(i), cache.get(i));
+
+        stopAllGrids();
+
+        File walDir = new File(U.resolveWorkDirectory(U.defaultWorkDirectory(), "db/wal", false), folderName);
+
+        IteratorParametersBuilder params = new IteratorParametersBuilder()
+            .filesOrDirs(walDir)
+            .filter((type, ptr) -> type == WALRecord.RecordType.DATA_RECORD);
+
+        int entries = 0;
+
+        long recordsLen = 0;
+
+        try (WALIterator it = new IgniteWalIteratorFactory(log).iterator(params)) {
+            while (it.hasNext()) {
+                IgniteBiTuple<WALPointer, WALRecord> rec = it.next();
+
+                recordsLen += rec.get1().length();
+
+                for (DataEntry entry : ((DataRecord)rec.get2()).writeEntries()) {
+                    assertFalse(entry instanceof CompressedDataEntry);
+
+                    if (entry.cacheId() == grpId)
+                        entries++;
+                }
+            }
+        }
+
+        assertEquals(KEYS_CNT, entries);
+
+        // Serialized values alone take more space than compressed records.
+        assertTrue("Data records size: " + recordsLen, recordsLen < (long)KEYS_CNT * value(0).length());
+    }
+
+    /**
+     * Checks that dictionaries of a destroyed cache group are removed from the metastorage.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testDictionaryRemovedOnCacheDestroy() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        GridCacheDatabaseSharedManager dbMgr = (GridCacheDatabaseSharedManager)ignite.context().cache().context()
+            .database();
+
+        int grpId = CU.cacheId(DEFAULT_CACHE_NAME);
+
+        IgniteCache<Integer, String> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS_CNT; i++)
+            cache.put(i, value(i));
+
+        assertTrue(waitForCondition(() -> dictionary(dbMgr, grpId) != null, getTestTimeout()));
+
+        ignite.destroyCache(DEFAULT_CACHE_NAME);
+
+        assertNull(dictionary(dbMgr, grpId));
+
+        stopGrid(0);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        assertNull(ignite.cache(DEFAULT_CACHE_NAME));
+        assertNull(dictionary((GridCacheDatabaseSharedManager)ignite.context().cache().context().database(), grpId));
+    }
+
+    /**
+     * Checks that a record is compressed at most once, also when the compression doesn't reduce its size.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testRecordCompressedOnce() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        GridCacheContext<Object, Object> cctx = ignite.cachex(DEFAULT_CACHE_NAME).context();
+
+        RecordSerializer ser = new RecordSerializerFactoryImpl(cctx.shared()).createSerializer(2);
+
+        byte[] rnd = new byte[4096];
+
+        ThreadLocalRandom.current().nextBytes(rnd);
+
+        DataRecord incompressible = dataRecord(cctx, 1, rnd);
+
+        int size = ser.size(incompressible);
+
+        assertTrue(incompressible.compressionSkipped());
+        assertNull(incompressible.compressedEntries());
+        assertEquals(size, ser.size(incompressible));
+
+        DataRecord compressible = dataRecord(cctx, 2, value(2));
+
+        size = ser.size(compressible);
+
+        byte[] compressed = compressible.compressedEntries();
+
+        assertNotNull(compressed);
+        assertEquals(size, ser.size(compressible));
+        assertSame(compressed, compressible.compressedEntries());
+    }
+
+    /**
+     * @param cctx Cache context.
+     * @param key Key.
+     * @param val Value.
+     * @return Data record of the update of the key.
+     */
+    private static DataRecord dataRecord(GridCacheContext<Object, Object> cctx, int key, Object val) {
+        return new DataRecord(new DataEntry(
+            cctx.cacheId(),
+            cctx.toCacheKeyObject(key),
+            cctx.toCacheObject(val),
+            GridCacheOperation.UPDATE,
+            null,
+            new GridCacheVersion(1, 1, 1),
+            0,
+            cctx.affinity().partition(key),
+            1
+        ));
+    }
+
+    /**
+     * @param dbMgr Database manager.
+     * @param grpId Cache group ID.
+     * @return First dictionary of the group.
+     */
+    private byte[] dictionary(GridCacheDatabaseSharedManager dbMgr, int grpId) {
+        dbMgr.checkpointReadLock();
+
+        try {
+            return dbMgr.metaStorage().readRaw(DICT_KEY_PREFIX + grpId + ".1");
+        }
+        catch (IgniteCheckedException e) {
+            throw new AssertionError(e);
+        }
+        finally {
+            dbMgr.checkpointReadUnlock();
+        }
+    }
+
+    /**
+     * @param key Key.
+     * @return Value of the key.
+     */
+    private static String value(int key) {
+        return String.join(",", Collections.nCopies(16, "value-" + key));
+    }
+}
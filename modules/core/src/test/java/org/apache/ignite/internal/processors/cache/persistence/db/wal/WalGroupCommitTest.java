@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.db.wal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.configuration.WALMode;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.pagemem.wal.IgniteWriteAheadLogManager;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheDatabaseSharedManager;
+import org.apache.ignite.internal.processors.metric.MetricRegistry;
+import org.apache.ignite.spi.metric.DoubleMetric;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.apache.ignite.internal.processors.cache.persistence.DataStorageMetricsImpl.DATASTORAGE_METRIC_PREFIX;
+
+/**
+ * Checks that concurrent committers share WAL fsyncs when group commit is enabled.
+ */
+@RunWith(Parameterized.class)
+@WithSystemProperty(key = IgniteSystemProperties.IGNITE_WAL_GROUP_COMMIT_MAX_BATCH, value = "16")
+public class WalGroupCommitTest extends GridCommonAbstractTest {
+    /** Number of concurrent committers, equal to the maximum group commit batch. */
+    private static final int THREADS = 16;
+
+    /** Number of commit rounds of every committer. */
+    private static final int ROUNDS = 50;
+
+    /** WAL mode. */
+    @Parameterized.Parameter
+    public WALMode walMode;
+
+    /** Memory mapped WAL buffer. */
+    @Parameterized.Parameter(1)
+    public boolean mmap;
+
+    /**
+     * @return Test parameters.
+     */
+    @Parameterized.Parameters(name = "walMode={0}, mmap={1}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> params = new ArrayList<>();
+
+        for (WALMode walMode : new WALMode[] {WALMode.FSYNC, WALMode.LOG_ONLY}) {
+            params.add(new Object[] {walMode, false});
+            params.add(new Object[] {walMode, true});
+        }
+
+        return params;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        System.setProperty(IgniteSystemProperties.IGNITE_WAL_MMAP, Boolean.toString(mmap));
+
+        stopAllGrids();
+        cleanPersistenceDir();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+        cleanPersistenceDir();
+
+        System.clearProperty(IgniteSystemProperties.IGNITE_WAL_MMAP);
+
+        super.afterTest();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setCacheConfiguration(new CacheConfiguration<>(DEFAULT_CACHE_NAME))
+            .setDataStorageConfiguration(
+                new DataStorageConfiguration()
+                    .setWalMode(walMode)
+                    // Long enough for all the committers of a round to join the batch.
+                    .setWalFsyncDelayNanos(TimeUnit.SECONDS.toNanos(1))
+                    .setMetricsEnabled(true)
+                    .setMetricsRateTimeInterval(TimeUnit.MINUTES.toMillis(10))
+                    .setDefaultDataRegionConfiguration(
+                        new DataRegionConfiguration()
+                            .setPersistenceEnabled(true)
+                            .setMaxSize(256L * 1024 * 1024)
+                    )
+            );
+    }
+
+    /**
+     * Every round each committer writes an entry and requests an fsync of its record. All the requests of a round
+     * must be served by a single group commit, which is reflected by the fsync and batch size metrics. Entries must
+     * be recovered from the WAL after a restart.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testConcurrentCommittersShareFsync() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        IgniteWriteAheadLogManager wal = ignite.context().cache().context().wal();
+
+        assertEquals(mmap, (boolean)GridTestUtils.getFieldValue(wal, "mmap"));
+
+        // Checkpoints fsync the WAL on their own, entries must also be restored by the logical recovery.
+        ((GridCacheDatabaseSharedManager)ignite.context().cache().context().database()).enableCheckpoints(false).get();
+
+        MetricRegistry mreg = ignite.context().metric().registry(DATASTORAGE_METRIC_PREFIX);
+
+        LongMetric fsyncs = mreg.findMetric("WalFsyncTimeNum");
+        LongMetric reqs = mreg.findMetric("WalGroupCommitRequestsNum");
+        DoubleMetric avgBatch = mreg.findMetric("WalGroupCommitAverageBatchSize");
+
+        long fsyncsBefore = fsyncs.value();
+        long reqsBefore = reqs.value();
+
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+        AtomicInteger threadIdx = new AtomicInteger();
+
+        GridTestUtils.runMultiThreaded(() -> {
+            int idx = threadIdx.getAndIncrement();
+
+            for (int i = 0; i < ROUNDS; i++) {
+                barrier.await(getTestTimeout(), TimeUnit.MILLISECONDS);
+
+                int key = idx * ROUNDS + i;
+
+                cache.put(key, key);
+
+                wal.flush(null, true);
+            }
+
+            return null;
+        }, THREADS, "committer");
+
+        long fsyncsNum = fsyncs.value() - fsyncsBefore;
+        long reqsNum = reqs.value() - reqsBefore;
+
+        log.info("Group commit [fsyncs=" + fsyncsNum + ", requests=" + reqsNum +
+            ", avgBatch=" + avgBatch.value() + ']');
+
+        assertTrue("Requests: " + reqsNum, reqsNum >= THREADS * ROUNDS);
+        assertTrue("Fsyncs: " + fsyncsNum + ", requests: " + reqsNum, fsyncsNum * 2 <= reqsNum);
+        assertTrue("Average batch: " + avgBatch.value(), avgBatch.value() >= 2);
+
+        stopGrid(0, true);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int key = 0; key < THREADS * ROUNDS; key++)
+            assertEquals((Integer)key, cache.get(key));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.db.wal.crc;
+
+import java.io.EOFException;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
+import org.apache.ignite.internal.processors.cache.persistence.file.RandomAccessFileIOFactory;
+import org.apache.ignite.internal.processors.cache.persistence.wal.crc.FastCrc;
+import org.apache.ignite.internal.processors.cache.persistence.wal.crc.IgniteDataIntegrityViolationException;
+import org.apache.ignite.internal.processors.cache.persistence.wal.io.FileInput;
+import org.apache.ignite.internal.processors.cache.persistence.wal.io.MappedFileInput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link MappedFileInput}.
+ */
+public class MappedFileInputTest {
+    /** Entries count, each entry is three ints and CRC. */
+    private static final int ENTRIES = 64;
+
+    /** File. */
+    private File file;
+
+    /** */
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("mapped", "dat");
+        file.deleteOnExit();
+
+        ByteBuffer buf = ByteBuffer.allocate(ENTRIES * 16).order(ByteOrder.nativeOrder());
+
+        for (int i = 0; i < ENTRIES; i++) {
+            buf.putInt(i);
+            buf.putInt(i * 2);
+            buf.putInt(i * 3);
+            buf.position(i * 16);
+            buf.putInt(FastCrc.calcCrc(buf, 12));
+        }
+
+        buf.rewind();
+
+        try (FileIO io = new RandomAccessFileIOFactory().create(file)) {
+            io.writeFully(buf);
+            io.force();
+        }
+    }
+
+    /** */
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testReadWithCrc() throws Exception {
+        try (FileIO io = new RandomAccessFileIOFactory().create(file)) {
+            io.position(16);
+
+            MappedFileInput in = new MappedFileInput(io, file);
+
+            assertEquals(16, in.position());
+
+            for (int i = 1; i < ENTRIES; i++) {
+                try (FileInput.Crc32CheckingFileInput crcIn = in.startRead(false)) {
+                    assertEquals(i, crcIn.readInt());
+                    assertEquals(i * 2, crcIn.readInt());
+                    assertEquals(i * 3, crcIn.readInt());
+                }
+            }
+
+            try {
+                in.readInt();
+
+                fail();
+            }
+            catch (EOFException ignore) {
+                // Expected.
+            }
+
+            in.seek(32);
+
+            assertEquals(2, in.readInt());
+
+            in.io().close();
+
+            // Repeated close must not release the mapping twice.
+            in.io().close();
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testIntegrityViolation() throws Exception {
+        try (FileIO io = new RandomAccessFileIOFactory().create(file)) {
+            io.position(20);
+            io.writeFully(ByteBuffer.wrap(new byte[] {-1}));
+            io.force();
+            io.position(0);
+
+            MappedFileInput in = new MappedFileInput(io, file);
+
+            try {
+                for (int i = 0; i < ENTRIES; i++) {
+                    try (FileInput.Crc32CheckingFileInput crcIn = in.startRead(false)) {
+                        crcIn.readInt();
+                        crcIn.readInt();
+                        crcIn.readInt();
+                    }
+                }
+
+                fail();
+            }
+            catch (IgniteDataIntegrityViolationException ignore) {
+                // Expected.
+            }
+            finally {
+                in.io().close();
+            }
+        }
+    }
+}
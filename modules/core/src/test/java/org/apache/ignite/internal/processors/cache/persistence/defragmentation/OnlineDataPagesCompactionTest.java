@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.defragmentation;
+
+import java.util.Arrays;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.affinity.rendezvous.RendezvousAffinityFunction;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.metric.MetricRegistry;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.configuration.DataStorageConfiguration.DFLT_DATA_REG_DEFAULT_NAME;
+import static org.apache.ignite.internal.processors.cache.persistence.DataRegionMetricsImpl.DATAREGION_METRICS_PREFIX;
+import static org.apache.ignite.internal.processors.cache.persistence.defragmentation.OnlineDataPagesCompactor.IGNITE_DATA_PAGES_COMPACTION_ENABLED;
+import static org.apache.ignite.internal.processors.cache.persistence.defragmentation.OnlineDataPagesCompactor.IGNITE_DATA_PAGES_COMPACTION_INTERVAL;
+import static org.apache.ignite.internal.processors.cache.persistence.defragmentation.OnlineDataPagesCompactor.IGNITE_DATA_PAGES_COMPACTION_RATE_LIMIT;
+import static org.apache.ignite.internal.processors.metric.impl.MetricUtils.metricName;
+import static org.apache.ignite.testframework.GridTestUtils.waitForCondition;
+
+/**
+ * Checks online compaction of sparse data pages.
+ */
+@WithSystemProperty(key = IGNITE_DATA_PAGES_COMPACTION_ENABLED, value = "true")
+@WithSystemProperty(key = IGNITE_DATA_PAGES_COMPACTION_INTERVAL, value = "100")
+@WithSystemProperty(key = IGNITE_DATA_PAGES_COMPACTION_RATE_LIMIT, value = "0")
+public class OnlineDataPagesCompactionTest extends GridCommonAbstractTest {
+    /** */
+    private static final int KEYS = 20_000;
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration()
+                    .setPersistenceEnabled(true)
+                    .setMetricsEnabled(true)))
+            .setCacheConfiguration(new CacheConfiguration<>(DEFAULT_CACHE_NAME)
+                .setAffinity(new RendezvousAffinityFunction(false, 4)));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        super.afterTest();
+    }
+
+    /**
+     * Checks that rows of sparse pages are moved, emptied pages are reported and data is kept, also after a restart.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        IgniteCache<Integer, byte[]> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < KEYS; i++)
+            cache.put(i, value(i));
+
+        for (int i = 0; i < KEYS; i++) {
+            if (i % 4 != 0)
+                cache.remove(i);
+        }
+
+        MetricRegistry mreg = ignite.context().metric().registry(
+            metricName(DATAREGION_METRICS_PREFIX, DFLT_DATA_REG_DEFAULT_NAME));
+
+        LongMetric reclaimedPages = mreg.findMetric("CompactionReclaimedPages");
+
+        assertTrue(waitForCondition(() -> reclaimedPages.value() > 0, getTestTimeout()));
+
+        assertTrue(mreg.<LongMetric>findMetric("CompactionMovedRows").value() > 0);
+        assertTrue(mreg.<LongMetric>findMetric("CompactionMovedSize").value() > 0);
+        assertTrue(mreg.<LongMetric>findMetric("CompactionReclaimedSize").value() > 0);
+
+        // Updates concurrent with the compaction.
+        for (int i = 0; i < KEYS; i += 8)
+            cache.put(i, value(i + 1));
+
+        checkData(cache);
+
+        forceCheckpoint();
+
+        stopGrid(0);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        checkData(ignite.cache(DEFAULT_CACHE_NAME));
+    }
+
+    /**
+     * @param cache Cache.
+     */
+    private void checkData(IgniteCache<Integer, byte[]> cache) {
+        assertEquals(KEYS / 4, cache.size());
+
+        for (int i = 0; i < KEYS; i++) {
+            byte[] val = cache.get(i);
+
+            if (i % 4 != 0)
+                assertNull(val);
+            else
+                assertTrue(String.valueOf(i), Arrays.equals(value(i % 8 == 0 ? i + 1 : i), val));
+        }
+    }
+
+    /**
+     * @param i Key.
+     * @return Value.
+     */
+    private static byte[] value(int i) {
+        byte[] val = new byte[300];
+
+        Arrays.fill(val, (byte)i);
+
+        return val;
+    }
+}
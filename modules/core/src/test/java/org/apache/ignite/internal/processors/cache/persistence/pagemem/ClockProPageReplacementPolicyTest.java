@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.internal.processors.cache.persistence.pagemem;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.INVALID_REL_PTR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests of {@link ClockProPageReplacementPolicy}.
+ */
+public class ClockProPageReplacementPolicyTest {
+    /** Per test timeout */
+    @Rule
+    public Timeout globalTimeout = new Timeout((int)GridTestUtils.DFLT_TEST_TIMEOUT);
+
+    /** Segment index. */
+    private static final int SEG_IDX = 3;
+
+    /**
+     * @param tester Policy test code.
+     * @param pages Number of page slots.
+     */
+    private void withPolicy(Consumer<ClockProPageReplacementPolicy> tester, int pages) {
+        long addr = GridUnsafe.allocateMemory(ClockProPageReplacementPolicy.requiredMemory(pages));
+
+        try {
+            tester.accept(new ClockProPageReplacementPolicy(SEG_IDX, pages, addr));
+        }
+        finally {
+            GridUnsafe.freeMemory(addr);
+        }
+    }
+
+    /**
+     * @param idx Page slot index.
+     * @return Relative pointer.
+     */
+    private static long relPtr(int idx) {
+        return (long)idx | ((long)SEG_IDX << 40);
+    }
+
+    /** */
+    @Test
+    public void testNoCandidatesWhenEmpty() {
+        withPolicy(plc -> assertEquals(INVALID_REL_PTR, plc.nextCandidate()), 16);
+    }
+
+    /** */
+    @Test
+    public void testUnreferencedColdPageIsCandidate() {
+        withPolicy(plc -> {
+            plc.onMiss(relPtr(5));
+
+            assertEquals(relPtr(5), plc.nextCandidate());
+
+            plc.onRemove(relPtr(5));
+
+            assertEquals(INVALID_REL_PTR, plc.nextCandidate());
+        }, 16);
+    }
+
+    /** */
+    @Test
+    public void testPromotionAndRemovalOfHotPage() {
+        withPolicy(plc -> {
+            for (int i = 0; i < 16; i++)
+                plc.onMiss(relPtr(i));
+
+            // Page accessed during its test period is promoted to hot and is not a candidate.
+            plc.onHit(relPtr(0));
+
+            long candidate = plc.nextCandidate();
+
+            assertEquals(1, plc.hotPages());
+            assertNotEquals(relPtr(0), candidate);
+
+            plc.onRemove(relPtr(0));
+
+            assertEquals(0, plc.hotPages());
+
+            // Reloading the slot resets the page to cold.
+            plc.onMiss(relPtr(0));
+
+            assertEquals(0, plc.hotPages());
+        }, 16);
+    }
+
+    /**
+     * Checks that a frequently accessed working set survives a scan over a data set which is larger than memory.
+     */
+    @Test
+    public void testScanResistance() {
+        int pages = 100;
+        int hotKeys = 80;
+
+        withPolicy(plc -> {
+            Map<Integer, Integer> keyToSlot = new HashMap<>();
+            int[] slotToKey = new int[pages];
+            int used = 0;
+
+            Random rnd = new Random(0);
+
+            int scanKey = hotKeys;
+
+            long hotHits = 0;
+            long hotAccesses = 0;
+
+            for (int i = 0; i < 200_000; i++) {
+                boolean hot = rnd.nextInt(3) != 0;
+
+                int key = hot ? rnd.nextInt(hotKeys) : scanKey++;
+
+                boolean measure = hot && i > 20_000;
+
+                if (measure)
+                    hotAccesses++;
+
+                Integer slot = keyToSlot.get(key);
+
+                if (slot != null) {
+                    plc.onHit(relPtr(slot));
+
+                    if (measure)
+                        hotHits++;
+
+                    continue;
+                }
+
+                if (used < pages)
+                    slot = used++;
+                else {
+                    long candidate = plc.nextCandidate();
+
+                    assertNotEquals(INVALID_REL_PTR, candidate);
+
+                    slot = (int)(candidate & ~PagePool.SEGMENT_INDEX_MASK);
+
+                    keyToSlot.remove(slotToKey[slot]);
+
+                    plc.onRemove(candidate);
+                }
+
+                slotToKey[slot] = key;
+                keyToSlot.put(key, slot);
+
+                plc.onMiss(relPtr(slot));
+            }
+
+            double hitRatio = (double)hotHits / hotAccesses;
+
+            assertTrue("Hot set hit ratio is too low: " + hitRatio, hitRatio > 0.9);
+            assertTrue(plc.hotPages() <= pages - plc.coldTarget());
+        }, pages);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.pagemem;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ignite.internal.pagemem.FullPageId;
+import org.apache.ignite.internal.pagemem.PageIdAllocator;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link FullPageIdSet}.
+ */
+public class FullPageIdSetTest {
+    /** Per test timeout */
+    @Rule
+    public Timeout globalTimeout = new Timeout((int)GridTestUtils.DFLT_TEST_TIMEOUT);
+
+    /** */
+    private static final int CACHE_ID_RANGE = 16;
+
+    /** */
+    private static final int PAGE_ID_RANGE = 3000;
+
+    /**
+     * Checks that pages are compared by effective page IDs.
+     */
+    @Test
+    public void testEffectivePageIdEquality() {
+        FullPageIdSet set = new FullPageIdSet();
+
+        long pageId = PageIdUtils.pageId(1, PageIdAllocator.FLAG_DATA, 10);
+        long rotated = PageIdUtils.rotatePageId(pageId);
+
+        assertTrue(set.add(1, pageId));
+        assertFalse(set.add(1, rotated));
+        assertTrue(set.add(2, rotated));
+
+        assertTrue(set.contains(1, rotated));
+        assertTrue(set.contains(new FullPageId(rotated, 2)));
+        assertFalse(set.contains(3, pageId));
+
+        assertEquals(2, set.size());
+
+        assertTrue(set.remove(1, rotated));
+        assertFalse(set.contains(1, pageId));
+        assertTrue(set.contains(2, pageId));
+
+        assertEquals(1, set.size());
+    }
+
+    /**
+     * Checks random additions and removals against {@link HashSet}.
+     */
+    @Test
+    public void testRandomOperations() {
+        long seed = U.currentTimeMillis();
+
+        Random rnd = new Random(seed);
+
+        FullPageIdSet set = new FullPageIdSet(4);
+
+        Set<FullPageId> check = new HashSet<>();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            int grpId = rnd.nextInt(CACHE_ID_RANGE) + 1;
+            long pageId = PageIdUtils.pageId(rnd.nextInt(4), PageIdAllocator.FLAG_DATA, rnd.nextInt(PAGE_ID_RANGE));
+
+            FullPageId fullId = new FullPageId(pageId, grpId);
+
+            if (rnd.nextInt(3) == 0)
+                assertEquals("Seed: " + seed, check.remove(fullId), set.remove(grpId, pageId));
+            else
+                assertEquals("Seed: " + seed, check.add(fullId), set.add(grpId, pageId));
+
+            assertEquals("Seed: " + seed, check.contains(fullId), set.contains(grpId, pageId));
+            assertEquals("Seed: " + seed, check.size(), set.size());
+        }
+
+        assertEquals("Seed: " + seed, check, new HashSet<>(set));
+    }
+
+    /**
+     * Checks copying of pages to primitive arrays.
+     */
+    @Test
+    public void testCopyTo() {
+        FullPageIdSet set = new FullPageIdSet();
+
+        Set<FullPageId> check = new HashSet<>();
+
+        for (int grpId = 1; grpId <= CACHE_ID_RANGE; grpId++) {
+            for (int idx = 0; idx < PAGE_ID_RANGE; idx++) {
+                long pageId = PageIdUtils.pageId(0, PageIdAllocator.FLAG_DATA, idx);
+
+                set.add(grpId, pageId);
+                check.add(new FullPageId(pageId, grpId));
+            }
+        }
+
+        int[] grpIds = new int[set.size() + 1];
+        long[] pageIds = new long[set.size() + 1];
+
+        assertEquals(set.size() + 1, set.copyTo(grpIds, pageIds, 1));
+
+        Set<FullPageId> copied = new HashSet<>();
+
+        for (int i = 1; i < grpIds.length; i++)
+            assertTrue(copied.add(new FullPageId(pageIds[i], grpIds[i])));
+
+        assertEquals(check, copied);
+
+        // Destination arrays are not overflowed.
+        assertEquals(10, set.copyTo(new int[10], new long[10], 0));
+    }
+
+    /**
+     * Checks concurrent additions and removals.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testConcurrentOperations() throws Exception {
+        FullPageIdSet set = new FullPageIdSet();
+
+        AtomicInteger threadIdx = new AtomicInteger();
+
+        GridTestUtils.runMultiThreaded(() -> {
+            int grpId = threadIdx.incrementAndGet();
+
+            for (int idx = 0; idx < PAGE_ID_RANGE * 10; idx++)
+                assertTrue(set.add(grpId, PageIdUtils.pageId(0, PageIdAllocator.FLAG_DATA, idx)));
+
+            // Remove odd pages.
+            for (int idx = 1; idx < PAGE_ID_RANGE * 10; idx += 2)
+                assertTrue(set.remove(grpId, PageIdUtils.pageId(0, PageIdAllocator.FLAG_DATA, idx)));
+        }, CACHE_ID_RANGE, "full-page-id-set");
+
+        assertEquals(CACHE_ID_RANGE * PAGE_ID_RANGE * 5, set.size());
+
+        for (int grpId = 1; grpId <= CACHE_ID_RANGE; grpId++) {
+            for (int idx = 0; idx < PAGE_ID_RANGE * 10; idx++)
+                assertEquals(idx % 2 == 0, set.contains(grpId, PageIdUtils.pageId(0, PageIdAllocator.FLAG_DATA, idx)));
+        }
+    }
+}
@@ -251,6 +251,60 @@ public class IgniteThrottlingUnitTest {
         assertTrue(time == 0);
     }
 
+    /** */
+    @Test
+    public void adaptiveNoThrottleBelowTarget() {
+        PagesWriteAdaptiveThrottle throttle = new PagesWriteAdaptiveThrottle(pageMemory2g, null, stateChecker, log);
+
+        assertEquals(0, throttle.update(0.1, 1000, 1000, 10000, 1, 0.01));
+        assertTrue(throttle.getError() < 0);
+        assertEquals(0, throttle.getOutput(), 0);
+    }
+
+    /** */
+    @Test
+    public void adaptiveThrottleAboveTarget() {
+        PagesWriteAdaptiveThrottle throttle = new PagesWriteAdaptiveThrottle(pageMemory2g, null, stateChecker, log);
+
+        // Dirty pages ratio is below the target, but pages marked dirty till the end of the checkpoint exceed it.
+        long time = throttle.update(0.3, 300000, 20000, 20000, 1, 0.01);
+
+        assertTrue(time > 0);
+        assertTrue(throttle.getProjectedDirtyRatio() > throttle.getTargetDirtyRatio());
+
+        // More threads mark pages dirty, so each of them has to wait longer to keep the same speed.
+        assertTrue(throttle.update(0.3, 300000, 20000, 20000, 4, 0.01) > time);
+    }
+
+    /** */
+    @Test
+    public void adaptiveThrottleGrowsWhileErrorPersists() {
+        PagesWriteAdaptiveThrottle throttle = new PagesWriteAdaptiveThrottle(pageMemory2g, null, stateChecker, log);
+
+        long time1 = throttle.update(0.55, 1000, 20000, 20000, 1, 0.1);
+        long time2 = throttle.update(0.55, 1000, 20000, 20000, 1, 0.1);
+        long time3 = throttle.update(0.55, 1000, 20000, 20000, 1, 0.1);
+
+        assertTrue(time1 > 0);
+        assertTrue(time2 > time1);
+        assertTrue(time3 > time2);
+        assertTrue(throttle.getIntegral() > 0);
+
+        // Error becomes negative, integral drains.
+        long time4 = throttle.update(0.1, 1000, 20000, 20000, 1, 0.1);
+
+        assertTrue(time4 < time3);
+    }
+
+    /** */
+    @Test
+    public void adaptiveNoThrottleWithoutMeasurementsOrTooMuchDirty() {
+        PagesWriteAdaptiveThrottle throttle = new PagesWriteAdaptiveThrottle(pageMemory2g, null, stateChecker, log);
+
+        assertEquals(0, throttle.update(0.6, 300000, 20000, 0, 1, 0.01));
+        assertEquals(0, throttle.update(0.75, 300000, 20000, 20000, 1, 0.01));
+    }
+
     /** */
     @Test
     public void wakeupThrottledThread() throws IgniteInterruptedCheckedException {
@@ -33,6 +33,7 @@ import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.failure.NoOpFailureHandler;
 import org.apache.ignite.internal.IgniteFutureTimeoutCheckedException;
+import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.managers.encryption.GridEncryptionManager;
 import org.apache.ignite.internal.managers.eventstorage.GridEventStorageManager;
 import org.apache.ignite.internal.managers.systemview.GridSystemViewManager;
@@ -59,6 +60,7 @@ import org.apache.ignite.internal.processors.metric.impl.LongAdderMetric;
 import org.apache.ignite.internal.processors.plugin.IgnitePluginProcessor;
 import org.apache.ignite.internal.processors.subscription.GridInternalSubscriptionProcessor;
 import org.apache.ignite.internal.util.GridMultiCollectionWrapper;
+import org.apache.ignite.internal.util.GridUnsafe;
 import org.apache.ignite.internal.util.future.GridFinishedFuture;
 import org.apache.ignite.internal.util.lang.GridInClosure3X;
 import org.apache.ignite.internal.util.typedef.internal.U;
@@ -70,12 +72,14 @@ import org.apache.ignite.spi.eventstorage.NoopEventStorageSpi;
 import org.apache.ignite.spi.metric.noop.NoopMetricExporterSpi;
 import org.apache.ignite.testframework.GridTestUtils;
 import org.apache.ignite.testframework.junits.GridTestKernalContext;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
 import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
 import org.apache.ignite.testframework.junits.logger.GridTestLog4jLogger;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import static org.apache.ignite.IgniteSystemProperties.IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.FLAG_IDX;
 import static org.apache.ignite.internal.pagemem.PageIdAllocator.INDEX_PARTITION;
 import static org.apache.ignite.internal.processors.cache.persistence.pagemem.PageMemoryImpl.CHECKPOINT_POOL_OVERFLOW_ERROR_MSG;
@@ -413,6 +417,146 @@ public class PageMemoryImplTest extends GridCommonAbstractTest {
             }, null);
     }
 
+    /**
+     * Checks that an unvalidated pin of an optimistic lookup prevents eviction, but is not taken for a regular pin.
+     */
+    @Test
+    public void testOptimisticPin() {
+        long absPtr = GridUnsafe.allocateMemory(PageMemoryImpl.PAGE_OVERHEAD);
+
+        try {
+            GridUnsafe.setMemory(absPtr, PageMemoryImpl.PAGE_OVERHEAD, (byte)0);
+
+            PageHeader.acquireOptimisticPin(absPtr);
+
+            assertTrue(PageHeader.isAcquired(absPtr));
+            assertFalse(PageHeader.isAcquiredRegular(absPtr));
+
+            PageHeader.releaseOptimisticPin(absPtr);
+
+            assertFalse(PageHeader.isAcquired(absPtr));
+
+            PageHeader.acquireOptimisticPin(absPtr);
+            PageHeader.confirmOptimisticPin(absPtr);
+
+            assertTrue(PageHeader.isAcquiredRegular(absPtr));
+
+            PageHeader.releasePage(absPtr);
+
+            assertFalse(PageHeader.isAcquired(absPtr));
+        }
+        finally {
+            GridUnsafe.freeMemory(absPtr);
+        }
+    }
+
+    /**
+     * Checks the content of the pages, which are acquired concurrently with the replacement and the reload of the
+     * pages in the same slots.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testConcurrentAcquireAndReplacement() throws Exception {
+        checkConcurrentAcquireAndReplacement();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_OPTIMISTIC_LOADED_PAGES_LOOKUP, value = "false")
+    public void testConcurrentAcquireAndReplacementLocked() throws Exception {
+        checkConcurrentAcquireAndReplacement();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    private void checkConcurrentAcquireAndReplacement() throws Exception {
+        TestPageStoreManager pageStoreMgr = new TestPageStoreManager();
+
+        // Create a 1 mb page memory, which fits about a third of the pages.
+        PageMemoryImpl memory = createPageMemory(
+            1,
+            PageMemoryImpl.ThrottlingPolicy.DISABLED,
+            pageStoreMgr,
+            pageStoreMgr,
+            null);
+
+        int pageCnt = 3000;
+
+        List<FullPageId> pages = new ArrayList<>(pageCnt);
+
+        while (pages.size() < pageCnt) {
+            for (int i = 0; i < 100; i++) {
+                FullPageId fullId = new FullPageId(memory.allocatePage(1, INDEX_PARTITION, FLAG_IDX), 1);
+
+                writePage(memory, fullId, pageValue(pages.size()));
+
+                pages.add(fullId);
+            }
+
+            // Clean pages can be replaced.
+            doCheckpoint(memory.beginCheckpoint(new GridFinishedFuture()), memory, pageStoreMgr);
+        }
+
+        assertTrue(memory.loadedPages() < pageCnt);
+
+        AtomicBoolean stop = new AtomicBoolean();
+
+        IgniteInternalFuture<Long> fut = GridTestUtils.runMultiThreadedAsync(() -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+            while (!stop.get()) {
+                int idx = rnd.nextInt(pageCnt);
+
+                long pageId = pages.get(idx).pageId();
+
+                long page = memory.acquirePage(1, pageId);
+
+                try {
+                    long pageAddr = memory.readLock(1, pageId, page);
+
+                    assertTrue(pageAddr != 0L);
+
+                    try {
+                        assertEquals(pageId, PageIO.getPageId(pageAddr));
+                        assertEquals(pageValue(idx), PageUtils.getByte(pageAddr, PageIO.COMMON_HEADER_END));
+                        assertEquals(pageValue(idx), PageUtils.getByte(pageAddr, memory.pageSize() - 1));
+                    }
+                    finally {
+                        memory.readUnlock(1, pageId, page);
+                    }
+                }
+                finally {
+                    memory.releasePage(1, pageId, page);
+                }
+            }
+
+            return null;
+        }, 8, "acquire-page");
+
+        try {
+            doSleep(3_000);
+        }
+        finally {
+            stop.set(true);
+        }
+
+        fut.get(getTestTimeout());
+
+        assertEquals(0, memory.acquiredPages());
+    }
+
+    /**
+     * @param idx Index of the page.
+     * @return Value the page is filled with.
+     */
+    private static byte pageValue(int idx) {
+        return (byte)(idx % 127 + 1);
+    }
+
     /**
      * @param mem Page memory.
      * @param fullPageId Full page ID to write.
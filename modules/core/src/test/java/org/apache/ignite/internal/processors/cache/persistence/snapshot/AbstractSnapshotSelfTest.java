@@ -538,6 +538,16 @@ public abstract class AbstractSnapshotSelfTest extends GridCommonAbstractTest {
             delegate.sendDelta(delta, cacheDirName, pair);
         }
 
+        /** {@inheritDoc} */
+        @Override public void sendIncrementalPart0(File incPart, String cacheDirName, GroupPartitionId pair) {
+            delegate.sendIncrementalPart(incPart, cacheDirName, pair);
+        }
+
+        /** {@inheritDoc} */
+        @Override public void sendIncrementalMeta0(IncrementalSnapshotMetadata meta) {
+            delegate.sendIncrementalMeta(meta);
+        }
+
         /** {@inheritDoc} */
         @Override public void close0(Throwable th) {
             delegate.close(th);
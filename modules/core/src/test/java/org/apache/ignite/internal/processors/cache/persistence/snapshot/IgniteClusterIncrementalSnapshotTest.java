@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.snapshot;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.metric.MetricRegistry;
+import org.apache.ignite.internal.util.typedef.G;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheDirName;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheWorkDir;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.IGNITE_SNAPSHOT_PAGES_TRACKING;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.SNAPSHOT_METRICS;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.databaseRelativePath;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.partIncrementFile;
+import static org.apache.ignite.testframework.GridTestUtils.assertThrowsAnyCause;
+
+/**
+ * Cluster-wide incremental snapshot test.
+ */
+@WithSystemProperty(key = IGNITE_SNAPSHOT_PAGES_TRACKING, value = "true")
+public class IgniteClusterIncrementalSnapshotTest extends AbstractSnapshotSelfTest {
+    /** Name of the snapshot the chain is restored to. */
+    private static final String RESTORED_SNAPSHOT_NAME = "restored";
+
+    /**
+     * Checks that incremental snapshots copy only changed pages and the chain of snapshots is restored
+     * to the latest state.
+     *
+     * @throws Exception If fails.
+     */
+    @Test
+    public void testIncrementalSnapshotChain() throws Exception {
+        int grids = 2;
+
+        IgniteEx ignite = startGridsWithCache(grids, dfltCacheCfg, CACHE_KEYS_RANGE * 8);
+
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < CACHE_KEYS_RANGE * 8; i++)
+            expected.put(i, i);
+
+        snp(ignite).createSnapshot("full").get();
+
+        checkCopiedSize(false);
+
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < CACHE_KEYS_RANGE; i += 16)
+            expected.put(i, -i);
+
+        for (int i = CACHE_KEYS_RANGE * 8; i < CACHE_KEYS_RANGE * 8 + 64; i++)
+            expected.put(i, i);
+
+        cache.putAll(expected);
+
+        snp(ignite).createIncrementalSnapshot("inc1").get();
+
+        checkCopiedSize(true);
+
+        for (int i = 0; i < CACHE_KEYS_RANGE; i += 32) {
+            expected.remove(i);
+
+            cache.remove(i);
+        }
+
+        snp(ignite).createIncrementalSnapshot("inc2").get();
+
+        checkCopiedSize(true);
+
+        for (Ignite ig : G.allGrids()) {
+            IgniteSnapshotManager mgr = snp((IgniteEx)ig);
+
+            mgr.restoreLocalSnapshot("inc2", mgr.snapshotLocalDir(RESTORED_SNAPSHOT_NAME));
+        }
+
+        stopAllGrids();
+
+        IgniteEx snpIg0 = startGridsFromSnapshot(grids, RESTORED_SNAPSHOT_NAME);
+
+        IgniteCache<Integer, Integer> restored = snpIg0.cache(DEFAULT_CACHE_NAME);
+
+        assertEquals(expected.size(), restored.size());
+
+        for (Map.Entry<Integer, Integer> e : expected.entrySet())
+            assertEquals(e.getValue(), restored.get(e.getKey()));
+    }
+
+    /**
+     * @throws Exception If fails.
+     */
+    @Test
+    public void testIncrementalSnapshotWithoutBase() throws Exception {
+        IgniteEx ignite = startGridsWithCache(2, dfltCacheCfg, CACHE_KEYS_RANGE);
+
+        // There is no previous snapshot, so partition files are copied completely.
+        snp(ignite).createIncrementalSnapshot(SNAPSHOT_NAME).get();
+
+        checkCopiedSize(false);
+
+        stopAllGrids();
+
+        IgniteEx snpIg0 = startGridsFromSnapshot(2, SNAPSHOT_NAME);
+
+        assertSnapshotCacheKeys(snpIg0.cache(dfltCacheCfg.getName()));
+    }
+
+    /**
+     * @throws Exception If fails.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_SNAPSHOT_PAGES_TRACKING, value = "false")
+    public void testIncrementalSnapshotRejectedWithoutTracking() throws Exception {
+        IgniteEx ignite = startGridsWithCache(1, dfltCacheCfg, CACHE_KEYS_RANGE);
+
+        assertThrowsAnyCause(log,
+            () -> snp(ignite).createIncrementalSnapshot(SNAPSHOT_NAME).get(),
+            IgniteException.class,
+            "Changed pages are not tracked");
+    }
+
+    /**
+     * Checks that a file with changed pages of a size which is not a multiple of the page size fails the restore.
+     *
+     * @throws Exception If fails.
+     */
+    @Test
+    public void testRestoreTruncatedIncrement() throws Exception {
+        IgniteEx ignite = startGridsWithCache(1, dfltCacheCfg, CACHE_KEYS_RANGE);
+
+        IgniteSnapshotManager mgr = snp(ignite);
+
+        mgr.createSnapshot("full").get();
+
+        IgniteCache<Integer, Integer> cache = ignite.cache(DEFAULT_CACHE_NAME);
+
+        for (int i = 0; i < CACHE_KEYS_RANGE; i++)
+            cache.put(i, -i);
+
+        mgr.createIncrementalSnapshot("inc").get();
+
+        File cacheDir = cacheWorkDir(new File(mgr.snapshotLocalDir("inc"), databaseRelativePath(folderName(ignite))),
+            cacheDirName(dfltCacheCfg));
+
+        File incPart = null;
+
+        for (int p = 0; incPart == null && p < dfltCacheCfg.getAffinity().partitions(); p++) {
+            File f = partIncrementFile(cacheDir, p);
+
+            if (f.exists() && f.length() > 0)
+                incPart = f;
+        }
+
+        assertNotNull(incPart);
+
+        try (RandomAccessFile raf = new RandomAccessFile(incPart, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        assertThrowsAnyCause(log, () -> {
+            mgr.restoreLocalSnapshot("inc", mgr.snapshotLocalDir(RESTORED_SNAPSHOT_NAME));
+
+            return null;
+        }, IgniteCheckedException.class, "File with changed pages has incorrect size");
+    }
+
+    /**
+     * @param inc {@code true} if the last snapshot is expected to copy only changed pages.
+     */
+    private static void checkCopiedSize(boolean inc) {
+        for (Ignite ig : G.allGrids()) {
+            MetricRegistry mreg = ((IgniteEx)ig).context().metric().registry(SNAPSHOT_METRICS);
+
+            long copied = mreg.<LongMetric>findMetric("LastSnapshotCopiedSize").value();
+            long total = mreg.<LongMetric>findMetric("LastSnapshotTotalSize").value();
+
+            assertTrue(total > 0);
+
+            if (inc)
+                assertTrue("copied=" + copied + ", total=" + total, copied < total);
+            else
+                assertEquals(total, copied);
+        }
+    }
+}
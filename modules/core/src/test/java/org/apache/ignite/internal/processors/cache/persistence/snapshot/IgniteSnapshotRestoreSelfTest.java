@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.persistence.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.OpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIO;
+import org.apache.ignite.internal.processors.cache.persistence.file.FileIOFactory;
+import org.apache.ignite.internal.processors.cache.persistence.file.RandomAccessFileIOFactory;
+import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.spi.systemview.view.SnapshotRestoreView;
+import org.apache.ignite.spi.systemview.view.SystemView;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.PART_FILE_PREFIX;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheDirName;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.cacheWorkDir;
+import static org.apache.ignite.internal.processors.cache.persistence.file.FilePageStoreManager.getPartitionFileName;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.SNAPSHOT_RESTORE_VIEW;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.IgniteSnapshotManager.databaseRelativePath;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.SnapshotRestoreTask.IGNITE_SNAPSHOT_RESTORE_RATE_LIMIT;
+import static org.apache.ignite.internal.processors.cache.persistence.snapshot.SnapshotRestoreTask.IGNITE_SNAPSHOT_RESTORE_THREADS;
+import static org.apache.ignite.testframework.GridTestUtils.assertThrowsAnyCause;
+import static org.apache.ignite.testframework.GridTestUtils.waitForCondition;
+
+/**
+ * Snapshot restore to a local directory test.
+ */
+@WithSystemProperty(key = IGNITE_SNAPSHOT_RESTORE_THREADS, value = "2")
+@WithSystemProperty(key = IGNITE_SNAPSHOT_RESTORE_RATE_LIMIT, value = "64")
+public class IgniteSnapshotRestoreSelfTest extends AbstractSnapshotSelfTest {
+    /** Name of the directory the snapshot is restored to. */
+    private static final String RESTORED_SNAPSHOT_NAME = "restored";
+
+    /**
+     * @throws Exception If fails.
+     */
+    @Test
+    public void testRestoreProgress() throws Exception {
+        IgniteEx ignite = startGridsWithCache(2, dfltCacheCfg, CACHE_KEYS_RANGE);
+
+        snp(ignite).createSnapshot(SNAPSHOT_NAME).get();
+
+        IgniteSnapshotManager mgr = snp(ignite);
+
+        CountDownLatch unblock = new CountDownLatch(1);
+
+        AtomicBoolean blocked = new AtomicBoolean();
+
+        FileIOFactory ioFactory = new RandomAccessFileIOFactory();
+
+        // The copy of the first partition is blocked, so the restore is observed in progress.
+        mgr.ioFactory(new FileIOFactory() {
+            @Override public FileIO create(File file, OpenOption... modes) throws IOException {
+                if (file.getName().startsWith(PART_FILE_PREFIX) && F.asList(modes).contains(CREATE) &&
+                    blocked.compareAndSet(false, true)) {
+                    try {
+                        unblock.await(getTestTimeout(), TimeUnit.MILLISECONDS);
+                    }
+                    catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+
+                return ioFactory.create(file, modes);
+            }
+        });
+
+        IgniteInternalFuture<?> fut = GridTestUtils.runAsync(() -> {
+            mgr.restoreLocalSnapshot(SNAPSHOT_NAME, mgr.snapshotLocalDir(RESTORED_SNAPSHOT_NAME));
+
+            return null;
+        });
+
+        assertTrue(waitForCondition(blocked::get, getTestTimeout()));
+
+        SnapshotRestoreView row = restoreView(ignite);
+
+        assertEquals(SNAPSHOT_NAME, row.snapshotName());
+        assertEquals(mgr.snapshotLocalDir(RESTORED_SNAPSHOT_NAME).getAbsolutePath(), row.destination());
+        assertTrue(row.totalPartitions() > 0);
+        assertTrue(row.processedPartitions() < row.totalPartitions());
+        assertTrue(row.totalSize() > 0);
+        assertTrue(row.processedSize() < row.totalSize());
+        assertNull(row.error());
+
+        unblock.countDown();
+
+        fut.get(getTestTimeout());
+
+        // Finished restores are not kept.
+        assertEquals(0, restoreViewSize(ignite));
+
+        IgniteEx ignite1 = grid(1);
+
+        snp(ignite1).restoreLocalSnapshot(SNAPSHOT_NAME, snp(ignite1).snapshotLocalDir(RESTORED_SNAPSHOT_NAME));
+
+        assertEquals(0, restoreViewSize(ignite1));
+
+        stopAllGrids();
+
+        IgniteEx snpIg0 = startGridsFromSnapshot(2, RESTORED_SNAPSHOT_NAME);
+
+        assertSnapshotCacheKeys(snpIg0.cache(dfltCacheCfg.getName()));
+    }
+
+    /**
+     * @throws Exception If fails.
+     */
+    @Test
+    public void testRestoreCorruptedPartition() throws Exception {
+        IgniteEx ignite = startGridsWithCache(1, dfltCacheCfg, CACHE_KEYS_RANGE);
+
+        IgniteSnapshotManager mgr = snp(ignite);
+
+        mgr.createSnapshot(SNAPSHOT_NAME).get();
+
+        File snpDbDir = new File(mgr.snapshotLocalDir(SNAPSHOT_NAME), databaseRelativePath(folderName(ignite)));
+        File part = new File(cacheWorkDir(snpDbDir, cacheDirName(dfltCacheCfg)), getPartitionFileName(0));
+
+        int pageSize = ignite.configuration().getDataStorageConfiguration().getPageSize();
+
+        // Flip a byte in the middle of the partition meta page which follows the file header.
+        try (RandomAccessFile raf = new RandomAccessFile(part, "rw")) {
+            long pos = pageSize + pageSize / 2;
+
+            raf.seek(pos);
+
+            int b = raf.read();
+
+            raf.seek(pos);
+            raf.write(~b);
+        }
+
+        assertThrowsAnyCause(log, () -> {
+            mgr.restoreLocalSnapshot(SNAPSHOT_NAME, mgr.snapshotLocalDir(RESTORED_SNAPSHOT_NAME));
+
+            return null;
+        }, IgniteCheckedException.class, "CRC validation failed");
+
+        assertEquals(0, restoreViewSize(ignite));
+    }
+
+    /**
+     * @param ignite Ignite instance.
+     * @return The only row of the snapshot restore view.
+     */
+    private static SnapshotRestoreView restoreView(IgniteEx ignite) {
+        SystemView<SnapshotRestoreView> view = ignite.context().systemView().view(SNAPSHOT_RESTORE_VIEW);
+
+        assertEquals(1, view.size());
+
+        return view.iterator().next();
+    }
+
+    /**
+     * @param ignite Ignite instance.
+     * @return Number of restores in progress.
+     */
+    private static int restoreViewSize(IgniteEx ignite) {
+        return ignite.context().systemView().<SnapshotRestoreView>view(SNAPSHOT_RESTORE_VIEW).size();
+    }
+}
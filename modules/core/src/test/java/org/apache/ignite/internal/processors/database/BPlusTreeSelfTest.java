@@ -927,6 +927,172 @@ public class BPlusTreeSelfTest extends GridCommonAbstractTest {
         doTestRandomPutRemove(true);
     }
 
+    /**
+     * @throws IgniteCheckedException If failed.
+     */
+    @Test
+    public void testPutAllSorted_1_0() throws IgniteCheckedException {
+        MAX_PER_PAGE = 1;
+        CNT = 100;
+
+        doTestPutAllSorted(false);
+    }
+
+    /**
+     * @throws IgniteCheckedException If failed.
+     */
+    @Test
+    public void testPutAllSorted_1_1() throws IgniteCheckedException {
+        MAX_PER_PAGE = 1;
+        CNT = 100;
+
+        doTestPutAllSorted(true);
+    }
+
+    /**
+     * @throws IgniteCheckedException If failed.
+     */
+    @Test
+    public void testPutAllSorted_3_0() throws IgniteCheckedException {
+        MAX_PER_PAGE = 3;
+        CNT = 300;
+
+        doTestPutAllSorted(false);
+    }
+
+    /**
+     * @throws IgniteCheckedException If failed.
+     */
+    @Test
+    public void testPutAllSorted_3_1() throws IgniteCheckedException {
+        MAX_PER_PAGE = 3;
+        CNT = 300;
+
+        doTestPutAllSorted(true);
+    }
+
+    /**
+     * @throws IgniteCheckedException If failed.
+     */
+    @Test
+    public void testPutAllSorted_0_1() throws IgniteCheckedException {
+        CNT = 10_000;
+
+        doTestPutAllSorted(true);
+    }
+
+    /**
+     * Puts random sorted batches to a tree with random removes between them.
+     *
+     * @param canGetRow Can get row from inner page.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void doTestPutAllSorted(boolean canGetRow) throws IgniteCheckedException {
+        TestTree tree = createTestTree(canGetRow);
+
+        Map<Long, Long> map = new HashMap<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            TreeSet<Long> batch = new TreeSet<>();
+
+            int batchSize = BPlusTree.randomInt(CNT / 2) + 1;
+
+            for (int j = 0; j < batchSize; j++)
+                batch.add((long)BPlusTree.randomInt(CNT));
+
+            Map<Long, Long> expOld = new HashMap<>();
+
+            for (Long x : batch)
+                expOld.put(x, map.put(x, x));
+
+            Map<Long, Long> old = new HashMap<>();
+
+            tree.putAll(batch.iterator(), (row, oldRow) -> {
+                assertFalse(old.containsKey(row));
+
+                old.put(row, oldRow);
+            });
+
+            assertEquals(expOld, old);
+
+            assertNoLocks();
+
+            tree.validateTree();
+
+            int rmvCnt = BPlusTree.randomInt(CNT / 4);
+
+            for (int j = 0; j < rmvCnt; j++) {
+                Long x = (long)BPlusTree.randomInt(CNT);
+
+                assertEquals(map.remove(x) != null, tree.removex(x));
+            }
+
+            assertNoLocks();
+
+            tree.validateTree();
+
+            if (i % 100 == 0)
+                assertEqualContents(tree, map);
+        }
+
+        assertEqualContents(tree, map);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testPutAllSortedMultithreaded() throws Exception {
+        MAX_PER_PAGE = 2;
+
+        final int threads = 8;
+        final int keys = 2_000;
+
+        final TestTree tree = createTestTree(true);
+
+        final Map<Long, Long> map = new ConcurrentHashMap<>();
+
+        final AtomicInteger threadIdx = new AtomicInteger();
+
+        GridTestUtils.runMultiThreaded(new Callable<Object>() {
+            @Override public Object call() throws Exception {
+                int idx = threadIdx.getAndIncrement();
+
+                Random rnd = new GridRandom();
+
+                for (int i = 0; i < 300; i++) {
+                    // Every thread owns keys with the same remainder, so batches of threads interleave in leaves.
+                    List<Long> batch = new ArrayList<>();
+
+                    for (long x = idx; x < keys; x += threads) {
+                        if (rnd.nextInt(4) == 0)
+                            batch.add(x);
+                    }
+
+                    tree.putAll(batch.iterator(), null);
+
+                    for (Long x : batch)
+                        map.put(x, x);
+
+                    for (int j = 0; j < batch.size() / 2; j++) {
+                        Long x = batch.get(rnd.nextInt(batch.size()));
+
+                        if (map.remove(x) != null)
+                            assertTrue(tree.removex(x));
+                    }
+                }
+
+                return null;
+            }
+        }, threads, "put-all");
+
+        assertNoLocks();
+
+        tree.validateTree();
+
+        assertEqualContents(tree, map);
+    }
+
     /**
      * @throws Exception If failed.
      */
@@ -36,6 +36,7 @@ import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.internal.mem.unsafe.UnsafeMemoryProvider;
 import org.apache.ignite.internal.metric.IoStatisticsHolderNoOp;
 import org.apache.ignite.internal.pagemem.PageIdAllocator;
+import org.apache.ignite.internal.pagemem.PageIdUtils;
 import org.apache.ignite.internal.pagemem.PageMemory;
 import org.apache.ignite.internal.pagemem.PageUtils;
 import org.apache.ignite.internal.pagemem.impl.PageMemoryNoStoreImpl;
@@ -47,6 +48,7 @@ import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
 import org.apache.ignite.internal.processors.cache.persistence.DataRegion;
 import org.apache.ignite.internal.processors.cache.persistence.DataRegionMetricsImpl;
 import org.apache.ignite.internal.processors.cache.persistence.evict.NoOpPageEvictionTracker;
+import org.apache.ignite.internal.processors.cache.persistence.freelist.AbstractFreeList;
 import org.apache.ignite.internal.processors.cache.persistence.freelist.CacheFreeList;
 import org.apache.ignite.internal.processors.cache.persistence.freelist.FreeList;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.CacheVersionIO;
@@ -63,6 +65,7 @@ import org.apache.ignite.testframework.junits.logger.GridTestLog4jLogger;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Test;
 
+import static org.apache.ignite.internal.processors.cache.persistence.freelist.AbstractFreeList.SIZE_CLASSES;
 import static org.apache.ignite.internal.processors.database.DataRegionMetricsSelfTest.NO_OP_METRICS;
 
 /**
@@ -251,6 +254,45 @@ public class CacheFreeListSelfTest extends GridCommonAbstractTest {
         checkInsertDeleteMultiThreaded(16384, true);
     }
 
+    /**
+     * Checks that a partially filled page is kept by the stripe of the inserting thread and is returned to the
+     * shared bucket of its size class when metadata is saved.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testLocalPages() throws Exception {
+        int pageSize = 4096;
+
+        AbstractFreeList<CacheDataRow> list = (AbstractFreeList<CacheDataRow>)createFreeList(pageSize);
+
+        TestDataRow row1 = new TestDataRow(100, 100);
+        TestDataRow row2 = new TestDataRow(100, 100);
+
+        list.insertDataRow(row1, IoStatisticsHolderNoOp.INSTANCE);
+        list.insertDataRow(row2, IoStatisticsHolderNoOp.INSTANCE);
+
+        assertEquals(PageIdUtils.pageId(row1.link()), PageIdUtils.pageId(row2.link()));
+
+        for (int cls = 0; cls < SIZE_CLASSES; cls++)
+            assertEquals(0, list.dataPages(cls));
+
+        list.saveMetadata(IoStatisticsHolderNoOp.INSTANCE);
+
+        for (int cls = 0; cls < SIZE_CLASSES - 1; cls++)
+            assertEquals(0, list.dataPages(cls));
+
+        assertEquals(1, list.dataPages(SIZE_CLASSES - 1));
+        assertTrue(list.freeSpace(SIZE_CLASSES - 1) >= pageSize * (SIZE_CLASSES - 1) / SIZE_CLASSES);
+
+        // The page is taken from the shared bucket now.
+        TestDataRow row3 = new TestDataRow(100, 100);
+
+        list.insertDataRow(row3, IoStatisticsHolderNoOp.INSTANCE);
+
+        assertEquals(PageIdUtils.pageId(row1.link()), PageIdUtils.pageId(row3.link()));
+    }
+
     /**
      * @param pageSize Page size.
      * @throws Exception if failed.
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.sql;
+
+import java.util.List;
+import org.apache.ignite.internal.sql.command.SqlAnalyzeCommand;
+import org.apache.ignite.internal.sql.command.SqlQualifiedName;
+import org.junit.Test;
+
+/**
+ * Tests for SQL parser: ANALYZE.
+ */
+public class SqlParserAnalyzeSelfTest extends SqlParserAbstractSelfTest {
+    /**
+     * Tests for ANALYZE command.
+     */
+    @Test
+    public void testAnalyze() {
+        parseValidate(null, "ANALYZE tbl", null, "TBL");
+        parseValidate(null, "analyze \"tBl\"", null, "tBl");
+        parseValidate("SCHEMA", "ANALYZE tbl", null, "TBL");
+        parseValidate(null, "ANALYZE schema.tbl", "SCHEMA", "TBL");
+        parseValidate(null, "ANALYZE \"sChema\".tbl", "sChema", "TBL");
+
+        parseValidate(null, "ANALYZE tbl1, schema.tbl2, \"tbl3\"",
+            null, "TBL1",
+            "SCHEMA", "TBL2",
+            null, "tbl3");
+
+        assertParseError(null, "ANALYZE", "Unexpected end of command");
+        assertParseError(null, "ANALYZE tbl,", "Unexpected end of command");
+        assertParseError(null, "ANALYZE .tbl", "Unexpected token: \".\"");
+        assertParseError(null, "ANALYZE tbl1 tbl2", "Unexpected token: \"TBL2\"");
+    }
+
+    /**
+     * Parse and validate SQL script.
+     *
+     * @param schema Schema.
+     * @param sql SQL.
+     * @param exp Expected pairs of schema and table names.
+     */
+    private static void parseValidate(String schema, String sql, String... exp) {
+        SqlAnalyzeCommand cmd = (SqlAnalyzeCommand)new SqlParser(schema, sql).nextCommand();
+
+        assertEquals(schema, cmd.schemaName());
+
+        List<SqlQualifiedName> tbls = cmd.tables();
+
+        assertEquals(exp.length / 2, tbls.size());
+
+        for (int i = 0; i < tbls.size(); i++) {
+            assertEquals(exp[2 * i], tbls.get(i).schemaName());
+            assertEquals(exp[2 * i + 1], tbls.get(i).name());
+        }
+    }
+}
@@ -151,4 +151,44 @@ public class GridConcurrentMultiPairQueueTest extends GridCommonAbstractTest {
 
         assertTrue(queue2.initialSize() == arr1.length + arr2.length + arr3.length + arr4.length);
     }
+
+    /** */
+    @Test
+    public void testBatchNext() throws Exception {
+        int batch = ThreadLocalRandom.current().nextInt(2, 8);
+
+        GridTestUtils.runMultiThreaded(() -> {
+            GridConcurrentMultiPairQueue.Result<Integer, Integer> res =
+                new GridConcurrentMultiPairQueue.Result<>();
+
+            while (queue.next(res, batch)) {
+                assertTrue(mapForCheck.containsKey(res.getKey()));
+
+                assertTrue(mapForCheck.get(res.getKey()).remove(res.getValue()));
+
+                Collection<Integer> coll = mapForCheck.get(res.getKey());
+
+                if (coll != null && coll.isEmpty())
+                    mapForCheck.remove(res.getKey(), coll);
+            }
+        }, ThreadLocalRandom.current().nextInt(1, 20), "GridConcurrentMultiPairQueue batch test");
+
+        assertTrue("batch=" + batch + ", left=" + mapForCheck, mapForCheck.isEmpty());
+
+        assertTrue(queue.isEmpty());
+
+        // Single consumer takes consecutive elements of the key array.
+        GridConcurrentMultiPairQueue<Integer, Integer> queue3 =
+            new GridConcurrentMultiPairQueue<>(Collections.singletonMap(1, Arrays.asList(arr1)));
+
+        GridConcurrentMultiPairQueue.Result<Integer, Integer> res = new GridConcurrentMultiPairQueue.Result<>();
+
+        for (Integer val : arr1) {
+            assertTrue(queue3.next(res, batch));
+
+            assertEquals(val, res.getValue());
+        }
+
+        assertFalse(queue3.next(res, batch));
+    }
 }
@@ -43,6 +43,7 @@ import org.apache.ignite.internal.processors.cache.persistence.db.wal.WalCompact
 import org.apache.ignite.internal.processors.cache.persistence.db.wal.WalCompactionTest;
 import org.apache.ignite.internal.processors.cache.persistence.db.wal.WalRolloverTypesTest;
 import org.apache.ignite.internal.processors.cache.persistence.db.wal.crc.IgniteDataIntegrityTests;
+import org.apache.ignite.internal.processors.cache.persistence.db.wal.crc.MappedFileInputTest;
 import org.apache.ignite.internal.processors.cache.persistence.db.wal.crc.IgniteFsyncReplayWalIteratorInvalidCrcTest;
 import org.apache.ignite.internal.processors.cache.persistence.db.wal.crc.IgnitePureJavaCrcCompatibility;
 import org.apache.ignite.internal.processors.cache.persistence.db.wal.crc.IgniteReplayWalIteratorInvalidCrcTest;
@@ -73,6 +74,7 @@ public class IgnitePdsMvccTestSuite2 {
 
         // Skip irrelevant test
         ignoredTests.add(IgniteDataIntegrityTests.class);
+        ignoredTests.add(MappedFileInputTest.class);
         ignoredTests.add(IgniteStandaloneWalIteratorInvalidCrcTest.class);
         ignoredTests.add(IgniteReplayWalIteratorInvalidCrcTest.class);
         ignoredTests.add(IgniteFsyncReplayWalIteratorInvalidCrcTest.class);
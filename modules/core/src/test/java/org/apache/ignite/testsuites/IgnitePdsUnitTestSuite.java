@@ -16,6 +16,8 @@
  */
 package org.apache.ignite.testsuites;
 
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.ClockProPageReplacementPolicyTest;
+import org.apache.ignite.internal.processors.cache.persistence.pagemem.FullPageIdSetTest;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.FullPageIdTableTest;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.IgnitePageMemReplaceDelayedWriteUnitTest;
 import org.apache.ignite.internal.processors.cache.persistence.pagemem.IgniteThrottlingUnitTest;
@@ -31,7 +33,9 @@ import org.junit.runners.Suite;
     IgniteThrottlingUnitTest.class,
     IgnitePageMemReplaceDelayedWriteUnitTest.class,
     FullPageIdTableTest.class,
-    RobinHoodBackwardShiftHashMapTest.class
+    FullPageIdSetTest.class,
+    RobinHoodBackwardShiftHashMapTest.class,
+    ClockProPageReplacementPolicyTest.class
 })
 public class IgnitePdsUnitTestSuite {
 }
@@ -123,4 +123,21 @@ public interface SqlQueryMXBean {
     @MXBeanParametersNames("rsSizeThresholdMultiplier")
     @MXBeanParametersDescriptions("TResult set size threshold multiplier.")
     void setResultSetSizeThresholdMultiplier(int rsSizeThresholdMultiplier);
+
+    /**
+     * Changes the inline size of the index on the local node. The index is rebuilt in the background and stays
+     * available for queries and updates. Recommended inline sizes are shown by the {@code INDEX_INLINE_SIZES} system
+     * view.
+     *
+     * @param schemaName Schema name.
+     * @param idxName Index name.
+     * @param inlineSize New inline size.
+     */
+    @MXBeanDescription("Changes the inline size of the index on the local node. The index is rebuilt in the " +
+        "background and stays available for queries and updates.")
+    void changeIndexInlineSize(
+        @MXBeanParameter(name = "schemaName", description = "Schema name.") String schemaName,
+        @MXBeanParameter(name = "idxName", description = "Index name.") String idxName,
+        @MXBeanParameter(name = "inlineSize", description = "New inline size.") int inlineSize
+    );
 }
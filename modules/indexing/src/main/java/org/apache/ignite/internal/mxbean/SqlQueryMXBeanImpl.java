@@ -17,8 +17,10 @@
 
 package org.apache.ignite.internal.mxbean;
 
+import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.GridKernalContext;
 import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.util.typedef.internal.U;
 
 /**
  * QueryMXBean implementation.
@@ -73,4 +75,14 @@ public class SqlQueryMXBeanImpl implements SqlQueryMXBean {
     @Override public void setResultSetSizeThresholdMultiplier(int rsSizeThresholdMultiplier) {
         h2idx.longRunningQueries().setResultSetSizeThresholdMultiplier(rsSizeThresholdMultiplier);
     }
+
+    /** {@inheritDoc} */
+    @Override public void changeIndexInlineSize(String schemaName, String idxName, int inlineSize) {
+        try {
+            h2idx.schemaManager().changeIndexInlineSize(schemaName, idxName, inlineSize);
+        }
+        catch (IgniteCheckedException e) {
+            throw U.convertException(e);
+        }
+    }
 }
@@ -92,6 +92,7 @@ import org.apache.ignite.internal.processors.query.messages.GridQueryKillRespons
 import org.apache.ignite.internal.processors.query.schema.SchemaOperationException;
 import org.apache.ignite.internal.sql.command.SqlAlterTableCommand;
 import org.apache.ignite.internal.sql.command.SqlAlterUserCommand;
+import org.apache.ignite.internal.sql.command.SqlAnalyzeCommand;
 import org.apache.ignite.internal.sql.command.SqlBeginTransactionCommand;
 import org.apache.ignite.internal.sql.command.SqlBulkLoadCommand;
 import org.apache.ignite.internal.sql.command.SqlCommand;
@@ -107,6 +108,7 @@ import org.apache.ignite.internal.sql.command.SqlKillQueryCommand;
 import org.apache.ignite.internal.sql.command.SqlKillScanQueryCommand;
 import org.apache.ignite.internal.sql.command.SqlKillServiceCommand;
 import org.apache.ignite.internal.sql.command.SqlKillTransactionCommand;
+import org.apache.ignite.internal.sql.command.SqlQualifiedName;
 import org.apache.ignite.internal.sql.command.SqlRollbackTransactionCommand;
 import org.apache.ignite.internal.sql.command.SqlSetStreamingCommand;
 import org.apache.ignite.internal.util.future.GridFinishedFuture;
@@ -428,6 +430,8 @@ public class CommandProcessor {
                 processKillScanQueryCommand((SqlKillScanQueryCommand) cmdNative);
             else if (cmdNative instanceof SqlKillContinuousQueryCommand)
                 processKillContinuousQueryCommand((SqlKillContinuousQueryCommand) cmdNative);
+            else if (cmdNative instanceof SqlAnalyzeCommand)
+                processAnalyzeCommand((SqlAnalyzeCommand) cmdNative);
             else
                 processTxCommand(cmdNative, params);
         }
@@ -552,6 +556,32 @@ public class CommandProcessor {
         new QueryMXBeanImpl(ctx).cancelContinuous(cmd.getOriginNodeId(), cmd.getRoutineId());
     }
 
+    /**
+     * Process analyze command.
+     *
+     * @param cmd Command.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void processAnalyzeCommand(SqlAnalyzeCommand cmd) throws IgniteCheckedException {
+        List<GridH2Table> tbls = new ArrayList<>(cmd.tables().size());
+
+        for (SqlQualifiedName name : cmd.tables()) {
+            String schemaName = name.schemaName() != null ? name.schemaName() : cmd.schemaName();
+
+            GridH2Table tbl = schemaMgr.dataTable(schemaName, name.name());
+
+            if (tbl == null) {
+                throw new IgniteSQLException("Table does not exist: " + name.name(),
+                    IgniteQueryErrorCode.TABLE_NOT_FOUND);
+            }
+
+            tbls.add(tbl);
+        }
+
+        for (GridH2Table tbl : tbls)
+            idx.statisticsManager().collect(tbl);
+    }
+
     /**
      * Run DDL statement.
      *
@@ -155,9 +155,11 @@ import org.apache.ignite.internal.processors.query.h2.twostep.messages.GridQuery
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2DmlRequest;
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2DmlResponse;
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2QueryRequest;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
 import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheVisitor;
 import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheVisitorClosure;
 import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheVisitorImpl;
+import org.apache.ignite.internal.processors.query.stat.StatisticsManager;
 import org.apache.ignite.internal.processors.tracing.MTC;
 import org.apache.ignite.internal.processors.tracing.MTC.TraceSurroundings;
 import org.apache.ignite.internal.processors.tracing.Span;
@@ -337,6 +339,9 @@ public class IgniteH2Indexing implements GridQueryIndexing {
     /** Functions manager. */
     private FunctionsManager funcMgr;
 
+    /** Column statistics manager. */
+    private StatisticsManager statsMgr;
+
     /**
      * @return Kernal context.
      */
@@ -2200,6 +2205,12 @@ public class IgniteH2Indexing implements GridQueryIndexing {
         distrCfg = new DistributedSqlConfiguration(ctx, log);
 
         funcMgr = new FunctionsManager(distrCfg);
+
+        statsMgr = new StatisticsManager(ctx, schemaMgr, () -> {
+            connMgr.onCacheDestroyed();
+
+            clearPlanCache();
+        });
     }
 
     /**
@@ -2246,6 +2257,11 @@ public class IgniteH2Indexing implements GridQueryIndexing {
                     reduceQueryExecutor().onFail(node, (GridQueryFailResponse)msg);
                 else if (msg instanceof GridQueryCancelRequest)
                     mapQueryExecutor().onCancel(node, (GridQueryCancelRequest)msg);
+                else if (msg instanceof GridH2ShuffleRowsMessage) {
+                    mapQueryExecutor().onShuffleRows(node, (GridH2ShuffleRowsMessage)msg);
+
+                    tracebleMsg = true;
+                }
                 else
                     processed = false;
 
@@ -2391,6 +2407,8 @@ public class IgniteH2Indexing implements GridQueryIndexing {
 
         cmdProc.stop();
 
+        statsMgr.stop();
+
         if (log.isDebugEnabled())
             log.debug("Cache query index stopped.");
     }
@@ -2439,6 +2457,8 @@ public class IgniteH2Indexing implements GridQueryIndexing {
 
         partReservationMgr.onCacheStop(cacheName);
 
+        statsMgr.onCacheDestroyed(cacheName, rmvIdx);
+
         // Drop schema (needs to be called after callback to DML processor because the latter depends on schema).
         schemaMgr.onCacheDestroyed(cacheName, rmvIdx);
 
@@ -3203,6 +3223,13 @@ public class IgniteH2Indexing implements GridQueryIndexing {
         return distrCfg;
     }
 
+    /**
+     * @return Column statistics manager.
+     */
+    public StatisticsManager statisticsManager() {
+        return statsMgr;
+    }
+
     /** {@inheritDoc} */
     @Override public Map<String, Integer> secondaryIndexesInlineSize() {
         Map<String, Integer> map = new HashMap<>();
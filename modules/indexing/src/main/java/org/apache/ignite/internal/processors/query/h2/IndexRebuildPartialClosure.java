@@ -17,13 +17,16 @@
 
 package org.apache.ignite.internal.processors.query.h2;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.internal.processors.cache.GridCacheContext;
 import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
+import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2IndexBase;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
 import org.apache.ignite.internal.processors.query.h2.opt.H2CacheRow;
@@ -65,6 +68,45 @@ public class IndexRebuildPartialClosure implements SchemaIndexCacheVisitorClosur
         }
     }
 
+    /**
+     * Puts rows to sorted indexes in the index order, so rows which belong to the same leaf page are put to it
+     * with a single descent from the root in the best case.
+     *
+     * @param rows Rows.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Override public void applyAll(List<CacheDataRow> rows) throws IgniteCheckedException {
+        assert hasIndexes();
+
+        long pages = 0;
+
+        for (Map.Entry<GridH2Table, Collection<GridH2IndexBase>> tblIdxEntry : tblIdxs.entrySet()) {
+            GridH2Table tbl = tblIdxEntry.getKey();
+
+            List<H2CacheRow> tblRows = new ArrayList<>(rows.size());
+
+            for (CacheDataRow row : rows) {
+                if (cctx.kernalContext().query().belongsToTable(cctx, tbl.cacheName(), tbl.getName(), row.key(),
+                    row.value()))
+                    tblRows.add(tbl.rowDescriptor().createRow(row));
+            }
+
+            if (tblRows.isEmpty())
+                continue;
+
+            for (GridH2IndexBase idx : tblIdxEntry.getValue()) {
+                if (idx instanceof H2TreeIndex)
+                    pages += ((H2TreeIndex)idx).putAll(tblRows);
+                else {
+                    for (H2CacheRow row0 : tblRows)
+                        idx.putx(row0);
+                }
+            }
+        }
+
+        cctx.cache().metrics0().addIndexRebuildPagesWritten(pages);
+    }
+
     /**
      * @param idx Index to be rebuilt.
      */
@@ -61,6 +61,7 @@ import org.apache.ignite.internal.sql.SqlParser;
 import org.apache.ignite.internal.sql.SqlStrictParseException;
 import org.apache.ignite.internal.sql.command.SqlAlterTableCommand;
 import org.apache.ignite.internal.sql.command.SqlAlterUserCommand;
+import org.apache.ignite.internal.sql.command.SqlAnalyzeCommand;
 import org.apache.ignite.internal.sql.command.SqlBeginTransactionCommand;
 import org.apache.ignite.internal.sql.command.SqlBulkLoadCommand;
 import org.apache.ignite.internal.sql.command.SqlCommand;
@@ -97,7 +98,7 @@ public class QueryParser {
     /** A pattern for commands having internal implementation in Ignite. */
     private static final Pattern INTERNAL_CMD_RE = Pattern.compile(
         "^(create|drop)\\s+index|^alter\\s+table|^copy|^set|^begin|^commit|^rollback|^(create|alter|drop)\\s+user" +
-            "|^kill\\s+(query|scan|continuous|compute|service|transaction)|show|help|grant|revoke",
+            "|^kill\\s+(query|scan|continuous|compute|service|transaction)|show|help|grant|revoke|^analyze",
         Pattern.CASE_INSENSITIVE);
 
     /** Indexing. */
@@ -280,7 +281,8 @@ public class QueryParser {
                 || nativeCmd instanceof SqlKillServiceCommand
                 || nativeCmd instanceof SqlKillTransactionCommand
                 || nativeCmd instanceof SqlKillScanQueryCommand
-                || nativeCmd instanceof SqlKillContinuousQueryCommand)
+                || nativeCmd instanceof SqlKillContinuousQueryCommand
+                || nativeCmd instanceof SqlAnalyzeCommand)
             )
                 return null;
 
@@ -37,6 +37,8 @@ import org.apache.ignite.IgniteLogger;
 import org.apache.ignite.IgniteSystemProperties;
 import org.apache.ignite.cache.query.annotations.QuerySqlFunction;
 import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.managers.systemview.walker.SqlIndexInlineSizeViewWalker;
 import org.apache.ignite.internal.managers.systemview.walker.SqlIndexViewWalker;
 import org.apache.ignite.internal.managers.systemview.walker.SqlSchemaViewWalker;
 import org.apache.ignite.internal.managers.systemview.walker.SqlTableColumnViewWalker;
@@ -51,6 +53,7 @@ import org.apache.ignite.internal.processors.query.IgniteSQLException;
 import org.apache.ignite.internal.processors.query.QueryField;
 import org.apache.ignite.internal.processors.query.QueryIndexDescriptorImpl;
 import org.apache.ignite.internal.processors.query.QueryUtils;
+import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2IndexBase;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2RowDescriptor;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
@@ -64,6 +67,7 @@ import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheVisito
 import org.apache.ignite.internal.util.GridConcurrentHashSet;
 import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.spi.systemview.view.SqlIndexInlineSizeView;
 import org.apache.ignite.spi.systemview.view.SqlIndexView;
 import org.apache.ignite.spi.systemview.view.SqlSchemaView;
 import org.apache.ignite.spi.systemview.view.SqlTableColumnView;
@@ -103,6 +107,12 @@ public class SchemaManager {
     /** */
     public static final String SQL_IDXS_VIEW_DESC = "SQL indexes";
 
+    /** */
+    public static final String SQL_IDX_INLINE_SIZE_VIEW = metricName("index", "inline", "sizes");
+
+    /** */
+    public static final String SQL_IDX_INLINE_SIZE_VIEW_DESC = "SQL index inline sizes";
+
     /** */
     public static final String SQL_TBL_COLS_VIEW = metricName("table", "columns");
 
@@ -172,6 +182,12 @@ public class SchemaManager {
             GridH2Table::indexesInformation,
             SqlIndexView::new);
 
+        ctx.systemView().registerInnerCollectionView(SQL_IDX_INLINE_SIZE_VIEW, SQL_IDX_INLINE_SIZE_VIEW_DESC,
+            new SqlIndexInlineSizeViewWalker(),
+            dataTables.values(),
+            GridH2Table::treeIndexes,
+            SqlIndexInlineSizeView::new);
+
         ctx.systemView().registerInnerArrayView(SQL_TBL_COLS_VIEW, SQL_TBL_COLS_VIEW_DESC,
             new SqlTableColumnViewWalker(),
             dataTables.values(),
@@ -694,6 +710,33 @@ public class SchemaManager {
         connMgr.executeStatement(schemaName, sql);
     }
 
+    /**
+     * Changes the inline size of the index on the local node. The index is rebuilt in the background and stays
+     * available for queries and updates.
+     *
+     * @param schemaName Schema name.
+     * @param idxName Index name.
+     * @param inlineSize New inline size.
+     * @return Future which is completed when the index is rebuilt with the new inline size.
+     * @throws IgniteCheckedException If failed.
+     */
+    public IgniteInternalFuture<Void> changeIndexInlineSize(String schemaName, String idxName, int inlineSize)
+        throws IgniteCheckedException {
+        GridH2Table tbl = dataTableForIndex(schemaName, idxName);
+
+        if (tbl == null)
+            throw new IgniteSQLException("Index doesn't exist: " + idxName, IgniteQueryErrorCode.INDEX_NOT_FOUND);
+
+        Index idx = tbl.userIndex(idxName);
+
+        if (!(idx instanceof H2TreeIndex)) {
+            throw new IgniteSQLException("Inline size can be changed only for sorted indexes stored on this node: " +
+                idxName, IgniteQueryErrorCode.UNSUPPORTED_OPERATION);
+        }
+
+        return ((H2TreeIndex)idx).changeInlineSize(inlineSize);
+    }
+
     /**
      * Add column.
      *
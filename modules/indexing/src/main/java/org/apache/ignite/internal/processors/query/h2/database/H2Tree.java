@@ -18,6 +18,7 @@
 package org.apache.ignite.internal.processors.query.h2.database;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -49,6 +50,7 @@ import org.apache.ignite.internal.processors.failure.FailureProcessor;
 import org.apache.ignite.internal.processors.query.h2.H2RowCache;
 import org.apache.ignite.internal.processors.query.h2.H2Utils;
 import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.InlineIndexColumnFactory;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.NormalizedKeyInlineIndexColumn;
 import org.apache.ignite.internal.processors.query.h2.database.io.H2ExtrasInnerIO;
 import org.apache.ignite.internal.processors.query.h2.database.io.H2ExtrasLeafIO;
 import org.apache.ignite.internal.processors.query.h2.database.io.H2RowLinkIO;
@@ -81,6 +83,18 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         defaults = "" + DFLT_THROTTLE_INLINE_SIZE_CALCULATION)
     public static final String IGNITE_THROTTLE_INLINE_SIZE_CALCULATION = "IGNITE_THROTTLE_INLINE_SIZE_CALCULATION";
 
+    /** */
+    @SystemProperty(value = "Enables compression of inlined values of new indexes with a common prefix of a page. " +
+        "Items of a page are smaller, so a page keeps more of them. Not supported for MVCC caches and inline size " +
+        "less than 16")
+    public static final String IGNITE_INDEX_INLINE_PREFIX_COMPRESSION = "IGNITE_INDEX_INLINE_PREFIX_COMPRESSION";
+
+    /** */
+    @SystemProperty(value = "Enables inlining of all columns of new indexes as a single order-preserving normalized " +
+        "key, which is compared as unsigned bytes. Used if all the index columns are of primitive, date and time, " +
+        "UUID, string or binary types and inlined values are not compressed with a common prefix of a page")
+    public static final String IGNITE_INDEX_INLINE_NORMALIZED_KEYS = "IGNITE_INDEX_INLINE_NORMALIZED_KEYS";
+
     /** Cache context. */
     private final GridCacheContext cctx;
 
@@ -138,6 +152,12 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
     /** Counter of inline size calculation for throttling real invocations. */
     private final ThreadLocal<Long> inlineSizeCalculationCntr = ThreadLocal.withInitial(() -> 0L);
 
+    /** Counter of sampled puts for throttling real samples of inline sizes. */
+    private final ThreadLocal<Long> inlineSizeSamplingCntr = ThreadLocal.withInitial(() -> 0L);
+
+    /** Sampled sizes which are required to inline keys completely. */
+    private final InlineSizeStatistics inlineSizeStats = new InlineSizeStatistics();
+
     /** Keep max calculated inline size for current index. */
     private final AtomicInteger maxCalculatedInlineSize;
 
@@ -150,6 +170,12 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
     /** Whether index was created from scratch during owning node lifecycle. */
     private final boolean created;
 
+    /** Whether inlined values are compressed with a common prefix of a page. */
+    private final boolean inlinePrefixCompression;
+
+    /** Normalized key of all the columns, {@code null} if columns are inlined one by one. */
+    private final @Nullable NormalizedKeyInlineIndexColumn inlineKey;
+
     /**
      * Constructor.
      *
@@ -256,23 +282,40 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
 
             boolean inlineObjSupported = inlineSize > 0 && metaInfo.inlineObjectSupported();
 
-            inlineIdxs = inlineObjSupported ? inlineIdxs0 : inlineIdxs0.stream()
+            List<InlineIndexColumn> colIdxs = inlineObjSupported ? inlineIdxs0 : inlineIdxs0.stream()
                 .filter(ih -> ih.type() != Value.JAVA_OBJECT)
                 .collect(Collectors.toList());
 
-            inlineCols = new IndexColumn[inlineIdxs.size()];
+            inlineCols = new IndexColumn[colIdxs.size()];
 
-            for (int i = 0, j = 0; i < cols.length && j < inlineIdxs.size(); i++) {
-                if (cols[i].column.getColumnId() == inlineIdxs.get(j).columnIndex())
+            for (int i = 0, j = 0; i < cols.length && j < colIdxs.size(); i++) {
+                if (cols[i].column.getColumnId() == colIdxs.get(j).columnIndex())
                     inlineCols[j++] = cols[i];
             }
 
             if (!metaInfo.flagsSupported())
                 upgradeMetaPage(inlineObjSupported);
 
+            inlinePrefixCompression = metaInfo.inlinePrefixCompression();
+
+            if (metaInfo.inlineNormalizedKeys()) {
+                inlineKey = NormalizedKeyInlineIndexColumn.create(colIdxs, cols, table.getCompareMode());
+
+                if (inlineKey == null) {
+                    throw new IgniteCheckedException("Index columns can't be inlined as a normalized key " +
+                        "[cacheName=" + cacheName + ", tblName=" + tblName + ", idxName=" + idxName + ']');
+                }
+
+                inlineIdxs = Collections.singletonList(inlineKey);
+            }
+            else {
+                inlineKey = null;
+                inlineIdxs = colIdxs;
+            }
+
             setIos(
-                H2ExtrasInnerIO.getVersions(inlineSize, mvccEnabled),
-                H2ExtrasLeafIO.getVersions(inlineSize, mvccEnabled)
+                H2ExtrasInnerIO.getVersions(inlineSize, mvccEnabled, inlinePrefixCompression),
+                H2ExtrasLeafIO.getVersions(inlineSize, mvccEnabled, inlinePrefixCompression)
             );
         }
         else {
@@ -281,13 +324,23 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
             cols = unwrappedCols.toArray(H2Utils.EMPTY_COLUMNS);
             inlineCols = cols;
 
-            inlineIdxs = getAvailableInlineColumns(affinityKey, cacheName, idxName, log, pk, table, cols, factory, true);
+            List<InlineIndexColumn> colIdxs = getAvailableInlineColumns(affinityKey, cacheName, idxName, log, pk,
+                table, cols, factory, true);
+
+            inlineSize = computeInlineSize(colIdxs, configuredInlineSize, cctx.config().getSqlIndexMaxInlineSize());
+
+            inlinePrefixCompression = IgniteSystemProperties.getBoolean(IGNITE_INDEX_INLINE_PREFIX_COMPRESSION) &&
+                H2ExtrasLeafIO.isPrefixCompressionSupported(inlineSize, mvccEnabled);
 
-            inlineSize = computeInlineSize(inlineIdxs, configuredInlineSize, cctx.config().getSqlIndexMaxInlineSize());
+            inlineKey = IgniteSystemProperties.getBoolean(IGNITE_INDEX_INLINE_NORMALIZED_KEYS) &&
+                !inlinePrefixCompression && inlineSize >= NormalizedKeyInlineIndexColumn.MIN_INLINE_SIZE ?
+                NormalizedKeyInlineIndexColumn.create(colIdxs, cols, table.getCompareMode()) : null;
+
+            inlineIdxs = inlineKey != null ? Collections.singletonList(inlineKey) : colIdxs;
 
             setIos(
-                H2ExtrasInnerIO.getVersions(inlineSize, mvccEnabled),
-                H2ExtrasLeafIO.getVersions(inlineSize, mvccEnabled)
+                H2ExtrasInnerIO.getVersions(inlineSize, mvccEnabled, inlinePrefixCompression),
+                H2ExtrasLeafIO.getVersions(inlineSize, mvccEnabled, inlinePrefixCompression)
             );
 
             initTree(true, inlineSize);
@@ -449,6 +502,30 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         return inlineSize;
     }
 
+    /**
+     * @return {@code True} if inlined values are compressed with a common prefix of a page.
+     */
+    public boolean inlinePrefixCompression() {
+        return inlinePrefixCompression;
+    }
+
+    /**
+     * @return {@code True} if all columns are inlined as a single normalized key.
+     */
+    public boolean inlineNormalizedKeys() {
+        return inlineKey != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected long initialMetaFlags() {
+        long flags = super.initialMetaFlags();
+
+        if (inlinePrefixCompression)
+            flags |= BPlusMetaIO.FLAG_INLINE_PREFIX_COMPRESSION;
+
+        return inlineKey != null ? flags | BPlusMetaIO.FLAG_INLINE_NORMALIZED_KEYS : flags;
+    }
+
     /**
      * @return Inline size.
      * @throws IgniteCheckedException If failed.
@@ -547,8 +624,10 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         try {
             if (inlineSize() == 0)
                 return compareRows(getRow(io, pageAddr, idx), row);
+            else if (inlineKey != null)
+                return compareNormalized(io, pageAddr, idx, row);
             else {
-                int off = io.offset(idx);
+                long inlineAddr = ((H2RowLinkIO)io).getInlineAddress(pageAddr, idx);
 
                 int fieldOff = 0;
 
@@ -562,7 +641,7 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
                     if (v2 == null)
                         return 0;
 
-                    int c = inlineIdx.compare(pageAddr, off + fieldOff, inlineSize() - fieldOff, v2, comp);
+                    int c = inlineIdx.compare(inlineAddr, fieldOff, inlineSize() - fieldOff, v2, comp);
 
                     if (c == CANT_BE_COMPARE)
                         break;
@@ -572,7 +651,7 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
                     if (c != 0)
                         return fixSort(c, inlineCols[i].sortType);
 
-                    fieldOff += inlineIdx.fullSize(pageAddr, off + fieldOff);
+                    fieldOff += inlineIdx.fullSize(inlineAddr, fieldOff);
 
                     if (fieldOff > inlineSize())
                         break;
@@ -581,35 +660,83 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
                 if (lastIdxUsed == cols.length)
                     return mvccCompare((H2RowLinkIO)io, pageAddr, idx, row);
 
-                inlineSizeRecomendation(row);
+                return compareNotInlined(io, pageAddr, idx, row, lastIdxUsed);
+            }
+        }
+        catch (DbException ex) {
+            throw new IgniteCheckedException("Rows cannot be compared", ex);
+        }
+    }
 
-                SearchRow rowData = getRow(io, pageAddr, idx);
+    /**
+     * Compares the inlined normalized key with the normalized key of the row, the stored row is read only if the
+     * inlined key is truncated and equals the key of the row.
+     *
+     * @param io IO.
+     * @param pageAddr Page address.
+     * @param idx Item index.
+     * @param row Search row.
+     * @return Comparison result.
+     * @throws IgniteCheckedException If failed.
+     */
+    private int compareNormalized(BPlusIO<H2Row> io, long pageAddr, int idx, H2Row row)
+        throws IgniteCheckedException {
+        NormalizedKeyInlineIndexColumn.SearchKey key = inlineKey.searchKey(row, inlineSize());
 
-                for (int i = lastIdxUsed, len = cols.length; i < len; i++) {
-                    IndexColumn col = cols[i];
-                    int idx0 = col.column.getColumnId();
+        if (key != null) {
+            if (key.columnsCount() == 0)
+                return 0;
 
-                    Value v2 = row.getValue(idx0);
+            int c = inlineKey.compare(((H2RowLinkIO)io).getInlineAddress(pageAddr, idx), 0, key);
 
-                    if (v2 == null) {
-                        // Can't compare further.
-                        return mvccCompare((H2RowLinkIO)io, pageAddr, idx, row);
-                    }
+            if (c != CANT_BE_COMPARE) {
+                if (c != 0 || key.columnsCount() < cols.length)
+                    return c;
 
-                    Value v1 = rowData.getValue(idx0);
+                return mvccCompare((H2RowLinkIO)io, pageAddr, idx, row);
+            }
+        }
 
-                    int c = compareValues(v1, v2);
+        return compareNotInlined(io, pageAddr, idx, row, 0);
+    }
 
-                    if (c != 0)
-                        return fixSort(c, col.sortType);
-                }
+    /**
+     * Compares the stored row with the search row.
+     *
+     * @param io IO.
+     * @param pageAddr Page address.
+     * @param idx Item index.
+     * @param row Search row.
+     * @param from Index of the first column, which is not compared by inlined values.
+     * @return Comparison result.
+     * @throws IgniteCheckedException If failed.
+     */
+    private int compareNotInlined(BPlusIO<H2Row> io, long pageAddr, int idx, H2Row row, int from)
+        throws IgniteCheckedException {
+        inlineSizeRecomendation(row);
+
+        SearchRow rowData = getRow(io, pageAddr, idx);
 
+        for (int i = from, len = cols.length; i < len; i++) {
+            IndexColumn col = cols[i];
+            int idx0 = col.column.getColumnId();
+
+            Value v2 = row.getValue(idx0);
+
+            if (v2 == null) {
+                // Can't compare further.
                 return mvccCompare((H2RowLinkIO)io, pageAddr, idx, row);
             }
+
+            Value v1 = rowData.getValue(idx0);
+
+            int c = compareValues(v1, v2);
+
+            if (c != 0)
+                return fixSort(c, col.sortType);
         }
-        catch (DbException ex) {
-            throw new IgniteCheckedException("Rows cannot be compared", ex);
-        }
+
+        return mvccCompare((H2RowLinkIO)io, pageAddr, idx, row);
     }
 
     /**
@@ -731,6 +858,47 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         return -Long.compare(r1.mvccCounter(), r2.mvccCounter());
     }
 
+    /**
+     * Samples the size which is required to inline the key of the row completely, see
+     * {@link #inlineSizeStatistics()}. Sampling is throttled as the inline size recommendation.
+     *
+     * @param row Row being put.
+     */
+    public void sampleInlineSize(H2Row row) {
+        if (inlineIdxs.isEmpty())
+            return;
+
+        long cnt = inlineSizeSamplingCntr.get() + 1;
+
+        inlineSizeSamplingCntr.set(cnt);
+
+        if (cnt % inlineSizeThrottleThreshold == 0)
+            inlineSizeStats.onSample(requiredInlineSize(row));
+    }
+
+    /**
+     * @return Sampled sizes which are required to inline keys completely.
+     */
+    public InlineSizeStatistics inlineSizeStatistics() {
+        return inlineSizeStats;
+    }
+
+    /**
+     * @param row Row.
+     * @return Inline size which is required to inline the key of the row completely.
+     */
+    private int requiredInlineSize(SearchRow row) {
+        if (inlineKey != null)
+            return inlineKey.inlineSizeOf(row);
+
+        int size = 0;
+
+        for (InlineIndexColumn idx : inlineIdxs)
+            size += idx.inlineSizeOf(row.getValue(idx.columnIndex()));
+
+        return size;
+    }
+
     /**
      * Calculate aggregate inline size for given indexes and log recommendation in case calculated size more than
      * current inline size.
@@ -752,18 +920,15 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         if (throttle)
             return;
 
-        int newSize = 0;
-
-        InlineIndexColumn idx;
+        int newSize = requiredInlineSize(row);
 
         List<String> colNames = new ArrayList<>();
 
-        for (InlineIndexColumn index : inlineIdxs) {
-            idx = index;
-
-            newSize += idx.inlineSizeOf(row.getValue(idx.columnIndex()));
-
-            colNames.add(index.columnName());
+        if (inlineKey != null)
+            colNames.addAll(inlineKey.columnNames());
+        else {
+            for (InlineIndexColumn index : inlineIdxs)
+                colNames.add(index.columnName());
         }
 
         if (newSize > inlineSize()) {
@@ -849,6 +1014,12 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         /** */
         boolean inlineObjHash;
 
+        /** */
+        boolean inlinePrefixCompression;
+
+        /** */
+        boolean inlineNormalizedKeys;
+
         /** */
         IgniteProductVersion createdVer;
 
@@ -864,6 +1035,8 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
             if (flagsSupported) {
                 inlineObjSupported = io.inlineObjectSupported(pageAddr);
                 inlineObjHash = io.inlineObjectHash(pageAddr);
+                inlinePrefixCompression = io.inlinePrefixCompression(pageAddr);
+                inlineNormalizedKeys = io.inlineNormalizedKeys(pageAddr);
             }
 
             createdVer = io.createdVersion(pageAddr);
@@ -903,6 +1076,20 @@ public class H2Tree extends BPlusTree<H2Row, H2Row> {
         public boolean inlineObjectHash() {
             return inlineObjHash;
         }
+
+        /**
+         * @return {@code true} In case inlined values are compressed with a common prefix of a page.
+         */
+        public boolean inlinePrefixCompression() {
+            return inlinePrefixCompression;
+        }
+
+        /**
+         * @return {@code true} In case all columns are inlined as a single normalized key.
+         */
+        public boolean inlineNormalizedKeys() {
+            return inlineNormalizedKeys;
+        }
     }
 
     /**
@@ -18,6 +18,7 @@
 package org.apache.ignite.internal.processors.query.h2.database;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -35,6 +36,7 @@ import org.apache.ignite.cluster.ClusterNode;
 import org.apache.ignite.failure.FailureContext;
 import org.apache.ignite.internal.GridKernalContext;
 import org.apache.ignite.internal.GridTopic;
+import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.managers.communication.GridIoPolicy;
 import org.apache.ignite.internal.managers.communication.GridMessageListener;
 import org.apache.ignite.internal.metric.IoStatisticsHolder;
@@ -44,10 +46,12 @@ import org.apache.ignite.internal.pagemem.wal.IgniteWriteAheadLogManager;
 import org.apache.ignite.internal.processors.cache.GridCacheContext;
 import org.apache.ignite.internal.processors.cache.IgniteCacheOffheapManager;
 import org.apache.ignite.internal.processors.cache.mvcc.MvccSnapshot;
+import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
 import org.apache.ignite.internal.processors.cache.persistence.IgniteCacheDatabaseSharedManager;
 import org.apache.ignite.internal.processors.cache.persistence.RootPage;
 import org.apache.ignite.internal.processors.cache.persistence.metastorage.pendingtask.DurableBackgroundTask;
 import org.apache.ignite.internal.processors.cache.persistence.tree.BPlusTree;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
 import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIoResolver;
 import org.apache.ignite.internal.processors.cache.persistence.tree.reuse.ReuseList;
 import org.apache.ignite.internal.processors.failure.FailureProcessor;
@@ -79,11 +83,15 @@ import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2RowRange
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2RowRangeBounds;
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessage;
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessageFactory;
+import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheVisitorClosure;
+import org.apache.ignite.internal.processors.query.schema.SchemaIndexCacheVisitorImpl;
+import org.apache.ignite.internal.processors.query.schema.SchemaIndexOperationCancellationToken;
 import org.apache.ignite.internal.processors.tracing.MTC;
 import org.apache.ignite.internal.processors.tracing.MTC.TraceSurroundings;
 import org.apache.ignite.internal.processors.tracing.Span;
 import org.apache.ignite.internal.util.GridSpinBusyLock;
 import org.apache.ignite.internal.util.IgniteTree;
+import org.apache.ignite.internal.util.future.GridFutureAdapter;
 import org.apache.ignite.internal.util.lang.GridCursor;
 import org.apache.ignite.internal.util.typedef.CIX2;
 import org.apache.ignite.internal.util.typedef.internal.U;
@@ -125,8 +133,11 @@ import static org.h2.result.Row.MEMORY_CALCULATE;
  */
 @SuppressWarnings({"TypeMayBeWeakened", "unchecked"})
 public class H2TreeIndex extends H2TreeIndexBase {
-    /** */
-    private final H2Tree[] segments;
+    /** Suffix of the name of the trees which are built when the inline size is changed. */
+    private static final String INLINE_SIZE_CHANGE_TREE_SUFFIX = "%inlineSizeChange";
+
+    /** Trees of the segments, which are replaced when the inline size is changed. */
+    private volatile H2Tree[] segments;
 
     /** Kernal context. */
     private final GridKernalContext ctx;
@@ -171,6 +182,12 @@ public class H2TreeIndex extends H2TreeIndexBase {
     /** If {code true} then this index is already marked as destroyed. */
     private final AtomicBoolean destroyed = new AtomicBoolean();
 
+    /** Factory of the trees of the segments. */
+    private final SegmentsFactory segmentsFactory;
+
+    /** Change of the inline size in progress, {@code null} if none. */
+    private volatile @Nullable InlineSizeChange inlineSizeChange;
+
     /**
      * @param cctx Cache context.
      * @param tbl Table.
@@ -178,6 +195,7 @@ public class H2TreeIndex extends H2TreeIndexBase {
      * @param pk Primary key.
      * @param treeName Tree name.
      * @param segments Tree segments.
+     * @param segmentsFactory Factory of the trees of the segments.
      * @param cols Columns.
      * @param log Logger.
      */
@@ -188,6 +206,7 @@ public class H2TreeIndex extends H2TreeIndexBase {
         boolean pk,
         String treeName,
         H2Tree[] segments,
+        SegmentsFactory segmentsFactory,
         IoStatisticsHolderIndex stats,
         IndexColumn[] cols,
         IgniteLogger log
@@ -206,6 +225,7 @@ public class H2TreeIndex extends H2TreeIndexBase {
         this.treeName = treeName;
 
         this.segments = segments;
+        this.segmentsFactory = segmentsFactory;
         this.stats = stats;
 
         qryCtxRegistry = ((IgniteH2Indexing)(ctx.query().getIndexing())).queryContextRegistry();
@@ -293,8 +313,6 @@ public class H2TreeIndex extends H2TreeIndexBase {
 
         assert cctx.affinityNode();
 
-        H2Tree[] segments = new H2Tree[segmentsCnt];
-
         IgniteCacheDatabaseSharedManager db = cctx.shared().database();
 
         AtomicInteger maxCalculatedInlineSize = new AtomicInteger();
@@ -308,52 +326,65 @@ public class H2TreeIndex extends H2TreeIndexBase {
 
         InlineIndexColumnFactory idxHelperFactory = new InlineIndexColumnFactory(tbl.getCompareMode());
 
-        for (int i = 0; i < segments.length; i++) {
-            db.checkpointReadLock();
+        SegmentsFactory segmentsFactory = (name, size) -> {
+            H2Tree[] segments = new H2Tree[segmentsCnt];
 
-            try {
-                RootPage page = getMetaPage(offheap, cctx, treeName, i);
-
-                segments[i] = h2TreeFactory.create(
-                    cctx,
-                    tbl,
-                    treeName,
-                    idxName,
-                    tbl.getName(),
-                    tbl.cacheName(),
-                    offheap.reuseListForIndex(treeName),
-                    cctx.groupId(),
-                    cctx.group().name(),
-                    pageMemory,
-                    cctx.shared().wal(),
-                    offheap.globalRemoveId(),
-                    page.pageId().pageId(),
-                    page.isAllocated(),
-                    unwrappedCols,
-                    wrappedCols,
-                    maxCalculatedInlineSize,
-                    pk,
-                    affinityKey,
-                    cctx.mvccEnabled(),
-                    rowCache,
-                    cctx.kernalContext().failure(),
-                    log,
-                    stats,
-                    idxHelperFactory,
-                    inlineSize,
-                    pageIoRslvr
-                );
-            }
-            finally {
-                db.checkpointReadUnlock();
+            for (int i = 0; i < segments.length; i++) {
+                db.checkpointReadLock();
+
+                try {
+                    RootPage page = getMetaPage(offheap, cctx, name, i);
+
+                    segments[i] = h2TreeFactory.create(
+                        cctx,
+                        tbl,
+                        name,
+                        idxName,
+                        tbl.getName(),
+                        tbl.cacheName(),
+                        offheap.reuseListForIndex(name),
+                        cctx.groupId(),
+                        cctx.group().name(),
+                        pageMemory,
+                        cctx.shared().wal(),
+                        offheap.globalRemoveId(),
+                        page.pageId().pageId(),
+                        page.isAllocated(),
+                        unwrappedCols,
+                        wrappedCols,
+                        maxCalculatedInlineSize,
+                        pk,
+                        affinityKey,
+                        cctx.mvccEnabled(),
+                        rowCache,
+                        cctx.kernalContext().failure(),
+                        log,
+                        stats,
+                        idxHelperFactory,
+                        size,
+                        pageIoRslvr
+                    );
+                }
+                finally {
+                    db.checkpointReadUnlock();
+                }
             }
-        }
+
+            return segments;
+        };
+
+        H2Tree[] segments = segmentsFactory.create(treeName, inlineSize);
 
         IndexColumn[] cols = segments[0].cols();
 
         IndexColumn.mapColumns(cols, tbl);
 
-        return new H2TreeIndex(cctx, tbl, idxName, pk, treeName, segments, stats, cols, log);
+        H2TreeIndex idx = new H2TreeIndex(cctx, tbl, idxName, pk, treeName, segments, segmentsFactory, stats, cols,
+            log);
+
+        idx.dropInterruptedInlineSizeChange();
+
+        return idx;
     }
 
     /** {@inheritDoc} */
@@ -449,7 +480,19 @@ public class H2TreeIndex extends H2TreeIndexBase {
 
             assert cctx.shared().database().checkpointLockIsHeldByThread();
 
-            return (H2CacheRow)tree.put(row);
+            tree.sampleInlineSize(row);
+
+            H2CacheRow res = (H2CacheRow)tree.put(row);
+
+            H2Tree newTree = changingTree(seg);
+
+            if (newTree != null) {
+                InlineIndexColumnFactory.setCurrentInlineIndexes(newTree.inlineIndexes());
+
+                newTree.putx(row);
+            }
+
+            return res;
         }
         catch (Throwable t) {
             ctx.failure().process(new FailureContext(CRITICAL_ERROR, t));
@@ -483,7 +526,95 @@ public class H2TreeIndex extends H2TreeIndexBase {
 
             assert cctx.shared().database().checkpointLockIsHeldByThread();
 
-            return tree.putx(row);
+            tree.sampleInlineSize(row);
+
+            boolean res = tree.putx(row);
+
+            H2Tree newTree = changingTree(seg);
+
+            if (newTree != null) {
+                InlineIndexColumnFactory.setCurrentInlineIndexes(newTree.inlineIndexes());
+
+                newTree.putx(row);
+            }
+
+            return res;
+        }
+        catch (Throwable t) {
+            ctx.failure().process(new FailureContext(CRITICAL_ERROR, t));
+
+            throw DbException.convert(t);
+        }
+        finally {
+            InlineIndexColumnFactory.clearCurrentInlineIndexes();
+        }
+    }
+
+    /**
+     * Sorts rows in the index order and puts them segment by segment with {@link #putAll(int, Collection)}.
+     *
+     * @param rows Rows, the list is reordered.
+     * @return Number of written leaf pages.
+     */
+    public long putAll(List<H2CacheRow> rows) {
+        long pages = 0;
+
+        for (int seg = 0; seg < segments.length; seg++) {
+            List<H2CacheRow> segRows = rows;
+
+            if (segments.length > 1) {
+                segRows = new ArrayList<>();
+
+                for (H2CacheRow row : rows) {
+                    if (segmentForRow(cctx, row) == seg)
+                        segRows.add(row);
+                }
+
+                if (segRows.isEmpty())
+                    continue;
+            }
+
+            segRows.sort(segments[seg]::compareRows);
+
+            pages += putAll(seg, segRows);
+        }
+
+        return pages;
+    }
+
+    /**
+     * Puts rows of an index segment sorted in the index order with a single descent per leaf page in the best case.
+     *
+     * @param seg Segment ID.
+     * @param rows Rows of the segment sorted in the index order.
+     * @return Number of written leaf pages.
+     * @see BPlusTree#putAll
+     */
+    public long putAll(int seg, Collection<? extends H2CacheRow> rows) {
+        for (H2CacheRow row : rows)
+            validateRowFields(row);
+
+        try {
+            H2Tree tree = treeForRead(seg);
+
+            InlineIndexColumnFactory.setCurrentInlineIndexes(tree.inlineIndexes());
+
+            assert cctx.shared().database().checkpointLockIsHeldByThread();
+
+            for (H2CacheRow row : rows)
+                tree.sampleInlineSize(row);
+
+            long pages = tree.putAll(rows.iterator(), null);
+
+            H2Tree newTree = changingTree(seg);
+
+            if (newTree != null) {
+                InlineIndexColumnFactory.setCurrentInlineIndexes(newTree.inlineIndexes());
+
+                newTree.putAll(rows.iterator(), null);
+            }
+
+            return pages;
         }
         catch (Throwable t) {
             ctx.failure().process(new FailureContext(CRITICAL_ERROR, t));
@@ -508,7 +639,17 @@ public class H2TreeIndex extends H2TreeIndexBase {
 
             assert cctx.shared().database().checkpointLockIsHeldByThread();
 
-            return tree.removex((H2Row)row);
+            boolean res = tree.removex((H2Row)row);
+
+            H2Tree newTree = changingTree(seg);
+
+            if (newTree != null) {
+                InlineIndexColumnFactory.setCurrentInlineIndexes(newTree.inlineIndexes());
+
+                newTree.removex((H2Row)row);
+            }
+
+            return res;
         }
         catch (Throwable t) {
             ctx.failure().process(new FailureContext(CRITICAL_ERROR, t));
@@ -567,44 +708,31 @@ public class H2TreeIndex extends H2TreeIndexBase {
 
     /** {@inheritDoc} */
     @Override public void destroy(boolean rmvIdx) {
-        if (!markDestroyed())
-            return;
+        InlineSizeChange change;
 
-        try {
-            if (cctx.affinityNode() && rmvIdx) {
-                List<Long> rootPages = new ArrayList<>(segments.length);
-                List<H2Tree> trees = new ArrayList<>(segments.length);
+        // Synchronized with the start of an inline size change, so that the trees of the change are not missed.
+        synchronized (segmentsFactory) {
+            if (!markDestroyed())
+                return;
 
-                cctx.shared().database().checkpointReadLock();
+            change = inlineSizeChange;
 
-                try {
-                    for (int i = 0; i < segments.length; i++) {
-                        H2Tree tree = segments[i];
+            inlineSizeChange = null;
+        }
 
-                        tree.markDestroyed();
+        try {
+            if (change != null)
+                change.cancelTok.cancel();
 
-                        rootPages.add(tree.getMetaPageId());
-                        trees.add(tree);
+            if (cctx.affinityNode() && rmvIdx) {
+                dropTrees(treeName, segments);
 
-                        dropMetaPage(i);
-                    }
-                }
-                finally {
-                    cctx.shared().database().checkpointReadUnlock();
-                }
+                if (change != null)
+                    dropTrees(treeName + INLINE_SIZE_CHANGE_TREE_SUFFIX, change.trees);
+                else
+                    dropInterruptedInlineSizeChange();
 
                 ctx.metric().remove(stats.metricRegistryName());
-
-                DurableBackgroundTask task = new DurableBackgroundCleanupIndexTreeTask(
-                    rootPages,
-                    trees,
-                    cctx.group().name(),
-                    cctx.cache().name(),
-                    table.getSchema().getName(),
-                    idxName
-                );
-
-                cctx.kernalContext().durableBackgroundTasksProcessor().startDurableBackgroundTask(task, cctx.config());
             }
         }
         catch (IgniteCheckedException e) {
@@ -616,6 +744,232 @@ public class H2TreeIndex extends H2TreeIndexBase {
         }
     }
 
+    /**
+     * Drops the root pages of the trees and destroys the trees in the background.
+     *
+     * @param name Name of the trees, {@code null} if the root pages are already dropped.
+     * @param trees Trees of the segments.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void dropTrees(@Nullable String name, H2Tree[] trees) throws IgniteCheckedException {
+        List<Long> rootPages = new ArrayList<>(trees.length);
+
+        cctx.shared().database().checkpointReadLock();
+
+        try {
+            for (int i = 0; i < trees.length; i++) {
+                H2Tree tree = trees[i];
+
+                tree.markDestroyed();
+
+                rootPages.add(tree.getMetaPageId());
+
+                if (name != null)
+                    dropMetaPage(name, i);
+            }
+        }
+        finally {
+            cctx.shared().database().checkpointReadUnlock();
+        }
+
+        startCleanupTask(rootPages, new ArrayList<>(Arrays.asList(trees)));
+    }
+
+    /**
+     * Drops the trees with the new inline size, which are left in the index storage by a change of the inline size
+     * interrupted by a node stop.
+     *
+     * @throws IgniteCheckedException If failed.
+     */
+    private void dropInterruptedInlineSizeChange() throws IgniteCheckedException {
+        String name = treeName + INLINE_SIZE_CHANGE_TREE_SUFFIX;
+
+        List<Long> rootPages = new ArrayList<>();
+
+        cctx.shared().database().checkpointReadLock();
+
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                RootPage page = cctx.offheap().dropRootPageForIndex(cctx.cacheId(), name, i);
+
+                if (page != null)
+                    rootPages.add(page.pageId().pageId());
+            }
+        }
+        finally {
+            cctx.shared().database().checkpointReadUnlock();
+        }
+
+        if (rootPages.isEmpty())
+            return;
+
+        if (log.isInfoEnabled()) {
+            log.info("Dropping the trees of an interrupted change of the index inline size [cacheName=" +
+                cctx.name() + ", tblName=" + tblName + ", idxName=" + idxName + ']');
+        }
+
+        // The trees are restored from the root pages by the task.
+        startCleanupTask(rootPages, null);
+    }
+
+    /**
+     * Starts the durable background destruction of the trees, which root pages are dropped.
+     *
+     * @param rootPages Root pages of the trees.
+     * @param trees Trees or {@code null} if they should be restored from the root pages.
+     */
+    private void startCleanupTask(List<Long> rootPages, @Nullable List<H2Tree> trees) {
+        DurableBackgroundTask task = new DurableBackgroundCleanupIndexTreeTask(
+            rootPages,
+            trees,
+            cctx.group().name(),
+            cctx.cache().name(),
+            table.getSchema().getName(),
+            idxName
+        );
+
+        cctx.kernalContext().durableBackgroundTasksProcessor().startDurableBackgroundTask(task, cctx.config());
+    }
+
+    /**
+     * @return Sampled sizes which are required to inline keys of the index completely.
+     */
+    public InlineSizeStatistics inlineSizeStatistics() {
+        InlineSizeStatistics res = new InlineSizeStatistics();
+
+        for (H2Tree tree : segments)
+            res.merge(tree.inlineSizeStatistics());
+
+        return res;
+    }
+
+    /**
+     * @return Inline size the index is being rebuilt with or {@code -1} if the inline size is not being changed.
+     */
+    public int newInlineSize() {
+        InlineSizeChange change = inlineSizeChange;
+
+        return change != null ? change.inlineSize : -1;
+    }
+
+    /**
+     * Changes the inline size of the index on this node without downtime. Trees with the new inline size are built
+     * from the cache data in the background, while the index is used and updated. Then they replace the current
+     * trees under the exclusive lock of the table. The inline size of the index configuration is not changed, but
+     * the trees keep the new inline size after a restart.
+     *
+     * @param inlineSize New inline size.
+     * @return Future which is completed when the trees with the new inline size are used.
+     * @throws IgniteCheckedException If failed.
+     */
+    public IgniteInternalFuture<Void> changeInlineSize(int inlineSize) throws IgniteCheckedException {
+        if (inlineSize < 0 || inlineSize > PageIO.MAX_PAYLOAD_SIZE) {
+            throw new IgniteCheckedException("Inline size should be between 0 and " + PageIO.MAX_PAYLOAD_SIZE +
+                " [inlineSize=" + inlineSize + ']');
+        }
+
+        String name = treeName + INLINE_SIZE_CHANGE_TREE_SUFFIX;
+
+        InlineSizeChange change;
+
+        synchronized (segmentsFactory) {
+            if (destroyed.get())
+                throw new IgniteCheckedException("Index is destroyed [idxName=" + idxName + ']');
+
+            if (inlineSizeChange != null) {
+                throw new IgniteCheckedException("Inline size of the index is already being changed [idxName=" +
+                    idxName + ", newInlineSize=" + inlineSizeChange.inlineSize + ']');
+            }
+
+            // Trees of a change, which was interrupted by a node stop, are dropped on the index creation.
+            H2Tree[] trees = segmentsFactory.create(name, inlineSize);
+
+            change = new InlineSizeChange(trees, inlineSize);
+
+            inlineSizeChange = change;
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("Started the change of the index inline size [cacheName=" + cctx.name() + ", tblName=" +
+                tblName + ", idxName=" + idxName + ", inlineSize=" + inlineSize() + ", newInlineSize=" +
+                inlineSize + ']');
+        }
+
+        GridFutureAdapter<Void> buildFut = new GridFutureAdapter<>();
+
+        buildFut.listen(f -> onInlineSizeChangeBuilt(change, f.error()));
+
+        new SchemaIndexCacheVisitorImpl(cctx, change.cancelTok, buildFut).visit(change);
+
+        return change.fut;
+    }
+
+    /**
+     * Replaces the trees with the built trees of the new inline size or drops the built trees on an error.
+     *
+     * @param change Change of the inline size.
+     * @param err Error of the build.
+     */
+    private void onInlineSizeChangeBuilt(InlineSizeChange change, @Nullable Throwable err) {
+        String name = treeName + INLINE_SIZE_CHANGE_TREE_SUFFIX;
+
+        try {
+            getTable().runExclusively(() -> {
+                // The index is destroyed, the trees are dropped with it.
+                if (inlineSizeChange != change)
+                    return;
+
+                inlineSizeChange = null;
+
+                if (err != null || change.cancelTok.isCancelled()) {
+                    dropTrees(name, change.trees);
+
+                    return;
+                }
+
+                H2Tree[] oldTrees = segments;
+
+                cctx.shared().database().checkpointReadLock();
+
+                try {
+                    for (int i = 0; i < oldTrees.length; i++)
+                        cctx.offheap().renameRootPageForIndex(cctx.cacheId(), name, treeName, i);
+                }
+                finally {
+                    cctx.shared().database().checkpointReadUnlock();
+                }
+
+                segments = change.trees;
+
+                dropTrees(null, oldTrees);
+            });
+        }
+        catch (Throwable e) {
+            change.fut.onDone(e);
+
+            return;
+        }
+
+        if (err != null)
+            U.error(log, "Failed to change the index inline size [idxName=" + idxName + ']', err);
+        else if (log.isInfoEnabled()) {
+            log.info("Finished the change of the index inline size [cacheName=" + cctx.name() + ", tblName=" +
+                tblName + ", idxName=" + idxName + ", inlineSize=" + inlineSize() + ']');
+        }
+
+        change.fut.onDone(err);
+    }
+
+    /**
+     * @param seg Segment ID.
+     * @return Tree of the segment with the new inline size, which is being built, or {@code null}.
+     */
+    private @Nullable H2Tree changingTree(int seg) {
+        InlineSizeChange change = inlineSizeChange;
+
+        return change != null ? change.trees[seg] : null;
+    }
+
     /**
      * @param segment Segment Id.
      * @return Snapshot for requested segment if there is one.
@@ -660,10 +1014,11 @@ public class H2TreeIndex extends H2TreeIndexBase {
     }
 
     /**
+     * @param treeName Tree name.
      * @param segIdx Segment index.
      * @throws IgniteCheckedException If failed.
      */
-    private void dropMetaPage(int segIdx) throws IgniteCheckedException {
+    private void dropMetaPage(String treeName, int segIdx) throws IgniteCheckedException {
         cctx.offheap().dropRootPageForIndex(cctx.cacheId(), treeName, segIdx);
     }
 
@@ -1014,6 +1369,67 @@ public class H2TreeIndex extends H2TreeIndexBase {
         return destroyed.compareAndSet(false, true);
     }
 
+    /**
+     * Factory of the trees of the segments.
+     */
+    @FunctionalInterface
+    private interface SegmentsFactory {
+        /**
+         * @param treeName Tree name.
+         * @param inlineSize Inline size of new trees.
+         * @return Trees of the segments, which are created or restored.
+         * @throws IgniteCheckedException If failed.
+         */
+        public H2Tree[] create(String treeName, int inlineSize) throws IgniteCheckedException;
+    }
+
+    /**
+     * Change of the inline size, which puts the cache data to the trees with the new inline size.
+     */
+    private class InlineSizeChange implements SchemaIndexCacheVisitorClosure {
+        /** Trees of the segments with the new inline size. */
+        private final H2Tree[] trees;
+
+        /** New inline size. */
+        private final int inlineSize;
+
+        /** Cancellation token. */
+        private final SchemaIndexOperationCancellationToken cancelTok = new SchemaIndexOperationCancellationToken();
+
+        /** Future which is completed when the trees with the new inline size are used. */
+        private final GridFutureAdapter<Void> fut = new GridFutureAdapter<>();
+
+        /**
+         * @param trees Trees of the segments with the new inline size.
+         * @param inlineSize New inline size.
+         */
+        private InlineSizeChange(H2Tree[] trees, int inlineSize) {
+            this.trees = trees;
+            this.inlineSize = inlineSize;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void apply(CacheDataRow row) throws IgniteCheckedException {
+            GridH2Table tbl = getTable();
+
+            if (!ctx.query().belongsToTable(cctx, tbl.cacheName(), tbl.getName(), row.key(), row.value()))
+                return;
+
+            H2CacheRow row0 = tbl.rowDescriptor().createRow(row);
+
+            H2Tree tree = trees[segmentForRow(cctx, row0)];
+
+            InlineIndexColumnFactory.setCurrentInlineIndexes(tree.inlineIndexes());
+
+            try {
+                tree.putx(row0);
+            }
+            finally {
+                InlineIndexColumnFactory.clearCurrentInlineIndexes();
+            }
+        }
+    }
+
     /**
      * Interface for {@link H2Tree} factory class.
      */
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.query.h2.database;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.util.typedef.internal.S;
+
+/**
+ * Sampled sizes which are required to inline keys of an index completely.
+ */
+public class InlineSizeStatistics {
+    /** Ratio of the sampled keys which are inlined completely with the recommended inline size. */
+    public static final double RECOMMENDED_INLINED_KEYS_RATIO = 0.95;
+
+    /** Number of samples by size. Keys of an index usually have a few distinct sizes. */
+    private final ConcurrentMap<Integer, LongAdder> samples = new ConcurrentHashMap<>();
+
+    /**
+     * @param size Size which is required to inline a key completely.
+     */
+    public void onSample(int size) {
+        samples.computeIfAbsent(Math.min(size, PageIO.MAX_PAYLOAD_SIZE), s -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param other Statistics to add to this one.
+     * @return {@code this} for chaining.
+     */
+    public InlineSizeStatistics merge(InlineSizeStatistics other) {
+        for (Map.Entry<Integer, LongAdder> e : other.samples.entrySet())
+            samples.computeIfAbsent(e.getKey(), s -> new LongAdder()).add(e.getValue().sum());
+
+        return this;
+    }
+
+    /**
+     * @return Number of sampled keys.
+     */
+    public long samples() {
+        long cnt = 0;
+
+        for (LongAdder a : samples.values())
+            cnt += a.sum();
+
+        return cnt;
+    }
+
+    /**
+     * @param inlineSize Inline size.
+     * @return Number of sampled keys which are inlined completely with the inline size.
+     */
+    public long inlinedSamples(int inlineSize) {
+        long cnt = 0;
+
+        for (Map.Entry<Integer, LongAdder> e : samples.entrySet()) {
+            if (e.getKey() <= inlineSize)
+                cnt += e.getValue().sum();
+        }
+
+        return cnt;
+    }
+
+    /**
+     * @param curInlineSize Current inline size, which is recommended if there are no samples.
+     * @return The least inline size with which {@link #RECOMMENDED_INLINED_KEYS_RATIO} of the sampled keys are
+     * inlined completely.
+     */
+    public int recommendedInlineSize(int curInlineSize) {
+        TreeMap<Integer, Long> sorted = new TreeMap<>();
+
+        long total = 0;
+
+        for (Map.Entry<Integer, LongAdder> e : samples.entrySet()) {
+            long cnt = e.getValue().sum();
+
+            sorted.put(e.getKey(), cnt);
+
+            total += cnt;
+        }
+
+        if (total == 0)
+            return curInlineSize;
+
+        long cnt = 0;
+
+        for (Map.Entry<Integer, Long> e : sorted.entrySet()) {
+            cnt += e.getValue();
+
+            if (cnt >= total * RECOMMENDED_INLINED_KEYS_RATIO)
+                return e.getKey();
+        }
+
+        return sorted.lastKey();
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(InlineSizeStatistics.class, this);
+    }
+}
@@ -0,0 +1,743 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.query.h2.database.inlinecolumn;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.ignite.internal.pagemem.PageUtils;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.processors.query.h2.database.InlineIndexColumn;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.h2.result.SearchRow;
+import org.h2.result.SortOrder;
+import org.h2.table.IndexColumn;
+import org.h2.value.CompareMode;
+import org.h2.value.Value;
+import org.h2.value.ValueDate;
+import org.h2.value.ValueTime;
+import org.h2.value.ValueTimestamp;
+import org.h2.value.ValueUuid;
+import org.jetbrains.annotations.Nullable;
+
+import static org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.AbstractInlineIndexColumn.CANT_BE_COMPARE;
+
+/**
+ * Inlines all columns of an index as a single normalized key. Normalized keys are compared as unsigned bytes in the
+ * same order as the rows are compared by the index, so a comparison of an inlined key is a single byte array
+ * comparison, and a row is read only if its key is truncated and equals the inlined part.
+ * <p>
+ * Inlined key consists of the length of the key (2 bytes, the high bit is set if the key is truncated) and the key.
+ * The key is a concatenation of encoded values of the columns, the bytes of a column in descending order are
+ * inverted. An encoded value starts with a byte which sorts {@code NULL} before other values. Fixed length values
+ * are stored in big-endian order with the sign bit inverted, strings and byte arrays are escaped and terminated,
+ * so no encoded value is a prefix of another one.
+ */
+public class NormalizedKeyInlineIndexColumn implements InlineIndexColumn {
+    /** Min inline size, a key of a single not {@code NULL} value and its length. */
+    public static final int MIN_INLINE_SIZE = 4;
+
+    /** Types which values can be normalized. */
+    private static final int[] SUPPORTED_TYPES = {
+        Value.BOOLEAN,
+        Value.BYTE,
+        Value.SHORT,
+        Value.INT,
+        Value.LONG,
+        Value.FLOAT,
+        Value.DOUBLE,
+        Value.DATE,
+        Value.TIME,
+        Value.TIMESTAMP,
+        Value.UUID,
+        Value.STRING,
+        Value.STRING_FIXED,
+        Value.STRING_IGNORECASE,
+        Value.BYTES
+    };
+
+    /** Truncated key flag of the length. */
+    private static final int TRUNCATED = 0x8000;
+
+    /** */
+    private static final byte NULL_MARKER = 0;
+
+    /** */
+    private static final byte NOT_NULL_MARKER = 1;
+
+    /** Inline columns. */
+    private final InlineIndexColumn[] cols;
+
+    /** Descending order flags of the columns. */
+    private final boolean[] desc;
+
+    /** Compare byte arrays as unsigned. */
+    private final boolean binaryUnsigned;
+
+    /** Last search key of the current thread. */
+    private final ThreadLocal<SearchKey> searchKey = ThreadLocal.withInitial(SearchKey::new);
+
+    /** Encoded key of a stored row of the current thread. */
+    private final ThreadLocal<KeyWriter> rowKey = ThreadLocal.withInitial(() -> new KeyWriter(PageIO.MAX_PAYLOAD_SIZE));
+
+    /**
+     * @param cols Inline columns.
+     * @param desc Descending order flags of the columns.
+     * @param binaryUnsigned Compare byte arrays as unsigned.
+     */
+    private NormalizedKeyInlineIndexColumn(InlineIndexColumn[] cols, boolean[] desc, boolean binaryUnsigned) {
+        this.cols = cols;
+        this.desc = desc;
+        this.binaryUnsigned = binaryUnsigned;
+    }
+
+    /**
+     * @param inlineIdxs Inline columns.
+     * @param idxCols Index columns.
+     * @param mode Compare mode of the table.
+     * @return Normalized key of the index columns or {@code null} if the columns can't be normalized.
+     */
+    public static @Nullable NormalizedKeyInlineIndexColumn create(
+        List<InlineIndexColumn> inlineIdxs,
+        IndexColumn[] idxCols,
+        CompareMode mode
+    ) {
+        // Strings are compared by a collator otherwise.
+        if (inlineIdxs.size() != idxCols.length || !CompareMode.OFF.equals(mode.getName()))
+            return null;
+
+        InlineIndexColumn[] cols = new InlineIndexColumn[idxCols.length];
+        boolean[] desc = new boolean[idxCols.length];
+
+        for (int i = 0; i < idxCols.length; i++) {
+            InlineIndexColumn col = inlineIdxs.get(i);
+
+            if (col.columnIndex() != idxCols[i].column.getColumnId() || !supported(col.type()))
+                return null;
+
+            cols[i] = col;
+            desc[i] = idxCols[i].sortType != SortOrder.ASCENDING;
+        }
+
+        return new NormalizedKeyInlineIndexColumn(cols, desc, mode.isBinaryUnsigned());
+    }
+
+    /**
+     * @param type Value type.
+     * @return {@code True} if values of the type can be normalized.
+     */
+    private static boolean supported(int type) {
+        for (int t : SUPPORTED_TYPES) {
+            if (t == type)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return Number of the key columns.
+     */
+    public int columnsCount() {
+        return cols.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override public int type() {
+        return Value.BYTES;
+    }
+
+    /** {@inheritDoc} */
+    @Override public short size() {
+        return -1;
+    }
+
+    /** {@inheritDoc} */
+    @Override public int fullSize(long pageAddr, int off) {
+        return 2 + (PageUtils.getShort(pageAddr, off) & ~TRUNCATED & 0xFFFF);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int compare(long pageAddr, int off, int maxSize, Value v, Comparator<Value> comp) {
+        // A single value is not comparable with the key, see compare(long, int, SearchKey).
+        return CANT_BE_COMPARE;
+    }
+
+    /** {@inheritDoc} */
+    @Override public int inlineSizeOf(Value val) {
+        throw new UnsupportedOperationException("Normalized key is inlined for a row.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public int put(long pageAddr, int off, Value val, int maxSize) {
+        throw new UnsupportedOperationException("Normalized key is inlined for a row.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public String columnName() {
+        return cols[0].columnName();
+    }
+
+    /** {@inheritDoc} */
+    @Override public int columnIndex() {
+        return cols[0].columnIndex();
+    }
+
+    /**
+     * @return Names of the key columns.
+     */
+    public List<String> columnNames() {
+        return Arrays.stream(cols).map(InlineIndexColumn::columnName).collect(Collectors.toList());
+    }
+
+    /**
+     * Puts the normalized key of the row.
+     *
+     * @param pageAddr Page address.
+     * @param off Offset.
+     * @param row Row, values which are not known are {@code null}.
+     * @param maxSize Max size.
+     */
+    public void put(long pageAddr, int off, SearchRow row, int maxSize) {
+        assert maxSize >= MIN_INLINE_SIZE : maxSize;
+
+        if (row instanceof InlinedKeyRow && ((InlinedKeyRow)row).inlinedKey() != null) {
+            putInlined(pageAddr, off, ((InlinedKeyRow)row).inlinedKey(), maxSize);
+
+            return;
+        }
+
+        KeyWriter w = rowKey.get();
+
+        w.reset(maxSize - 2);
+
+        int cnt = encode(row, w);
+
+        boolean truncated = w.overflow || cnt < cols.length;
+
+        PageUtils.putShort(pageAddr, off, (short)(w.pos | (truncated ? TRUNCATED : 0)));
+
+        if (w.pos > 0)
+            PageUtils.putBytes(pageAddr, off + 2, w.buf, 0, w.pos);
+    }
+
+    /**
+     * Puts the inlined key of another page, which payload may differ.
+     *
+     * @param pageAddr Page address.
+     * @param off Offset.
+     * @param key Inlined key, see {@link #inlinedKey(long, int)}.
+     * @param maxSize Max size.
+     */
+    private void putInlined(long pageAddr, int off, byte[] key, int maxSize) {
+        int hdr = GridUnsafe.getShort(key, GridUnsafe.BYTE_ARR_OFF) & 0xFFFF;
+
+        int len = hdr & ~TRUNCATED;
+        boolean truncated = (hdr & TRUNCATED) != 0;
+
+        if (len > maxSize - 2) {
+            len = maxSize - 2;
+            truncated = true;
+        }
+
+        PageUtils.putShort(pageAddr, off, (short)(len | (truncated ? TRUNCATED : 0)));
+
+        if (len > 0)
+            PageUtils.putBytes(pageAddr, off + 2, key, 2, len);
+    }
+
+    /**
+     * @param pageAddr Page address.
+     * @param off Offset.
+     * @return Copy of the inlined key, which can be put with a row implementing {@link InlinedKeyRow}.
+     */
+    public byte[] inlinedKey(long pageAddr, int off) {
+        return PageUtils.getBytes(pageAddr, off, fullSize(pageAddr, off));
+    }
+
+    /**
+     * @param row Row.
+     * @return Inline size required to inline the whole key of the row.
+     */
+    public int inlineSizeOf(SearchRow row) {
+        KeyWriter w = new KeyWriter(-1);
+
+        encode(row, w);
+
+        return 2 + w.size;
+    }
+
+    /**
+     * Normalizes the search row. The key is cached for the current thread until the row or its values change.
+     *
+     * @param row Search row, values which are not specified are {@code null}.
+     * @param inlineSize Inline size of the tree.
+     * @return Search key or {@code null} if values of the row can't be normalized with the column types.
+     */
+    public @Nullable SearchKey searchKey(SearchRow row, int inlineSize) {
+        SearchKey key = searchKey.get();
+
+        if (matches(key, row, inlineSize))
+            return key.cols < 0 ? null : key;
+
+        key.init(row, inlineSize, cols.length);
+
+        for (int i = 0; i < cols.length; i++) {
+            Value v = row.getValue(cols[i].columnIndex());
+
+            if (v == null)
+                break;
+
+            key.vals[i] = v;
+            key.cols++;
+        }
+
+        KeyWriter w = key.writer;
+
+        // The key is compared with the inlined part only, a longer key is truncated.
+        w.reset(inlineSize - 2);
+
+        for (int i = 0; i < key.cols; i++) {
+            Value v = key.vals[i];
+
+            // Keys of values of other types are only used if the conversion is exact.
+            if (v.getType() != cols[i].type() && v.getType() != Value.NULL) {
+                try {
+                    Value v0 = v.convertTo(cols[i].type());
+
+                    if (!v0.convertTo(v.getType()).equals(v))
+                        v = null;
+                    else
+                        v = v0;
+                }
+                catch (RuntimeException ignore) {
+                    v = null;
+                }
+
+                if (v == null) {
+                    key.cols = -1;
+
+                    return null;
+                }
+            }
+
+            encode(v, i, w);
+        }
+
+        return key;
+    }
+
+    /**
+     * @param key Search key of the current thread.
+     * @param row Search row.
+     * @param inlineSize Inline size of the tree.
+     * @return {@code True} if the key was encoded for the row and its current values.
+     */
+    private boolean matches(SearchKey key, SearchRow row, int inlineSize) {
+        if (key.row != row || key.inlineSize != inlineSize)
+            return false;
+
+        for (int i = 0; i < cols.length; i++) {
+            Value v = row.getValue(cols[i].columnIndex());
+
+            // Search rows may be reused with other values.
+            if (v != key.vals[i])
+                return false;
+
+            if (v == null)
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * Compares the inlined key with the search key.
+     *
+     * @param pageAddr Page address.
+     * @param off Offset.
+     * @param key Search key.
+     * @return Comparison result, where {@code 0} means that the specified columns of the search key are equal,
+     * or {@link AbstractInlineIndexColumn#CANT_BE_COMPARE} if the row should be compared.
+     */
+    public int compare(long pageAddr, int off, SearchKey key) {
+        int hdr = PageUtils.getShort(pageAddr, off) & 0xFFFF;
+
+        int len1 = hdr & ~TRUNCATED;
+        int len2 = key.writer.pos;
+
+        int len = Math.min(len1, len2);
+
+        byte[] buf = key.writer.buf;
+
+        long addr = pageAddr + off + 2;
+
+        int i = 0;
+
+        for (; i + 8 <= len; i += 8) {
+            long l1 = GridUnsafe.getLong(addr + i);
+            long l2 = GridUnsafe.getLong(buf, GridUnsafe.BYTE_ARR_OFF + i);
+
+            if (l1 != l2) {
+                if (!GridUnsafe.BIG_ENDIAN) {
+                    l1 = Long.reverseBytes(l1);
+                    l2 = Long.reverseBytes(l2);
+                }
+
+                return Long.compareUnsigned(l1, l2) < 0 ? -1 : 1;
+            }
+        }
+
+        for (; i < len; i++) {
+            int b1 = GridUnsafe.getByte(addr + i) & 0xFF;
+            int b2 = buf[i] & 0xFF;
+
+            if (b1 != b2)
+                return b1 < b2 ? -1 : 1;
+        }
+
+        // Values are self-delimiting, so the search key is a prefix of the keys with the same values.
+        if (len2 <= len1 && !key.writer.overflow)
+            return 0;
+
+        return CANT_BE_COMPARE;
+    }
+
+    /**
+     * @param row Row.
+     * @param w Writer.
+     * @return Number of encoded values.
+     */
+    private int encode(SearchRow row, KeyWriter w) {
+        for (int i = 0; i < cols.length; i++) {
+            Value v = row.getValue(cols[i].columnIndex());
+
+            // Only inlined values of a row may be known, e.g. on defragmentation.
+            if (v == null)
+                return i;
+
+            encode(v, i, w);
+        }
+
+        return cols.length;
+    }
+
+    /**
+     * @param v Value of the column type or {@code NULL}.
+     * @param col Column index in the key.
+     * @param w Writer.
+     */
+    private void encode(Value v, int col, KeyWriter w) {
+        int start = w.pos;
+
+        if (v.getType() == Value.NULL)
+            w.put(NULL_MARKER);
+        else {
+            w.put(NOT_NULL_MARKER);
+
+            switch (cols[col].type()) {
+                case Value.BOOLEAN:
+                    w.put((byte)(v.getBoolean() ? 1 : 0));
+
+                    break;
+
+                case Value.BYTE:
+                    w.put((byte)(v.getByte() ^ 0x80));
+
+                    break;
+
+                case Value.SHORT:
+                    w.putShort((short)(v.getShort() ^ Short.MIN_VALUE));
+
+                    break;
+
+                case Value.INT:
+                    w.putInt(v.getInt() ^ Integer.MIN_VALUE);
+
+                    break;
+
+                case Value.LONG:
+                    w.putLong(v.getLong() ^ Long.MIN_VALUE);
+
+                    break;
+
+                case Value.FLOAT: {
+                    int bits = Float.floatToIntBits(v.getFloat());
+
+                    w.putInt(bits ^ ((bits >> 31) | Integer.MIN_VALUE));
+
+                    break;
+                }
+
+                case Value.DOUBLE: {
+                    long bits = Double.doubleToLongBits(v.getDouble());
+
+                    w.putLong(bits ^ ((bits >> 63) | Long.MIN_VALUE));
+
+                    break;
+                }
+
+                case Value.DATE:
+                    w.putLong(((ValueDate)v).getDateValue() ^ Long.MIN_VALUE);
+
+                    break;
+
+                case Value.TIME:
+                    w.putLong(((ValueTime)v).getNanos() ^ Long.MIN_VALUE);
+
+                    break;
+
+                case Value.TIMESTAMP:
+                    w.putLong(((ValueTimestamp)v).getDateValue() ^ Long.MIN_VALUE);
+                    w.putLong(((ValueTimestamp)v).getTimeNanos() ^ Long.MIN_VALUE);
+
+                    break;
+
+                case Value.UUID:
+                    w.putLong(((ValueUuid)v).getHigh() ^ Long.MIN_VALUE);
+                    w.putLong(((ValueUuid)v).getLow() ^ Long.MIN_VALUE);
+
+                    break;
+
+                case Value.STRING:
+                case Value.STRING_FIXED:
+                    putString(v.getString(), false, w);
+
+                    break;
+
+                case Value.STRING_IGNORECASE:
+                    putString(v.getString(), true, w);
+
+                    break;
+
+                case Value.BYTES:
+                    putBytes(v.getBytesNoCopy(), w);
+
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unsupported type: " + cols[col].type());
+            }
+        }
+
+        if (desc[col])
+            w.invert(start);
+    }
+
+    /**
+     * Encodes chars in the order of {@link String#compareTo(String)}: a char {@code c} is stored as {@code c + 1} in
+     * 1 byte if it is less than {@code 0x7F}, in 2 bytes starting with {@code 10} bits if it is less than
+     * {@code 0x407F}, or in 3 bytes starting with {@code 0xC0}. The string is terminated by {@code 0}.
+     *
+     * @param s String.
+     * @param ignoreCase Compare ignoring case as {@link String#compareToIgnoreCase(String)}.
+     * @param w Writer.
+     */
+    private static void putString(String s, boolean ignoreCase, KeyWriter w) {
+        for (int i = 0; i < s.length() && !w.overflow; i++) {
+            char c = s.charAt(i);
+
+            if (ignoreCase)
+                c = Character.toLowerCase(Character.toUpperCase(c));
+
+            if (c < 0x7F)
+                w.put((byte)(c + 1));
+            else if (c < 0x7F + 0x4000) {
+                int d = c - 0x7F;
+
+                w.put((byte)(0x80 | (d >>> 8)));
+                w.put((byte)d);
+            }
+            else {
+                w.put((byte)0xC0);
+                w.put((byte)(c >>> 8));
+                w.put((byte)c);
+            }
+        }
+
+        w.put((byte)0);
+    }
+
+    /**
+     * Escapes zero bytes as {@code 0x00 0xFF} and terminates the array by {@code 0x00 0x00}.
+     *
+     * @param bytes Bytes.
+     * @param w Writer.
+     */
+    private void putBytes(byte[] bytes, KeyWriter w) {
+        for (int i = 0; i < bytes.length && !w.overflow; i++) {
+            byte b = binaryUnsigned ? bytes[i] : (byte)(bytes[i] ^ 0x80);
+
+            w.put(b);
+
+            if (b == 0)
+                w.put((byte)0xFF);
+        }
+
+        w.put((byte)0);
+        w.put((byte)0);
+    }
+
+    /**
+     * Row which keeps its inlined normalized key, e.g. a row read from an index being defragmented.
+     */
+    public interface InlinedKeyRow {
+        /**
+         * @return Inlined key or {@code null} if it is not known.
+         */
+        @Nullable byte[] inlinedKey();
+    }
+
+    /**
+     * Normalized key of a search row.
+     */
+    public static class SearchKey {
+        /** Normalized row. */
+        private SearchRow row;
+
+        /** Values of the normalized row, {@code null} if not specified. */
+        private Value[] vals;
+
+        /** Inline size the key is encoded for. */
+        private int inlineSize;
+
+        /** Number of specified columns, {@code -1} if the row can't be normalized. */
+        private int cols;
+
+        /** */
+        private KeyWriter writer;
+
+        /**
+         * @return Number of specified columns of the search row.
+         */
+        public int columnsCount() {
+            return cols;
+        }
+
+        /**
+         * @param row Row.
+         * @param inlineSize Inline size.
+         * @param cnt Number of key columns.
+         */
+        private void init(SearchRow row, int inlineSize, int cnt) {
+            this.row = row;
+            this.inlineSize = inlineSize;
+
+            cols = 0;
+
+            if (vals == null || vals.length != cnt)
+                vals = new Value[cnt];
+            else
+                Arrays.fill(vals, null);
+
+            if (writer == null || writer.buf.length < inlineSize)
+                writer = new KeyWriter(inlineSize);
+        }
+    }
+
+    /**
+     * Writes encoded values up to the limit.
+     */
+    private static class KeyWriter {
+        /** Buffer, {@code null} if only the size is counted. */
+        private final byte[] buf;
+
+        /** Number of written bytes. */
+        private int pos;
+
+        /** Size of all the values including the ones beyond the limit. */
+        private int size;
+
+        /** Max number of written bytes. */
+        private int limit;
+
+        /** Whether values exceed the limit. */
+        private boolean overflow;
+
+        /**
+         * @param cap Capacity, {@code -1} to count the size only.
+         */
+        KeyWriter(int cap) {
+            buf = cap < 0 ? null : new byte[cap];
+            limit = Math.max(cap, 0);
+        }
+
+        /**
+         * @param limit Max number of written bytes.
+         */
+        void reset(int limit) {
+            assert buf != null && limit <= buf.length : limit;
+
+            this.limit = limit;
+
+            pos = 0;
+            size = 0;
+            overflow = false;
+        }
+
+        /**
+         * @param b Byte.
+         */
+        void put(byte b) {
+            size++;
+
+            if (buf == null)
+                return;
+
+            if (pos < limit)
+                buf[pos++] = b;
+            else
+                overflow = true;
+        }
+
+        /**
+         * @param v Value.
+         */
+        void putShort(short v) {
+            put((byte)(v >>> 8));
+            put((byte)v);
+        }
+
+        /**
+         * @param v Value.
+         */
+        void putInt(int v) {
+            putShort((short)(v >>> 16));
+            putShort((short)v);
+        }
+
+        /**
+         * @param v Value.
+         */
+        void putLong(long v) {
+            putInt((int)(v >>> 32));
+            putInt((int)v);
+        }
+
+        /**
+         * Inverts the written bytes starting from the position.
+         *
+         * @param start Start position.
+         */
+        void invert(int start) {
+            for (int i = start; i < pos; i++)
+                buf[i] = (byte)~buf[i];
+        }
+    }
+}
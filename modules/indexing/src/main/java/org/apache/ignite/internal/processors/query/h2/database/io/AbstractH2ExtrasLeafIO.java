@@ -28,8 +28,10 @@ import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
 import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
 import org.apache.ignite.internal.processors.query.h2.database.InlineIndexColumn;
 import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.InlineIndexColumnFactory;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.NormalizedKeyInlineIndexColumn;
 import org.apache.ignite.internal.processors.query.h2.opt.H2CacheRow;
 import org.apache.ignite.internal.processors.query.h2.opt.H2Row;
+import org.h2.value.Value;
 
 /**
  * Leaf page for H2 row references.
@@ -52,7 +54,7 @@ public abstract class AbstractH2ExtrasLeafIO extends BPlusLeafIO<H2Row> implemen
         short type = mvcc ? PageIO.T_H2_EX_REF_MVCC_LEAF_START : PageIO.T_H2_EX_REF_LEAF_START;
 
         for (short payload = 1; payload <= PageIO.MAX_PAYLOAD_SIZE; payload++) {
-            IOVersions<? extends AbstractH2ExtrasLeafIO> io =
+            IOVersions<? extends BPlusLeafIO<H2Row>> io =
                 getVersions((short)(type + payload - 1), payload, mvcc);
 
             PageIO.registerH2ExtraLeaf(io, mvcc);
@@ -65,12 +67,43 @@ public abstract class AbstractH2ExtrasLeafIO extends BPlusLeafIO<H2Row> implemen
      * @return IOVersions for given payload.
      */
     public static IOVersions<? extends BPlusLeafIO<H2Row>> getVersions(int payload, boolean mvccEnabled) {
+        return getVersions(payload, mvccEnabled, false);
+    }
+
+    /**
+     * @param payload Payload size.
+     * @param mvccEnabled Mvcc flag.
+     * @param prefixCompression Whether new pages keep a common prefix of inlined values once per page.
+     * @return IOVersions for given payload.
+     */
+    @SuppressWarnings("unchecked")
+    public static IOVersions<? extends BPlusLeafIO<H2Row>> getVersions(
+        int payload,
+        boolean mvccEnabled,
+        boolean prefixCompression
+    ) {
         assert payload >= 0 && payload <= PageIO.MAX_PAYLOAD_SIZE;
+        assert !prefixCompression || isPrefixCompressionSupported(payload, mvccEnabled);
 
         if (payload == 0)
             return mvccEnabled ? H2MvccLeafIO.VERSIONS : H2LeafIO.VERSIONS;
-        else
-            return (IOVersions<BPlusLeafIO<H2Row>>)PageIO.getLeafVersions((short)(payload - 1), mvccEnabled);
+
+        IOVersions<BPlusLeafIO<H2Row>> ios =
+            (IOVersions<BPlusLeafIO<H2Row>>)PageIO.getLeafVersions((short)(payload - 1), mvccEnabled);
+
+        if (prefixCompression || ios.latest().getVersion() == 1)
+            return ios;
+
+        return new IOVersions<>(ios.forVersion(1));
+    }
+
+    /**
+     * @param payload Payload size.
+     * @param mvccEnabled Mvcc flag.
+     * @return {@code True} if pages can keep a common prefix of inlined values once per page.
+     */
+    public static boolean isPrefixCompressionSupported(int payload, boolean mvccEnabled) {
+        return !mvccEnabled && payload >= InlinePrefixCodec.MIN_PAYLOAD_SIZE;
     }
 
     /**
@@ -79,8 +112,15 @@ public abstract class AbstractH2ExtrasLeafIO extends BPlusLeafIO<H2Row> implemen
      * @param mvcc Mvcc flag.
      * @return Versions.
      */
-    private static IOVersions<? extends AbstractH2ExtrasLeafIO> getVersions(short type, short payload, boolean mvcc) {
-        return new IOVersions<>(mvcc ? new H2MvccExtrasLeafIO(type, 1, payload) : new H2ExtrasLeafIO(type, 1, payload));
+    private static IOVersions<? extends BPlusLeafIO<H2Row>> getVersions(short type, short payload, boolean mvcc) {
+        if (mvcc)
+            return new IOVersions<>(new H2MvccExtrasLeafIO(type, 1, payload));
+
+        // Pages with a common prefix of inlined values are read by any tree, but written by trees which use them.
+        if (payload >= InlinePrefixCodec.MIN_PAYLOAD_SIZE)
+            return new IOVersions<>(new H2ExtrasLeafIO(type, 1, payload), new H2ExtrasLeafIOV2(type, 2, payload));
+
+        return new IOVersions<>(new H2ExtrasLeafIO(type, 1, payload));
     }
 
     /**
@@ -106,17 +146,31 @@ public abstract class AbstractH2ExtrasLeafIO extends BPlusLeafIO<H2Row> implemen
 
         assert inlineIdxs != null : "no inline index helpers";
 
-        int fieldOff = 0;
+        if (inlineIdxs.size() == 1 && inlineIdxs.get(0) instanceof NormalizedKeyInlineIndexColumn)
+            ((NormalizedKeyInlineIndexColumn)inlineIdxs.get(0)).put(pageAddr, off, row, payloadSize);
+        else {
+            int fieldOff = 0;
 
-        for (int i = 0; i < inlineIdxs.size(); i++) {
-            InlineIndexColumn idx = inlineIdxs.get(i);
+            for (int i = 0; i < inlineIdxs.size(); i++) {
+                InlineIndexColumn idx = inlineIdxs.get(i);
 
-            int size = idx.put(pageAddr, off + fieldOff, row.getValue(idx.columnIndex()), payloadSize - fieldOff);
+                Value val = row.getValue(idx.columnIndex());
 
-            if (size == 0)
-                break;
+                // Only inlined values of a row may be known, e.g. on defragmentation.
+                if (val == null) {
+                    if (fieldOff < payloadSize)
+                        PageUtils.putByte(pageAddr, off + fieldOff, (byte)Value.UNKNOWN);
 
-            fieldOff += size;
+                    break;
+                }
+
+                int size = idx.put(pageAddr, off + fieldOff, val, payloadSize - fieldOff);
+
+                if (size == 0)
+                    break;
+
+                fieldOff += size;
+            }
         }
 
         H2IOUtils.storeRow(row0, pageAddr, off + payloadSize, storeMvccInfo());
@@ -154,6 +208,11 @@ public abstract class AbstractH2ExtrasLeafIO extends BPlusLeafIO<H2Row> implemen
         return ((H2Tree)tree).createRow(link);
     }
 
+    /** {@inheritDoc} */
+    @Override public final long getInlineAddress(long pageAddr, int idx) {
+        return pageAddr + offset(idx);
+    }
+
     /** {@inheritDoc} */
     @Override public final long getLink(long pageAddr, int idx) {
         return PageUtils.getLong(pageAddr, offset(idx) + payloadSize);
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.query.h2.database.io;
+
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.internal.pagemem.PageUtils;
+import org.apache.ignite.internal.processors.cache.persistence.tree.BPlusTree;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.BPlusIO;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.BPlusLeafIO;
+import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
+import org.apache.ignite.internal.processors.query.h2.opt.H2CacheRow;
+import org.apache.ignite.internal.processors.query.h2.opt.H2Row;
+
+/**
+ * Leaf page for H2 row references, which keeps a common prefix of inlined values once per page.
+ *
+ * @see InlinePrefixCodec
+ */
+public class H2ExtrasLeafIOV2 extends BPlusLeafIO<H2Row> implements H2RowLinkIO {
+    /** Payload size. */
+    private final int payloadSize;
+
+    /** Inlined values codec. */
+    private final InlinePrefixCodec codec;
+
+    /**
+     * @param type Page type.
+     * @param ver Page format version.
+     * @param payloadSize Payload size.
+     */
+    H2ExtrasLeafIOV2(short type, int ver, int payloadSize) {
+        super(type, ver, InlinePrefixCodec.itemSize(payloadSize, 8),
+            InlinePrefixCodec.itemsOffset(payloadSize, ITEMS_OFF));
+
+        this.payloadSize = payloadSize;
+
+        codec = new InlinePrefixCodec(payloadSize, ITEMS_OFF);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void initNewPage(long pageAddr, long pageId, int pageSize) {
+        super.initNewPage(pageAddr, pageId, pageSize);
+
+        codec.initPage(pageAddr);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void storeByOffset(long pageAddr, int off, H2Row row) {
+        H2CacheRow row0 = (H2CacheRow)row;
+
+        assert row0.link() != 0 : row0;
+
+        codec.store(pageAddr, off, row);
+
+        H2IOUtils.storeRow(row0, pageAddr, off + codec.linkOffset(), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void store(long dstPageAddr, int dstIdx, BPlusIO<H2Row> srcIo, long srcPageAddr, int srcIdx) {
+        int dstOff = offset(dstIdx);
+
+        codec.store(dstPageAddr, dstOff, srcIo, srcPageAddr, srcIdx);
+
+        H2IOUtils.store(dstPageAddr, dstOff + codec.linkOffset(), srcIo, srcPageAddr, srcIdx, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override public H2Row getLookupRow(BPlusTree<H2Row, ?> tree, long pageAddr, int idx)
+        throws IgniteCheckedException {
+        long link = getLink(pageAddr, idx);
+
+        return ((H2Tree)tree).createRow(link);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void splitForwardPage(
+        long pageAddr,
+        long fwdId,
+        long fwdPageAddr,
+        int mid,
+        int cnt,
+        int pageSize
+    ) throws IgniteCheckedException {
+        super.splitForwardPage(pageAddr, fwdId, fwdPageAddr, mid, cnt, pageSize);
+
+        codec.splitForwardPage(this, pageAddr, fwdPageAddr, mid);
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean merge(
+        BPlusIO<H2Row> prntIo,
+        long prntPageAddr,
+        int prntIdx,
+        long leftPageAddr,
+        long rightPageAddr,
+        boolean emptyBranch,
+        int pageSize
+    ) throws IgniteCheckedException {
+        int rightCnt = getCount(rightPageAddr);
+
+        if (!super.merge(prntIo, prntPageAddr, prntIdx, leftPageAddr, rightPageAddr, emptyBranch, pageSize))
+            return false;
+
+        codec.merge(this, leftPageAddr, rightPageAddr, getCount(leftPageAddr) - rightCnt, rightCnt);
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override public long getInlineAddress(long pageAddr, int idx) {
+        return codec.restore(pageAddr, offset(idx));
+    }
+
+    /** {@inheritDoc} */
+    @Override public long getLink(long pageAddr, int idx) {
+        return PageUtils.getLong(pageAddr, offset(idx) + codec.linkOffset());
+    }
+
+    /** {@inheritDoc} */
+    @Override public int getPayloadSize() {
+        return payloadSize;
+    }
+}
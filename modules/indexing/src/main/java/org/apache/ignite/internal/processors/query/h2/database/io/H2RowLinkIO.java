@@ -28,6 +28,16 @@ public interface H2RowLinkIO {
      */
     public long getLink(long pageAddr, int idx);
 
+    /**
+     * @param pageAddr Page address.
+     * @param idx Index.
+     * @return Address of inlined values, they take {@link #getPayloadSize()} bytes. Values may be restored to a buffer
+     *      of the current thread, the buffer is valid until the next restore.
+     */
+    public default long getInlineAddress(long pageAddr, int idx) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * @param pageAddr Page address.
      * @param idx Index.
@@ -0,0 +1,385 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.query.h2.database.io;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.internal.pagemem.PageUtils;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.BPlusIO;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIO;
+import org.apache.ignite.internal.processors.query.h2.database.InlineIndexColumn;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.AbstractInlineIndexColumn;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.InlineIndexColumnFactory;
+import org.apache.ignite.internal.processors.query.h2.opt.H2Row;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.h2.value.Value;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Inlined values of H2 tree pages which keep a common prefix of the inlined values once per page.
+ * <p>
+ * The page prefix follows the B+Tree page header: prefix length (1 byte) and prefix ({@link #prefixCap} bytes).
+ * An item keeps the length of the page prefix part it shares (1 byte), the rest of the inlined values
+ * ({@link #suffixSize} bytes) and the row link. Inlined values of an item are restored as the shared part of the page
+ * prefix followed by the suffix, the rest of the payload is filled with {@link Value#UNKNOWN}.
+ * <p>
+ * Values are inlined with the whole payload size. If the values do not fit to the shared part and the suffix,
+ * the column which crosses the end is truncated by the inline column, so a long string keeps its head, or is marked
+ * as unknown. The rest of columns are unknown. So restored values are read by inline columns as is.
+ * <p>
+ * The page prefix is changed only on the forward page of a split, pages of a split and a merge are logged to WAL
+ * as a whole. Items of delta records are always applied to the page prefix they were stored with.
+ */
+final class InlinePrefixCodec {
+    /** Min payload size of pages with a common prefix. */
+    static final int MIN_PAYLOAD_SIZE = 16;
+
+    /** Max size of a page prefix, shared length of an item takes 1 byte. */
+    private static final int MAX_PREFIX_SIZE = 0xFF;
+
+    /** Unknown value marker. */
+    private static final byte UNKNOWN = (byte)Value.UNKNOWN;
+
+    /** Restored inlined values and a prefix candidate of the current thread. */
+    private static final ThreadLocal<ByteBuffer> BUF =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(2 * PageIO.MAX_PAYLOAD_SIZE));
+
+    /** Payload size. */
+    private final int payloadSize;
+
+    /** Offset of the page prefix. */
+    private final int prefixOff;
+
+    /** Max size of the page prefix. */
+    private final int prefixCap;
+
+    /** Size of item suffix. */
+    private final int suffixSize;
+
+    /**
+     * @param payloadSize Payload size.
+     * @param prefixOff Offset of the page prefix.
+     */
+    InlinePrefixCodec(int payloadSize, int prefixOff) {
+        assert payloadSize >= MIN_PAYLOAD_SIZE : payloadSize;
+
+        this.payloadSize = payloadSize;
+        this.prefixOff = prefixOff;
+
+        prefixCap = prefixCapacity(payloadSize);
+        suffixSize = payloadSize - prefixCap;
+    }
+
+    /**
+     * @param payloadSize Payload size.
+     * @return Max size of the page prefix.
+     */
+    private static int prefixCapacity(int payloadSize) {
+        return Math.min(payloadSize / 2, MAX_PREFIX_SIZE);
+    }
+
+    /**
+     * @param payloadSize Payload size.
+     * @param linkSize Size of the row link.
+     * @return Item size.
+     */
+    static int itemSize(int payloadSize, int linkSize) {
+        return 1 + payloadSize - prefixCapacity(payloadSize) + linkSize;
+    }
+
+    /**
+     * @param payloadSize Payload size.
+     * @param prefixOff Offset of the page prefix.
+     * @return Offset of the items.
+     */
+    static int itemsOffset(int payloadSize, int prefixOff) {
+        return prefixOff + 1 + prefixCapacity(payloadSize);
+    }
+
+    /**
+     * @return Offset of the row link in an item.
+     */
+    int linkOffset() {
+        return 1 + suffixSize;
+    }
+
+    /**
+     * @param pageAddr Page address.
+     */
+    void initPage(long pageAddr) {
+        PageUtils.putByte(pageAddr, prefixOff, (byte)0);
+    }
+
+    /**
+     * @param pageAddr Page address.
+     * @return Page prefix length.
+     */
+    int prefixLength(long pageAddr) {
+        return PageUtils.getByte(pageAddr, prefixOff) & 0xFF;
+    }
+
+    /**
+     * @param pageAddr Page address.
+     * @param off Item offset.
+     * @return Address of restored inlined values, valid until the next restore by the current thread.
+     */
+    long restore(long pageAddr, int off) {
+        long buf = buffer();
+
+        restore(pageAddr, off, buf);
+
+        return buf;
+    }
+
+    /**
+     * @param pageAddr Page address.
+     * @param off Item offset.
+     * @param dst Destination address.
+     */
+    private void restore(long pageAddr, int off, long dst) {
+        int shared = PageUtils.getByte(pageAddr, off) & 0xFF;
+
+        GridUnsafe.copyMemory(pageAddr + prefixOff + 1, dst, shared);
+        GridUnsafe.copyMemory(pageAddr + off + 1, dst + shared, suffixSize);
+        GridUnsafe.setMemory(dst + shared + suffixSize, payloadSize - shared - suffixSize, UNKNOWN);
+    }
+
+    /**
+     * Stores inlined values of the row.
+     *
+     * @param pageAddr Page address.
+     * @param off Item offset.
+     * @param row Row.
+     */
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    void store(long pageAddr, int off, H2Row row) {
+        List<InlineIndexColumn> inlineIdxs = InlineIndexColumnFactory.getCurrentInlineIndexes();
+
+        assert inlineIdxs != null : "no inline index helpers";
+
+        long buf = buffer();
+
+        GridUnsafe.setMemory(buf, payloadSize, UNKNOWN);
+
+        int fieldOff = 0;
+
+        for (int i = 0; i < inlineIdxs.size(); i++) {
+            InlineIndexColumn idx = inlineIdxs.get(i);
+
+            Value val = row.getValue(idx.columnIndex());
+
+            if (val == null)
+                break;
+
+            int size = idx.put(buf, fieldOff, val, payloadSize - fieldOff);
+
+            if (size == 0)
+                break;
+
+            fieldOff += size;
+        }
+
+        store(pageAddr, off, buf, inlineIdxs);
+    }
+
+    /**
+     * Stores inlined values of an item of another page.
+     *
+     * @param pageAddr Page address.
+     * @param off Item offset.
+     * @param srcIo Source IO.
+     * @param srcPageAddr Source page address.
+     * @param srcIdx Source index.
+     */
+    void store(long pageAddr, int off, BPlusIO<H2Row> srcIo, long srcPageAddr, int srcIdx) {
+        long buf = buffer();
+
+        long src = ((H2RowLinkIO)srcIo).getInlineAddress(srcPageAddr, srcIdx);
+
+        assert ((H2RowLinkIO)srcIo).getPayloadSize() == payloadSize;
+
+        if (src != buf)
+            GridUnsafe.copyMemory(src, buf, payloadSize);
+
+        store(pageAddr, off, buf, InlineIndexColumnFactory.getCurrentInlineIndexes());
+    }
+
+    /**
+     * Recomputes the prefix of a new forward page, which items are copied from the split page.
+     *
+     * @param io IO.
+     * @param pageAddr Split page address.
+     * @param fwdPageAddr Forward page address.
+     * @param mid Index of the first item of the forward page in the split page.
+     * @throws IgniteCheckedException If failed.
+     */
+    void splitForwardPage(BPlusIO<H2Row> io, long pageAddr, long fwdPageAddr, int mid)
+        throws IgniteCheckedException {
+        int prefixLen = prefixLength(pageAddr);
+
+        GridUnsafe.copyMemory(pageAddr + prefixOff, fwdPageAddr + prefixOff, 1 + prefixLen);
+
+        int cnt = io.getCount(fwdPageAddr);
+
+        if (cnt == 0)
+            return;
+
+        long buf = buffer();
+        long candidate = buf + PageIO.MAX_PAYLOAD_SIZE;
+
+        restore(pageAddr, io.offset(mid), candidate);
+
+        int len = prefixCap;
+
+        for (int i = 1; i < cnt && len > prefixLen; i++) {
+            restore(pageAddr, io.offset(mid + i), buf);
+
+            len = commonLength(buf, candidate, len);
+        }
+
+        if (len <= prefixLen)
+            return;
+
+        PageUtils.putByte(fwdPageAddr, prefixOff, (byte)len);
+        GridUnsafe.copyMemory(candidate, fwdPageAddr + prefixOff + 1, len);
+
+        for (int i = 0; i < cnt; i++) {
+            restore(pageAddr, io.offset(mid + i), buf);
+
+            store(fwdPageAddr, io.offset(i), buf, null);
+        }
+    }
+
+    /**
+     * Stores inlined values of items moved from the right page to the left one on merge.
+     *
+     * @param io IO.
+     * @param leftPageAddr Left page address.
+     * @param rightPageAddr Right page address.
+     * @param first Index of the first moved item in the left page.
+     * @param cnt Number of moved items.
+     */
+    void merge(BPlusIO<H2Row> io, long leftPageAddr, long rightPageAddr, int first, int cnt) {
+        long buf = buffer();
+
+        List<InlineIndexColumn> inlineIdxs = InlineIndexColumnFactory.getCurrentInlineIndexes();
+
+        for (int i = 0; i < cnt; i++) {
+            restore(rightPageAddr, io.offset(i), buf);
+
+            store(leftPageAddr, io.offset(first + i), buf, inlineIdxs);
+        }
+    }
+
+    /**
+     * @param pageAddr Page address.
+     * @param off Item offset.
+     * @param buf Inlined values, truncated in place if they do not fit.
+     * @param inlineIdxs Inline columns, if {@code null} truncated values are unknown.
+     */
+    private void store(long pageAddr, int off, long buf, @Nullable List<InlineIndexColumn> inlineIdxs) {
+        int shared = commonLength(buf, pageAddr + prefixOff + 1, prefixLength(pageAddr));
+
+        // Every pass truncates values to a shorter length, the shared part can only decrease then.
+        while (!isUnknown(buf, shared + suffixSize)) {
+            truncate(buf, shared + suffixSize, inlineIdxs);
+
+            shared = commonLength(buf, pageAddr + prefixOff + 1, shared);
+        }
+
+        PageUtils.putByte(pageAddr, off, (byte)shared);
+        GridUnsafe.copyMemory(buf + shared, pageAddr + off + 1, suffixSize);
+    }
+
+    /**
+     * @param buf Inlined values.
+     * @param size Size to keep.
+     * @param inlineIdxs Inline columns, if {@code null} truncated values are unknown.
+     */
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    private void truncate(long buf, int size, @Nullable List<InlineIndexColumn> inlineIdxs) {
+        int fieldOff = 0;
+
+        for (int i = 0; inlineIdxs != null && i < inlineIdxs.size(); i++) {
+            InlineIndexColumn idx = inlineIdxs.get(i);
+
+            if (fieldOff >= size || PageUtils.getByte(buf, fieldOff) == UNKNOWN)
+                break;
+
+            int fullSize = idx.fullSize(buf, fieldOff);
+
+            if (fieldOff + fullSize <= size) {
+                fieldOff += fullSize;
+
+                continue;
+            }
+
+            // Variable length value keeps its head.
+            if (idx.size() < 0) {
+                Value val = ((AbstractInlineIndexColumn)idx).get(buf, fieldOff, payloadSize - fieldOff);
+
+                if (val != null) {
+                    GridUnsafe.setMemory(buf + fieldOff, payloadSize - fieldOff, UNKNOWN);
+
+                    fieldOff += idx.put(buf, fieldOff, val, size - fieldOff);
+                }
+            }
+
+            break;
+        }
+
+        GridUnsafe.setMemory(buf + fieldOff, payloadSize - fieldOff, UNKNOWN);
+    }
+
+    /**
+     * @param buf Inlined values.
+     * @param from Offset.
+     * @return {@code True} if all the values starting from the offset are unknown.
+     */
+    private boolean isUnknown(long buf, int from) {
+        for (int i = from; i < payloadSize; i++) {
+            if (GridUnsafe.getByte(buf + i) != UNKNOWN)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param addr1 Address.
+     * @param addr2 Address.
+     * @param len Max length.
+     * @return Length of the common prefix.
+     */
+    private static int commonLength(long addr1, long addr2, int len) {
+        int i = 0;
+
+        while (i < len && GridUnsafe.getByte(addr1 + i) == GridUnsafe.getByte(addr2 + i))
+            i++;
+
+        return i;
+    }
+
+    /**
+     * @return Address of the buffer of the current thread.
+     */
+    private static long buffer() {
+        return GridUnsafe.bufferAddress(BUF.get());
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.ignite.internal.processors.query.h2.defragmentation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -46,10 +47,14 @@ import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
 import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
 import org.apache.ignite.internal.processors.query.h2.database.InlineIndexColumn;
 import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.AbstractInlineIndexColumn;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.NormalizedKeyInlineIndexColumn;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.NormalizedKeyInlineIndexColumn.InlinedKeyRow;
 import org.apache.ignite.internal.processors.query.h2.database.io.AbstractH2ExtrasInnerIO;
 import org.apache.ignite.internal.processors.query.h2.database.io.AbstractH2ExtrasLeafIO;
 import org.apache.ignite.internal.processors.query.h2.database.io.AbstractH2InnerIO;
 import org.apache.ignite.internal.processors.query.h2.database.io.AbstractH2LeafIO;
+import org.apache.ignite.internal.processors.query.h2.database.io.H2ExtrasInnerIOV2;
+import org.apache.ignite.internal.processors.query.h2.database.io.H2ExtrasLeafIOV2;
 import org.apache.ignite.internal.processors.query.h2.database.io.H2RowLinkIO;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2RowDescriptor;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
@@ -66,6 +71,9 @@ import org.h2.value.Value;
  *
  */
 public class IndexingDefragmentation {
+    /** Maximum number of sorted rows put to a new index at once. */
+    private static final int PUT_BATCH_SIZE = 1024;
+
     /** Indexing. */
     private final IgniteH2Indexing indexing;
 
@@ -212,10 +220,16 @@ public class IndexingDefragmentation {
 
                     newTree.enableSequentialWriteMode();
 
+                    int seg = i;
+
+                    List<H2CacheRow> batch = new ArrayList<>(PUT_BATCH_SIZE);
+
                     treeIterator.iterate(tree, oldCachePageMem, (theTree, io, pageAddr, idx) -> {
                         cancellationChecker.run();
 
                         if (System.currentTimeMillis() - lastCpLockTs.get() >= cpLockThreshold) {
+                            putAll(newIdx, seg, batch);
+
                             cpLock.checkpointReadUnlock();
 
                             cpLock.checkpointReadLock();
@@ -223,7 +237,7 @@ public class IndexingDefragmentation {
                             lastCpLockTs.set(System.currentTimeMillis());
                         }
 
-                        assert 1 == io.getVersion()
+                        assert 1 == io.getVersion() || io instanceof H2ExtrasInnerIOV2 || io instanceof H2ExtrasLeafIOV2
                             : "IO version " + io.getVersion() + " is not supported by current defragmentation algorithm." +
                             " Please implement copying of tree in a new format.";
 
@@ -251,11 +265,16 @@ public class IndexingDefragmentation {
                                 ((H2RowLinkIO)io).storeMvccInfo()
                             );
 
-                            newIdx.putx(newRow);
+                            batch.add(newRow);
+
+                            if (batch.size() == PUT_BATCH_SIZE)
+                                putAll(newIdx, seg, batch);
                         }
 
                         return true;
                     });
+
+                    putAll(newIdx, seg, batch);
                 }
             }
 
@@ -266,6 +285,22 @@ public class IndexingDefragmentation {
         }
     }
 
+    /**
+     * Puts rows, which are read from an old index segment and so are sorted, to the new index segment.
+     *
+     * @param idx New index.
+     * @param seg Segment ID.
+     * @param batch Rows, the list is cleared.
+     */
+    private static void putAll(H2TreeIndex idx, int seg, List<H2CacheRow> batch) {
+        if (batch.isEmpty())
+            return;
+
+        idx.putAll(seg, batch);
+
+        batch.clear();
+    }
+
     /** */
     private static <T extends BPlusIO<H2Row> & H2RowLinkIO> H2Row lookupRow(
         BPlusTree<H2Row, ?> tree,
@@ -277,23 +312,34 @@ public class IndexingDefragmentation {
 
         List<InlineIndexColumn> inlineIdxs = ((H2Tree) tree).inlineIndexes();
 
-        int off = io.offset(idx);
-
         IntMap<Value> values = new IntHashMap<>();
 
-        if (inlineIdxs != null) {
+        byte[] inlinedKey = null;
+
+        // Values can't be restored from a normalized key, the key is copied as is.
+        if (((H2Tree) tree).inlineNormalizedKeys()) {
+            inlinedKey = ((NormalizedKeyInlineIndexColumn) inlineIdxs.get(0))
+                .inlinedKey(io.getInlineAddress(pageAddr, idx), 0);
+        }
+        else if (inlineIdxs != null) {
+            long inlineAddr = io.getInlineAddress(pageAddr, idx);
+
             int fieldOff = 0;
 
             for (int i = 0; i < inlineIdxs.size(); i++) {
                 AbstractInlineIndexColumn inlineIndexColumn = (AbstractInlineIndexColumn) inlineIdxs.get(i);
 
-                Value value = inlineIndexColumn.get(pageAddr, off + fieldOff, io.getPayloadSize() - fieldOff);
-
-                fieldOff += inlineIndexColumn.inlineSizeOf(value);
+                Value value = inlineIndexColumn.get(inlineAddr, fieldOff, io.getPayloadSize() - fieldOff);
 
                 final int columnIndex = inlineIndexColumn.columnIndex();
 
                 values.put(columnIndex, value);
+
+                // The rest of the values is not inlined.
+                if (value == null)
+                    break;
+
+                fieldOff += inlineIndexColumn.inlineSizeOf(value);
             }
         }
 
@@ -304,12 +350,12 @@ public class IndexingDefragmentation {
 
             H2CacheRow row = (H2CacheRow) ((H2Tree) tree).createMvccRow(link, mvccCrdVer, mvccCntr, mvccOpCntr, CacheDataRowAdapter.RowData.LINK_ONLY);
 
-            return new H2CacheRowWithIndex(row.getDesc(), row.getRow(), values);
+            return new H2CacheRowWithIndex(row.getDesc(), row.getRow(), values, inlinedKey);
         }
 
         H2CacheRow row = (H2CacheRow) ((H2Tree) tree).createRow(link, false);
 
-        return new H2CacheRowWithIndex(row.getDesc(), row.getRow(), values);
+        return new H2CacheRowWithIndex(row.getDesc(), row.getRow(), values, inlinedKey);
     }
 
     /** */
@@ -319,12 +365,14 @@ public class IndexingDefragmentation {
 
         if (io instanceof BPlusInnerIO) {
             assert io instanceof AbstractH2ExtrasInnerIO
+                || io instanceof H2ExtrasInnerIOV2
                 || io instanceof AbstractH2InnerIO;
 
             return new BPlusInnerIoDelegate((BPlusInnerIO<H2Row>)io);
         }
         else {
             assert io instanceof AbstractH2ExtrasLeafIO
+                || io instanceof H2ExtrasLeafIOV2
                 || io instanceof AbstractH2LeafIO;
 
             return new BPlusLeafIoDelegate((BPlusLeafIO<H2Row>)io);
@@ -339,7 +387,7 @@ public class IndexingDefragmentation {
 
         /** */
         public BPlusInnerIoDelegate(IO io) {
-            super(io.getType(), io.getVersion(), io.canGetRow(), io.getItemSize());
+            super(io.getType(), io.getVersion(), io.canGetRow(), io.getItemSize(), io.getItemsOffset());
             this.io = io;
         }
 
@@ -385,6 +433,41 @@ public class IndexingDefragmentation {
             return io.storeMvccInfo();
         }
 
+        /** {@inheritDoc} */
+        @Override public void initNewPage(long pageAddr, long pageId, int pageSize) {
+            io.initNewPage(pageAddr, pageId, pageSize);
+        }
+
+        /** {@inheritDoc} */
+        @Override public void splitForwardPage(
+            long pageAddr,
+            long fwdId,
+            long fwdPageAddr,
+            int mid,
+            int cnt,
+            int pageSize
+        ) throws IgniteCheckedException {
+            io.splitForwardPage(pageAddr, fwdId, fwdPageAddr, mid, cnt, pageSize);
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean merge(
+            BPlusIO<H2Row> prntIo,
+            long prntPageAddr,
+            int prntIdx,
+            long leftPageAddr,
+            long rightPageAddr,
+            boolean emptyBranch,
+            int pageSize
+        ) throws IgniteCheckedException {
+            return io.merge(prntIo, prntPageAddr, prntIdx, leftPageAddr, rightPageAddr, emptyBranch, pageSize);
+        }
+
+        /** {@inheritDoc} */
+        @Override public long getInlineAddress(long pageAddr, int idx) {
+            return io.getInlineAddress(pageAddr, idx);
+        }
+
         /** {@inheritDoc} */
         @Override public int getPayloadSize() {
             return io.getPayloadSize();
@@ -399,7 +482,7 @@ public class IndexingDefragmentation {
 
         /** */
         public BPlusLeafIoDelegate(IO io) {
-            super(io.getType(), io.getVersion(), io.getItemSize());
+            super(io.getType(), io.getVersion(), io.getItemSize(), io.getItemsOffset());
             this.io = io;
         }
 
@@ -445,6 +528,41 @@ public class IndexingDefragmentation {
             return io.storeMvccInfo();
         }
 
+        /** {@inheritDoc} */
+        @Override public void initNewPage(long pageAddr, long pageId, int pageSize) {
+            io.initNewPage(pageAddr, pageId, pageSize);
+        }
+
+        /** {@inheritDoc} */
+        @Override public void splitForwardPage(
+            long pageAddr,
+            long fwdId,
+            long fwdPageAddr,
+            int mid,
+            int cnt,
+            int pageSize
+        ) throws IgniteCheckedException {
+            io.splitForwardPage(pageAddr, fwdId, fwdPageAddr, mid, cnt, pageSize);
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean merge(
+            BPlusIO<H2Row> prntIo,
+            long prntPageAddr,
+            int prntIdx,
+            long leftPageAddr,
+            long rightPageAddr,
+            boolean emptyBranch,
+            int pageSize
+        ) throws IgniteCheckedException {
+            return io.merge(prntIo, prntPageAddr, prntIdx, leftPageAddr, rightPageAddr, emptyBranch, pageSize);
+        }
+
+        /** {@inheritDoc} */
+        @Override public long getInlineAddress(long pageAddr, int idx) {
+            return io.getInlineAddress(pageAddr, idx);
+        }
+
         /** {@inheritDoc} */
         @Override public int getPayloadSize() {
             return io.getPayloadSize();
@@ -454,14 +572,23 @@ public class IndexingDefragmentation {
     /**
      * H2CacheRow with stored index values
      */
-    private static class H2CacheRowWithIndex extends H2CacheRow {
+    private static class H2CacheRowWithIndex extends H2CacheRow implements InlinedKeyRow {
         /** List of index values. */
         private final IntMap<Value> values;
 
+        /** Inlined normalized key. */
+        private final byte[] inlinedKey;
+
         /** Constructor. */
-        public H2CacheRowWithIndex(GridH2RowDescriptor desc, CacheDataRow row, IntMap<Value> values) {
+        public H2CacheRowWithIndex(
+            GridH2RowDescriptor desc,
+            CacheDataRow row,
+            IntMap<Value> values,
+            byte[] inlinedKey
+        ) {
             super(desc, row);
             this.values = values;
+            this.inlinedKey = inlinedKey;
         }
 
         /** */
@@ -481,7 +608,12 @@ public class IndexingDefragmentation {
             } else
                 newDataRow = new CacheDataRowAdapter(newLink);
 
-            return new H2CacheRowWithIndex(desc, newDataRow, oldValue.values);
+            return new H2CacheRowWithIndex(desc, newDataRow, oldValue.values, oldValue.inlinedKey);
+        }
+
+        /** {@inheritDoc} */
+        @Override public byte[] inlinedKey() {
+            return inlinedKey;
         }
 
         /** {@inheritDoc} */
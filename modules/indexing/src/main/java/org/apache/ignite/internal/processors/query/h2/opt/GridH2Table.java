@@ -55,6 +55,8 @@ import org.apache.ignite.internal.processors.query.h2.database.H2IndexType;
 import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
 import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndexBase;
 import org.apache.ignite.internal.processors.query.h2.database.IndexInformation;
+import org.apache.ignite.internal.processors.query.stat.ObjectStatistics;
+import org.apache.ignite.internal.util.lang.IgniteThrowableRunner;
 import org.apache.ignite.internal.util.tostring.GridToStringExclude;
 import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.internal.util.typedef.X;
@@ -1077,6 +1079,40 @@ public class GridH2Table extends TableBase {
         }
     }
 
+    /**
+     * Runs the action under the exclusive lock of the table, so that it is not executed concurrently with updates
+     * of the table and running lazy queries are retried.
+     *
+     * @param action Action.
+     * @throws IgniteCheckedException If failed.
+     */
+    public void runExclusively(IgniteThrowableRunner action) throws IgniteCheckedException {
+        lock(true);
+
+        try {
+            ensureNotDestroyed();
+
+            action.run();
+        }
+        finally {
+            unlock(true);
+        }
+    }
+
+    /**
+     * @return Sorted indexes of the table which are stored in the trees on this node.
+     */
+    public List<H2TreeIndex> treeIndexes() {
+        List<H2TreeIndex> res = new ArrayList<>();
+
+        for (Index idx : idxs) {
+            if (idx instanceof H2TreeIndex)
+                res.add((H2TreeIndex)idx);
+        }
+
+        return res;
+    }
+
     /**
      * Get user index with provided name.
      *
@@ -1233,14 +1269,54 @@ public class GridH2Table extends TableBase {
 
     /** {@inheritDoc} */
     @Override public long getRowCountApproximation() {
-        if (!localQuery(QueryContext.threadLocal()))
-            return 10_000; // Fallback to the previous behaviour.
+        if (!localQuery(QueryContext.threadLocal())) {
+            ObjectStatistics stats = statistics();
+
+            return stats != null ? stats.rowCount() : 10_000; // Fallback to the previous behaviour.
+        }
 
         refreshStatsIfNeeded();
 
         return tblStats.primaryRowCount();
     }
 
+    /**
+     * Estimates the number of rows of the table in the cluster. Takes it from the statistics collected by ANALYZE
+     * if any, otherwise scales the local primary rows by the share of the primary partitions owned by this node.
+     *
+     * @return Estimated number of rows in the cluster.
+     */
+    public long clusterRowCountEstimate() {
+        ObjectStatistics stats = statistics();
+
+        if (stats != null)
+            return stats.rowCount();
+
+        if (!cacheInfo.affinityNode())
+            return tblStats.primaryRowCount();
+
+        refreshStatsIfNeeded();
+
+        long primaryRowCnt = tblStats.primaryRowCount();
+
+        if (!isPartitioned())
+            return primaryRowCnt;
+
+        GridCacheContext cctx = cacheInfo.cacheContext();
+
+        int locParts = cctx.affinity().primaryPartitions(cctx.localNodeId(),
+            cctx.affinity().affinityTopologyVersion()).size();
+
+        return locParts == 0 ? primaryRowCnt : primaryRowCnt * cctx.affinity().partitions() / locParts;
+    }
+
+    /**
+     * @return Column statistics collected by ANALYZE or {@code null} if the table wasn't analyzed.
+     */
+    @Nullable public ObjectStatistics statistics() {
+        return desc.indexing().statisticsManager().statistics(identifier);
+    }
+
     /**
      * @param qctx Context.
      *
@@ -19,15 +19,22 @@ package org.apache.ignite.internal.processors.query.h2.opt;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import org.apache.ignite.internal.processors.query.stat.ColumnStatistics;
+import org.apache.ignite.internal.processors.query.stat.ObjectStatistics;
 import org.apache.ignite.internal.util.typedef.F;
 import org.h2.engine.Constants;
+import org.h2.expression.Comparison;
+import org.h2.expression.ValueExpression;
 import org.h2.index.BaseIndex;
 import org.h2.index.IndexCondition;
 import org.h2.index.IndexType;
+import org.h2.message.DbException;
 import org.h2.result.SortOrder;
 import org.h2.table.Column;
 import org.h2.table.IndexColumn;
 import org.h2.table.TableFilter;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
 
 /**
  * Index base.
@@ -57,6 +64,8 @@ public abstract class H2IndexCostedBase extends BaseIndex {
 
         long rowsCost = rowCount;
 
+        ObjectStatistics stats = ((GridH2Table)table).statistics();
+
         if (masks != null) {
             int i = 0, len = columns.length;
 
@@ -66,6 +75,19 @@ public abstract class H2IndexCostedBase extends BaseIndex {
                 int index = column.getColumnId();
                 int mask = masks[index];
 
+                ColumnStatistics colStats = stats != null ? stats.column(column.getName()) : null;
+
+                if ((mask & IndexCondition.EQUALITY) != IndexCondition.EQUALITY && (mask & IndexCondition.RANGE) != 0 &&
+                    colStats != null && filters != null && filters[filter] != null) {
+                    double fraction = rangeFraction(colStats, filters[filter], column);
+
+                    if (fraction >= 0) {
+                        rowsCost = Math.min(5 + Math.max((long)(rowsCost * fraction), 1), rowsCost - (i > 0 ? 1 : 0));
+
+                        break;
+                    }
+                }
+
                 if ((mask & IndexCondition.EQUALITY) == IndexCondition.EQUALITY) {
                     if (i == len && getIndexType().isUnique()) {
                         rowsCost = 3;
@@ -73,6 +95,15 @@ public abstract class H2IndexCostedBase extends BaseIndex {
                         break;
                     }
 
+                    if (colStats != null && colStats.distinct() > 0) {
+                        // Nulls never match equality, the rest of the rows are spread over the distinct values.
+                        long rows = (long)(rowsCost * (1 - colStats.nullFraction()) / colStats.distinct());
+
+                        rowsCost = Math.min(5 + Math.max(rows, 1), rowsCost - (i > 0 ? 1 : 0));
+
+                        continue;
+                    }
+
                     totalSelectivity = 100 - ((100 - totalSelectivity) *
                         (100 - column.getSelectivity()) / 100);
 
@@ -231,4 +262,50 @@ public abstract class H2IndexCostedBase extends BaseIndex {
 
         return rc;
     }
+
+    /**
+     * Estimates the fraction of rows matching the range conditions on the column with constant bounds.
+     *
+     * @param colStats Column statistics.
+     * @param tblFilter Table filter.
+     * @param col Column.
+     * @return Fraction of rows or {@code -1} if it can't be estimated.
+     */
+    private static double rangeFraction(ColumnStatistics colStats, TableFilter tblFilter, Column col) {
+        Object lo = null;
+        Object hi = null;
+
+        for (IndexCondition cond : tblFilter.getIndexConditions()) {
+            if (cond.getColumn() != col || !(cond.getExpression() instanceof ValueExpression))
+                continue;
+
+            Value val;
+
+            try {
+                val = cond.getExpression().getValue(null).convertTo(col.getType());
+            }
+            catch (DbException ignore) {
+                return -1;
+            }
+
+            if (val == ValueNull.INSTANCE)
+                return -1;
+
+            switch (cond.getCompareType()) {
+                case Comparison.BIGGER_EQUAL:
+                case Comparison.BIGGER:
+                    lo = val.getObject();
+
+                    break;
+
+                case Comparison.SMALLER_EQUAL:
+                case Comparison.SMALLER:
+                    hi = val.getObject();
+
+                    break;
+            }
+        }
+
+        return lo == null && hi == null ? -1 : colStats.rangeFraction(lo, hi);
+    }
 }
@@ -33,6 +33,8 @@ import javax.cache.CacheException;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.IgniteException;
 import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.internal.processors.cache.query.GridCacheSqlQuery;
 import org.apache.ignite.internal.processors.cache.query.GridCacheTwoStepQuery;
 import org.apache.ignite.internal.processors.cache.query.IgniteQueryErrorCode;
@@ -51,7 +53,9 @@ import org.apache.ignite.internal.util.typedef.internal.U;
 import org.h2.command.Prepared;
 import org.h2.command.dml.Query;
 import org.h2.table.Column;
+import org.jetbrains.annotations.Nullable;
 
+import static org.apache.ignite.cache.CacheAtomicityMode.TRANSACTIONAL_SNAPSHOT;
 import static org.apache.ignite.internal.processors.query.h2.opt.join.CollocationModel.isCollocated;
 import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlConst.TRUE;
 import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.AVG;
@@ -68,6 +72,8 @@ import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlQuery.OF
 import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlSelect.FROM_CHILD;
 import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlSelect.WHERE_CHILD;
 import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlSelect.childIndexForColumn;
+import static org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleJoin.DFLT_SQL_SHUFFLE_JOIN;
+import static org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleJoin.IGNITE_SQL_SHUFFLE_JOIN;
 
 /**
  * Splits a single SQL query into two step map-reduce query.
@@ -125,6 +131,9 @@ public class GridSqlQuerySplitter {
     /** Whether partition extraction is possible. */
     private final boolean canExtractPartitions;
 
+    /** Whether the groups are merged by map nodes exchanging partial groups, see {@link SplitterShuffleAggregate}. */
+    private boolean shuffleAgg;
+
     /** */
     private final IdentityHashMap<GridSqlAst, GridSqlAlias> uniqueFromAliases = new IdentityHashMap<>();
 
@@ -277,8 +286,18 @@ public class GridSqlQuerySplitter {
             prepare(conn, H2Utils.context(conn), qry.getSQL(), false, enforceJoinOrder),
             true, log);
 
+        SplitterShuffleJoin shuffleJoin = distributedJoins || locSplit ? null :
+            shuffleJoin(conn, qry, enforceJoinOrder);
+
         // Do the actual query split. We will update the original query AST, need to be careful.
-        splitter.splitQuery(qry);
+        if (shuffleJoin != null)
+            splitter.splitShuffleJoin((GridSqlSelect)qry, shuffleJoin);
+        else {
+            splitter.shuffleAgg = !distributedJoins && !locSplit &&
+                SplitterShuffleAggregate.applicable(qry, collocatedGrpBy);
+
+            splitter.splitQuery(qry);
+        }
 
         assert !F.isEmpty(splitter.mapSqlQrys) : "map"; // We must have at least one map query.
         assert splitter.rdcSqlQry != null : "rdc"; // We must have a reduce query.
@@ -333,6 +352,155 @@ public class GridSqlQuerySplitter {
         );
     }
 
+    /**
+     * @param conn Connection.
+     * @param qry Optimized and normalized query.
+     * @param enforceJoinOrder Enforce join order.
+     * @return Shuffle join or {@code null} if the query is not executed as a shuffle join.
+     * @throws SQLException If failed.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Nullable private static SplitterShuffleJoin shuffleJoin(H2PooledConnection conn, GridSqlQuery qry,
+        boolean enforceJoinOrder) throws SQLException, IgniteCheckedException {
+        if (!IgniteSystemProperties.getBoolean(IGNITE_SQL_SHUFFLE_JOIN, DFLT_SQL_SHUFFLE_JOIN) ||
+            !(qry instanceof GridSqlSelect))
+            return null;
+
+        GridSqlSelect select = (GridSqlSelect)qry;
+
+        if (select.isForUpdate() || SplitterUtils.hasSubQueries(select))
+            return null;
+
+        SplitterShuffleJoin join = SplitterShuffleJoin.analyze(select);
+
+        if (join == null)
+            return null;
+
+        for (int i = 0; i < 2; i++) {
+            CacheConfiguration<?, ?> ccfg = ((GridSqlTable)join.side(i).table().child()).dataTable().cacheInfo()
+                .config();
+
+            // Map nodes exchange rows within a single index segment.
+            if (ccfg.getAtomicityMode() == TRANSACTIONAL_SNAPSHOT || ccfg.getQueryParallelism() != 1)
+                return null;
+        }
+
+        // Collocated tables are joined by the map nodes locally.
+        if (isCollocated((Query)prepare(conn, H2Utils.context(conn), qry.getSQL(), true, enforceJoinOrder)))
+            return null;
+
+        return join;
+    }
+
+    /**
+     * Splits the join into a map query returning the referenced columns of the joined rows and a reduce query
+     * evaluating the rest of the original query over them.
+     *
+     * @param select Optimized and normalized query to split.
+     * @param join Shuffle join.
+     */
+    private void splitShuffleJoin(GridSqlSelect select, SplitterShuffleJoin join) {
+        splitId++;
+
+        Map<String, String> cols = new HashMap<>();
+        List<GridSqlAst> mapExps = new ArrayList<>();
+
+        for (int i = 0; i < select.allColumns(); i++)
+            collectShuffleJoinColumns(select.column(i), join, cols, mapExps);
+
+        for (GridSqlAst cond : join.residualConditions())
+            collectShuffleJoinColumns(cond, join, cols, mapExps);
+
+        if (mapExps.isEmpty())
+            mapExps.add(SplitterUtils.alias(columnName(0), join.side(0).keys().get(0)));
+
+        GridSqlSelect mapQry = new GridSqlSelect().from(select.from()).where(select.where());
+
+        for (GridSqlAst exp : mapExps)
+            mapQry.addColumn(exp, true);
+
+        // Generate the map query before the reduce query replaces the shared columns.
+        GridCacheSqlQuery map = new GridCacheSqlQuery(mapQry.getSQL());
+
+        setupParameters(map, mapQry, paramsCnt);
+
+        map.columns(collectColumns(mapExps));
+        map.partitioned(true);
+        map.shuffleJoin(true);
+
+        mapSqlQrys.add(map);
+
+        GridSqlAst where = null;
+
+        for (GridSqlAst cond : join.residualConditions())
+            where = where == null ? cond : SplitterUtils.op(GridSqlOperationType.AND, where, cond);
+
+        select.from(mergeTable(splitId)).where(where);
+
+        for (int i = WHERE_CHILD; i < select.size(); i++)
+            replaceShuffleJoinColumns(select, i, join, cols);
+
+        String rdcQry = select.getSQL();
+
+        SplitterUtils.checkNoDataTablesInReduceQuery(select, rdcQry);
+
+        rdcSqlQry = new GridCacheSqlQuery(rdcQry);
+
+        setupParameters(rdcSqlQry, select, paramsCnt);
+    }
+
+    /**
+     * @param el Element.
+     * @param join Shuffle join.
+     * @param cols Map column aliases by the sides and names of the joined columns.
+     * @param mapExps Map query columns.
+     */
+    private void collectShuffleJoinColumns(GridSqlAst el, SplitterShuffleJoin join, Map<String, String> cols,
+        List<GridSqlAst> mapExps) {
+        if (el instanceof GridSqlColumn) {
+            GridSqlColumn col = (GridSqlColumn)el;
+
+            int side = join.sideOf(col);
+
+            if (side >= 0 && !cols.containsKey(side + "." + col.columnName())) {
+                String alias = columnName(mapExps.size());
+
+                cols.put(side + "." + col.columnName(), alias);
+                mapExps.add(SplitterUtils.alias(alias, col));
+            }
+
+            return;
+        }
+
+        for (int i = 0; i < el.size(); i++)
+            collectShuffleJoinColumns(el.child(i), join, cols, mapExps);
+    }
+
+    /**
+     * @param parent Parent element.
+     * @param childIdx Child index.
+     * @param join Shuffle join.
+     * @param cols Map column aliases by the sides and names of the joined columns.
+     */
+    private static void replaceShuffleJoinColumns(GridSqlAst parent, int childIdx, SplitterShuffleJoin join,
+        Map<String, String> cols) {
+        GridSqlAst child = parent.child(childIdx);
+
+        if (child instanceof GridSqlColumn) {
+            GridSqlColumn col = (GridSqlColumn)child;
+
+            int side = join.sideOf(col);
+
+            if (side >= 0)
+                parent.child(childIdx, SplitterUtils.column(cols.get(side + "." + col.columnName())));
+
+            return;
+        }
+
+        for (int i = 0; i < child.size(); i++)
+            replaceShuffleJoinColumns(child, i, join, cols);
+    }
+
     /**
      * @param qry Optimized and normalized query to split.
      */
@@ -1219,6 +1387,12 @@ public class GridSqlQuerySplitter {
             mapQry.havingColumn(-1);
         }
 
+        // -- SHUFFLE AGGREGATE: map nodes return complete groups.
+        boolean shuffleAgg = this.shuffleAgg && aggregateFound && mapQry.groupColumns() != null;
+
+        if (shuffleAgg)
+            SplitterShuffleAggregate.rewriteReduceQuery(rdcQry);
+
         // -- ORDER BY
         if (!mapQry.sort().isEmpty()) {
             for (GridSqlSortColumn sortCol : mapQry.sort())
@@ -1268,6 +1442,7 @@ public class GridSqlQuerySplitter {
         map.partitioned(SplitterUtils.hasPartitionedTables(mapQry));
         map.hasSubQueries(SplitterUtils.hasSubQueries(mapQry));
         map.hasOuterJoinReplicatedPartitioned(SplitterUtils.hasOuterJoinReplicatedPartitioned(mapQry.from()));
+        map.shuffleAggregate(shuffleAgg);
 
         if (map.isPartitioned() && canExtractPartitions)
             map.derivedPartitions(extractor.extract(mapQry));
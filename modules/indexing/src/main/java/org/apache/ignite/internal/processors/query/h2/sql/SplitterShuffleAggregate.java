@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
+import org.apache.ignite.internal.processors.query.stat.ColumnStatistics;
+import org.apache.ignite.internal.processors.query.stat.ObjectStatistics;
+import org.h2.table.Column;
+
+import static org.apache.ignite.cache.CacheAtomicityMode.TRANSACTIONAL_SNAPSHOT;
+
+/**
+ * Two-phase aggregation of a GROUP BY query with many groups. Map nodes aggregate their local rows into partial
+ * groups, repartition the partial groups by the hash of the group key and merge the groups they receive, so each
+ * group is complete on a single map node. The reducer does not group the rows again: it evaluates the rest of the
+ * query over the final groups merged from the map nodes.
+ * <p>
+ * The map query is the ordinary map query of the split, so a map node not asked to shuffle it still returns partial
+ * groups. The aggregates of the reduce query are replaced by their arguments, its GROUP BY is removed and its HAVING
+ * becomes a condition.
+ */
+public class SplitterShuffleAggregate {
+    /** @see #IGNITE_SQL_SHUFFLE_AGGREGATE */
+    public static final boolean DFLT_SQL_SHUFFLE_AGGREGATE = false;
+
+    /** */
+    @SystemProperty(value = "Enables shuffle aggregation of GROUP BY queries of partitioned tables. Map nodes " +
+        "exchange partial groups by the group key and aggregate them instead of the reducer when the number of " +
+        "groups estimated from the column statistics collected by ANALYZE reaches " +
+        "IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD", defaults = "" + DFLT_SQL_SHUFFLE_AGGREGATE)
+    public static final String IGNITE_SQL_SHUFFLE_AGGREGATE = "IGNITE_SQL_SHUFFLE_AGGREGATE";
+
+    /** @see #IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD */
+    public static final long DFLT_SQL_SHUFFLE_AGGREGATE_THRESHOLD = 1_000_000L;
+
+    /** */
+    @SystemProperty(value = "Number of groups estimated from the column statistics starting from which a GROUP BY " +
+        "query is aggregated by map nodes if IGNITE_SQL_SHUFFLE_AGGREGATE is enabled", type = Long.class,
+        defaults = "" + DFLT_SQL_SHUFFLE_AGGREGATE_THRESHOLD)
+    public static final String IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD = "IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD";
+
+    /**
+     * Checks whether the given query is executed as a shuffle aggregation.
+     *
+     * @param qry Optimized and normalized query.
+     * @param collocatedGrpBy Whether the query is grouped by the collocated columns.
+     * @return {@code true} If the query is executed as a shuffle aggregation.
+     */
+    public static boolean applicable(GridSqlQuery qry, boolean collocatedGrpBy) {
+        if (!IgniteSystemProperties.getBoolean(IGNITE_SQL_SHUFFLE_AGGREGATE, DFLT_SQL_SHUFFLE_AGGREGATE) ||
+            collocatedGrpBy || !(qry instanceof GridSqlSelect))
+            return false;
+
+        GridSqlSelect select = (GridSqlSelect)qry;
+
+        if (select.groupColumns() == null || select.isForUpdate() || SplitterUtils.hasSubQueries(select))
+            return false;
+
+        boolean aggregateFound = false;
+
+        for (GridSqlAst col : select.columns(false)) {
+            if (!mergeableAggregates(col))
+                return false;
+
+            aggregateFound |= SplitterUtils.hasAggregates(col);
+        }
+
+        if (!aggregateFound)
+            return false;
+
+        List<GridH2Table> tbls = new ArrayList<>();
+
+        if (!collectTables(select.from(), tbls))
+            return false;
+
+        boolean partitioned = false;
+
+        for (GridH2Table tbl : tbls) {
+            CacheConfiguration<?, ?> ccfg = tbl.cacheInfo().config();
+
+            // Map nodes exchange partial groups within a single index segment.
+            if (ccfg.getAtomicityMode() == TRANSACTIONAL_SNAPSHOT || ccfg.getQueryParallelism() != 1)
+                return false;
+
+            partitioned |= tbl.isPartitioned();
+        }
+
+        return partitioned && estimateGroups(select, tbls) >= IgniteSystemProperties.getLong(
+            IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD, DFLT_SQL_SHUFFLE_AGGREGATE_THRESHOLD);
+    }
+
+    /**
+     * @param agg Aggregate.
+     * @return {@code true} If partial aggregates of the given function can be merged by map nodes.
+     */
+    public static boolean isMergeable(GridSqlAggregateFunction agg) {
+        if (agg.distinct())
+            return false;
+
+        switch (agg.type()) {
+            case COUNT_ALL:
+            case COUNT:
+            case SUM:
+            case MIN:
+            case MAX:
+            case AVG:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param el Element.
+     * @return {@code true} If all the aggregates in the element are mergeable.
+     */
+    private static boolean mergeableAggregates(GridSqlAst el) {
+        if (el instanceof GridSqlAggregateFunction)
+            return isMergeable((GridSqlAggregateFunction)el) && !SplitterUtils.hasAggregates(el.child());
+
+        for (int i = 0; i < el.size(); i++) {
+            if (!mergeableAggregates(el.child(i)))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param el Element of FROM.
+     * @param tbls Data tables.
+     * @return {@code false} If the element references anything except data tables.
+     */
+    private static boolean collectTables(GridSqlAst el, List<GridH2Table> tbls) {
+        if (el instanceof GridSqlTable) {
+            GridH2Table tbl = ((GridSqlTable)el).dataTable();
+
+            if (tbl == null)
+                return false;
+
+            tbls.add(tbl);
+
+            return true;
+        }
+
+        if (el instanceof GridSqlAlias)
+            return collectTables(el.child(), tbls);
+
+        if (el instanceof GridSqlJoin) {
+            GridSqlJoin join = (GridSqlJoin)el;
+
+            return collectTables(join.leftTable(), tbls) && collectTables(join.rightTable(), tbls);
+        }
+
+        return false;
+    }
+
+    /**
+     * Estimates the number of groups as the product of the numbers of distinct values of the grouped columns taken
+     * from the column statistics, but not more than the number of rows of the largest table. The selectivity H2
+     * assumes for a column without statistics says nothing about its cardinality, so such a query is not estimated.
+     *
+     * @param select Select.
+     * @param tbls Data tables.
+     * @return Estimated number of groups or {@code -1} if a grouped column has no statistics.
+     */
+    private static long estimateGroups(GridSqlSelect select, List<GridH2Table> tbls) {
+        long rows = 0;
+
+        for (GridH2Table tbl : tbls)
+            rows = Math.max(rows, tbl.clusterRowCountEstimate());
+
+        List<GridSqlAst> cols = select.columns(false);
+
+        long groups = 1;
+
+        for (int grpCol : select.groupColumns()) {
+            GridSqlAst el = GridSqlAlias.unwrap(cols.get(grpCol));
+
+            if (!(el instanceof GridSqlColumn) || ((GridSqlColumn)el).column() == null)
+                return -1;
+
+            Column col = ((GridSqlColumn)el).column();
+
+            if (!(col.getTable() instanceof GridH2Table))
+                return -1;
+
+            ObjectStatistics stats = ((GridH2Table)col.getTable()).statistics();
+            ColumnStatistics colStats = stats != null ? stats.column(col.getName()) : null;
+
+            if (colStats == null)
+                return -1;
+
+            long distinct = Math.max(1, colStats.distinct());
+
+            if (distinct >= rows / groups)
+                return rows;
+
+            groups *= distinct;
+        }
+
+        return groups;
+    }
+
+    /**
+     * Rewrites the reduce query of the split to evaluate the rest of the query over the final groups.
+     *
+     * @param rdcQry Reduce query.
+     */
+    static void rewriteReduceQuery(GridSqlSelect rdcQry) {
+        rdcQry.groupColumns(null);
+
+        for (int i = 0; i < rdcQry.allColumns(); i++)
+            rdcQry.setColumn(i, withoutAggregates(rdcQry.columns(false).get(i)));
+
+        int havingCol = rdcQry.havingColumn();
+
+        if (havingCol >= 0) {
+            rdcQry.whereAnd(GridSqlAlias.unwrap(rdcQry.columns(false).get(havingCol)));
+
+            rdcQry.havingColumn(-1);
+        }
+    }
+
+    /**
+     * @param el Element of the reduce query.
+     * @return Element with the aggregates over a single final group replaced by their arguments.
+     */
+    private static GridSqlAst withoutAggregates(GridSqlAst el) {
+        if (el instanceof GridSqlAggregateFunction)
+            return el.child();
+
+        for (int i = 0; i < el.size(); i++)
+            el.child(i, withoutAggregates(el.child(i)));
+
+        return el;
+    }
+}
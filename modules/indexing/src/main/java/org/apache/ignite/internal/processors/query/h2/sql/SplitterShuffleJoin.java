@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
+import org.h2.table.Column;
+import org.h2.value.Value;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Inner join of two partitioned tables which is executed by map nodes as a shuffle hash join: each map node sends
+ * the rows of both tables matching the single table conditions to the node owning the hash of their join key, joins
+ * the received rows by a hash table and returns the joined rows to the reducer. Conditions referencing columns of
+ * both tables except the equalities of the join key are evaluated by the reducer.
+ * <p>
+ * The sides of the join are ordered by the table aliases, so all the map nodes agree on them whatever join order
+ * H2 chooses for the map query.
+ */
+public class SplitterShuffleJoin {
+    /** @see #IGNITE_SQL_SHUFFLE_JOIN */
+    public static final boolean DFLT_SQL_SHUFFLE_JOIN = false;
+
+    /** */
+    @SystemProperty(value = "Enables shuffle hash joins of non-collocated partitioned tables. Map nodes repartition " +
+        "the rows of both tables by the join key and join them locally, so distributed joins are not required",
+        defaults = "" + DFLT_SQL_SHUFFLE_JOIN)
+    public static final String IGNITE_SQL_SHUFFLE_JOIN = "IGNITE_SQL_SHUFFLE_JOIN";
+
+    /** Sides of the join. */
+    private final Side[] sides;
+
+    /** Types the values of the join key columns are converted to before hashing. */
+    private final List<Integer> keyTypes = new ArrayList<>();
+
+    /** Conditions referencing the columns of both tables. */
+    private final List<GridSqlAst> residual = new ArrayList<>();
+
+    /**
+     * @param sides Sides of the join.
+     */
+    private SplitterShuffleJoin(Side[] sides) {
+        this.sides = sides;
+    }
+
+    /**
+     * Analyzes the given select.
+     *
+     * @param select Select.
+     * @return Shuffle join or {@code null} if the select is not an inner equi-join of two partitioned tables.
+     */
+    @Nullable public static SplitterShuffleJoin analyze(GridSqlSelect select) {
+        if (!(select.from() instanceof GridSqlJoin))
+            return null;
+
+        GridSqlJoin join = (GridSqlJoin)select.from();
+
+        if (join.isLeftOuter() || !isPartitionedTable(join.leftTable()) || !isPartitionedTable(join.rightTable()))
+            return null;
+
+        GridSqlAlias left = (GridSqlAlias)join.leftTable();
+        GridSqlAlias right = (GridSqlAlias)join.rightTable();
+
+        if (left.alias().compareTo(right.alias()) > 0) {
+            GridSqlAlias tmp = left;
+
+            left = right;
+            right = tmp;
+        }
+
+        SplitterShuffleJoin res = new SplitterShuffleJoin(new Side[] {new Side(left), new Side(right)});
+
+        List<GridSqlAst> conds = new ArrayList<>();
+
+        collectConditions(join.on(), conds);
+        collectConditions(select.where(), conds);
+
+        for (GridSqlAst cond : conds) {
+            int refs = res.references(cond);
+
+            if (refs < 0)
+                return null;
+
+            if (refs == 0b11) {
+                if (!res.addKey(cond))
+                    res.residual.add(cond);
+            }
+            else
+                res.sides[refs == 0b10 ? 1 : 0].conds.add(cond);
+        }
+
+        return res.keyTypes.isEmpty() ? null : res;
+    }
+
+    /**
+     * @param side Side of the join: {@code 0} or {@code 1}.
+     * @return Side.
+     */
+    public Side side(int side) {
+        return sides[side];
+    }
+
+    /**
+     * @param col Column.
+     * @return Side of the join the column belongs to or {@code -1} if the column does not belong to the join.
+     */
+    public int sideOf(GridSqlColumn col) {
+        for (int i = 0; i < sides.length; i++) {
+            if (col.expressionInFrom() == sides[i].tbl)
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return Types the values of the join key columns are converted to before hashing.
+     */
+    public List<Integer> keyTypes() {
+        return keyTypes;
+    }
+
+    /**
+     * @return Conditions referencing the columns of both tables which are not the equalities of the join key.
+     */
+    public List<GridSqlAst> residualConditions() {
+        return residual;
+    }
+
+    /**
+     * @param el Element.
+     * @return {@code true} If the element is an aliased partitioned table.
+     */
+    private static boolean isPartitionedTable(GridSqlElement el) {
+        if (!(el instanceof GridSqlAlias) || !(el.child() instanceof GridSqlTable))
+            return false;
+
+        GridH2Table tbl = ((GridSqlTable)el.child()).dataTable();
+
+        return tbl != null && tbl.isPartitioned();
+    }
+
+    /**
+     * @param el Element.
+     * @param res Conditions in AND.
+     */
+    private static void collectConditions(@Nullable GridSqlAst el, List<GridSqlAst> res) {
+        if (el == null || SplitterUtils.isTrue(el))
+            return;
+
+        if (el instanceof GridSqlOperation && ((GridSqlOperation)el).operationType() == GridSqlOperationType.AND) {
+            collectConditions(el.child(0), res);
+            collectConditions(el.child(1), res);
+        }
+        else
+            res.add(el);
+    }
+
+    /**
+     * @param el Element.
+     * @return Bit mask of the sides referenced by the element or {@code -1} if it references other tables or
+     *      contains subqueries.
+     */
+    private int references(GridSqlAst el) {
+        if (el instanceof GridSqlQuery || el instanceof GridSqlSubquery)
+            return -1;
+
+        if (el instanceof GridSqlColumn) {
+            int side = sideOf((GridSqlColumn)el);
+
+            return side < 0 ? -1 : 1 << side;
+        }
+
+        int res = 0;
+
+        for (int i = 0; i < el.size(); i++) {
+            int refs = references(el.child(i));
+
+            if (refs < 0)
+                return -1;
+
+            res |= refs;
+        }
+
+        return res;
+    }
+
+    /**
+     * @param cond Condition referencing the columns of both tables.
+     * @return {@code true} If the condition is an equality of the join key columns.
+     */
+    private boolean addKey(GridSqlAst cond) {
+        if (!(cond instanceof GridSqlOperation) ||
+            ((GridSqlOperation)cond).operationType() != GridSqlOperationType.EQUAL ||
+            !(cond.child(0) instanceof GridSqlColumn) ||
+            !(cond.child(1) instanceof GridSqlColumn))
+            return false;
+
+        GridSqlColumn col0 = cond.child(0);
+        GridSqlColumn col1 = cond.child(1);
+
+        if (sideOf(col0) != 0) {
+            GridSqlColumn tmp = col0;
+
+            col0 = col1;
+            col1 = tmp;
+        }
+
+        int type = keyType(col0.column());
+
+        if (type == Value.UNKNOWN || type != keyType(col1.column()))
+            return false;
+
+        // Keep the key columns ordered by name, so all the map nodes hash the same key.
+        int pos = 0;
+
+        List<GridSqlColumn> keys0 = sides[0].keys;
+
+        while (pos < keys0.size() && compare(keys0.get(pos), sides[1].keys.get(pos), col0, col1) < 0)
+            pos++;
+
+        sides[0].keys.add(pos, col0);
+        sides[1].keys.add(pos, col1);
+        keyTypes.add(pos, type);
+
+        return true;
+    }
+
+    /**
+     * @param a0 Left column of the first key.
+     * @param a1 Right column of the first key.
+     * @param b0 Left column of the second key.
+     * @param b1 Right column of the second key.
+     * @return Comparison result.
+     */
+    private static int compare(GridSqlColumn a0, GridSqlColumn a1, GridSqlColumn b0, GridSqlColumn b1) {
+        int res = a0.columnName().compareTo(b0.columnName());
+
+        return res != 0 ? res : a1.columnName().compareTo(b1.columnName());
+    }
+
+    /**
+     * @param col Column.
+     * @return Type the values of the column are converted to before hashing or {@link Value#UNKNOWN} if the column
+     *      cannot be a part of the join key.
+     */
+    private static int keyType(@Nullable Column col) {
+        if (col == null)
+            return Value.UNKNOWN;
+
+        switch (col.getType()) {
+            case Value.BYTE:
+            case Value.SHORT:
+            case Value.INT:
+            case Value.LONG:
+                return Value.LONG;
+
+            case Value.STRING:
+            case Value.UUID:
+                return col.getType();
+
+            default:
+                return Value.UNKNOWN;
+        }
+    }
+
+    /**
+     * Side of the join.
+     */
+    public static class Side {
+        /** Aliased table. */
+        private final GridSqlAlias tbl;
+
+        /** Conditions referencing the columns of this table only. */
+        private final List<GridSqlAst> conds = new ArrayList<>();
+
+        /** Columns of the join key. */
+        private final List<GridSqlColumn> keys = new ArrayList<>();
+
+        /**
+         * @param tbl Aliased table.
+         */
+        private Side(GridSqlAlias tbl) {
+            this.tbl = tbl;
+        }
+
+        /**
+         * @return Aliased table.
+         */
+        public GridSqlAlias table() {
+            return tbl;
+        }
+
+        /**
+         * @return Conditions referencing the columns of this table only.
+         */
+        public List<GridSqlAst> conditions() {
+            return conds;
+        }
+
+        /**
+         * @return Columns of the join key.
+         */
+        public List<GridSqlColumn> keys() {
+            return keys;
+        }
+    }
+}
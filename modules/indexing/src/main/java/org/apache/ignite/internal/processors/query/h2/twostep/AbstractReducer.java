@@ -26,9 +26,11 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import javax.cache.CacheException;
 import org.apache.ignite.IgniteException;
+import org.apache.ignite.SystemProperty;
 import org.apache.ignite.cluster.ClusterNode;
 import org.apache.ignite.internal.GridKernalContext;
 import org.apache.ignite.internal.processors.query.h2.twostep.messages.GridQueryNextPageResponse;
@@ -36,6 +38,7 @@ import org.apache.ignite.internal.processors.tracing.MTC;
 import org.apache.ignite.internal.processors.tracing.MTC.TraceSurroundings;
 import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.internal.util.typedef.internal.U;
+import org.h2.engine.Constants;
 import org.h2.index.Cursor;
 import org.h2.result.Row;
 import org.h2.result.SearchRow;
@@ -55,6 +58,18 @@ import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_PAGE_WA
  * Base class for reducer of remote index lookup results.
  */
 public abstract class AbstractReducer implements Reducer {
+    /** @see #IGNITE_SQL_REDUCER_MEMORY_QUOTA */
+    public static final long DFLT_SQL_REDUCER_MEMORY_QUOTA = 64L * 1024 * 1024;
+
+    /** */
+    @SystemProperty(value = "Memory in bytes the rows received from map nodes are buffered in by the reducer of " +
+        "a query. Pages of fewer rows are requested from map nodes to fit it. 0 means unlimited", type = Long.class,
+        defaults = "" + DFLT_SQL_REDUCER_MEMORY_QUOTA)
+    public static final String IGNITE_SQL_REDUCER_MEMORY_QUOTA = "IGNITE_SQL_REDUCER_MEMORY_QUOTA";
+
+    /** Minimum number of rows requested in a page when the memory quota is exceeded. */
+    static final int MIN_PAGE_SIZE = 16;
+
     /** */
     static final int MAX_FETCH_SIZE = getInteger(IGNITE_SQL_MERGE_TABLE_MAX_SIZE, 10_000);
 
@@ -91,6 +106,24 @@ public abstract class AbstractReducer implements Reducer {
     /** */
     private int pageSize;
 
+    /** Number of source streams. */
+    private int streamsCnt;
+
+    /** Memory quota, {@code 0} if unlimited. */
+    private long memQuota;
+
+    /** Whether the pages are requested with a size other than {@link #pageSize}. */
+    private volatile boolean pageSizeAdapted;
+
+    /** Number of rows in the received pages which are not read yet. */
+    private final AtomicLong bufferedRows = new AtomicLong();
+
+    /** Number of the read rows. Written by the query execution thread only. */
+    private volatile long readRows;
+
+    /** Memory of the read rows. Written by the query execution thread only. */
+    private volatile long readMem;
+
     /**
      * Will be r/w from query execution thread only, does not need to be threadsafe.
      */
@@ -120,6 +153,8 @@ public abstract class AbstractReducer implements Reducer {
             if (!srcNodes.add(node.id()))
                 throw new IllegalStateException();
         }
+
+        streamsCnt = nodes.size() * segmentsCnt;
     }
 
     /** {@inheritDoc} */
@@ -137,6 +172,42 @@ public abstract class AbstractReducer implements Reducer {
         this.pageSize = pageSize;
     }
 
+    /** {@inheritDoc} */
+    @Override public void setMemoryQuota(long memQuota) {
+        this.memQuota = memQuota;
+    }
+
+    /** {@inheritDoc} */
+    @Override public long memoryUsed() {
+        long rows = readRows;
+
+        if (rows == 0)
+            return 0;
+
+        // The size of the fetched rows is read without synchronization, it is an estimation anyway.
+        return (bufferedRows.get() + fetched.size()) * (readMem / rows);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int nextPageSize() {
+        long rows = readRows;
+
+        if (memQuota <= 0 || rows == 0)
+            return pageSize;
+
+        long rowMem = Math.max(1, readMem / rows);
+
+        // Every source stream holds the page being read and the next requested one.
+        long fit = Math.max(0, memQuota - fetched.size() * rowMem) / (2L * streamsCnt * rowMem);
+
+        int size = (int)Math.max(MIN_PAGE_SIZE, Math.min(pageSize, fit));
+
+        if (size != pageSize && !pageSizeAdapted)
+            pageSizeAdapted = true;
+
+        return size;
+    }
+
     /** {@inheritDoc} */
     @Override public void onFailure(UUID nodeId, final CacheException e) {
         if (nodeId == null)
@@ -214,6 +285,9 @@ public abstract class AbstractReducer implements Reducer {
     /** {@inheritDoc} */
     @Override public void addPage(ReduceResultPage page) {
         markLastPage(page);
+
+        bufferedRows.addAndGet(page.rowsInPage());
+
         addPage0(page);
     }
 
@@ -250,6 +324,11 @@ public abstract class AbstractReducer implements Reducer {
         GridQueryNextPageResponse res = page.response();
 
         if (!res.last()) {
+            // The number of the last page can not be calculated from the number of rows once the page size is
+            // adapted, so only the last page flag of the map node ends the stream.
+            if (pageSizeAdapted)
+                return;
+
             UUID nodeId = page.source();
 
             initLastPages(nodeId, res);
@@ -326,7 +405,7 @@ public abstract class AbstractReducer implements Reducer {
                 if (!page.isLast())
                     page.fetchNextPage(); // Failed will throw an exception here.
 
-                iter = page.rows();
+                iter = trackRows(page.rows());
 
                 MTC.span().addTag(SQL_PAGE_ROWS, () -> Integer.toString(page.rowsInPage()));
 
@@ -338,6 +417,34 @@ public abstract class AbstractReducer implements Reducer {
         return iter;
     }
 
+    /**
+     * @param rows Rows of a page.
+     * @return Iterator accounting the memory of the read rows.
+     */
+    private Iterator<Value[]> trackRows(Iterator<Value[]> rows) {
+        return new Iterator<Value[]>() {
+            @Override public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override public Value[] next() {
+                Value[] row = rows.next();
+
+                long mem = Constants.MEMORY_ARRAY + row.length * Constants.MEMORY_POINTER;
+
+                for (Value val : row)
+                    mem += val.getMemory();
+
+                bufferedRows.decrementAndGet();
+
+                readMem += mem;
+                readRows++;
+
+                return row;
+            }
+        };
+    }
+
     /**
      * @param queue Queue to poll.
      * @return Next page.
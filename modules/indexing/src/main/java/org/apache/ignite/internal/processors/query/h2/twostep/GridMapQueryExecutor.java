@@ -35,6 +35,7 @@ import javax.cache.CacheException;
 import org.apache.ignite.IgniteCheckedException;
 import org.apache.ignite.IgniteException;
 import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
 import org.apache.ignite.cache.query.QueryCancelledException;
 import org.apache.ignite.cache.query.QueryRetryException;
 import org.apache.ignite.cache.query.SqlFieldsQuery;
@@ -43,6 +44,7 @@ import org.apache.ignite.events.CacheQueryExecutedEvent;
 import org.apache.ignite.events.DiscoveryEvent;
 import org.apache.ignite.internal.GridKernalContext;
 import org.apache.ignite.internal.GridTopic;
+import org.apache.ignite.internal.IgniteInternalFuture;
 import org.apache.ignite.internal.metric.IoStatisticsHolder;
 import org.apache.ignite.internal.metric.IoStatisticsQueryHelper;
 import org.apache.ignite.internal.processors.affinity.AffinityTopologyVersion;
@@ -51,6 +53,8 @@ import org.apache.ignite.internal.processors.cache.mvcc.MvccSnapshot;
 import org.apache.ignite.internal.processors.cache.query.CacheQueryType;
 import org.apache.ignite.internal.processors.cache.query.GridCacheQueryType;
 import org.apache.ignite.internal.processors.cache.query.GridCacheSqlQuery;
+import org.apache.ignite.internal.processors.metric.MetricRegistry;
+import org.apache.ignite.internal.processors.metric.impl.LongAdderMetric;
 import org.apache.ignite.internal.processors.query.GridQueryCancel;
 import org.apache.ignite.internal.processors.query.h2.H2PooledConnection;
 import org.apache.ignite.internal.processors.query.h2.H2StatementCache;
@@ -62,6 +66,7 @@ import org.apache.ignite.internal.processors.query.h2.opt.GridH2RetryException;
 import org.apache.ignite.internal.processors.query.h2.opt.QueryContext;
 import org.apache.ignite.internal.processors.query.h2.opt.QueryContextRegistry;
 import org.apache.ignite.internal.processors.query.h2.opt.join.DistributedJoinContext;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlQueryParser;
 import org.apache.ignite.internal.processors.query.h2.twostep.messages.GridQueryCancelRequest;
 import org.apache.ignite.internal.processors.query.h2.twostep.messages.GridQueryFailResponse;
 import org.apache.ignite.internal.processors.query.h2.twostep.messages.GridQueryNextPageRequest;
@@ -69,24 +74,31 @@ import org.apache.ignite.internal.processors.query.h2.twostep.messages.GridQuery
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2DmlRequest;
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2DmlResponse;
 import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2QueryRequest;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
 import org.apache.ignite.internal.processors.tracing.MTC;
 import org.apache.ignite.internal.processors.tracing.MTC.TraceSurroundings;
 import org.apache.ignite.internal.processors.tracing.Span;
 import org.apache.ignite.internal.processors.tracing.SpanType;
+import org.apache.ignite.internal.util.GridBoundedConcurrentLinkedHashMap;
 import org.apache.ignite.internal.util.lang.GridPlainCallable;
 import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.internal.util.typedef.T1;
 import org.apache.ignite.internal.util.typedef.X;
 import org.apache.ignite.internal.util.typedef.internal.CU;
 import org.apache.ignite.internal.util.typedef.internal.U;
 import org.apache.ignite.spi.indexing.IndexingQueryFilter;
 import org.h2.api.ErrorCode;
+import org.h2.command.Prepared;
 import org.h2.jdbc.JdbcResultSet;
 import org.h2.value.Value;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import static org.apache.ignite.events.EventType.EVT_CACHE_QUERY_EXECUTED;
+import static org.apache.ignite.internal.managers.communication.GridIoPolicy.IDX_POOL;
 import static org.apache.ignite.internal.managers.communication.GridIoPolicy.QUERY_POOL;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapVectorizedQuery.DFLT_SQL_MAP_VECTORIZED_EXECUTION;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapVectorizedQuery.IGNITE_SQL_MAP_VECTORIZED_EXECUTION;
 import static org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2QueryRequest.isDataPageScanEnabled;
 import static org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessageFactory.toMessages;
 import static org.apache.ignite.internal.processors.tracing.SpanTags.ERROR;
@@ -96,12 +108,16 @@ import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_NEXT_PA
 import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_PAGE_PREPARE;
 import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_QRY_CANCEL_REQ;
 import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_QRY_EXEC_REQ;
+import static org.jsr166.ConcurrentLinkedHashMap.QueuePolicy.PER_SEGMENT_Q;
 
 /**
  * Map query executor.
  */
 @SuppressWarnings("ForLoopReplaceableByForEach")
 public class GridMapQueryExecutor {
+    /** Map query executor metric group name. */
+    static final String MAP_QUERY_METRIC_GROUP_NAME = "sql.map";
+
     /** */
     private IgniteLogger log;
 
@@ -117,6 +133,33 @@ public class GridMapQueryExecutor {
     /** */
     private ConcurrentMap<UUID, MapNodeResults> qryRess = new ConcurrentHashMap<>();
 
+    /** Whether simple aggregating map queries are executed over column batches instead of H2. */
+    private final boolean vectorized = IgniteSystemProperties.getBoolean(IGNITE_SQL_MAP_VECTORIZED_EXECUTION,
+        DFLT_SQL_MAP_VECTORIZED_EXECUTION);
+
+    /** Rows received for shuffle queries by the reducer node and the request. */
+    private final ConcurrentMap<MapRequestKey, MapShuffleExchange> shuffles = new ConcurrentHashMap<>();
+
+    /** Finished shuffle queries, rows received for them are dropped. */
+    private final GridBoundedConcurrentLinkedHashMap<MapRequestKey, Boolean> finishedShuffles =
+        new GridBoundedConcurrentLinkedHashMap<>(1024, 1024, 0.75f, 64, PER_SEGMENT_Q);
+
+    /**
+     * Vectorized plans by the prepared map queries, an empty tuple if a query is not vectorizable. A prepared query
+     * is replaced by H2 on recompilation, so a plan is never used after a schema change.
+     */
+    private final GridBoundedConcurrentLinkedHashMap<Prepared, T1<MapVectorizedQuery>> vectorizedPlans =
+        new GridBoundedConcurrentLinkedHashMap<>(1024, 1024, 0.75f, 64, PER_SEGMENT_Q);
+
+    /** Number of map queries executed over column batches. */
+    private LongAdderMetric vectorizedExecs;
+
+    /** Number of map queries joining the rows shuffled between the map nodes. */
+    private LongAdderMetric shuffleJoins;
+
+    /** Number of map queries merging the partial groups shuffled between the map nodes. */
+    private LongAdderMetric shuffleAggs;
+
     /**
      * @param ctx Context.
      * @param h2 H2 Indexing.
@@ -129,6 +172,14 @@ public class GridMapQueryExecutor {
         qryCtxRegistry = h2.queryContextRegistry();
 
         log = ctx.log(GridMapQueryExecutor.class);
+
+        MetricRegistry mreg = ctx.metric().registry(MAP_QUERY_METRIC_GROUP_NAME);
+
+        vectorizedExecs = mreg.longAdderMetric("vectorized", "Count of map queries executed over column batches");
+        shuffleJoins = mreg.longAdderMetric("shuffleJoins",
+            "Count of map queries joining the rows shuffled between the map nodes");
+        shuffleAggs = mreg.longAdderMetric("shuffleAggregates",
+            "Count of map queries merging the partial groups shuffled between the map nodes");
     }
 
     /**
@@ -140,6 +191,13 @@ public class GridMapQueryExecutor {
 
         qryCtxRegistry.clearSharedOnRemoteNodeStop(nodeId);
 
+        for (Map.Entry<MapRequestKey, MapShuffleExchange> e : shuffles.entrySet()) {
+            if (e.getKey().nodeId().equals(nodeId))
+                finishShuffle(e.getKey());
+            else
+                e.getValue().onNodeLeft(nodeId);
+        }
+
         MapNodeResults nodeRess = qryRess.remove(nodeId);
 
         if (nodeRess == null)
@@ -175,6 +233,8 @@ public class GridMapQueryExecutor {
             }
 
             nodeRess.cancelRequest(qryReqId);
+
+            finishShuffle(new MapRequestKey(node.id(), qryReqId, 0));
         }
     }
 
@@ -257,7 +317,8 @@ public class GridMapQueryExecutor {
                                 lazy,
                                 req.mvccSnapshot(),
                                 dataPageScanEnabled,
-                                treatReplicatedAsPartitioned
+                                treatReplicatedAsPartitioned,
+                                null
                             );
 
                             return null;
@@ -284,7 +345,8 @@ public class GridMapQueryExecutor {
             lazy,
             req.mvccSnapshot(),
             dataPageScanEnabled,
-            treatReplicatedAsPartitioned
+            treatReplicatedAsPartitioned,
+            req.shuffleNodes() == null ? null : new ArrayList<>(req.shuffleNodes())
         );
     }
 
@@ -307,6 +369,8 @@ public class GridMapQueryExecutor {
      * @param lazy Streaming flag.
      * @param mvccSnapshot MVCC snapshot.
      * @param dataPageScanEnabled If data page scan is enabled.
+     * @param treatReplicatedAsPartitioned Treat replicated as partitioned flag.
+     * @param shuffleNodes Map nodes exchanging rows of shuffle queries.
      */
     private void onQueryRequest0(
         final ClusterNode node,
@@ -327,7 +391,8 @@ public class GridMapQueryExecutor {
         boolean lazy,
         @Nullable final MvccSnapshot mvccSnapshot,
         Boolean dataPageScanEnabled,
-        boolean treatReplicatedAsPartitioned
+        boolean treatReplicatedAsPartitioned,
+        @Nullable List<UUID> shuffleNodes
     ) {
         boolean performanceStatsEnabled = ctx.performanceStatistics().enabled();
 
@@ -345,6 +410,9 @@ public class GridMapQueryExecutor {
 
         QueryContext qctx = null;
 
+        // Set when the query context is released by the completion of a shuffle query.
+        boolean shuffleAsync = false;
+
         // We don't use try with resources on purpose - the catch block must also be executed in the context of this span.
         TraceSurroundings trace = MTC.support(ctx.tracing()
             .create(SQL_QRY_EXEC_REQ, MTC.span())
@@ -365,6 +433,8 @@ public class GridMapQueryExecutor {
                 if (reserved.failed()) {
                     sendRetry(node, reqId, segmentId, reserved.error());
 
+                    failShuffle(node.id(), reqId, shuffleNodes, true, reserved.error());
+
                     return;
                 }
             }
@@ -446,7 +516,47 @@ public class GridMapQueryExecutor {
 
                         MapH2QueryInfo qryInfo = new MapH2QueryInfo(stmt, qry.query(), node, reqId, segmentId);
 
-                        ResultSet rs = h2.executeSqlQueryWithTimer(
+                        MapShuffle shuffle = null;
+
+                        if (shuffleNodes != null && qry.isShuffleJoin())
+                            shuffle = MapShuffleJoin.plan(stmt, log);
+                        else if (shuffleNodes != null && qry.isShuffleAggregate())
+                            shuffle = MapShuffleAggregate.plan(stmt, log);
+
+                        MapVectorizedQuery vecQry = vectorized && shuffle == null ? vectorizedPlan(stmt) : null;
+
+                        List<Value[]> rows = null;
+                        int rowCols = 0;
+
+                        IgniteInternalFuture<MapShuffle.Receiver> shuffleFut = null;
+
+                        if (shuffle != null) {
+                            shuffleFut = executeShuffle(
+                                shuffle,
+                                conn,
+                                node.id(),
+                                reqId,
+                                shuffleNodes,
+                                qry.parameters(params),
+                                timeout,
+                                qryResults.queryCancel(qryIdx),
+                                dataPageScanEnabled);
+                        }
+                        else if (vecQry != null) {
+                            rows = vecQry.execute(
+                                h2.objectContext(),
+                                qctx,
+                                qry.parameters(params),
+                                qryResults.queryCancel(qryIdx),
+                                timeout > 0 ? U.currentTimeMillis() + timeout : 0);
+
+                            rowCols = vecQry.columnCount();
+
+                            if (rows != null)
+                                vectorizedExecs.increment();
+                        }
+
+                        ResultSet rs = rows != null || shuffleFut != null ? null : h2.executeSqlQueryWithTimer(
                             stmt,
                             conn,
                             sql,
@@ -471,28 +581,43 @@ public class GridMapQueryExecutor {
                                 null));
                         }
 
-                        assert rs instanceof JdbcResultSet : rs.getClass();
+                        assert rows != null || shuffleFut != null || rs instanceof JdbcResultSet : rs.getClass();
 
                         if (qryResults.cancelled()) {
-                            rs.close();
+                            if (rs != null)
+                                rs.close();
 
                             throw new QueryCancelledException();
                         }
 
-                        res.openResult(rs, qryInfo);
+                        if (shuffleFut != null) {
+                            // The rows of the other map nodes are awaited without blocking the query pool.
+                            assert qryIdx == qrys.size() - 1 : "Shuffle query must be the last map query.";
 
-                        final GridQueryNextPageResponse msg = prepareNextPage(
-                            nodeRess,
-                            node,
-                            qryResults,
-                            qryIdx,
-                            segmentId,
-                            pageSize,
-                            dataPageScanEnabled
-                        );
+                            completeShuffleAsync(shuffleFut, shuffle, res, node, reqId, segmentId, qryIdx, pageSize,
+                                nodeRess, qryResults, qctx, lazy, dataPageScanEnabled, shuffleNodes, qryInfo);
 
-                        if (msg != null)
-                            sendNextPage(node, msg);
+                            shuffleAsync = true;
+                        }
+                        else {
+                            if (rows != null)
+                                res.openResult(rows, rowCols, qryInfo);
+                            else
+                                res.openResult(rs, qryInfo);
+
+                            final GridQueryNextPageResponse msg = prepareNextPage(
+                                nodeRess,
+                                node,
+                                qryResults,
+                                qryIdx,
+                                segmentId,
+                                pageSize,
+                                dataPageScanEnabled
+                            );
+
+                            if (msg != null)
+                                sendNextPage(node, msg);
+                        }
                     }
                     else {
                         assert !qry.isPartitioned();
@@ -512,56 +637,11 @@ public class GridMapQueryExecutor {
                 }
             } // for map queries
 
-            if (!lazy)
+            if (!lazy && !shuffleAsync)
                 qryResults.releaseQueryContext();
         }
         catch (Throwable e) {
-            if (qryResults != null) {
-                nodeRess.remove(reqId, segmentId, qryResults);
-
-                qryResults.close();
-
-                // If a query is cancelled before execution is started partitions have to be released.
-                if (!lazy || !qryResults.isAllClosed())
-                    qryResults.releaseQueryContext();
-            }
-            else
-                releaseReservations(qctx);
-
-            if (e instanceof QueryCancelledException)
-                sendError(node, reqId, e);
-            else {
-                SQLException sqlEx = X.cause(e, SQLException.class);
-
-                if (sqlEx != null && sqlEx.getErrorCode() == ErrorCode.STATEMENT_WAS_CANCELED)
-                    sendQueryCancel(node, reqId);
-                else {
-                    GridH2RetryException retryErr = X.cause(e, GridH2RetryException.class);
-
-                    if (retryErr != null) {
-                        final String retryCause = String.format(
-                            "Failed to execute non-collocated query (will retry) [localNodeId=%s, rmtNodeId=%s, reqId=%s, " +
-                                "errMsg=%s]", ctx.localNodeId(), node.id(), reqId, retryErr.getMessage()
-                        );
-
-                        sendRetry(node, reqId, segmentId, retryCause);
-                    }
-                    else {
-                        QueryRetryException qryRetryErr = X.cause(e, QueryRetryException.class);
-
-                        if (qryRetryErr != null)
-                            sendError(node, reqId, qryRetryErr);
-                        else {
-                            U.error(log, "Failed to execute local query.", e);
-
-                            sendError(node, reqId, e);
-
-                            if (e instanceof Error)
-                                throw (Error)e;
-                        }
-                    }
-                }
-            }
+            onQueryFailed(node, reqId, segmentId, nodeRess, qryResults, qctx, lazy, shuffleNodes, e);
         }
         finally {
             if (reserved != null)
@@ -585,6 +665,167 @@ public class GridMapQueryExecutor {
         }
     }
 
+    /**
+     * Opens the result of a shuffle query and sends its first page once the rows of the other map nodes are
+     * received. The completion runs in the query pool and never awaits the other nodes.
+     *
+     * @param fut Future completed with the received rows.
+     * @param shuffle Shuffle query.
+     * @param res Result of the query.
+     * @param node Reducer node.
+     * @param reqId Request ID.
+     * @param segmentId Index segment ID.
+     * @param qryIdx Index of the query.
+     * @param pageSize Page size.
+     * @param nodeRess Results of the reducer node.
+     * @param qryResults Results of the request.
+     * @param qctx Query context.
+     * @param lazy Streaming flag.
+     * @param dataPageScanEnabled If data page scan is enabled.
+     * @param shuffleNodes Map nodes exchanging rows.
+     * @param qryInfo Query info.
+     */
+    private void completeShuffleAsync(
+        IgniteInternalFuture<MapShuffle.Receiver> fut,
+        MapShuffle shuffle,
+        MapQueryResult res,
+        ClusterNode node,
+        long reqId,
+        int segmentId,
+        int qryIdx,
+        int pageSize,
+        MapNodeResults nodeRess,
+        MapQueryResults qryResults,
+        QueryContext qctx,
+        boolean lazy,
+        Boolean dataPageScanEnabled,
+        List<UUID> shuffleNodes,
+        MapH2QueryInfo qryInfo
+    ) {
+        fut.listen(f -> ctx.closure().runLocalSafe(() -> {
+            MapShuffle.Receiver rcv = null;
+
+            boolean opened = false;
+
+            try {
+                rcv = f.get();
+
+                res.lock();
+
+                try {
+                    if (qryResults.cancelled())
+                        throw new QueryCancelledException();
+
+                    res.openResult(rcv.result(), shuffle.columnCount(), qryInfo);
+
+                    opened = true;
+
+                    GridQueryNextPageResponse msg = prepareNextPage(
+                        nodeRess,
+                        node,
+                        qryResults,
+                        qryIdx,
+                        segmentId,
+                        pageSize,
+                        dataPageScanEnabled
+                    );
+
+                    if (msg != null)
+                        sendNextPage(node, msg);
+                }
+                finally {
+                    res.unlock();
+                }
+
+                if (!lazy)
+                    qryResults.releaseQueryContext();
+            }
+            catch (Throwable e) {
+                if (rcv != null && !opened)
+                    rcv.close();
+
+                onQueryFailed(node, reqId, segmentId, nodeRess, qryResults, qctx, lazy, shuffleNodes, e);
+            }
+            finally {
+                finishShuffle(new MapRequestKey(node.id(), reqId, 0));
+            }
+        }, QUERY_POOL));
+    }
+
+    /**
+     * Releases the resources of a failed request and notifies the reducer node.
+     *
+     * @param node Reducer node.
+     * @param reqId Request ID.
+     * @param segmentId Index segment ID.
+     * @param nodeRess Results of the reducer node.
+     * @param qryResults Results of the request or {@code null} if not created yet.
+     * @param qctx Query context or {@code null} if not created yet.
+     * @param lazy Streaming flag.
+     * @param shuffleNodes Map nodes exchanging rows of shuffle queries.
+     * @param e Error.
+     */
+    private void onQueryFailed(
+        ClusterNode node,
+        long reqId,
+        int segmentId,
+        MapNodeResults nodeRess,
+        @Nullable MapQueryResults qryResults,
+        @Nullable QueryContext qctx,
+        boolean lazy,
+        @Nullable List<UUID> shuffleNodes,
+        Throwable e
+    ) {
+        if (qryResults != null) {
+            nodeRess.remove(reqId, segmentId, qryResults);
+
+            qryResults.close();
+
+            // If a query is cancelled before execution is started partitions have to be released.
+            if (!lazy || !qryResults.isAllClosed())
+                qryResults.releaseQueryContext();
+        }
+        else
+            releaseReservations(qctx);
+
+        failShuffle(node.id(), reqId, shuffleNodes, X.hasCause(e, GridH2RetryException.class), e.getMessage());
+
+        if (e instanceof QueryCancelledException)
+            sendError(node, reqId, e);
+        else {
+            SQLException sqlEx = X.cause(e, SQLException.class);
+
+            if (sqlEx != null && sqlEx.getErrorCode() == ErrorCode.STATEMENT_WAS_CANCELED)
+                sendQueryCancel(node, reqId);
+            else {
+                GridH2RetryException retryErr = X.cause(e, GridH2RetryException.class);
+
+                if (retryErr != null) {
+                    final String retryCause = String.format(
+                        "Failed to execute non-collocated query (will retry) [localNodeId=%s, rmtNodeId=%s, reqId=%s, " +
+                            "errMsg=%s]", ctx.localNodeId(), node.id(), reqId, retryErr.getMessage()
+                    );
+
+                    sendRetry(node, reqId, segmentId, retryCause);
+                }
+                else {
+                    QueryRetryException qryRetryErr = X.cause(e, QueryRetryException.class);
+
+                    if (qryRetryErr != null)
+                        sendError(node, reqId, qryRetryErr);
+                    else {
+                        U.error(log, "Failed to execute local query.", e);
+
+                        sendError(node, reqId, e);
+
+                        if (e instanceof Error)
+                            throw (Error)e;
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * @param cacheIds Cache ids.
      * @return Id of the first cache in list, or {@code null} if list is empty.
@@ -955,6 +1196,149 @@ public class GridMapQueryExecutor {
         }
     }
 
+    /**
+     * @param stmt Prepared map query.
+     * @return Vectorized plan of the query or {@code null} if the query is not vectorizable.
+     */
+    @Nullable private MapVectorizedQuery vectorizedPlan(PreparedStatement stmt) {
+        Prepared prepared = GridSqlQueryParser.prepared(stmt);
+
+        T1<MapVectorizedQuery> plan = vectorizedPlans.get(prepared);
+
+        if (plan == null) {
+            plan = new T1<>(MapVectorizedQuery.plan(stmt, log));
+
+            vectorizedPlans.putIfAbsent(prepared, plan);
+        }
+
+        return plan.get();
+    }
+
+    /**
+     * @param shuffle Shuffle query.
+     * @param conn Connection set up for the map query.
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Request ID.
+     * @param nodes Map nodes exchanging rows.
+     * @param params Query parameters.
+     * @param timeout Query timeout.
+     * @param cancel Query cancel.
+     * @param dataPageScanEnabled If data page scan is enabled.
+     * @return Future completed with the rows received from the map nodes.
+     * @throws IgniteCheckedException If failed.
+     */
+    private IgniteInternalFuture<MapShuffle.Receiver> executeShuffle(
+        MapShuffle shuffle,
+        H2PooledConnection conn,
+        UUID rdcNodeId,
+        long reqId,
+        List<UUID> nodes,
+        Object[] params,
+        int timeout,
+        GridQueryCancel cancel,
+        Boolean dataPageScanEnabled
+    ) throws IgniteCheckedException {
+        MapRequestKey key = new MapRequestKey(rdcNodeId, reqId, 0);
+
+        MapShuffleExchange exch = shuffles.computeIfAbsent(key, k -> newShuffleExchange());
+
+        if (shuffle instanceof MapShuffleJoin)
+            shuffleJoins.increment();
+        else
+            shuffleAggs.increment();
+
+        return shuffle.execute(h2, conn, exch, this::sendShuffleRows, rdcNodeId, reqId, nodes, params, timeout,
+            cancel, dataPageScanEnabled);
+    }
+
+    /**
+     * @return Rows received for a shuffle query.
+     */
+    private MapShuffleExchange newShuffleExchange() {
+        return new MapShuffleExchange(ctx, h2.connections().dataHandler());
+    }
+
+    /**
+     * @param node Node sent the rows.
+     * @param msg Rows of a shuffle query input.
+     */
+    public void onShuffleRows(ClusterNode node, GridH2ShuffleRowsMessage msg) {
+        MapRequestKey key = new MapRequestKey(msg.reducerNodeId(), msg.requestId(), 0);
+
+        if (finishedShuffles.containsKey(key))
+            return;
+
+        shuffles.computeIfAbsent(key, k -> newShuffleExchange()).onMessage(node.id(), msg);
+
+        // The query could be finished concurrently.
+        if (finishedShuffles.containsKey(key))
+            finishShuffle(key);
+    }
+
+    /**
+     * @param nodeId Target node ID.
+     * @param msg Rows of a shuffle query input.
+     */
+    private void sendShuffleRows(UUID nodeId, GridH2ShuffleRowsMessage msg) {
+        if (ctx.localNodeId().equals(nodeId)) {
+            onShuffleRows(ctx.discovery().localNode(), msg);
+
+            return;
+        }
+
+        try {
+            ctx.io().sendToGridTopic(nodeId, GridTopic.TOPIC_QUERY, msg, IDX_POOL);
+        }
+        catch (IgniteCheckedException e) {
+            throw new IgniteException("Failed to send rows of shuffle query [node=" + nodeId + ']', e);
+        }
+    }
+
+    /**
+     * @param key Reducer node and request of the shuffle query.
+     */
+    private void finishShuffle(MapRequestKey key) {
+        finishedShuffles.put(key, Boolean.TRUE);
+
+        MapShuffleExchange exch = shuffles.remove(key);
+
+        if (exch != null)
+            exch.close();
+    }
+
+    /**
+     * Notifies the other map nodes of a shuffle query that it failed on this node, so they do not await its rows.
+     *
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Request ID.
+     * @param nodes Map nodes exchanging rows or {@code null} if the request has no shuffle queries.
+     * @param retry Whether the query is retried.
+     * @param err Error message.
+     */
+    private void failShuffle(UUID rdcNodeId, long reqId, @Nullable List<UUID> nodes, boolean retry, String err) {
+        if (nodes == null)
+            return;
+
+        finishShuffle(new MapRequestKey(rdcNodeId, reqId, 0));
+
+        GridH2ShuffleRowsMessage msg = new GridH2ShuffleRowsMessage(rdcNodeId, reqId,
+            retry ? GridH2ShuffleRowsMessage.STATUS_RETRY : GridH2ShuffleRowsMessage.STATUS_ERROR, err);
+
+        for (UUID nodeId : nodes) {
+            if (ctx.localNodeId().equals(nodeId))
+                continue;
+
+            try {
+                ctx.io().sendToGridTopic(nodeId, GridTopic.TOPIC_QUERY, msg, IDX_POOL);
+            }
+            catch (IgniteCheckedException e) {
+                if (log.isDebugEnabled())
+                    log.debug("Failed to notify map node of shuffle query failure [node=" + nodeId + ", err=" + e +
+                        ']');
+            }
+        }
+    }
+
     /**
      * @param node Node.
      * @param reqId Request ID.
@@ -101,6 +101,8 @@ import static org.apache.ignite.internal.processors.cache.mvcc.MvccUtils.checkAc
 import static org.apache.ignite.internal.processors.cache.mvcc.MvccUtils.tx;
 import static org.apache.ignite.internal.processors.cache.query.GridCacheSqlQuery.EMPTY_PARAMS;
 import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlQuerySplitter.mergeTableIdentifier;
+import static org.apache.ignite.internal.processors.query.h2.twostep.AbstractReducer.DFLT_SQL_REDUCER_MEMORY_QUOTA;
+import static org.apache.ignite.internal.processors.query.h2.twostep.AbstractReducer.IGNITE_SQL_REDUCER_MEMORY_QUOTA;
 import static org.apache.ignite.internal.processors.tracing.SpanTags.ERROR;
 import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_DML_QRY_RESP;
 import static org.apache.ignite.internal.processors.tracing.SpanType.SQL_FAIL_RESP;
@@ -157,6 +159,10 @@ public class GridReduceQueryExecutor {
     /** Default query timeout. */
     private final long dfltQueryTimeout = IgniteSystemProperties.getLong(IGNITE_SQL_RETRY_TIMEOUT, DFLT_RETRY_TIMEOUT);
 
+    /** Memory the rows received by the reducers of a query are buffered in. */
+    private final long rdcMemQuota = IgniteSystemProperties.getLong(IGNITE_SQL_REDUCER_MEMORY_QUOTA,
+        DFLT_SQL_REDUCER_MEMORY_QUOTA);
+
     /** Partition mapper. */
     private ReducePartitionMapper mapper;
 
@@ -253,8 +259,6 @@ public class GridReduceQueryExecutor {
             if (r == null) // Already finished with error or canceled.
                 return;
 
-            final int pageSize = r.pageSize();
-
             Reducer idx = r.reducers().get(msg.query());
 
             ReduceResultPage page;
@@ -272,7 +276,8 @@ public class GridReduceQueryExecutor {
                         }
 
                         try {
-                            GridQueryNextPageRequest msg0 = new GridQueryNextPageRequest(qryReqId, qry, seg, pageSize,
+                            GridQueryNextPageRequest msg0 = new GridQueryNextPageRequest(qryReqId, qry, seg,
+                                idx.nextPageSize(),
                                 (byte)GridH2QueryRequest.setDataPageScanEnabled(0, r.isDataPageScanEnabled()));
 
                             if (node.isLocal())
@@ -430,6 +435,8 @@ public class GridReduceQueryExecutor {
 
                 runs.put(qryReqId, r);
 
+                h2.runningQueryManager().trackReducerMemory(r::memoryUsed);
+
                 try {
                     cancel.add(() -> send(nodes, new GridQueryCancelRequest(qryReqId), null, true));
 
@@ -450,6 +457,12 @@ public class GridReduceQueryExecutor {
                     if (mvccTracker != null)
                         req.mvccSnapshot(mvccTracker.snapshot());
 
+                    // Map nodes of shuffle joins and aggregations exchange rows with each other.
+                    boolean shuffle = mapQueries.stream().anyMatch(q -> q.isShuffleJoin() || q.isShuffleAggregate());
+
+                    if (!qry.explain() && shuffle)
+                        req.shuffleNodes(new ArrayList<>(F.nodeIds(nodes)));
+
                     final C2<ClusterNode, Message, Message> spec =
                         parts == null ? null : new ReducePartitionsSpecializer(mapping.queryPartitionsMap());
 
@@ -756,6 +769,9 @@ public class GridReduceQueryExecutor {
             r.reducers().add(reducer);
         }
 
+        for (Reducer reducer : r.reducers())
+            reducer.setMemoryQuota(rdcMemQuota / r.reducers().size());
+
         r.init( (r.reducers().size() - replicatedQrysCnt) * nodes.size() * segmentsPerIndex + replicatedQrysCnt);
 
         return r;
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.jetbrains.annotations.Nullable;
+
+import static org.apache.ignite.internal.processors.cache.query.IgniteQueryErrorCode.FIELD_TYPE_MISMATCH;
+
+/**
+ * Batch of values of a numeric column read by the vectorized execution of a map query. Integral values are kept as
+ * longs and floating point values as doubles, so predicates and aggregates are evaluated over primitive arrays.
+ */
+class MapColumnVector {
+    /** Whether the values are floating point. */
+    final boolean floating;
+
+    /** Integral values. */
+    final long[] longs;
+
+    /** Floating point values. */
+    final double[] doubles;
+
+    /** Null flags. */
+    final boolean[] nulls;
+
+    /**
+     * @param floating Whether the values are floating point.
+     * @param capacity Batch capacity.
+     */
+    MapColumnVector(boolean floating, int capacity) {
+        this.floating = floating;
+
+        longs = floating ? null : new long[capacity];
+        doubles = floating ? new double[capacity] : null;
+        nulls = new boolean[capacity];
+    }
+
+    /**
+     * @param idx Index in the batch.
+     * @param val Column value.
+     */
+    void set(int idx, @Nullable Object val) {
+        if (val == null) {
+            nulls[idx] = true;
+
+            return;
+        }
+
+        if (!(val instanceof Number)) {
+            throw new IgniteSQLException("Failed to read a numeric column value [cls=" + val.getClass().getName() +
+                ']', FIELD_TYPE_MISMATCH);
+        }
+
+        nulls[idx] = false;
+
+        if (floating)
+            doubles[idx] = ((Number)val).doubleValue();
+        else
+            longs[idx] = ((Number)val).longValue();
+    }
+
+    /**
+     * @param idx Index in the batch.
+     * @return Value as double.
+     */
+    double doubleValue(int idx) {
+        return floating ? doubles[idx] : longs[idx];
+    }
+}
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.locks.ReentrantLock;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteException;
 import org.apache.ignite.IgniteLogger;
 import org.apache.ignite.events.CacheQueryReadEvent;
 import org.apache.ignite.internal.GridKernalContext;
@@ -38,6 +40,7 @@ import org.apache.ignite.internal.processors.query.h2.MapH2QueryInfo;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
 import org.apache.ignite.internal.processors.query.h2.opt.GridH2ValueCacheObject;
 import org.apache.ignite.internal.processors.query.h2.opt.QueryContext;
+import org.apache.ignite.internal.util.lang.GridCloseableIterator;
 import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.internal.util.typedef.internal.U;
 import org.h2.engine.Session;
@@ -138,6 +141,24 @@ class MapQueryResult {
         res = new Result(rs, qryInfo);
     }
 
+    /**
+     * @param rows Rows computed without H2 by the vectorized execution.
+     * @param cols Column count.
+     * @param qryInfo Query info.
+     */
+    void openResult(List<Value[]> rows, int cols, MapH2QueryInfo qryInfo) {
+        res = new Result(rows, cols, qryInfo);
+    }
+
+    /**
+     * @param rows Rows produced on demand without H2 by the shuffle execution, closed with the result.
+     * @param cols Column count.
+     * @param qryInfo Query info.
+     */
+    void openResult(GridCloseableIterator<Value[]> rows, int cols, MapH2QueryInfo qryInfo) {
+        res = new Result(rows, cols, qryInfo);
+    }
+
     /**
      * @return Page number.
      */
@@ -194,10 +215,10 @@ class MapQueryResult {
 
         try {
             for (int i = 0; i < pageSize; i++) {
-                if (!res.res.next())
+                if (!res.next())
                     return true;
 
-                Value[] row = res.res.currentRow();
+                Value[] row = res.currentRow();
 
                 if (cpNeeded) {
                     boolean copied = false;
@@ -246,12 +267,12 @@ class MapQueryResult {
                         row(row)));
                 }
 
-                rows.add(res.res.currentRow());
+                rows.add(res.currentRow());
 
                 res.fetchSizeInterceptor.checkOnFetchNext();
             }
 
-            return !res.res.hasNext();
+            return !res.hasNext();
         }
         finally {
             CacheDataTree.setDataPageScanEnabled(false);
@@ -330,6 +351,18 @@ class MapQueryResult {
         /** */
         private final ResultSet rs;
 
+        /** Rows computed by the vectorized execution, {@code null} if the rows are read from the H2 result. */
+        private final List<Value[]> rows;
+
+        /** Index of the current row in {@link #rows}. */
+        private int rowIdx = -1;
+
+        /** Rows produced by the shuffle execution, {@code null} if the rows are read from elsewhere. */
+        private final GridCloseableIterator<Value[]> it;
+
+        /** Current row of {@link #it}. */
+        private Value[] itRow;
+
         /** */
         private final int cols;
 
@@ -354,17 +387,122 @@ class MapQueryResult {
                 throw new IllegalStateException(e); // Must not happen.
             }
 
+            rows = null;
+            it = null;
             rowCnt = (res instanceof LazyResult) ? -1 : res.getRowCount();
             cols = res.getVisibleColumnCount();
 
             fetchSizeInterceptor = new H2QueryFetchSizeInterceptor(h2, qryInfo, log);
         }
 
+        /**
+         * Constructor.
+         *
+         * @param rows Rows computed by the vectorized execution.
+         * @param cols Column count.
+         * @param qryInfo Query info.
+         */
+        Result(List<Value[]> rows, int cols, MapH2QueryInfo qryInfo) {
+            this.rows = rows;
+            this.cols = cols;
+
+            rs = null;
+            res = null;
+            it = null;
+            rowCnt = rows.size();
+
+            fetchSizeInterceptor = new H2QueryFetchSizeInterceptor(h2, qryInfo, log);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param it Rows produced by the shuffle execution.
+         * @param cols Column count.
+         * @param qryInfo Query info.
+         */
+        Result(GridCloseableIterator<Value[]> it, int cols, MapH2QueryInfo qryInfo) {
+            this.it = it;
+            this.cols = cols;
+
+            rs = null;
+            res = null;
+            rows = null;
+            rowCnt = -1;
+
+            fetchSizeInterceptor = new H2QueryFetchSizeInterceptor(h2, qryInfo, log);
+        }
+
+        /**
+         * @return {@code true} If moved to the next row.
+         */
+        boolean next() {
+            if (it != null) {
+                if (!hasNext())
+                    return false;
+
+                try {
+                    itRow = it.nextX();
+                }
+                catch (IgniteCheckedException e) {
+                    throw new IgniteException(e);
+                }
+
+                return true;
+            }
+
+            if (rows == null)
+                return res.next();
+
+            if (rowIdx + 1 >= rows.size())
+                return false;
+
+            rowIdx++;
+
+            return true;
+        }
+
+        /**
+         * @return Current row.
+         */
+        Value[] currentRow() {
+            if (it != null)
+                return itRow;
+
+            return rows == null ? res.currentRow() : rows.get(rowIdx);
+        }
+
+        /**
+         * @return {@code true} If there are more rows.
+         */
+        boolean hasNext() {
+            if (it != null) {
+                try {
+                    return it.hasNextX();
+                }
+                catch (IgniteCheckedException e) {
+                    throw new IgniteException(e);
+                }
+            }
+
+            return rows == null ? res.hasNext() : rowIdx + 1 < rows.size();
+        }
+
         /** */
         void close() {
             fetchSizeInterceptor.checkOnClose();
 
-            U.close(rs, log);
+            if (rs != null)
+                U.close(rs, log);
+
+            if (it != null) {
+                try {
+                    it.close();
+                }
+                catch (IgniteCheckedException e) {
+                    U.error(log, "Failed to close shuffle query result.", e);
+                }
+            }
         }
     }
 }
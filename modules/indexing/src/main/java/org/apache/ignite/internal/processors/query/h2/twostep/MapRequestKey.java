@@ -46,6 +46,13 @@ class MapRequestKey {
         this.segmentId = segmentId;
     }
 
+    /**
+     * @return Node ID.
+     */
+    public UUID nodeId() {
+        return nodeId;
+    }
+
     /**
      * @return Request ID.
      */
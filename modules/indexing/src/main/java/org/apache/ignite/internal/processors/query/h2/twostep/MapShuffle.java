@@ -0,0 +1,578 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.processors.query.GridQueryCancel;
+import org.apache.ignite.internal.processors.query.h2.H2PooledConnection;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessage;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessageFactory;
+import org.apache.ignite.internal.util.GridCloseableIteratorAdapter;
+import org.apache.ignite.internal.util.lang.GridCloseableIterator;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.lang.IgniteBiInClosure;
+import org.h2.engine.Constants;
+import org.h2.jdbc.JdbcResultSet;
+import org.h2.result.ResultInterface;
+import org.h2.store.Data;
+import org.h2.store.DataHandler;
+import org.h2.value.Value;
+
+/**
+ * Map query executed by the map nodes exchanging rows with each other by the hash of a key through
+ * {@link MapShuffleExchange}.
+ * <p>
+ * A map node scans its local rows and sends them in the thread executing the query request. The rows sent to the
+ * node are received by the exchange in the threads processing the messages, so no thread awaits the other map
+ * nodes. The query is completed once the last rows of every map node are received.
+ */
+abstract class MapShuffle {
+    /** @see #IGNITE_SQL_SHUFFLE_TIMEOUT */
+    public static final long DFLT_SQL_SHUFFLE_TIMEOUT = 10 * 60_000L;
+
+    /** */
+    @SystemProperty(value = "Time in milliseconds a map node awaits the rows of a shuffle query from the other map " +
+        "nodes if the query has no timeout. The query fails if the rows are not received in time", type = Long.class,
+        defaults = "" + DFLT_SQL_SHUFFLE_TIMEOUT)
+    public static final String IGNITE_SQL_SHUFFLE_TIMEOUT = "IGNITE_SQL_SHUFFLE_TIMEOUT";
+
+    /** @see #IGNITE_SQL_SHUFFLE_PENDING_MEMORY_QUOTA */
+    public static final long DFLT_SQL_SHUFFLE_PENDING_MEMORY_QUOTA = 16L * 1024 * 1024;
+
+    /** */
+    @SystemProperty(value = "Memory in bytes the rows of a shuffle query received by a map node before the node " +
+        "starts the query are held in. Rows exceeding it are spilled to disk", type = Long.class,
+        defaults = "" + DFLT_SQL_SHUFFLE_PENDING_MEMORY_QUOTA)
+    public static final String IGNITE_SQL_SHUFFLE_PENDING_MEMORY_QUOTA = "IGNITE_SQL_SHUFFLE_PENDING_MEMORY_QUOTA";
+
+    /** Number of rows sent in a message. */
+    static final int BATCH_SIZE = 1024;
+
+    /** Number of partitions the spilled rows are split into. */
+    static final int SPILL_PARTS = 16;
+
+    /** Directory of the spill files relative to the work directory. */
+    private static final String SPILL_DIR = "sql_shuffle";
+
+    /** */
+    private static final Field RESULT_FIELD;
+
+    /*
+     * Initialize.
+     */
+    static {
+        try {
+            RESULT_FIELD = JdbcResultSet.class.getDeclaredField("result");
+
+            RESULT_FIELD.setAccessible(true);
+        }
+        catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Check H2 version in classpath.", e);
+        }
+    }
+
+    /**
+     * @return Number of columns of the resulting rows.
+     */
+    abstract int columnCount();
+
+    /**
+     * @return Number of inputs every map node sends the last batch of to every map node.
+     */
+    abstract int sides();
+
+    /**
+     * @param h2 Indexing.
+     * @param conn Connection set up for the map query.
+     * @return Receiver of the rows sent to this node.
+     */
+    abstract Receiver receiver(IgniteH2Indexing h2, H2PooledConnection conn);
+
+    /**
+     * Scans the local rows and sends them to the map nodes selected by the hash of their key.
+     *
+     * @param h2 Indexing.
+     * @param conn Connection set up for the map query.
+     * @param exch Rows received by this node.
+     * @param snd Sender of rows to a map node.
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Query request ID.
+     * @param nodes Map nodes exchanging rows.
+     * @param params Query parameters.
+     * @param timeout Query timeout in milliseconds.
+     * @param cancel Query cancel.
+     * @param dataPageScanEnabled If data page scan is enabled.
+     * @throws IgniteCheckedException If failed.
+     */
+    abstract void scan(
+        IgniteH2Indexing h2,
+        H2PooledConnection conn,
+        MapShuffleExchange exch,
+        IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd,
+        UUID rdcNodeId,
+        long reqId,
+        List<UUID> nodes,
+        Object[] params,
+        int timeout,
+        GridQueryCancel cancel,
+        Boolean dataPageScanEnabled
+    ) throws IgniteCheckedException;
+
+    /**
+     * Executes the map query on this map node. The local rows are scanned and sent by the calling thread, the rows
+     * sent to this node are received asynchronously. The wait for them is bounded by the query timeout or by
+     * {@link #IGNITE_SQL_SHUFFLE_TIMEOUT} if the query has none.
+     *
+     * @param h2 Indexing.
+     * @param conn Connection set up for the map query.
+     * @param exch Rows received by this node.
+     * @param snd Sender of rows to a map node.
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Query request ID.
+     * @param nodes Map nodes exchanging rows.
+     * @param params Query parameters.
+     * @param timeout Query timeout in milliseconds.
+     * @param cancel Query cancel.
+     * @param dataPageScanEnabled If data page scan is enabled.
+     * @return Future completed with the receiver once the last rows of every map node are received.
+     * @throws IgniteCheckedException If failed.
+     */
+    IgniteInternalFuture<Receiver> execute(
+        IgniteH2Indexing h2,
+        H2PooledConnection conn,
+        MapShuffleExchange exch,
+        IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd,
+        UUID rdcNodeId,
+        long reqId,
+        List<UUID> nodes,
+        Object[] params,
+        int timeout,
+        GridQueryCancel cancel,
+        Boolean dataPageScanEnabled
+    ) throws IgniteCheckedException {
+        Receiver rcv = receiver(h2, conn);
+
+        long wait = timeout > 0 ? timeout :
+            IgniteSystemProperties.getLong(IGNITE_SQL_SHUFFLE_TIMEOUT, DFLT_SQL_SHUFFLE_TIMEOUT);
+
+        IgniteInternalFuture<Receiver> fut = exch.start(rcv, nodes, sides(), wait);
+
+        // Received rows are dropped if the query fails before they are returned.
+        fut.listen(f -> {
+            if (f.error() != null)
+                rcv.close();
+        });
+
+        cancel.add(() -> exch.fail(new QueryCancelledException()));
+
+        scan(h2, conn, exch, snd, rdcNodeId, reqId, nodes, params, timeout, cancel, dataPageScanEnabled);
+
+        return fut;
+    }
+
+    /**
+     * @param rs Result set of a local query.
+     * @return Result the rows are read from without conversion to JDBC types.
+     */
+    static ResultInterface result(ResultSet rs) {
+        try {
+            return (ResultInterface)RESULT_FIELD.get(rs);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e); // Must not happen.
+        }
+    }
+
+    /**
+     * @param row Row.
+     * @return Estimated memory used by the row.
+     */
+    static long memory(Value[] row) {
+        long mem = Constants.MEMORY_ARRAY + row.length * Constants.MEMORY_POINTER;
+
+        for (Value val : row)
+            mem += val.getMemory();
+
+        return mem;
+    }
+
+    /**
+     * @param rows Rows held in memory.
+     * @return Rows iterated as the rows read from a spill file.
+     */
+    static GridCloseableIterator<Value[]> iterator(List<Value[]> rows) {
+        Iterator<Value[]> it = rows.iterator();
+
+        return new GridCloseableIteratorAdapter<Value[]>() {
+            /** {@inheritDoc} */
+            @Override protected boolean onHasNext() {
+                return it.hasNext();
+            }
+
+            /** {@inheritDoc} */
+            @Override protected Value[] onNext() {
+                return it.next();
+            }
+        };
+    }
+
+    /**
+     * Checks that the query is neither cancelled nor failed on another map node.
+     *
+     * @param exch Rows received by this node.
+     * @param cancel Query cancel.
+     * @throws IgniteCheckedException If the query is cancelled or failed.
+     */
+    static void checkCancelled(MapShuffleExchange exch, GridQueryCancel cancel) throws IgniteCheckedException {
+        cancel.checkCancelled();
+
+        exch.checkFailed();
+    }
+
+    /**
+     * @param key Key.
+     * @param nodes Number of map nodes.
+     * @return Index of the map node the rows of the key are sent to.
+     */
+    static int node(Key key, int nodes) {
+        return U.safeAbs(key.hash) % nodes;
+    }
+
+    /**
+     * @param key Key.
+     * @return Partition the rows of the key are spilled to.
+     */
+    static int spillPartition(Key key) {
+        // Keys of a node share the hash modulo the number of nodes, mixing in the high bits spreads them.
+        int hash = key.hash;
+
+        return (hash ^ (hash >>> 16)) & (SPILL_PARTS - 1);
+    }
+
+    /**
+     * Rows sent to this node by the map nodes. The rows are added by the exchange under its lock, the result is
+     * taken once the last rows of every map node are received.
+     */
+    abstract static class Receiver implements AutoCloseable {
+        /**
+         * @param side Input the row belongs to.
+         * @param row Row.
+         * @throws IgniteCheckedException If failed.
+         */
+        abstract void add(int side, Value[] row) throws IgniteCheckedException;
+
+        /**
+         * @return Resulting rows produced on demand, closing them closes the receiver.
+         * @throws IgniteCheckedException If failed.
+         */
+        abstract GridCloseableIterator<Value[]> result() throws IgniteCheckedException;
+
+        /** {@inheritDoc} */
+        @Override public abstract void close();
+    }
+
+    /**
+     * Rows batched by the map nodes they are sent to.
+     */
+    static class Outbox {
+        /** Sender of rows to a map node. */
+        private final IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd;
+
+        /** Reducer node ID. */
+        private final UUID rdcNodeId;
+
+        /** Query request ID. */
+        private final long reqId;
+
+        /** Map nodes exchanging rows. */
+        private final List<UUID> nodes;
+
+        /** Input the rows belong to. */
+        private final byte side;
+
+        /** Number of columns in a row. */
+        private final int cols;
+
+        /** Batches by the node index. */
+        private final List<GridH2ValueMessage>[] batches;
+
+        /**
+         * @param snd Sender of rows to a map node.
+         * @param rdcNodeId Reducer node ID.
+         * @param reqId Query request ID.
+         * @param nodes Map nodes exchanging rows.
+         * @param side Input the rows belong to.
+         * @param cols Number of columns in a row.
+         */
+        @SuppressWarnings("unchecked")
+        Outbox(IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd, UUID rdcNodeId, long reqId, List<UUID> nodes,
+            byte side, int cols) {
+            this.snd = snd;
+            this.rdcNodeId = rdcNodeId;
+            this.reqId = reqId;
+            this.nodes = nodes;
+            this.side = side;
+            this.cols = cols;
+
+            batches = new List[nodes.size()];
+        }
+
+        /**
+         * @param node Index of the node.
+         * @param row Row, only the first {@link #cols} values are sent.
+         * @return {@code true} If a full batch is sent.
+         */
+        boolean add(int node, Value[] row) {
+            if (batches[node] == null)
+                batches[node] = new ArrayList<>(BATCH_SIZE * cols);
+
+            for (int i = 0; i < cols; i++)
+                batches[node].add(GridH2ValueMessageFactory.toMessage(row[i]));
+
+            if (batches[node].size() < BATCH_SIZE * cols)
+                return false;
+
+            snd.apply(nodes.get(node), new GridH2ShuffleRowsMessage(rdcNodeId, reqId, side, cols, batches[node],
+                false));
+
+            batches[node] = null;
+
+            return true;
+        }
+
+        /**
+         * Sends the last batch to every node.
+         */
+        void finish() {
+            for (int node = 0; node < nodes.size(); node++) {
+                List<GridH2ValueMessage> batch = batches[node] == null ? new ArrayList<>() : batches[node];
+
+                snd.apply(nodes.get(node), new GridH2ShuffleRowsMessage(rdcNodeId, reqId, side, cols, batch, true));
+
+                batches[node] = null;
+            }
+        }
+    }
+
+    /**
+     * Temporary file the rows of a partition are spilled to.
+     */
+    static class SpillFile {
+        /** File. */
+        private final File file;
+
+        /** Data handler used to serialize values. */
+        private final DataHandler hnd;
+
+        /** Buffer a row is serialized to. */
+        private final Data buf;
+
+        /** Output stream, {@code null} when the rows are read. */
+        private DataOutputStream out;
+
+        /** Number of written rows. */
+        private int cnt;
+
+        /**
+         * @param ctx Kernal context.
+         * @param hnd Data handler used to serialize values.
+         * @throws IgniteCheckedException If failed.
+         */
+        SpillFile(GridKernalContext ctx, DataHandler hnd) throws IgniteCheckedException {
+            this.hnd = hnd;
+
+            buf = Data.create(hnd, 256);
+
+            File dir = U.resolveWorkDirectory(ctx.config().getWorkDirectory(), SPILL_DIR, false);
+
+            try {
+                file = File.createTempFile("shuffle", ".tmp", dir);
+
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            }
+            catch (IOException e) {
+                throw new IgniteCheckedException("Failed to create shuffle spill file.", e);
+            }
+        }
+
+        /**
+         * @param row Row.
+         * @throws IgniteCheckedException If failed.
+         */
+        void write(Value[] row) throws IgniteCheckedException {
+            buf.reset();
+
+            for (Value val : row) {
+                buf.checkCapacity(buf.getValueLen(val));
+                buf.writeValue(val);
+            }
+
+            try {
+                out.writeInt(buf.length());
+                out.write(buf.getBytes(), 0, buf.length());
+            }
+            catch (IOException e) {
+                throw new IgniteCheckedException("Failed to write shuffle spill file: " + file, e);
+            }
+
+            cnt++;
+        }
+
+        /**
+         * @return Number of written rows.
+         */
+        int size() {
+            return cnt;
+        }
+
+        /**
+         * @param cols Number of columns in a row.
+         * @return Rows.
+         * @throws IgniteCheckedException If failed.
+         */
+        List<Value[]> read(int cols) throws IgniteCheckedException {
+            List<Value[]> rows = new ArrayList<>(cnt);
+
+            try (GridCloseableIterator<Value[]> it = iterator(cols)) {
+                while (it.hasNextX())
+                    rows.add(it.nextX());
+            }
+
+            return rows;
+        }
+
+        /**
+         * @param cols Number of columns in a row.
+         * @return Rows read one by one.
+         * @throws IgniteCheckedException If failed.
+         */
+        GridCloseableIterator<Value[]> iterator(int cols) throws IgniteCheckedException {
+            DataInputStream in;
+
+            try {
+                out.close();
+
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            }
+            catch (IOException e) {
+                throw new IgniteCheckedException("Failed to read shuffle spill file: " + file, e);
+            }
+
+            return new GridCloseableIteratorAdapter<Value[]>() {
+                /** Number of read rows. */
+                private int read;
+
+                /** {@inheritDoc} */
+                @Override protected boolean onHasNext() {
+                    return read < cnt;
+                }
+
+                /** {@inheritDoc} */
+                @Override protected Value[] onNext() throws IgniteCheckedException {
+                    try {
+                        byte[] bytes = new byte[in.readInt()];
+
+                        in.readFully(bytes);
+
+                        Data data = Data.create(hnd, bytes);
+
+                        Value[] row = new Value[cols];
+
+                        for (int j = 0; j < cols; j++)
+                            row[j] = data.readValue();
+
+                        read++;
+
+                        return row;
+                    }
+                    catch (IOException e) {
+                        throw new IgniteCheckedException("Failed to read shuffle spill file: " + file, e);
+                    }
+                }
+
+                /** {@inheritDoc} */
+                @Override protected void onClose() {
+                    U.closeQuiet(in);
+                }
+            };
+        }
+
+        /**
+         * Deletes the file.
+         */
+        void close() {
+            U.closeQuiet(out);
+
+            if (!file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Key the rows are exchanged by.
+     */
+    static class Key {
+        /** Values converted to the key types. */
+        private final Value[] vals;
+
+        /** Hash. */
+        private final int hash;
+
+        /**
+         * @param vals Values converted to the key types.
+         */
+        Key(Value[] vals) {
+            this.vals = vals;
+
+            hash = Arrays.hashCode(vals);
+        }
+
+        /** {@inheritDoc} */
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key)o).hash && Arrays.equals(vals, ((Key)o).vals);
+        }
+    }
+}
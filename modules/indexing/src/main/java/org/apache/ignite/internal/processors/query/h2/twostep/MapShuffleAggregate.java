@@ -0,0 +1,669 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.processors.query.GridQueryCancel;
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.apache.ignite.internal.processors.query.h2.H2PooledConnection;
+import org.apache.ignite.internal.processors.query.h2.H2StatementCache;
+import org.apache.ignite.internal.processors.query.h2.H2Utils;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAggregateFunction;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAlias;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAst;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlQueryParser;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlSelect;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlStatement;
+import org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleAggregate;
+import org.apache.ignite.internal.processors.query.h2.sql.SplitterUtils;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
+import org.apache.ignite.internal.util.GridCloseableIteratorAdapter;
+import org.apache.ignite.internal.util.lang.GridCloseableIterator;
+import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.lang.IgniteBiInClosure;
+import org.h2.command.Prepared;
+import org.h2.result.ResultInterface;
+import org.h2.store.DataHandler;
+import org.h2.value.CompareMode;
+import org.h2.value.Value;
+import org.h2.value.ValueDouble;
+import org.h2.value.ValueLong;
+import org.h2.value.ValueNull;
+
+/**
+ * Shuffle aggregation of a map query planned by {@link SplitterShuffleAggregate}. Every map node scans the local
+ * rows selected by the map query and aggregates them into partial groups held in a hash table. The partial groups
+ * are sent to the map node selected by the hash of the group key whenever the table exceeds half of
+ * {@link #IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA} and after the scan. Each map node merges the partial groups it
+ * receives into the complete groups which are the result of the map query.
+ * <p>
+ * When the merged groups exceed half of the quota, they are spilled to disk partitioned by the hash of the group
+ * key and the partitions are merged one by one.
+ * <p>
+ * The partial groups hold the values of the map query columns followed by the number of values of every
+ * {@code AVG} column, so the averages are merged weighted by their counts.
+ */
+public class MapShuffleAggregate extends MapShuffle {
+    /** @see #IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA */
+    public static final long DFLT_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA = 64L * 1024 * 1024;
+
+    /** */
+    @SystemProperty(value = "Memory in bytes the groups of a shuffle aggregation are held in by a map node. Half of " +
+        "it bounds the partial groups of the local rows, the other half bounds the merged groups which are spilled " +
+        "to disk when exceeding it", type = Long.class, defaults = "" + DFLT_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA)
+    public static final String IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA =
+        "IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA";
+
+    /** Estimated memory used by a hash table entry and a group key besides the values. */
+    private static final long ENTRY_MEMORY = 64;
+
+    /** Column of the group key. */
+    private static final byte KEY = 0;
+
+    /** Expression of the group key columns, the value of any row of the group is taken. */
+    private static final byte FIRST = 1;
+
+    /** {@code SUM}. */
+    private static final byte SUM = 2;
+
+    /** {@code MIN}. */
+    private static final byte MIN = 3;
+
+    /** {@code MAX}. */
+    private static final byte MAX = 4;
+
+    /** {@code COUNT} or {@code COUNT(*)}. */
+    private static final byte COUNT = 5;
+
+    /** {@code AVG}. */
+    private static final byte AVG = 6;
+
+    /** Query scanning the local rows. */
+    private final String scanSql;
+
+    /** Number of parameters bound to the scan query. */
+    private final int scanParams;
+
+    /** Kinds of the map query columns. */
+    private final byte[] kinds;
+
+    /** Indexes of the scanned values of the map query columns, {@code -1} for {@code COUNT(*)}. */
+    private final int[] ins;
+
+    /** Types of the map query columns. */
+    private final int[] types;
+
+    /** Indexes of the counts of {@code AVG} columns in a partial group, {@code -1} for other columns. */
+    private final int[] cnts;
+
+    /** Indexes of the group key columns. */
+    private final int[] keys;
+
+    /** Number of values of a partial group. */
+    private final int width;
+
+    /**
+     * @param scanSql Query scanning the local rows.
+     * @param scanParams Number of parameters bound to the scan query.
+     * @param kinds Kinds of the map query columns.
+     * @param ins Indexes of the scanned values of the map query columns.
+     * @param types Types of the map query columns.
+     * @param cnts Indexes of the counts of {@code AVG} columns in a partial group.
+     * @param keys Indexes of the group key columns.
+     * @param width Number of values of a partial group.
+     */
+    private MapShuffleAggregate(String scanSql, int scanParams, byte[] kinds, int[] ins, int[] types, int[] cnts,
+        int[] keys, int width) {
+        this.scanSql = scanSql;
+        this.scanParams = scanParams;
+        this.kinds = kinds;
+        this.ins = ins;
+        this.types = types;
+        this.cnts = cnts;
+        this.keys = keys;
+        this.width = width;
+    }
+
+    /**
+     * Plans the shuffle aggregation of a map query split for {@link SplitterShuffleAggregate}.
+     *
+     * @param stmt Prepared map query.
+     * @param log Logger.
+     * @return Shuffle aggregation.
+     */
+    static MapShuffleAggregate plan(PreparedStatement stmt, IgniteLogger log) {
+        Prepared prepared = GridSqlQueryParser.prepared(stmt);
+
+        GridSqlStatement parsed = new GridSqlQueryParser(false, log).parse(prepared);
+
+        GridSqlSelect select = parsed instanceof GridSqlSelect ? (GridSqlSelect)parsed : null;
+
+        if (select == null || select.groupColumns() == null || select.distinct() || select.having() != null ||
+            select.hasOffsetLimit() || !select.sort().isEmpty() || select.allColumns() != select.visibleColumns())
+            throw new IgniteSQLException("Failed to plan shuffle aggregation of map query: " + prepared.getSQL());
+
+        List<GridSqlAst> cols = select.columns(true);
+
+        byte[] kinds = new byte[cols.size()];
+        int[] ins = new int[kinds.length];
+        int[] types = new int[kinds.length];
+        int[] cnts = new int[kinds.length];
+
+        GridSqlSelect scan = new GridSqlSelect().from(select.from());
+
+        if (select.where() != null)
+            scan.where(select.where());
+
+        int width = kinds.length;
+
+        for (int i = 0; i < kinds.length; i++) {
+            GridSqlAst el = GridSqlAlias.unwrap(cols.get(i));
+
+            byte kind = isKey(select, i) ? KEY : kind(el);
+
+            if (kind < 0)
+                throw new IgniteSQLException("Failed to plan shuffle aggregation of map query: " + prepared.getSQL());
+
+            kinds[i] = kind;
+            types[i] = el.resultType().type();
+            cnts[i] = kind == AVG ? width++ : -1;
+
+            GridSqlAst in = kind == KEY || kind == FIRST ? el : el.size() == 0 ? null : el.child();
+
+            if (in == null)
+                ins[i] = -1;
+            else {
+                ins[i] = scan.allColumns();
+
+                scan.addColumn(in, true);
+            }
+        }
+
+        TreeSet<Integer> paramIdxs = new TreeSet<>();
+
+        SplitterUtils.findParamsQuery(scan, Integer.MAX_VALUE, paramIdxs);
+
+        return new MapShuffleAggregate(scan.getSQL(), paramIdxs.isEmpty() ? 0 : paramIdxs.last() + 1, kinds, ins,
+            types, cnts, select.groupColumns(), width);
+    }
+
+    /**
+     * @param select Map query.
+     * @param col Index of a column.
+     * @return {@code true} If the column is a group key column.
+     */
+    private static boolean isKey(GridSqlSelect select, int col) {
+        for (int grpCol : select.groupColumns()) {
+            if (grpCol == col)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @param el Expression of a column which is not a group key column.
+     * @return Kind of the column or {@code -1} if the expression cannot be merged.
+     */
+    private static byte kind(GridSqlAst el) {
+        if (!(el instanceof GridSqlAggregateFunction))
+            return SplitterUtils.hasAggregates(el) ? -1 : FIRST;
+
+        GridSqlAggregateFunction agg = (GridSqlAggregateFunction)el;
+
+        if (!SplitterShuffleAggregate.isMergeable(agg))
+            return -1;
+
+        switch (agg.type()) {
+            case SUM:
+                return SUM;
+
+            case MIN:
+                return MIN;
+
+            case MAX:
+                return MAX;
+
+            case AVG:
+                return AVG;
+
+            default:
+                return COUNT;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override int columnCount() {
+        return kinds.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override int sides() {
+        return 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override Receiver receiver(IgniteH2Indexing h2, H2PooledConnection conn) {
+        CompareMode cmp = H2Utils.session(conn).getDatabase().getCompareMode();
+
+        return new Groups(h2.kernalContext(), h2.connections().dataHandler(), cmp, quota() / 2);
+    }
+
+    /** {@inheritDoc} */
+    @Override void scan(
+        IgniteH2Indexing h2,
+        H2PooledConnection conn,
+        MapShuffleExchange exch,
+        IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd,
+        UUID rdcNodeId,
+        long reqId,
+        List<UUID> nodes,
+        Object[] params,
+        int timeout,
+        GridQueryCancel cancel,
+        Boolean dataPageScanEnabled
+    ) throws IgniteCheckedException {
+        CompareMode cmp = H2Utils.session(conn).getDatabase().getCompareMode();
+
+        PreparedStatement stmt = conn.prepareStatement(scanSql, H2StatementCache.queryFlags(false, false));
+
+        H2Utils.bindParameters(stmt, F.asList(Arrays.copyOf(params, scanParams)));
+
+        ResultSet rs = h2.executeSqlQueryWithTimer(stmt, conn, scanSql, timeout, cancel, dataPageScanEnabled,
+            null);
+
+        try {
+            aggregate(result(rs), new Outbox(snd, rdcNodeId, reqId, nodes, (byte)0, width), nodes, exch, cmp,
+                quota() / 2, cancel);
+        }
+        finally {
+            U.closeQuiet(rs);
+        }
+    }
+
+    /**
+     * @return Memory quota of the partial and the merged groups.
+     */
+    private static long quota() {
+        return IgniteSystemProperties.getLong(IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA,
+            DFLT_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA);
+    }
+
+    /**
+     * Aggregates the scanned rows into partial groups and sends them to the map nodes selected by the hash of their
+     * group key.
+     *
+     * @param res Scanned rows.
+     * @param out Partial groups to send.
+     * @param nodes Map nodes exchanging rows.
+     * @param exch Rows received by this node.
+     * @param cmp Compare mode.
+     * @param quota Memory quota of the partial groups.
+     * @param cancel Query cancel.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void aggregate(ResultInterface res, Outbox out, List<UUID> nodes, MapShuffleExchange exch,
+        CompareMode cmp, long quota, GridQueryCancel cancel) throws IgniteCheckedException {
+        Map<Key, Value[]> partials = new HashMap<>();
+
+        long mem = 0;
+
+        while (res.next()) {
+            Value[] row = partial(res.currentRow());
+
+            Key key = key(row);
+
+            Value[] acc = partials.putIfAbsent(key, row);
+
+            if (acc != null)
+                merge(acc, row, cmp);
+            else if ((mem += memory(row) + ENTRY_MEMORY) > quota) {
+                send(partials, out, nodes, exch, cancel);
+
+                mem = 0;
+            }
+        }
+
+        send(partials, out, nodes, exch, cancel);
+
+        out.finish();
+    }
+
+    /**
+     * Sends the partial groups and clears them.
+     *
+     * @param partials Partial groups.
+     * @param out Partial groups to send.
+     * @param nodes Map nodes exchanging rows.
+     * @param exch Rows received by this node.
+     * @param cancel Query cancel.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void send(Map<Key, Value[]> partials, Outbox out, List<UUID> nodes, MapShuffleExchange exch,
+        GridQueryCancel cancel) throws IgniteCheckedException {
+        for (Map.Entry<Key, Value[]> e : partials.entrySet()) {
+            if (out.add(node(e.getKey(), nodes.size()), e.getValue()))
+                checkCancelled(exch, cancel);
+        }
+
+        partials.clear();
+    }
+
+    /**
+     * @param row Scanned row.
+     * @return Partial group of the row.
+     */
+    private Value[] partial(Value[] row) {
+        Value[] res = new Value[width];
+
+        for (int i = 0; i < kinds.length; i++) {
+            Value val = ins[i] < 0 ? null : row[ins[i]];
+
+            switch (kinds[i]) {
+                case KEY:
+                case FIRST:
+                    res[i] = val;
+
+                    break;
+
+                case SUM:
+                case MIN:
+                case MAX:
+                    res[i] = val == ValueNull.INSTANCE ? val : val.convertTo(types[i]);
+
+                    break;
+
+                case COUNT:
+                    res[i] = ValueLong.get(val == ValueNull.INSTANCE ? 0 : 1);
+
+                    break;
+
+                case AVG:
+                    res[i] = val == ValueNull.INSTANCE ? val : val.convertTo(Value.DOUBLE);
+                    res[cnts[i]] = ValueLong.get(val == ValueNull.INSTANCE ? 0 : 1);
+
+                    break;
+
+                default:
+                    throw new IllegalStateException("Kind: " + kinds[i]);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Merges a partial group into a group with the same key.
+     *
+     * @param acc Group.
+     * @param row Partial group.
+     * @param cmp Compare mode.
+     */
+    private void merge(Value[] acc, Value[] row, CompareMode cmp) {
+        for (int i = 0; i < kinds.length; i++) {
+            Value val = row[i];
+
+            switch (kinds[i]) {
+                case KEY:
+                case FIRST:
+                    break;
+
+                case SUM:
+                    if (val != ValueNull.INSTANCE)
+                        acc[i] = acc[i] == ValueNull.INSTANCE ? val : acc[i].add(val);
+
+                    break;
+
+                case MIN:
+                case MAX:
+                    if (val != ValueNull.INSTANCE && (acc[i] == ValueNull.INSTANCE ||
+                        (val.compareTypeSafe(acc[i], cmp) < 0) == (kinds[i] == MIN)))
+                        acc[i] = val;
+
+                    break;
+
+                case COUNT:
+                    acc[i] = ValueLong.get(acc[i].getLong() + val.getLong());
+
+                    break;
+
+                case AVG:
+                    long cnt = acc[cnts[i]].getLong();
+                    long valCnt = row[cnts[i]].getLong();
+
+                    if (valCnt == 0)
+                        break;
+
+                    acc[i] = cnt == 0 ? val :
+                        ValueDouble.get((acc[i].getDouble() * cnt + val.getDouble() * valCnt) / (cnt + valCnt));
+                    acc[cnts[i]] = ValueLong.get(cnt + valCnt);
+
+                    break;
+
+                default:
+                    throw new IllegalStateException("Kind: " + kinds[i]);
+            }
+        }
+    }
+
+    /**
+     * @param row Partial group.
+     * @return Group key.
+     */
+    private Key key(Value[] row) {
+        Value[] vals = new Value[keys.length];
+
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = row[keys[i]];
+
+        return new Key(vals);
+    }
+
+    /**
+     * Groups merged by this node.
+     */
+    private class Groups extends Receiver {
+        /** Kernal context. */
+        private final GridKernalContext ctx;
+
+        /** Data handler used to serialize the spilled values. */
+        private final DataHandler hnd;
+
+        /** Compare mode. */
+        private final CompareMode cmp;
+
+        /** Memory quota. */
+        private final long quota;
+
+        /** Groups held in memory. */
+        private final Map<Key, Value[]> groups = new HashMap<>();
+
+        /** Memory used by the groups. */
+        private long mem;
+
+        /** Spill files by the partition, {@code null} until the groups exceed the quota. */
+        private SpillFile[] spills;
+
+        /** Closed flag. */
+        private boolean closed;
+
+        /**
+         * @param ctx Kernal context.
+         * @param hnd Data handler used to serialize the spilled values.
+         * @param cmp Compare mode.
+         * @param quota Memory quota.
+         */
+        Groups(GridKernalContext ctx, DataHandler hnd, CompareMode cmp, long quota) {
+            this.ctx = ctx;
+            this.hnd = hnd;
+            this.cmp = cmp;
+            this.quota = quota;
+        }
+
+        /** {@inheritDoc} */
+        @Override void add(int side, Value[] row) throws IgniteCheckedException {
+            if (spills != null) {
+                spill(row);
+
+                return;
+            }
+
+            Value[] acc = groups.putIfAbsent(key(row), row);
+
+            if (acc != null) {
+                merge(acc, row, cmp);
+
+                return;
+            }
+
+            mem += memory(row) + ENTRY_MEMORY;
+
+            if (mem > quota) {
+                spills = new SpillFile[SPILL_PARTS];
+
+                for (Value[] r : groups.values())
+                    spill(r);
+
+                groups.clear();
+
+                mem = 0;
+            }
+        }
+
+        /**
+         * @param row Partial group.
+         * @throws IgniteCheckedException If failed.
+         */
+        private void spill(Value[] row) throws IgniteCheckedException {
+            int part = spillPartition(key(row));
+
+            if (spills[part] == null)
+                spills[part] = new SpillFile(ctx, hnd);
+
+            spills[part].write(row);
+        }
+
+        /**
+         * Returns the merged groups on demand. The spilled partitions are merged one by one, so only the groups of
+         * a partition are held in memory.
+         *
+         * @return Merged groups.
+         */
+        @Override GridCloseableIterator<Value[]> result() {
+            return new GridCloseableIteratorAdapter<Value[]>() {
+                /** Next partition to merge. */
+                private int part;
+
+                /** Groups of the current partition. */
+                private Iterator<Value[]> it;
+
+                /** {@inheritDoc} */
+                @Override protected boolean onHasNext() throws IgniteCheckedException {
+                    while (it == null || !it.hasNext()) {
+                        if (spills == null) {
+                            if (it != null)
+                                return false;
+
+                            it = groups.values().iterator();
+
+                            continue;
+                        }
+
+                        if (part == SPILL_PARTS)
+                            return false;
+
+                        SpillFile spill = spills[part++];
+
+                        if (spill != null)
+                            it = merge(spill).values().iterator();
+                    }
+
+                    return true;
+                }
+
+                /** {@inheritDoc} */
+                @Override protected Value[] onNext() {
+                    Value[] row = it.next();
+
+                    return row.length == kinds.length ? row : Arrays.copyOf(row, kinds.length);
+                }
+
+                /** {@inheritDoc} */
+                @Override protected void onClose() {
+                    Groups.this.close();
+                }
+            };
+        }
+
+        /**
+         * @param spill Spilled partial groups of a partition.
+         * @return Merged groups of the partition.
+         * @throws IgniteCheckedException If failed.
+         */
+        private Map<Key, Value[]> merge(SpillFile spill) throws IgniteCheckedException {
+            Map<Key, Value[]> part = new HashMap<>();
+
+            try (GridCloseableIterator<Value[]> rows = spill.iterator(width)) {
+                while (rows.hasNextX()) {
+                    Value[] row = rows.nextX();
+
+                    Value[] acc = part.putIfAbsent(key(row), row);
+
+                    if (acc != null)
+                        MapShuffleAggregate.this.merge(acc, row, cmp);
+                }
+            }
+
+            return part;
+        }
+
+        /** {@inheritDoc} */
+        @Override public synchronized void close() {
+            if (closed)
+                return;
+
+            closed = true;
+
+            groups.clear();
+
+            if (spills == null)
+                return;
+
+            for (SpillFile spill : spills) {
+                if (spill != null)
+                    spill.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2RetryException;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessage;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ValueMessageFactory;
+import org.apache.ignite.internal.processors.timeout.GridTimeoutObject;
+import org.apache.ignite.internal.processors.timeout.GridTimeoutObjectAdapter;
+import org.apache.ignite.internal.util.future.GridFutureAdapter;
+import org.apache.ignite.internal.util.lang.GridCloseableIterator;
+import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.h2.store.DataHandler;
+import org.h2.value.Value;
+
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapShuffle.DFLT_SQL_SHUFFLE_PENDING_MEMORY_QUOTA;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapShuffle.IGNITE_SQL_SHUFFLE_PENDING_MEMORY_QUOTA;
+import static org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage.STATUS_ERROR;
+import static org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage.STATUS_RETRY;
+
+/**
+ * Rows of shuffle query inputs received by a map node for a query request. Rows may be received before the node
+ * starts the query, they are held until the query is started and spilled to disk when exceeding
+ * {@link MapShuffle#IGNITE_SQL_SHUFFLE_PENDING_MEMORY_QUOTA}. Once the query is started, the rows are passed to its
+ * receiver in the threads processing the messages.
+ */
+class MapShuffleExchange {
+    /** Kernal context. */
+    private final GridKernalContext ctx;
+
+    /** Data handler used to serialize the spilled values. */
+    private final DataHandler hnd;
+
+    /** Memory quota of the rows received before the query is started. */
+    private final long pendingQuota = IgniteSystemProperties.getLong(IGNITE_SQL_SHUFFLE_PENDING_MEMORY_QUOTA,
+        DFLT_SQL_SHUFFLE_PENDING_MEMORY_QUOTA);
+
+    /** Future completed once the last rows of every map node are received. */
+    private final GridFutureAdapter<MapShuffle.Receiver> fut = new GridFutureAdapter<>();
+
+    /** Rows received before the query is started by the input. */
+    private final Map<Integer, List<Value[]>> pending = new HashMap<>();
+
+    /** Number of columns of the rows received before the query is started by the input. */
+    private final Map<Integer, Integer> pendingCols = new HashMap<>();
+
+    /** Spill files of the rows received before the query is started by the input. */
+    private final Map<Integer, MapShuffle.SpillFile> pendingSpills = new HashMap<>();
+
+    /** Memory used by the rows received before the query is started. */
+    private long pendingMem;
+
+    /** Numbers of the last batches received by the node sent them. */
+    private final Map<UUID, Integer> lastBatches = new HashMap<>();
+
+    /** Nodes left the topology. */
+    private final Set<UUID> leftNodes = new HashSet<>();
+
+    /** Receiver of the rows, {@code null} until the query is started. */
+    private MapShuffle.Receiver rcv;
+
+    /** Map nodes exchanging rows, {@code null} until the query is started. */
+    private List<UUID> nodes;
+
+    /** Number of the last batches every map node sends. */
+    private int sides;
+
+    /** Timeout of the wait for the rows. */
+    private GridTimeoutObject timeoutObj;
+
+    /**
+     * @param ctx Kernal context.
+     * @param hnd Data handler used to serialize the spilled values.
+     */
+    MapShuffleExchange(GridKernalContext ctx, DataHandler hnd) {
+        this.ctx = ctx;
+        this.hnd = hnd;
+    }
+
+    /**
+     * Starts receiving the rows by the query, the rows received so far are passed to the receiver.
+     *
+     * @param rcv Receiver of the rows.
+     * @param nodes Map nodes exchanging rows.
+     * @param sides Number of the last batches every map node sends.
+     * @param timeout Time in milliseconds the rows are awaited.
+     * @return Future completed with the receiver once the last rows of every map node are received.
+     */
+    IgniteInternalFuture<MapShuffle.Receiver> start(MapShuffle.Receiver rcv, List<UUID> nodes, int sides,
+        long timeout) {
+        synchronized (this) {
+            if (fut.isDone())
+                return fut;
+
+            this.rcv = rcv;
+            this.nodes = nodes;
+            this.sides = sides;
+
+            for (UUID nodeId : nodes) {
+                if (leftNodes.contains(nodeId))
+                    onNodeLeft(nodeId);
+            }
+
+            try {
+                for (Map.Entry<Integer, List<Value[]>> e : pending.entrySet()) {
+                    for (Value[] row : e.getValue())
+                        rcv.add(e.getKey(), row);
+                }
+
+                for (Map.Entry<Integer, MapShuffle.SpillFile> e : pendingSpills.entrySet()) {
+                    try (GridCloseableIterator<Value[]> it = e.getValue().iterator(pendingCols.get(e.getKey()))) {
+                        while (it.hasNextX())
+                            rcv.add(e.getKey(), it.nextX());
+                    }
+                }
+            }
+            catch (IgniteCheckedException e) {
+                fail(e);
+            }
+
+            releasePending();
+
+            checkReceived();
+
+            if (fut.isDone())
+                return fut;
+
+            timeoutObj = new GridTimeoutObjectAdapter(timeout) {
+                @Override public void onTimeout() {
+                    fail(new IgniteCheckedException("Timed out awaiting rows of shuffle query from map nodes " +
+                        "[timeout=" + timeout + "ms, nodes=" + awaitedNodes() + ']'));
+                }
+            };
+        }
+
+        ctx.timeout().addTimeoutObject(timeoutObj);
+
+        fut.listen(f -> ctx.timeout().removeTimeoutObject(timeoutObj));
+
+        return fut;
+    }
+
+    /**
+     * @param nodeId Node sent the message.
+     * @param msg Received message.
+     */
+    synchronized void onMessage(UUID nodeId, GridH2ShuffleRowsMessage msg) {
+        if (fut.isDone())
+            return;
+
+        if (msg.status() == STATUS_RETRY) {
+            fail(new GridH2RetryException(msg.error()));
+
+            return;
+        }
+
+        if (msg.status() == STATUS_ERROR) {
+            fail(new IgniteCheckedException("Shuffle query failed on another map node [node=" + nodeId +
+                ", err=" + msg.error() + ']'));
+
+            return;
+        }
+
+        try {
+            if (!F.isEmpty(msg.values())) {
+                Iterator<GridH2ValueMessage> it = msg.values().iterator();
+
+                for (int i = 0, cnt = msg.values().size() / msg.columns(); i < cnt; i++)
+                    add(msg.side(), msg.columns(), GridH2ValueMessageFactory.fillArray(it, new Value[msg.columns()],
+                        ctx));
+            }
+        }
+        catch (IgniteCheckedException e) {
+            fail(e);
+
+            return;
+        }
+
+        if (msg.last()) {
+            lastBatches.merge(nodeId, 1, Integer::sum);
+
+            checkReceived();
+        }
+    }
+
+    /**
+     * @param nodeId Node left the topology.
+     */
+    synchronized void onNodeLeft(UUID nodeId) {
+        leftNodes.add(nodeId);
+
+        if (nodes != null && nodes.contains(nodeId)) {
+            fail(new GridH2RetryException("Map node exchanging rows of shuffle query left topology [node=" +
+                nodeId + ']'));
+        }
+    }
+
+    /**
+     * Fails the query unless it is completed.
+     *
+     * @param err Error.
+     */
+    void fail(Throwable err) {
+        fut.onDone(err);
+    }
+
+    /**
+     * Cancels the query unless it is completed and drops the rows received before the query is started.
+     */
+    synchronized void close() {
+        fail(new QueryCancelledException());
+
+        releasePending();
+    }
+
+    /**
+     * @throws IgniteCheckedException If the query failed.
+     */
+    void checkFailed() throws IgniteCheckedException {
+        Throwable err = fut.error();
+
+        if (err != null)
+            throw U.cast(err);
+    }
+
+    /**
+     * @param side Input the row belongs to.
+     * @param cols Number of columns of the row.
+     * @param row Row.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void add(int side, int cols, Value[] row) throws IgniteCheckedException {
+        if (rcv != null) {
+            rcv.add(side, row);
+
+            return;
+        }
+
+        pendingCols.put(side, cols);
+
+        MapShuffle.SpillFile spill = pendingSpills.get(side);
+
+        if (spill == null && pendingMem + MapShuffle.memory(row) > pendingQuota)
+            pendingSpills.put(side, spill = new MapShuffle.SpillFile(ctx, hnd));
+
+        if (spill != null)
+            spill.write(row);
+        else {
+            pending.computeIfAbsent(side, s -> new ArrayList<>()).add(row);
+
+            pendingMem += MapShuffle.memory(row);
+        }
+    }
+
+    /**
+     * Completes the future if the last rows of every map node are received.
+     */
+    private void checkReceived() {
+        if (rcv != null && awaitedNodes().isEmpty())
+            fut.onDone(rcv);
+    }
+
+    /**
+     * @return Map nodes which have not sent their last rows yet.
+     */
+    private synchronized List<UUID> awaitedNodes() {
+        List<UUID> res = new ArrayList<>();
+
+        for (UUID nodeId : nodes) {
+            if (lastBatches.getOrDefault(nodeId, 0) < sides)
+                res.add(nodeId);
+        }
+
+        return res;
+    }
+
+    /**
+     * Drops the rows received before the query is started.
+     */
+    private void releasePending() {
+        for (MapShuffle.SpillFile spill : pendingSpills.values())
+            spill.close();
+
+        pending.clear();
+        pendingCols.clear();
+        pendingSpills.clear();
+
+        pendingMem = 0;
+    }
+}
@@ -0,0 +1,549 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.processors.query.GridQueryCancel;
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.apache.ignite.internal.processors.query.h2.H2PooledConnection;
+import org.apache.ignite.internal.processors.query.h2.H2StatementCache;
+import org.apache.ignite.internal.processors.query.h2.H2Utils;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAlias;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAst;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlColumn;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlQueryParser;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlSelect;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlStatement;
+import org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleJoin;
+import org.apache.ignite.internal.processors.query.h2.sql.SplitterUtils;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
+import org.apache.ignite.internal.util.GridCloseableIteratorAdapter;
+import org.apache.ignite.internal.util.lang.GridCloseableIterator;
+import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.lang.IgniteBiInClosure;
+import org.h2.command.Prepared;
+import org.h2.result.ResultInterface;
+import org.h2.store.DataHandler;
+import org.h2.value.Value;
+import org.h2.value.ValueLong;
+import org.h2.value.ValueNull;
+
+/**
+ * Shuffle hash join of a map query planned by {@link SplitterShuffleJoin}. Every map node scans the local primary
+ * rows of both joined tables filtered by the single table conditions, sends each row with a non-null join key to
+ * the map node selected by the hash of the key and joins the rows it receives by a hash table built on the smaller
+ * input. The joined rows are the result of the map query, the rest of the query is evaluated by the reducer.
+ * <p>
+ * When the received rows exceed {@link #IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA}, the rows of both inputs are spilled
+ * to disk partitioned by the hash of the join key and the partitions are joined one by one.
+ */
+public class MapShuffleJoin extends MapShuffle {
+    /** @see #IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA */
+    public static final long DFLT_SQL_SHUFFLE_JOIN_MEMORY_QUOTA = 64L * 1024 * 1024;
+
+    /** */
+    @SystemProperty(value = "Memory in bytes the received rows of a shuffle join are held in by a map node. " +
+        "Rows exceeding it are spilled to disk", type = Long.class, defaults = "" + DFLT_SQL_SHUFFLE_JOIN_MEMORY_QUOTA)
+    public static final String IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA = "IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA";
+
+    /** Queries scanning the local rows of the sides. */
+    private final String[] sideSqls;
+
+    /** Number of parameters bound to the side queries. */
+    private final int[] sideParams;
+
+    /** Number of columns of the rows of the sides, the join key columns go first. */
+    private final int[] sideCols;
+
+    /** Types the values of the join key columns are converted to before hashing. */
+    private final int[] keyTypes;
+
+    /** Sides of the map query columns. */
+    private final int[] outSides;
+
+    /** Indexes of the map query columns in the rows of their sides. */
+    private final int[] outIdxs;
+
+    /**
+     * @param sideSqls Queries scanning the local rows of the sides.
+     * @param sideParams Number of parameters bound to the side queries.
+     * @param sideCols Number of columns of the rows of the sides.
+     * @param keyTypes Types the values of the join key columns are converted to before hashing.
+     * @param outSides Sides of the map query columns.
+     * @param outIdxs Indexes of the map query columns in the rows of their sides.
+     */
+    private MapShuffleJoin(String[] sideSqls, int[] sideParams, int[] sideCols, int[] keyTypes, int[] outSides,
+        int[] outIdxs) {
+        this.sideSqls = sideSqls;
+        this.sideParams = sideParams;
+        this.sideCols = sideCols;
+        this.keyTypes = keyTypes;
+        this.outSides = outSides;
+        this.outIdxs = outIdxs;
+    }
+
+    /**
+     * Plans the shuffle join of a map query split by {@link SplitterShuffleJoin}.
+     *
+     * @param stmt Prepared map query.
+     * @param log Logger.
+     * @return Shuffle join.
+     */
+    static MapShuffleJoin plan(PreparedStatement stmt, IgniteLogger log) {
+        Prepared prepared = GridSqlQueryParser.prepared(stmt);
+
+        GridSqlStatement parsed = new GridSqlQueryParser(false, log).parse(prepared);
+
+        SplitterShuffleJoin join = parsed instanceof GridSqlSelect ?
+            SplitterShuffleJoin.analyze((GridSqlSelect)parsed) : null;
+
+        if (join == null)
+            throw new IgniteSQLException("Failed to plan shuffle join of map query: " + prepared.getSQL());
+
+        GridSqlSelect select = (GridSqlSelect)parsed;
+
+        List<List<GridSqlColumn>> cols = F.asList(
+            new ArrayList<>(join.side(0).keys()),
+            new ArrayList<>(join.side(1).keys()));
+
+        List<GridSqlAst> outCols = select.columns(true);
+
+        int[] outSides = new int[outCols.size()];
+        int[] outIdxs = new int[outSides.length];
+
+        for (int i = 0; i < outSides.length; i++) {
+            GridSqlAst el = GridSqlAlias.unwrap(outCols.get(i));
+
+            int side = el instanceof GridSqlColumn ? join.sideOf((GridSqlColumn)el) : -1;
+
+            if (side < 0)
+                throw new IgniteSQLException("Failed to plan shuffle join of map query: " + prepared.getSQL());
+
+            outSides[i] = side;
+            outIdxs[i] = columnIndex(cols.get(side), (GridSqlColumn)el);
+        }
+
+        String[] sideSqls = new String[2];
+        int[] sideParams = new int[2];
+        int[] sideCols = new int[2];
+
+        for (int side = 0; side < 2; side++) {
+            GridSqlSelect sideQry = new GridSqlSelect().from(join.side(side).table());
+
+            for (GridSqlColumn col : cols.get(side))
+                sideQry.addColumn(col, true);
+
+            for (GridSqlAst cond : join.side(side).conditions())
+                sideQry.whereAnd(cond);
+
+            TreeSet<Integer> paramIdxs = new TreeSet<>();
+
+            SplitterUtils.findParamsQuery(sideQry, Integer.MAX_VALUE, paramIdxs);
+
+            sideSqls[side] = sideQry.getSQL();
+            sideParams[side] = paramIdxs.isEmpty() ? 0 : paramIdxs.last() + 1;
+            sideCols[side] = cols.get(side).size();
+        }
+
+        return new MapShuffleJoin(sideSqls, sideParams, sideCols, U.toIntArray(join.keyTypes()), outSides, outIdxs);
+    }
+
+    /**
+     * @param cols Columns of a side.
+     * @param col Column.
+     * @return Index of the column, the column is added if absent.
+     */
+    private static int columnIndex(List<GridSqlColumn> cols, GridSqlColumn col) {
+        for (int i = 0; i < cols.size(); i++) {
+            if (cols.get(i).columnName().equals(col.columnName()))
+                return i;
+        }
+
+        cols.add(col);
+
+        return cols.size() - 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override int columnCount() {
+        return outSides.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override int sides() {
+        return 2;
+    }
+
+    /** {@inheritDoc} */
+    @Override Receiver receiver(IgniteH2Indexing h2, H2PooledConnection conn) {
+        long quota = IgniteSystemProperties.getLong(IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA,
+            DFLT_SQL_SHUFFLE_JOIN_MEMORY_QUOTA);
+
+        return new Inputs(h2.kernalContext(), h2.connections().dataHandler(), quota);
+    }
+
+    /** {@inheritDoc} */
+    @Override void scan(
+        IgniteH2Indexing h2,
+        H2PooledConnection conn,
+        MapShuffleExchange exch,
+        IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd,
+        UUID rdcNodeId,
+        long reqId,
+        List<UUID> nodes,
+        Object[] params,
+        int timeout,
+        GridQueryCancel cancel,
+        Boolean dataPageScanEnabled
+    ) throws IgniteCheckedException {
+        for (byte side = 0; side < 2; side++) {
+            String sql = sideSqls[side];
+
+            PreparedStatement stmt = conn.prepareStatement(sql, H2StatementCache.queryFlags(false, false));
+
+            H2Utils.bindParameters(stmt, F.asList(Arrays.copyOf(params, sideParams[side])));
+
+            ResultSet rs = h2.executeSqlQueryWithTimer(stmt, conn, sql, timeout, cancel, dataPageScanEnabled,
+                null);
+
+            try {
+                send(rs, side, snd, rdcNodeId, reqId, nodes, exch, cancel);
+            }
+            finally {
+                U.closeQuiet(rs);
+            }
+        }
+    }
+
+    /**
+     * Sends the scanned rows of a side to the map nodes selected by the hash of their join key.
+     *
+     * @param rs Scanned rows.
+     * @param side Side.
+     * @param snd Sender of rows to a map node.
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Query request ID.
+     * @param nodes Map nodes exchanging rows.
+     * @param exch Rows received by this node.
+     * @param cancel Query cancel.
+     * @throws IgniteCheckedException If failed.
+     */
+    private void send(ResultSet rs, byte side, IgniteBiInClosure<UUID, GridH2ShuffleRowsMessage> snd, UUID rdcNodeId,
+        long reqId, List<UUID> nodes, MapShuffleExchange exch, GridQueryCancel cancel)
+        throws IgniteCheckedException {
+        ResultInterface res = result(rs);
+
+        Outbox out = new Outbox(snd, rdcNodeId, reqId, nodes, side, sideCols[side]);
+
+        while (res.next()) {
+            Value[] row = res.currentRow();
+
+            Key key = key(row);
+
+            if (key == null)
+                continue; // Null never equals to anything.
+
+            if (out.add(node(key, nodes.size()), row))
+                checkCancelled(exch, cancel);
+        }
+
+        out.finish();
+    }
+
+    /**
+     * @param row Row of a side.
+     * @return Join key or {@code null} if any of the key values is null.
+     */
+    private Key key(Value[] row) {
+        Value[] vals = new Value[keyTypes.length];
+
+        for (int i = 0; i < vals.length; i++) {
+            Value val = row[i];
+
+            if (val == ValueNull.INSTANCE)
+                return null;
+
+            vals[i] = keyTypes[i] == Value.LONG ? ValueLong.get(val.getLong()) : val;
+        }
+
+        return new Key(vals);
+    }
+
+    /**
+     * @param left Row of the left side.
+     * @param right Row of the right side.
+     * @return Joined row.
+     */
+    private Value[] joinedRow(Value[] left, Value[] right) {
+        Value[] row = new Value[outSides.length];
+
+        for (int i = 0; i < row.length; i++)
+            row[i] = (outSides[i] == 0 ? left : right)[outIdxs[i]];
+
+        return row;
+    }
+
+    /**
+     * Rows of both sides received by this node.
+     */
+    private class Inputs extends Receiver {
+        /** Kernal context. */
+        private final GridKernalContext ctx;
+
+        /** Data handler used to serialize the spilled values. */
+        private final DataHandler hnd;
+
+        /** Memory quota. */
+        private final long quota;
+
+        /** Rows held in memory. */
+        private final List<List<Value[]>> rows = F.asList(new ArrayList<>(), new ArrayList<>());
+
+        /** Memory used by the rows. */
+        private long mem;
+
+        /** Spill files by the side and the partition, {@code null} until the rows exceed the quota. */
+        private SpillFile[][] spills;
+
+        /** Closed flag. */
+        private boolean closed;
+
+        /**
+         * @param ctx Kernal context.
+         * @param hnd Data handler used to serialize the spilled values.
+         * @param quota Memory quota.
+         */
+        Inputs(GridKernalContext ctx, DataHandler hnd, long quota) {
+            this.ctx = ctx;
+            this.hnd = hnd;
+            this.quota = quota;
+        }
+
+        /** {@inheritDoc} */
+        @Override void add(int side, Value[] row) throws IgniteCheckedException {
+            if (spills != null) {
+                spill(side, row);
+
+                return;
+            }
+
+            rows.get(side).add(row);
+
+            mem += memory(row);
+
+            if (mem > quota) {
+                spills = new SpillFile[2][SPILL_PARTS];
+
+                for (int s = 0; s < 2; s++) {
+                    for (Value[] r : rows.get(s))
+                        spill(s, r);
+
+                    rows.get(s).clear();
+                }
+
+                mem = 0;
+            }
+        }
+
+        /**
+         * @param side Side.
+         * @param row Row.
+         * @throws IgniteCheckedException If failed.
+         */
+        private void spill(int side, Value[] row) throws IgniteCheckedException {
+            int part = spillPartition(key(row));
+
+            if (spills[side][part] == null)
+                spills[side][part] = new SpillFile(ctx, hnd);
+
+            spills[side][part].write(row);
+        }
+
+        /**
+         * Joins the rows on demand. A hash table is built on the smaller side of a partition and probed with the
+         * rows of the other one read one by one, so only the hash table is held in memory.
+         *
+         * @return Joined rows.
+         */
+        @Override GridCloseableIterator<Value[]> result() {
+            return new GridCloseableIteratorAdapter<Value[]>() {
+                /** Next partition to join. */
+                private int part;
+
+                /** Hash table of the current partition. */
+                private Map<Key, List<Value[]>> tbl;
+
+                /** If the hash table is built on the left side. */
+                private boolean buildLeft;
+
+                /** Rows probing the hash table of the current partition. */
+                private GridCloseableIterator<Value[]> probe;
+
+                /** Current probing row. */
+                private Value[] probeRow;
+
+                /** Matches of the current probing row. */
+                private List<Value[]> matches;
+
+                /** Index of the next match. */
+                private int matchIdx;
+
+                /** {@inheritDoc} */
+                @Override protected boolean onHasNext() throws IgniteCheckedException {
+                    while (matches == null || matchIdx == matches.size()) {
+                        if (probe != null && probe.hasNextX()) {
+                            probeRow = probe.nextX();
+                            matches = tbl.get(key(probeRow));
+                            matchIdx = 0;
+
+                            continue;
+                        }
+
+                        matches = null;
+
+                        if (!nextPartition())
+                            return false;
+                    }
+
+                    return true;
+                }
+
+                /** {@inheritDoc} */
+                @Override protected Value[] onNext() {
+                    Value[] match = matches.get(matchIdx++);
+
+                    return buildLeft ? joinedRow(match, probeRow) : joinedRow(probeRow, match);
+                }
+
+                /**
+                 * Builds the hash table of the next partition.
+                 *
+                 * @return {@code false} If all the partitions are joined.
+                 * @throws IgniteCheckedException If failed.
+                 */
+                private boolean nextPartition() throws IgniteCheckedException {
+                    closeProbe();
+
+                    if (spills == null) {
+                        if (part++ > 0)
+                            return false;
+
+                        buildLeft = rows.get(0).size() <= rows.get(1).size();
+
+                        tbl = table(rows.get(buildLeft ? 0 : 1));
+                        probe = iterator(rows.get(buildLeft ? 1 : 0));
+
+                        return true;
+                    }
+
+                    while (part < SPILL_PARTS) {
+                        SpillFile left = spills[0][part];
+                        SpillFile right = spills[1][part];
+
+                        part++;
+
+                        if (left == null || right == null)
+                            continue;
+
+                        buildLeft = left.size() <= right.size();
+
+                        tbl = table(buildLeft ? left.read(sideCols[0]) : right.read(sideCols[1]));
+                        probe = buildLeft ? right.iterator(sideCols[1]) : left.iterator(sideCols[0]);
+
+                        return true;
+                    }
+
+                    return false;
+                }
+
+                /**
+                 * @throws IgniteCheckedException If failed.
+                 */
+                private void closeProbe() throws IgniteCheckedException {
+                    tbl = null;
+
+                    if (probe != null) {
+                        probe.close();
+
+                        probe = null;
+                    }
+                }
+
+                /** {@inheritDoc} */
+                @Override protected void onClose() throws IgniteCheckedException {
+                    try {
+                        closeProbe();
+                    }
+                    finally {
+                        Inputs.this.close();
+                    }
+                }
+            };
+        }
+
+        /**
+         * @param build Rows the hash table is built on.
+         * @return Hash table.
+         */
+        private Map<Key, List<Value[]>> table(List<Value[]> build) {
+            Map<Key, List<Value[]>> tbl = new HashMap<>(U.capacity(build.size()));
+
+            for (Value[] row : build)
+                tbl.computeIfAbsent(key(row), k -> new ArrayList<>(1)).add(row);
+
+            return tbl;
+        }
+
+        /** {@inheritDoc} */
+        @Override public synchronized void close() {
+            if (closed)
+                return;
+
+            closed = true;
+
+            rows.get(0).clear();
+            rows.get(1).clear();
+
+            if (spills == null)
+                return;
+
+            for (SpillFile[] sideSpills : spills) {
+                for (SpillFile spill : sideSpills) {
+                    if (spill != null)
+                        spill.close();
+                }
+            }
+        }
+    }
+}
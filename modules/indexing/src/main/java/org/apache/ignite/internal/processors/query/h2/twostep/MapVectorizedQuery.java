@@ -0,0 +1,1213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.internal.processors.cache.CacheObjectValueContext;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
+import org.apache.ignite.internal.processors.cache.IgniteCacheOffheapManager.CacheDataStore;
+import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
+import org.apache.ignite.internal.processors.cache.tree.CacheDataRowStore;
+import org.apache.ignite.internal.processors.query.GridQueryCancel;
+import org.apache.ignite.internal.processors.query.GridQueryTypeDescriptor;
+import org.apache.ignite.internal.processors.query.QueryUtils;
+import org.apache.ignite.internal.processors.query.h2.H2Utils;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2RowDescriptor;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
+import org.apache.ignite.internal.processors.query.h2.opt.QueryContext;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAggregateFunction;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAlias;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlAst;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlColumn;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlConst;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunction;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlOperation;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlOperationType;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlParameter;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlQueryParser;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlSelect;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlStatement;
+import org.apache.ignite.internal.processors.query.h2.sql.GridSqlTable;
+import org.apache.ignite.internal.util.lang.GridCursor;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.spi.indexing.IndexingQueryCacheFilter;
+import org.apache.ignite.spi.indexing.IndexingQueryFilter;
+import org.h2.command.Prepared;
+import org.h2.command.dml.Select;
+import org.h2.table.Column;
+import org.h2.value.Value;
+import org.h2.value.ValueDecimal;
+import org.h2.value.ValueDouble;
+import org.h2.value.ValueLong;
+import org.h2.value.ValueNull;
+import org.jetbrains.annotations.Nullable;
+
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.AVG;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.CAST;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.COUNT;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.COUNT_ALL;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.MAX;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.MIN;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlFunctionType.SUM;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlOperationType.AND;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlOperationType.IS_NOT_NULL;
+import static org.apache.ignite.internal.processors.query.h2.sql.GridSqlOperationType.IS_NULL;
+
+/**
+ * Vectorized execution of a map query which aggregates rows of a single table, optionally grouped by columns and
+ * filtered by comparisons of numeric columns with constants or parameters. Instead of the row at a time
+ * interpretation by H2, the fields used by the query are read from the cache entries into column batches of
+ * {@link #BATCH_SIZE} rows, the predicates narrow a selection vector of each batch and the aggregates are
+ * accumulated over the selected rows into arrays indexed by the group.
+ * <p>
+ * A map query of any other shape is not planned and is executed by H2. Execution of a planned query returns
+ * {@code null} as well if a parameter is not of a primitive numeric type, so H2 applies its conversion rules.
+ * <p>
+ * A plan does not depend on the query parameters and keeps no execution state, so it is built once per prepared
+ * statement and may be executed concurrently.
+ */
+public class MapVectorizedQuery {
+    /** @see #IGNITE_SQL_MAP_VECTORIZED_EXECUTION */
+    public static final boolean DFLT_SQL_MAP_VECTORIZED_EXECUTION = false;
+
+    /** */
+    @SystemProperty(value = "Enables vectorized execution of map queries which aggregate rows of a single table " +
+        "filtered by comparisons of numeric columns with constants. Other map queries are executed by H2",
+        defaults = "" + DFLT_SQL_MAP_VECTORIZED_EXECUTION)
+    public static final String IGNITE_SQL_MAP_VECTORIZED_EXECUTION = "IGNITE_SQL_MAP_VECTORIZED_EXECUTION";
+
+    /** Number of rows in a column batch. */
+    static final int BATCH_SIZE = 1024;
+
+    /** Initial number of groups the aggregate states are allocated for. */
+    private static final int INIT_GROUPS = 16;
+
+    /** Table. */
+    private final GridH2Table tbl;
+
+    /** Fields read into column vectors. */
+    private final int[] vecFields;
+
+    /** Whether the values of a column vector are floating point. */
+    private final boolean[] vecFloating;
+
+    /** Fields of group columns. */
+    private final int[] grpFields;
+
+    /** Types of group columns. */
+    private final int[] grpTypes;
+
+    /** Conditions, every execution binds its own copies. */
+    private final Condition[] conds;
+
+    /** Aggregates, every execution accumulates into its own copies. */
+    private final Aggregate[] aggs;
+
+    /** Sources of visible columns: index of a group column if non-negative, otherwise {@code -1 - aggregate index}. */
+    private final int[] outs;
+
+    /**
+     * @param tbl Table.
+     * @param vecFields Fields read into column vectors.
+     * @param vecFloating Whether the values of a column vector are floating point.
+     * @param grpFields Fields of group columns.
+     * @param grpTypes Types of group columns.
+     * @param conds Conditions.
+     * @param aggs Aggregates.
+     * @param outs Sources of visible columns.
+     */
+    private MapVectorizedQuery(GridH2Table tbl, int[] vecFields, boolean[] vecFloating, int[] grpFields,
+        int[] grpTypes, Condition[] conds, Aggregate[] aggs, int[] outs) {
+        this.tbl = tbl;
+        this.vecFields = vecFields;
+        this.vecFloating = vecFloating;
+        this.grpFields = grpFields;
+        this.grpTypes = grpTypes;
+        this.conds = conds;
+        this.aggs = aggs;
+        this.outs = outs;
+    }
+
+    /**
+     * Plans the vectorized execution of a map query.
+     *
+     * @param stmt Prepared map query.
+     * @param log Logger.
+     * @return Vectorized query or {@code null} if the query is not supported.
+     */
+    @Nullable static MapVectorizedQuery plan(PreparedStatement stmt, IgniteLogger log) {
+        Prepared prepared = GridSqlQueryParser.prepared(stmt);
+
+        if (!(prepared instanceof Select))
+            return null;
+
+        GridSqlStatement parsed;
+
+        try {
+            parsed = new GridSqlQueryParser(false, log).parse(prepared);
+        }
+        catch (IgniteException e) {
+            return null;
+        }
+
+        if (!(parsed instanceof GridSqlSelect))
+            return null;
+
+        GridSqlSelect select = (GridSqlSelect)parsed;
+
+        if (select.distinct() || select.having() != null || select.isForUpdate() || select.hasOffsetLimit() ||
+            !select.sort().isEmpty() || select.from() == null)
+            return null;
+
+        GridSqlAst from = GridSqlAlias.unwrap(select.from());
+
+        if (!(from instanceof GridSqlTable))
+            return null;
+
+        GridH2Table tbl = ((GridSqlTable)from).dataTable();
+
+        if (tbl == null)
+            return null;
+
+        GridCacheContext<?, ?> cctx = tbl.cacheContext();
+
+        if (cctx == null || cctx.mvccEnabled())
+            return null;
+
+        Planner planner = new Planner(tbl);
+
+        return planner.plan(select) ? planner.build() : null;
+    }
+
+    /**
+     * Executes the query over the partitions of the query segment.
+     *
+     * @param objCtx Cache object value context.
+     * @param qctx Query context.
+     * @param params Query parameters.
+     * @param cancel Query cancel.
+     * @param deadline Time the query is timed out at, {@code 0} if there is no timeout.
+     * @return Result rows or {@code null} if the query must be executed by H2.
+     * @throws IgniteCheckedException If failed.
+     */
+    @Nullable List<Value[]> execute(CacheObjectValueContext objCtx, QueryContext qctx, Object[] params,
+        GridQueryCancel cancel, long deadline) throws IgniteCheckedException {
+        Batch batch = new Batch();
+
+        for (Condition cond : batch.conds) {
+            if (!cond.bind(params, vecFloating[cond.vec]))
+                return null;
+        }
+
+        GridCacheContext<?, ?> cctx = tbl.cacheContext();
+        GridH2RowDescriptor desc = tbl.rowDescriptor();
+        GridQueryTypeDescriptor type = desc.type();
+
+        IndexingQueryFilter f = qctx.filter();
+        IndexingQueryCacheFilter filter = f != null ? f.forCache(tbl.cacheName()) : null;
+
+        int segments = cctx.config().getQueryParallelism();
+
+        // Query without grouping returns a single row even if no rows are selected.
+        if (grpFields.length == 0)
+            batch.addGroup(new GroupKey(new Object[0]), new Object[0]);
+
+        long time = U.currentTimeMillis();
+
+        CacheDataRowStore.setSkipVersion(true);
+
+        try {
+            for (CacheDataStore store : cctx.offheap().cacheDataStores()) {
+                int part = store.partId();
+
+                if ((segments == 1 ? 0 : part % segments) != qctx.segment())
+                    continue;
+
+                if (filter != null && !filter.applyPartition(part))
+                    continue;
+
+                GridCursor<? extends CacheDataRow> cur = store.cursor(cctx.cacheId());
+
+                while (cur.next()) {
+                    CacheDataRow row = cur.get();
+
+                    // A cache may keep several indexed types, also expired rows are skipped.
+                    if (!type.matchType(row.value()) || (row.expireTime() > 0 && row.expireTime() <= time))
+                        continue;
+
+                    int idx = batch.size++;
+
+                    for (int v = 0; v < vecFields.length; v++)
+                        batch.vecs[v].set(idx, desc.columnValue(row.key(), row.value(), vecFields[v]));
+
+                    for (int g = 0; g < grpFields.length; g++)
+                        batch.grpVals[g][idx] = desc.columnValue(row.key(), row.value(), grpFields[g]);
+
+                    if (batch.size == BATCH_SIZE) {
+                        batch.process();
+
+                        cancel.checkCancelled();
+
+                        if (deadline > 0 && U.currentTimeMillis() > deadline)
+                            throw new QueryCancelledException();
+                    }
+                }
+            }
+
+            batch.process();
+        }
+        finally {
+            CacheDataRowStore.setSkipVersion(false);
+        }
+
+        List<Value[]> rows = new ArrayList<>(batch.grpKeys.size());
+
+        for (int grp = 0; grp < batch.grpKeys.size(); grp++) {
+            Object[] key = batch.grpKeys.get(grp);
+
+            Value[] row = new Value[outs.length];
+
+            for (int c = 0; c < outs.length; c++) {
+                int src = outs[c];
+
+                if (src >= 0)
+                    row[c] = key[src] == null ? ValueNull.INSTANCE : H2Utils.wrap(objCtx, key[src], grpTypes[src]);
+                else
+                    row[c] = batch.aggs[-1 - src].value(grp);
+            }
+
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    /**
+     * @return Number of visible columns.
+     */
+    int columnCount() {
+        return outs.length;
+    }
+
+    /**
+     * @param type Value type.
+     * @return {@code true} If the type is read into a column vector.
+     */
+    private static boolean numeric(int type) {
+        switch (type) {
+            case Value.BYTE:
+            case Value.SHORT:
+            case Value.INT:
+            case Value.LONG:
+            case Value.FLOAT:
+            case Value.DOUBLE:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param type Value type.
+     * @return {@code true} If the rows may be grouped by a column of the type.
+     */
+    private static boolean groupable(int type) {
+        switch (type) {
+            case Value.BOOLEAN:
+            case Value.STRING:
+            case Value.UUID:
+                return true;
+
+            default:
+                return numeric(type);
+        }
+    }
+
+    /**
+     * Column batch of the execution together with the groups found so far.
+     */
+    private class Batch {
+        /** Conditions bound to the parameters of the execution. */
+        private final Condition[] conds = new Condition[MapVectorizedQuery.this.conds.length];
+
+        /** Aggregate states of the execution. */
+        private final Aggregate[] aggs = new Aggregate[MapVectorizedQuery.this.aggs.length];
+
+        /** Column vectors. */
+        private final MapColumnVector[] vecs = new MapColumnVector[vecFields.length];
+
+        /** Values of group columns. */
+        private final Object[][] grpVals = new Object[grpFields.length][BATCH_SIZE];
+
+        /** Selection vector: indexes of the rows passed the conditions. */
+        private final int[] sel = new int[BATCH_SIZE];
+
+        /** Group ids of the selected rows. */
+        private final int[] grpIds = new int[BATCH_SIZE];
+
+        /** Group ids by the values of group columns. */
+        private final Map<Object, Integer> grps = new HashMap<>();
+
+        /** Values of group columns by group id. */
+        private final List<Object[]> grpKeys = new ArrayList<>();
+
+        /** Number of rows in the batch. */
+        private int size;
+
+        /** */
+        private Batch() {
+            for (int c = 0; c < conds.length; c++)
+                conds[c] = MapVectorizedQuery.this.conds[c].copy();
+
+            for (int a = 0; a < aggs.length; a++)
+                aggs[a] = MapVectorizedQuery.this.aggs[a].copy();
+
+            for (int v = 0; v < vecs.length; v++)
+                vecs[v] = new MapColumnVector(vecFloating[v], BATCH_SIZE);
+        }
+
+        /**
+         * Filters the rows of the batch and accumulates the selected ones.
+         */
+        private void process() {
+            int cnt = size;
+
+            size = 0;
+
+            for (int i = 0; i < cnt; i++)
+                sel[i] = i;
+
+            for (int c = 0; c < conds.length && cnt > 0; c++)
+                cnt = conds[c].filter(vecs[conds[c].vec], sel, cnt);
+
+            if (cnt == 0)
+                return;
+
+            if (grpFields.length > 0) {
+                for (int i = 0; i < cnt; i++)
+                    grpIds[i] = groupId(sel[i]);
+            }
+
+            for (Aggregate agg : aggs)
+                agg.accumulate(agg.vec < 0 ? null : vecs[agg.vec], sel, grpIds, cnt);
+        }
+
+        /**
+         * @param r Row index in the batch.
+         * @return Group id of the row.
+         */
+        private int groupId(int r) {
+            if (grpFields.length == 1) {
+                Integer id = grps.get(grpVals[0][r]);
+
+                return id != null ? id : addGroup(grpVals[0][r], new Object[] {grpVals[0][r]});
+            }
+
+            Object[] key = new Object[grpFields.length];
+
+            for (int g = 0; g < key.length; g++)
+                key[g] = grpVals[g][r];
+
+            GroupKey grpKey = new GroupKey(key);
+
+            Integer id = grps.get(grpKey);
+
+            return id != null ? id : addGroup(grpKey, key);
+        }
+
+        /**
+         * @param mapKey Key of the group in {@link #grps}.
+         * @param key Values of group columns.
+         * @return Id of the added group.
+         */
+        private int addGroup(Object mapKey, Object[] key) {
+            int id = grpKeys.size();
+
+            grps.put(mapKey, id);
+            grpKeys.add(key);
+
+            for (Aggregate agg : aggs)
+                agg.ensureCapacity(grpKeys.size());
+
+            return id;
+        }
+    }
+
+    /**
+     * Collects the vectors, conditions and aggregates of a supported query.
+     */
+    private static class Planner {
+        /** Table. */
+        private final GridH2Table tbl;
+
+        /** Column vector index by field. */
+        private final Map<Integer, Integer> vecs = new HashMap<>();
+
+        /** Whether the values of a column vector are floating point. */
+        private final List<Boolean> vecFloating = new ArrayList<>();
+
+        /** Fields of group columns. */
+        private int[] grpFields;
+
+        /** Types of group columns. */
+        private int[] grpTypes;
+
+        /** Conditions. */
+        private final List<Condition> conds = new ArrayList<>();
+
+        /** Aggregates. */
+        private final List<Aggregate> aggs = new ArrayList<>();
+
+        /** Sources of visible columns. */
+        private int[] outs;
+
+        /**
+         * @param tbl Table.
+         */
+        private Planner(GridH2Table tbl) {
+            this.tbl = tbl;
+        }
+
+        /**
+         * @param select Query.
+         * @return {@code true} If the query is supported.
+         */
+        private boolean plan(GridSqlSelect select) {
+            List<GridSqlAst> cols = select.columns(false);
+            int[] grpCols = select.groupColumns();
+
+            if (grpCols == null)
+                grpCols = new int[0];
+
+            grpFields = new int[grpCols.length];
+            grpTypes = new int[grpCols.length];
+
+            for (int g = 0; g < grpCols.length; g++) {
+                Column col = column(cols.get(grpCols[g]));
+
+                if (col == null || !groupable(col.getType()))
+                    return false;
+
+                grpFields[g] = field(col);
+                grpTypes[g] = col.getType();
+            }
+
+            outs = new int[select.visibleColumns()];
+
+            for (int c = 0; c < outs.length; c++) {
+                int g = indexOf(grpCols, c);
+
+                if (g >= 0)
+                    outs[c] = g;
+                else {
+                    Aggregate agg = aggregate(GridSqlAlias.unwrap(cols.get(c)));
+
+                    if (agg == null)
+                        return false;
+
+                    outs[c] = -1 - aggs.size();
+
+                    aggs.add(agg);
+                }
+            }
+
+            // Hidden columns other than the group ones are evaluated by H2 only.
+            for (int c = outs.length; c < cols.size(); c++) {
+                if (indexOf(grpCols, c) < 0)
+                    return false;
+            }
+
+            return select.where() == null || conditions(select.where());
+        }
+
+        /**
+         * @return Vectorized query.
+         */
+        private MapVectorizedQuery build() {
+            int[] vecFields = new int[vecs.size()];
+            boolean[] floating = new boolean[vecs.size()];
+
+            for (Map.Entry<Integer, Integer> e : vecs.entrySet()) {
+                vecFields[e.getValue()] = e.getKey();
+                floating[e.getValue()] = vecFloating.get(e.getValue());
+            }
+
+            return new MapVectorizedQuery(tbl, vecFields, floating, grpFields, grpTypes,
+                conds.toArray(new Condition[0]), aggs.toArray(new Aggregate[0]), outs);
+        }
+
+        /**
+         * @param el Select column.
+         * @return Aggregate or {@code null} if the column is not a supported aggregate.
+         */
+        @Nullable private Aggregate aggregate(GridSqlAst el) {
+            if (!(el instanceof GridSqlAggregateFunction))
+                return null;
+
+            GridSqlAggregateFunction f = (GridSqlAggregateFunction)el;
+
+            if (f.distinct())
+                return null;
+
+            if (f.resultType() == null)
+                return null;
+
+            int resType = f.resultType().type();
+
+            if (f.type() == COUNT_ALL)
+                return new Aggregate(COUNT_ALL, -1, false, resType);
+
+            if (f.type() != COUNT && f.type() != SUM && f.type() != MIN && f.type() != MAX && f.type() != AVG)
+                return null;
+
+            GridSqlAst arg = f.child();
+
+            // Map part of AVG is AVG(CAST(x AS DOUBLE)), so the average of any other type is left to H2.
+            if (f.type() == AVG) {
+                if (arg instanceof GridSqlFunction && ((GridSqlFunction)arg).type() == CAST &&
+                    ((GridSqlFunction)arg).resultType().type() == Value.DOUBLE)
+                    arg = arg.child();
+                else if (resType != Value.DOUBLE)
+                    return null;
+            }
+
+            int vec = vector(arg);
+
+            if (vec < 0)
+                return null;
+
+            return new Aggregate(f.type(), vec, f.type() == AVG || vecFloating.get(vec), resType);
+        }
+
+        /**
+         * @param el Condition.
+         * @return {@code true} If the condition is supported.
+         */
+        private boolean conditions(GridSqlAst el) {
+            if (!(el instanceof GridSqlOperation))
+                return false;
+
+            GridSqlOperation op = (GridSqlOperation)el;
+            GridSqlOperationType opType = op.operationType();
+
+            if (opType == AND)
+                return conditions(op.child(0)) && conditions(op.child(1));
+
+            if (opType == IS_NULL || opType == IS_NOT_NULL) {
+                int vec = vector(op.child());
+
+                if (vec < 0)
+                    return false;
+
+                conds.add(new Condition(opType, vec, null, -1));
+
+                return true;
+            }
+
+            if (Condition.swapped(opType) == null)
+                return false;
+
+            GridSqlAst left = op.child(0);
+            GridSqlAst right = op.child(1);
+
+            if (column(left) == null) {
+                opType = Condition.swapped(opType);
+
+                GridSqlAst tmp = left;
+
+                left = right;
+                right = tmp;
+            }
+
+            int vec = vector(left);
+
+            if (vec < 0)
+                return false;
+
+            if (right instanceof GridSqlConst) {
+                Value val = ((GridSqlConst)right).value();
+
+                if (Condition.operand(val.getObject()) == null)
+                    return false;
+
+                conds.add(new Condition(opType, vec, val.getObject(), -1));
+            }
+            else if (right instanceof GridSqlParameter)
+                conds.add(new Condition(opType, vec, null, ((GridSqlParameter)right).index()));
+            else
+                return false;
+
+            return true;
+        }
+
+        /**
+         * @param el Expression.
+         * @return Index of the column vector of a numeric field or {@code -1} if the expression is not one.
+         */
+        private int vector(GridSqlAst el) {
+            Column col = column(el);
+
+            if (col == null || !numeric(col.getType()))
+                return -1;
+
+            int field = field(col);
+
+            Integer vec = vecs.get(field);
+
+            if (vec == null) {
+                vec = vecs.size();
+
+                vecs.put(field, vec);
+                vecFloating.add(col.getType() == Value.FLOAT || col.getType() == Value.DOUBLE);
+            }
+
+            return vec;
+        }
+
+        /**
+         * @param el Expression.
+         * @return Column of a table field or {@code null} if the expression is not a field column.
+         */
+        @Nullable private Column column(GridSqlAst el) {
+            el = GridSqlAlias.unwrap(el);
+
+            if (!(el instanceof GridSqlColumn))
+                return null;
+
+            Column col = ((GridSqlColumn)el).column();
+
+            if (col == null || col.getTable() != tbl)
+                return null;
+
+            return tbl.rowDescriptor().isKeyValueOrVersionColumn(col.getColumnId()) ? null : col;
+        }
+
+        /**
+         * @param col Field column.
+         * @return Field index.
+         */
+        private static int field(Column col) {
+            return col.getColumnId() - QueryUtils.DEFAULT_COLUMNS_COUNT;
+        }
+
+        /**
+         * @param arr Array.
+         * @param val Value.
+         * @return Index of the value in the array or {@code -1}.
+         */
+        private static int indexOf(int[] arr, int val) {
+            for (int i = 0; i < arr.length; i++) {
+                if (arr[i] == val)
+                    return i;
+            }
+
+            return -1;
+        }
+    }
+
+    /**
+     * Comparison of a numeric column with a constant or a parameter, or a null check of a numeric column.
+     */
+    private static class Condition {
+        /** Operation. */
+        private final GridSqlOperationType op;
+
+        /** Index of the column vector. */
+        private final int vec;
+
+        /** Constant operand, {@code null} if the column is compared with a parameter or checked for null. */
+        private final Object constVal;
+
+        /** Index of the parameter operand, {@code -1} if none. */
+        private final int paramIdx;
+
+        /** Whether the column is compared as double. */
+        private boolean dblCmp;
+
+        /** Integral operand. */
+        private long longOperand;
+
+        /** Floating point operand. */
+        private double dblOperand;
+
+        /**
+         * @param op Operation.
+         * @param vec Index of the column vector.
+         * @param constVal Constant operand.
+         * @param paramIdx Index of the parameter operand.
+         */
+        private Condition(GridSqlOperationType op, int vec, @Nullable Object constVal, int paramIdx) {
+            this.op = op;
+            this.vec = vec;
+            this.constVal = constVal;
+            this.paramIdx = paramIdx;
+        }
+
+        /**
+         * @return Unbound copy of the condition.
+         */
+        private Condition copy() {
+            return new Condition(op, vec, constVal, paramIdx);
+        }
+
+        /**
+         * @param op Comparison.
+         * @return Comparison with swapped operands or {@code null} if the operation is not a supported comparison.
+         */
+        @Nullable private static GridSqlOperationType swapped(GridSqlOperationType op) {
+            switch (op) {
+                case EQUAL:
+                case NOT_EQUAL:
+                    return op;
+
+                case BIGGER:
+                    return GridSqlOperationType.SMALLER;
+
+                case BIGGER_EQUAL:
+                    return GridSqlOperationType.SMALLER_EQUAL;
+
+                case SMALLER:
+                    return GridSqlOperationType.BIGGER;
+
+                case SMALLER_EQUAL:
+                    return GridSqlOperationType.BIGGER_EQUAL;
+
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * @param val Operand.
+         * @return Operand of a primitive numeric type or {@code null} if the operand is of another type.
+         */
+        @Nullable private static Number operand(@Nullable Object val) {
+            if (val instanceof Long || val instanceof Integer || val instanceof Short || val instanceof Byte ||
+                val instanceof Double || val instanceof Float)
+                return (Number)val;
+
+            return null;
+        }
+
+        /**
+         * Binds the operand of the comparison.
+         *
+         * @param params Query parameters.
+         * @param floating Whether the column values are floating point.
+         * @return {@code false} If the operand is not of a primitive numeric type.
+         */
+        private boolean bind(Object[] params, boolean floating) {
+            if (op == IS_NULL || op == IS_NOT_NULL)
+                return true;
+
+            Number val = operand(paramIdx < 0 ? constVal : paramIdx < params.length ? params[paramIdx] : null);
+
+            if (val == null)
+                return false;
+
+            dblCmp = floating || val instanceof Double || val instanceof Float;
+            longOperand = val.longValue();
+            dblOperand = val.doubleValue();
+
+            return true;
+        }
+
+        /**
+         * Narrows the selection vector to the rows the condition holds for.
+         *
+         * @param v Column vector.
+         * @param sel Selection vector.
+         * @param cnt Number of selected rows.
+         * @return Number of the rows left selected.
+         */
+        private int filter(MapColumnVector v, int[] sel, int cnt) {
+            boolean[] nulls = v.nulls;
+
+            int n = 0;
+
+            if (op == IS_NULL || op == IS_NOT_NULL) {
+                boolean isNull = op == IS_NULL;
+
+                for (int i = 0; i < cnt; i++) {
+                    int r = sel[i];
+
+                    if (nulls[r] == isNull)
+                        sel[n++] = r;
+                }
+
+                return n;
+            }
+
+            if (dblCmp) {
+                double c = dblOperand;
+
+                for (int i = 0; i < cnt; i++) {
+                    int r = sel[i];
+
+                    if (!nulls[r] && test(Double.compare(v.doubleValue(r), c)))
+                        sel[n++] = r;
+                }
+
+                return n;
+            }
+
+            long[] vals = v.longs;
+            long c = longOperand;
+
+            switch (op) {
+                case EQUAL:
+                    for (int i = 0; i < cnt; i++) {
+                        int r = sel[i];
+
+                        if (!nulls[r] && vals[r] == c)
+                            sel[n++] = r;
+                    }
+
+                    break;
+
+                case NOT_EQUAL:
+                    for (int i = 0; i < cnt; i++) {
+                        int r = sel[i];
+
+                        if (!nulls[r] && vals[r] != c)
+                            sel[n++] = r;
+                    }
+
+                    break;
+
+                case BIGGER:
+                    for (int i = 0; i < cnt; i++) {
+                        int r = sel[i];
+
+                        if (!nulls[r] && vals[r] > c)
+                            sel[n++] = r;
+                    }
+
+                    break;
+
+                case BIGGER_EQUAL:
+                    for (int i = 0; i < cnt; i++) {
+                        int r = sel[i];
+
+                        if (!nulls[r] && vals[r] >= c)
+                            sel[n++] = r;
+                    }
+
+                    break;
+
+                case SMALLER:
+                    for (int i = 0; i < cnt; i++) {
+                        int r = sel[i];
+
+                        if (!nulls[r] && vals[r] < c)
+                            sel[n++] = r;
+                    }
+
+                    break;
+
+                case SMALLER_EQUAL:
+                    for (int i = 0; i < cnt; i++) {
+                        int r = sel[i];
+
+                        if (!nulls[r] && vals[r] <= c)
+                            sel[n++] = r;
+                    }
+
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unexpected operation: " + op);
+            }
+
+            return n;
+        }
+
+        /**
+         * @param cmp Result of the comparison of a column value with the operand.
+         * @return {@code true} If the condition holds.
+         */
+        private boolean test(int cmp) {
+            switch (op) {
+                case EQUAL:
+                    return cmp == 0;
+
+                case NOT_EQUAL:
+                    return cmp != 0;
+
+                case BIGGER:
+                    return cmp > 0;
+
+                case BIGGER_EQUAL:
+                    return cmp >= 0;
+
+                case SMALLER:
+                    return cmp < 0;
+
+                case SMALLER_EQUAL:
+                    return cmp <= 0;
+
+                default:
+                    throw new IllegalStateException("Unexpected operation: " + op);
+            }
+        }
+    }
+
+    /**
+     * Aggregate function accumulated into columnar states indexed by group id.
+     */
+    private static class Aggregate {
+        /** Function. */
+        private final GridSqlFunctionType type;
+
+        /** Index of the column vector, {@code -1} for {@code COUNT(*)}. */
+        private final int vec;
+
+        /** Whether the values are accumulated as doubles. */
+        private final boolean floating;
+
+        /** Result type. */
+        private final int resType;
+
+        /** Numbers of accumulated values. */
+        private long[] cnts = new long[INIT_GROUPS];
+
+        /** Integral states. */
+        private long[] longs;
+
+        /** Floating point states. */
+        private double[] doubles;
+
+        /** Integral sums which overflowed long, allocated on the first overflow. */
+        private BigDecimal[] bigs;
+
+        /**
+         * @param type Function.
+         * @param vec Index of the column vector.
+         * @param floating Whether the values are accumulated as doubles.
+         * @param resType Result type.
+         */
+        private Aggregate(GridSqlFunctionType type, int vec, boolean floating, int resType) {
+            this.type = type;
+            this.vec = vec;
+            this.floating = floating;
+            this.resType = resType;
+
+            if (type != COUNT_ALL && type != COUNT) {
+                if (floating)
+                    doubles = new double[INIT_GROUPS];
+                else
+                    longs = new long[INIT_GROUPS];
+            }
+        }
+
+        /**
+         * @return Copy of the aggregate with empty states.
+         */
+        private Aggregate copy() {
+            return new Aggregate(type, vec, floating, resType);
+        }
+
+        /**
+         * @param grps Number of groups.
+         */
+        private void ensureCapacity(int grps) {
+            if (grps <= cnts.length)
+                return;
+
+            int cap = Math.max(grps, cnts.length * 2);
+
+            cnts = Arrays.copyOf(cnts, cap);
+
+            if (longs != null)
+                longs = Arrays.copyOf(longs, cap);
+
+            if (doubles != null)
+                doubles = Arrays.copyOf(doubles, cap);
+
+            if (bigs != null)
+                bigs = Arrays.copyOf(bigs, cap);
+        }
+
+        /**
+         * @param v Column vector, {@code null} for {@code COUNT(*)}.
+         * @param sel Selection vector.
+         * @param grpIds Group ids of the selected rows.
+         * @param cnt Number of selected rows.
+         */
+        private void accumulate(@Nullable MapColumnVector v, int[] sel, int[] grpIds, int cnt) {
+            if (type == COUNT_ALL) {
+                for (int i = 0; i < cnt; i++)
+                    cnts[grpIds[i]]++;
+
+                return;
+            }
+
+            boolean[] nulls = v.nulls;
+
+            if (type == COUNT) {
+                for (int i = 0; i < cnt; i++) {
+                    if (!nulls[sel[i]])
+                        cnts[grpIds[i]]++;
+                }
+            }
+            else if (floating) {
+                for (int i = 0; i < cnt; i++) {
+                    int r = sel[i];
+
+                    if (nulls[r])
+                        continue;
+
+                    int g = grpIds[i];
+                    double val = v.doubleValue(r);
+
+                    if (cnts[g]++ == 0)
+                        doubles[g] = val;
+                    else if (type == MIN) {
+                        if (Double.compare(val, doubles[g]) < 0)
+                            doubles[g] = val;
+                    }
+                    else if (type == MAX) {
+                        if (Double.compare(val, doubles[g]) > 0)
+                            doubles[g] = val;
+                    }
+                    else
+                        doubles[g] += val;
+                }
+            }
+            else {
+                long[] vals = v.longs;
+
+                for (int i = 0; i < cnt; i++) {
+                    int r = sel[i];
+
+                    if (nulls[r])
+                        continue;
+
+                    int g = grpIds[i];
+                    long val = vals[r];
+
+                    if (cnts[g]++ == 0)
+                        longs[g] = val;
+                    else if (type == MIN) {
+                        if (val < longs[g])
+                            longs[g] = val;
+                    }
+                    else if (type == MAX) {
+                        if (val > longs[g])
+                            longs[g] = val;
+                    }
+                    else
+                        add(g, val);
+                }
+            }
+        }
+
+        /**
+         * Adds to an integral sum switching the group to a decimal sum on overflow.
+         *
+         * @param g Group id.
+         * @param val Value.
+         */
+        private void add(int g, long val) {
+            if (bigs != null && bigs[g] != null) {
+                bigs[g] = bigs[g].add(BigDecimal.valueOf(val));
+
+                return;
+            }
+
+            try {
+                longs[g] = Math.addExact(longs[g], val);
+            }
+            catch (ArithmeticException ignored) {
+                if (bigs == null)
+                    bigs = new BigDecimal[longs.length];
+
+                bigs[g] = BigDecimal.valueOf(longs[g]).add(BigDecimal.valueOf(val));
+            }
+        }
+
+        /**
+         * @param g Group id.
+         * @return Aggregated value of the group.
+         */
+        private Value value(int g) {
+            if (type == COUNT_ALL || type == COUNT)
+                return ValueLong.get(cnts[g]).convertTo(resType);
+
+            if (cnts[g] == 0)
+                return ValueNull.INSTANCE;
+
+            Value val;
+
+            if (type == AVG)
+                val = ValueDouble.get(doubles[g] / cnts[g]);
+            else if (floating)
+                val = ValueDouble.get(doubles[g]);
+            else if (bigs != null && bigs[g] != null)
+                val = ValueDecimal.get(bigs[g]);
+            else
+                val = ValueLong.get(longs[g]);
+
+            return val.convertTo(resType);
+        }
+    }
+
+    /**
+     * Values of several group columns.
+     */
+    private static final class GroupKey {
+        /** Values. */
+        private final Object[] vals;
+
+        /** Hash code. */
+        private final int hash;
+
+        /**
+         * @param vals Values.
+         */
+        private GroupKey(Object[] vals) {
+            this.vals = vals;
+
+            hash = Arrays.hashCode(vals);
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean equals(Object o) {
+            return o instanceof GroupKey && Arrays.equals(vals, ((GroupKey)o).vals);
+        }
+
+        /** {@inheritDoc} */
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -186,6 +186,18 @@ public class ReduceQueryRun {
         return idxs;
     }
 
+    /**
+     * @return Estimated memory in bytes used by the rows received by the reducers.
+     */
+    long memoryUsed() {
+        long mem = 0;
+
+        for (Reducer idx : idxs)
+            mem += idx.memoryUsed();
+
+        return mem;
+    }
+
     /**
      * Initialize.
      *
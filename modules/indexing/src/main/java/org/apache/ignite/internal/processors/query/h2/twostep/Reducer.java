@@ -64,6 +64,21 @@ public interface Reducer {
      */
     void setPageSize(int pageSize);
 
+    /**
+     * @param memQuota Memory in bytes the received rows are buffered in, {@code 0} if unlimited.
+     */
+    void setMemoryQuota(long memQuota);
+
+    /**
+     * @return Estimated memory in bytes used by the received rows.
+     */
+    long memoryUsed();
+
+    /**
+     * @return Number of rows to request in the next page from a source to fit the memory quota.
+     */
+    int nextPageSize();
+
     /**
      * Check if all rows has been fetched from all sources.
      *
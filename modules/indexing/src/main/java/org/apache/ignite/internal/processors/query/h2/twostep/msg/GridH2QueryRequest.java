@@ -162,6 +162,11 @@ public class GridH2QueryRequest implements Message, GridCacheQueryMarshallable {
     /** */
     private boolean explicitTimeout;
 
+    /** Nodes exchanging rows of shuffle queries, or {@code null} if the request has no shuffle queries. */
+    @GridToStringInclude
+    @GridDirectCollection(UUID.class)
+    private Collection<UUID> shuffleNodes;
+
     /**
      * Required by {@link Externalizable}
      */
@@ -189,6 +194,7 @@ public class GridH2QueryRequest implements Message, GridCacheQueryMarshallable {
         mvccSnapshot = req.mvccSnapshot;
         txReq = req.txReq;
         explicitTimeout = req.explicitTimeout;
+        shuffleNodes = req.shuffleNodes;
     }
 
     /**
@@ -422,6 +428,23 @@ public class GridH2QueryRequest implements Message, GridCacheQueryMarshallable {
         return this;
     }
 
+    /**
+     * @return Nodes exchanging rows of shuffle queries, or {@code null} if the request has no shuffle queries.
+     */
+    @Nullable public Collection<UUID> shuffleNodes() {
+        return shuffleNodes;
+    }
+
+    /**
+     * @param shuffleNodes Nodes exchanging rows of shuffle queries.
+     * @return {@code this}.
+     */
+    public GridH2QueryRequest shuffleNodes(Collection<UUID> shuffleNodes) {
+        this.shuffleNodes = shuffleNodes;
+
+        return this;
+    }
+
     /**
      * @return Schema name.
      */
@@ -666,6 +689,12 @@ public class GridH2QueryRequest implements Message, GridCacheQueryMarshallable {
 
                 writer.incrementState();
 
+            case 15:
+                if (!writer.writeCollection("shuffleNodes", shuffleNodes, MessageCollectionItemType.UUID))
+                    return false;
+
+                writer.incrementState();
+
         }
 
         return true;
@@ -799,6 +828,14 @@ public class GridH2QueryRequest implements Message, GridCacheQueryMarshallable {
 
                 reader.incrementState();
 
+            case 15:
+                shuffleNodes = reader.readCollection("shuffleNodes", MessageCollectionItemType.UUID);
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
         }
 
         return reader.afterMessageRead(GridH2QueryRequest.class);
@@ -811,7 +848,7 @@ public class GridH2QueryRequest implements Message, GridCacheQueryMarshallable {
 
     /** {@inheritDoc} */
     @Override public byte fieldsCount() {
-        return 15;
+        return 16;
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep.msg;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import org.apache.ignite.internal.GridDirectCollection;
+import org.apache.ignite.internal.util.tostring.GridToStringExclude;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.apache.ignite.plugin.extensions.communication.Message;
+import org.apache.ignite.plugin.extensions.communication.MessageCollectionItemType;
+import org.apache.ignite.plugin.extensions.communication.MessageReader;
+import org.apache.ignite.plugin.extensions.communication.MessageWriter;
+
+/**
+ * Batch of rows of a shuffle query input sent by a map node to the map node owning the hash of their key: the rows
+ * of a shuffle join input or the partial groups of a shuffle aggregation.
+ */
+public class GridH2ShuffleRowsMessage implements Message {
+    /** */
+    public static final byte STATUS_OK = 0;
+
+    /** */
+    public static final byte STATUS_ERROR = 1;
+
+    /** */
+    public static final byte STATUS_RETRY = 2;
+
+    /** Reducer node ID. */
+    private UUID rdcNodeId;
+
+    /** Query request ID. */
+    private long reqId;
+
+    /** Join input: {@code 0} for the left table, {@code 1} for the right one. */
+    private byte side;
+
+    /** Number of columns in a row. */
+    private int cols;
+
+    /** Values of rows. */
+    @GridToStringExclude
+    @GridDirectCollection(Message.class)
+    private List<GridH2ValueMessage> vals;
+
+    /** Whether this is the last batch of the input sent by the node. */
+    private boolean last;
+
+    /** */
+    private byte status;
+
+    /** */
+    private String err;
+
+    /**
+     * Required by {@link Message}.
+     */
+    public GridH2ShuffleRowsMessage() {
+        // No-op.
+    }
+
+    /**
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Query request ID.
+     * @param side Join input.
+     * @param cols Number of columns in a row.
+     * @param vals Values of rows.
+     * @param last Whether this is the last batch of the input sent by the node.
+     */
+    public GridH2ShuffleRowsMessage(UUID rdcNodeId, long reqId, byte side, int cols, List<GridH2ValueMessage> vals,
+        boolean last) {
+        this.rdcNodeId = rdcNodeId;
+        this.reqId = reqId;
+        this.side = side;
+        this.cols = cols;
+        this.vals = vals;
+        this.last = last;
+    }
+
+    /**
+     * @param rdcNodeId Reducer node ID.
+     * @param reqId Query request ID.
+     * @param status Failure status.
+     * @param err Error message.
+     */
+    public GridH2ShuffleRowsMessage(UUID rdcNodeId, long reqId, byte status, String err) {
+        assert status != STATUS_OK;
+
+        this.rdcNodeId = rdcNodeId;
+        this.reqId = reqId;
+        this.status = status;
+        this.err = err;
+    }
+
+    /**
+     * @return Reducer node ID.
+     */
+    public UUID reducerNodeId() {
+        return rdcNodeId;
+    }
+
+    /**
+     * @return Query request ID.
+     */
+    public long requestId() {
+        return reqId;
+    }
+
+    /**
+     * @return Join input: {@code 0} for the left table, {@code 1} for the right one.
+     */
+    public byte side() {
+        return side;
+    }
+
+    /**
+     * @return Number of columns in a row.
+     */
+    public int columns() {
+        return cols;
+    }
+
+    /**
+     * @return Values of rows.
+     */
+    public List<GridH2ValueMessage> values() {
+        return vals;
+    }
+
+    /**
+     * @return Whether this is the last batch of the input sent by the node.
+     */
+    public boolean last() {
+        return last;
+    }
+
+    /**
+     * @return Status.
+     */
+    public byte status() {
+        return status;
+    }
+
+    /**
+     * @return Error message or {@code null} if everything is ok.
+     */
+    public String error() {
+        return err;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean writeTo(ByteBuffer buf, MessageWriter writer) {
+        writer.setBuffer(buf);
+
+        if (!writer.isHeaderWritten()) {
+            if (!writer.writeHeader(directType(), fieldsCount()))
+                return false;
+
+            writer.onHeaderWritten();
+        }
+
+        switch (writer.state()) {
+            case 0:
+                if (!writer.writeInt("cols", cols))
+                    return false;
+
+                writer.incrementState();
+
+            case 1:
+                if (!writer.writeString("err", err))
+                    return false;
+
+                writer.incrementState();
+
+            case 2:
+                if (!writer.writeBoolean("last", last))
+                    return false;
+
+                writer.incrementState();
+
+            case 3:
+                if (!writer.writeUuid("rdcNodeId", rdcNodeId))
+                    return false;
+
+                writer.incrementState();
+
+            case 4:
+                if (!writer.writeLong("reqId", reqId))
+                    return false;
+
+                writer.incrementState();
+
+            case 5:
+                if (!writer.writeByte("side", side))
+                    return false;
+
+                writer.incrementState();
+
+            case 6:
+                if (!writer.writeByte("status", status))
+                    return false;
+
+                writer.incrementState();
+
+            case 7:
+                if (!writer.writeCollection("vals", vals, MessageCollectionItemType.MSG))
+                    return false;
+
+                writer.incrementState();
+
+        }
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean readFrom(ByteBuffer buf, MessageReader reader) {
+        reader.setBuffer(buf);
+
+        if (!reader.beforeMessageRead())
+            return false;
+
+        switch (reader.state()) {
+            case 0:
+                cols = reader.readInt("cols");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 1:
+                err = reader.readString("err");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 2:
+                last = reader.readBoolean("last");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 3:
+                rdcNodeId = reader.readUuid("rdcNodeId");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 4:
+                reqId = reader.readLong("reqId");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 5:
+                side = reader.readByte("side");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 6:
+                status = reader.readByte("status");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 7:
+                vals = reader.readCollection("vals", MessageCollectionItemType.MSG);
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+        }
+
+        return reader.afterMessageRead(GridH2ShuffleRowsMessage.class);
+    }
+
+    /** {@inheritDoc} */
+    @Override public short directType() {
+        return -58;
+    }
+
+    /** {@inheritDoc} */
+    @Override public byte fieldsCount() {
+        return 8;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onAckReceived() {
+        // No-op.
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(GridH2ShuffleRowsMessage.class, this, "rows", vals == null || cols == 0 ? 0 :
+            vals.size() / cols);
+    }
+}
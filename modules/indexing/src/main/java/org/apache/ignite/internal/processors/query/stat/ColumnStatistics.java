@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import org.apache.ignite.internal.util.tostring.GridToStringExclude;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Statistics of a column: number of rows and nulls, number of distinct values, minimum, maximum and an equi-depth
+ * histogram. The statistics of partitions and nodes are merged into the statistics of the whole table.
+ */
+public class ColumnStatistics implements Serializable {
+    /** */
+    private static final long serialVersionUID = 0L;
+
+    /** Maximum number of bounds of the histogram. */
+    static final int HIST_BOUNDS = 128;
+
+    /** Number of rows. */
+    private final long total;
+
+    /** Number of {@code null} values. */
+    private final long nulls;
+
+    /** Sketch of distinct values. */
+    @GridToStringExclude
+    private final HyperLogLog hll;
+
+    /** Minimum value, {@code null} if the values are not comparable or there are no values. */
+    @Nullable private final Object min;
+
+    /** Maximum value, {@code null} if the values are not comparable or there are no values. */
+    @Nullable private final Object max;
+
+    /**
+     * Sorted bounds of the equi-depth histogram, every two adjacent bounds enclose the same number of values.
+     * Empty if the values are not comparable.
+     */
+    @GridToStringExclude
+    private final Object[] hist;
+
+    /**
+     * @param total Number of rows.
+     * @param nulls Number of {@code null} values.
+     * @param hll Sketch of distinct values.
+     * @param min Minimum value.
+     * @param max Maximum value.
+     * @param hist Sorted bounds of the equi-depth histogram.
+     */
+    ColumnStatistics(long total, long nulls, HyperLogLog hll, @Nullable Object min, @Nullable Object max,
+        Object[] hist) {
+        this.total = total;
+        this.nulls = nulls;
+        this.hll = hll;
+        this.min = min;
+        this.max = max;
+        this.hist = hist;
+    }
+
+    /**
+     * @return Number of rows.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return Number of {@code null} values.
+     */
+    public long nulls() {
+        return nulls;
+    }
+
+    /**
+     * @return Fraction of {@code null} values.
+     */
+    public double nullFraction() {
+        return total == 0 ? 0 : (double)nulls / total;
+    }
+
+    /**
+     * @return Estimated number of distinct non-null values.
+     */
+    public long distinct() {
+        long nonNulls = total - nulls;
+
+        return nonNulls == 0 ? 0 : Math.max(1, Math.min(hll.cardinality(), nonNulls));
+    }
+
+    /**
+     * @return Minimum value.
+     */
+    @Nullable public Object min() {
+        return min;
+    }
+
+    /**
+     * @return Maximum value.
+     */
+    @Nullable public Object max() {
+        return max;
+    }
+
+    /**
+     * Estimates the fraction of rows with values between the given bounds using the histogram.
+     *
+     * @param lo Lower bound, {@code null} if the range is not bounded below.
+     * @param hi Upper bound, {@code null} if the range is not bounded above.
+     * @return Fraction of rows or {@code -1} if it can't be estimated.
+     */
+    public double rangeFraction(@Nullable Object lo, @Nullable Object hi) {
+        if (hist.length < 2)
+            return -1;
+
+        try {
+            double from = lo == null ? 0 : position(lo, false);
+            double to = hi == null ? 1 : position(hi, true);
+
+            return Math.max(0, to - from) * (1 - nullFraction());
+        }
+        catch (ClassCastException ignore) {
+            return -1; // Bound of a different type.
+        }
+    }
+
+    /**
+     * @param val Value.
+     * @param upper Whether the values equal to the given one are counted.
+     * @return Fraction of non-null values less than the given one.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private double position(Object val, boolean upper) {
+        int lo = 0;
+        int hi = hist.length;
+
+        // Index of the first bound greater (or not less) than the value.
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            int cmp = ((Comparable)hist[mid]).compareTo(val);
+
+            if (cmp < 0 || (upper && cmp == 0))
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        if (lo == 0)
+            return 0;
+
+        if (lo == hist.length)
+            return 1;
+
+        double inner = 0.5;
+
+        Object left = hist[lo - 1];
+        Object right = hist[lo];
+
+        if (val instanceof Number && left instanceof Number && right instanceof Number) {
+            double l = ((Number)left).doubleValue();
+            double r = ((Number)right).doubleValue();
+
+            if (r > l)
+                inner = Math.min(1, Math.max(0, (((Number)val).doubleValue() - l) / (r - l)));
+        }
+
+        return (lo - 1 + inner) / (hist.length - 1);
+    }
+
+    /**
+     * @param other Statistics of the same column collected from other rows.
+     * @return Statistics of all the rows.
+     */
+    public ColumnStatistics merge(ColumnStatistics other) {
+        HyperLogLog hll0 = new HyperLogLog();
+
+        hll0.merge(hll);
+        hll0.merge(other.hll);
+
+        return new ColumnStatistics(
+            total + other.total,
+            nulls + other.nulls,
+            hll0,
+            pick(min, other.min, true),
+            pick(max, other.max, false),
+            mergeHistograms(hist, total - nulls, other.hist, other.total - other.nulls)
+        );
+    }
+
+    /**
+     * Merges two equi-depth histograms by picking the quantiles of both in proportion to the values they describe.
+     *
+     * @param h1 First histogram.
+     * @param cnt1 Number of values of the first histogram.
+     * @param h2 Second histogram.
+     * @param cnt2 Number of values of the second histogram.
+     * @return Merged histogram.
+     */
+    private static Object[] mergeHistograms(Object[] h1, long cnt1, Object[] h2, long cnt2) {
+        if (cnt1 == 0)
+            return h2;
+
+        if (cnt2 == 0 || h2.length == 0)
+            return h1;
+
+        if (h1.length == 0)
+            return h2;
+
+        int n1 = (int)Math.max(1, Math.round((double)HIST_BOUNDS * cnt1 / (cnt1 + cnt2)));
+        int n2 = Math.max(1, HIST_BOUNDS - n1);
+
+        Object[] res = new Object[Math.min(n1, h1.length) + Math.min(n2, h2.length)];
+
+        int pos = quantiles(h1, res, 0, n1);
+
+        quantiles(h2, res, pos, n2);
+
+        Arrays.sort(res);
+
+        return res;
+    }
+
+    /**
+     * @param src Sorted values.
+     * @param dst Destination array.
+     * @param pos Position in the destination array.
+     * @param cnt Maximum number of quantiles.
+     * @return Position after the last copied value.
+     */
+    static int quantiles(Object[] src, Object[] dst, int pos, int cnt) {
+        if (src.length <= cnt) {
+            System.arraycopy(src, 0, dst, pos, src.length);
+
+            return pos + src.length;
+        }
+
+        for (int i = 0; i < cnt; i++)
+            dst[pos++] = src[cnt == 1 ? 0 : (int)((long)i * (src.length - 1) / (cnt - 1))];
+
+        return pos;
+    }
+
+    /**
+     * @param v1 First value.
+     * @param v2 Second value.
+     * @param min Whether to pick the minimum or the maximum.
+     * @return Minimum or maximum of the non-null values.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Nullable private static Object pick(@Nullable Object v1, @Nullable Object v2, boolean min) {
+        if (v1 == null || v2 == null)
+            return v1 == null ? v2 : v1;
+
+        int cmp = ((Comparable)v1).compareTo(v2);
+
+        return (min ? cmp <= 0 : cmp >= 0) ? v1 : v2;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(ColumnStatistics.class, this, "distinct", distinct(), "histBounds", hist.length);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects the statistics of a column from the values of a partition. The histogram is built from a uniform sample of
+ * the values, so a partition of any size is analyzed in constant memory.
+ */
+class ColumnStatisticsCollector {
+    /** Size of the sample of the values. */
+    private static final int SAMPLE_SIZE = 1024;
+
+    /** */
+    private final HyperLogLog hll = new HyperLogLog();
+
+    /** Sample of the non-null values. */
+    private final Object[] sample = new Object[SAMPLE_SIZE];
+
+    /** Number of rows. */
+    private long total;
+
+    /** Number of {@code null} values. */
+    private long nulls;
+
+    /** Whether the values are ordered, so that the minimum, the maximum and the histogram are collected. */
+    private boolean comparable = true;
+
+    /** */
+    private Object min;
+
+    /** */
+    private Object max;
+
+    /**
+     * @param val Value.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void add(@Nullable Object val) {
+        total++;
+
+        if (val == null) {
+            nulls++;
+
+            return;
+        }
+
+        hll.add(HyperLogLog.hash(val));
+
+        if (!comparable)
+            return;
+
+        if (!(val instanceof Comparable) || !(val instanceof Serializable)) {
+            comparable = false;
+
+            return;
+        }
+
+        long seen = total - nulls;
+
+        if (seen == 1)
+            min = max = val;
+        else if (((Comparable)val).compareTo(min) < 0)
+            min = val;
+        else if (((Comparable)val).compareTo(max) > 0)
+            max = val;
+
+        // Reservoir sampling.
+        if (seen <= SAMPLE_SIZE)
+            sample[(int)seen - 1] = val;
+        else {
+            long idx = ThreadLocalRandom.current().nextLong(seen);
+
+            if (idx < SAMPLE_SIZE)
+                sample[(int)idx] = val;
+        }
+    }
+
+    /**
+     * @return Collected statistics.
+     */
+    ColumnStatistics finish() {
+        if (!comparable || total == nulls)
+            return new ColumnStatistics(total, nulls, hll, null, null, new Object[0]);
+
+        Object[] vals = Arrays.copyOf(sample, (int)Math.min(SAMPLE_SIZE, total - nulls));
+
+        Arrays.sort(vals);
+
+        Object[] hist = new Object[Math.min(vals.length, ColumnStatistics.HIST_BOUNDS)];
+
+        ColumnStatistics.quantiles(vals, hist, 0, hist.length);
+
+        // The sample may miss the extremes, while the histogram must cover all the values.
+        hist[0] = min;
+        hist[hist.length - 1] = max;
+
+        return new ColumnStatistics(total, nulls, hll, min, max, hist);
+    }
+}
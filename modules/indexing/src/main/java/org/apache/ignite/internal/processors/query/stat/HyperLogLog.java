@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values. Sketches built on different partitions and nodes are
+ * merged by taking the maximum of every register.
+ */
+public class HyperLogLog implements Serializable {
+    /** */
+    private static final long serialVersionUID = 0L;
+
+    /** Number of hash bits addressing a register. */
+    private static final int P = 11;
+
+    /** Number of registers. */
+    private static final int M = 1 << P;
+
+    /** Bias correction constant for {@link #M} registers. */
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    /** Registers holding the maximum rank seen. */
+    private final byte[] regs = new byte[M];
+
+    /**
+     * @param hash 64-bit hash of a value, the bits must be uniformly distributed.
+     */
+    public void add(long hash) {
+        int idx = (int)(hash >>> (Long.SIZE - P));
+
+        // Rank of the remaining bits, a guard bit bounds it when they all are zero.
+        byte rank = (byte)(Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1);
+
+        if (rank > regs[idx])
+            regs[idx] = rank;
+    }
+
+    /**
+     * @param other Sketch to merge into this one.
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < M; i++) {
+            if (other.regs[i] > regs[i])
+                regs[i] = other.regs[i];
+        }
+    }
+
+    /**
+     * @return Estimated number of distinct values.
+     */
+    public long cardinality() {
+        double sum = 0;
+        int zeros = 0;
+
+        for (byte reg : regs) {
+            sum += 1.0 / (1L << reg);
+
+            if (reg == 0)
+                zeros++;
+        }
+
+        double est = ALPHA * M * M / sum;
+
+        // Linear counting is more accurate while many registers are still empty.
+        if (est <= 2.5 * M && zeros > 0)
+            est = M * Math.log((double)M / zeros);
+
+        return Math.round(est);
+    }
+
+    /**
+     * Mixes the bits of a hash code, so that the sketch is fed by uniformly distributed hashes.
+     *
+     * @param val Value, not {@code null}.
+     * @return 64-bit hash.
+     */
+    public static long hash(Object val) {
+        long h;
+
+        if (val instanceof Long)
+            h = (Long)val;
+        else if (val instanceof byte[])
+            h = Arrays.hashCode((byte[])val);
+        else
+            h = val.hashCode();
+
+        // Finalizer of MurmurHash3.
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Statistics of a table: number of rows and statistics of every column. Describes a partition, the primary
+ * partitions of a node or the whole table.
+ */
+public class ObjectStatistics implements Serializable {
+    /** */
+    private static final long serialVersionUID = 0L;
+
+    /** Version of the ANALYZE request the statistics were collected for. */
+    private final long ver;
+
+    /** Number of rows. */
+    private final long rowCnt;
+
+    /** Statistics of the columns by column name. */
+    private final Map<String, ColumnStatistics> cols;
+
+    /**
+     * @param ver Version of the ANALYZE request.
+     * @param rowCnt Number of rows.
+     * @param cols Statistics of the columns by column name.
+     */
+    ObjectStatistics(long ver, long rowCnt, Map<String, ColumnStatistics> cols) {
+        this.ver = ver;
+        this.rowCnt = rowCnt;
+        this.cols = cols;
+    }
+
+    /**
+     * @return Version of the ANALYZE request the statistics were collected for.
+     */
+    public long version() {
+        return ver;
+    }
+
+    /**
+     * @return Number of rows.
+     */
+    public long rowCount() {
+        return rowCnt;
+    }
+
+    /**
+     * @param colName Column name.
+     * @return Statistics of the column or {@code null} if the column wasn't analyzed.
+     */
+    @Nullable public ColumnStatistics column(String colName) {
+        return cols.get(colName);
+    }
+
+    /**
+     * @param other Statistics of the same table collected from other rows.
+     * @param ver Version of the merged statistics.
+     * @return Statistics of all the rows. Only the columns present in both statistics are kept.
+     */
+    public ObjectStatistics merge(ObjectStatistics other, long ver) {
+        Map<String, ColumnStatistics> res = new HashMap<>();
+
+        for (Map.Entry<String, ColumnStatistics> e : cols.entrySet()) {
+            ColumnStatistics col = other.cols.get(e.getKey());
+
+            if (col != null)
+                res.put(e.getKey(), e.getValue().merge(col));
+        }
+
+        return new ObjectStatistics(ver, rowCnt + other.rowCnt, res);
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(ObjectStatistics.class, this);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.nio.ByteBuffer;
+import org.apache.ignite.internal.processors.cache.query.QueryTable;
+import org.apache.ignite.internal.util.tostring.GridToStringExclude;
+import org.apache.ignite.internal.util.typedef.internal.S;
+import org.apache.ignite.plugin.extensions.communication.Message;
+import org.apache.ignite.plugin.extensions.communication.MessageReader;
+import org.apache.ignite.plugin.extensions.communication.MessageWriter;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Statistics of the local primary partitions of a table sent by a server node to the statistics coordinator.
+ */
+public class ObjectStatisticsMessage implements Message {
+    /** Table. */
+    private QueryTable tbl;
+
+    /** Marshalled statistics, {@code null} if the node has no statistics of the table. */
+    @GridToStringExclude
+    private byte[] statsBytes;
+
+    /**
+     * Required by {@link Message}.
+     */
+    public ObjectStatisticsMessage() {
+        // No-op.
+    }
+
+    /**
+     * @param tbl Table.
+     * @param statsBytes Marshalled statistics, {@code null} if the node has no statistics of the table.
+     */
+    public ObjectStatisticsMessage(QueryTable tbl, @Nullable byte[] statsBytes) {
+        this.tbl = tbl;
+        this.statsBytes = statsBytes;
+    }
+
+    /**
+     * @return Table.
+     */
+    public QueryTable table() {
+        return tbl;
+    }
+
+    /**
+     * @return Marshalled statistics, {@code null} if the node has no statistics of the table.
+     */
+    @Nullable public byte[] statisticsBytes() {
+        return statsBytes;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean writeTo(ByteBuffer buf, MessageWriter writer) {
+        writer.setBuffer(buf);
+
+        if (!writer.isHeaderWritten()) {
+            if (!writer.writeHeader(directType(), fieldsCount()))
+                return false;
+
+            writer.onHeaderWritten();
+        }
+
+        switch (writer.state()) {
+            case 0:
+                if (!writer.writeByteArray("statsBytes", statsBytes))
+                    return false;
+
+                writer.incrementState();
+
+            case 1:
+                if (!writer.writeMessage("tbl", tbl))
+                    return false;
+
+                writer.incrementState();
+
+        }
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean readFrom(ByteBuffer buf, MessageReader reader) {
+        reader.setBuffer(buf);
+
+        if (!reader.beforeMessageRead())
+            return false;
+
+        switch (reader.state()) {
+            case 0:
+                statsBytes = reader.readByteArray("statsBytes");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+            case 1:
+                tbl = reader.readMessage("tbl");
+
+                if (!reader.isLastRead())
+                    return false;
+
+                reader.incrementState();
+
+        }
+
+        return reader.afterMessageRead(ObjectStatisticsMessage.class);
+    }
+
+    /** {@inheritDoc} */
+    @Override public short directType() {
+        return -59;
+    }
+
+    /** {@inheritDoc} */
+    @Override public byte fieldsCount() {
+        return 2;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void onAckReceived() {
+        // No-op.
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return S.toString(ObjectStatisticsMessage.class, this);
+    }
+}
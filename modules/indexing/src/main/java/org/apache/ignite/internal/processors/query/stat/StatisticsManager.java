@@ -0,0 +1,785 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.SystemProperty;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.events.DiscoveryEvent;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.GridTopic;
+import org.apache.ignite.internal.IgniteInterruptedCheckedException;
+import org.apache.ignite.internal.managers.communication.GridMessageListener;
+import org.apache.ignite.internal.managers.eventstorage.GridLocalEventListener;
+import org.apache.ignite.internal.processors.affinity.AffinityTopologyVersion;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
+import org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtLocalPartition;
+import org.apache.ignite.internal.processors.cache.persistence.CacheDataRow;
+import org.apache.ignite.internal.processors.cache.query.IgniteQueryErrorCode;
+import org.apache.ignite.internal.processors.cache.query.QueryTable;
+import org.apache.ignite.internal.processors.cache.tree.CacheDataRowStore;
+import org.apache.ignite.internal.processors.metastorage.DistributedMetaStorage;
+import org.apache.ignite.internal.processors.metastorage.DistributedMetastorageLifecycleListener;
+import org.apache.ignite.internal.processors.metastorage.ReadableDistributedMetaStorage;
+import org.apache.ignite.internal.processors.query.GridQueryTypeDescriptor;
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.apache.ignite.internal.processors.query.QueryUtils;
+import org.apache.ignite.internal.processors.query.h2.H2TableDescriptor;
+import org.apache.ignite.internal.processors.query.h2.SchemaManager;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2RowDescriptor;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
+import org.apache.ignite.internal.processors.query.h2.opt.H2CacheRow;
+import org.apache.ignite.internal.processors.timeout.GridTimeoutProcessor;
+import org.apache.ignite.internal.util.lang.GridCursor;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.marshaller.jdk.JdkMarshaller;
+import org.h2.table.Column;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+import org.jetbrains.annotations.Nullable;
+
+import static org.apache.ignite.events.EventType.EVT_NODE_FAILED;
+import static org.apache.ignite.events.EventType.EVT_NODE_LEFT;
+import static org.apache.ignite.internal.managers.communication.GridIoPolicy.MANAGEMENT_POOL;
+import static org.apache.ignite.internal.processors.cache.distributed.dht.topology.GridDhtPartitionState.OWNING;
+import static org.apache.ignite.internal.processors.metastorage.DistributedMetaStorage.IGNITE_INTERNAL_KEY_PREFIX;
+
+/**
+ * Manager of the column statistics of the tables.
+ * <p>
+ * The ANALYZE command writes a request with a new version to the distributed metastorage. Every server node collects
+ * the statistics of its primary partitions of the table, merges them and sends the statistics of the node to the
+ * statistics coordinator, the oldest server node, over communication. The coordinator merges the statistics of the
+ * alive server nodes and writes the statistics of the table to the metastorage once all the nodes holding the data
+ * of the table sent the statistics of the request. Only the merged statistics go through the metastorage, they are
+ * used by the query planner of every node and persisted along with the metastorage.
+ * <p>
+ * The statistics of a partition are collected again when the fraction of its rows changed since the collection
+ * exceeds {@link #IGNITE_SQL_STATISTICS_REFRESH_FRACTION}, so the statistics of the analyzed tables follow the data.
+ * The refreshed statistics of a node are sent to the coordinator, which writes the merged statistics again only when
+ * the row count of the table changed by the same fraction.
+ */
+public class StatisticsManager {
+    /** @see #IGNITE_SQL_STATISTICS_REFRESH_FRACTION */
+    public static final double DFLT_SQL_STATISTICS_REFRESH_FRACTION = 0.1;
+
+    /** */
+    @SystemProperty(value = "Fraction of the rows of a partition which must be updated since its column statistics " +
+        "were collected to collect them again. The merged statistics of a table are published again when its row " +
+        "count changes by the same fraction", type = Double.class,
+        defaults = "" + DFLT_SQL_STATISTICS_REFRESH_FRACTION)
+    public static final String IGNITE_SQL_STATISTICS_REFRESH_FRACTION = "IGNITE_SQL_STATISTICS_REFRESH_FRACTION";
+
+    /** @see #IGNITE_SQL_STATISTICS_REFRESH_INTERVAL */
+    public static final long DFLT_SQL_STATISTICS_REFRESH_INTERVAL = 60_000L;
+
+    /** */
+    @SystemProperty(value = "Interval in milliseconds the partitions of the analyzed tables are checked for updates " +
+        "with", type = Long.class, defaults = "" + DFLT_SQL_STATISTICS_REFRESH_INTERVAL)
+    public static final String IGNITE_SQL_STATISTICS_REFRESH_INTERVAL = "IGNITE_SQL_STATISTICS_REFRESH_INTERVAL";
+
+    /** Prefix of the metastorage keys of the ANALYZE requests. */
+    private static final String REQ_PREFIX = IGNITE_INTERNAL_KEY_PREFIX + "sql.statistics.request.";
+
+    /** Prefix of the metastorage keys of the merged statistics of the tables. */
+    private static final String DATA_PREFIX = IGNITE_INTERNAL_KEY_PREFIX + "sql.statistics.table.";
+
+    /** Time in milliseconds ANALYZE waits for the statistics of all the nodes. */
+    private static final long ANALYZE_TIMEOUT = 5 * 60_000L;
+
+    /** */
+    private final GridKernalContext ctx;
+
+    /** */
+    private final SchemaManager schemaMgr;
+
+    /** */
+    private final IgniteLogger log;
+
+    /** Clears the cached query plans, so that the queries are planned with the updated statistics. */
+    private final Runnable planCacheCleaner;
+
+    /** */
+    private final double refreshFraction =
+        IgniteSystemProperties.getDouble(IGNITE_SQL_STATISTICS_REFRESH_FRACTION, DFLT_SQL_STATISTICS_REFRESH_FRACTION);
+
+    /** Versions of the ANALYZE requests by metastorage key. */
+    private final ConcurrentMap<String, Long> reqs = new ConcurrentHashMap<>();
+
+    /** Merged statistics of the tables by metastorage key. */
+    private final ConcurrentMap<String, ObjectStatistics> tblStats = new ConcurrentHashMap<>();
+
+    /** Statistics of the local primary partitions of the analyzed tables. */
+    private final ConcurrentMap<QueryTable, LocalStatistics> locStats = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics of the nodes by the table and the consistent ID of the node, held by the coordinator. Guarded by
+     * itself.
+     */
+    private final Map<QueryTable, Map<Object, ObjectStatistics>> nodeStats = new HashMap<>();
+
+    /** Merged statistics of the tables written to the metastorage by this node as the coordinator. */
+    private final Map<QueryTable, ObjectStatistics> published = new HashMap<>();
+
+    /** Mutex ANALYZE waits for the statistics of the tables on. */
+    private final Object mux = new Object();
+
+    /** */
+    private final GridLocalEventListener discoLsnr;
+
+    /** */
+    private final GridMessageListener msgLsnr;
+
+    /** Marshaller of the statistics sent to the coordinator. */
+    private final JdkMarshaller marsh;
+
+    /** Coordinator the statistics of the local node were last sent to. */
+    private volatile UUID crdId;
+
+    /** Metastorage, {@code null} until it is ready for writing. */
+    private volatile DistributedMetaStorage metastorage;
+
+    /** */
+    private volatile GridTimeoutProcessor.CancelableTask refreshTask;
+
+    /** */
+    private volatile boolean stopped;
+
+    /**
+     * @param ctx Kernal context.
+     * @param schemaMgr Schema manager.
+     * @param planCacheCleaner Clears the cached query plans.
+     */
+    public StatisticsManager(GridKernalContext ctx, SchemaManager schemaMgr, Runnable planCacheCleaner) {
+        this.ctx = ctx;
+        this.schemaMgr = schemaMgr;
+        this.planCacheCleaner = planCacheCleaner;
+
+        log = ctx.log(StatisticsManager.class);
+        marsh = ctx.marshallerContext().jdkMarshaller();
+
+        ctx.internalSubscriptionProcessor().registerDistributedMetastorageListener(
+            new DistributedMetastorageLifecycleListener() {
+                @Override public void onReadyForRead(ReadableDistributedMetaStorage metastorage) {
+                    metastorage.listen(key -> key.startsWith(REQ_PREFIX),
+                        (key, oldVal, newVal) -> onRequest(key, (Long)newVal));
+
+                    metastorage.listen(key -> key.startsWith(DATA_PREFIX),
+                        (key, oldVal, newVal) -> onTableStatistics(key, (ObjectStatistics)newVal));
+                }
+
+                @Override public void onReadyForWrite(DistributedMetaStorage metastorage) {
+                    StatisticsManager.this.metastorage = metastorage;
+
+                    long interval = IgniteSystemProperties.getLong(IGNITE_SQL_STATISTICS_REFRESH_INTERVAL,
+                        DFLT_SQL_STATISTICS_REFRESH_INTERVAL);
+
+                    refreshTask = ctx.timeout().schedule(
+                        () -> ctx.closure().runLocalSafe(StatisticsManager.this::refreshAll, MANAGEMENT_POOL),
+                        interval, interval);
+                }
+            });
+
+        discoLsnr = evt -> onNodeLeft(((DiscoveryEvent)evt).eventNode());
+
+        ctx.event().addLocalEventListener(discoLsnr, EVT_NODE_LEFT, EVT_NODE_FAILED);
+
+        msgLsnr = (nodeId, msg, plc) -> {
+            if (msg instanceof ObjectStatisticsMessage)
+                onNodeStatistics(nodeId, (ObjectStatisticsMessage)msg);
+        };
+
+        ctx.io().addMessageListener(GridTopic.TOPIC_QUERY, msgLsnr);
+    }
+
+    /**
+     * Stops the manager.
+     */
+    public void stop() {
+        stopped = true;
+
+        GridTimeoutProcessor.CancelableTask task = refreshTask;
+
+        if (task != null)
+            task.close();
+
+        ctx.event().removeLocalEventListener(discoLsnr, EVT_NODE_LEFT, EVT_NODE_FAILED);
+
+        ctx.io().removeMessageListener(GridTopic.TOPIC_QUERY, msgLsnr);
+
+        onUpdate();
+    }
+
+    /**
+     * Collects the statistics of the table on all the nodes and waits for them.
+     *
+     * @param tbl Table.
+     * @throws IgniteCheckedException If failed.
+     */
+    public void collect(GridH2Table tbl) throws IgniteCheckedException {
+        DistributedMetaStorage ms = metastorage;
+
+        if (ms == null) {
+            throw new IgniteSQLException("Failed to analyze table, the distributed metastorage is not ready: " +
+                tbl.identifier(), IgniteQueryErrorCode.UNSUPPORTED_OPERATION);
+        }
+
+        String key = requestKey(tbl.identifier());
+
+        Long prevVer = reqs.get(key);
+
+        long ver = Math.max(U.currentTimeMillis(), prevVer == null ? 0 : prevVer + 1);
+
+        ms.write(key, ver);
+
+        long deadline = U.currentTimeMillis() + ANALYZE_TIMEOUT;
+
+        synchronized (mux) {
+            while (true) {
+                ObjectStatistics stats = statistics(tbl.identifier());
+
+                if (stats != null && stats.version() >= ver)
+                    return;
+
+                long timeout = deadline - U.currentTimeMillis();
+
+                if (stopped || timeout <= 0) {
+                    throw new IgniteSQLException("Failed to wait for the statistics of the table: " +
+                        tbl.identifier());
+                }
+
+                try {
+                    mux.wait(timeout);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new IgniteInterruptedCheckedException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param tbl Table.
+     * @return Statistics of the table or {@code null} if the table wasn't analyzed.
+     */
+    @Nullable public ObjectStatistics statistics(QueryTable tbl) {
+        return tblStats.isEmpty() ? null : tblStats.get(dataKey(tbl));
+    }
+
+    /**
+     * Forgets the statistics of the tables of the destroyed cache.
+     *
+     * @param cacheName Cache name.
+     * @param rmvIdx Whether the cache is destroyed rather than stopped locally.
+     */
+    public void onCacheDestroyed(String cacheName, boolean rmvIdx) {
+        DistributedMetaStorage ms = metastorage;
+
+        for (H2TableDescriptor desc : schemaMgr.tablesForCache(cacheName)) {
+            if (desc.table() == null)
+                continue;
+
+            QueryTable tbl = desc.table().identifier();
+
+            locStats.remove(tbl);
+
+            synchronized (nodeStats) {
+                nodeStats.remove(tbl);
+                published.remove(tbl);
+            }
+
+            if (!rmvIdx || ms == null || !U.isLocalNodeCoordinator(ctx.discovery()))
+                continue;
+
+            try {
+                String dataKey = dataKey(tbl);
+
+                if (tblStats.containsKey(dataKey))
+                    ms.removeAsync(dataKey);
+
+                String reqKey = requestKey(tbl);
+
+                if (reqs.containsKey(reqKey))
+                    ms.removeAsync(reqKey);
+            }
+            catch (IgniteCheckedException e) {
+                U.warn(log, "Failed to remove statistics of the destroyed table: " + tbl, e);
+            }
+        }
+    }
+
+    /**
+     * @param key Metastorage key.
+     * @param ver Version of the ANALYZE request, {@code null} if the request is removed.
+     */
+    private void onRequest(String key, @Nullable Long ver) {
+        if (ver == null) {
+            reqs.remove(key);
+
+            return;
+        }
+
+        reqs.put(key, ver);
+
+        // Skip history on local join, the local partitions are analyzed by the periodic refresh.
+        if (!ctx.discovery().localJoinFuture().isDone())
+            return;
+
+        for (GridH2Table tbl : schemaMgr.dataTables()) {
+            if (key.equals(requestKey(tbl.identifier())) && analyzable(tbl))
+                ctx.closure().runLocalSafe(() -> refresh(tbl, true), MANAGEMENT_POOL);
+        }
+    }
+
+    /**
+     * @param key Metastorage key.
+     * @param stats Merged statistics of the table, {@code null} if they are removed.
+     */
+    private void onTableStatistics(String key, @Nullable ObjectStatistics stats) {
+        if (stats == null)
+            tblStats.remove(key);
+        else
+            tblStats.put(key, stats);
+
+        onUpdate();
+
+        planCacheCleaner.run();
+    }
+
+    /**
+     * Wakes up the waiting ANALYZE commands.
+     */
+    private void onUpdate() {
+        synchronized (mux) {
+            mux.notifyAll();
+        }
+    }
+
+    /**
+     * @param node Node left the cluster.
+     */
+    private void onNodeLeft(ClusterNode node) {
+        if (stopped)
+            return;
+
+        ctx.closure().runLocalSafe(() -> {
+            ClusterNode crd = coordinator();
+
+            if (crd == null)
+                return;
+
+            // A new coordinator does not know the statistics of the nodes, so every node sends them again.
+            if (!crd.id().equals(crdId)) {
+                for (Map.Entry<QueryTable, LocalStatistics> e : locStats.entrySet()) {
+                    synchronized (e.getValue()) {
+                        if (e.getValue().res != null)
+                            send(e.getKey(), e.getValue().res);
+                    }
+                }
+            }
+
+            if (!crd.isLocal())
+                return;
+
+            synchronized (nodeStats) {
+                for (Map.Entry<QueryTable, Map<Object, ObjectStatistics>> e : nodeStats.entrySet()) {
+                    e.getValue().remove(node.consistentId());
+
+                    publish(e.getKey(), e.getValue());
+                }
+            }
+        }, MANAGEMENT_POOL);
+    }
+
+    /**
+     * Refreshes the statistics of the local partitions of the analyzed tables.
+     */
+    private void refreshAll() {
+        for (GridH2Table tbl : schemaMgr.dataTables()) {
+            if (stopped)
+                return;
+
+            if (reqs.containsKey(requestKey(tbl.identifier())) && analyzable(tbl))
+                refresh(tbl, false);
+        }
+    }
+
+    /**
+     * Collects the statistics of the local primary partitions which are new or changed enough and sends the
+     * statistics of the node to the coordinator if any of them are collected.
+     *
+     * @param tbl Table.
+     * @param full Whether to collect the statistics of all the partitions.
+     */
+    private void refresh(GridH2Table tbl, boolean full) {
+        LocalStatistics loc = locStats.computeIfAbsent(tbl.identifier(), k -> new LocalStatistics());
+
+        try {
+            synchronized (loc) {
+                Long reqVer = reqs.get(requestKey(tbl.identifier()));
+
+                if (stopped || reqVer == null)
+                    return;
+
+                if (full)
+                    loc.parts.clear();
+
+                GridCacheContext<?, ?> cctx = tbl.cacheContext();
+
+                AffinityTopologyVersion topVer = cctx.affinity().affinityTopologyVersion();
+
+                Set<Integer> primary = cctx.affinity().primaryPartitions(cctx.localNodeId(), topVer);
+
+                // Partitions which are not primary anymore are forgotten.
+                boolean changed = loc.parts.keySet().retainAll(primary);
+
+                changed |= full || loc.res == null || loc.res.version() != reqVer;
+
+                for (int p : primary) {
+                    GridDhtLocalPartition part = cctx.topology().localPartition(p);
+
+                    if (part == null || !part.reserve())
+                        continue;
+
+                    try {
+                        if (part.state() != OWNING)
+                            continue;
+
+                        PartitionStatistics prev = loc.parts.get(p);
+
+                        long updCntr = part.updateCounter();
+
+                        if (prev != null &&
+                            updCntr - prev.updCntr <= refreshFraction * Math.max(prev.stats.rowCount(), 1))
+                            continue;
+
+                        loc.parts.put(p, new PartitionStatistics(collect(tbl, part, reqVer), updCntr));
+
+                        changed = true;
+                    }
+                    finally {
+                        part.release();
+                    }
+                }
+
+                if (!changed)
+                    return;
+
+                ObjectStatistics res = collect(tbl, null, reqVer);
+
+                for (PartitionStatistics partStats : loc.parts.values())
+                    res = res.merge(partStats.stats, reqVer);
+
+                loc.res = res;
+
+                send(tbl.identifier(), res);
+
+                if (log.isDebugEnabled())
+                    log.debug("Collected statistics [tbl=" + tbl.identifier() + ", stats=" + res + ']');
+            }
+        }
+        catch (Exception e) {
+            if (!stopped)
+                U.warn(log, "Failed to collect statistics of the table: " + tbl.identifier(), e);
+        }
+    }
+
+    /**
+     * Sends the statistics of the local node to the coordinator.
+     *
+     * @param tbl Table.
+     * @param stats Statistics of the local primary partitions of the table.
+     */
+    private void send(QueryTable tbl, ObjectStatistics stats) {
+        ClusterNode crd = coordinator();
+
+        if (crd == null)
+            return;
+
+        crdId = crd.id();
+
+        try {
+            if (crd.isLocal())
+                onNodeStatistics(crd, tbl, stats);
+            else {
+                ctx.io().sendToGridTopic(crd, GridTopic.TOPIC_QUERY,
+                    new ObjectStatisticsMessage(tbl, U.marshal(marsh, stats)), MANAGEMENT_POOL);
+            }
+        }
+        catch (IgniteCheckedException e) {
+            // The statistics are sent again to the next coordinator.
+            if (log.isDebugEnabled())
+                log.debug("Failed to send statistics to the coordinator [tbl=" + tbl + ", crd=" + crd.id() +
+                    ", err=" + e + ']');
+        }
+    }
+
+    /**
+     * @param nodeId Node sent the statistics.
+     * @param msg Statistics of the node.
+     */
+    private void onNodeStatistics(UUID nodeId, ObjectStatisticsMessage msg) {
+        ClusterNode node = ctx.discovery().node(nodeId);
+
+        if (node == null || stopped)
+            return;
+
+        try {
+            ObjectStatistics stats = msg.statisticsBytes() == null ? null :
+                U.unmarshal(marsh, msg.statisticsBytes(), U.resolveClassLoader(ctx.config()));
+
+            onNodeStatistics(node, msg.table(), stats);
+        }
+        catch (IgniteCheckedException e) {
+            U.warn(log, "Failed to read statistics of the node [node=" + nodeId + ", tbl=" + msg.table() + ']', e);
+        }
+    }
+
+    /**
+     * Merges the statistics of the node into the statistics of the table and publishes them if needed.
+     *
+     * @param node Node.
+     * @param tbl Table.
+     * @param stats Statistics of the node, {@code null} if the node has no statistics of the table.
+     */
+    private void onNodeStatistics(ClusterNode node, QueryTable tbl, @Nullable ObjectStatistics stats) {
+        synchronized (nodeStats) {
+            Map<Object, ObjectStatistics> tblNodeStats = nodeStats.computeIfAbsent(tbl, k -> new HashMap<>());
+
+            if (stats == null)
+                tblNodeStats.remove(node.consistentId());
+            else
+                tblNodeStats.put(node.consistentId(), stats);
+
+            publish(tbl, tblNodeStats);
+        }
+    }
+
+    /**
+     * Writes the merged statistics of the table to the metastorage once all the nodes holding the data of the
+     * table sent the statistics of the current ANALYZE request, and again when the row count of the table changes
+     * by more than {@link #IGNITE_SQL_STATISTICS_REFRESH_FRACTION}.
+     *
+     * @param tbl Table.
+     * @param tblNodeStats Statistics of the nodes by the consistent ID.
+     */
+    private void publish(QueryTable tbl, Map<Object, ObjectStatistics> tblNodeStats) {
+        assert Thread.holdsLock(nodeStats);
+
+        DistributedMetaStorage ms = metastorage;
+
+        Long reqVer = reqs.get(requestKey(tbl));
+
+        GridH2Table h2Tbl = schemaMgr.dataTable(tbl.schema(), tbl.table());
+
+        if (ms == null || reqVer == null || h2Tbl == null)
+            return;
+
+        ObjectStatistics res = null;
+
+        for (ClusterNode node : ctx.discovery().aliveServerNodes()) {
+            ObjectStatistics stats = tblNodeStats.get(node.consistentId());
+
+            if (stats == null || stats.version() < reqVer) {
+                if (ctx.discovery().cacheAffinityNode(node, h2Tbl.cacheName()))
+                    return; // Awaiting the statistics of the node.
+
+                continue;
+            }
+
+            res = res == null ? stats : res.merge(stats, Math.min(res.version(), stats.version()));
+        }
+
+        if (res == null)
+            return;
+
+        ObjectStatistics prev = published.computeIfAbsent(tbl, k -> tblStats.get(dataKey(tbl)));
+
+        if (prev != null && prev.version() >= res.version() &&
+            Math.abs(res.rowCount() - prev.rowCount()) <= refreshFraction * Math.max(prev.rowCount(), 1))
+            return;
+
+        try {
+            ms.writeAsync(dataKey(tbl), res);
+
+            published.put(tbl, res);
+
+            if (log.isDebugEnabled())
+                log.debug("Published statistics [tbl=" + tbl + ", stats=" + res + ']');
+        }
+        catch (IgniteCheckedException e) {
+            U.warn(log, "Failed to publish statistics of the table: " + tbl, e);
+        }
+    }
+
+    /**
+     * @return Statistics coordinator or {@code null} if there are no server nodes.
+     */
+    @Nullable private ClusterNode coordinator() {
+        return U.oldest(ctx.discovery().aliveServerNodes(), null);
+    }
+
+    /**
+     * @param tbl Table.
+     * @param part Partition or {@code null} for the empty statistics.
+     * @param ver Version of the ANALYZE request.
+     * @return Statistics of the rows of the table in the partition.
+     * @throws IgniteCheckedException If failed.
+     */
+    private static ObjectStatistics collect(GridH2Table tbl, @Nullable GridDhtLocalPartition part, long ver)
+        throws IgniteCheckedException {
+        GridH2RowDescriptor desc = tbl.rowDescriptor();
+        GridQueryTypeDescriptor type = desc.type();
+
+        Column[] cols = tbl.getColumns();
+
+        ColumnStatisticsCollector[] collectors = new ColumnStatisticsCollector[cols.length];
+
+        for (int i = QueryUtils.DEFAULT_COLUMNS_COUNT; i < cols.length; i++) {
+            if (analyzable(cols[i].getType()))
+                collectors[i] = new ColumnStatisticsCollector();
+        }
+
+        long rows = 0;
+
+        if (part != null) {
+            long time = U.currentTimeMillis();
+
+            CacheDataRowStore.setSkipVersion(true);
+
+            try {
+                GridCursor<? extends CacheDataRow> cur = part.dataStore().cursor(tbl.cacheContext().cacheId());
+
+                while (cur.next()) {
+                    CacheDataRow row = cur.get();
+
+                    // A cache may keep several indexed types, also expired rows are skipped.
+                    if (!type.matchType(row.value()) || (row.expireTime() > 0 && row.expireTime() <= time))
+                        continue;
+
+                    H2CacheRow row0 = desc.createRow(row);
+
+                    for (int i = 0; i < collectors.length; i++) {
+                        if (collectors[i] != null) {
+                            Value val = row0.getValue(i);
+
+                            collectors[i].add(val == ValueNull.INSTANCE ? null : val.getObject());
+                        }
+                    }
+
+                    rows++;
+                }
+            }
+            finally {
+                CacheDataRowStore.setSkipVersion(false);
+            }
+        }
+
+        Map<String, ColumnStatistics> res = new HashMap<>();
+
+        for (int i = 0; i < collectors.length; i++) {
+            if (collectors[i] != null)
+                res.put(cols[i].getName(), collectors[i].finish());
+        }
+
+        return new ObjectStatistics(ver, rows, res);
+    }
+
+    /**
+     * @param tbl Table.
+     * @return {@code True} if the local node holds the data of the table and can write its statistics.
+     */
+    private boolean analyzable(GridH2Table tbl) {
+        return metastorage != null && tbl.cacheInfo().affinityNode() && tbl.cacheInfo().isCacheContextInited();
+    }
+
+    /**
+     * @param type Column type.
+     * @return {@code True} if the statistics of the column of the given type are collected.
+     */
+    private static boolean analyzable(int type) {
+        switch (type) {
+            case Value.JAVA_OBJECT:
+            case Value.GEOMETRY:
+            case Value.ARRAY:
+            case Value.RESULT_SET:
+                return false;
+
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @param tbl Table.
+     * @return Metastorage key of the ANALYZE request of the table.
+     */
+    private static String requestKey(QueryTable tbl) {
+        return REQ_PREFIX + tbl.schema() + '.' + tbl.table();
+    }
+
+    /**
+     * @param tbl Table.
+     * @return Metastorage key of the merged statistics of the table.
+     */
+    private static String dataKey(QueryTable tbl) {
+        return DATA_PREFIX + tbl.schema() + '.' + tbl.table();
+    }
+
+    /**
+     * Statistics of the local primary partitions of a table.
+     */
+    private static class LocalStatistics {
+        /** Statistics of the partitions by partition. */
+        private final Map<Integer, PartitionStatistics> parts = new HashMap<>();
+
+        /** Merged statistics of the partitions last sent to the coordinator. */
+        private ObjectStatistics res;
+    }
+
+    /**
+     * Statistics of a partition.
+     */
+    private static class PartitionStatistics {
+        /** */
+        private final ObjectStatistics stats;
+
+        /** Update counter of the partition the statistics were collected at. */
+        private final long updCntr;
+
+        /**
+         * @param stats Statistics.
+         * @param updCntr Update counter of the partition.
+         */
+        private PartitionStatistics(ObjectStatistics stats, long updCntr) {
+            this.stats = stats;
+            this.updCntr = updCntr;
+        }
+    }
+}
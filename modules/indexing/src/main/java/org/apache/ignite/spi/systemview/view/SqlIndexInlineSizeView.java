@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.spi.systemview.view;
+
+import org.apache.ignite.internal.managers.systemview.walker.Order;
+import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
+import org.apache.ignite.internal.processors.query.h2.database.InlineSizeStatistics;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
+
+/**
+ * Sql index inline size representation for a {@link SystemView}. Sizes which are required to inline keys completely
+ * are sampled on the updates of the index on the local node.
+ */
+public class SqlIndexInlineSizeView {
+    /** Table. */
+    private final GridH2Table tbl;
+
+    /** Index. */
+    private final H2TreeIndex idx;
+
+    /** Sampled sizes of the keys. */
+    private final InlineSizeStatistics stats;
+
+    /** */
+    public SqlIndexInlineSizeView(GridH2Table tbl, H2TreeIndex idx) {
+        this.tbl = tbl;
+        this.idx = idx;
+
+        stats = idx.inlineSizeStatistics();
+    }
+
+    /**
+     * Returns cache name.
+     *
+     * @return Cache name.
+     */
+    @Order()
+    public String cacheName() {
+        return tbl.cacheName();
+    }
+
+    /**
+     * Returns schema name.
+     *
+     * @return Schema name.
+     */
+    @Order(1)
+    public String schemaName() {
+        return tbl.getSchema().getName();
+    }
+
+    /**
+     * Returns table name.
+     *
+     * @return Table name.
+     */
+    @Order(2)
+    public String tableName() {
+        return tbl.identifier().table();
+    }
+
+    /**
+     * Returns index name.
+     *
+     * @return Index name.
+     */
+    @Order(3)
+    public String indexName() {
+        return idx.getName();
+    }
+
+    /**
+     * Returns current inline size in bytes.
+     *
+     * @return Inline size.
+     */
+    @Order(4)
+    public int inlineSize() {
+        return idx.inlineSize();
+    }
+
+    /**
+     * Returns the least inline size with which {@link InlineSizeStatistics#RECOMMENDED_INLINED_KEYS_RATIO} of the
+     * sampled keys are inlined completely.
+     *
+     * @return Recommended inline size.
+     */
+    @Order(5)
+    public int recommendedInlineSize() {
+        return stats.recommendedInlineSize(idx.inlineSize());
+    }
+
+    /**
+     * Returns number of the sampled keys.
+     *
+     * @return Number of the sampled keys.
+     */
+    @Order(6)
+    public long sampledKeys() {
+        return stats.samples();
+    }
+
+    /**
+     * Returns number of the sampled keys which are inlined completely with the current inline size.
+     *
+     * @return Number of the inlined sampled keys.
+     */
+    @Order(7)
+    public long inlinedSampledKeys() {
+        return stats.inlinedSamples(idx.inlineSize());
+    }
+
+    /**
+     * Returns inline size the index is being rebuilt with.
+     *
+     * @return New inline size or {@code -1} if the inline size is not being changed.
+     */
+    @Order(8)
+    public int newInlineSize() {
+        return idx.newInlineSize();
+    }
+}
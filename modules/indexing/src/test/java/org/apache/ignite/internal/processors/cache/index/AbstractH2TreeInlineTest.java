@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
+import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
+
+/**
+ * Base class of the tests of the inline formats of the index keys. Checks queries by the index on the inserted,
+ * updated and removed keys, also after a restart of a persistent node.
+ */
+public abstract class AbstractH2TreeInlineTest extends AbstractIndexingCommonTest {
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration().setPersistenceEnabled(true)));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        super.afterTest();
+    }
+
+    /**
+     * @return Number of the inserted keys.
+     */
+    protected abstract int keys();
+
+    /**
+     * @return Inline size of the index.
+     */
+    protected abstract int inlineSize();
+
+    /**
+     * @return Whether the second column of the index is descending.
+     */
+    protected abstract boolean descendingValues();
+
+    /**
+     * @param i Key.
+     * @return Name of the key, the names of the keys are unique.
+     */
+    protected abstract String name(int i);
+
+    /**
+     * @param i Key.
+     * @return Value of the key.
+     */
+    protected abstract int value(int i);
+
+    /**
+     * @param i Key.
+     * @return Name the key is updated to, unique among all the names.
+     */
+    protected abstract String updatedName(int i);
+
+    /**
+     * @param i Key.
+     * @return Value the key is updated to.
+     */
+    protected abstract int updatedValue(int i);
+
+    /**
+     * @param tree Tree of the index.
+     * @return Whether the tree uses the tested inline format.
+     */
+    protected abstract boolean inlineFormat(H2Tree tree);
+
+    /**
+     * Inserts the keys, updates every third of them and removes every third of them, which causes merges of pages.
+     * Queries are checked after each step and after a restart.
+     *
+     * @throws Exception If failed.
+     */
+    protected void checkIndex() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        sql(ignite, "CREATE TABLE T (ID INT PRIMARY KEY, NAME VARCHAR, VAL INT)");
+        sql(ignite, "CREATE INDEX T_NAME_IDX ON T (NAME, VAL" + (descendingValues() ? " DESC" : "") +
+            ") INLINE_SIZE " + inlineSize());
+
+        TreeMap<Key, Integer> expected = new TreeMap<>(order());
+
+        for (int i = 0; i < keys(); i++) {
+            sql(ignite, "INSERT INTO T (ID, NAME, VAL) VALUES (?, ?, ?)", i, name(i), value(i));
+
+            expected.put(new Key(name(i), value(i)), i);
+        }
+
+        assertTrue(inlineFormat(tree(ignite)));
+
+        checkQueries(ignite, expected);
+
+        for (int i = 0; i < keys(); i += 3) {
+            sql(ignite, "UPDATE T SET NAME = ?, VAL = ? WHERE ID = ?", updatedName(i), updatedValue(i), i);
+
+            expected.remove(new Key(name(i), value(i)));
+            expected.put(new Key(updatedName(i), updatedValue(i)), i);
+        }
+
+        for (int i = 1; i < keys(); i += 3) {
+            sql(ignite, "DELETE FROM T WHERE ID = ?", i);
+
+            expected.remove(new Key(name(i), value(i)));
+        }
+
+        checkQueries(ignite, expected);
+
+        stopGrid(0);
+
+        ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        assertTrue(inlineFormat(tree(ignite)));
+
+        checkQueries(ignite, expected);
+    }
+
+    /**
+     * @param ignite Node.
+     * @param expected Expected keys to identifiers.
+     */
+    private void checkQueries(IgniteEx ignite, TreeMap<Key, Integer> expected) {
+        String valOrder = descendingValues() ? "VAL DESC" : "VAL";
+
+        List<List<?>> all = sql(ignite, "SELECT ID FROM T USE INDEX (T_NAME_IDX) ORDER BY NAME, " + valOrder);
+
+        assertEquals(new ArrayList<>(expected.values()), all.stream().map(r -> r.get(0)).collect(Collectors.toList()));
+
+        for (Key key : expected.keySet().stream().limit(keys() / 20).collect(Collectors.toList())) {
+            List<List<?>> res = sql(ignite, "SELECT ID FROM T USE INDEX (T_NAME_IDX) WHERE NAME = ? AND VAL = ?",
+                key.name, key.val);
+
+            assertEquals(key.name, 1, res.size());
+            assertEquals(key.name, expected.get(key), res.get(0).get(0));
+
+            // Search by the prefix of the index columns.
+            res = sql(ignite, "SELECT ID FROM T USE INDEX (T_NAME_IDX) WHERE NAME = ?", key.name);
+
+            assertEquals(key.name, 1, res.size());
+        }
+
+        String lo = name(keys() / 4);
+        String hi = name(keys() / 2);
+
+        List<List<?>> range = sql(ignite,
+            "SELECT ID FROM T USE INDEX (T_NAME_IDX) WHERE NAME >= ? AND NAME < ? ORDER BY NAME DESC", lo, hi);
+
+        List<Integer> expRange = expected.descendingMap().entrySet().stream()
+            .filter(e -> e.getKey().name.compareTo(lo) >= 0 && e.getKey().name.compareTo(hi) < 0)
+            .map(Map.Entry::getValue)
+            .collect(Collectors.toList());
+
+        assertEquals(expRange, range.stream().map(r -> r.get(0)).collect(Collectors.toList()));
+    }
+
+    /**
+     * @return Order of the index.
+     */
+    private Comparator<Key> order() {
+        Comparator<Integer> valOrder = descendingValues() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+
+        return Comparator.<Key, String>comparing(k -> k.name).thenComparing(k -> k.val, valOrder);
+    }
+
+    /**
+     * @param ignite Node.
+     * @return Tree of the index.
+     */
+    private static H2Tree tree(IgniteEx ignite) {
+        IgniteH2Indexing indexing = (IgniteH2Indexing)ignite.context().query().getIndexing();
+
+        H2TreeIndex idx = (H2TreeIndex)indexing.schemaManager().dataTable("PUBLIC", "T").getIndex("T_NAME_IDX");
+
+        return idx.treeForRead(0);
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Arguments.
+     * @return Result.
+     */
+    protected static List<List<?>> sql(IgniteEx ignite, String sql, Object... args) {
+        return ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+
+    /** Key of the index. */
+    private static class Key {
+        /** */
+        private final String name;
+
+        /** */
+        private final int val;
+
+        /**
+         * @param name Name.
+         * @param val Value.
+         */
+        private Key(String name, int val) {
+            this.name = name;
+            this.val = val;
+        }
+    }
+}
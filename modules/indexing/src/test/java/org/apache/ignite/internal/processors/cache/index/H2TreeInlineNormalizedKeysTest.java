@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.index;
+
+import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.database.H2Tree.IGNITE_INDEX_INLINE_NORMALIZED_KEYS;
+
+/**
+ * Checks indexes which inline normalized keys of all the columns.
+ */
+@WithSystemProperty(key = IGNITE_INDEX_INLINE_NORMALIZED_KEYS, value = "true")
+public class H2TreeInlineNormalizedKeysTest extends AbstractH2TreeInlineTest {
+    /**
+     * Checks queries, updates and removals of keys of variable length, also after a restart.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testVariableLengthKeys() throws Exception {
+        checkIndex();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int keys() {
+        return 10_000;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int inlineSize() {
+        // Enough for the most of names but not for the longest ones.
+        return 24;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected boolean descendingValues() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected String name(int i) {
+        return i % 10 == 0 ? "name-of-a-long-length-" + i : "n" + Integer.toString(i, 36);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int value(int i) {
+        return i % 7 - 3;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected String updatedName(int i) {
+        return name(i) + "-updated";
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int updatedValue(int i) {
+        return -i;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected boolean inlineFormat(H2Tree tree) {
+        return tree.inlineNormalizedKeys();
+    }
+}
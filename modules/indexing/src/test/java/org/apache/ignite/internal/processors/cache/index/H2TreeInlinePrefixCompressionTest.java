@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.index;
+
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.BPlusLeafIO;
+import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
+import org.apache.ignite.internal.processors.query.h2.database.io.H2ExtrasLeafIO;
+import org.apache.ignite.internal.processors.query.h2.opt.H2Row;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.database.H2Tree.IGNITE_INDEX_INLINE_PREFIX_COMPRESSION;
+
+/**
+ * Checks indexes which compress inlined values with a common prefix of a page.
+ */
+@WithSystemProperty(key = IGNITE_INDEX_INLINE_PREFIX_COMPRESSION, value = "true")
+public class H2TreeInlinePrefixCompressionTest extends AbstractH2TreeInlineTest {
+    /** */
+    private static final int INLINE_SIZE = 48;
+
+    /**
+     * Checks that pages with a common prefix keep more items.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testMaxCount() throws Exception {
+        startGrid(0);
+
+        int pageSize = DataStorageConfiguration.DFLT_PAGE_SIZE;
+
+        BPlusLeafIO<H2Row> io = H2ExtrasLeafIO.getVersions(INLINE_SIZE, false).latest();
+        BPlusLeafIO<H2Row> io2 = H2ExtrasLeafIO.getVersions(INLINE_SIZE, false, true).latest();
+
+        assertEquals(1, io.getVersion());
+        assertEquals(2, io2.getVersion());
+
+        assertTrue(io2.getMaxCount(0, pageSize) > io.getMaxCount(0, pageSize));
+    }
+
+    /**
+     * Checks queries, updates and removals of keys with a long common prefix, also after a restart.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testIndexWithCommonPrefix() throws Exception {
+        checkIndex();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int keys() {
+        return 20_000;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int inlineSize() {
+        return INLINE_SIZE;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected boolean descendingValues() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected String name(int i) {
+        return String.format("organization-department-account-%08d", i);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int value(int i) {
+        return i;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected String updatedName(int i) {
+        // Both shorter and longer values than the shared part.
+        return i % 2 == 0 ? "acc-" + i : name(i) + "-updated-with-a-longer-suffix";
+    }
+
+    /** {@inheritDoc} */
+    @Override protected int updatedValue(int i) {
+        return i;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected boolean inlineFormat(H2Tree tree) {
+        return tree.inlinePrefixCompression();
+    }
+}
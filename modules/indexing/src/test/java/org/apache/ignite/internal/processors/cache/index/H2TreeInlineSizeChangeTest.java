@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.cache.index;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteLogger;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.metric.IoStatisticsHolder;
+import org.apache.ignite.internal.pagemem.PageMemory;
+import org.apache.ignite.internal.pagemem.wal.IgniteWriteAheadLogManager;
+import org.apache.ignite.internal.processors.cache.GridCacheContext;
+import org.apache.ignite.internal.processors.cache.persistence.GridCacheOffheapManager;
+import org.apache.ignite.internal.processors.cache.persistence.tree.io.PageIoResolver;
+import org.apache.ignite.internal.processors.cache.persistence.tree.reuse.ReuseList;
+import org.apache.ignite.internal.processors.failure.FailureProcessor;
+import org.apache.ignite.internal.processors.query.h2.H2RowCache;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.database.H2Tree;
+import org.apache.ignite.internal.processors.query.h2.database.H2TreeIndex;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.InlineIndexColumnFactory;
+import org.apache.ignite.internal.processors.query.h2.opt.GridH2Table;
+import org.apache.ignite.internal.processors.query.h2.opt.H2Row;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.h2.table.IndexColumn;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.database.H2Tree.IGNITE_THROTTLE_INLINE_SIZE_CALCULATION;
+import static org.apache.ignite.testframework.GridTestUtils.runAsync;
+
+/**
+ * Checks the recommendation of the index inline size and the online change of the inline size.
+ */
+@WithSystemProperty(key = IGNITE_THROTTLE_INLINE_SIZE_CALCULATION, value = "1")
+public class H2TreeInlineSizeChangeTest extends AbstractIndexingCommonTest {
+    /** Inline size, which is too small for any name. */
+    private static final int INLINE_SIZE = 4;
+
+    /** */
+    private static final int KEYS = 10_000;
+
+    /** Suffix of the names of the trees with the new inline size. */
+    private static final String INLINE_SIZE_CHANGE_TREE_SUFFIX = "%inlineSizeChange";
+
+    /** Whether the puts to the trees with the new inline size are slowed down. */
+    private static volatile boolean slowChange;
+
+    /** */
+    private H2TreeIndex.H2TreeFactory regularH2TreeFactory;
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setDataStorageConfiguration(new DataStorageConfiguration()
+                .setDefaultDataRegionConfiguration(new DataRegionConfiguration().setPersistenceEnabled(true)));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        regularH2TreeFactory = H2TreeIndex.h2TreeFactory;
+
+        H2TreeIndex.h2TreeFactory = SlowChangeH2Tree::new;
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        H2TreeIndex.h2TreeFactory = regularH2TreeFactory;
+
+        slowChange = false;
+
+        stopAllGrids();
+
+        cleanPersistenceDir();
+
+        super.afterTest();
+    }
+
+    /**
+     * Checks that the recommended inline size is applied while the table is updated, also after a restart.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testChangeInlineSize() throws Exception {
+        IgniteEx srv = startGrid(0);
+
+        srv.cluster().state(ClusterState.ACTIVE);
+
+        sql(srv, "CREATE TABLE T (ID INT PRIMARY KEY, NAME VARCHAR)");
+        sql(srv, "CREATE INDEX T_NAME_IDX ON T (NAME) INLINE_SIZE " + INLINE_SIZE);
+
+        Map<Integer, String> expected = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            sql(srv, "INSERT INTO T (ID, NAME) VALUES (?, ?)", i, name(i));
+
+            expected.put(i, name(i));
+        }
+
+        List<?> row = sql(srv, "SELECT INLINE_SIZE, RECOMMENDED_INLINE_SIZE, SAMPLED_KEYS, INLINED_SAMPLED_KEYS, " +
+            "NEW_INLINE_SIZE FROM SYS.INDEX_INLINE_SIZES WHERE INDEX_NAME = 'T_NAME_IDX'").get(0);
+
+        int recommended = (Integer)row.get(1);
+
+        assertEquals(INLINE_SIZE, row.get(0));
+        assertTrue(String.valueOf(recommended), recommended > INLINE_SIZE);
+        assertEquals((long)KEYS, row.get(2));
+        assertEquals(0L, row.get(3));
+        assertEquals(-1, row.get(4));
+
+        // The longest names don't fit into the recommended inline size.
+        assertTrue(index(srv).inlineSizeStatistics().inlinedSamples(recommended) < KEYS);
+
+        AtomicBoolean stop = new AtomicBoolean();
+
+        IgniteInternalFuture<?> updFut = runAsync(() -> {
+            for (int i = 0; !stop.get(); i++) {
+                int id = i % KEYS;
+
+                String name = name(id) + "-" + i;
+
+                sql(srv, "UPDATE T SET NAME = ? WHERE ID = ?", name, id);
+
+                expected.put(id, name);
+            }
+        });
+
+        try {
+            ((IgniteH2Indexing)srv.context().query().getIndexing()).schemaManager()
+                .changeIndexInlineSize("PUBLIC", "T_NAME_IDX", recommended)
+                .get(getTestTimeout());
+        }
+        finally {
+            stop.set(true);
+        }
+
+        updFut.get(getTestTimeout());
+
+        assertEquals(recommended, index(srv).inlineSize());
+        assertEquals(-1, index(srv).newInlineSize());
+
+        checkQueries(srv, expected);
+
+        forceCheckpoint();
+
+        stopGrid(0);
+
+        IgniteEx ignite = startGrid(0);
+
+        ignite.cluster().state(ClusterState.ACTIVE);
+
+        assertEquals(recommended, index(ignite).inlineSize());
+
+        checkQueries(ignite, expected);
+    }
+
+    /**
+     * Checks that the trees of a change, which is interrupted by a node stop, are dropped after a restart and no trees
+     * are left after the index is dropped.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testRestartDuringChange() throws Exception {
+        IgniteEx srv = startGrid(0);
+
+        srv.cluster().state(ClusterState.ACTIVE);
+
+        sql(srv, "CREATE TABLE T (ID INT PRIMARY KEY, NAME VARCHAR)");
+        sql(srv, "CREATE INDEX T_NAME_IDX ON T (NAME) INLINE_SIZE " + INLINE_SIZE);
+
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            sql(srv, "INSERT INTO T (ID, NAME) VALUES (?, ?)", i, name(i));
+
+            expected.put(i, name(i));
+        }
+
+        int newInlineSize = INLINE_SIZE * 8;
+
+        slowChange = true;
+
+        IgniteInternalFuture<Void> changeFut = ((IgniteH2Indexing)srv.context().query().getIndexing())
+            .schemaManager().changeIndexInlineSize("PUBLIC", "T_NAME_IDX", newInlineSize);
+
+        // The root pages of the partially built trees are persisted.
+        forceCheckpoint();
+
+        assertFalse(changeFut.isDone());
+        assertEquals(newInlineSize, index(srv).newInlineSize());
+        assertFalse(indexTrees(srv, INLINE_SIZE_CHANGE_TREE_SUFFIX).isEmpty());
+
+        stopGrid(0);
+
+        slowChange = false;
+
+        srv = startGrid(0);
+
+        srv.cluster().state(ClusterState.ACTIVE);
+
+        assertEquals(INLINE_SIZE, index(srv).inlineSize());
+        assertEquals(-1, index(srv).newInlineSize());
+        assertTrue(indexTrees(srv, INLINE_SIZE_CHANGE_TREE_SUFFIX).isEmpty());
+
+        checkQueries(srv, expected);
+
+        sql(srv, "DROP INDEX T_NAME_IDX");
+
+        assertTrue(indexTrees(srv, "").isEmpty());
+
+        forceCheckpoint();
+
+        stopGrid(0);
+
+        srv = startGrid(0);
+
+        srv.cluster().state(ClusterState.ACTIVE);
+
+        assertTrue(indexTrees(srv, "").isEmpty());
+    }
+
+    /**
+     * @param ignite Node.
+     * @param suffix Suffix of the tree names.
+     * @return Names of the trees of the {@code T_NAME_IDX} index in the index storage, which have the suffix.
+     * @throws Exception If failed.
+     */
+    private List<String> indexTrees(IgniteEx ignite, String suffix) throws Exception {
+        GridCacheOffheapManager offheap = (GridCacheOffheapManager)ignite.cachex("SQL_PUBLIC_T").context().offheap();
+
+        return offheap.getIndexStorage().getIndexNames().stream()
+            .filter(name -> name.contains("T_NAME_IDX") && name.contains(suffix))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @param ignite Node.
+     * @param expected Expected names by identifiers.
+     */
+    private void checkQueries(IgniteEx ignite, Map<Integer, String> expected) {
+        assertEquals((long)KEYS, sql(ignite, "SELECT COUNT(*) FROM T USE INDEX (T_NAME_IDX) WHERE NAME > ''")
+            .get(0).get(0));
+
+        for (int i = 0; i < KEYS; i += 7) {
+            List<List<?>> res = sql(ignite, "SELECT ID FROM T USE INDEX (T_NAME_IDX) WHERE NAME = ?", expected.get(i));
+
+            assertEquals(expected.get(i), 1, res.size());
+            assertEquals(i, res.get(0).get(0));
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @return Index.
+     */
+    private H2TreeIndex index(IgniteEx ignite) {
+        IgniteH2Indexing indexing = (IgniteH2Indexing)ignite.context().query().getIndexing();
+
+        return (H2TreeIndex)indexing.schemaManager().dataTable("PUBLIC", "T").getIndex("T_NAME_IDX");
+    }
+
+    /**
+     * @param i Key.
+     * @return Name of a variable length, a few names are much longer than the others.
+     */
+    private static String name(int i) {
+        return i % 50 == 0 ? "name-of-a-long-length-" + i : "n" + Integer.toString(i, 36);
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Arguments.
+     * @return Result.
+     */
+    private static List<List<?>> sql(IgniteEx ignite, String sql, Object... args) {
+        return ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+
+    /**
+     * Tree, which slows down the puts to the trees with the new inline size.
+     */
+    private static class SlowChangeH2Tree extends H2Tree {
+        /** Whether the tree is built by a change of the inline size. */
+        private final boolean changing;
+
+        /**
+         * @param cctx Cache context.
+         * @param table Owning table.
+         * @param name Tree name.
+         * @param idxName Name of index.
+         * @param cacheName Cache name.
+         * @param tblName Table name.
+         * @param reuseList Reuse list.
+         * @param grpId Cache group ID.
+         * @param grpName Cache group name.
+         * @param pageMem Page memory.
+         * @param wal Write ahead log manager.
+         * @param globalRmvId Global remove ID.
+         * @param metaPageId Meta page ID.
+         * @param initNew Initialize new index.
+         * @param unwrappedCols Unwrapped columns.
+         * @param wrappedCols Wrapped columns.
+         * @param maxCalculatedInlineSize Max calculated inline size.
+         * @param pk {@code true} for primary key.
+         * @param affinityKey {@code true} for affinity key.
+         * @param mvccEnabled Mvcc flag.
+         * @param rowCache Row cache.
+         * @param failureProcessor If the tree is corrupted.
+         * @param log Logger.
+         * @param stats Statistics holder.
+         * @param factory Inline index column factory.
+         * @param configuredInlineSize Configured inline size.
+         * @param pageIoRslvr Page IO resolver.
+         * @throws IgniteCheckedException If failed.
+         */
+        public SlowChangeH2Tree(
+            GridCacheContext cctx,
+            GridH2Table table,
+            String name,
+            String idxName,
+            String cacheName,
+            String tblName,
+            ReuseList reuseList,
+            int grpId,
+            String grpName,
+            PageMemory pageMem,
+            IgniteWriteAheadLogManager wal,
+            AtomicLong globalRmvId,
+            long metaPageId,
+            boolean initNew,
+            List<IndexColumn> unwrappedCols,
+            List<IndexColumn> wrappedCols,
+            AtomicInteger maxCalculatedInlineSize,
+            boolean pk,
+            boolean affinityKey,
+            boolean mvccEnabled,
+            @Nullable H2RowCache rowCache,
+            @Nullable FailureProcessor failureProcessor,
+            IgniteLogger log,
+            IoStatisticsHolder stats,
+            InlineIndexColumnFactory factory,
+            int configuredInlineSize,
+            PageIoResolver pageIoRslvr
+        ) throws IgniteCheckedException {
+            super(
+                cctx,
+                table,
+                name,
+                idxName,
+                cacheName,
+                tblName,
+                reuseList,
+                grpId,
+                grpName,
+                pageMem,
+                wal,
+                globalRmvId,
+                metaPageId,
+                initNew,
+                unwrappedCols,
+                wrappedCols,
+                maxCalculatedInlineSize,
+                pk,
+                affinityKey,
+                mvccEnabled,
+                rowCache,
+                failureProcessor,
+                log,
+                stats,
+                factory,
+                configuredInlineSize,
+                pageIoRslvr
+            );
+
+            changing = name.endsWith(INLINE_SIZE_CHANGE_TREE_SUFFIX);
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean putx(H2Row row) throws IgniteCheckedException {
+            if (changing && slowChange)
+                doSleep(5);
+
+            return super.putx(row);
+        }
+    }
+}
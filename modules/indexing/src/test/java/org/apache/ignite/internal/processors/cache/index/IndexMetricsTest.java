@@ -26,6 +26,8 @@ import org.apache.ignite.IgniteCache;
 import org.apache.ignite.cache.CacheMetrics;
 import org.apache.ignite.cache.QueryEntity;
 import org.apache.ignite.cache.QueryIndex;
+import org.apache.ignite.cache.affinity.rendezvous.RendezvousAffinityFunction;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.configuration.DataRegionConfiguration;
 import org.apache.ignite.configuration.DataStorageConfiguration;
@@ -34,6 +36,7 @@ import org.apache.ignite.internal.IgniteEx;
 import org.apache.ignite.internal.processors.cache.CacheClusterMetricsMXBeanImpl;
 import org.apache.ignite.internal.processors.cache.CacheLocalMetricsMXBeanImpl;
 import org.apache.ignite.internal.processors.metric.MetricRegistry;
+import org.apache.ignite.internal.processors.metric.impl.HitRateMetric;
 import org.apache.ignite.internal.processors.metric.impl.LongAdderMetric;
 import org.apache.ignite.internal.processors.query.GridQueryProcessor;
 import org.apache.ignite.internal.util.typedef.internal.CU;
@@ -229,6 +232,59 @@ public class IndexMetricsTest extends AbstractIndexingCommonTest {
         assertEquals(0, idxRebuildKeyProcessedCluster);
     }
 
+    /**
+     * Checks metrics of index creation, which puts sorted batches of rows to the index.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testIndexCreationPagesWrittenMetric() throws Exception {
+        IgniteEx n = startGrid(0);
+
+        n.cluster().active(true);
+
+        // Rows are batched per partition.
+        n.addCacheConfiguration(new CacheConfiguration<>("onePartTemplate")
+            .setAffinity(new RendezvousAffinityFunction(false, 1)));
+
+        int entryCnt = 5_000;
+
+        sql(n, "CREATE TABLE T (ID INT PRIMARY KEY, VAL INT) WITH \"TEMPLATE=onePartTemplate\"");
+
+        for (int i = 0; i < entryCnt; i++)
+            sql(n, "INSERT INTO T (ID, VAL) VALUES (?, ?)", i, entryCnt - i);
+
+        sql(n, "CREATE INDEX T_VAL ON T (VAL)");
+
+        String cacheName = "SQL_PUBLIC_T";
+
+        LongAdderMetric idxRebuildKeyProcessed = indexRebuildMetric(n, cacheName, "IndexRebuildKeyProcessed");
+        LongAdderMetric idxRebuildPagesWritten = indexRebuildMetric(n, cacheName, "IndexRebuildPagesWritten");
+        HitRateMetric idxRebuildKeyRate = indexRebuildMetric(n, cacheName, "IndexRebuildKeyRate");
+
+        assertNotNull(idxRebuildKeyRate);
+
+        assertEquals(entryCnt, idxRebuildKeyProcessed.value());
+
+        // Sorted batches of rows take much less descents than rows.
+        assertTrue(idxRebuildPagesWritten.value() > 0);
+        assertTrue(idxRebuildPagesWritten.value() < entryCnt / 2);
+
+        List<List<?>> res = sql(n, "SELECT COUNT(*) FROM T WHERE VAL > ?", entryCnt / 2);
+
+        assertEquals((long)entryCnt / 2, res.get(0).get(0));
+    }
+
+    /**
+     * @param n Node.
+     * @param sql SQL query.
+     * @param args Query arguments.
+     * @return Query results.
+     */
+    private List<List<?>> sql(IgniteEx n, String sql, Object... args) {
+        return n.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+
     /**
      * Get index rebuild metric.
      *
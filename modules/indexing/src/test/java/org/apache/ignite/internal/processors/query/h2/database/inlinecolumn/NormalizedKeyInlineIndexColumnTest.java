@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.query.h2.database.inlinecolumn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.ignite.internal.processors.query.h2.database.InlineIndexColumn;
+import org.apache.ignite.internal.processors.query.h2.opt.H2PlainRow;
+import org.apache.ignite.internal.util.GridUnsafe;
+import org.apache.ignite.internal.util.typedef.internal.U;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.h2.result.SortOrder;
+import org.h2.table.Column;
+import org.h2.table.IndexColumn;
+import org.h2.value.CompareMode;
+import org.h2.value.Value;
+import org.h2.value.ValueBoolean;
+import org.h2.value.ValueByte;
+import org.h2.value.ValueBytes;
+import org.h2.value.ValueDate;
+import org.h2.value.ValueDouble;
+import org.h2.value.ValueFloat;
+import org.h2.value.ValueInt;
+import org.h2.value.ValueLong;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueShort;
+import org.h2.value.ValueString;
+import org.h2.value.ValueStringFixed;
+import org.h2.value.ValueStringIgnoreCase;
+import org.h2.value.ValueTime;
+import org.h2.value.ValueTimestamp;
+import org.h2.value.ValueUuid;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.AbstractInlineIndexColumn.CANT_BE_COMPARE;
+
+/**
+ * Checks that normalized keys are compared in the order of values.
+ */
+public class NormalizedKeyInlineIndexColumnTest extends GridCommonAbstractTest {
+    /** */
+    private static final int INLINE_SIZE = 128;
+
+    /** */
+    private static final int[] TYPES = {
+        Value.BOOLEAN, Value.BYTE, Value.SHORT, Value.INT, Value.LONG, Value.FLOAT, Value.DOUBLE, Value.DATE,
+        Value.TIME, Value.TIMESTAMP, Value.UUID, Value.STRING, Value.STRING_FIXED, Value.STRING_IGNORECASE, Value.BYTES
+    };
+
+    /** */
+    private final Random rnd = new Random(U.currentTimeMillis());
+
+    /** */
+    private long buf;
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        buf = GridUnsafe.allocateMemory(INLINE_SIZE);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        GridUnsafe.freeMemory(buf);
+
+        super.afterTest();
+    }
+
+    /**
+     * Checks every supported type in ascending and descending order with signed and unsigned binary comparison.
+     */
+    @Test
+    public void testOrder() {
+        for (boolean binaryUnsigned : new boolean[] {false, true}) {
+            CompareMode mode = CompareMode.getInstance(CompareMode.OFF, 0, binaryUnsigned);
+
+            for (int type : TYPES) {
+                for (boolean desc : new boolean[] {false, true}) {
+                    NormalizedKeyInlineIndexColumn key = key(mode, new int[] {type}, new boolean[] {desc});
+
+                    for (int i = 0; i < 1_000; i++) {
+                        Value v1 = randomValue(type);
+                        Value v2 = i % 10 == 0 ? v1 : randomValue(type);
+
+                        int exp = Integer.signum(v1.compareTypeSafe(v2, mode));
+
+                        assertEquals("type=" + type + ", v1=" + v1 + ", v2=" + v2 + ", desc=" + desc,
+                            desc ? -exp : exp, compare(key, INLINE_SIZE, row(v1), row(v2)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks keys of several columns, which are compared column by column.
+     */
+    @Test
+    public void testMultipleColumns() {
+        CompareMode mode = CompareMode.getInstance(CompareMode.OFF, 0);
+
+        NormalizedKeyInlineIndexColumn key = key(mode, new int[] {Value.STRING, Value.INT, Value.BYTES},
+            new boolean[] {false, true, false});
+
+        for (int i = 0; i < 10_000; i++) {
+            Value[] r1 = {randomValue(Value.STRING), randomValue(Value.INT), randomValue(Value.BYTES)};
+            Value[] r2 = {randomValue(Value.STRING), randomValue(Value.INT), randomValue(Value.BYTES)};
+
+            // Same prefixes of strings, the next columns are compared.
+            if (i % 2 == 0)
+                r2[0] = r1[0];
+
+            if (i % 4 == 0)
+                r2[1] = r1[1];
+
+            int exp = Integer.signum(r1[0].compareTypeSafe(r2[0], mode));
+
+            if (exp == 0)
+                exp = -Integer.signum(r1[1].compareTypeSafe(r2[1], mode));
+
+            if (exp == 0)
+                exp = Integer.signum(r1[2].compareTypeSafe(r2[2], mode));
+
+            assertEquals(exp, compare(key, INLINE_SIZE, row(r1), row(r2)));
+        }
+    }
+
+    /**
+     * Checks truncated keys and search rows with not specified columns.
+     */
+    @Test
+    public void testTruncatedAndPartialKeys() {
+        CompareMode mode = CompareMode.getInstance(CompareMode.OFF, 0);
+
+        NormalizedKeyInlineIndexColumn key = key(mode, new int[] {Value.STRING, Value.INT}, new boolean[2]);
+
+        // Length, marker, 9 chars, 1 byte of the terminator or the next column.
+        int inlineSize = 2 + 1 + 9 + 1;
+
+        Value[] row = {ValueString.get("abcdefghi"), ValueInt.get(1)};
+
+        assertEquals(CANT_BE_COMPARE, compare(key, inlineSize, row(row), row(row)));
+        assertEquals(0, compare(key, INLINE_SIZE, row(row), row(row)));
+
+        // Specified columns are equal.
+        assertEquals(0, compare(key, inlineSize, row(row), row(row[0], null)));
+        assertEquals(0, compare(key, 2 + 1 + 4 + 1, row(ValueString.get("abcd"), null),
+            row(ValueString.get("abcd"), null)));
+        assertEquals(CANT_BE_COMPARE, compare(key, 2 + 1 + 4, row(ValueString.get("abcd"), null),
+            row(ValueString.get("abcd"), null)));
+
+        // Difference is in the inlined part.
+        assertEquals(-1, compare(key, inlineSize, row(row), row(ValueString.get("abcdefghj"), ValueInt.get(0))));
+        assertEquals(1, compare(key, inlineSize, row(row), row(ValueString.get("abcdefgh"), ValueInt.get(2))));
+        assertEquals(1, compare(key, inlineSize, row(row), row(ValueString.get("abc"), null)));
+
+        // Shorter string sorts first.
+        assertEquals(-1, compare(key, INLINE_SIZE, row(ValueString.get("ab"), ValueInt.get(1)),
+            row(ValueString.get("ab\u0000"), ValueInt.get(0))));
+
+        // NULL sorts first.
+        assertEquals(-1, compare(key, INLINE_SIZE, row(ValueNull.INSTANCE, ValueInt.get(1)),
+            row(ValueString.get(""), ValueInt.get(0))));
+
+        // Values of other types are normalized if the conversion is exact.
+        assertEquals(0, compare(key, INLINE_SIZE, row(row), row(row[0], ValueLong.get(1))));
+        assertEquals(CANT_BE_COMPARE, compare(key, INLINE_SIZE, row(row), row(row[0], ValueLong.get(1L << 40))));
+    }
+
+    /**
+     * @param mode Compare mode.
+     * @param types Column types.
+     * @param desc Descending order flags.
+     * @return Normalized key.
+     */
+    private static NormalizedKeyInlineIndexColumn key(CompareMode mode, int[] types, boolean[] desc) {
+        InlineIndexColumnFactory factory = new InlineIndexColumnFactory(mode);
+
+        List<InlineIndexColumn> inlineIdxs = new ArrayList<>();
+        IndexColumn[] idxCols = new IndexColumn[types.length];
+
+        for (int i = 0; i < types.length; i++) {
+            Column col = new Column("C" + i, types[i]);
+
+            col.setTable(null, i);
+
+            inlineIdxs.add(factory.createInlineHelper(col, false));
+
+            idxCols[i] = new IndexColumn();
+            idxCols[i].column = col;
+            idxCols[i].columnName = col.getName();
+            idxCols[i].sortType = desc[i] ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+        }
+
+        NormalizedKeyInlineIndexColumn key = NormalizedKeyInlineIndexColumn.create(inlineIdxs, idxCols, mode);
+
+        assertNotNull(key);
+
+        return key;
+    }
+
+    /**
+     * @param key Normalized key.
+     * @param inlineSize Inline size.
+     * @param stored Stored row.
+     * @param search Search row.
+     * @return Comparison result of the keys.
+     */
+    private int compare(NormalizedKeyInlineIndexColumn key, int inlineSize, H2PlainRow stored, H2PlainRow search) {
+        key.put(buf, 0, stored, inlineSize);
+
+        NormalizedKeyInlineIndexColumn.SearchKey searchKey = key.searchKey(search, inlineSize);
+
+        if (searchKey == null)
+            return CANT_BE_COMPARE;
+
+        return key.compare(buf, 0, searchKey);
+    }
+
+    /**
+     * @param vals Values, {@code null} if not specified.
+     * @return Row.
+     */
+    private static H2PlainRow row(Value... vals) {
+        return new H2PlainRow(vals);
+    }
+
+    /**
+     * @param type Value type.
+     * @return Random value of the type or {@code NULL}.
+     */
+    private Value randomValue(int type) {
+        if (rnd.nextInt(20) == 0)
+            return ValueNull.INSTANCE;
+
+        switch (type) {
+            case Value.BOOLEAN:
+                return ValueBoolean.get(rnd.nextBoolean());
+
+            case Value.BYTE:
+                return ValueByte.get((byte)rnd.nextInt());
+
+            case Value.SHORT:
+                return ValueShort.get((short)rnd.nextInt());
+
+            case Value.INT:
+                return ValueInt.get(rnd.nextBoolean() ? rnd.nextInt() : rnd.nextInt(10) - 5);
+
+            case Value.LONG:
+                return ValueLong.get(rnd.nextBoolean() ? rnd.nextLong() : rnd.nextInt(10) - 5);
+
+            case Value.FLOAT:
+                return ValueFloat.get(rnd.nextBoolean() ? Float.intBitsToFloat(rnd.nextInt()) : rnd.nextInt(10) - 5);
+
+            case Value.DOUBLE:
+                return ValueDouble.get(rnd.nextBoolean() ? Double.longBitsToDouble(rnd.nextLong()) :
+                    rnd.nextInt(10) - 5);
+
+            case Value.DATE:
+                return ValueDate.fromDateValue(rnd.nextInt());
+
+            case Value.TIME:
+                return ValueTime.fromNanos(randomNanos());
+
+            case Value.TIMESTAMP:
+                return ValueTimestamp.fromDateValueAndNanos(rnd.nextInt(), randomNanos());
+
+            case Value.UUID:
+                return ValueUuid.get(rnd.nextInt(3) - 1, rnd.nextLong());
+
+            case Value.STRING:
+                return ValueString.get(randomString());
+
+            case Value.STRING_FIXED:
+                return ValueStringFixed.get(randomString());
+
+            case Value.STRING_IGNORECASE:
+                return ValueStringIgnoreCase.get(randomString());
+
+            case Value.BYTES: {
+                byte[] bytes = new byte[rnd.nextInt(8)];
+
+                for (int i = 0; i < bytes.length; i++)
+                    bytes[i] = (byte)(rnd.nextBoolean() ? rnd.nextInt() : rnd.nextInt(3) - 1);
+
+                return ValueBytes.get(bytes);
+            }
+
+            default:
+                throw new IllegalArgumentException("type=" + type);
+        }
+    }
+
+    /**
+     * @return Random nanoseconds of a day.
+     */
+    private long randomNanos() {
+        return (rnd.nextLong() & Long.MAX_VALUE) % 86_400_000_000_000L;
+    }
+
+    /**
+     * @return Random string of chars of all the encoding classes, including surrogates.
+     */
+    private String randomString() {
+        char[] chars = new char[rnd.nextInt(8)];
+
+        for (int i = 0; i < chars.length; i++) {
+            switch (rnd.nextInt(5)) {
+                case 0:
+                    chars[i] = (char)rnd.nextInt(0x7F);
+
+                    break;
+
+                case 1:
+                    chars[i] = (char)('a' + rnd.nextInt(3));
+
+                    break;
+
+                case 2:
+                    chars[i] = (char)('A' + rnd.nextInt(3));
+
+                    break;
+
+                case 3:
+                    chars[i] = (char)(0x7F + rnd.nextInt(0x4000));
+
+                    break;
+
+                default:
+                    chars[i] = (char)rnd.nextInt(0x10000);
+            }
+        }
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.cache.index.AbstractIndexingCommonTest;
+import org.apache.ignite.internal.processors.query.GridQueryCancel;
+import org.apache.ignite.internal.processors.query.h2.H2PooledConnection;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.opt.QueryContext;
+import org.apache.ignite.internal.util.typedef.G;
+import org.apache.ignite.internal.util.typedef.T1;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.h2.value.Value;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.twostep.GridMapQueryExecutor.MAP_QUERY_METRIC_GROUP_NAME;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapVectorizedQuery.IGNITE_SQL_MAP_VECTORIZED_EXECUTION;
+
+/**
+ * Checks the vectorized execution of map queries: which queries take the vectorized path, that they return the same
+ * results as H2, and that the other queries fall back to H2.
+ */
+@WithSystemProperty(key = IGNITE_SQL_MAP_VECTORIZED_EXECUTION, value = "true")
+public class MapVectorizedQuerySelfTest extends AbstractIndexingCommonTest {
+    /** Number of rows, each node keeps more rows than a column batch. */
+    private static final int ROWS = 3 * MapVectorizedQuery.BATCH_SIZE;
+
+    /** Number of nodes, each of them executes the map query once. */
+    private static final int NODES = 2;
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        super.afterTest();
+    }
+
+    /**
+     * Checks aggregates without grouping, including the sums which overflow long.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testAggregates() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTable(ignite);
+
+        checkQuery(ignite, true, "SELECT COUNT(*), COUNT(ival), SUM(ival), MIN(ival), MAX(ival), AVG(ival) FROM t");
+        checkQuery(ignite, true,
+            "SELECT SUM(lval), MIN(lval), MAX(lval), SUM(dval), AVG(dval), MIN(dval), MAX(dval) FROM t");
+    }
+
+    /**
+     * Checks grouping by columns with nulls.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testGroupBy() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTable(ignite);
+
+        checkQuery(ignite, true, "SELECT grp, COUNT(*), SUM(ival), AVG(dval) FROM t GROUP BY grp");
+        checkQuery(ignite, true, "SELECT grp, cat, COUNT(ival), MAX(dval) FROM t GROUP BY grp, cat");
+    }
+
+    /**
+     * Checks the comparisons with constants and parameters, including the filters no row passes.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testFilters() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTable(ignite);
+
+        checkQuery(ignite, true, "SELECT cat, COUNT(ival) FROM t WHERE ival >= 100 AND dval < 500 GROUP BY cat");
+        checkQuery(ignite, true, "SELECT cat, SUM(lval) FROM t WHERE ival IS NULL GROUP BY cat");
+        checkQuery(ignite, true, "SELECT cat, COUNT(*) FROM t WHERE 10 < ival AND cat <> ? GROUP BY cat", 2);
+        checkQuery(ignite, true, "SELECT SUM(ival) FROM t WHERE dval > ?", 100.5d);
+
+        // Query without grouping returns a single row, the grouped one returns no rows.
+        checkQuery(ignite, true, "SELECT COUNT(*), SUM(ival), AVG(dval) FROM t WHERE ival > ?", 1_000_000);
+        checkQuery(ignite, true, "SELECT grp, SUM(ival) FROM t WHERE ival > ? GROUP BY grp", 1_000_000);
+    }
+
+    /**
+     * Checks that the queries which are not vectorizable, or whose parameters can't be bound to the column vectors,
+     * are executed by H2.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testFallbackToH2() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTable(ignite);
+
+        checkQuery(ignite, false, "SELECT SUM(ival * cat) FROM t");
+        checkQuery(ignite, false, "SELECT cat, MIN(grp) FROM t GROUP BY cat");
+        checkQuery(ignite, false, "SELECT COUNT(DISTINCT ival) FROM t");
+        checkQuery(ignite, false, "SELECT cat, SUM(ival) FROM t WHERE grp = 'g1' GROUP BY cat");
+
+        // The plan is vectorized, but a decimal parameter is not bound to a column vector.
+        checkQuery(ignite, false, "SELECT SUM(ival) FROM t WHERE dval > ?", new BigDecimal("100.5"));
+    }
+
+    /**
+     * Checks that the execution over column batches stops once the query is cancelled or timed out.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCancel() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        createTable(ignite);
+
+        MapVectorizedQuery qry = plan(ignite, "SELECT COUNT(*) FROM t");
+
+        assertNotNull(qry);
+
+        QueryContext qctx = new QueryContext(0, null, null, null, null, true);
+
+        List<Value[]> rows = qry.execute(ignite.context().query().objectContext(), qctx, new Object[0],
+            new GridQueryCancel(), 0);
+
+        assertEquals(ROWS, rows.get(0)[0].getLong());
+
+        GridQueryCancel cancel = new GridQueryCancel();
+
+        cancel.cancel();
+
+        GridTestUtils.assertThrows(log, () -> qry.execute(ignite.context().query().objectContext(), qctx,
+            new Object[0], cancel, 0), QueryCancelledException.class, null);
+
+        // Deadline has already passed.
+        GridTestUtils.assertThrows(log, () -> qry.execute(ignite.context().query().objectContext(), qctx,
+            new Object[0], new GridQueryCancel(), 1), QueryCancelledException.class, null);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testPlan() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        createTable(ignite);
+
+        assertNotNull(plan(ignite, "SELECT COUNT(*), SUM(ival), AVG(CAST(dval AS DOUBLE)) FROM t WHERE cat > ?"));
+        assertNotNull(plan(ignite, "SELECT grp, cat, MIN(lval) FROM t WHERE ival IS NOT NULL GROUP BY grp, cat"));
+
+        assertNull(plan(ignite, "SELECT SUM(ival * cat) FROM t"));
+        assertNull(plan(ignite, "SELECT COUNT(DISTINCT ival) FROM t"));
+        assertNull(plan(ignite, "SELECT grp, SUM(ival) FROM t GROUP BY grp HAVING SUM(ival) > 10"));
+        assertNull(plan(ignite, "SELECT SUM(ival) FROM t WHERE grp = 'g1'"));
+        assertNull(plan(ignite, "SELECT ival FROM t WHERE cat = 1"));
+    }
+
+    /**
+     * Checks that the plan of a map query, or the verdict that the query is not vectorizable, is built once and
+     * reused by the executions with different arguments.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testPlanReused() throws Exception {
+        IgniteEx ignite = startGrid(0);
+
+        createTable(ignite);
+
+        for (int arg = 0; arg < ROWS; arg += ROWS / 10) {
+            long cnt = 0;
+            long sum = 0;
+
+            for (int i = 0; i < ROWS; i++) {
+                if (i % 7 != 0 && i > arg) {
+                    cnt++;
+                    sum += i;
+                }
+            }
+
+            List<List<?>> rows = ignite.context().query().querySqlFields(
+                new SqlFieldsQuery("SELECT COUNT(*), SUM(ival) FROM t WHERE ival > ?").setArgs(arg), false).getAll();
+
+            assertEquals(cnt, ((Number)rows.get(0).get(0)).longValue());
+            assertEquals(sum, ((Number)rows.get(0).get(1)).longValue());
+
+            sql(ignite, "SELECT SUM(ival * cat) FROM t WHERE ival > ?", arg);
+        }
+
+        GridMapQueryExecutor exec = ((IgniteH2Indexing)ignite.context().query().getIndexing()).mapQueryExecutor();
+
+        Map<?, T1<MapVectorizedQuery>> plans = GridTestUtils.getFieldValue(exec, "vectorizedPlans");
+
+        assertTrue(plans.values().stream().anyMatch(plan -> plan.get() != null));
+        assertTrue(plans.values().stream().anyMatch(plan -> plan.get() == null));
+    }
+
+    /**
+     * Checks that the query takes the expected path and returns the same results as H2.
+     *
+     * @param ignite Node.
+     * @param vectorized Whether the map queries must be executed over column batches.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private void checkQuery(IgniteEx ignite, boolean vectorized, String sql, Object... args) {
+        long execs = vectorizedExecutions();
+
+        List<List<?>> actual = results(ignite, sql, args);
+
+        assertEquals(sql, vectorized ? NODES : 0, vectorizedExecutions() - execs);
+
+        List<List<?>> expected;
+
+        setVectorized(false);
+
+        try {
+            expected = results(ignite, sql, args);
+        }
+        finally {
+            setVectorized(true);
+        }
+
+        assertEquals(sql, expected, actual);
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     * @return Sorted results.
+     */
+    private static List<List<?>> results(IgniteEx ignite, String sql, Object... args) {
+        SqlFieldsQuery qry = new SqlFieldsQuery(sql).setArgs(args);
+
+        List<List<?>> rows = new ArrayList<>(ignite.context().query().querySqlFields(qry, false).getAll());
+
+        rows.sort(Comparator.comparing(String::valueOf));
+
+        return rows;
+    }
+
+    /**
+     * @return Number of the map queries executed over column batches by all the nodes.
+     */
+    private long vectorizedExecutions() {
+        long res = 0;
+
+        for (Ignite ignite : G.allGrids()) {
+            LongMetric execs = ((IgniteEx)ignite).context().metric().registry(MAP_QUERY_METRIC_GROUP_NAME)
+                .findMetric("vectorized");
+
+            res += execs.value();
+        }
+
+        return res;
+    }
+
+    /**
+     * @param vectorized Whether the map queries are executed over column batches by all the nodes.
+     */
+    private void setVectorized(boolean vectorized) {
+        for (Ignite ignite : G.allGrids()) {
+            IgniteH2Indexing idx = (IgniteH2Indexing)((IgniteEx)ignite).context().query().getIndexing();
+
+            GridTestUtils.setFieldValue(idx.mapQueryExecutor(), "vectorized", vectorized);
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     */
+    private static void createTable(IgniteEx ignite) {
+        sql(ignite, "CREATE TABLE t (id INT PRIMARY KEY, grp VARCHAR, cat INT, ival INT, lval BIGINT, dval DOUBLE)");
+
+        for (int i = 0; i < ROWS; i++) {
+            sql(ignite, "INSERT INTO t VALUES (?, ?, ?, ?, ?, ?)",
+                i,
+                i % 13 == 0 ? null : "g" + i % 10,
+                i % 5,
+                i % 7 == 0 ? null : i,
+                // Sum of the values overflows long.
+                (long)i << 42,
+                i % 11 == 0 ? null : i / 4.0);
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @return Vectorized query or {@code null} if the query is not supported.
+     * @throws Exception If failed.
+     */
+    private static MapVectorizedQuery plan(IgniteEx ignite, String sql) throws Exception {
+        IgniteH2Indexing idx = (IgniteH2Indexing)ignite.context().query().getIndexing();
+
+        try (H2PooledConnection conn = idx.connections().connection("PUBLIC")) {
+            try (PreparedStatement stmt = conn.prepareStatementNoCache(sql)) {
+                return MapVectorizedQuery.plan(stmt, log);
+            }
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private static void sql(IgniteEx ignite, String sql, Object... args) {
+        ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.cache.index.AbstractIndexingCommonTest;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.apache.ignite.internal.processors.query.h2.twostep.AbstractReducer.IGNITE_SQL_REDUCER_MEMORY_QUOTA;
+
+/**
+ * Checks the results of queries reduced with the page size adapted to the reducer memory quota.
+ */
+@WithSystemProperty(key = IGNITE_SQL_REDUCER_MEMORY_QUOTA, value = "65536")
+public class ReducerMemoryQuotaSelfTest extends AbstractIndexingCommonTest {
+    /** Number of rows. */
+    private static final int ROWS = 5000;
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTestsStarted() throws Exception {
+        super.beforeTestsStarted();
+
+        IgniteEx ignite = startGrids(3);
+
+        sql(ignite, "CREATE TABLE t (id INT PRIMARY KEY, val VARCHAR)");
+
+        for (int i = 0; i < ROWS; i++)
+            sql(ignite, "INSERT INTO t VALUES (?, ?)", i, value(i));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTestsStopped() throws Exception {
+        stopAllGrids();
+
+        super.afterTestsStopped();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testSortedResults() throws Exception {
+        List<List<?>> expected = new ArrayList<>();
+
+        for (int i = 0; i < ROWS; i++)
+            expected.add(asList(i, value(i)));
+
+        expected.sort((r1, r2) -> ((String)r2.get(1)).compareTo((String)r1.get(1)));
+
+        for (boolean lazy : new boolean[] {false, true}) {
+            assertEquals(expected, sql(grid(0), new SqlFieldsQuery("SELECT id, val FROM t ORDER BY val DESC")
+                .setLazy(lazy)
+                .setPageSize(512)));
+
+            assertEquals(expected.subList(4000, 4010), sql(grid(1),
+                new SqlFieldsQuery("SELECT id, val FROM t ORDER BY val DESC LIMIT 10 OFFSET 4000").setLazy(lazy)));
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testUnsortedResults() throws Exception {
+        for (boolean lazy : new boolean[] {false, true}) {
+            List<List<?>> res = sql(grid(0), new SqlFieldsQuery("SELECT id, val FROM t")
+                .setLazy(lazy)
+                .setPageSize(512));
+
+            assertEquals(ROWS, res.size());
+
+            Set<Integer> ids = new HashSet<>();
+
+            for (List<?> row : res) {
+                int id = (Integer)row.get(0);
+
+                assertEquals(value(id), row.get(1));
+                assertTrue(ids.add(id));
+            }
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testReducerMemoryInRunningQueriesView() throws Exception {
+        String qry = "SELECT id, val FROM t ORDER BY id";
+
+        try (FieldsQueryCursor<List<?>> cur = grid(0).context().query().querySqlFields(
+            new SqlFieldsQuery(qry).setLazy(true).setPageSize(256), false)) {
+            Iterator<List<?>> it = cur.iterator();
+
+            for (int i = 0; i < 1000; i++)
+                assertEquals(i, it.next().get(0));
+
+            List<List<?>> view = sql(grid(0),
+                new SqlFieldsQuery("SELECT REDUCER_MEMORY FROM SYS.SQL_QUERIES WHERE SQL = ?").setArgs(qry));
+
+            assertEquals(1, view.size());
+
+            assertTrue((Long)view.get(0).get(0) > 0);
+        }
+    }
+
+    /**
+     * @param i Row index.
+     * @return Value of the row.
+     */
+    private static String value(int i) {
+        return String.format("%08d", (i * 7919) % ROWS) + "-" + i + "-padding-to-make-rows-larger";
+    }
+
+    /**
+     * @param ignite Node.
+     * @param qry Query.
+     * @return Results.
+     */
+    private static List<List<?>> sql(IgniteEx ignite, SqlFieldsQuery qry) {
+        return ignite.context().query().querySqlFields(qry, false).getAll();
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private static void sql(IgniteEx ignite, String sql, Object... args) {
+        sql(ignite, new SqlFieldsQuery(sql).setArgs(args));
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.cache.CacheException;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.TestRecordingCommunicationSpi;
+import org.apache.ignite.internal.processors.cache.index.AbstractIndexingCommonTest;
+import org.apache.ignite.internal.processors.query.GridRunningQueryInfo;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
+import org.apache.ignite.internal.util.typedef.G;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleAggregate.IGNITE_SQL_SHUFFLE_AGGREGATE;
+import static org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleAggregate.IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD;
+import static org.apache.ignite.internal.processors.query.h2.twostep.GridMapQueryExecutor.MAP_QUERY_METRIC_GROUP_NAME;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapShuffle.IGNITE_SQL_SHUFFLE_TIMEOUT;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapShuffleAggregate.IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA;
+
+/**
+ * Checks the GROUP BY queries aggregated by the map nodes exchanging partial groups: that the plan is chosen by the
+ * estimated number of groups, that the map nodes merge the shuffled groups and return the same results as the
+ * reducer aggregation, and that the query fails without leaking the received groups when they don't arrive in time
+ * or the query is cancelled.
+ */
+public class ShuffleAggregateSelfTest extends AbstractIndexingCommonTest {
+    /** Number of rows, each node sends more partial groups than a batch. */
+    private static final int ROWS = 8 * MapShuffle.BATCH_SIZE;
+
+    /** Number of nodes. */
+    private static final int NODES = 3;
+
+    /** Query grouping by a column of many distinct values. */
+    private static final String GROUP_BY = "SELECT grp, COUNT(*), SUM(amount) FROM sales GROUP BY grp";
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setCommunicationSpi(new TestRecordingCommunicationSpi());
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        super.afterTest();
+    }
+
+    /**
+     * Checks the merge of the partial aggregates, including the aggregates of the columns with nulls.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testAggregateFunctions() throws Exception {
+        IgniteEx ignite = startAnalyzed();
+
+        checkQuery(ignite, "SELECT grp, COUNT(*), SUM(amount), MIN(name), MAX(price), AVG(price), COUNT(amount) " +
+            "FROM sales GROUP BY grp");
+    }
+
+    /**
+     * Checks the groups of several columns filtered by HAVING, and the expressions over the group columns and the
+     * merged aggregates.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testGroupExpressions() throws Exception {
+        IgniteEx ignite = startAnalyzed();
+
+        checkQuery(ignite, "SELECT name, amount, AVG(price), SUM(price) FROM sales WHERE amount > ? " +
+            "GROUP BY name, amount HAVING COUNT(*) > 1", 100);
+        checkQuery(ignite, "SELECT grp * 2, COUNT(amount) + 1, MIN(price) FROM sales GROUP BY grp");
+    }
+
+    /**
+     * Checks the merged groups sorted, limited and made distinct by the reducer.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testReducedGroups() throws Exception {
+        IgniteEx ignite = startAnalyzed();
+
+        checkQuery(ignite, "SELECT grp, SUM(amount) s FROM sales GROUP BY grp ORDER BY s DESC, grp LIMIT 10 OFFSET 5");
+        checkQuery(ignite, "SELECT DISTINCT COUNT(*) FROM sales GROUP BY name");
+    }
+
+    /**
+     * Checks the merge of the groups spilled to disk.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_SQL_SHUFFLE_AGGREGATE_MEMORY_QUOTA, value = "8192")
+    public void testSpilledGroups() throws Exception {
+        IgniteEx ignite = startAnalyzed();
+
+        checkQuery(ignite, GROUP_BY);
+    }
+
+    /**
+     * Checks that the plan depends on the number of distinct values of the grouped column collected by ANALYZE.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testPlanDependsOnColumnCardinality() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTable(ignite);
+
+        // GRP has ROWS / 4 distinct values, NAME has 100.
+        String highCard = "EXPLAIN " + GROUP_BY;
+        String lowCard = "EXPLAIN SELECT name, COUNT(*) FROM sales GROUP BY name";
+
+        String threshold = String.valueOf(ROWS / 8);
+
+        // The number of groups is not estimated without statistics.
+        assertEquals(2, groupingPlans(ignite, highCard, threshold));
+
+        sql(ignite, "ANALYZE sales");
+
+        // The map query still groups the local rows, but the reducer does not group them again.
+        assertEquals(1, groupingPlans(ignite, highCard, threshold));
+        assertEquals(2, groupingPlans(ignite, lowCard, threshold));
+
+        // The number of groups by an expression is not estimated.
+        assertEquals(2, groupingPlans(ignite, "EXPLAIN SELECT grp % 7, COUNT(*) FROM sales GROUP BY grp % 7",
+            threshold));
+
+        // Shuffle aggregation is disabled by default.
+        assertEquals(2, groupingPlans(ignite, highCard, null));
+
+        // The map nodes exchange the groups of the executed query only if it is planned so.
+        long aggs = shuffleAggregates();
+
+        results(ignite, lowCard.substring("EXPLAIN ".length()), null, threshold);
+
+        assertEquals(aggs, shuffleAggregates());
+
+        results(ignite, GROUP_BY, null, threshold);
+
+        assertEquals(aggs + NODES, shuffleAggregates());
+    }
+
+    /**
+     * Checks that the query fails once the map nodes don't receive the groups of another map node in time.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_SQL_SHUFFLE_TIMEOUT, value = "1000")
+    public void testGroupsTimeout() throws Exception {
+        IgniteEx ignite = startAnalyzed();
+
+        TestRecordingCommunicationSpi spi = TestRecordingCommunicationSpi.spi(grid(1));
+
+        spi.blockMessages((node, msg) -> msg instanceof GridH2ShuffleRowsMessage);
+
+        GridTestUtils.assertThrowsAnyCause(log, () -> results(ignite, GROUP_BY, null, "1"), CacheException.class,
+            "Timed out awaiting rows of shuffle query");
+
+        // Groups received after the query failed are dropped.
+        spi.stopBlock();
+
+        checkNoShuffles();
+    }
+
+    /**
+     * Checks that the map nodes awaiting the groups stop once the query is cancelled.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCancel() throws Exception {
+        IgniteEx ignite = startAnalyzed();
+
+        TestRecordingCommunicationSpi spi = TestRecordingCommunicationSpi.spi(grid(1));
+
+        spi.blockMessages((node, msg) -> msg instanceof GridH2ShuffleRowsMessage);
+
+        IgniteInternalFuture<List<List<?>>> fut = GridTestUtils.runAsync(() -> results(ignite, GROUP_BY, null, "1"));
+
+        spi.waitForBlocked();
+
+        Collection<Long> qryIds = ignite.context().query().runningQueries(-1).stream()
+            .map(GridRunningQueryInfo::id)
+            .collect(Collectors.toList());
+
+        ignite.context().query().cancelQueries(qryIds);
+
+        GridTestUtils.assertThrowsWithCause(() -> fut.get(getTestTimeout()), QueryCancelledException.class);
+
+        spi.stopBlock();
+
+        checkNoShuffles();
+    }
+
+    /**
+     * @return First node of the started cluster with the analyzed table.
+     * @throws Exception If failed.
+     */
+    private IgniteEx startAnalyzed() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTable(ignite);
+
+        sql(ignite, "ANALYZE sales");
+
+        return ignite;
+    }
+
+    /**
+     * Checks that every map node merges the shuffled groups and the query returns the same results as the reducer
+     * aggregation.
+     *
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private void checkQuery(IgniteEx ignite, String sql, Object... args) {
+        List<List<?>> expected = results(ignite, sql, args, null);
+
+        long aggs = shuffleAggregates();
+
+        List<List<?>> actual = results(ignite, sql, args, "1");
+
+        assertEquals(sql, NODES, shuffleAggregates() - aggs);
+
+        assertFalse(sql, expected.isEmpty());
+        assertEquals(sql, expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++)
+            assertRowEquals(sql, expected.get(i), actual.get(i));
+    }
+
+    /**
+     * @return Number of the map queries merging the shuffled groups on all the nodes.
+     */
+    private long shuffleAggregates() {
+        long res = 0;
+
+        for (Ignite ignite : G.allGrids()) {
+            LongMetric aggs = ((IgniteEx)ignite).context().metric().registry(MAP_QUERY_METRIC_GROUP_NAME)
+                .findMetric("shuffleAggregates");
+
+            res += aggs.value();
+        }
+
+        return res;
+    }
+
+    /**
+     * Checks that the groups received for the finished queries are released by all the nodes.
+     *
+     * @throws Exception If failed.
+     */
+    private void checkNoShuffles() throws Exception {
+        assertTrue(GridTestUtils.waitForCondition(() -> {
+            for (Ignite ignite : G.allGrids()) {
+                GridMapQueryExecutor exec =
+                    ((IgniteH2Indexing)((IgniteEx)ignite).context().query().getIndexing()).mapQueryExecutor();
+
+                if (!((Map<?, ?>)GridTestUtils.getFieldValue(exec, "shuffles")).isEmpty())
+                    return false;
+            }
+
+            return true;
+        }, getTestTimeout()));
+    }
+
+    /**
+     * Compares the rows, the floating point values are merged in a different order so they may differ slightly.
+     *
+     * @param msg Message.
+     * @param expected Expected row.
+     * @param actual Actual row.
+     */
+    private static void assertRowEquals(String msg, List<?> expected, List<?> actual) {
+        assertEquals(msg, expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) instanceof Double && actual.get(i) instanceof Double) {
+                double exp = (Double)expected.get(i);
+
+                assertEquals(msg, exp, (Double)actual.get(i), Math.max(1, Math.abs(exp)) * 1e-9);
+            }
+            else
+                assertEquals(msg, expected.get(i), actual.get(i));
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Explained query.
+     * @param threshold Shuffle aggregation threshold or {@code null} if shuffle aggregation is disabled.
+     * @return Number of the map and reduce queries of the plan which group rows.
+     */
+    private static long groupingPlans(IgniteEx ignite, String sql, String threshold) {
+        return results(ignite, sql, null, threshold).stream()
+            .filter(row -> String.valueOf(row.get(0)).contains("GROUP BY"))
+            .count();
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     * @param threshold Shuffle aggregation threshold or {@code null} if shuffle aggregation is disabled.
+     * @return Sorted results.
+     */
+    private static List<List<?>> results(IgniteEx ignite, String sql, Object[] args, String threshold) {
+        if (threshold == null)
+            System.clearProperty(IGNITE_SQL_SHUFFLE_AGGREGATE);
+        else {
+            System.setProperty(IGNITE_SQL_SHUFFLE_AGGREGATE, "true");
+            System.setProperty(IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD, threshold);
+        }
+
+        // The query is split again with the changed properties.
+        ((IgniteH2Indexing)ignite.context().query().getIndexing()).parser().clearCache();
+
+        try {
+            SqlFieldsQuery qry = new SqlFieldsQuery(sql);
+
+            if (args != null)
+                qry.setArgs(args);
+
+            List<List<?>> rows = new ArrayList<>(ignite.context().query().querySqlFields(qry, false).getAll());
+
+            rows.sort(Comparator.comparing(String::valueOf));
+
+            return rows;
+        }
+        finally {
+            System.clearProperty(IGNITE_SQL_SHUFFLE_AGGREGATE);
+            System.clearProperty(IGNITE_SQL_SHUFFLE_AGGREGATE_THRESHOLD);
+        }
+    }
+
+    /**
+     * Creates a table grouped by columns which are not the affinity keys.
+     *
+     * @param ignite Node.
+     */
+    private static void createTable(IgniteEx ignite) {
+        sql(ignite, "CREATE TABLE sales (id INT PRIMARY KEY, grp INT, name VARCHAR, amount INT, price DOUBLE)");
+
+        for (int i = 0; i < ROWS; i++) {
+            sql(ignite, "INSERT INTO sales VALUES (?, ?, ?, ?, ?)",
+                i, i % (ROWS / 4), i % 13 == 0 ? null : "n" + i % 100, i % 11 == 0 ? null : i % 1000,
+                i % 17 == 0 ? null : i / 7.0);
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private static void sql(IgniteEx ignite, String sql, Object... args) {
+        ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+}
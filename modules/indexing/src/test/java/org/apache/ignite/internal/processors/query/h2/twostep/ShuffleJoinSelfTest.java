@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.h2.twostep;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.cache.CacheException;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.IgniteInternalFuture;
+import org.apache.ignite.internal.TestRecordingCommunicationSpi;
+import org.apache.ignite.internal.processors.cache.index.AbstractIndexingCommonTest;
+import org.apache.ignite.internal.processors.query.GridRunningQueryInfo;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.internal.processors.query.h2.twostep.msg.GridH2ShuffleRowsMessage;
+import org.apache.ignite.internal.util.typedef.G;
+import org.apache.ignite.spi.metric.LongMetric;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.h2.sql.SplitterShuffleJoin.IGNITE_SQL_SHUFFLE_JOIN;
+import static org.apache.ignite.internal.processors.query.h2.twostep.GridMapQueryExecutor.MAP_QUERY_METRIC_GROUP_NAME;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapShuffle.IGNITE_SQL_SHUFFLE_TIMEOUT;
+import static org.apache.ignite.internal.processors.query.h2.twostep.MapShuffleJoin.IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA;
+
+/**
+ * Checks the shuffle joins of non-collocated tables: that the map nodes join the shuffled rows and return the same
+ * results as the distributed joins, and that the query fails or is retried without leaking the received rows when
+ * the rows don't arrive in time, a map node leaves or the query is cancelled.
+ */
+public class ShuffleJoinSelfTest extends AbstractIndexingCommonTest {
+    /** Number of rows, each node sends more rows than a batch. */
+    private static final int ROWS = 4 * MapShuffleJoin.BATCH_SIZE;
+
+    /** Number of nodes. */
+    private static final int NODES = 3;
+
+    /** Query joining the tables by a column which is not the affinity key. */
+    private static final String JOIN = "SELECT o.id, c.name FROM orders o JOIN customer c ON o.customer = c.code";
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setCommunicationSpi(new TestRecordingCommunicationSpi());
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        stopAllGrids();
+
+        super.afterTest();
+    }
+
+    /**
+     * Checks the join keys with nulls, the composite join keys and the conditions over both tables.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testJoinConditions() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTables(ignite);
+
+        checkQuery(ignite, JOIN);
+        checkQuery(ignite, "SELECT COUNT(*) FROM customer c JOIN orders o ON c.code = o.customer");
+        checkQuery(ignite, "SELECT o.id, c.id FROM orders o JOIN customer c ON o.customer = c.code AND " +
+            "o.region = c.region WHERE o.amount > ? AND c.name <> ?", 100, "c7");
+        checkQuery(ignite, "SELECT o.id FROM orders o JOIN customer c ON o.customer = c.code WHERE o.amount < c.id");
+    }
+
+    /**
+     * Checks the joined rows grouped, sorted and limited by the reducer.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testReducedJoin() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTables(ignite);
+
+        checkQuery(ignite, "SELECT c.name, COUNT(*), SUM(o.amount) FROM orders o, customer c " +
+            "WHERE o.customer = c.code GROUP BY c.name");
+        checkQuery(ignite, "SELECT c.region, MAX(o.amount) FROM orders o JOIN customer c ON o.customer = c.code " +
+            "GROUP BY c.region ORDER BY c.region DESC LIMIT 3");
+    }
+
+    /**
+     * Checks the join of the rows spilled to disk.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_SQL_SHUFFLE_JOIN_MEMORY_QUOTA, value = "4096")
+    public void testSpilledJoin() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTables(ignite);
+
+        checkQuery(ignite, JOIN);
+    }
+
+    /**
+     * Checks that the query fails once the map nodes don't receive the rows of another map node in time.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    @WithSystemProperty(key = IGNITE_SQL_SHUFFLE_TIMEOUT, value = "1000")
+    public void testRowsTimeout() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTables(ignite);
+
+        TestRecordingCommunicationSpi spi = TestRecordingCommunicationSpi.spi(grid(1));
+
+        spi.blockMessages((node, msg) -> msg instanceof GridH2ShuffleRowsMessage);
+
+        GridTestUtils.assertThrowsAnyCause(log, () -> results(ignite, JOIN, null, true), CacheException.class,
+            "Timed out awaiting rows of shuffle query");
+
+        // Rows received after the query failed are dropped.
+        spi.stopBlock();
+
+        checkNoShuffles();
+    }
+
+    /**
+     * Checks that the query is retried once a map node which didn't send all the rows leaves.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testNodeLeft() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTables(ignite);
+
+        TestRecordingCommunicationSpi.spi(grid(NODES - 1))
+            .blockMessages((node, msg) -> msg instanceof GridH2ShuffleRowsMessage);
+
+        IgniteInternalFuture<List<List<?>>> fut = GridTestUtils.runAsync(() -> results(ignite, JOIN, null, true));
+
+        TestRecordingCommunicationSpi.spi(grid(NODES - 1)).waitForBlocked();
+
+        stopGrid(NODES - 1, true);
+
+        List<List<?>> actual = fut.get(getTestTimeout());
+
+        assertEquals(results(ignite, JOIN, null, false), actual);
+
+        checkNoShuffles();
+    }
+
+    /**
+     * Checks that the map nodes awaiting the rows stop once the query is cancelled.
+     *
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCancel() throws Exception {
+        IgniteEx ignite = startGrids(NODES);
+
+        createTables(ignite);
+
+        TestRecordingCommunicationSpi spi = TestRecordingCommunicationSpi.spi(grid(1));
+
+        spi.blockMessages((node, msg) -> msg instanceof GridH2ShuffleRowsMessage);
+
+        IgniteInternalFuture<List<List<?>>> fut = GridTestUtils.runAsync(() -> results(ignite, JOIN, null, true));
+
+        spi.waitForBlocked();
+
+        Collection<Long> qryIds = ignite.context().query().runningQueries(-1).stream()
+            .map(GridRunningQueryInfo::id)
+            .collect(Collectors.toList());
+
+        ignite.context().query().cancelQueries(qryIds);
+
+        GridTestUtils.assertThrowsWithCause(() -> fut.get(getTestTimeout()), QueryCancelledException.class);
+
+        spi.stopBlock();
+
+        checkNoShuffles();
+    }
+
+    /**
+     * Checks that every map node joins the shuffled rows and the query returns the same results as the distributed
+     * join.
+     *
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private void checkQuery(IgniteEx ignite, String sql, Object... args) {
+        List<List<?>> expected = results(ignite, sql, args, false);
+
+        long joins = shuffleJoins();
+
+        List<List<?>> actual = results(ignite, sql, args, true);
+
+        assertEquals(sql, NODES, shuffleJoins() - joins);
+
+        assertFalse(sql, expected.isEmpty());
+        assertEquals(sql, expected, actual);
+    }
+
+    /**
+     * @return Number of the map queries joining the shuffled rows on all the nodes.
+     */
+    private long shuffleJoins() {
+        long res = 0;
+
+        for (Ignite ignite : G.allGrids()) {
+            LongMetric joins = ((IgniteEx)ignite).context().metric().registry(MAP_QUERY_METRIC_GROUP_NAME)
+                .findMetric("shuffleJoins");
+
+            res += joins.value();
+        }
+
+        return res;
+    }
+
+    /**
+     * Checks that the rows received for the finished queries are released by all the nodes.
+     *
+     * @throws Exception If failed.
+     */
+    private void checkNoShuffles() throws Exception {
+        assertTrue(GridTestUtils.waitForCondition(() -> {
+            for (Ignite ignite : G.allGrids()) {
+                GridMapQueryExecutor exec =
+                    ((IgniteH2Indexing)((IgniteEx)ignite).context().query().getIndexing()).mapQueryExecutor();
+
+                if (!((Map<?, ?>)GridTestUtils.getFieldValue(exec, "shuffles")).isEmpty())
+                    return false;
+            }
+
+            return true;
+        }, getTestTimeout()));
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     * @param shuffle Whether the tables are joined by the shuffle join, otherwise by the distributed join.
+     * @return Sorted results.
+     */
+    private static List<List<?>> results(IgniteEx ignite, String sql, Object[] args, boolean shuffle) {
+        String old = System.getProperty(IGNITE_SQL_SHUFFLE_JOIN);
+
+        System.setProperty(IGNITE_SQL_SHUFFLE_JOIN, String.valueOf(shuffle));
+
+        try {
+            SqlFieldsQuery qry = new SqlFieldsQuery(sql).setDistributedJoins(!shuffle);
+
+            if (args != null)
+                qry.setArgs(args);
+
+            List<List<?>> rows = new ArrayList<>(ignite.context().query().querySqlFields(qry, false).getAll());
+
+            rows.sort(Comparator.comparing(String::valueOf));
+
+            return rows;
+        }
+        finally {
+            if (old == null)
+                System.clearProperty(IGNITE_SQL_SHUFFLE_JOIN);
+            else
+                System.setProperty(IGNITE_SQL_SHUFFLE_JOIN, old);
+        }
+    }
+
+    /**
+     * Creates tables joined by columns which are not the affinity keys, the data survives a node failure.
+     *
+     * @param ignite Node.
+     */
+    private static void createTables(IgniteEx ignite) {
+        sql(ignite, "CREATE TABLE customer (id INT PRIMARY KEY, code VARCHAR, region INT, name VARCHAR) " +
+            "WITH \"backups=1\"");
+        sql(ignite, "CREATE TABLE orders (id INT PRIMARY KEY, customer VARCHAR, region INT, amount INT) " +
+            "WITH \"backups=1\"");
+
+        for (int i = 0; i < ROWS / 8; i++) {
+            sql(ignite, "INSERT INTO customer VALUES (?, ?, ?, ?)",
+                i, i % 50 == 0 ? null : "code" + i, i % 4, "c" + i % 10);
+        }
+
+        for (int i = 0; i < ROWS; i++) {
+            sql(ignite, "INSERT INTO orders VALUES (?, ?, ?, ?)",
+                i, i % 17 == 0 ? null : "code" + i % (ROWS / 6), i % 3, i % 1000);
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @param sql Query.
+     * @param args Query arguments.
+     */
+    private static void sql(IgniteEx ignite, String sql, Object... args) {
+        ignite.context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.ignite.internal.processors.query.stat;
+
+import java.util.List;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.cache.query.QueryTable;
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.apache.ignite.internal.processors.query.h2.IgniteH2Indexing;
+import org.apache.ignite.testframework.GridTestUtils;
+import org.apache.ignite.testframework.junits.WithSystemProperty;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.internal.processors.query.stat.StatisticsManager.IGNITE_SQL_STATISTICS_REFRESH_INTERVAL;
+
+/**
+ * Tests the column statistics collected by ANALYZE.
+ */
+@WithSystemProperty(key = IGNITE_SQL_STATISTICS_REFRESH_INTERVAL, value = "200")
+public class ColumnStatisticsSelfTest extends GridCommonAbstractTest {
+    /** */
+    private static final int ROWS = 2000;
+
+    /** */
+    private static final int DIMS = 20;
+
+    /** */
+    private static final QueryTable FACT = new QueryTable("PUBLIC", "FACT");
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTestsStarted() throws Exception {
+        super.beforeTestsStarted();
+
+        startGrids(2);
+
+        startClientGrid(2);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTest() throws Exception {
+        super.beforeTest();
+
+        sql("CREATE TABLE fact (id INT PRIMARY KEY, dim_id INT, val INT, name VARCHAR)");
+        sql("CREATE INDEX fact_dim_idx ON fact(dim_id)");
+        sql("CREATE INDEX fact_val_idx ON fact(val)");
+
+        insert(0, ROWS);
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTest() throws Exception {
+        sql("DROP TABLE IF EXISTS fact");
+
+        // The statistics of the dropped table are removed from the metastorage asynchronously.
+        assertTrue(GridTestUtils.waitForCondition(() -> {
+            for (int i = 0; i < 3; i++) {
+                if (statistics(grid(i)) != null)
+                    return false;
+            }
+
+            return true;
+        }, 10_000));
+
+        super.afterTest();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCollect() throws Exception {
+        assertNull(statistics(grid(0)));
+
+        sql("ANALYZE fact");
+
+        for (int i = 0; i < 3; i++) {
+            ObjectStatistics stats = statistics(grid(i));
+
+            assertNotNull(stats);
+            assertEquals(ROWS, stats.rowCount());
+
+            ColumnStatistics id = stats.column("ID");
+
+            assertEquals(0, id.min());
+            assertEquals(ROWS - 1, id.max());
+            assertEquals(ROWS, id.distinct(), ROWS * 0.05);
+
+            ColumnStatistics dimId = stats.column("DIM_ID");
+
+            assertEquals(DIMS, dimId.distinct(), 1);
+            assertEquals(0, dimId.nulls());
+
+            ColumnStatistics name = stats.column("NAME");
+
+            assertEquals(0.25, name.nullFraction(), 0.001);
+
+            ColumnStatistics val = stats.column("VAL");
+
+            assertEquals(0.25, val.rangeFraction(0, ROWS / 4), 0.05);
+            assertEquals(0.5, val.rangeFraction(ROWS / 2, null), 0.05);
+            assertEquals(0, val.rangeFraction(null, -1), 0.001);
+        }
+
+        GridTestUtils.assertThrowsAnyCause(log, () -> sql("ANALYZE missing"), IgniteSQLException.class,
+            "Table does not exist");
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testRefreshOnUpdates() throws Exception {
+        sql("ANALYZE PUBLIC.fact");
+
+        insert(ROWS, 2 * ROWS);
+
+        assertTrue(GridTestUtils.waitForCondition(() -> {
+            ObjectStatistics stats = statistics(grid(2));
+
+            return stats != null && stats.rowCount() == 2 * ROWS;
+        }, 10_000));
+
+        ObjectStatistics stats = statistics(grid(0));
+
+        assertEquals(2 * ROWS - 1, stats.column("ID").max());
+        assertEquals(2 * ROWS, stats.column("NAME").total());
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testIndexChosenBySelectivity() throws Exception {
+        String qry = "EXPLAIN SELECT id FROM fact WHERE val < 10 AND dim_id = 1";
+
+        // Without statistics the equality is preferred to the range.
+        assertTrue(plan(qry).contains("FACT_DIM_IDX"));
+
+        sql("ANALYZE fact");
+
+        // A range of 0.5% of the rows is more selective than a value of 20 distinct ones.
+        assertTrue(plan(qry).contains("FACT_VAL_IDX"));
+    }
+
+    /**
+     * @param qry Query.
+     * @return Plan.
+     */
+    private String plan(String qry) {
+        return grid(2).context().query().querySqlFields(new SqlFieldsQuery(qry), false).getAll().toString();
+    }
+
+    /**
+     * @param from First ID, inclusive.
+     * @param to Last ID, exclusive.
+     */
+    private void insert(int from, int to) {
+        for (int i = from; i < to; i++) {
+            sql("INSERT INTO fact (id, dim_id, val, name) VALUES (?, ?, ?, ?)",
+                i, i % DIMS, i, i % 4 == 0 ? null : "name" + i);
+        }
+    }
+
+    /**
+     * @param ignite Node.
+     * @return Statistics of the fact table.
+     */
+    private static ObjectStatistics statistics(IgniteEx ignite) {
+        return ((IgniteH2Indexing)ignite.context().query().getIndexing()).statisticsManager().statistics(FACT);
+    }
+
+    /**
+     * @param sql SQL.
+     * @param args Arguments.
+     * @return Result.
+     */
+    private List<List<?>> sql(String sql, Object... args) {
+        return grid(2).context().query().querySqlFields(new SqlFieldsQuery(sql).setArgs(args), false).getAll();
+    }
+}
@@ -80,10 +80,15 @@ import org.apache.ignite.internal.processors.query.h2.twostep.CacheQueryMemoryLe
 import org.apache.ignite.internal.processors.query.h2.twostep.CreateTableWithDateKeySelfTest;
 import org.apache.ignite.internal.processors.query.h2.twostep.DisappearedCacheCauseRetryMessageSelfTest;
 import org.apache.ignite.internal.processors.query.h2.twostep.DisappearedCacheWasNotFoundMessageSelfTest;
+import org.apache.ignite.internal.processors.query.h2.twostep.MapVectorizedQuerySelfTest;
 import org.apache.ignite.internal.processors.query.h2.twostep.NonCollocatedRetryMessageSelfTest;
 import org.apache.ignite.internal.processors.query.h2.twostep.NoneOrSinglePartitionsQueryOptimizationsTest;
+import org.apache.ignite.internal.processors.query.h2.twostep.ReducerMemoryQuotaSelfTest;
 import org.apache.ignite.internal.processors.query.h2.twostep.RetryCauseMessageSelfTest;
+import org.apache.ignite.internal.processors.query.h2.twostep.ShuffleAggregateSelfTest;
+import org.apache.ignite.internal.processors.query.h2.twostep.ShuffleJoinSelfTest;
 import org.apache.ignite.internal.processors.query.h2.twostep.TableViewSubquerySelfTest;
+import org.apache.ignite.internal.processors.query.stat.ColumnStatisticsSelfTest;
 import org.apache.ignite.internal.processors.query.timeout.DefaultQueryTimeoutTestSuite;
 import org.apache.ignite.sqltests.SqlDataTypesCoverageTests;
 import org.junit.runner.RunWith;
@@ -174,6 +179,12 @@ import org.junit.runners.Suite;
 
     TableViewSubquerySelfTest.class,
 
+    MapVectorizedQuerySelfTest.class,
+    ShuffleJoinSelfTest.class,
+    ReducerMemoryQuotaSelfTest.class,
+    ShuffleAggregateSelfTest.class,
+    ColumnStatisticsSelfTest.class,
+
     SqlLocalQueryConnectionAndStatementTest.class,
 
     NoneOrSinglePartitionsQueryOptimizationsTest.class,
@@ -43,6 +43,9 @@ import org.apache.ignite.internal.processors.cache.IgniteCacheStarvationOnRebala
 import org.apache.ignite.internal.processors.cache.IgniteClientReconnectQueriesTest;
 import org.apache.ignite.internal.processors.cache.WrongIndexedTypesTest;
 import org.apache.ignite.internal.processors.cache.index.H2TreeCorruptedTreeExceptionTest;
+import org.apache.ignite.internal.processors.cache.index.H2TreeInlineNormalizedKeysTest;
+import org.apache.ignite.internal.processors.cache.index.H2TreeInlineSizeChangeTest;
+import org.apache.ignite.internal.processors.cache.index.H2TreeInlinePrefixCompressionTest;
 import org.apache.ignite.internal.processors.cache.persistence.RebuildIndexLogMessageTest;
 import org.apache.ignite.internal.processors.cache.ttl.CacheSizeTtlTest;
 import org.apache.ignite.internal.processors.cache.ttl.CacheTtlAtomicLocalSelfTest;
@@ -52,6 +55,7 @@ import org.apache.ignite.internal.processors.cache.ttl.CacheTtlTransactionalLoca
 import org.apache.ignite.internal.processors.cache.ttl.CacheTtlTransactionalPartitionedSelfTest;
 import org.apache.ignite.internal.processors.client.IgniteDataStreamerTest;
 import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.InlineIndexColumnTest;
+import org.apache.ignite.internal.processors.query.h2.database.inlinecolumn.NormalizedKeyInlineIndexColumnTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -61,6 +65,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     InlineIndexColumnTest.class,
+    NormalizedKeyInlineIndexColumnTest.class,
 
     GridIndexingWithNoopSwapSelfTest.class,
     GridCacheOffHeapSelfTest.class,
@@ -112,6 +117,10 @@ import org.junit.runners.Suite;
 
     H2TreeCorruptedTreeExceptionTest.class,
 
+    H2TreeInlinePrefixCompressionTest.class,
+    H2TreeInlineNormalizedKeysTest.class,
+    H2TreeInlineSizeChangeTest.class,
+
     WrongIndexedTypesTest.class
 })
 public class IgniteCacheWithIndexingTestSuite {